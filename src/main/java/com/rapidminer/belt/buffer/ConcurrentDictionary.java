@@ -0,0 +1,197 @@
+/**
+ * This file is part of the RapidMiner Belt project.
+ * Copyright (C) 2017-2021 RapidMiner GmbH
+ *
+ * This program is free software: you can redistribute it and/or modify it under the terms of the GNU Affero General
+ * Public License as published by the Free Software Foundation, either version 3 of the License, or (at your option) any
+ * later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied
+ * warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU Affero General Public License along with this program. If not, see
+ * https://www.gnu.org/licenses/.
+ */
+
+
+package com.rapidminer.belt.buffer;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+import com.rapidminer.belt.column.Dictionary;
+
+
+/**
+ * Mapping from category values to consecutive category indices that can be extended concurrently without a global
+ * lock. Index {@code 0} is reserved for the missing value {@code null}.
+ *
+ * <p>New values are inserted via {@link ConcurrentHashMap#computeIfAbsent}, which only locks the hash bin of the
+ * value. Thus, threads inserting different values rarely contend. The index of a new value is assigned inside the
+ * insertion so that no index is skipped. The values are stored in segments of exponentially growing size that are
+ * allocated on demand and never copied.
+ *
+ * <p>A value returned by {@link #value(int)} is visible to every thread that obtained its index from this dictionary
+ * or from a thread that did so before a happens-before edge, e.g., the end of a parallel task.
+ *
+ * @author Michael Knopf
+ */
+final class ConcurrentDictionary {
+
+	/**
+	 * Returned by {@link #index(String)} if the value could not be added since the dictionary is full.
+	 */
+	static final int FULL = -1;
+
+	/**
+	 * The size of the first segment is {@code 2^FIRST_SEGMENT_SHIFT}.
+	 */
+	private static final int FIRST_SEGMENT_SHIFT = 4;
+
+	/**
+	 * Enough segments to address every non-negative int index.
+	 */
+	private static final int MAX_SEGMENTS = Integer.SIZE - FIRST_SEGMENT_SHIFT;
+
+	private final Map<String, Integer> indexLookup = new ConcurrentHashMap<>();
+	private final AtomicReferenceArray<String[]> segments = new AtomicReferenceArray<>(MAX_SEGMENTS);
+	private final AtomicInteger size = new AtomicInteger(1);
+	private final int maximalIndex;
+
+	/**
+	 * Creates an empty dictionary.
+	 *
+	 * @param maximalIndex
+	 * 		the maximal category index, i.e., the maximal number of different values
+	 */
+	ConcurrentDictionary(int maximalIndex) {
+		this.maximalIndex = maximalIndex;
+	}
+
+	/**
+	 * Creates a dictionary containing the values of the given dictionary at the same indices.
+	 *
+	 * @param dictionary
+	 * 		the dictionary to copy
+	 * @param maximalIndex
+	 * 		the maximal category index, must not be smaller than the maximal index of the dictionary
+	 */
+	ConcurrentDictionary(Dictionary dictionary, int maximalIndex) {
+		this(maximalIndex);
+		for (int i = 1; i <= dictionary.maximalIndex(); i++) {
+			String value = dictionary.get(i);
+			store(i, value);
+			if (value != null) {
+				indexLookup.put(value, i);
+			}
+		}
+		size.set(dictionary.maximalIndex() + 1);
+	}
+
+	/**
+	 * Returns the category index of the given value, adding the value if necessary. This method is thread-safe.
+	 *
+	 * @param value
+	 * 		the non-null value
+	 * @return the category index or {@link #FULL} if the value is new but the maximal index is reached
+	 */
+	int index(String value) {
+		Integer index = indexLookup.get(value);
+		if (index == null) {
+			index = indexLookup.computeIfAbsent(value, this::add);
+		}
+		return index == null ? FULL : index;
+	}
+
+	/**
+	 * Returns the category index of the given value without adding it.
+	 *
+	 * @param value
+	 * 		the non-null value
+	 * @return the category index or {@code null} if the value is not contained
+	 */
+	Integer get(String value) {
+		return indexLookup.get(value);
+	}
+
+	/**
+	 * Returns the value for the given category index.
+	 *
+	 * @param index
+	 * 		the category index
+	 * @return the value, {@code null} for index {@code 0}
+	 */
+	String value(int index) {
+		if (index == 0) {
+			return null;
+		}
+		long position = (long) index + (1 << FIRST_SEGMENT_SHIFT);
+		int segment = segmentIndex(position);
+		return segments.get(segment)[(int) (position - (1L << (segment + FIRST_SEGMENT_SHIFT)))];
+	}
+
+	/**
+	 * @return the number of indices in use including the index {@code 0} of the missing value
+	 */
+	int size() {
+		return size.get();
+	}
+
+	/**
+	 * Returns the values ordered by their category index starting with {@code null} at index {@code 0}. Must not be
+	 * called concurrently with {@link #index(String)}.
+	 *
+	 * @return a new list of the values
+	 */
+	List<String> values() {
+		int length = size.get();
+		List<String> values = new ArrayList<>(length);
+		for (int i = 0; i < length; i++) {
+			values.add(value(i));
+		}
+		return values;
+	}
+
+	/**
+	 * Assigns the next index to the value. Only called for absent values while their hash bin is locked.
+	 */
+	private Integer add(String value) {
+		while (true) {
+			int index = size.get();
+			if (index > maximalIndex) {
+				return null;
+			}
+			if (size.compareAndSet(index, index + 1)) {
+				store(index, value);
+				return index;
+			}
+		}
+	}
+
+	private void store(int index, String value) {
+		long position = (long) index + (1 << FIRST_SEGMENT_SHIFT);
+		int segment = segmentIndex(position);
+		String[] values = segments.get(segment);
+		if (values == null) {
+			// the last segment is only partially addressable, so cap its length at the maximal array length
+			int length = (int) Math.min(1L << (segment + FIRST_SEGMENT_SHIFT), Integer.MAX_VALUE - 8);
+			segments.compareAndSet(segment, null, new String[length]);
+			values = segments.get(segment);
+		}
+		values[(int) (position - (1L << (segment + FIRST_SEGMENT_SHIFT)))] = value;
+	}
+
+	/**
+	 * Segment {@code k} holds the positions from {@code 2^(k+FIRST_SEGMENT_SHIFT)} (inclusive) to
+	 * {@code 2^(k+FIRST_SEGMENT_SHIFT+1)} (exclusive).
+	 */
+	private static int segmentIndex(long position) {
+		return Long.SIZE - 1 - Long.numberOfLeadingZeros(position) - FIRST_SEGMENT_SHIFT;
+	}
+
+}
@@ -16,11 +16,8 @@
 
 package com.rapidminer.belt.buffer;
 
-import java.util.ArrayList;
 import java.util.List;
-import java.util.Map;
 import java.util.Objects;
-import java.util.concurrent.ConcurrentHashMap;
 
 import com.rapidminer.belt.column.BooleanDictionary;
 import com.rapidminer.belt.column.CategoricalColumn;
@@ -40,11 +37,15 @@ import com.rapidminer.belt.util.IntegerFormats.Format;
  */
 public class Int32NominalBuffer extends NominalBuffer {
 
+	/**
+	 * The maximal category index, one less than {@link Integer#MAX_VALUE} so that the number of indices fits into an
+	 * int.
+	 */
+	private static final int MAXIMAL_INDEX = Integer.MAX_VALUE - 1;
 
 	private final int[] data;
 	private boolean frozen = false;
-	private final Map<String, Integer> indexLookup = new ConcurrentHashMap<>();
-	private final List<String> valueLookup = new ArrayList<>();
+	private final ConcurrentDictionary lookup;
 
 	/**
 	 * Creates a buffer of the given length.
@@ -57,7 +58,7 @@ public class Int32NominalBuffer extends NominalBuffer {
 	Int32NominalBuffer(ColumnType<String> type, int length) {
 		super(type);
 		data = new int[length];
-		valueLookup.add(null); //position 0 stands for missing value, i.e. null
+		lookup = new ConcurrentDictionary(MAXIMAL_INDEX);
 	}
 
 	/**
@@ -73,58 +74,63 @@ public class Int32NominalBuffer extends NominalBuffer {
 		super(type);
 		data = new int[column.size()];
 		column.fill(data, 0);
-		fillStructures(column.getDictionary());
+		lookup = new ConcurrentDictionary(column.getDictionary(), MAXIMAL_INDEX);
 	}
 
-	private void fillStructures(Dictionary values) {
-		valueLookup.add(null);
-		for (int i = 1; i <= values.maximalIndex(); i++) {
-			String value = values.get(i);
-			valueLookup.add(value);
-			indexLookup.put(value, i);
-		}
+	@Override
+	public String get(int index) {
+		return lookup.value(data[index]);
 	}
 
+	/**
+	 * {@inheritDoc} This method is thread-safe.
+	 */
 	@Override
-	public String get(int index) {
-		int valueIndex = data[index];
-		synchronized (valueLookup) {
-			return valueLookup.get(valueIndex);
+	public void set(int index, String value) {
+		if (frozen) {
+			throw new IllegalStateException(NumericBuffer.BUFFER_FROZEN_MESSAGE);
 		}
+		data[index] = value == null ? 0 : mappingIndex(value);
 	}
 
 	/**
 	 * {@inheritDoc} This method is thread-safe.
 	 */
 	@Override
-	public void set(int index, String value) {
+	public void set(int offset, int[] indices, int from, int length, Dictionary dictionary) {
 		if (frozen) {
 			throw new IllegalStateException(NumericBuffer.BUFFER_FROZEN_MESSAGE);
 		}
-		if (value == null) {
-			//set NaN
-			data[index] = 0;
-		} else {
-			Integer mappingIndex = indexLookup.get(value);
-			if (mappingIndex != null) {
-				data[index] = mappingIndex;
-			} else {
-				int newMappingIndex;
-				synchronized (valueLookup) {
-					//double check that it was not added in parallel
-					Integer mappingIndexAgain = indexLookup.get(value);
-					if (mappingIndexAgain == null) {
-						newMappingIndex = valueLookup.size();
-						valueLookup.add(value);
-						indexLookup.put(value, newMappingIndex);
-					} else {
-						newMappingIndex = mappingIndexAgain;
-					}
-				}
-
-				data[index] = newMappingIndex;
+		Objects.requireNonNull(indices, "Indices must not be null");
+		Objects.requireNonNull(dictionary, "Dictionary must not be null");
+		NumericBuffer.checkRange(offset, indices.length, from, length, data.length);
+		// the mapping index plus one for every dictionary index, 0 marks indices not looked up yet
+		int[] remapping = new int[dictionary.maximalIndex() + 1];
+		for (int i = 0; i < length; i++) {
+			int index = indices[from + i];
+			if (index <= 0 || index >= remapping.length) {
+				data[offset + i] = 0;
+				continue;
 			}
+			int mapped = remapping[index];
+			if (mapped == 0) {
+				String value = dictionary.get(index);
+				mapped = (value == null ? 0 : mappingIndex(value)) + 1;
+				remapping[index] = mapped;
+			}
+			data[offset + i] = mapped - 1;
+		}
+	}
+
+	/**
+	 * Returns the mapping index of the given non-null value, adding the value to the mapping if necessary.
+	 */
+	private int mappingIndex(String value) {
+		int mappingIndex = lookup.index(value);
+		if (mappingIndex == ConcurrentDictionary.FULL) {
+			throw new IllegalArgumentException("More than " + MAXIMAL_INDEX + " different values.");
 		}
+		return mappingIndex;
 	}
 
 	/**
@@ -149,9 +155,7 @@ public class Int32NominalBuffer extends NominalBuffer {
 
 	@Override
 	public int differentValues() {
-		synchronized (valueLookup) {
-			return valueLookup.size() - 1;
-		}
+		return lookup.size() - 1;
 	}
 
 	/**
@@ -164,7 +168,7 @@ public class Int32NominalBuffer extends NominalBuffer {
 
 	@Override
 	List<String> getMapping() {
-		return valueLookup;
+		return lookup.values();
 	}
 
 	@Override
@@ -175,25 +179,25 @@ public class Int32NominalBuffer extends NominalBuffer {
 	@Override
 	public CategoricalColumn toColumn() {
 		freeze();
-		return ColumnAccessor.get().newCategoricalColumn(type, data, valueLookup);
+		return ColumnAccessor.get().newCategoricalColumn(type, data, lookup.values());
 	}
 
 	@Override
 	public CategoricalColumn toBooleanColumn(String positiveValue) {
 		freeze();
-		if (valueLookup.size() > BooleanDictionary.MAXIMAL_RAW_SIZE) {
+		if (lookup.size() > BooleanDictionary.MAXIMAL_RAW_SIZE) {
 			throw new IllegalArgumentException("Boolean column must have 2 values or less");
 		}
 		int positiveIndex = BooleanDictionary.NO_ENTRY;
 		if (positiveValue != null) {
-			Integer index = indexLookup.get(positiveValue);
+			Integer index = lookup.get(positiveValue);
 			if (index == null) {
 				throw new IllegalArgumentException("Positive value \"" + Objects.toString(positiveValue)
 						+ "\" not in dictionary.");
 			}
 			positiveIndex = index;
 		}
-		return ColumnAccessor.get().newCategoricalColumn(type, data, valueLookup, positiveIndex);
+		return ColumnAccessor.get().newCategoricalColumn(type, data, lookup.values(), positiveIndex);
 	}
 
 }
\ No newline at end of file
@@ -17,6 +17,7 @@
 package com.rapidminer.belt.buffer;
 
 import java.util.Arrays;
+import java.util.Objects;
 
 import com.rapidminer.belt.column.Column;
 import com.rapidminer.belt.column.Column.TypeId;
@@ -99,6 +100,20 @@ final class Integer53BitBuffer extends NumericBuffer {
 	}
 
 
+	@Override
+	public void set(int offset, double[] values, int from, int length) {
+		if (frozen) {
+			throw new IllegalStateException(BUFFER_FROZEN_MESSAGE);
+		}
+		Objects.requireNonNull(values, "Values must not be null");
+		checkRange(offset, values.length, from, length, data.length);
+		for (int i = 0; i < length; i++) {
+			double value = values[from + i];
+			//round values that are not NaN, +- infinity
+			data[offset + i] = Double.isFinite(value) ? Math.round(value) : value;
+		}
+	}
+
 	@Override
 	public int size() {
 		return data.length;
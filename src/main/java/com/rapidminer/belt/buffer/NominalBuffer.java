@@ -67,6 +67,40 @@ public abstract class NominalBuffer {
 	public abstract void set(int index, String value);
 
 
+	/**
+	 * Sets the data starting at the given offset to the values of the given category indices with respect to the
+	 * given dictionary. Equivalent to calling {@link #set(int, String)} with the dictionary value of every index, but
+	 * implementations look up every distinct index only once where possible. The index {@code 0} and indices that are
+	 * not mapped to a value by the dictionary are set to missing values.
+	 *
+	 * @param offset
+	 * 		the index where the first value should be set
+	 * @param indices
+	 * 		the category indices with respect to the dictionary
+	 * @param from
+	 * 		the position of the first index in the array
+	 * @param length
+	 * 		the number of values to set
+	 * @param dictionary
+	 * 		the dictionary of the category indices
+	 * @throws NullPointerException
+	 * 		if the array or the dictionary is {@code null}
+	 * @throws IndexOutOfBoundsException
+	 * 		if the ranges are not contained in the array or the buffer
+	 * @throws IllegalArgumentException
+	 * 		if the buffer format cannot hold the number of different values
+	 * @throws IllegalStateException
+	 * 		if called after the buffer was used to create a {@link Column}
+	 */
+	public void set(int offset, int[] indices, int from, int length, Dictionary dictionary) {
+		Objects.requireNonNull(indices, "Indices must not be null");
+		Objects.requireNonNull(dictionary, "Dictionary must not be null");
+		NumericBuffer.checkRange(offset, indices.length, from, length, size());
+		for (int i = 0; i < length; i++) {
+			set(offset + i, dictionary.get(indices[from + i]));
+		}
+	}
+
 	/**
 	 * Tries to set the data at the given index to the given value. Returns {@code true} if it worked and {@code false}
 	 * if the buffer format cannot hold any more different values.
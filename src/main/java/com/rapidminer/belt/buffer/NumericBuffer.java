@@ -16,6 +16,8 @@
 
 package com.rapidminer.belt.buffer;
 
+import java.util.Objects;
+
 import com.rapidminer.belt.column.Column;
 import com.rapidminer.belt.column.Column.TypeId;
 import com.rapidminer.belt.column.ColumnType;
@@ -62,6 +64,36 @@ public abstract class NumericBuffer {
 	 */
 	public abstract void set(int index, double value);
 
+	/**
+	 * Sets the data starting at the given offset to the values of the given array. Equivalent to calling
+	 * {@link #set(int, double)} for every value, but implementations copy the values in bulk where possible.
+	 *
+	 * <p>This method is not atomic. Multiple threads working on overlapping intervals require additional
+	 * synchronization, however, concurrent operations on disjoint intervals do not.
+	 *
+	 * @param offset
+	 * 		the index where the first value should be set
+	 * @param values
+	 * 		the values to set
+	 * @param from
+	 * 		the position of the first value in the array
+	 * @param length
+	 * 		the number of values to set
+	 * @throws NullPointerException
+	 * 		if the array is {@code null}
+	 * @throws IndexOutOfBoundsException
+	 * 		if the ranges are not contained in the array or the buffer
+	 * @throws IllegalStateException
+	 * 		if called after the buffer was used to create a {@link Column}
+	 */
+	public void set(int offset, double[] values, int from, int length) {
+		Objects.requireNonNull(values, "Values must not be null");
+		checkRange(offset, values.length, from, length, size());
+		for (int i = 0; i < length; i++) {
+			set(offset + i, values[from + i]);
+		}
+	}
+
 	/**
 	 * @return the size of the buffer
 	 */
@@ -98,4 +130,18 @@ public abstract class NumericBuffer {
 	 */
 	protected abstract double[] getData();
 
+	/**
+	 * Checks that the range {@code [from, from + length)} is contained in an array of the given length and that
+	 * {@code [offset, offset + length)} is contained in a buffer of the given size.
+	 *
+	 * @throws IndexOutOfBoundsException
+	 * 		if one of the ranges is invalid
+	 */
+	static void checkRange(int offset, int arrayLength, int from, int length, int size) {
+		if (length < 0 || from < 0 || offset < 0 || from > arrayLength - length || offset > size - length) {
+			throw new IndexOutOfBoundsException("Range of length " + length + " from " + from + " to offset " +
+					offset + " out of bounds for array of length " + arrayLength + " and buffer of size " + size);
+		}
+	}
+
 }
@@ -17,6 +17,7 @@
 package com.rapidminer.belt.buffer;
 
 import java.util.Arrays;
+import java.util.Objects;
 
 import com.rapidminer.belt.column.Column;
 import com.rapidminer.belt.column.Column.TypeId;
@@ -75,6 +76,16 @@ final class RealBuffer extends NumericBuffer {
 	}
 
 
+	@Override
+	public void set(int offset, double[] values, int from, int length) {
+		if (frozen) {
+			throw new IllegalStateException(BUFFER_FROZEN_MESSAGE);
+		}
+		Objects.requireNonNull(values, "Values must not be null");
+		checkRange(offset, values.length, from, length, data.length);
+		System.arraycopy(values, from, data, offset, length);
+	}
+
 	@Override
 	public int size() {
 		return data.length;
@@ -16,11 +16,8 @@
 
 package com.rapidminer.belt.buffer;
 
-import java.util.ArrayList;
 import java.util.List;
-import java.util.Map;
 import java.util.Objects;
-import java.util.concurrent.ConcurrentHashMap;
 
 import com.rapidminer.belt.column.BooleanDictionary;
 import com.rapidminer.belt.column.CategoricalColumn;
@@ -44,8 +41,7 @@ public class UInt16NominalBuffer extends NominalBuffer {
 
 	private final short[] data;
 	private boolean frozen = false;
-	private final Map<String, Short> indexLookup = new ConcurrentHashMap<>();
-	private final List<String> valueLookup = new ArrayList<>();
+	private final ConcurrentDictionary lookup;
 
 	/**
 	 * Creates a buffer of the given length.
@@ -56,7 +52,7 @@ public class UInt16NominalBuffer extends NominalBuffer {
 	UInt16NominalBuffer(ColumnType<String> type, int length) {
 		super(type);
 		data = new short[length];
-		valueLookup.add(null); //position 0 stands for missing value, i.e. null
+		lookup = new ConcurrentDictionary(Format.UNSIGNED_INT16.maxValue());
 	}
 
 	/**
@@ -87,27 +83,15 @@ public class UInt16NominalBuffer extends NominalBuffer {
 			} else {
 				throw new UnsupportedOperationException("Column contains to many categories for this buffer format");
 			}
-			fillStructures(dictionary);
+			lookup = new ConcurrentDictionary(dictionary, Format.UNSIGNED_INT16.maxValue());
 		} else {
 			throw new UnsupportedOperationException("Column is not categorical");
 		}
 	}
 
-	private void fillStructures(Dictionary values) {
-		valueLookup.add(null);
-		for (int i = 1; i <= values.maximalIndex(); i++) {
-			String value = values.get(i);
-			valueLookup.add(value);
-			indexLookup.put(value, (short) i);
-		}
-	}
-
 	@Override
 	public String get(int index) {
-		int valueIndex = Short.toUnsignedInt(data[index]);
-		synchronized (valueLookup) {
-			return valueLookup.get(valueIndex);
-		}
+		return lookup.value(Short.toUnsignedInt(data[index]));
 	}
 
 	/**
@@ -132,29 +116,11 @@ public class UInt16NominalBuffer extends NominalBuffer {
 			//set NaN
 			data[index] = 0;
 		} else {
-			Short mappingIndex = indexLookup.get(value);
-			if (mappingIndex != null) {
-				data[index] = mappingIndex;
-			} else {
-				short newShortIndex;
-
-				synchronized (valueLookup) {
-					//double check that it was not added in parallel
-					Short mappingIndexAgain = indexLookup.get(value);
-					if (mappingIndexAgain == null) {
-						int newMappingIndex = valueLookup.size();
-						if (newMappingIndex > indexFormat().maxValue()) {
-							return false;
-						}
-						valueLookup.add(value);
-						newShortIndex = (short) newMappingIndex;
-						indexLookup.put(value, newShortIndex);
-					} else {
-						newShortIndex = mappingIndexAgain;
-					}
-				}
-				data[index] = newShortIndex;
+			int mappingIndex = lookup.index(value);
+			if (mappingIndex == ConcurrentDictionary.FULL) {
+				return false;
 			}
+			data[index] = (short) mappingIndex;
 		}
 		return true;
 	}
@@ -172,9 +138,7 @@ public class UInt16NominalBuffer extends NominalBuffer {
 
 	@Override
 	public int differentValues() {
-		synchronized (valueLookup) {
-			return valueLookup.size() - 1;
-		}
+		return lookup.size() - 1;
 	}
 
 	/**
@@ -187,7 +151,7 @@ public class UInt16NominalBuffer extends NominalBuffer {
 
 	@Override
 	List<String> getMapping() {
-		return valueLookup;
+		return lookup.values();
 	}
 
 	@Override
@@ -198,25 +162,25 @@ public class UInt16NominalBuffer extends NominalBuffer {
 	@Override
 	public CategoricalColumn toColumn() {
 		freeze();
-		return ColumnAccessor.get().newCategoricalColumn(type, data, valueLookup);
+		return ColumnAccessor.get().newCategoricalColumn(type, data, lookup.values());
 	}
 
 	@Override
 	public CategoricalColumn toBooleanColumn(String positiveValue) {
 		freeze();
-		if (valueLookup.size() > BooleanDictionary.MAXIMAL_RAW_SIZE) {
+		if (lookup.size() > BooleanDictionary.MAXIMAL_RAW_SIZE) {
 			throw new IllegalArgumentException("Boolean column must have 2 values or less");
 		}
 		int positiveIndex = BooleanDictionary.NO_ENTRY;
 		if (positiveValue != null) {
-			Short index = indexLookup.get(positiveValue);
+			Integer index = lookup.get(positiveValue);
 			if (index == null) {
 				throw new IllegalArgumentException("Positive value \"" + Objects.toString(positiveValue)
 						+ "\" not in dictionary.");
 			}
-			positiveIndex = Short.toUnsignedInt(index);
+			positiveIndex = index;
 		}
-		return ColumnAccessor.get().newCategoricalColumn(type, data, valueLookup, positiveIndex);
+		return ColumnAccessor.get().newCategoricalColumn(type, data, lookup.values(), positiveIndex);
 	}
 
 }
\ No newline at end of file
@@ -18,11 +18,8 @@ package com.rapidminer.belt.buffer;
 
 import static com.rapidminer.belt.util.IntegerFormats.readUInt2;
 
-import java.util.ArrayList;
 import java.util.List;
-import java.util.Map;
 import java.util.Objects;
-import java.util.concurrent.ConcurrentHashMap;
 
 import com.rapidminer.belt.column.BooleanDictionary;
 import com.rapidminer.belt.column.CategoricalColumn;
@@ -42,8 +39,7 @@ public class UInt2NominalBuffer extends NominalBuffer {
 
 	private final PackedIntegers bytes;
 	private boolean frozen = false;
-	private final Map<String, Byte> indexLookup = new ConcurrentHashMap<>();
-	private final List<String> valueLookup = new ArrayList<>(4);
+	private final ConcurrentDictionary lookup;
 
 	/**
 	 * Creates a buffer of the given length.
@@ -54,15 +50,12 @@ public class UInt2NominalBuffer extends NominalBuffer {
 	UInt2NominalBuffer(ColumnType<String> type, int length) {
 		super(type);
 		bytes = new PackedIntegers(new byte[length % 4 == 0 ? length / 4 : length / 4 + 1], indexFormat(), length);
-		valueLookup.add(null); //position 0 stands for missing value, i.e. null
+		lookup = new ConcurrentDictionary(Format.UNSIGNED_INT2.maxValue());
 	}
 
 	@Override
 	public String get(int index) {
-		int valueIndex = readUInt2(bytes.data(), index);
-		synchronized (valueLookup) {
-			return valueLookup.get(valueIndex);
-		}
+		return lookup.value(readUInt2(bytes.data(), index));
 	}
 
 	/**
@@ -93,28 +86,11 @@ public class UInt2NominalBuffer extends NominalBuffer {
 			//set NaN
 			IntegerFormats.writeUInt2(bytes.data(), index, 0);
 		} else {
-			Byte mappingIndex = indexLookup.get(value);
-			if (mappingIndex != null) {
-				IntegerFormats.writeUInt2(bytes.data(), index, mappingIndex);
-			} else {
-				int newMappingIndex;
-				synchronized (valueLookup) {
-					//double check that it was not added in parallel
-					Byte mappingIndexAgain = indexLookup.get(value);
-					if (mappingIndexAgain == null) {
-						newMappingIndex = valueLookup.size();
-						if (newMappingIndex > indexFormat().maxValue()) {
-							return false;
-						}
-						valueLookup.add(value);
-						indexLookup.put(value, (byte) newMappingIndex);
-					} else {
-						newMappingIndex = mappingIndexAgain;
-					}
-				}
-
-				IntegerFormats.writeUInt2(bytes.data(), index, newMappingIndex);
+			int mappingIndex = lookup.index(value);
+			if (mappingIndex == ConcurrentDictionary.FULL) {
+				return false;
 			}
+			IntegerFormats.writeUInt2(bytes.data(), index, mappingIndex);
 		}
 		return true;
 	}
@@ -132,9 +108,7 @@ public class UInt2NominalBuffer extends NominalBuffer {
 
 	@Override
 	public int differentValues() {
-		synchronized (valueLookup) {
-			return valueLookup.size() - 1;
-		}
+		return lookup.size() - 1;
 	}
 
 	/**
@@ -147,7 +121,7 @@ public class UInt2NominalBuffer extends NominalBuffer {
 
 	@Override
 	List<String> getMapping() {
-		return valueLookup;
+		return lookup.values();
 	}
 
 	@Override
@@ -158,25 +132,25 @@ public class UInt2NominalBuffer extends NominalBuffer {
 	@Override
 	public CategoricalColumn toColumn() {
 		freeze();
-		return ColumnAccessor.get().newCategoricalColumn(type, bytes, valueLookup);
+		return ColumnAccessor.get().newCategoricalColumn(type, bytes, lookup.values());
 	}
 
 	@Override
 	public CategoricalColumn toBooleanColumn(String positiveValue) {
-		if (valueLookup.size() > BooleanDictionary.MAXIMAL_RAW_SIZE) {
+		if (lookup.size() > BooleanDictionary.MAXIMAL_RAW_SIZE) {
 			throw new IllegalArgumentException("Boolean column must have 2 values or less");
 		}
 		freeze();
 		int positiveIndex = BooleanDictionary.NO_ENTRY;
 		if (positiveValue != null) {
-			Byte index = indexLookup.get(positiveValue);
+			Integer index = lookup.get(positiveValue);
 			if (index == null) {
 				throw new IllegalArgumentException("Positive value \"" + Objects.toString(positiveValue)
 						+ "\" not in dictionary.");
 			}
-			positiveIndex = Byte.toUnsignedInt(index);
+			positiveIndex = index;
 		}
-		return ColumnAccessor.get().newCategoricalColumn(type, bytes, valueLookup, positiveIndex);
+		return ColumnAccessor.get().newCategoricalColumn(type, bytes, lookup.values(), positiveIndex);
 	}
 
 }
\ No newline at end of file
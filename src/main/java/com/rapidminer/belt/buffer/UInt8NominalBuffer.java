@@ -16,11 +16,8 @@
 
 package com.rapidminer.belt.buffer;
 
-import java.util.ArrayList;
 import java.util.List;
-import java.util.Map;
 import java.util.Objects;
-import java.util.concurrent.ConcurrentHashMap;
 
 import com.rapidminer.belt.column.BooleanDictionary;
 import com.rapidminer.belt.column.CategoricalColumn;
@@ -48,8 +45,7 @@ public class UInt8NominalBuffer extends NominalBuffer {
 	private final Format targetFormat;
 	private final int maxCategories;
 	private boolean frozen = false;
-	private final Map<String, Byte> indexLookup = new ConcurrentHashMap<>();
-	private final List<String> valueLookup = new ArrayList<>();
+	private final ConcurrentDictionary lookup;
 
 	/**
 	 * Creates a buffer of the given length.
@@ -88,7 +84,7 @@ public class UInt8NominalBuffer extends NominalBuffer {
 		this.data = new byte[length];
 		this.targetFormat = targetFormat;
 		this.maxCategories = Integer.min(targetFormat.maxValue(), Format.UNSIGNED_INT8.maxValue());
-		this.valueLookup.add(null); //position 0 stands for missing value, i.e. null
+		this.lookup = new ConcurrentDictionary(maxCategories);
 	}
 
 	/**
@@ -125,27 +121,15 @@ public class UInt8NominalBuffer extends NominalBuffer {
 			} else {
 				throw new UnsupportedOperationException("Column contains to many categories for this buffer format");
 			}
-			fillStructures(dictionary);
+			lookup = new ConcurrentDictionary(dictionary, maxCategories);
 		} else {
 			throw new UnsupportedOperationException("Column is not categorical");
 		}
 	}
 
-	private void fillStructures(Dictionary values) {
-		valueLookup.add(null);
-		for (int i = 1; i <= values.maximalIndex(); i++) {
-			String value = values.get(i);
-			valueLookup.add(value);
-			indexLookup.put(value, (byte) i);
-		}
-	}
-
 	@Override
 	public String get(int index) {
-		int valueIndex = Byte.toUnsignedInt(data[index]);
-		synchronized (valueLookup) {
-			return valueLookup.get(valueIndex);
-		}
+		return lookup.value(Byte.toUnsignedInt(data[index]));
 	}
 
 	/**
@@ -170,28 +154,11 @@ public class UInt8NominalBuffer extends NominalBuffer {
 			//set NaN
 			data[index] = 0;
 		} else {
-			Byte mappingIndex = indexLookup.get(value);
-			if (mappingIndex != null) {
-				data[index] = mappingIndex;
-			} else {
-				byte newByteIndex;
-				synchronized (valueLookup) {
-					//double check that it was not added in parallel
-					Byte mappingIndexAgain = indexLookup.get(value);
-					if (mappingIndexAgain == null) {
-						int newMappingIndex = valueLookup.size();
-						if (newMappingIndex > maxCategories) {
-							return false;
-						}
-						valueLookup.add(value);
-						newByteIndex = (byte) newMappingIndex;
-						indexLookup.put(value, newByteIndex);
-					} else {
-						newByteIndex = mappingIndexAgain;
-					}
-				}
-				data[index] = newByteIndex;
+			int mappingIndex = lookup.index(value);
+			if (mappingIndex == ConcurrentDictionary.FULL) {
+				return false;
 			}
+			data[index] = (byte) mappingIndex;
 		}
 		return true;
 	}
@@ -209,9 +176,7 @@ public class UInt8NominalBuffer extends NominalBuffer {
 
 	@Override
 	public int differentValues() {
-		synchronized (valueLookup) {
-			return valueLookup.size() - 1;
-		}
+		return lookup.size() - 1;
 	}
 
 	/**
@@ -224,7 +189,7 @@ public class UInt8NominalBuffer extends NominalBuffer {
 
 	@Override
 	List<String> getMapping() {
-		return valueLookup;
+		return lookup.values();
 	}
 
 	@Override
@@ -248,23 +213,23 @@ public class UInt8NominalBuffer extends NominalBuffer {
 				packed = new PackedIntegers(data, Format.UNSIGNED_INT8, data.length);
 				break;
 		}
-		return ColumnAccessor.get().newCategoricalColumn(type, packed, valueLookup);
+		return ColumnAccessor.get().newCategoricalColumn(type, packed, lookup.values());
 	}
 
 	@Override
 	public CategoricalColumn toBooleanColumn(String positiveValue) {
 		freeze();
-		if (valueLookup.size() > BooleanDictionary.MAXIMAL_RAW_SIZE) {
+		if (lookup.size() > BooleanDictionary.MAXIMAL_RAW_SIZE) {
 			throw new IllegalArgumentException("Boolean column must have 2 values or less");
 		}
 		int positiveIndex = BooleanDictionary.NO_ENTRY;
 		if (positiveValue != null) {
-			Byte index = indexLookup.get(positiveValue);
+			Integer index = lookup.get(positiveValue);
 			if (index == null) {
 				throw new IllegalArgumentException("Positive value \"" + Objects.toString(positiveValue)
 						+ "\" not in dictionary.");
 			}
-			positiveIndex = Byte.toUnsignedInt(index);
+			positiveIndex = index;
 		}
 		PackedIntegers packed;
 		switch (targetFormat) {
@@ -279,7 +244,7 @@ public class UInt8NominalBuffer extends NominalBuffer {
 				packed = new PackedIntegers(data, Format.UNSIGNED_INT8, data.length);
 				break;
 		}
-		return ColumnAccessor.get().newCategoricalColumn(type, packed, valueLookup, positiveIndex);
+		return ColumnAccessor.get().newCategoricalColumn(type, packed, lookup.values(), positiveIndex);
 	}
 
 	private PackedIntegers packAsUInt2() {
@@ -19,10 +19,14 @@ package com.rapidminer.belt.column;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Objects;
+import java.util.stream.DoubleStream;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
 
 import com.rapidminer.belt.column.type.StringList;
 import com.rapidminer.belt.column.type.StringSet;
 import com.rapidminer.belt.reader.Readers;
+import com.rapidminer.belt.reader.Streams;
 import com.rapidminer.belt.table.Table;
 import com.rapidminer.belt.util.Order;
 
@@ -158,6 +162,11 @@ public abstract class Column {
 	 */
 	private static final int NUMBER_OF_STATS = Statistics.Statistic.values().length;
 
+	/**
+	 * Used internally by {@link ZoneMap} to cache the zone map of this column.
+	 */
+	private ZoneMap zoneMap;
+
 	private final int size;
 
 	Column(int size) {
@@ -361,6 +370,50 @@ public abstract class Column {
 		throw new UnsupportedOperationException();
 	}
 
+	/**
+	 * Returns a sequential stream of the numeric values of this column, see {@link Streams#doubleStream(Column)}. The
+	 * stream splits well, i.e., its {@link DoubleStream#parallel() parallel} version scales with the number of
+	 * threads.
+	 *
+	 * @return a stream of the values
+	 * @throws UnsupportedOperationException
+	 * 		if this column is not {@link Capability#NUMERIC_READABLE}
+	 */
+	public final DoubleStream doubleStream() {
+		return Streams.doubleStream(this);
+	}
+
+	/**
+	 * Returns a sequential stream of the category indices of this column, see {@link Streams#intStream(Column)}.
+	 *
+	 * @return a stream of the category indices
+	 * @throws UnsupportedOperationException
+	 * 		if the category of this column is not {@link Category#CATEGORICAL}
+	 */
+	public final IntStream intStream() {
+		return Streams.intStream(this);
+	}
+
+	/**
+	 * Returns a sequential stream of the object values of this column, see {@link Streams#objectStream(Column,
+	 * Class)}.
+	 *
+	 * @param type
+	 * 		the type as which to read the column
+	 * @param <T>
+	 * 		the type of the stream elements
+	 * @return a stream of the values
+	 * @throws NullPointerException
+	 * 		if the type is {@code null}
+	 * @throws UnsupportedOperationException
+	 * 		if this column is not {@link Capability#OBJECT_READABLE}
+	 * @throws IllegalArgumentException
+	 * 		if the type is not a super type of the column element type
+	 */
+	public final <T> Stream<T> objectStream(Class<T> type) {
+		return Streams.objectStream(this, type);
+	}
+
 	/**
 	 * Sorts the column indirectly using the given sorting {@link Order}. This method does not modify the column
 	 * itself.
@@ -414,4 +467,25 @@ public abstract class Column {
 		return cachedStats != null ? cachedStats[stat.ordinal()] : null;
 	}
 
+	/**
+	 * Used internally by {@link ZoneMap} to cache the zone map of this column. Not synchronized for performance
+	 * reasons, see {@link #cacheStat(Statistics.Statistic, Statistics.Result)}.
+	 *
+	 * @param zoneMap
+	 * 		the zone map to cache
+	 */
+	void cacheZoneMap(ZoneMap zoneMap) {
+		this.zoneMap = zoneMap;
+	}
+
+	/**
+	 * Returns the cached zone map or {@code null} if no zone map has been cached. Not synchronized for performance
+	 * reasons, see {@link #getStat(Statistics.Statistic)}.
+	 *
+	 * @return the cached zone map or {@code null}
+	 */
+	ZoneMap getZoneMap() {
+		return zoneMap;
+	}
+
 }
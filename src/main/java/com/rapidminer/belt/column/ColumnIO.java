@@ -31,7 +31,8 @@ import com.rapidminer.belt.util.IntegerFormats;
 
 
 /**
- * Allows to put column data into {@link ByteBuffer}s and create columns from {@link ByteBuffer} data.
+ * Allows to put column data into {@link ByteBuffer}s, to view column data as read-only NIO buffers and create columns
+ * from {@link ByteBuffer} data.
  *
  * @author Michael Knopf, Gisa Meier
  */
@@ -375,6 +376,86 @@ public final class ColumnIO {
 		return new NominalColumnBuilder(dictionaryValues, length);
 	}
 
+	/**
+	 * Returns a read-only view of the double values of the given rows of a numeric column without copying them. This
+	 * is only possible if the column stores the values contiguously, i.e., for dense real and integer columns without
+	 * row mapping. For all other columns, {@code null} is returned and the values must be copied, e.g., via
+	 * {@link Column#fill(double[], int)}.
+	 *
+	 * @param column
+	 * 		the column to view
+	 * @param offset
+	 * 		the first row to view
+	 * @param length
+	 * 		the number of rows to view
+	 * @return a read-only buffer with position {@code 0} and limit {@code length}, or {@code null}
+	 * @throws NullPointerException
+	 * 		if the column is {@code null}
+	 * @throws IndexOutOfBoundsException
+	 * 		if the rows are out of the bounds of the column
+	 */
+	public static DoubleBuffer viewNumericDoubles(Column column, int offset, int length) {
+		checkRange(column, offset, length);
+		if (column instanceof DoubleArrayColumn) {
+			return DoubleBuffer.wrap(((DoubleArrayColumn) column).array(), offset, length).slice()
+					.asReadOnlyBuffer();
+		}
+		return null;
+	}
+
+	/**
+	 * Returns a read-only view of the category indices of the given rows of a categorical column without copying
+	 * them. This is only possible if the column stores the indices as int values without row mapping. For all other
+	 * columns, {@code null} is returned and the indices must be copied, e.g., via {@link Column#fill(int[], int)}.
+	 *
+	 * @param column
+	 * 		the column to view
+	 * @param offset
+	 * 		the first row to view
+	 * @param length
+	 * 		the number of rows to view
+	 * @return a read-only buffer with position {@code 0} and limit {@code length}, or {@code null}
+	 * @throws NullPointerException
+	 * 		if the column is {@code null}
+	 * @throws IndexOutOfBoundsException
+	 * 		if the rows are out of the bounds of the column
+	 */
+	public static IntBuffer viewCategoricalInts(Column column, int offset, int length) {
+		checkRange(column, offset, length);
+		if (column instanceof SimpleCategoricalColumn &&
+				((SimpleCategoricalColumn) column).getFormat() == IntegerFormats.Format.SIGNED_INT32) {
+			return IntBuffer.wrap(((SimpleCategoricalColumn) column).getIntData(), offset, length).slice()
+					.asReadOnlyBuffer();
+		}
+		return null;
+	}
+
+	/**
+	 * Returns a read-only view of the nanoseconds of the day of the given rows of a time column without copying them.
+	 * Missing values are represented by {@link TimeColumn#MISSING_VALUE}. This is only possible for dense time columns
+	 * without row mapping. For all other columns, {@code null} is returned and the values must be copied, e.g., via
+	 * {@link #putTimeLongs(Column, int, ByteBuffer)}.
+	 *
+	 * @param column
+	 * 		the column to view
+	 * @param offset
+	 * 		the first row to view
+	 * @param length
+	 * 		the number of rows to view
+	 * @return a read-only buffer with position {@code 0} and limit {@code length}, or {@code null}
+	 * @throws NullPointerException
+	 * 		if the column is {@code null}
+	 * @throws IndexOutOfBoundsException
+	 * 		if the rows are out of the bounds of the column
+	 */
+	public static LongBuffer viewTimeLongs(Column column, int offset, int length) {
+		checkRange(column, offset, length);
+		if (column instanceof SimpleTimeColumn) {
+			return LongBuffer.wrap(((SimpleTimeColumn) column).array(), offset, length).slice().asReadOnlyBuffer();
+		}
+		return null;
+	}
+
 	/**
 	 * Checks column and buffer for {@code null} and the offset for the column size.
 	 */
@@ -390,6 +471,18 @@ public final class ColumnIO {
 		}
 	}
 
+	/**
+	 * Checks the column for {@code null} and the row range for the column size.
+	 */
+	private static void checkRange(Column column, int offset, int length) {
+		if (column == null) {
+			throw new NullPointerException("Column must not be null");
+		}
+		if (offset < 0 || length < 0 || offset > column.size() - length) {
+			throw new IndexOutOfBoundsException("Offset: " + offset + ", length: " + length);
+		}
+	}
+
 	/**
 	 * Writes the int array into the buffer starting from the row index.
 	 */
@@ -544,6 +544,55 @@ public final class Columns {
 		}
 	}
 
+	/**
+	 * Creates a new column with every dictionary value replaced by the result of the given function. The function is
+	 * evaluated exactly once per dictionary value instead of once per row, and the data is not copied: if several
+	 * values are mapped to the same result, the category indices are remapped by a view. Values mapped to {@code null}
+	 * become missing values. Missing values stay missing, the function is not applied to them. Unlike
+	 * {@link #replaceInDictionary(Column, Map)}, the result never has a boolean dictionary.
+	 *
+	 * @param column
+	 * 		the categorical column to map
+	 * @param function
+	 * 		the function to apply to every dictionary value
+	 * @return a new column with the mapped dictionary values
+	 * @throws NullPointerException
+	 * 		if one of the parameters is {@code null}
+	 * @throws IllegalArgumentException
+	 * 		if the column is not categorical with element type {@link String}
+	 */
+	public static Column mapDictionary(Column column, Function<String, String> function) {
+		Objects.requireNonNull(column, MESSAGE_NULL_COLUMN);
+		Objects.requireNonNull(function, "Function must not be null");
+		if (column.type().category() != Column.Category.CATEGORICAL) {
+			throw new IllegalArgumentException("Column must be categorical");
+		}
+		if (!column.type().elementType().equals(String.class)) {
+			throw new IllegalArgumentException("Column element type must be String");
+		}
+		if (column instanceof CategoricalColumn) {
+			CategoricalColumn categoricalColumn = (CategoricalColumn) column;
+			Dictionary dictionary = categoricalColumn.getDictionary();
+			List<String> newValues = new ArrayList<>();
+			newValues.add(null);
+			Map<String, Integer> newIndices = new HashMap<>();
+			int[] remapping = new int[dictionary.maximalIndex() + 1];
+			for (int i = 1; i < remapping.length; i++) {
+				String value = dictionary.get(i);
+				String newValue = value == null ? null : function.apply(value);
+				if (newValue != null) {
+					remapping[i] = newIndices.computeIfAbsent(newValue, v -> {
+						newValues.add(v);
+						return newValues.size() - 1;
+					});
+				}
+			}
+			return categoricalColumn.remap(new Dictionary(newValues), remapping);
+		} else {
+			throw new AssertionError(MESSAGE_CATEGORICAL_IMPLEMENTATION);
+		}
+	}
+
 	/**
 	 * Exception thrown when a replacement in a dictionary is not possible since otherwise the same value would be at
 	 * two indices. In case of this exception, a replacement purely on dictionary level is not possible. The category
@@ -798,6 +847,23 @@ public final class Columns {
 		 */
 		public abstract Column map(Column column, int[] mapping, boolean preferView);
 
+		/**
+		 * Creates a new empty quantile sketch with the given accuracy parameter.
+		 */
+		public abstract QuantileSketch newQuantileSketch(int k);
+
+		/**
+		 * Adds a value to a quantile sketch that has not been handed out yet, see
+		 * {@link QuantileSketch#update(double)}.
+		 */
+		public abstract void updateQuantileSketch(QuantileSketch sketch, double value);
+
+		/**
+		 * Merges the source sketch into the target sketch that has not been handed out yet, see
+		 * {@link QuantileSketch#mergeInto(QuantileSketch)}.
+		 */
+		public abstract void mergeQuantileSketch(QuantileSketch target, QuantileSketch source);
+
 		InternalColumns() {
 		}
 	}
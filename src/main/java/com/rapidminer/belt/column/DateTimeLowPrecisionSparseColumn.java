@@ -179,6 +179,16 @@ class DateTimeLowPrecisionSparseColumn extends DateTimeColumn {
 		return defaultValue;
 	}
 
+	/**
+	 * Returns the values of the column that do not equal the default value. The array is not copied and must not be
+	 * modified.
+	 *
+	 * @return the columns non-default values.
+	 */
+	long[] getNonDefaultValues() {
+		return nonDefaultValues;
+	}
+
 	/**
 	 * Creates a {@link SimpleDateTimeColumn} by applying the given mapping to this column.
 	 */
@@ -267,6 +267,16 @@ class DoubleSparseColumn extends NumericColumn {
 		return defaultValue;
 	}
 
+	/**
+	 * Returns the values of the column that do not equal the default value. The array is not copied and must not be
+	 * modified.
+	 *
+	 * @return the columns non-default values.
+	 */
+	double[] getNonDefaultValues() {
+		return nonDefaultValues;
+	}
+
 	/**
 	 * Checks if the specified value is this columns default value.
 	 */
@@ -0,0 +1,414 @@
+/**
+ * This file is part of the RapidMiner Belt project.
+ * Copyright (C) 2017-2021 RapidMiner GmbH
+ *
+ * This program is free software: you can redistribute it and/or modify it under the terms of the GNU Affero General
+ * Public License as published by the Free Software Foundation, either version 3 of the License, or (at your option) any
+ * later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied
+ * warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU Affero General Public License along with this program. If not, see
+ * https://www.gnu.org/licenses/.
+ */
+
+package com.rapidminer.belt.column;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.function.Supplier;
+
+import com.rapidminer.belt.execution.Context;
+import com.rapidminer.belt.execution.ExecutionUtils;
+
+
+/**
+ * Histogram of a numeric, time or date-time column as computed by {@link Statistics#histogram(Column, int, Context)}
+ * or {@link Statistics#histogram(Column, double[], Context)}. The bins are defined by strictly increasing edges
+ * {@code e_0 < e_1 < ... < e_n}. The bin {@code i} contains all values {@code v} with {@code e_i <= v < e_(i+1)}
+ * except for the last bin which also contains the value {@code e_n}.
+ *
+ * <p>Values of time columns are binned as nanoseconds of the day, values of date-time columns as seconds since
+ * epoch including the fraction of the second. Values outside of the edges are counted as underflow or overflow,
+ * missing values are counted separately.
+ *
+ * @author Michael Knopf
+ */
+public final class Histogram {
+
+	/**
+	 * The number of rows processed at once by a single task.
+	 */
+	private static final int BATCH_SIZE = 1 << 12;
+
+	/**
+	 * The minimum number of rows processed by a single task.
+	 */
+	private static final int MIN_ROWS_PER_TASK = 1 << 15;
+
+	/**
+	 * Nanoseconds per second as double, used to convert the sub-second part of date-time values.
+	 */
+	private static final double NANOS_PER_SECOND = 1_000_000_000d;
+
+	private final double[] edges;
+	private final int[] counts;
+	private final int underflow;
+	private final int overflow;
+	private final int missing;
+
+	private Histogram(double[] edges, int[] slots) {
+		int numberOfBins = edges.length - 1;
+		this.edges = edges;
+		this.counts = Arrays.copyOf(slots, numberOfBins);
+		this.underflow = slots[numberOfBins];
+		this.overflow = slots[numberOfBins + 1];
+		this.missing = slots[numberOfBins + 2];
+	}
+
+	/**
+	 * @return the number of bins
+	 */
+	public int numberOfBins() {
+		return counts.length;
+	}
+
+	/**
+	 * @return a copy of the bin edges, the array length is the number of bins plus one
+	 */
+	public double[] getEdges() {
+		return Arrays.copyOf(edges, edges.length);
+	}
+
+	/**
+	 * Returns the inclusive lower edge of the given bin.
+	 *
+	 * @param bin
+	 * 		the bin index
+	 * @return the lower edge
+	 * @throws IndexOutOfBoundsException
+	 * 		if the bin index is out of bounds
+	 */
+	public double getLowerEdge(int bin) {
+		checkBin(bin);
+		return edges[bin];
+	}
+
+	/**
+	 * Returns the upper edge of the given bin. The upper edge is exclusive for all bins but the last one.
+	 *
+	 * @param bin
+	 * 		the bin index
+	 * @return the upper edge
+	 * @throws IndexOutOfBoundsException
+	 * 		if the bin index is out of bounds
+	 */
+	public double getUpperEdge(int bin) {
+		checkBin(bin);
+		return edges[bin + 1];
+	}
+
+	/**
+	 * Returns the number of values in the given bin.
+	 *
+	 * @param bin
+	 * 		the bin index
+	 * @return the count
+	 * @throws IndexOutOfBoundsException
+	 * 		if the bin index is out of bounds
+	 */
+	public int getCount(int bin) {
+		checkBin(bin);
+		return counts[bin];
+	}
+
+	/**
+	 * @return a copy of the counts of all bins
+	 */
+	public int[] getCounts() {
+		return Arrays.copyOf(counts, counts.length);
+	}
+
+	/**
+	 * @return the number of values within the edges, i.e., the sum of all bin counts
+	 */
+	public int getTotalCount() {
+		int total = 0;
+		for (int count : counts) {
+			total += count;
+		}
+		return total;
+	}
+
+	/**
+	 * @return the number of values smaller than the lowest edge
+	 */
+	public int getUnderflowCount() {
+		return underflow;
+	}
+
+	/**
+	 * @return the number of values larger than the highest edge
+	 */
+	public int getOverflowCount() {
+		return overflow;
+	}
+
+	/**
+	 * @return the number of missing values
+	 */
+	public int getMissingCount() {
+		return missing;
+	}
+
+	@Override
+	public boolean equals(Object o) {
+		if (this == o) {
+			return true;
+		}
+		if (o == null || getClass() != o.getClass()) {
+			return false;
+		}
+		Histogram other = (Histogram) o;
+		return underflow == other.underflow && overflow == other.overflow && missing == other.missing &&
+				Arrays.equals(edges, other.edges) && Arrays.equals(counts, other.counts);
+	}
+
+	@Override
+	public int hashCode() {
+		int result = 31 * Arrays.hashCode(edges) + Arrays.hashCode(counts);
+		result = 31 * result + underflow;
+		result = 31 * result + overflow;
+		return 31 * result + missing;
+	}
+
+	@Override
+	public String toString() {
+		return "Histogram{edges=" + Arrays.toString(edges) + ", counts=" + Arrays.toString(counts) + ", underflow="
+				+ underflow + ", overflow=" + overflow + ", missing=" + missing + "}";
+	}
+
+	private void checkBin(int bin) {
+		if (bin < 0 || bin >= counts.length) {
+			throw new IndexOutOfBoundsException("Bin " + bin + " out of bounds for " + counts.length + " bins");
+		}
+	}
+
+	/**
+	 * Creates the edges of the given number of equal-width bins between the lower and upper bound. If both bounds
+	 * coincide, the bins span the interval of width {@code 1} centered at the bound.
+	 */
+	static double[] equalWidthEdges(double lower, double upper, int numberOfBins) {
+		if (lower == upper) {
+			lower -= 0.5;
+			upper += 0.5;
+		}
+		double width = upper / numberOfBins - lower / numberOfBins;
+		double[] edges = new double[numberOfBins + 1];
+		for (int i = 0; i < numberOfBins; i++) {
+			edges[i] = lower + i * width;
+		}
+		edges[numberOfBins] = upper;
+		return edges;
+	}
+
+	/**
+	 * Checks that the edges are finite and strictly increasing and returns a copy of them.
+	 */
+	static double[] checkEdges(double[] edges) {
+		if (edges.length < 2) {
+			throw new IllegalArgumentException("At least two edges required");
+		}
+		double[] copy = new double[edges.length];
+		for (int i = 0; i < edges.length; i++) {
+			double edge = edges[i];
+			if (!Double.isFinite(edge)) {
+				throw new IllegalArgumentException("Edges must be finite");
+			}
+			if (i > 0 && edge <= copy[i - 1]) {
+				throw new IllegalArgumentException("Edges must be strictly increasing");
+			}
+			// treat -0.0 and 0.0 the same in binary searches
+			copy[i] = edge == 0 ? 0.0 : edge;
+		}
+		return copy;
+	}
+
+	/**
+	 * Computes the histogram of the given numeric, time or date-time column for the given (checked) edges. The rows
+	 * are split between parallel tasks each of which fills its own primitive count array. The count arrays are summed
+	 * up afterwards. For sparse columns, only the non-default values are binned while the default value is counted
+	 * once for all remaining rows.
+	 */
+	static Histogram compute(Column column, double[] edges, boolean equalWidth, Context ctx) {
+		Binner binner = new Binner(edges, equalWidth);
+		int[] slots;
+		if (column instanceof DoubleSparseColumn) {
+			DoubleSparseColumn sparse = (DoubleSparseColumn) column;
+			double[] values = sparse.getNonDefaultValues();
+			slots = count(values.length, () -> (buffer, from, length) ->
+					System.arraycopy(values, from, buffer, 0, length), binner, ctx);
+			slots[binner.slot(sparse.getDefaultValue())] += column.size() - values.length;
+		} else if (column instanceof TimeSparseColumn) {
+			TimeSparseColumn sparse = (TimeSparseColumn) column;
+			long[] values = sparse.getNonDefaultValues();
+			slots = count(values.length, () -> (buffer, from, length) -> {
+				for (int i = 0; i < length; i++) {
+					buffer[i] = toDouble(values[from + i]);
+				}
+			}, binner, ctx);
+			slots[binner.slot(toDouble(sparse.getDefaultValue()))] += column.size() - values.length;
+		} else if (column instanceof DateTimeLowPrecisionSparseColumn) {
+			DateTimeLowPrecisionSparseColumn sparse = (DateTimeLowPrecisionSparseColumn) column;
+			long[] values = sparse.getNonDefaultValues();
+			slots = count(values.length, () -> (buffer, from, length) -> {
+				for (int i = 0; i < length; i++) {
+					buffer[i] = toDouble(values[from + i]);
+				}
+			}, binner, ctx);
+			slots[binner.slot(toDouble(sparse.getDefaultValue()))] += column.size() - values.length;
+		} else if (column.type().id() == Column.TypeId.DATE_TIME) {
+			slots = count(column.size(), () -> new DateTimeFiller(column), binner, ctx);
+		} else {
+			slots = count(column.size(), () -> (buffer, from, length) -> column.fill(buffer, from), binner,
+					ctx);
+		}
+		return new Histogram(edges, slots);
+	}
+
+	/**
+	 * Counts the values provided by the fillers in parallel tasks and sums up the per-task count arrays.
+	 */
+	private static int[] count(int size, Supplier<Filler> fillers, Binner binner, Context ctx) {
+		int numberOfTasks = Math.max(1, Math.min(ctx.getParallelism(), size / MIN_ROWS_PER_TASK));
+		int rowsPerTask = size / numberOfTasks + (size % numberOfTasks == 0 ? 0 : 1);
+		List<Callable<int[]>> tasks = new ArrayList<>(numberOfTasks);
+		for (int t = 0; t < numberOfTasks; t++) {
+			int from = t * rowsPerTask;
+			int to = Math.min(size, from + rowsPerTask);
+			tasks.add(() -> {
+				int[] slots = binner.newSlots();
+				Filler filler = fillers.get();
+				double[] buffer = new double[BATCH_SIZE];
+				for (int start = from; start < to; start += BATCH_SIZE) {
+					int length = Math.min(BATCH_SIZE, to - start);
+					filler.fill(buffer, start, length);
+					for (int i = 0; i < length; i++) {
+						slots[binner.slot(buffer[i])]++;
+					}
+					ctx.requireActive();
+				}
+				return slots;
+			});
+		}
+		List<int[]> partials = ExecutionUtils.run(tasks, ctx);
+		int[] result = partials.get(0);
+		for (int p = 1; p < partials.size(); p++) {
+			int[] partial = partials.get(p);
+			for (int i = 0; i < result.length; i++) {
+				result[i] += partial[i];
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * Converts raw time or date-time values to doubles, mapping the missing value to {@link Double#NaN}.
+	 */
+	private static double toDouble(long value) {
+		return value == TimeColumn.MISSING_VALUE ? Double.NaN : value;
+	}
+
+	/**
+	 * Fills a batch of values starting at the given row into the beginning of the buffer.
+	 */
+	@FunctionalInterface
+	private interface Filler {
+		void fill(double[] buffer, int from, int length);
+	}
+
+	/**
+	 * Reads the seconds and nanoseconds of a date-time column via {@link ColumnIO} without creating
+	 * {@link java.time.Instant}s.
+	 */
+	private static final class DateTimeFiller implements Filler {
+
+		private final Column column;
+		private final ByteBuffer seconds = ByteBuffer.allocate(BATCH_SIZE * Long.BYTES);
+		private final ByteBuffer nanos = ByteBuffer.allocate(BATCH_SIZE * Integer.BYTES);
+
+		private DateTimeFiller(Column column) {
+			this.column = column;
+		}
+
+		@Override
+		public void fill(double[] buffer, int from, int length) {
+			seconds.clear().limit(length * Long.BYTES);
+			nanos.clear().limit(length * Integer.BYTES);
+			ColumnIO.putDateTimeLongs(column, from, seconds);
+			ColumnIO.putDateTimeNanoInts(column, from, nanos);
+			for (int i = 0; i < length; i++) {
+				long second = seconds.getLong(i * Long.BYTES);
+				buffer[i] = second == DateTimeColumn.MISSING_VALUE ? Double.NaN :
+						second + nanos.getInt(i * Integer.BYTES) / NANOS_PER_SECOND;
+			}
+		}
+	}
+
+	/**
+	 * Maps values to slots of a count array. The first slots are the bins, followed by one slot each for underflow,
+	 * overflow and missing values. For equal-width bins the bin is computed directly instead of via a binary search.
+	 */
+	private static final class Binner {
+
+		private final double[] edges;
+		private final int numberOfBins;
+		private final double lower;
+		private final double upper;
+		private final double scale;
+
+		private Binner(double[] edges, boolean equalWidth) {
+			this.edges = edges;
+			this.numberOfBins = edges.length - 1;
+			this.lower = edges[0];
+			this.upper = edges[numberOfBins];
+			double binsPerUnit = numberOfBins / (upper - lower);
+			this.scale = equalWidth && Double.isFinite(binsPerUnit) ? binsPerUnit : Double.NaN;
+		}
+
+		private int[] newSlots() {
+			return new int[numberOfBins + 3];
+		}
+
+		private int slot(double value) {
+			if (Double.isNaN(value)) {
+				return numberOfBins + 2;
+			}
+			if (value < lower) {
+				return numberOfBins;
+			}
+			if (value >= upper) {
+				return value == upper ? numberOfBins - 1 : numberOfBins + 1;
+			}
+			if (Double.isNaN(scale)) {
+				int index = Arrays.binarySearch(edges, value == 0 ? 0.0 : value);
+				return index >= 0 ? index : -index - 2;
+			}
+			int bin = Math.min(numberOfBins - 1, (int) ((value - lower) * scale));
+			// correct rounding errors of the direct computation
+			while (bin > 0 && value < edges[bin]) {
+				bin--;
+			}
+			while (bin < numberOfBins - 1 && value >= edges[bin + 1]) {
+				bin++;
+			}
+			return bin;
+		}
+	}
+
+}
@@ -243,6 +243,22 @@ final class InternalColumnsImpl extends Columns.InternalColumns {
 		return column.map(mapping, preferView);
 	}
 
+	@Override
+	public QuantileSketch newQuantileSketch(int k) {
+		QuantileSketch.requireValidK(k);
+		return new QuantileSketch(k);
+	}
+
+	@Override
+	public void updateQuantileSketch(QuantileSketch sketch, double value) {
+		sketch.update(value);
+	}
+
+	@Override
+	public void mergeQuantileSketch(QuantileSketch target, QuantileSketch source) {
+		target.mergeInto(source);
+	}
+
 	/**
 	 * Numeric columns that have less than {@link #MIN_SPARSE_COLUMN_SIZE} rows are represented via dense columns.
 	 * Otherwise an estimate of the columns sparsity is calculated via {@link ColumnUtils#estimateDefaultValue(int,
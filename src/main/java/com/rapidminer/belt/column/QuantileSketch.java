@@ -0,0 +1,527 @@
+/**
+ * This file is part of the RapidMiner Belt project.
+ * Copyright (C) 2017-2021 RapidMiner GmbH
+ *
+ * This program is free software: you can redistribute it and/or modify it under the terms of the GNU Affero General
+ * Public License as published by the Free Software Foundation, either version 3 of the License, or (at your option) any
+ * later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied
+ * warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU Affero General Public License along with this program. If not, see
+ * https://www.gnu.org/licenses/.
+ */
+
+package com.rapidminer.belt.column;
+
+import java.util.Arrays;
+import java.util.Objects;
+
+import com.rapidminer.belt.execution.Context;
+import com.rapidminer.belt.execution.Workload;
+import com.rapidminer.belt.transform.Transformer;
+
+
+/**
+ * A mergeable sketch for approximate quantiles of numeric values in bounded memory following the KLL algorithm
+ * (Karnin, Lang, Liberty: Optimal Quantile Approximation in Streams). The sketch keeps a hierarchy of compactors of
+ * geometrically decreasing capacity. Whenever a compactor is full, its values are sorted and every other value is
+ * promoted to the next level with twice the weight.
+ *
+ * <p>The accuracy is controlled by the parameter {@code k}: the rank of a value returned by {@link #quantile(double)}
+ * differs from the requested rank by at most {@link #getNormalizedRankError()} times the number of values with high
+ * probability. The memory consumption is in {@code O(k)} independent of the number of values.
+ *
+ * <p>Sketches are immutable. Sketches of different columns, e.g., of the chunks of a table that is too large to be
+ * appended, can be combined via {@link #merge(QuantileSketch)}. A sketch for a whole column is computed in parallel
+ * per batch and merged via {@link #of(Column, int, Context)} or {@link Statistics.Statistic#QUANTILE_SKETCH}.
+ *
+ * @author Michael Knopf
+ */
+public final class QuantileSketch {
+
+	/**
+	 * The default value of {@code k} resulting in a normalized rank error of about 1.3%.
+	 */
+	public static final int DEFAULT_K = 200;
+
+	/**
+	 * The minimal value of {@code k}.
+	 */
+	public static final int MIN_K = 8;
+
+	/**
+	 * The maximal value of {@code k}.
+	 */
+	public static final int MAX_K = 1 << 16;
+
+	/**
+	 * The capacity factor between two neighboring levels.
+	 */
+	private static final double CAPACITY_FACTOR = 2.0 / 3.0;
+
+	/**
+	 * The minimal capacity of a level.
+	 */
+	private static final int MIN_CAPACITY = 2;
+
+	/**
+	 * Empirical constants for the normalized rank error of a single quantile query.
+	 */
+	private static final double ERROR_FACTOR = 2.296;
+	private static final double ERROR_EXPONENT = 0.9723;
+
+	private static final long SEED = 0x9E3779B97F4A7C15L;
+
+	private final int k;
+
+	private double[][] levels;
+	private int[] sizes;
+	private int numberOfLevels;
+	private int retained;
+	private int maxRetained;
+
+	private long count;
+	private double min = Double.NaN;
+	private double max = Double.NaN;
+
+	private long random = SEED;
+
+	/**
+	 * Creates an empty sketch.
+	 *
+	 * @param k
+	 * 		the accuracy parameter
+	 */
+	QuantileSketch(int k) {
+		this.k = k;
+		this.levels = new double[1][];
+		this.sizes = new int[1];
+		this.numberOfLevels = 0;
+		grow();
+	}
+
+	/**
+	 * Computes the quantile sketch of the given numeric-readable column. The sketch is computed in parallel per batch
+	 * and merged. Missing values are ignored.
+	 *
+	 * @param column
+	 * 		the column, must be {@link Column.Capability#NUMERIC_READABLE}
+	 * @param k
+	 * 		the accuracy parameter, see {@link #kForError(double)}
+	 * @param context
+	 * 		the context to use
+	 * @return the sketch of the column values
+	 * @throws NullPointerException
+	 * 		if the column or context is {@code null}
+	 * @throws IllegalArgumentException
+	 * 		if k is not in the range {@link #MIN_K} to {@link #MAX_K} or the column is not numeric-readable
+	 */
+	public static QuantileSketch of(Column column, int k, Context context) {
+		Objects.requireNonNull(column, "Column must not be null");
+		Objects.requireNonNull(context, "Context must not be null");
+		requireValidK(k);
+		if (!column.type().hasCapability(Column.Capability.NUMERIC_READABLE)) {
+			throw new IllegalArgumentException("Column is not numeric-readable");
+		}
+		return new Transformer(column).workload(Workload.MEDIUM).reduceNumeric(
+				() -> new QuantileSketch(k),
+				QuantileSketch::update,
+				QuantileSketch::mergeInto,
+				context);
+	}
+
+	/**
+	 * Returns the smallest value of {@code k} such that the normalized rank error of a sketch is at most the given
+	 * error.
+	 *
+	 * @param error
+	 * 		the maximal normalized rank error, e.g., {@code 0.01} for 1% of the number of values
+	 * @return the accuracy parameter {@code k}
+	 * @throws IllegalArgumentException
+	 * 		if the error is not in the range (0, 1) or cannot be achieved with {@link #MAX_K}
+	 */
+	public static int kForError(double error) {
+		if (!(error > 0 && error < 1)) {
+			throw new IllegalArgumentException("Error must be in (0, 1): " + error);
+		}
+		double k = Math.ceil(Math.pow(ERROR_FACTOR / error, 1 / ERROR_EXPONENT));
+		if (k > MAX_K) {
+			throw new IllegalArgumentException("Error too small: " + error);
+		}
+		return Math.max(MIN_K, (int) k);
+	}
+
+	/**
+	 * Returns the approximate normalized rank error of sketches with the given accuracy parameter.
+	 *
+	 * @param k
+	 * 		the accuracy parameter
+	 * @return the normalized rank error
+	 */
+	public static double normalizedRankError(int k) {
+		return ERROR_FACTOR / Math.pow(k, ERROR_EXPONENT);
+	}
+
+	/**
+	 * Returns a new sketch summarizing the values of this and the other sketch. Both sketches must have the same
+	 * accuracy parameter.
+	 *
+	 * @param other
+	 * 		the other sketch
+	 * @return the merged sketch
+	 * @throws NullPointerException
+	 * 		if the other sketch is {@code null}
+	 * @throws IllegalArgumentException
+	 * 		if the sketches have different accuracy parameters
+	 */
+	public QuantileSketch merge(QuantileSketch other) {
+		Objects.requireNonNull(other, "Sketch must not be null");
+		if (other.k != k) {
+			throw new IllegalArgumentException("Cannot merge sketches with different k: " + k + ", " + other.k);
+		}
+		QuantileSketch merged = copy();
+		merged.mergeInto(other);
+		return merged;
+	}
+
+	/**
+	 * Returns the approximate quantile for the given normalized rank, e.g., {@code 0.99} for the 99% percentile.
+	 * The rank {@code 0} returns the exact minimum and {@code 1} the exact maximum.
+	 *
+	 * @param rank
+	 * 		the normalized rank in [0, 1]
+	 * @return the approximate quantile or {@link Double#NaN} if the sketch is empty
+	 * @throws IllegalArgumentException
+	 * 		if the rank is not in [0, 1]
+	 */
+	public double quantile(double rank) {
+		return quantiles(rank)[0];
+	}
+
+	/**
+	 * Returns the approximate quantiles for the given normalized ranks. Computing multiple quantiles at once is
+	 * cheaper than computing them one after another.
+	 *
+	 * @param ranks
+	 * 		the normalized ranks in [0, 1]
+	 * @return the approximate quantiles or {@link Double#NaN}s if the sketch is empty
+	 * @throws NullPointerException
+	 * 		if the ranks are {@code null}
+	 * @throws IllegalArgumentException
+	 * 		if a rank is not in [0, 1]
+	 */
+	public double[] quantiles(double... ranks) {
+		Objects.requireNonNull(ranks, "Ranks must not be null");
+		for (double rank : ranks) {
+			if (!(rank >= 0 && rank <= 1)) {
+				throw new IllegalArgumentException("Rank must be in [0, 1]: " + rank);
+			}
+		}
+		double[] result = new double[ranks.length];
+		if (count == 0) {
+			Arrays.fill(result, Double.NaN);
+			return result;
+		}
+		double[] values = new double[retained];
+		long[] cumulativeWeights = new long[retained];
+		sortedView(values, cumulativeWeights);
+		for (int i = 0; i < ranks.length; i++) {
+			double rank = ranks[i];
+			if (rank == 0) {
+				result[i] = min;
+			} else if (rank == 1) {
+				result[i] = max;
+			} else {
+				long target = (long) Math.ceil(rank * count);
+				int index = Arrays.binarySearch(cumulativeWeights, target);
+				if (index < 0) {
+					index = -index - 1;
+				}
+				result[i] = values[Math.min(index, values.length - 1)];
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * Returns the approximate normalized rank of the given value, i.e., the fraction of values that are smaller than
+	 * or equal to the given value.
+	 *
+	 * @param value
+	 * 		the value
+	 * @return the approximate normalized rank or {@link Double#NaN} if the sketch is empty or the value is NaN
+	 */
+	public double rank(double value) {
+		if (count == 0 || Double.isNaN(value)) {
+			return Double.NaN;
+		}
+		long weight = 0;
+		for (int level = 0; level < numberOfLevels; level++) {
+			double[] items = levels[level];
+			for (int i = 0; i < sizes[level]; i++) {
+				if (items[i] <= value) {
+					weight += 1L << level;
+				}
+			}
+		}
+		return (double) weight / count;
+	}
+
+	/**
+	 * @return the number of non-missing values summarized by this sketch
+	 */
+	public long count() {
+		return count;
+	}
+
+	/**
+	 * @return the exact minimum or {@link Double#NaN} if the sketch is empty
+	 */
+	public double min() {
+		return min;
+	}
+
+	/**
+	 * @return the exact maximum or {@link Double#NaN} if the sketch is empty
+	 */
+	public double max() {
+		return max;
+	}
+
+	/**
+	 * @return the accuracy parameter
+	 */
+	public int getK() {
+		return k;
+	}
+
+	/**
+	 * @return the approximate normalized rank error of this sketch
+	 */
+	public double getNormalizedRankError() {
+		return normalizedRankError(k);
+	}
+
+	/**
+	 * @return the number of values retained by this sketch
+	 */
+	public int getRetainedValues() {
+		return retained;
+	}
+
+	@Override
+	public boolean equals(Object o) {
+		if (this == o) {
+			return true;
+		}
+		if (o == null || getClass() != o.getClass()) {
+			return false;
+		}
+		QuantileSketch other = (QuantileSketch) o;
+		if (k != other.k || count != other.count || Double.compare(min, other.min) != 0 ||
+				Double.compare(max, other.max) != 0 || numberOfLevels != other.numberOfLevels) {
+			return false;
+		}
+		for (int level = 0; level < numberOfLevels; level++) {
+			if (sizes[level] != other.sizes[level]) {
+				return false;
+			}
+			for (int i = 0; i < sizes[level]; i++) {
+				if (Double.compare(levels[level][i], other.levels[level][i]) != 0) {
+					return false;
+				}
+			}
+		}
+		return true;
+	}
+
+	@Override
+	public int hashCode() {
+		int result = Objects.hash(k, count, min, max, numberOfLevels);
+		for (int level = 0; level < numberOfLevels; level++) {
+			for (int i = 0; i < sizes[level]; i++) {
+				result = 31 * result + Double.hashCode(levels[level][i]);
+			}
+		}
+		return result;
+	}
+
+	@Override
+	public String toString() {
+		return "Quantile sketch (k=" + k + ", count=" + count + ", retained=" + retained + ")";
+	}
+
+	/**
+	 * Adds a value to this sketch. Missing values are ignored. Used during the reduction only, sketches that have been
+	 * handed out must not be modified.
+	 */
+	void update(double value) {
+		if (Double.isNaN(value)) {
+			return;
+		}
+		if (count == 0) {
+			min = value;
+			max = value;
+		} else {
+			min = Math.min(min, value);
+			max = Math.max(max, value);
+		}
+		count++;
+		append(0, value);
+		retained++;
+		if (retained >= maxRetained) {
+			compress();
+		}
+	}
+
+	/**
+	 * Merges the other sketch into this sketch. Used during the reduction only, sketches that have been handed out
+	 * must not be modified.
+	 */
+	void mergeInto(QuantileSketch other) {
+		if (other.count == 0) {
+			return;
+		}
+		while (numberOfLevels < other.numberOfLevels) {
+			grow();
+		}
+		for (int level = 0; level < other.numberOfLevels; level++) {
+			for (int i = 0; i < other.sizes[level]; i++) {
+				append(level, other.levels[level][i]);
+			}
+		}
+		retained += other.retained;
+		if (count == 0) {
+			min = other.min;
+			max = other.max;
+		} else {
+			min = Math.min(min, other.min);
+			max = Math.max(max, other.max);
+		}
+		count += other.count;
+		while (retained >= maxRetained) {
+			compress();
+		}
+	}
+
+	static void requireValidK(int k) {
+		if (k < MIN_K || k > MAX_K) {
+			throw new IllegalArgumentException("k must be in [" + MIN_K + ", " + MAX_K + "]: " + k);
+		}
+	}
+
+	private QuantileSketch copy() {
+		QuantileSketch copy = new QuantileSketch(k);
+		copy.levels = new double[levels.length][];
+		for (int level = 0; level < numberOfLevels; level++) {
+			copy.levels[level] = Arrays.copyOf(levels[level], Math.max(sizes[level], 1));
+		}
+		copy.sizes = Arrays.copyOf(sizes, sizes.length);
+		copy.numberOfLevels = numberOfLevels;
+		copy.retained = retained;
+		copy.maxRetained = maxRetained;
+		copy.count = count;
+		copy.min = min;
+		copy.max = max;
+		copy.random = random;
+		return copy;
+	}
+
+	private int capacity(int level) {
+		int depth = numberOfLevels - level - 1;
+		return Math.max(MIN_CAPACITY, (int) Math.ceil(k * Math.pow(CAPACITY_FACTOR, depth)));
+	}
+
+	private void grow() {
+		if (numberOfLevels == levels.length) {
+			levels = Arrays.copyOf(levels, numberOfLevels * 2);
+			sizes = Arrays.copyOf(sizes, numberOfLevels * 2);
+		}
+		levels[numberOfLevels] = new double[MIN_CAPACITY];
+		sizes[numberOfLevels] = 0;
+		numberOfLevels++;
+		maxRetained = 0;
+		for (int level = 0; level < numberOfLevels; level++) {
+			maxRetained += capacity(level);
+		}
+	}
+
+	private void append(int level, double value) {
+		double[] items = levels[level];
+		int size = sizes[level];
+		if (size == items.length) {
+			items = Arrays.copyOf(items, size * 2);
+			levels[level] = items;
+		}
+		items[size] = value;
+		sizes[level] = size + 1;
+	}
+
+	/**
+	 * Compacts the lowest level that exceeds its capacity: its values are sorted and either the values at even or at
+	 * odd positions are promoted to the next level. In case of an odd number of values, the smallest one stays.
+	 */
+	private void compress() {
+		for (int level = 0; level < numberOfLevels; level++) {
+			if (sizes[level] >= capacity(level)) {
+				if (level + 1 >= numberOfLevels) {
+					grow();
+				}
+				double[] items = levels[level];
+				int size = sizes[level];
+				Arrays.sort(items, 0, size);
+				int start = (size & 1) + (nextBit() ? 1 : 0);
+				for (int i = start; i < size; i += 2) {
+					append(level + 1, items[i]);
+				}
+				int kept = size & 1;
+				sizes[level] = kept;
+				retained -= size - kept - (size - start + 1) / 2;
+				return;
+			}
+		}
+	}
+
+	/**
+	 * Returns a pseudo-random bit from a xorshift generator. The generator is seeded deterministically so that the
+	 * same input results in the same sketch.
+	 */
+	private boolean nextBit() {
+		random ^= random << 13;
+		random ^= random >>> 7;
+		random ^= random << 17;
+		return (random & 1) == 1;
+	}
+
+	/**
+	 * Fills the given arrays with the sorted retained values and their cumulative weights.
+	 */
+	private void sortedView(double[] values, long[] cumulativeWeights) {
+		long[] packed = new long[retained];
+		int index = 0;
+		for (int level = 0; level < numberOfLevels; level++) {
+			double[] items = levels[level];
+			for (int i = 0; i < sizes[level]; i++) {
+				values[index] = items[i];
+				packed[index] = level;
+				index++;
+			}
+		}
+		Integer[] order = new Integer[retained];
+		Arrays.setAll(order, i -> i);
+		Arrays.sort(order, (a, b) -> Double.compare(values[a], values[b]));
+		double[] sortedValues = new double[retained];
+		long cumulative = 0;
+		for (int i = 0; i < retained; i++) {
+			int position = order[i];
+			sortedValues[i] = values[position];
+			cumulative += 1L << packed[position];
+			cumulativeWeights[i] = cumulative;
+		}
+		System.arraycopy(sortedValues, 0, values, 0, retained);
+	}
+
+}
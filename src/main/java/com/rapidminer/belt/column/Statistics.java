@@ -17,18 +17,23 @@
 package com.rapidminer.belt.column;
 
 
+import java.nio.ByteBuffer;
 import java.time.Instant;
 import java.time.LocalTime;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.EnumMap;
 import java.util.EnumSet;
+import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
+import java.util.concurrent.Callable;
 
 import com.rapidminer.belt.column.Column.Category;
 import com.rapidminer.belt.execution.Context;
+import com.rapidminer.belt.execution.ExecutionUtils;
 import com.rapidminer.belt.execution.Workload;
 import com.rapidminer.belt.reader.CategoricalReader;
 import com.rapidminer.belt.reader.NumericReader;
@@ -46,6 +51,11 @@ public class Statistics {
 
 	private static final String MSG_NULL_COLUMN = "Column must not be null";
 
+	/**
+	 * The number of rows read at once when computing distinct counts of date-time columns.
+	 */
+	private static final int DISTINCT_BATCH_SIZE = 1 << 12;
+
 	/**
 	 * Column statistics. Please note that depending on the column type, only a subset of statistics might be supported
 	 * (see {@link #supported(Column, Statistic)}).
@@ -117,7 +127,21 @@ public class Statistics {
 		/**
 		 * How often each category index appears in a categorical column.
 		 */
-		INDEX_COUNTS
+		INDEX_COUNTS,
+
+		/**
+		 * A {@link QuantileSketch} of the column values with the default accuracy ({@link QuantileSketch#DEFAULT_K})
+		 * accessible via {@link Result#getObject()}. In contrast to the exact percentiles, the sketch is computed in a
+		 * single parallel pass in bounded memory, can be queried for arbitrary quantiles and can be merged with the
+		 * sketches of other columns.
+		 */
+		QUANTILE_SKETCH,
+
+		/**
+		 * The number of distinct non-missing values in the column. Exact for categorical columns, estimated via a
+		 * HyperLogLog sketch with a standard error of about 0.8% for all other columns.
+		 */
+		DISTINCT_COUNT
 	}
 
 
@@ -126,7 +150,8 @@ public class Statistics {
 	 * statistic.
 	 *
 	 * <p>Statistics for columns of type {@link ColumnType#REAL} and {@link ColumnType#INTEGER_53_BIT} only make use of
-	 * the numeric value (see {@link #getNumeric()}).
+	 * the numeric value (see {@link #getNumeric()}). An exception is the statistic {@link Statistic#QUANTILE_SKETCH}
+	 * which returns a {@link QuantileSketch} accessible via {@link #getObject()}.
 	 *
 	 * <p>Statistics for columns of type {@link ColumnType#NOMINAL} make use of the categorical index and string value
 	 * (see {@link #getCategorical()} and {@link #getObject()} respectively). An exception is the statistic
@@ -277,7 +302,9 @@ public class Statistics {
 			Statistic.P25,
 			Statistic.P50,
 			Statistic.P75,
-			Statistic.MEDIAN
+			Statistic.MEDIAN,
+			Statistic.QUANTILE_SKETCH,
+			Statistic.DISTINCT_COUNT
 	);
 
 	/**
@@ -294,7 +321,8 @@ public class Statistics {
 			Statistic.P25,
 			Statistic.P50,
 			Statistic.P75,
-			Statistic.MEDIAN
+			Statistic.MEDIAN,
+			Statistic.DISTINCT_COUNT
 	);
 
 	/**
@@ -303,7 +331,8 @@ public class Statistics {
 	private static final Set<Statistic> DATETIME = EnumSet.of(
 			Statistic.COUNT,
 			Statistic.MIN,
-			Statistic.MAX
+			Statistic.MAX,
+			Statistic.DISTINCT_COUNT
 	);
 
 	/**
@@ -313,13 +342,20 @@ public class Statistics {
 			Statistic.COUNT,
 			Statistic.LEAST,
 			Statistic.MODE,
-			Statistic.INDEX_COUNTS
+			Statistic.INDEX_COUNTS,
+			Statistic.DISTINCT_COUNT
 	);
 
 	/**
 	 * Statistics supported for generic object columns.
 	 */
-	private static final Set<Statistic> OBJECT = EnumSet.of(Statistic.COUNT);
+	private static final Set<Statistic> OBJECT = EnumSet.of(Statistic.COUNT, Statistic.DISTINCT_COUNT);
+
+	/**
+	 * The numeric statistics that can be derived from a cached {@link ZoneMap}.
+	 */
+	private static final Set<Statistic> ZONE_MAP_STATISTICS = EnumSet.of(Statistic.COUNT, Statistic.MIN,
+			Statistic.MAX);
 
 	/**
 	 * Container for the (intermediate) results of a reduction computing the count, min, max, and mean of a numerical
@@ -446,6 +482,9 @@ public class Statistics {
 		if (!supported(column, statistic)) {
 			throw new UnsupportedOperationException("Unsupported statistics: " + statistic);
 		}
+		if (statistic == Statistic.DISTINCT_COUNT) {
+			return computeDistinctCount(column, ctx);
+		}
 		switch (column.type().id()) {
 			case INTEGER_53_BIT:
 			case REAL:
@@ -498,6 +537,15 @@ public class Statistics {
 				throw new UnsupportedOperationException("Unsupported statistic: " + statistic);
 			}
 		}
+		if (statistics.contains(Statistic.DISTINCT_COUNT)) {
+			// The distinct count is independent of all other statistics
+			Set<Statistic> others = EnumSet.copyOf(statistics);
+			others.remove(Statistic.DISTINCT_COUNT);
+			Map<Statistic, Result> resultMap = new EnumMap<>(Statistic.class);
+			resultMap.putAll(compute(column, others, ctx));
+			resultMap.put(Statistic.DISTINCT_COUNT, computeDistinctCount(column, ctx));
+			return resultMap;
+		}
 		switch (column.type().id()) {
 			case INTEGER_53_BIT:
 			case REAL:
@@ -524,8 +572,436 @@ public class Statistics {
 		}
 	}
 
+	/**
+	 * Computes one or more statistics for each of the given columns, e.g., for all columns of a table. In contrast to
+	 * calling {@link #compute(Column, Set, Context)} for every column, the counts, minima, maxima and means of all
+	 * numeric and time columns as well as the category counts of all categorical columns are computed in a single
+	 * parallel scan over blocks of rows. Variances and standard deviations require one additional scan over the
+	 * numeric columns. All other statistics, e.g., percentiles, are computed column by column. As for single columns,
+	 * the results are cached in the columns.
+	 *
+	 * <p>Since wide tables usually consist of columns of different types, statistics that are not supported for a
+	 * column (see {@link #supported(Column, Statistic)}) are omitted from the result set of that column.
+	 *
+	 * @param columns
+	 * 		the columns, e.g., all columns of a table
+	 * @param statistics
+	 * 		the statistics to compute
+	 * @param ctx
+	 * 		the context
+	 * @return the result sets in the order of the given columns
+	 * @throws NullPointerException
+	 * 		if any of the arguments is or contains {@code null}
+	 */
+	public static List<Map<Statistic, Result>> computeAll(List<Column> columns, Set<Statistic> statistics,
+														   Context ctx) {
+		Objects.requireNonNull(columns, "Column list must not be null");
+		Objects.requireNonNull(statistics, "Statistics must not be null");
+		Objects.requireNonNull(ctx, "Context must not be null");
+
+		List<Set<Statistic>> supportedStatistics = new ArrayList<>(columns.size());
+		List<Integer> numeric = new ArrayList<>();
+		List<Integer> categorical = new ArrayList<>();
+		for (int i = 0; i < columns.size(); i++) {
+			Column column = Objects.requireNonNull(columns.get(i), MSG_NULL_COLUMN);
+			Set<Statistic> supported = EnumSet.noneOf(Statistic.class);
+			for (Statistic statistic : statistics) {
+				if (supported(column, statistic)) {
+					supported.add(statistic);
+				}
+			}
+			supportedStatistics.add(supported);
+			if (!supported.isEmpty()) {
+				if (isNumericScannable(column) && getCachedNumericCounts(column) == null) {
+					numeric.add(i);
+				} else if (column.type().category() == Category.CATEGORICAL &&
+						requiresCategoricalScan(column, supported)) {
+					categorical.add(i);
+				}
+			}
+		}
+
+		// First scan: counts, minima, maxima and means as well as category counts.
+		FusedScan scan = new FusedScan(columns, toArray(numeric), null, toArray(categorical));
+		if (!numeric.isEmpty() || !categorical.isEmpty()) {
+			scan.run(ctx);
+		}
+		for (int j = 0; j < scan.numericColumns.length; j++) {
+			Column column = columns.get(scan.numericColumns[j]);
+			synchronized (column) {
+				if (getCachedNumericCounts(column) == null) {
+					cacheNumericCounts(column, scan.counts[j]);
+				}
+			}
+		}
+		List<Map<Statistic, Result>> results = new ArrayList<>(Collections.nCopies(columns.size(), null));
+		for (int j = 0; j < scan.categoricalColumns.length; j++) {
+			int index = scan.categoricalColumns[j];
+			results.set(index, extractCategoricalResults(columns.get(index), supportedStatistics.get(index),
+					scan.dictionaries[j], scan.indexCounts[j]));
+		}
+
+		// Second scan: deviations (requires the means from the first scan).
+		List<Integer> deviation = new ArrayList<>();
+		List<Double> means = new ArrayList<>();
+		for (int i = 0; i < columns.size(); i++) {
+			Column column = columns.get(i);
+			Set<Statistic> supported = supportedStatistics.get(i);
+			if (isNumericScannable(column) && (supported.contains(Statistic.VAR) || supported.contains(Statistic.SD))
+					&& getCachedNumericDeviation(column) == null) {
+				NumericCounts counts = getCachedNumericCounts(column);
+				if (counts != null && counts.count >= 2 && Double.isFinite(counts.mean)) {
+					deviation.add(i);
+					means.add(counts.mean);
+				}
+			}
+		}
+		if (!deviation.isEmpty()) {
+			double[] meanArray = new double[means.size()];
+			Arrays.setAll(meanArray, means::get);
+			FusedScan deviationScan = new FusedScan(columns, toArray(deviation), meanArray, new int[0]);
+			deviationScan.run(ctx);
+			for (int j = 0; j < deviationScan.numericColumns.length; j++) {
+				Column column = columns.get(deviationScan.numericColumns[j]);
+				synchronized (column) {
+					if (getCachedNumericDeviation(column) == null) {
+						cacheNumericDeviation(column, deviationScan.deviations[j]);
+					}
+				}
+			}
+		}
+
+		// Everything that has been scanned is cached by now, the remaining statistics are computed per column.
+		for (int i = 0; i < columns.size(); i++) {
+			Set<Statistic> supported = supportedStatistics.get(i);
+			if (supported.isEmpty()) {
+				results.set(i, Collections.emptyMap());
+			} else if (results.get(i) == null) {
+				results.set(i, compute(columns.get(i), supported, ctx));
+			}
+		}
+		return results;
+	}
+
+	/**
+	 * Computes a histogram with the given number of equal-width bins between the minimum and the maximum of the given
+	 * numeric, time or date-time column. Values of time columns are binned as nanoseconds of the day, values of
+	 * date-time columns as seconds since epoch (see {@link Histogram}). If the column contains only missing values,
+	 * the bins span the interval {@code [0, 1]}.
+	 *
+	 * @param column
+	 * 		the column
+	 * @param numberOfBins
+	 * 		the number of bins
+	 * @param ctx
+	 * 		the context
+	 * @return the histogram
+	 * @throws NullPointerException
+	 * 		if any of the arguments is {@code null}
+	 * @throws IllegalArgumentException
+	 * 		if the number of bins is not positive
+	 * @throws UnsupportedOperationException
+	 * 		if the column is not a numeric, time or date-time column
+	 */
+	public static Histogram histogram(Column column, int numberOfBins, Context ctx) {
+		checkHistogramArguments(column, ctx);
+		if (numberOfBins < 1) {
+			throw new IllegalArgumentException("Number of bins must be positive");
+		}
+		double lower;
+		double upper;
+		if (column.type().id() == Column.TypeId.DATE_TIME) {
+			InstantCounts counts = computeInstantCounts(column, ctx);
+			lower = counts.count == 0 ? 0 : counts.min.getEpochSecond() + counts.min.getNano() / 1e9;
+			upper = counts.count == 0 ? 1 : counts.max.getEpochSecond() + counts.max.getNano() / 1e9;
+		} else {
+			NumericCounts counts = computeNumericCounts(column, ctx);
+			lower = counts.count == 0 ? 0 : counts.min;
+			upper = counts.count == 0 ? 1 : counts.max;
+		}
+		double[] edges = Histogram.checkEdges(Histogram.equalWidthEdges(lower, upper, numberOfBins));
+		return Histogram.compute(column, edges, true, ctx);
+	}
+
+	/**
+	 * Computes a histogram with the given bin edges for the given numeric, time or date-time column. Values of time
+	 * columns are binned as nanoseconds of the day, values of date-time columns as seconds since epoch (see
+	 * {@link Histogram}).
+	 *
+	 * @param column
+	 * 		the column
+	 * @param edges
+	 * 		the finite, strictly increasing bin edges, at least two
+	 * @param ctx
+	 * 		the context
+	 * @return the histogram
+	 * @throws NullPointerException
+	 * 		if any of the arguments is {@code null}
+	 * @throws IllegalArgumentException
+	 * 		if there are less than two edges or the edges are not finite and strictly increasing
+	 * @throws UnsupportedOperationException
+	 * 		if the column is not a numeric, time or date-time column
+	 */
+	public static Histogram histogram(Column column, double[] edges, Context ctx) {
+		checkHistogramArguments(column, ctx);
+		Objects.requireNonNull(edges, "Edges must not be null");
+		return Histogram.compute(column, Histogram.checkEdges(edges), false, ctx);
+	}
+
+	private static void checkHistogramArguments(Column column, Context ctx) {
+		Objects.requireNonNull(column, MSG_NULL_COLUMN);
+		Objects.requireNonNull(ctx, "Context must not be null");
+		switch (column.type().id()) {
+			case INTEGER_53_BIT:
+			case REAL:
+			case TIME:
+			case DATE_TIME:
+				return;
+			default:
+				throw new UnsupportedOperationException("Histograms are not supported for column type " +
+						column.type());
+		}
+	}
+
+	private static boolean isNumericScannable(Column column) {
+		switch (column.type().id()) {
+			case REAL:
+			case INTEGER_53_BIT:
+			case TIME:
+				return true;
+			default:
+				return false;
+		}
+	}
+
+	private static boolean requiresCategoricalScan(Column column, Set<Statistic> statistics) {
+		if (statistics.contains(Statistic.INDEX_COUNTS)) {
+			// index counts are never cached
+			return true;
+		}
+		if (statistics.size() == 1 && statistics.contains(Statistic.COUNT)) {
+			return column.getStat(Statistic.COUNT) == null;
+		}
+		return getCachedCategoricalCounts(column) == null;
+	}
+
+	private static Map<Statistic, Result> extractCategoricalResults(Column column, Set<Statistic> statistics,
+																	 Dictionary dictionary, int[] indexCounts) {
+		CategoricalCounts counts;
+		synchronized (column) {
+			counts = getCachedCategoricalCounts(column);
+			if (counts == null) {
+				counts = extractCategoricalCounts(dictionary, indexCounts.length, indexCounts);
+				cacheCategoricalCounts(column, counts);
+			}
+		}
+		Map<Statistic, Result> resultMap = new EnumMap<>(Statistic.class);
+		for (Statistic statistic : statistics) {
+			if (statistic == Statistic.INDEX_COUNTS) {
+				resultMap.put(statistic, new Result(Double.NaN, 0, new CategoricalIndexCounts(indexCounts)));
+			} else if (statistic == Statistic.DISTINCT_COUNT) {
+				Result result = new Result(countUsedIndices(indexCounts));
+				column.cacheStat(Statistic.DISTINCT_COUNT, result);
+				resultMap.put(statistic, result);
+			} else {
+				resultMap.put(statistic, extractCategoricalStatistic(statistic, counts));
+			}
+		}
+		return resultMap;
+	}
+
+	private static int[] toArray(List<Integer> list) {
+		int[] array = new int[list.size()];
+		Arrays.setAll(array, list::get);
+		return array;
+	}
+
+	/**
+	 * A single parallel scan over many columns. The rows are split into one range per thread. Every range is
+	 * processed in small blocks of rows such that all columns are read block by block while the intermediate
+	 * results stay in the cache.
+	 */
+	private static final class FusedScan {
+
+		/**
+		 * The number of rows of every column that are read and aggregated at once.
+		 */
+		private static final int BLOCK_ROWS = 1024;
+
+		/**
+		 * The minimal number of rows processed by a single task.
+		 */
+		private static final int MIN_TASK_ROWS = 1 << 15;
+
+		private final List<Column> columns;
+		private final int[] numericColumns;
+		private final double[] means;
+		private final int[] categoricalColumns;
+		private final Dictionary[] dictionaries;
+
+		private NumericCounts[] counts;
+		private NumericDeviation[] deviations;
+		private int[][] indexCounts;
+
+		/**
+		 * Creates a scan computing numeric counts (or deviations if the means are given) for the numeric columns and
+		 * index counts for the categorical columns.
+		 */
+		private FusedScan(List<Column> columns, int[] numericColumns, double[] means, int[] categoricalColumns) {
+			this.columns = columns;
+			this.numericColumns = numericColumns;
+			this.means = means;
+			this.categoricalColumns = categoricalColumns;
+			this.dictionaries = new Dictionary[categoricalColumns.length];
+			for (int j = 0; j < categoricalColumns.length; j++) {
+				dictionaries[j] = columns.get(categoricalColumns[j]).getDictionary();
+			}
+		}
+
+		private void run(Context ctx) {
+			int height = 0;
+			for (int index : numericColumns) {
+				height = Math.max(height, columns.get(index).size());
+			}
+			for (int index : categoricalColumns) {
+				height = Math.max(height, columns.get(index).size());
+			}
+			int numberOfTasks = Math.max(1, Math.min(ctx.getParallelism(), height / MIN_TASK_ROWS));
+			int rowsPerTask = height / numberOfTasks + (height % numberOfTasks == 0 ? 0 : 1);
+			List<Callable<FusedPartial>> tasks = new ArrayList<>(numberOfTasks);
+			for (int t = 0; t < numberOfTasks; t++) {
+				int from = t * rowsPerTask;
+				int to = Math.min(height, from + rowsPerTask);
+				tasks.add(() -> scan(from, to, ctx));
+			}
+			List<FusedPartial> partials = ExecutionUtils.run(tasks, ctx);
+
+			// Merge the partial results in order.
+			FusedPartial result = partials.get(0);
+			for (int t = 1; t < partials.size(); t++) {
+				FusedPartial partial = partials.get(t);
+				for (int j = 0; j < numericColumns.length; j++) {
+					if (means == null) {
+						combineNumericCounts(result.counts[j], partial.counts[j]);
+					} else {
+						combineNumericDeviation(result.deviations[j], partial.deviations[j]);
+					}
+				}
+				for (int j = 0; j < categoricalColumns.length; j++) {
+					int[] countsA = result.indexCounts[j];
+					int[] countsB = partial.indexCounts[j];
+					for (int index = 0; index < countsA.length; index++) {
+						countsA[index] += countsB[index];
+					}
+				}
+			}
+			for (int j = 0; j < numericColumns.length; j++) {
+				if (means == null) {
+					finishNumericCounts(result.counts[j]);
+				} else {
+					finishNumericDeviation(result.deviations[j]);
+				}
+			}
+			counts = result.counts;
+			deviations = result.deviations;
+			indexCounts = result.indexCounts;
+		}
+
+		private FusedPartial scan(int from, int to, Context ctx) {
+			FusedPartial partial = new FusedPartial(numericColumns.length, means != null, dictionaries);
+			double[] values = new double[BLOCK_ROWS];
+			int[] indices = new int[BLOCK_ROWS];
+			for (int start = from; start < to; start += BLOCK_ROWS) {
+				int end = Math.min(to, start + BLOCK_ROWS);
+				for (int j = 0; j < numericColumns.length; j++) {
+					Column column = columns.get(numericColumns[j]);
+					int length = Math.min(end, column.size()) - start;
+					if (length > 0) {
+						column.fill(values, start);
+						if (means == null) {
+							aggregateCounts(partial.counts[j], values, length);
+						} else {
+							aggregateDeviation(partial.deviations[j], means[j], values, length);
+						}
+					}
+				}
+				for (int j = 0; j < categoricalColumns.length; j++) {
+					Column column = columns.get(categoricalColumns[j]);
+					int length = Math.min(end, column.size()) - start;
+					if (length > 0) {
+						column.fill(indices, start);
+						int[] counts = partial.indexCounts[j];
+						for (int k = 0; k < length; k++) {
+							counts[indices[k]]++;
+						}
+					}
+				}
+				ctx.requireActive();
+			}
+			return partial;
+		}
+
+		private static void aggregateCounts(NumericCounts stats, double[] values, int length) {
+			for (int k = 0; k < length; k++) {
+				double value = values[k];
+				if (!Double.isNaN(value)) {
+					stats.min = Double.min(stats.min, value);
+					stats.max = Double.max(stats.max, value);
+					stats.tmpCount++;
+					stats.tmpSum += value;
+				}
+			}
+			computeCountsFromTmpFields(stats);
+		}
+
+		private static void aggregateDeviation(NumericDeviation stats, double mean, double[] values, int length) {
+			for (int k = 0; k < length; k++) {
+				double value = values[k];
+				if (!Double.isNaN(value)) {
+					double diff = value - mean;
+					stats.tmpSumOfSquares += diff * diff;
+					stats.tmpCount++;
+				}
+			}
+			computeVarianceFromTmpFields(stats);
+		}
+
+	}
+
+	/**
+	 * The partial result of a {@link FusedScan} for a range of rows.
+	 */
+	private static final class FusedPartial {
+
+		private final NumericCounts[] counts;
+		private final NumericDeviation[] deviations;
+		private final int[][] indexCounts;
+
+		private FusedPartial(int numberOfNumericColumns, boolean deviation, Dictionary[] dictionaries) {
+			if (deviation) {
+				counts = null;
+				deviations = new NumericDeviation[numberOfNumericColumns];
+				Arrays.setAll(deviations, j -> new NumericDeviation());
+			} else {
+				counts = new NumericCounts[numberOfNumericColumns];
+				Arrays.setAll(counts, j -> new NumericCounts());
+				deviations = null;
+			}
+			indexCounts = new int[dictionaries.length][];
+			Arrays.setAll(indexCounts, j -> new int[dictionaries[j].maximalIndex() + 1]);
+		}
+
+	}
+
 	private static Result computeNumeric(Column column, Statistic statistic, Context ctx) {
-		// All statistics rely on a first pass computing simple counts.
+		if (statistic == Statistic.QUANTILE_SKETCH) {
+			return computeQuantileSketch(column, ctx);
+		}
+		ZoneMap zoneMap = column.getZoneMap();
+		if (zoneMap != null && ZONE_MAP_STATISTICS.contains(statistic)) {
+			return extractZoneMapStatistic(statistic, zoneMap);
+		}
+		// All other statistics rely on a first pass computing simple counts.
 		NumericCounts counts = computeNumericCounts(column, ctx);
 		NumericDeviation deviation = DEFAULT_NUMERIC_DEVIATION;
 		NumericPercentiles percentiles = DEFAULT_NUMERIC_PERCENTILES;
@@ -548,6 +1024,13 @@ public class Statistics {
 
 	private static Map<Statistic, Result> computeNumeric(Column column, Set<Statistic> statistics, Context ctx) {
 		Map<Statistic, Result> resultMap = new EnumMap<>(Statistic.class);
+		ZoneMap zoneMap = column.getZoneMap();
+		if (zoneMap != null && ZONE_MAP_STATISTICS.containsAll(statistics)) {
+			for (Statistic stat : statistics) {
+				resultMap.put(stat, extractZoneMapStatistic(stat, zoneMap));
+			}
+			return resultMap;
+		}
 		NumericCounts counts = computeNumericCounts(column, ctx);
 		NumericDeviation deviation = DEFAULT_NUMERIC_DEVIATION;
 		NumericPercentiles percentiles = DEFAULT_NUMERIC_PERCENTILES;
@@ -555,6 +1038,8 @@ public class Statistics {
 			Result cachedResult = column.getStat(stat);
 			if (cachedResult != null) {
 				resultMap.put(stat, cachedResult);
+			} else if (stat == Statistic.QUANTILE_SKETCH) {
+				resultMap.put(stat, computeQuantileSketch(column, ctx));
 			} else {
 				// not cached yet, need to compute it
 				switch (stat) {
@@ -581,6 +1066,22 @@ public class Statistics {
 		return resultMap;
 	}
 
+	/**
+	 * Derives the count, minimum or maximum from the block summaries of the given zone map.
+	 */
+	private static Result extractZoneMapStatistic(Statistic statistic, ZoneMap zoneMap) {
+		switch (statistic) {
+			case COUNT:
+				return new Result(zoneMap.size() - (double) zoneMap.missingCount());
+			case MIN:
+				return new Result(zoneMap.min());
+			case MAX:
+				return new Result(zoneMap.max());
+			default:
+				throw new AssertionError();
+		}
+	}
+
 	private static Result extractNumericStatistic(Statistic statistic, NumericCounts countMinMax,
 												  NumericDeviation varStd, NumericPercentiles percentiles) {
 		double numericValue;
@@ -674,51 +1175,56 @@ public class Statistics {
 							stats.tmpSum += value;
 						}
 					},
-					(statsA, statsB) -> {
-						// Compute count and mean from temporary fields.
-						computeCountsFromTmpFields(statsA);
-						computeCountsFromTmpFields(statsB);
-						// Combine the two mean values.
-						if (statsB.count > 0) {
-							if (statsA.count > 0) {
-								double weight = (double) statsA.count / (statsA.count + statsB.count);
-								statsA.mean = weight * statsA.mean + (1.0 - weight) * statsB.mean;
-							} else {
-								statsA.mean = statsB.mean;
-							}
-						}
-						// Update counts etc.
-						statsA.count += statsB.count;
-						statsA.min = Double.min(statsA.min, statsB.min);
-						statsA.max = Double.max(statsA.max, statsB.max);
-					},
+					Statistics::combineNumericCounts,
 					ctx
 			);
 
-			// In case of a sequential execution, the combiner might not be invoked at all.
-			computeCountsFromTmpFields(result);
-
-			if (result.count == 0) {
-				// Min and max are still be set to POSITIVE_INFINITY and NEGATIVE_INFINITY respectively.
-				result.min = Double.NaN;
-				result.max = Double.NaN;
-			} else if (result.mean < result.min) {
-				// This can happen if a temporary sum (see reduction) becomes so small that we lose precision or end
-				// up with
-				// an infinite value. If the mean is still finite, it must be close to the minimum, otherwise it
-				// could be
-				// everywhere in between the minimum and maximum value.
-				result.mean = Double.isFinite(result.mean) ? result.min : Double.NaN;
-			} else if (result.mean > result.max) {
-				// See explanation for the case above.
-				result.mean = Double.isFinite(result.mean) ? result.max : Double.NaN;
-			}
-
+			finishNumericCounts(result);
 			cacheNumericCounts(column, result);
 			return result;
 		}
 	}
 
+	private static void combineNumericCounts(NumericCounts statsA, NumericCounts statsB) {
+		// Compute count and mean from temporary fields.
+		computeCountsFromTmpFields(statsA);
+		computeCountsFromTmpFields(statsB);
+		// Combine the two mean values.
+		if (statsB.count > 0) {
+			if (statsA.count > 0) {
+				double weight = (double) statsA.count / (statsA.count + statsB.count);
+				statsA.mean = weight * statsA.mean + (1.0 - weight) * statsB.mean;
+			} else {
+				statsA.mean = statsB.mean;
+			}
+		}
+		// Update counts etc.
+		statsA.count += statsB.count;
+		statsA.min = Double.min(statsA.min, statsB.min);
+		statsA.max = Double.max(statsA.max, statsB.max);
+	}
+
+	private static void finishNumericCounts(NumericCounts result) {
+		// In case of a sequential execution, the combiner might not be invoked at all.
+		computeCountsFromTmpFields(result);
+
+		if (result.count == 0) {
+			// Min and max are still be set to POSITIVE_INFINITY and NEGATIVE_INFINITY respectively.
+			result.min = Double.NaN;
+			result.max = Double.NaN;
+		} else if (result.mean < result.min) {
+			// This can happen if a temporary sum (see reduction) becomes so small that we lose precision or end
+			// up with
+			// an infinite value. If the mean is still finite, it must be close to the minimum, otherwise it
+			// could be
+			// everywhere in between the minimum and maximum value.
+			result.mean = Double.isFinite(result.mean) ? result.min : Double.NaN;
+		} else if (result.mean > result.max) {
+			// See explanation for the case above.
+			result.mean = Double.isFinite(result.mean) ? result.max : Double.NaN;
+		}
+	}
+
 	private static void computeCountsFromTmpFields(NumericCounts stats) {
 		// Merge any temporary values (e.g., aggregated during the reduction of a single batch) with the actual counts.
 		if (stats.tmpCount > 0) {
@@ -771,40 +1277,45 @@ public class Statistics {
 							stats.tmpCount++;
 						}
 					},
-					(statsA, statsB) -> {
-						// Compute variance from temporary fields.
-						computeVarianceFromTmpFields(statsA);
-						computeVarianceFromTmpFields(statsB);
-						// Combine the two variance values.
-						if (statsB.count > 0) {
-							if (statsA.count > 0) {
-								double weight = (double) statsA.count / (statsA.count + statsB.count);
-								statsA.var = weight * statsA.var + (1.0 - weight) * statsB.var;
-							} else {
-								statsA.var = statsB.var;
-							}
-						}
-						// Update count.
-						statsA.count += statsB.count;
-					},
+					Statistics::combineNumericDeviation,
 					ctx
 			);
 
-			// In case of a sequential execution, the combiner might not be invoked at all.
-			computeVarianceFromTmpFields(result);
-
-			// The population variance is defined as 1/n * sum(...), the sample variance as 1/(n-1) * sum(...). Thus, we
-			// need to scale the variance by n/(n-1).
-			double correction = ((double) result.count) / (result.count - 1);
-			result.var *= correction;
-			result.sd = Math.sqrt(result.var);
-
+			finishNumericDeviation(result);
 			cacheNumericDeviation(column, result);
 
 			return result;
 		}
 	}
 
+	private static void combineNumericDeviation(NumericDeviation statsA, NumericDeviation statsB) {
+		// Compute variance from temporary fields.
+		computeVarianceFromTmpFields(statsA);
+		computeVarianceFromTmpFields(statsB);
+		// Combine the two variance values.
+		if (statsB.count > 0) {
+			if (statsA.count > 0) {
+				double weight = (double) statsA.count / (statsA.count + statsB.count);
+				statsA.var = weight * statsA.var + (1.0 - weight) * statsB.var;
+			} else {
+				statsA.var = statsB.var;
+			}
+		}
+		// Update count.
+		statsA.count += statsB.count;
+	}
+
+	private static void finishNumericDeviation(NumericDeviation result) {
+		// In case of a sequential execution, the combiner might not be invoked at all.
+		computeVarianceFromTmpFields(result);
+
+		// The population variance is defined as 1/n * sum(...), the sample variance as 1/(n-1) * sum(...). Thus, we
+		// need to scale the variance by n/(n-1).
+		double correction = ((double) result.count) / (result.count - 1);
+		result.var *= correction;
+		result.sd = Math.sqrt(result.var);
+	}
+
 	private static void computeVarianceFromTmpFields(NumericDeviation stats) {
 		// Merge any temporary values (e.g., aggregated during the reduction of a single batch) with the actual values.
 		if (stats.tmpCount > 0) {
@@ -851,6 +1362,119 @@ public class Statistics {
 		}
 	}
 
+	private static Result computeDistinctCount(Column column, Context ctx) {
+		Result cachedCount = column.getStat(Statistic.DISTINCT_COUNT);
+		if (cachedCount != null) {
+			return cachedCount;
+		}
+		synchronized (column) {
+			cachedCount = column.getStat(Statistic.DISTINCT_COUNT);
+			if (cachedCount != null) {
+				return cachedCount;
+			}
+			long distinct;
+			if (column.type().category() == Category.CATEGORICAL) {
+				// Exact count of the used dictionary indices
+				int nValues = column.getDictionary().maximalIndex() + 1;
+				distinct = countUsedIndices(calculateIndexCounts(column, ctx, nValues));
+			} else if (column.type().hasCapability(Column.Capability.NUMERIC_READABLE)) {
+				distinct = new Transformer(column).workload(Workload.MEDIUM).reduceNumeric(
+						HyperLogLog::new,
+						(sketch, value) -> {
+							if (!Double.isNaN(value)) {
+								sketch.addDouble(value);
+							}
+						},
+						HyperLogLog::merge,
+						ctx).estimate();
+			} else if (column.type().id() == Column.TypeId.DATE_TIME) {
+				distinct = computeDateTimeDistinctCount(column, ctx);
+			} else {
+				distinct = new Transformer(column).workload(Workload.MEDIUM).reduceObjects(
+						Object.class,
+						HyperLogLog::new,
+						(sketch, value) -> {
+							if (value != null) {
+								sketch.addObject(value);
+							}
+						},
+						HyperLogLog::merge,
+						ctx).estimate();
+			}
+			Result result = new Result(distinct);
+			column.cacheStat(Statistic.DISTINCT_COUNT, result);
+			return result;
+		}
+	}
+
+	/**
+	 * Hashes the seconds and nanoseconds of the date-time column without creating {@link Instant}s by reading the raw
+	 * values batch-wise via {@link ColumnIO}.
+	 */
+	private static long computeDateTimeDistinctCount(Column column, Context ctx) {
+		int size = column.size();
+		int numberOfTasks = Math.max(1, Math.min(ctx.getParallelism(), size / DISTINCT_BATCH_SIZE));
+		int rowsPerTask = size / numberOfTasks + (size % numberOfTasks == 0 ? 0 : 1);
+		List<Callable<HyperLogLog>> tasks = new ArrayList<>(numberOfTasks);
+		for (int t = 0; t < numberOfTasks; t++) {
+			int from = t * rowsPerTask;
+			int to = Math.min(size, from + rowsPerTask);
+			tasks.add(() -> {
+				HyperLogLog sketch = new HyperLogLog();
+				ByteBuffer seconds = ByteBuffer.allocate(DISTINCT_BATCH_SIZE * Long.BYTES);
+				ByteBuffer nanos = ByteBuffer.allocate(DISTINCT_BATCH_SIZE * Integer.BYTES);
+				for (int start = from; start < to; start += DISTINCT_BATCH_SIZE) {
+					int length = Math.min(DISTINCT_BATCH_SIZE, to - start);
+					seconds.clear().limit(length * Long.BYTES);
+					nanos.clear().limit(length * Integer.BYTES);
+					ColumnIO.putDateTimeLongs(column, start, seconds);
+					ColumnIO.putDateTimeNanoInts(column, start, nanos);
+					for (int i = 0; i < length; i++) {
+						long second = seconds.getLong(i * Long.BYTES);
+						if (second != DateTimeColumn.MISSING_VALUE) {
+							sketch.addLongInt(second, nanos.getInt(i * Integer.BYTES));
+						}
+					}
+					ctx.requireActive();
+				}
+				return sketch;
+			});
+		}
+		List<HyperLogLog> sketches = ExecutionUtils.run(tasks, ctx);
+		HyperLogLog result = sketches.get(0);
+		for (int i = 1; i < sketches.size(); i++) {
+			result.merge(sketches.get(i));
+		}
+		return result.estimate();
+	}
+
+	private static int countUsedIndices(int[] indexCounts) {
+		int used = 0;
+		for (int index = 1; index < indexCounts.length; index++) {
+			if (indexCounts[index] > 0) {
+				used++;
+			}
+		}
+		return used;
+	}
+
+	private static Result computeQuantileSketch(Column column, Context ctx) {
+		Result cachedSketch = column.getStat(Statistic.QUANTILE_SKETCH);
+		if (cachedSketch != null) {
+			return cachedSketch;
+		}
+		synchronized (column) {
+			cachedSketch = column.getStat(Statistic.QUANTILE_SKETCH);
+			if (cachedSketch != null) {
+				return cachedSketch;
+			}
+			QuantileSketch sketch = QuantileSketch.of(column, QuantileSketch.DEFAULT_K, ctx);
+			Result result = new Result(Double.NaN, -1, sketch);
+			column.cacheStat(Statistic.QUANTILE_SKETCH, result);
+			return result;
+		}
+	}
+
 	/**
 	 * Computes the (interpolated) pth percentile of the given n (sorted) values. Please note that there is not a
 	 * standard universally accepted way to interpolate percentiles. This implementation uses the method proposed by
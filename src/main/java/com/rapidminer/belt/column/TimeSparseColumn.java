@@ -226,6 +226,16 @@ class TimeSparseColumn extends TimeColumn {
 		return defaultValue;
 	}
 
+	/**
+	 * Returns the values of the column that do not equal the default value. The array is not copied and must not be
+	 * modified.
+	 *
+	 * @return the columns non-default values.
+	 */
+	long[] getNonDefaultValues() {
+		return nonDefaultValues;
+	}
+
 	/**
 	 * Converts the given nanos to their corresponding time values by using {@link LocalTime#ofNanoOfDay(long)}. {@link
 	 * TimeColumn#MISSING_VALUE} is converted to {@code null}.
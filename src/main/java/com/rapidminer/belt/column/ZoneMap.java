@@ -0,0 +1,282 @@
+/**
+ * This file is part of the RapidMiner Belt project.
+ * Copyright (C) 2017-2021 RapidMiner GmbH
+ *
+ * This program is free software: you can redistribute it and/or modify it under the terms of the GNU Affero General
+ * Public License as published by the Free Software Foundation, either version 3 of the License, or (at your option) any
+ * later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied
+ * warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU Affero General Public License along with this program. If not, see
+ * https://www.gnu.org/licenses/.
+ */
+
+
+package com.rapidminer.belt.column;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.Callable;
+
+import com.rapidminer.belt.execution.Context;
+import com.rapidminer.belt.execution.ExecutionUtils;
+
+
+/**
+ * Lightweight summary of a {@link Column.Capability#NUMERIC_READABLE} column consisting of the minimum, maximum and
+ * number of missing values of every block of {@link #BLOCK_SIZE} consecutive rows. Zone maps are computed on demand
+ * via {@link #of(Column, Context)} and cached on the column. Filters such as
+ * {@link com.rapidminer.belt.transform.Filters} use a cached zone map to skip or completely accept whole blocks
+ * without reading their values, which is particularly effective for columns that are clustered, e.g., by time or id.
+ * Similarly, {@link Statistics} derives the minimum, maximum and count from a cached zone map.
+ *
+ * <p>As for {@link Column#fill(double[], int)}, the values of time columns are their nanoseconds of the day.
+ *
+ * @author Michael Knopf
+ */
+public final class ZoneMap {
+
+	/**
+	 * The number of rows per block, a multiple of 64 so that blocks align with the words of a
+	 * {@link com.rapidminer.belt.transform.Selection}.
+	 */
+	public static final int BLOCK_SIZE = 1 << 16;
+
+	/**
+	 * The number of rows read at once.
+	 */
+	private static final int BATCH_SIZE = 1 << 10;
+
+	private final int size;
+	private final double[] minima;
+	private final double[] maxima;
+	private final int[] missingCounts;
+
+	private ZoneMap(int size, double[] minima, double[] maxima, int[] missingCounts) {
+		this.size = size;
+		this.minima = minima;
+		this.maxima = maxima;
+		this.missingCounts = missingCounts;
+	}
+
+	/**
+	 * Returns the zone map of the given column. If no zone map is cached for the column yet, it is computed (in
+	 * parallel if the column is large enough) and cached.
+	 *
+	 * @param column
+	 * 		the column
+	 * @param context
+	 * 		the execution context to use
+	 * @return the zone map
+	 * @throws NullPointerException
+	 * 		if any of the arguments is {@code null}
+	 * @throws UnsupportedOperationException
+	 * 		if the column is not {@link Column.Capability#NUMERIC_READABLE}
+	 */
+	public static ZoneMap of(Column column, Context context) {
+		Objects.requireNonNull(column, "Column must not be null");
+		Objects.requireNonNull(context, "Context must not be null");
+		if (!column.type().hasCapability(Column.Capability.NUMERIC_READABLE)) {
+			throw new UnsupportedOperationException("Column is not numeric-readable");
+		}
+		ZoneMap zoneMap = column.getZoneMap();
+		if (zoneMap != null) {
+			return zoneMap;
+		}
+		synchronized (column) {
+			zoneMap = column.getZoneMap();
+			if (zoneMap == null) {
+				zoneMap = compute(column, context);
+				column.cacheZoneMap(zoneMap);
+			}
+			return zoneMap;
+		}
+	}
+
+	/**
+	 * Returns the zone map cached for the given column, if any. Unlike {@link #of(Column, Context)}, this method never
+	 * computes a zone map.
+	 *
+	 * @param column
+	 * 		the column
+	 * @return the cached zone map or {@code null} if there is none
+	 * @throws NullPointerException
+	 * 		if the column is {@code null}
+	 */
+	public static ZoneMap cached(Column column) {
+		return Objects.requireNonNull(column, "Column must not be null").getZoneMap();
+	}
+
+	/**
+	 * @return the number of rows of the summarized column
+	 */
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * @return the number of blocks
+	 */
+	public int numberOfBlocks() {
+		return minima.length;
+	}
+
+	/**
+	 * Returns the number of rows of the given block, which is {@link #BLOCK_SIZE} for all but the last block.
+	 *
+	 * @param block
+	 * 		the block index
+	 * @return the number of rows
+	 * @throws IndexOutOfBoundsException
+	 * 		if the block index is out of bounds
+	 */
+	public int blockLength(int block) {
+		if (block < 0 || block >= minima.length) {
+			throw new IndexOutOfBoundsException("Block index " + block + " out of bounds");
+		}
+		return Math.min(BLOCK_SIZE, size - block * BLOCK_SIZE);
+	}
+
+	/**
+	 * Returns the smallest non-missing value of the given block.
+	 *
+	 * @param block
+	 * 		the block index
+	 * @return the minimum or {@link Double#NaN} if all values of the block are missing
+	 * @throws IndexOutOfBoundsException
+	 * 		if the block index is out of bounds
+	 */
+	public double min(int block) {
+		return minima[block];
+	}
+
+	/**
+	 * Returns the largest non-missing value of the given block.
+	 *
+	 * @param block
+	 * 		the block index
+	 * @return the maximum or {@link Double#NaN} if all values of the block are missing
+	 * @throws IndexOutOfBoundsException
+	 * 		if the block index is out of bounds
+	 */
+	public double max(int block) {
+		return maxima[block];
+	}
+
+	/**
+	 * Returns the number of missing values of the given block.
+	 *
+	 * @param block
+	 * 		the block index
+	 * @return the number of missing values
+	 * @throws IndexOutOfBoundsException
+	 * 		if the block index is out of bounds
+	 */
+	public int missingCount(int block) {
+		return missingCounts[block];
+	}
+
+	/**
+	 * @return the smallest non-missing value of the column or {@link Double#NaN} if all values are missing
+	 */
+	public double min() {
+		double min = Double.NaN;
+		for (double value : minima) {
+			// blocks without non-missing values have NaN as minimum and are ignored
+			if (value < min || Double.isNaN(min)) {
+				min = value;
+			}
+		}
+		return min;
+	}
+
+	/**
+	 * @return the largest non-missing value of the column or {@link Double#NaN} if all values are missing
+	 */
+	public double max() {
+		double max = Double.NaN;
+		for (double value : maxima) {
+			if (value > max || Double.isNaN(max)) {
+				max = value;
+			}
+		}
+		return max;
+	}
+
+	/**
+	 * @return the number of missing values of the column
+	 */
+	public int missingCount() {
+		int count = 0;
+		for (int missing : missingCounts) {
+			count += missing;
+		}
+		return count;
+	}
+
+	@Override
+	public String toString() {
+		return "Zone map (" + minima.length + " blocks) of column of size " + size;
+	}
+
+	private static ZoneMap compute(Column column, Context context) {
+		int size = column.size();
+		int numberOfBlocks = size / BLOCK_SIZE + (size % BLOCK_SIZE == 0 ? 0 : 1);
+		double[] minima = new double[numberOfBlocks];
+		double[] maxima = new double[numberOfBlocks];
+		int[] missingCounts = new int[numberOfBlocks];
+		int numberOfTasks = Math.max(1, Math.min(context.getParallelism(), numberOfBlocks));
+		int blocksPerTask = numberOfBlocks / numberOfTasks + (numberOfBlocks % numberOfTasks == 0 ? 0 : 1);
+		List<Callable<Void>> tasks = new ArrayList<>(numberOfTasks);
+		for (int t = 0; t < numberOfTasks; t++) {
+			int from = t * blocksPerTask;
+			int to = Math.min(numberOfBlocks, from + blocksPerTask);
+			tasks.add(() -> {
+				double[] buffer = new double[BATCH_SIZE];
+				for (int block = from; block < to; block++) {
+					summarize(column, block, buffer, minima, maxima, missingCounts);
+					context.requireActive();
+				}
+				return null;
+			});
+		}
+		if (numberOfBlocks > 0) {
+			ExecutionUtils.run(tasks, context);
+		}
+		return new ZoneMap(size, minima, maxima, missingCounts);
+	}
+
+	/**
+	 * Computes the summary of a single block and writes it into the given arrays.
+	 */
+	private static void summarize(Column column, int block, double[] buffer, double[] minima, double[] maxima,
+								  int[] missingCounts) {
+		int blockStart = block * BLOCK_SIZE;
+		int blockEnd = Math.min(column.size(), blockStart + BLOCK_SIZE);
+		double min = Double.POSITIVE_INFINITY;
+		double max = Double.NEGATIVE_INFINITY;
+		int missing = 0;
+		for (int start = blockStart; start < blockEnd; start += buffer.length) {
+			column.fill(buffer, start);
+			int length = Math.min(buffer.length, blockEnd - start);
+			for (int i = 0; i < length; i++) {
+				double value = buffer[i];
+				if (Double.isNaN(value)) {
+					missing++;
+				} else {
+					min = Math.min(min, value);
+					max = Math.max(max, value);
+				}
+			}
+		}
+		boolean allMissing = missing == blockEnd - blockStart;
+		minima[block] = allMissing ? Double.NaN : min;
+		maxima[block] = allMissing ? Double.NaN : max;
+		missingCounts[block] = missing;
+	}
+
+}
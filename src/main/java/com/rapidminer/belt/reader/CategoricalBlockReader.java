@@ -0,0 +1,146 @@
+/**
+ * This file is part of the RapidMiner Belt project.
+ * Copyright (C) 2017-2021 RapidMiner GmbH
+ *
+ * This program is free software: you can redistribute it and/or modify it under the terms of the GNU Affero General
+ * Public License as published by the Free Software Foundation, either version 3 of the License, or (at your option) any
+ * later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied
+ * warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU Affero General Public License along with this program. If not, see
+ * https://www.gnu.org/licenses/.
+ */
+
+
+package com.rapidminer.belt.reader;
+
+import java.nio.IntBuffer;
+import java.util.NoSuchElementException;
+
+import com.rapidminer.belt.column.Column;
+import com.rapidminer.belt.column.ColumnIO;
+
+
+/**
+ * Block-wise reader for the category indices of categorical {@link Column}s. Unlike the {@link CategoricalReader},
+ * this reader does not copy the indices into a buffer of its own if the column stores them as int values (see
+ * {@link ColumnIO#viewCategoricalInts(Column, int, int)}). Instead, the blocks are read-only views of the column
+ * storage. Only for other columns, e.g., columns with a row mapping, sparse columns or columns storing the indices as
+ * bytes or shorts, the indices are copied block by block.
+ *
+ * <p>Every block returned by {@link #next()} has position {@code 0} and its limit set to the number of indices in the
+ * block. If the indices are copied, the same buffer is reused for all blocks, i.e., a block is only valid until the
+ * next call of {@link #next()}.
+ *
+ * @author Michael Knopf
+ * @see Readers#categoricalBlockReader(Column)
+ */
+public final class CategoricalBlockReader {
+
+	private final Column column;
+	private final int blockSize;
+	private final int end;
+	private final boolean view;
+	private int[] copy;
+	private IntBuffer copyBuffer;
+	private int position;
+
+	/**
+	 * Creates a new reader.
+	 *
+	 * @param column
+	 * 		the categorical column to read
+	 * @param blockSize
+	 * 		the maximal number of indices per block
+	 */
+	CategoricalBlockReader(Column column, int blockSize) {
+		this(column, blockSize, 0, column.size());
+	}
+
+	/**
+	 * Creates a new reader for the rows in the range {@code [start, end)} of the given column.
+	 *
+	 * @param column
+	 * 		the categorical column to read
+	 * @param blockSize
+	 * 		the maximal number of indices per block
+	 * @param start
+	 * 		the first row to read
+	 * @param end
+	 * 		the end of the row range (exclusive)
+	 */
+	CategoricalBlockReader(Column column, int blockSize, int start, int end) {
+		this.column = column;
+		this.blockSize = blockSize;
+		this.end = end;
+		this.position = start;
+		this.view = ColumnIO.viewCategoricalInts(column, 0, 0) != null;
+	}
+
+	/**
+	 * Returns the next block of category indices.
+	 *
+	 * @return a read-only buffer containing the category indices of the next block
+	 * @throws NoSuchElementException
+	 * 		if there are no remaining indices
+	 */
+	public IntBuffer next() {
+		if (position >= end) {
+			throw new NoSuchElementException("No remaining indices");
+		}
+		int length = Math.min(blockSize, end - position);
+		IntBuffer block;
+		if (view) {
+			block = ColumnIO.viewCategoricalInts(column, position, length);
+		} else {
+			if (copy == null) {
+				copy = new int[Math.min(blockSize, end - position)];
+				copyBuffer = IntBuffer.wrap(copy).asReadOnlyBuffer();
+			}
+			column.fill(copy, position);
+			block = copyBuffer;
+			block.clear().limit(length);
+		}
+		position += length;
+		return block;
+	}
+
+	/**
+	 * @return {@code true} iff further blocks can be read
+	 */
+	public boolean hasRemaining() {
+		return position < end;
+	}
+
+	/**
+	 * @return the number of remaining indices
+	 */
+	public int remaining() {
+		return end - position;
+	}
+
+	/**
+	 * Returns the row of the first index of the next block.
+	 *
+	 * @return the row position
+	 */
+	public int position() {
+		return position;
+	}
+
+	/**
+	 * @return {@code true} iff the blocks are views of the column storage instead of copies
+	 */
+	public boolean isView() {
+		return view;
+	}
+
+	@Override
+	public String toString() {
+		return "Categorical block reader (" + (view ? "view" : "copy") + ") at row " + position + " of " + end;
+	}
+
+}
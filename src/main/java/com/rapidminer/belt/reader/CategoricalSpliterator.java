@@ -0,0 +1,122 @@
+/**
+ * This file is part of the RapidMiner Belt project.
+ * Copyright (C) 2017-2021 RapidMiner GmbH
+ *
+ * This program is free software: you can redistribute it and/or modify it under the terms of the GNU Affero General
+ * Public License as published by the Free Software Foundation, either version 3 of the License, or (at your option) any
+ * later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied
+ * warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU Affero General Public License along with this program. If not, see
+ * https://www.gnu.org/licenses/.
+ */
+
+
+package com.rapidminer.belt.reader;
+
+import java.nio.IntBuffer;
+import java.util.Spliterator;
+import java.util.function.IntConsumer;
+
+import com.rapidminer.belt.column.Column;
+
+
+/**
+ * Spliterator over the category indices of a row range of a categorical column. The indices are read via a
+ * {@link CategoricalBlockReader}, i.e., without copying for dense columns with integer indices. Splitting halves the row range, so that
+ * parallel streams can process large columns in balanced parts.
+ *
+ * @author Michael Knopf
+ * @see Streams#intStream(Column)
+ */
+final class CategoricalSpliterator implements Spliterator.OfInt {
+
+	private static final int CHARACTERISTICS = ORDERED | SIZED | SUBSIZED | IMMUTABLE | NONNULL;
+
+	private final Column column;
+	private final int end;
+	private int position;
+	private CategoricalBlockReader reader;
+	private IntBuffer block;
+
+	/**
+	 * Creates a spliterator over the rows in the range {@code [start, end)}.
+	 *
+	 * @param column
+	 * 		the categorical column
+	 * @param start
+	 * 		the first row
+	 * @param end
+	 * 		the end of the row range (exclusive)
+	 */
+	CategoricalSpliterator(Column column, int start, int end) {
+		this.column = column;
+		this.position = start;
+		this.end = end;
+	}
+
+	@Override
+	public OfInt trySplit() {
+		// once the traversal has started, the remaining rows are not split anymore
+		if (reader != null || end - position < 2 * Streams.MIN_SPLIT_SIZE) {
+			return null;
+		}
+		int middle = (position + end) >>> 1;
+		CategoricalSpliterator prefix = new CategoricalSpliterator(column, position, middle);
+		position = middle;
+		return prefix;
+	}
+
+	@Override
+	public boolean tryAdvance(IntConsumer action) {
+		if (position >= end) {
+			return false;
+		}
+		if (block == null || !block.hasRemaining()) {
+			if (reader == null) {
+				reader = new CategoricalBlockReader(column, NumericBlockReader.DEFAULT_BLOCK_SIZE, position, end);
+			}
+			block = reader.next();
+		}
+		position++;
+		action.accept(block.get());
+		return true;
+	}
+
+	@Override
+	public void forEachRemaining(IntConsumer action) {
+		if (position >= end) {
+			return;
+		}
+		if (reader == null) {
+			reader = new CategoricalBlockReader(column, NumericBlockReader.DEFAULT_BLOCK_SIZE, position, end);
+		}
+		position = end;
+		if (block != null) {
+			while (block.hasRemaining()) {
+				action.accept(block.get());
+			}
+		}
+		while (reader.hasRemaining()) {
+			block = reader.next();
+			for (int i = 0; i < block.limit(); i++) {
+				action.accept(block.get(i));
+			}
+		}
+		block = null;
+	}
+
+	@Override
+	public long estimateSize() {
+		return (long) end - position;
+	}
+
+	@Override
+	public int characteristics() {
+		return CHARACTERISTICS;
+	}
+
+}
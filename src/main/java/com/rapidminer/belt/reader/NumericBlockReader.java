@@ -0,0 +1,151 @@
+/**
+ * This file is part of the RapidMiner Belt project.
+ * Copyright (C) 2017-2021 RapidMiner GmbH
+ *
+ * This program is free software: you can redistribute it and/or modify it under the terms of the GNU Affero General
+ * Public License as published by the Free Software Foundation, either version 3 of the License, or (at your option) any
+ * later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied
+ * warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU Affero General Public License along with this program. If not, see
+ * https://www.gnu.org/licenses/.
+ */
+
+
+package com.rapidminer.belt.reader;
+
+import java.nio.DoubleBuffer;
+import java.util.NoSuchElementException;
+
+import com.rapidminer.belt.column.Column;
+import com.rapidminer.belt.column.ColumnIO;
+
+
+/**
+ * Block-wise reader for {@link Column}s of double precision values. Unlike the {@link NumericReader}, this reader
+ * does not copy the values into a buffer of its own if the column stores them contiguously (see
+ * {@link ColumnIO#viewNumericDoubles(Column, int, int)}). Instead, the blocks are read-only views of the column
+ * storage. Only for other columns, e.g., columns with a row mapping or sparse columns, the values are copied block
+ * by block.
+ *
+ * <p>Every block returned by {@link #next()} has position {@code 0} and its limit set to the number of values in the
+ * block. If the values are copied, the same buffer is reused for all blocks, i.e., a block is only valid until the
+ * next call of {@link #next()}.
+ *
+ * @author Michael Knopf
+ * @see Readers#numericBlockReader(Column)
+ */
+public final class NumericBlockReader {
+
+	/**
+	 * Default block size of {@value} values.
+	 */
+	static final int DEFAULT_BLOCK_SIZE = 1 << 14;
+
+	private final Column column;
+	private final int blockSize;
+	private final int end;
+	private final boolean view;
+	private double[] copy;
+	private DoubleBuffer copyBuffer;
+	private int position;
+
+	/**
+	 * Creates a new reader.
+	 *
+	 * @param column
+	 * 		the numeric-readable column to read
+	 * @param blockSize
+	 * 		the maximal number of values per block
+	 */
+	NumericBlockReader(Column column, int blockSize) {
+		this(column, blockSize, 0, column.size());
+	}
+
+	/**
+	 * Creates a new reader for the rows in the range {@code [start, end)} of the given column.
+	 *
+	 * @param column
+	 * 		the numeric-readable column to read
+	 * @param blockSize
+	 * 		the maximal number of values per block
+	 * @param start
+	 * 		the first row to read
+	 * @param end
+	 * 		the end of the row range (exclusive)
+	 */
+	NumericBlockReader(Column column, int blockSize, int start, int end) {
+		this.column = column;
+		this.blockSize = blockSize;
+		this.end = end;
+		this.position = start;
+		this.view = ColumnIO.viewNumericDoubles(column, 0, 0) != null;
+	}
+
+	/**
+	 * Returns the next block of values.
+	 *
+	 * @return a read-only buffer containing the values of the next block
+	 * @throws NoSuchElementException
+	 * 		if there are no remaining values
+	 */
+	public DoubleBuffer next() {
+		if (position >= end) {
+			throw new NoSuchElementException("No remaining values");
+		}
+		int length = Math.min(blockSize, end - position);
+		DoubleBuffer block;
+		if (view) {
+			block = ColumnIO.viewNumericDoubles(column, position, length);
+		} else {
+			if (copy == null) {
+				copy = new double[Math.min(blockSize, end - position)];
+				copyBuffer = DoubleBuffer.wrap(copy).asReadOnlyBuffer();
+			}
+			column.fill(copy, position);
+			block = copyBuffer;
+			block.clear().limit(length);
+		}
+		position += length;
+		return block;
+	}
+
+	/**
+	 * @return {@code true} iff further blocks can be read
+	 */
+	public boolean hasRemaining() {
+		return position < end;
+	}
+
+	/**
+	 * @return the number of remaining values
+	 */
+	public int remaining() {
+		return end - position;
+	}
+
+	/**
+	 * Returns the row of the first value of the next block.
+	 *
+	 * @return the row position
+	 */
+	public int position() {
+		return position;
+	}
+
+	/**
+	 * @return {@code true} iff the blocks are views of the column storage instead of copies
+	 */
+	public boolean isView() {
+		return view;
+	}
+
+	@Override
+	public String toString() {
+		return "Numeric block reader (" + (view ? "view" : "copy") + ") at row " + position + " of " + end;
+	}
+
+}
@@ -0,0 +1,122 @@
+/**
+ * This file is part of the RapidMiner Belt project.
+ * Copyright (C) 2017-2021 RapidMiner GmbH
+ *
+ * This program is free software: you can redistribute it and/or modify it under the terms of the GNU Affero General
+ * Public License as published by the Free Software Foundation, either version 3 of the License, or (at your option) any
+ * later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied
+ * warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU Affero General Public License along with this program. If not, see
+ * https://www.gnu.org/licenses/.
+ */
+
+
+package com.rapidminer.belt.reader;
+
+import java.nio.DoubleBuffer;
+import java.util.Spliterator;
+import java.util.function.DoubleConsumer;
+
+import com.rapidminer.belt.column.Column;
+
+
+/**
+ * Spliterator over the numeric values of a row range of a column. The values are read via a
+ * {@link NumericBlockReader}, i.e., without copying for dense columns. Splitting halves the row range, so that parallel
+ * streams can process large columns in balanced parts.
+ *
+ * @author Michael Knopf
+ * @see Streams#doubleStream(Column)
+ */
+final class NumericSpliterator implements Spliterator.OfDouble {
+
+	private static final int CHARACTERISTICS = ORDERED | SIZED | SUBSIZED | IMMUTABLE | NONNULL;
+
+	private final Column column;
+	private final int end;
+	private int position;
+	private NumericBlockReader reader;
+	private DoubleBuffer block;
+
+	/**
+	 * Creates a spliterator over the rows in the range {@code [start, end)}.
+	 *
+	 * @param column
+	 * 		the numeric-readable column
+	 * @param start
+	 * 		the first row
+	 * @param end
+	 * 		the end of the row range (exclusive)
+	 */
+	NumericSpliterator(Column column, int start, int end) {
+		this.column = column;
+		this.position = start;
+		this.end = end;
+	}
+
+	@Override
+	public OfDouble trySplit() {
+		// once the traversal has started, the remaining rows are not split anymore
+		if (reader != null || end - position < 2 * Streams.MIN_SPLIT_SIZE) {
+			return null;
+		}
+		int middle = (position + end) >>> 1;
+		NumericSpliterator prefix = new NumericSpliterator(column, position, middle);
+		position = middle;
+		return prefix;
+	}
+
+	@Override
+	public boolean tryAdvance(DoubleConsumer action) {
+		if (position >= end) {
+			return false;
+		}
+		if (block == null || !block.hasRemaining()) {
+			if (reader == null) {
+				reader = new NumericBlockReader(column, NumericBlockReader.DEFAULT_BLOCK_SIZE, position, end);
+			}
+			block = reader.next();
+		}
+		position++;
+		action.accept(block.get());
+		return true;
+	}
+
+	@Override
+	public void forEachRemaining(DoubleConsumer action) {
+		if (position >= end) {
+			return;
+		}
+		if (reader == null) {
+			reader = new NumericBlockReader(column, NumericBlockReader.DEFAULT_BLOCK_SIZE, position, end);
+		}
+		position = end;
+		if (block != null) {
+			while (block.hasRemaining()) {
+				action.accept(block.get());
+			}
+		}
+		while (reader.hasRemaining()) {
+			block = reader.next();
+			for (int i = 0; i < block.limit(); i++) {
+				action.accept(block.get(i));
+			}
+		}
+		block = null;
+	}
+
+	@Override
+	public long estimateSize() {
+		return (long) end - position;
+	}
+
+	@Override
+	public int characteristics() {
+		return CHARACTERISTICS;
+	}
+
+}
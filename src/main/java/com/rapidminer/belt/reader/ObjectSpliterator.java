@@ -0,0 +1,131 @@
+/**
+ * This file is part of the RapidMiner Belt project.
+ * Copyright (C) 2017-2021 RapidMiner GmbH
+ *
+ * This program is free software: you can redistribute it and/or modify it under the terms of the GNU Affero General
+ * Public License as published by the Free Software Foundation, either version 3 of the License, or (at your option) any
+ * later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied
+ * warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU Affero General Public License along with this program. If not, see
+ * https://www.gnu.org/licenses/.
+ */
+
+
+package com.rapidminer.belt.reader;
+
+import java.util.Spliterator;
+import java.util.function.Consumer;
+
+import com.rapidminer.belt.column.Column;
+
+
+/**
+ * Spliterator over the object values of a row range of a column. The values are copied into a buffer batch-wise.
+ * Splitting halves the row range, so that parallel streams can process large columns in balanced parts.
+ *
+ * @param <T>
+ * 		the type of the values
+ * @author Michael Knopf
+ * @see Streams#objectStream(Column, Class)
+ */
+final class ObjectSpliterator<T> implements Spliterator<T> {
+
+	private static final int CHARACTERISTICS = ORDERED | SIZED | SUBSIZED | IMMUTABLE;
+
+	private final Column column;
+	private final int end;
+	private int position;
+	private Object[] buffer;
+	private int bufferIndex;
+	private int bufferLength;
+
+	/**
+	 * Creates a spliterator over the rows in the range {@code [start, end)}. The element type of the column must be a
+	 * subtype of the type of the spliterator.
+	 *
+	 * @param column
+	 * 		the object-readable column
+	 * @param start
+	 * 		the first row
+	 * @param end
+	 * 		the end of the row range (exclusive)
+	 */
+	ObjectSpliterator(Column column, int start, int end) {
+		this.column = column;
+		this.position = start;
+		this.end = end;
+	}
+
+	@Override
+	public Spliterator<T> trySplit() {
+		// once the traversal has started, the remaining rows are not split anymore
+		if (buffer != null || end - position < 2 * Streams.MIN_SPLIT_SIZE) {
+			return null;
+		}
+		int middle = (position + end) >>> 1;
+		ObjectSpliterator<T> prefix = new ObjectSpliterator<>(column, position, middle);
+		position = middle;
+		return prefix;
+	}
+
+	@Override
+	public boolean tryAdvance(Consumer<? super T> action) {
+		if (position >= end) {
+			return false;
+		}
+		if (bufferIndex >= bufferLength) {
+			refill();
+		}
+		position++;
+		action.accept(get(bufferIndex++));
+		return true;
+	}
+
+	@Override
+	public void forEachRemaining(Consumer<? super T> action) {
+		while (position < end) {
+			if (bufferIndex >= bufferLength) {
+				refill();
+			}
+			int length = bufferLength - bufferIndex;
+			for (int i = 0; i < length; i++) {
+				action.accept(get(bufferIndex++));
+			}
+			position += length;
+		}
+	}
+
+	@Override
+	public long estimateSize() {
+		return (long) end - position;
+	}
+
+	@Override
+	public int characteristics() {
+		return CHARACTERISTICS;
+	}
+
+	/**
+	 * Reads the values of the next rows into the buffer.
+	 */
+	private void refill() {
+		if (buffer == null) {
+			buffer = new Object[Math.min(NumericReader.DEFAULT_BUFFER_SIZE, end - position)];
+		}
+		column.fill(buffer, position);
+		bufferIndex = 0;
+		bufferLength = Math.min(buffer.length, end - position);
+	}
+
+	private T get(int index) {
+		// the cast is safe because of the type check on creation
+		@SuppressWarnings("unchecked")
+		T value = (T) buffer[index];
+		return value;
+	}
+
+}
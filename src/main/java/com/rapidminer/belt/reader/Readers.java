@@ -115,6 +115,162 @@ public final class Readers {
 		return new CategoricalReader(column, NumericReader.DEFAULT_BUFFER_SIZE, length);
 	}
 
+	/**
+	 * Creates a new block-wise reader for a numeric-readable column that hands out views of the column storage instead
+	 * of copies whenever possible, see {@link NumericBlockReader}.
+	 *
+	 * @param column
+	 * 		the column to read, must be {@link Column.Capability#NUMERIC_READABLE}
+	 * @return a block reader for a numeric-readable column
+	 * @throws NullPointerException
+	 * 		if the given column is {@code null}
+	 * @throws UnsupportedOperationException
+	 * 		if the column is not numeric-readable
+	 */
+	public static NumericBlockReader numericBlockReader(Column column) {
+		return numericBlockReader(column, NumericBlockReader.DEFAULT_BLOCK_SIZE);
+	}
+
+	/**
+	 * Creates a new block-wise reader for a numeric-readable column that hands out views of the column storage instead
+	 * of copies whenever possible, see {@link NumericBlockReader}.
+	 *
+	 * @param column
+	 * 		the column to read, must be {@link Column.Capability#NUMERIC_READABLE}
+	 * @param blockSize
+	 * 		the maximal number of values per block
+	 * @return a block reader for a numeric-readable column
+	 * @throws NullPointerException
+	 * 		if the given column is {@code null}
+	 * @throws UnsupportedOperationException
+	 * 		if the column is not numeric-readable
+	 * @throws IllegalArgumentException
+	 * 		if the block size is not positive
+	 */
+	public static NumericBlockReader numericBlockReader(Column column, int blockSize) {
+		if (column == null) {
+			throw new NullPointerException(MSG_NULL_COLUMN);
+		}
+		if (!column.type().hasCapability(Column.Capability.NUMERIC_READABLE)) {
+			throw new UnsupportedOperationException("Column is not numeric-readable");
+		}
+		requirePositiveBlockSize(blockSize);
+		return new NumericBlockReader(column, blockSize);
+	}
+
+	/**
+	 * Creates a new block-wise reader for the rows in the range {@code [start, end)} of a numeric-readable column,
+	 * see {@link #numericBlockReader(Column, int)}. Readers for disjoint ranges can be used to process a column in
+	 * parallel.
+	 *
+	 * @param column
+	 * 		the column to read, must be {@link Column.Capability#NUMERIC_READABLE}
+	 * @param blockSize
+	 * 		the maximal number of values per block
+	 * @param start
+	 * 		the first row to read
+	 * @param end
+	 * 		the end of the row range (exclusive)
+	 * @return a block reader for the given rows of a numeric-readable column
+	 * @throws NullPointerException
+	 * 		if the given column is {@code null}
+	 * @throws UnsupportedOperationException
+	 * 		if the column is not numeric-readable
+	 * @throws IllegalArgumentException
+	 * 		if the block size is not positive
+	 * @throws IndexOutOfBoundsException
+	 * 		if the range is not within the bounds of the column
+	 */
+	public static NumericBlockReader numericBlockReader(Column column, int blockSize, int start, int end) {
+		if (column == null) {
+			throw new NullPointerException(MSG_NULL_COLUMN);
+		}
+		if (!column.type().hasCapability(Column.Capability.NUMERIC_READABLE)) {
+			throw new UnsupportedOperationException("Column is not numeric-readable");
+		}
+		requirePositiveBlockSize(blockSize);
+		requireRange(column, start, end);
+		return new NumericBlockReader(column, blockSize, start, end);
+	}
+
+	/**
+	 * Creates a new block-wise reader for the category indices of a categorical column that hands out views of the
+	 * column storage instead of copies whenever possible, see {@link CategoricalBlockReader}.
+	 *
+	 * @param column
+	 * 		the column to read, must be of column category {@link Column.Category#CATEGORICAL}
+	 * @return a block reader for a categorical column
+	 * @throws NullPointerException
+	 * 		if the given column is {@code null}
+	 * @throws UnsupportedOperationException
+	 * 		if the column is not categorical
+	 */
+	public static CategoricalBlockReader categoricalBlockReader(Column column) {
+		return categoricalBlockReader(column, NumericBlockReader.DEFAULT_BLOCK_SIZE);
+	}
+
+	/**
+	 * Creates a new block-wise reader for the category indices of a categorical column that hands out views of the
+	 * column storage instead of copies whenever possible, see {@link CategoricalBlockReader}.
+	 *
+	 * @param column
+	 * 		the column to read, must be of column category {@link Column.Category#CATEGORICAL}
+	 * @param blockSize
+	 * 		the maximal number of indices per block
+	 * @return a block reader for a categorical column
+	 * @throws NullPointerException
+	 * 		if the given column is {@code null}
+	 * @throws UnsupportedOperationException
+	 * 		if the column is not categorical
+	 * @throws IllegalArgumentException
+	 * 		if the block size is not positive
+	 */
+	public static CategoricalBlockReader categoricalBlockReader(Column column, int blockSize) {
+		if (column == null) {
+			throw new NullPointerException(MSG_NULL_COLUMN);
+		}
+		if (column.type().category() != Column.Category.CATEGORICAL) {
+			throw new UnsupportedOperationException("Column is not categorical");
+		}
+		requirePositiveBlockSize(blockSize);
+		return new CategoricalBlockReader(column, blockSize);
+	}
+
+	/**
+	 * Creates a new block-wise reader for the category indices in the row range {@code [start, end)} of a categorical
+	 * column, see {@link #categoricalBlockReader(Column, int)}. Readers for disjoint ranges can be used to process a
+	 * column in parallel.
+	 *
+	 * @param column
+	 * 		the column to read, must be of column category {@link Column.Category#CATEGORICAL}
+	 * @param blockSize
+	 * 		the maximal number of indices per block
+	 * @param start
+	 * 		the first row to read
+	 * @param end
+	 * 		the end of the row range (exclusive)
+	 * @return a block reader for the given rows of a categorical column
+	 * @throws NullPointerException
+	 * 		if the given column is {@code null}
+	 * @throws UnsupportedOperationException
+	 * 		if the column is not categorical
+	 * @throws IllegalArgumentException
+	 * 		if the block size is not positive
+	 * @throws IndexOutOfBoundsException
+	 * 		if the range is not within the bounds of the column
+	 */
+	public static CategoricalBlockReader categoricalBlockReader(Column column, int blockSize, int start, int end) {
+		if (column == null) {
+			throw new NullPointerException(MSG_NULL_COLUMN);
+		}
+		if (column.type().category() != Column.Category.CATEGORICAL) {
+			throw new UnsupportedOperationException("Column is not categorical");
+		}
+		requirePositiveBlockSize(blockSize);
+		requireRange(column, start, end);
+		return new CategoricalBlockReader(column, blockSize, start, end);
+	}
+
 	/**
 	 * Creates a new object column reader of the given type.
 	 *
@@ -380,6 +536,19 @@ public final class Readers {
 		}
 	}
 
+	private static void requirePositiveBlockSize(int blockSize) {
+		if (blockSize < 1) {
+			throw new IllegalArgumentException("Block size must be positive");
+		}
+	}
+
+	private static void requireRange(Column column, int start, int end) {
+		if (start < 0 || end > column.size() || start > end) {
+			throw new IndexOutOfBoundsException("Range [" + start + ", " + end + ") out of bounds for size " +
+					column.size());
+		}
+	}
+
 	private Readers() {
 		// Suppress default constructor to prevent instantiation
 		throw new AssertionError();
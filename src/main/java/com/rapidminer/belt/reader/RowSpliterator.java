@@ -0,0 +1,199 @@
+/**
+ * This file is part of the RapidMiner Belt project.
+ * Copyright (C) 2017-2021 RapidMiner GmbH
+ *
+ * This program is free software: you can redistribute it and/or modify it under the terms of the GNU Affero General
+ * Public License as published by the Free Software Foundation, either version 3 of the License, or (at your option) any
+ * later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied
+ * warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU Affero General Public License along with this program. If not, see
+ * https://www.gnu.org/licenses/.
+ */
+
+
+package com.rapidminer.belt.reader;
+
+import java.util.List;
+import java.util.Spliterator;
+import java.util.function.Consumer;
+
+import com.rapidminer.belt.column.Column;
+
+
+/**
+ * Spliterator over the rows in a row range of a list of columns. Every split uses a row reader of its own, the
+ * elements handed to the actions are that reader. Thus, a row is only valid during the action it is passed to and
+ * must not be stored.
+ *
+ * @param <R>
+ * 		the type of the row readers
+ * @param <T>
+ * 		the type of the rows
+ * @author Michael Knopf
+ * @see Streams#numericRows(List)
+ * @see Streams#mixedRows(List)
+ */
+abstract class RowSpliterator<R extends T, T> implements Spliterator<T> {
+
+	private static final int CHARACTERISTICS = ORDERED | SIZED | SUBSIZED | IMMUTABLE | NONNULL;
+
+	final List<Column> columns;
+	private final int end;
+	private int position;
+	private R reader;
+
+	/**
+	 * Creates a spliterator over the rows in the range {@code [start, end)}.
+	 *
+	 * @param columns
+	 * 		the columns to read
+	 * @param start
+	 * 		the first row
+	 * @param end
+	 * 		the end of the row range (exclusive)
+	 */
+	RowSpliterator(List<Column> columns, int start, int end) {
+		this.columns = columns;
+		this.position = start;
+		this.end = end;
+	}
+
+	/**
+	 * Creates a new row reader positioned before the given row.
+	 *
+	 * @param row
+	 * 		the first row to read
+	 * @return the new reader
+	 */
+	abstract R reader(int row);
+
+	/**
+	 * Moves the given reader to the next row.
+	 *
+	 * @param reader
+	 * 		the reader to move
+	 */
+	abstract void move(R reader);
+
+	/**
+	 * Creates a spliterator of the same type over the given row range.
+	 *
+	 * @param start
+	 * 		the first row
+	 * @param end
+	 * 		the end of the row range (exclusive)
+	 * @return the new spliterator
+	 */
+	abstract RowSpliterator<R, T> split(int start, int end);
+
+	@Override
+	public Spliterator<T> trySplit() {
+		// once the traversal has started, the remaining rows are not split anymore
+		if (reader != null || end - position < 2 * Streams.MIN_SPLIT_SIZE) {
+			return null;
+		}
+		int middle = (position + end) >>> 1;
+		RowSpliterator<R, T> prefix = split(position, middle);
+		position = middle;
+		return prefix;
+	}
+
+	@Override
+	public boolean tryAdvance(Consumer<? super T> action) {
+		if (position >= end) {
+			return false;
+		}
+		if (reader == null) {
+			reader = reader(position);
+		}
+		position++;
+		move(reader);
+		action.accept(reader);
+		return true;
+	}
+
+	@Override
+	public void forEachRemaining(Consumer<? super T> action) {
+		if (position >= end) {
+			return;
+		}
+		if (reader == null) {
+			reader = reader(position);
+		}
+		for (; position < end; position++) {
+			move(reader);
+			action.accept(reader);
+		}
+	}
+
+	@Override
+	public long estimateSize() {
+		return (long) end - position;
+	}
+
+	@Override
+	public int characteristics() {
+		return CHARACTERISTICS;
+	}
+
+	/**
+	 * Spliterator over {@link NumericRow}s.
+	 */
+	static final class Numeric extends RowSpliterator<NumericRowReader, NumericRow> {
+
+		Numeric(List<Column> columns, int start, int end) {
+			super(columns, start, end);
+		}
+
+		@Override
+		NumericRowReader reader(int row) {
+			NumericRowReader reader = new NumericRowReader(columns);
+			reader.setPosition(row - 1);
+			return reader;
+		}
+
+		@Override
+		void move(NumericRowReader reader) {
+			reader.move();
+		}
+
+		@Override
+		RowSpliterator<NumericRowReader, NumericRow> split(int start, int end) {
+			return new Numeric(columns, start, end);
+		}
+
+	}
+
+	/**
+	 * Spliterator over {@link MixedRow}s.
+	 */
+	static final class Mixed extends RowSpliterator<MixedRowReader, MixedRow> {
+
+		Mixed(List<Column> columns, int start, int end) {
+			super(columns, start, end);
+		}
+
+		@Override
+		MixedRowReader reader(int row) {
+			MixedRowReader reader = new MixedRowReader(columns);
+			reader.setPosition(row - 1);
+			return reader;
+		}
+
+		@Override
+		void move(MixedRowReader reader) {
+			reader.move();
+		}
+
+		@Override
+		RowSpliterator<MixedRowReader, MixedRow> split(int start, int end) {
+			return new Mixed(columns, start, end);
+		}
+
+	}
+
+}
@@ -0,0 +1,200 @@
+/**
+ * This file is part of the RapidMiner Belt project.
+ * Copyright (C) 2017-2021 RapidMiner GmbH
+ *
+ * This program is free software: you can redistribute it and/or modify it under the terms of the GNU Affero General
+ * Public License as published by the Free Software Foundation, either version 3 of the License, or (at your option) any
+ * later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied
+ * warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU Affero General Public License along with this program. If not, see
+ * https://www.gnu.org/licenses/.
+ */
+
+
+package com.rapidminer.belt.reader;
+
+import java.util.List;
+import java.util.Objects;
+import java.util.stream.DoubleStream;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+import com.rapidminer.belt.column.Column;
+import com.rapidminer.belt.table.Table;
+
+
+/**
+ * Utility methods for reading {@link Column}s and {@link Table}s via {@link java.util.stream streams}.
+ *
+ * <p>The streams are backed by spliterators that report the characteristics {@code ORDERED}, {@code SIZED},
+ * {@code SUBSIZED} and {@code IMMUTABLE} and split by row range. Thus, {@link Stream#parallel() parallel} streams
+ * scale with the number of available threads. The primitive streams read the columns block-wise via
+ * {@link NumericBlockReader}s and {@link CategoricalBlockReader}s and do not box the values.
+ *
+ * <p>The elements of row streams are row readers, i.e., a row is only valid during the action it is passed to and
+ * must not be stored or collected. For example, {@code numericRows(table).mapToDouble(row -> row.get(0))} is fine,
+ * but collecting the rows into a list is not.
+ *
+ * @author Michael Knopf
+ */
+public final class Streams {
+
+	/**
+	 * Row ranges smaller than twice this size are not split any further.
+	 */
+	static final int MIN_SPLIT_SIZE = 1 << 13;
+
+	private static final String MSG_NULL_TABLE = "Table must not be null";
+	private static final String MSG_NULL_COLUMN = "Column must not be null";
+	private static final String MSG_NULL_TYPE = "Type must not be null";
+	private static final String MSG_NULL_LIST = "Column list must not be null";
+	private static final String MSG_NULL_LIST_ELEMENT = "Column list must not contain null columns";
+
+	/**
+	 * Creates a sequential stream of the numeric values of the given column.
+	 *
+	 * @param column
+	 * 		the column to read, must be {@link Column.Capability#NUMERIC_READABLE}
+	 * @return a stream of the column values
+	 * @throws NullPointerException
+	 * 		if the column is {@code null}
+	 * @throws UnsupportedOperationException
+	 * 		if the column is not numeric-readable
+	 */
+	public static DoubleStream doubleStream(Column column) {
+		Objects.requireNonNull(column, MSG_NULL_COLUMN);
+		if (!column.type().hasCapability(Column.Capability.NUMERIC_READABLE)) {
+			throw new UnsupportedOperationException("Column is not numeric-readable");
+		}
+		return StreamSupport.doubleStream(new NumericSpliterator(column, 0, column.size()), false);
+	}
+
+	/**
+	 * Creates a sequential stream of the category indices of the given categorical column.
+	 *
+	 * @param column
+	 * 		the column to read, must be of column category {@link Column.Category#CATEGORICAL}
+	 * @return a stream of the category indices
+	 * @throws NullPointerException
+	 * 		if the column is {@code null}
+	 * @throws UnsupportedOperationException
+	 * 		if the column is not categorical
+	 */
+	public static IntStream intStream(Column column) {
+		Objects.requireNonNull(column, MSG_NULL_COLUMN);
+		if (column.type().category() != Column.Category.CATEGORICAL) {
+			throw new UnsupportedOperationException("Column is not categorical");
+		}
+		return StreamSupport.intStream(new CategoricalSpliterator(column, 0, column.size()), false);
+	}
+
+	/**
+	 * Creates a sequential stream of the object values of the given column. The stream contains {@code null} for
+	 * missing values.
+	 *
+	 * @param column
+	 * 		the column to read, must be {@link Column.Capability#OBJECT_READABLE}
+	 * @param type
+	 * 		the type as which to read the column
+	 * @param <T>
+	 * 		the type of the stream elements
+	 * @return a stream of the column values
+	 * @throws NullPointerException
+	 * 		if the column or type is {@code null}
+	 * @throws UnsupportedOperationException
+	 * 		if the column is not object-readable
+	 * @throws IllegalArgumentException
+	 * 		if the type is not a super type of the column element type
+	 */
+	public static <T> Stream<T> objectStream(Column column, Class<T> type) {
+		Objects.requireNonNull(column, MSG_NULL_COLUMN);
+		Objects.requireNonNull(type, MSG_NULL_TYPE);
+		if (!column.type().hasCapability(Column.Capability.OBJECT_READABLE)) {
+			throw new UnsupportedOperationException("Column is not object-readable");
+		}
+		if (!type.isAssignableFrom(column.type().elementType())) {
+			throw new IllegalArgumentException("Element type is not super type of " + column.type().elementType());
+		}
+		return StreamSupport.stream(new ObjectSpliterator<>(column, 0, column.size()), false);
+	}
+
+	/**
+	 * Creates a sequential stream of the rows of the given table. All columns must be
+	 * {@link Column.Capability#NUMERIC_READABLE}.
+	 *
+	 * @param table
+	 * 		the table to read
+	 * @return a stream of the rows, the rows must not be used outside of the stream operations
+	 * @throws NullPointerException
+	 * 		if the table is {@code null}
+	 */
+	public static Stream<NumericRow> numericRows(Table table) {
+		Objects.requireNonNull(table, MSG_NULL_TABLE);
+		return numericRows(table.columnList());
+	}
+
+	/**
+	 * Creates a sequential stream of the rows of the given columns. All columns must be
+	 * {@link Column.Capability#NUMERIC_READABLE}.
+	 *
+	 * @param columns
+	 * 		the columns to read, must all have the same size
+	 * @return a stream of the rows, the rows must not be used outside of the stream operations
+	 * @throws NullPointerException
+	 * 		if the list or one of its columns is {@code null}
+	 */
+	public static Stream<NumericRow> numericRows(List<Column> columns) {
+		int height = height(columns);
+		return StreamSupport.stream(new RowSpliterator.Numeric(columns, 0, height), false);
+	}
+
+	/**
+	 * Creates a sequential stream of the rows of the given table.
+	 *
+	 * @param table
+	 * 		the table to read
+	 * @return a stream of the rows, the rows must not be used outside of the stream operations
+	 * @throws NullPointerException
+	 * 		if the table is {@code null}
+	 */
+	public static Stream<MixedRow> mixedRows(Table table) {
+		Objects.requireNonNull(table, MSG_NULL_TABLE);
+		return mixedRows(table.columnList());
+	}
+
+	/**
+	 * Creates a sequential stream of the rows of the given columns.
+	 *
+	 * @param columns
+	 * 		the columns to read, must all have the same size
+	 * @return a stream of the rows, the rows must not be used outside of the stream operations
+	 * @throws NullPointerException
+	 * 		if the list or one of its columns is {@code null}
+	 */
+	public static Stream<MixedRow> mixedRows(List<Column> columns) {
+		int height = height(columns);
+		return StreamSupport.stream(new RowSpliterator.Mixed(columns, 0, height), false);
+	}
+
+	/**
+	 * Checks the given column list and returns the number of rows.
+	 */
+	private static int height(List<Column> columns) {
+		Objects.requireNonNull(columns, MSG_NULL_LIST);
+		for (Column column : columns) {
+			Objects.requireNonNull(column, MSG_NULL_LIST_ELEMENT);
+		}
+		return columns.isEmpty() ? 0 : columns.get(0).size();
+	}
+
+	private Streams() {
+		// Suppress default constructor to prevent instantiation
+		throw new AssertionError();
+	}
+
+}
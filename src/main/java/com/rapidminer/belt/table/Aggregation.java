@@ -0,0 +1,275 @@
+/**
+ * This file is part of the RapidMiner Belt project.
+ * Copyright (C) 2017-2021 RapidMiner GmbH
+ *
+ * This program is free software: you can redistribute it and/or modify it under the terms of the GNU Affero General
+ * Public License as published by the Free Software Foundation, either version 3 of the License, or (at your option) any
+ * later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied
+ * warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU Affero General Public License along with this program. If not, see
+ * https://www.gnu.org/licenses/.
+ */
+
+package com.rapidminer.belt.table;
+
+import java.util.Objects;
+
+import com.rapidminer.belt.column.QuantileSketch;
+
+
+/**
+ * A per-group aggregation of a numeric column used by {@link GroupBy#aggregate(java.util.List,
+ * com.rapidminer.belt.execution.Context)}. Missing values are ignored by all aggregations but {@link #count(String)}.
+ *
+ * @author Michael Knopf
+ */
+public final class Aggregation {
+
+	/**
+	 * The supported aggregation functions.
+	 */
+	public enum Function {
+
+		/**
+		 * The number of rows of the group, independent of any column.
+		 */
+		ROW_COUNT,
+
+		/**
+		 * The number of non-missing values.
+		 */
+		COUNT,
+
+		/**
+		 * The sum of all non-missing values, {@code 0} for groups without values.
+		 */
+		SUM,
+
+		/**
+		 * The minimum value.
+		 */
+		MIN,
+
+		/**
+		 * The maximum value.
+		 */
+		MAX,
+
+		/**
+		 * The arithmetic mean.
+		 */
+		MEAN,
+
+		/**
+		 * The sample variance.
+		 */
+		VARIANCE,
+
+		/**
+		 * An approximate quantile computed via a {@link QuantileSketch} per group.
+		 */
+		QUANTILE
+	}
+
+	private final Function function;
+	private final String column;
+	private final String label;
+	private final double probability;
+
+	private Aggregation(Function function, String column, String label, double probability) {
+		this.function = function;
+		this.column = column;
+		this.label = Objects.requireNonNull(label, "Label must not be null");
+		this.probability = probability;
+	}
+
+	private static Aggregation of(Function function, String column, String label) {
+		Objects.requireNonNull(column, "Column label must not be null");
+		return new Aggregation(function, column, label, Double.NaN);
+	}
+
+	/**
+	 * Counts the rows per group. The result is an {@link com.rapidminer.belt.column.Column.TypeId#INTEGER_53_BIT}
+	 * column.
+	 *
+	 * @param label
+	 * 		the label of the result column
+	 * @return the aggregation
+	 * @throws NullPointerException
+	 * 		if the label is {@code null}
+	 */
+	public static Aggregation count(String label) {
+		return new Aggregation(Function.ROW_COUNT, null, label, Double.NaN);
+	}
+
+	/**
+	 * Counts the non-missing values of the given column per group. The result is an
+	 * {@link com.rapidminer.belt.column.Column.TypeId#INTEGER_53_BIT} column.
+	 *
+	 * @param column
+	 * 		the label of the numeric column to aggregate
+	 * @param label
+	 * 		the label of the result column
+	 * @return the aggregation
+	 * @throws NullPointerException
+	 * 		if any of the labels is {@code null}
+	 */
+	public static Aggregation count(String column, String label) {
+		return of(Function.COUNT, column, label);
+	}
+
+	/**
+	 * Sums up the values of the given column per group.
+	 *
+	 * @param column
+	 * 		the label of the numeric column to aggregate
+	 * @param label
+	 * 		the label of the result column
+	 * @return the aggregation
+	 * @throws NullPointerException
+	 * 		if any of the labels is {@code null}
+	 */
+	public static Aggregation sum(String column, String label) {
+		return of(Function.SUM, column, label);
+	}
+
+	/**
+	 * Computes the minimum of the given column per group. The result is of the same type as the input column.
+	 *
+	 * @param column
+	 * 		the label of the numeric column to aggregate
+	 * @param label
+	 * 		the label of the result column
+	 * @return the aggregation
+	 * @throws NullPointerException
+	 * 		if any of the labels is {@code null}
+	 */
+	public static Aggregation min(String column, String label) {
+		return of(Function.MIN, column, label);
+	}
+
+	/**
+	 * Computes the maximum of the given column per group. The result is of the same type as the input column.
+	 *
+	 * @param column
+	 * 		the label of the numeric column to aggregate
+	 * @param label
+	 * 		the label of the result column
+	 * @return the aggregation
+	 * @throws NullPointerException
+	 * 		if any of the labels is {@code null}
+	 */
+	public static Aggregation max(String column, String label) {
+		return of(Function.MAX, column, label);
+	}
+
+	/**
+	 * Computes the mean of the given column per group.
+	 *
+	 * @param column
+	 * 		the label of the numeric column to aggregate
+	 * @param label
+	 * 		the label of the result column
+	 * @return the aggregation
+	 * @throws NullPointerException
+	 * 		if any of the labels is {@code null}
+	 */
+	public static Aggregation mean(String column, String label) {
+		return of(Function.MEAN, column, label);
+	}
+
+	/**
+	 * Computes the sample variance of the given column per group. The partial results of different threads are
+	 * combined using the pairwise update formula of Chan et al. Groups with less than two values result in a missing
+	 * value.
+	 *
+	 * @param column
+	 * 		the label of the numeric column to aggregate
+	 * @param label
+	 * 		the label of the result column
+	 * @return the aggregation
+	 * @throws NullPointerException
+	 * 		if any of the labels is {@code null}
+	 */
+	public static Aggregation variance(String column, String label) {
+		return of(Function.VARIANCE, column, label);
+	}
+
+	/**
+	 * Computes an approximate quantile of the given column per group using a {@link QuantileSketch} with
+	 * {@link QuantileSketch#DEFAULT_K}.
+	 *
+	 * @param column
+	 * 		the label of the numeric column to aggregate
+	 * @param probability
+	 * 		the normalized rank of the quantile in {@code [0, 1]}
+	 * @param label
+	 * 		the label of the result column
+	 * @return the aggregation
+	 * @throws NullPointerException
+	 * 		if any of the labels is {@code null}
+	 * @throws IllegalArgumentException
+	 * 		if the probability is not in {@code [0, 1]}
+	 */
+	public static Aggregation quantile(String column, double probability, String label) {
+		Objects.requireNonNull(column, "Column label must not be null");
+		if (!(probability >= 0 && probability <= 1)) {
+			throw new IllegalArgumentException("Probability must be in [0, 1]");
+		}
+		return new Aggregation(Function.QUANTILE, column, label, probability);
+	}
+
+	/**
+	 * Computes the approximate median of the given column per group, see
+	 * {@link #quantile(String, double, String)}.
+	 *
+	 * @param column
+	 * 		the label of the numeric column to aggregate
+	 * @param label
+	 * 		the label of the result column
+	 * @return the aggregation
+	 * @throws NullPointerException
+	 * 		if any of the labels is {@code null}
+	 */
+	public static Aggregation median(String column, String label) {
+		return quantile(column, 0.5, label);
+	}
+
+	/**
+	 * @return the aggregation function
+	 */
+	public Function getFunction() {
+		return function;
+	}
+
+	/**
+	 * @return the label of the aggregated column, {@code null} for {@link Function#ROW_COUNT}
+	 */
+	public String getColumn() {
+		return column;
+	}
+
+	/**
+	 * @return the label of the result column
+	 */
+	public String getLabel() {
+		return label;
+	}
+
+	/**
+	 * @return the normalized rank for {@link Function#QUANTILE}, {@link Double#NaN} otherwise
+	 */
+	public double getProbability() {
+		return probability;
+	}
+
+	@Override
+	public String toString() {
+		return label + " = " + function + (column == null ? "" : "(" + column + ")");
+	}
+
+}
@@ -0,0 +1,418 @@
+/**
+ * This file is part of the RapidMiner Belt project.
+ * Copyright (C) 2017-2021 RapidMiner GmbH
+ *
+ * This program is free software: you can redistribute it and/or modify it under the terms of the GNU Affero General
+ * Public License as published by the Free Software Foundation, either version 3 of the License, or (at your option) any
+ * later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied
+ * warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU Affero General Public License along with this program. If not, see
+ * https://www.gnu.org/licenses/.
+ */
+
+package com.rapidminer.belt.table;
+
+import java.util.Arrays;
+
+import com.rapidminer.belt.column.Column;
+import com.rapidminer.belt.column.Columns.InternalColumns;
+import com.rapidminer.belt.column.QuantileSketch;
+
+
+/**
+ * The partial result of an {@link Aggregation} for all groups found by a single thread. The state is stored in
+ * primitive arrays indexed by group id. Values are added batch-wise together with their group ids so that the inner
+ * loops do not dispatch per row.
+ *
+ * @author Michael Knopf
+ */
+abstract class AggregationState {
+
+	/**
+	 * Creates a new empty state for the given aggregation.
+	 *
+	 * @param aggregation
+	 * 		the aggregation
+	 * @param type
+	 * 		the type of the aggregated column, {@code null} for {@link Aggregation.Function#ROW_COUNT}
+	 * @param capacity
+	 * 		the initial number of groups
+	 * @return the new state
+	 */
+	static AggregationState of(Aggregation aggregation, Column.TypeId type, int capacity) {
+		switch (aggregation.getFunction()) {
+			case ROW_COUNT:
+				return new Count(true, capacity);
+			case COUNT:
+				return new Count(false, capacity);
+			case SUM:
+				return new Sum(capacity);
+			case MIN:
+				return new Extremum(true, type, capacity);
+			case MAX:
+				return new Extremum(false, type, capacity);
+			case MEAN:
+				return new Moments(false, capacity);
+			case VARIANCE:
+				return new Moments(true, capacity);
+			case QUANTILE:
+				return new Quantile(aggregation.getProbability(), capacity);
+			default:
+				throw new AssertionError();
+		}
+	}
+
+	/**
+	 * Makes sure that the state can hold at least the given number of groups.
+	 */
+	abstract void ensureCapacity(int groups);
+
+	/**
+	 * Adds the given values to the groups with the given ids.
+	 *
+	 * @param groups
+	 * 		the group ids
+	 * @param values
+	 * 		the values, {@code null} for {@link Aggregation.Function#ROW_COUNT}
+	 * @param length
+	 * 		the number of values to add
+	 */
+	abstract void add(int[] groups, double[] values, int length);
+
+	/**
+	 * Merges the state of a group of another partial result into the state of a group of this result.
+	 *
+	 * @param group
+	 * 		the group id in this state
+	 * @param other
+	 * 		the other state of the same aggregation
+	 * @param otherGroup
+	 * 		the group id in the other state
+	 */
+	abstract void merge(int group, AggregationState other, int otherGroup);
+
+	/**
+	 * Creates the result column for the given groups.
+	 *
+	 * @param groups
+	 * 		the group ids in the order of the result rows
+	 * @return the result column
+	 */
+	abstract Column result(int[] groups);
+
+	/**
+	 * Grows the array to at least the given length by doubling its length.
+	 */
+	static double[] grow(double[] array, int length, double fill) {
+		if (array.length >= length) {
+			return array;
+		}
+		int oldLength = array.length;
+		double[] grown = Arrays.copyOf(array, Math.max(length, 2 * oldLength));
+		Arrays.fill(grown, oldLength, grown.length, fill);
+		return grown;
+	}
+
+	/**
+	 * Grows the array to at least the given length by doubling its length.
+	 */
+	static long[] grow(long[] array, int length) {
+		return array.length >= length ? array : Arrays.copyOf(array, Math.max(length, 2 * array.length));
+	}
+
+	private static Column numericColumn(Column.TypeId type, double[] values) {
+		return ColumnAccessor.get().newNumericColumn(type, values);
+	}
+
+	/**
+	 * Counts rows or non-missing values.
+	 */
+	private static final class Count extends AggregationState {
+
+		private final boolean rows;
+		private long[] counts;
+
+		private Count(boolean rows, int capacity) {
+			this.rows = rows;
+			this.counts = new long[capacity];
+		}
+
+		@Override
+		void ensureCapacity(int groups) {
+			counts = grow(counts, groups);
+		}
+
+		@Override
+		void add(int[] groups, double[] values, int length) {
+			if (rows) {
+				for (int i = 0; i < length; i++) {
+					counts[groups[i]]++;
+				}
+			} else {
+				for (int i = 0; i < length; i++) {
+					if (!Double.isNaN(values[i])) {
+						counts[groups[i]]++;
+					}
+				}
+			}
+		}
+
+		@Override
+		void merge(int group, AggregationState other, int otherGroup) {
+			counts[group] += ((Count) other).counts[otherGroup];
+		}
+
+		@Override
+		Column result(int[] groups) {
+			double[] values = new double[groups.length];
+			for (int i = 0; i < groups.length; i++) {
+				values[i] = counts[groups[i]];
+			}
+			return numericColumn(Column.TypeId.INTEGER_53_BIT, values);
+		}
+	}
+
+	/**
+	 * Sums up the non-missing values.
+	 */
+	private static final class Sum extends AggregationState {
+
+		private double[] sums;
+
+		private Sum(int capacity) {
+			this.sums = new double[capacity];
+		}
+
+		@Override
+		void ensureCapacity(int groups) {
+			sums = grow(sums, groups, 0);
+		}
+
+		@Override
+		void add(int[] groups, double[] values, int length) {
+			for (int i = 0; i < length; i++) {
+				double value = values[i];
+				if (!Double.isNaN(value)) {
+					sums[groups[i]] += value;
+				}
+			}
+		}
+
+		@Override
+		void merge(int group, AggregationState other, int otherGroup) {
+			sums[group] += ((Sum) other).sums[otherGroup];
+		}
+
+		@Override
+		Column result(int[] groups) {
+			double[] values = new double[groups.length];
+			for (int i = 0; i < groups.length; i++) {
+				values[i] = sums[groups[i]];
+			}
+			return numericColumn(Column.TypeId.REAL, values);
+		}
+	}
+
+	/**
+	 * Computes the minimum or maximum. Groups without values keep {@link Double#NaN}.
+	 */
+	private static final class Extremum extends AggregationState {
+
+		private final boolean min;
+		private final Column.TypeId type;
+		private double[] extrema;
+
+		private Extremum(boolean min, Column.TypeId type, int capacity) {
+			this.min = min;
+			this.type = type;
+			this.extrema = new double[capacity];
+			Arrays.fill(extrema, Double.NaN);
+		}
+
+		@Override
+		void ensureCapacity(int groups) {
+			extrema = grow(extrema, groups, Double.NaN);
+		}
+
+		@Override
+		void add(int[] groups, double[] values, int length) {
+			for (int i = 0; i < length; i++) {
+				update(groups[i], values[i]);
+			}
+		}
+
+		private void update(int group, double value) {
+			double current = extrema[group];
+			// NaN comparisons are false, so the first non-missing value always replaces the initial NaN
+			if (Double.isNaN(current) || (min ? value < current : value > current)) {
+				extrema[group] = value;
+			}
+		}
+
+		@Override
+		void merge(int group, AggregationState other, int otherGroup) {
+			double value = ((Extremum) other).extrema[otherGroup];
+			if (!Double.isNaN(value)) {
+				update(group, value);
+			}
+		}
+
+		@Override
+		Column result(int[] groups) {
+			double[] values = new double[groups.length];
+			for (int i = 0; i < groups.length; i++) {
+				values[i] = extrema[groups[i]];
+			}
+			return numericColumn(type, values);
+		}
+	}
+
+	/**
+	 * Computes the mean and optionally the sample variance. Uses Welford's update per value and the pairwise formula
+	 * by Chan et al. to merge partial results.
+	 */
+	private static final class Moments extends AggregationState {
+
+		private final boolean variance;
+		private long[] counts;
+		private double[] means;
+		private double[] squares;
+
+		private Moments(boolean variance, int capacity) {
+			this.variance = variance;
+			this.counts = new long[capacity];
+			this.means = new double[capacity];
+			this.squares = variance ? new double[capacity] : null;
+		}
+
+		@Override
+		void ensureCapacity(int groups) {
+			counts = grow(counts, groups);
+			means = grow(means, groups, 0);
+			if (variance) {
+				squares = grow(squares, groups, 0);
+			}
+		}
+
+		@Override
+		void add(int[] groups, double[] values, int length) {
+			if (variance) {
+				for (int i = 0; i < length; i++) {
+					double value = values[i];
+					if (!Double.isNaN(value)) {
+						int group = groups[i];
+						long count = ++counts[group];
+						double delta = value - means[group];
+						means[group] += delta / count;
+						squares[group] += delta * (value - means[group]);
+					}
+				}
+			} else {
+				for (int i = 0; i < length; i++) {
+					double value = values[i];
+					if (!Double.isNaN(value)) {
+						int group = groups[i];
+						means[group] += (value - means[group]) / ++counts[group];
+					}
+				}
+			}
+		}
+
+		@Override
+		void merge(int group, AggregationState other, int otherGroup) {
+			Moments moments = (Moments) other;
+			long otherCount = moments.counts[otherGroup];
+			if (otherCount == 0) {
+				return;
+			}
+			long count = counts[group];
+			long total = count + otherCount;
+			double delta = moments.means[otherGroup] - means[group];
+			means[group] += delta * otherCount / total;
+			if (variance) {
+				squares[group] += moments.squares[otherGroup] + delta * delta * count * otherCount / total;
+			}
+			counts[group] = total;
+		}
+
+		@Override
+		Column result(int[] groups) {
+			double[] values = new double[groups.length];
+			for (int i = 0; i < groups.length; i++) {
+				int group = groups[i];
+				long count = counts[group];
+				if (variance) {
+					values[i] = count > 1 ? squares[group] / (count - 1) : Double.NaN;
+				} else {
+					values[i] = count > 0 ? means[group] : Double.NaN;
+				}
+			}
+			return numericColumn(Column.TypeId.REAL, values);
+		}
+	}
+
+	/**
+	 * Computes an approximate quantile via one {@link QuantileSketch} per group. The sketches are created lazily on
+	 * the first non-missing value of a group.
+	 */
+	private static final class Quantile extends AggregationState {
+
+		private final double probability;
+		private final InternalColumns internal = ColumnAccessor.get();
+		private QuantileSketch[] sketches;
+
+		private Quantile(double probability, int capacity) {
+			this.probability = probability;
+			this.sketches = new QuantileSketch[capacity];
+		}
+
+		@Override
+		void ensureCapacity(int groups) {
+			if (sketches.length < groups) {
+				sketches = Arrays.copyOf(sketches, Math.max(groups, 2 * sketches.length));
+			}
+		}
+
+		@Override
+		void add(int[] groups, double[] values, int length) {
+			for (int i = 0; i < length; i++) {
+				double value = values[i];
+				if (!Double.isNaN(value)) {
+					internal.updateQuantileSketch(sketch(groups[i]), value);
+				}
+			}
+		}
+
+		private QuantileSketch sketch(int group) {
+			QuantileSketch sketch = sketches[group];
+			if (sketch == null) {
+				sketch = internal.newQuantileSketch(QuantileSketch.DEFAULT_K);
+				sketches[group] = sketch;
+			}
+			return sketch;
+		}
+
+		@Override
+		void merge(int group, AggregationState other, int otherGroup) {
+			QuantileSketch otherSketch = ((Quantile) other).sketches[otherGroup];
+			if (otherSketch != null) {
+				internal.mergeQuantileSketch(sketch(group), otherSketch);
+			}
+		}
+
+		@Override
+		Column result(int[] groups) {
+			double[] values = new double[groups.length];
+			for (int i = 0; i < groups.length; i++) {
+				QuantileSketch sketch = sketches[groups[i]];
+				values[i] = sketch == null ? Double.NaN : sketch.quantile(probability);
+			}
+			return numericColumn(Column.TypeId.REAL, values);
+		}
+	}
+
+}
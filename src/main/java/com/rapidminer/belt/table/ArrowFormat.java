@@ -0,0 +1,161 @@
+/**
+ * This file is part of the RapidMiner Belt project.
+ * Copyright (C) 2017-2021 RapidMiner GmbH
+ *
+ * This program is free software: you can redistribute it and/or modify it under the terms of the GNU Affero General
+ * Public License as published by the Free Software Foundation, either version 3 of the License, or (at your option) any
+ * later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied
+ * warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU Affero General Public License along with this program. If not, see
+ * https://www.gnu.org/licenses/.
+ */
+
+
+package com.rapidminer.belt.table;
+
+import java.nio.charset.StandardCharsets;
+
+
+/**
+ * Constants of the <a href="https://arrow.apache.org/docs/format/Columnar.html">Arrow IPC format</a> used by {@link
+ * ArrowWriter} and {@link ArrowReader}. The field ids and enum values correspond to the definitions in the Arrow
+ * {@code Schema.fbs}, {@code Message.fbs} and {@code File.fbs} files.
+ *
+ * @author Michael Knopf
+ */
+final class ArrowFormat {
+
+	/**
+	 * The magic bytes at the beginning and the end of Arrow files.
+	 */
+	static final byte[] MAGIC = "ARROW1".getBytes(StandardCharsets.US_ASCII);
+
+	/**
+	 * The length of the magic bytes plus padding at the beginning of Arrow files.
+	 */
+	static final int FILE_HEADER_SIZE = 8;
+
+	/**
+	 * Marks the start of an encapsulated message, followed by the metadata length.
+	 */
+	static final int CONTINUATION = -1;
+
+	/**
+	 * The alignment of messages and buffers.
+	 */
+	static final int ALIGNMENT = 8;
+
+	/**
+	 * The metadata version {@code V5}.
+	 */
+	static final short VERSION = 4;
+
+	// message header union
+	static final int HEADER_SCHEMA = 1;
+	static final int HEADER_DICTIONARY_BATCH = 2;
+	static final int HEADER_RECORD_BATCH = 3;
+
+	// type union
+	static final int TYPE_INT = 2;
+	static final int TYPE_FLOATING_POINT = 3;
+	static final int TYPE_UTF8 = 5;
+	static final int TYPE_TIME = 9;
+	static final int TYPE_TIMESTAMP = 10;
+	static final int TYPE_LARGE_UTF8 = 20;
+
+	// floating point precision
+	static final int PRECISION_SINGLE = 1;
+	static final int PRECISION_DOUBLE = 2;
+
+	// time units
+	static final int UNIT_SECOND = 0;
+	static final int UNIT_MILLISECOND = 1;
+	static final int UNIT_MICROSECOND = 2;
+	static final int UNIT_NANOSECOND = 3;
+
+	// Message
+	static final int MESSAGE_VERSION = 0;
+	static final int MESSAGE_HEADER_TYPE = 1;
+	static final int MESSAGE_HEADER = 2;
+	static final int MESSAGE_BODY_LENGTH = 3;
+
+	// Schema
+	static final int SCHEMA_ENDIANNESS = 0;
+	static final int SCHEMA_FIELDS = 1;
+
+	// Field
+	static final int FIELD_NAME = 0;
+	static final int FIELD_NULLABLE = 1;
+	static final int FIELD_TYPE_TYPE = 2;
+	static final int FIELD_TYPE = 3;
+	static final int FIELD_DICTIONARY = 4;
+	static final int FIELD_CHILDREN = 5;
+
+	// Int
+	static final int INT_BIT_WIDTH = 0;
+	static final int INT_IS_SIGNED = 1;
+
+	// FloatingPoint
+	static final int FLOATING_POINT_PRECISION = 0;
+
+	// Time
+	static final int TIME_UNIT = 0;
+	static final int TIME_BIT_WIDTH = 1;
+
+	// Timestamp
+	static final int TIMESTAMP_UNIT = 0;
+	static final int TIMESTAMP_TIMEZONE = 1;
+
+	// DictionaryEncoding
+	static final int DICTIONARY_ENCODING_ID = 0;
+	static final int DICTIONARY_ENCODING_INDEX_TYPE = 1;
+
+	// RecordBatch
+	static final int RECORD_BATCH_LENGTH = 0;
+	static final int RECORD_BATCH_NODES = 1;
+	static final int RECORD_BATCH_BUFFERS = 2;
+	static final int RECORD_BATCH_COMPRESSION = 3;
+
+	// DictionaryBatch
+	static final int DICTIONARY_BATCH_ID = 0;
+	static final int DICTIONARY_BATCH_DATA = 1;
+	static final int DICTIONARY_BATCH_IS_DELTA = 2;
+
+	// Footer
+	static final int FOOTER_VERSION = 0;
+	static final int FOOTER_SCHEMA = 1;
+	static final int FOOTER_DICTIONARIES = 2;
+	static final int FOOTER_RECORD_BATCHES = 3;
+
+	/**
+	 * The size of the {@code FieldNode} and {@code Buffer} structs consisting of two longs each.
+	 */
+	static final int TWO_LONG_STRUCT_SIZE = 16;
+
+	/**
+	 * The size of the {@code Block} struct: a long offset, an int metadata length (padded to eight bytes) and a long
+	 * body length.
+	 */
+	static final int BLOCK_SIZE = 24;
+
+	/**
+	 * Returns the given length rounded up to the next multiple of {@link #ALIGNMENT}.
+	 *
+	 * @param length
+	 * 		the length to pad
+	 * @return the padded length
+	 */
+	static long pad(long length) {
+		return (length + ALIGNMENT - 1) / ALIGNMENT * ALIGNMENT;
+	}
+
+	private ArrowFormat() {
+		// Suppress default constructor to prevent instantiation
+		throw new AssertionError();
+	}
+
+}
@@ -0,0 +1,918 @@
+/**
+ * This file is part of the RapidMiner Belt project.
+ * Copyright (C) 2017-2021 RapidMiner GmbH
+ *
+ * This program is free software: you can redistribute it and/or modify it under the terms of the GNU Affero General
+ * Public License as published by the Free Software Foundation, either version 3 of the License, or (at your option) any
+ * later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied
+ * warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU Affero General Public License along with this program. If not, see
+ * https://www.gnu.org/licenses/.
+ */
+
+
+package com.rapidminer.belt.table;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+import com.rapidminer.belt.column.Column;
+import com.rapidminer.belt.column.Column.TypeId;
+import com.rapidminer.belt.column.ColumnType;
+import com.rapidminer.belt.column.DateTimeColumn;
+import com.rapidminer.belt.column.TimeColumn;
+import com.rapidminer.belt.execution.Context;
+import com.rapidminer.belt.execution.ExecutionUtils;
+import com.rapidminer.belt.table.FlatBuffers.TableView;
+
+
+/**
+ * Reads a {@link Table} from the <a href="https://arrow.apache.org/docs/format/Columnar.html">Arrow IPC</a> stream or
+ * file format, e.g., as written by {@code pyarrow} or {@link ArrowWriter}.
+ *
+ * <p>The Arrow types are mapped to columns as follows:
+ * <ul>
+ *     <li>32 and 64 bit floating point: {@link TypeId#REAL},</li>
+ *     <li>signed and unsigned integers: {@link TypeId#INTEGER_53_BIT},</li>
+ *     <li>time of day: {@link TypeId#TIME},</li>
+ *     <li>timestamps: {@link TypeId#DATE_TIME}, time zones are ignored since the values are stored relative to UTC,
+ *     </li>
+ *     <li>dictionary-encoded (large) UTF-8 strings: {@link TypeId#NOMINAL},</li>
+ *     <li>(large) UTF-8 strings: {@link TypeId#TEXT}.</li>
+ * </ul>
+ * Null values are read as missing values. Other types, nested types and compressed record batches are not supported.
+ *
+ * <p>All record batches are read first, then the batches are decoded in parallel into the final columns. When reading
+ * files, the message bodies are memory-mapped, and buffers whose layout matches the column storage, e.g., 64 bit
+ * floating point values or nanosecond times, are bulk-copied without per-value conversion.
+ *
+ * @author Michael Knopf
+ * @see ArrowWriter
+ */
+public final class ArrowReader {
+
+	/**
+	 * Reads a table in the Arrow IPC stream format from the given channel. The channel is not closed.
+	 *
+	 * @param channel
+	 * 		the channel to read from
+	 * @param context
+	 * 		the execution context to use
+	 * @return the table
+	 * @throws NullPointerException
+	 * 		if any of the arguments is {@code null}
+	 * @throws IllegalArgumentException
+	 * 		if the data is malformed or contains unsupported types
+	 * @throws UncheckedIOException
+	 * 		if reading from the channel fails
+	 */
+	public Table readStream(ReadableByteChannel channel, Context context) {
+		Objects.requireNonNull(channel, "Channel must not be null");
+		Objects.requireNonNull(context, "Context must not be null");
+		try {
+			return new Import(channel, null, 0, Long.MAX_VALUE, context).read();
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	/**
+	 * Reads a table from the given file in the Arrow IPC file format or, if the file does not start with the Arrow
+	 * magic bytes, in the stream format.
+	 *
+	 * @param file
+	 * 		the file to read
+	 * @param context
+	 * 		the execution context to use
+	 * @return the table
+	 * @throws NullPointerException
+	 * 		if any of the arguments is {@code null}
+	 * @throws IllegalArgumentException
+	 * 		if the data is malformed or contains unsupported types
+	 * @throws UncheckedIOException
+	 * 		if reading the file fails
+	 */
+	public Table readFile(Path file, Context context) {
+		Objects.requireNonNull(file, "File must not be null");
+		Objects.requireNonNull(context, "Context must not be null");
+		try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+			long size = channel.size();
+			long start = 0;
+			long end = size;
+			int magicLength = ArrowFormat.MAGIC.length;
+			if (size >= ArrowFormat.FILE_HEADER_SIZE + Integer.BYTES + magicLength &&
+					Arrays.equals(readBytes(channel, 0, magicLength), ArrowFormat.MAGIC)) {
+				if (!Arrays.equals(readBytes(channel, size - magicLength, magicLength), ArrowFormat.MAGIC)) {
+					throw new IllegalArgumentException("Arrow file is truncated");
+				}
+				ByteBuffer footerLength = ByteBuffer.wrap(readBytes(channel, size - magicLength - Integer.BYTES,
+						Integer.BYTES)).order(ByteOrder.LITTLE_ENDIAN);
+				start = ArrowFormat.FILE_HEADER_SIZE;
+				end = size - magicLength - Integer.BYTES - footerLength.getInt(0);
+			}
+			return new Import(channel, channel, start, end, context).read();
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	private static byte[] readBytes(FileChannel channel, long position, int length) throws IOException {
+		ByteBuffer buffer = ByteBuffer.allocate(length);
+		while (buffer.hasRemaining()) {
+			if (channel.read(buffer, position + buffer.position()) < 0) {
+				throw new IllegalArgumentException("Unexpected end of Arrow data");
+			}
+		}
+		return buffer.array();
+	}
+
+	/**
+	 * The kinds of supported Arrow fields.
+	 */
+	private enum Kind {
+		REAL, INTEGER, TIME, TIMESTAMP, TEXT, NOMINAL
+	}
+
+	/**
+	 * The decoded schema of an Arrow field.
+	 */
+	private static final class Field {
+
+		private final String name;
+		private Kind kind;
+		private int bitWidth;
+		private boolean signed;
+		private int unit;
+		private boolean largeOffsets;
+		private long dictionaryId;
+
+		private Field(String name) {
+			this.name = name;
+		}
+
+		/**
+		 * @return the number of buffers of this field in a record batch
+		 */
+		private int buffers() {
+			return kind == Kind.TEXT ? 3 : 2;
+		}
+
+		/**
+		 * @return the number of bytes per value in the values buffer or {@code 0} for variable-length strings
+		 */
+		private int valueBytes() {
+			return kind == Kind.TEXT ? 0 : bitWidth / Byte.SIZE;
+		}
+
+	}
+
+	/**
+	 * The buffers of one field in a record batch.
+	 */
+	private static final class FieldData {
+
+		private long nullCount;
+		private ByteBuffer validity;
+		private ByteBuffer offsets;
+		private ByteBuffer values;
+
+		/**
+		 * For dictionary-encoded fields, the mapping from Arrow dictionary indices to category indices.
+		 */
+		private int[] categoryIndices;
+
+		/**
+		 * For dictionary-encoded fields, the dictionary valid for this batch.
+		 */
+		private List<String> dictionary;
+
+		private boolean isValid(int index) {
+			return validity == null || (validity.get(index >>> 3) & (1 << (index & 7))) != 0;
+		}
+
+	}
+
+	/**
+	 * A record batch.
+	 */
+	private static final class Batch {
+
+		private final int rows;
+		private final FieldData[] fields;
+		private int rowOffset;
+
+		private Batch(int rows, FieldData[] fields) {
+			this.rows = rows;
+			this.fields = fields;
+		}
+
+	}
+
+	/**
+	 * A single read of a table.
+	 */
+	private static final class Import {
+
+		private final ReadableByteChannel channel;
+		private final FileChannel file;
+		private final long end;
+		private final Context context;
+		private long position;
+		private ByteBuffer body;
+		private Field[] fields;
+		private final Map<Long, List<String>> dictionaries = new HashMap<>();
+		private final List<Batch> batches = new ArrayList<>();
+
+		/**
+		 * @param file
+		 * 		the channel as file channel for positional reads and memory mapping or {@code null}
+		 * @param start
+		 * 		the position of the first message
+		 * @param end
+		 * 		the position after the last message
+		 */
+		private Import(ReadableByteChannel channel, FileChannel file, long start, long end, Context context) {
+			this.channel = channel;
+			this.file = file;
+			this.position = start;
+			this.end = end;
+			this.context = context;
+		}
+
+		private Table read() throws IOException {
+			try {
+				TableView schema = nextMessage(ArrowFormat.HEADER_SCHEMA);
+				if (schema == null) {
+					throw new IllegalArgumentException("Arrow data does not contain a schema");
+				}
+				readSchema(schema);
+				while (readMessage()) {
+					// read all batches
+				}
+				return decode();
+			} catch (IndexOutOfBoundsException | BufferUnderflowException e) {
+				throw new IllegalArgumentException("Malformed Arrow data", e);
+			}
+		}
+
+		/**
+		 * Reads the next message and returns its header if the message is of the expected type.
+		 */
+		private TableView nextMessage(int expectedType) throws IOException {
+			TableView message = readHeader();
+			if (message == null) {
+				return null;
+			}
+			int type = message.getByte(ArrowFormat.MESSAGE_HEADER_TYPE, 0);
+			if (expectedType >= 0 && type != expectedType) {
+				throw new IllegalArgumentException("Unexpected Arrow message of type " + type);
+			}
+			return message;
+		}
+
+		/**
+		 * Reads the metadata and the body of the next message, returns {@code null} at the end of the stream.
+		 */
+		private TableView readHeader() throws IOException {
+			if (position >= end) {
+				return null;
+			}
+			ByteBuffer prefix = read(Integer.BYTES, true);
+			if (prefix == null) {
+				return null;
+			}
+			int length = prefix.getInt(0);
+			if (length == ArrowFormat.CONTINUATION) {
+				length = read(Integer.BYTES, false).getInt(0);
+			}
+			if (length == 0) {
+				return null;
+			}
+			if (length < 0) {
+				throw new IllegalArgumentException("Malformed Arrow message");
+			}
+			TableView message = TableView.root(read(length, false));
+			long bodyLength = message.getLong(ArrowFormat.MESSAGE_BODY_LENGTH, 0);
+			if (bodyLength < 0 || bodyLength > Integer.MAX_VALUE) {
+				throw new IllegalArgumentException("Unsupported Arrow message body length " + bodyLength);
+			}
+			if (file != null && bodyLength > 0) {
+				body = file.map(FileChannel.MapMode.READ_ONLY, position, bodyLength).order(ByteOrder.LITTLE_ENDIAN);
+				position += bodyLength;
+			} else {
+				body = read((int) bodyLength, false);
+			}
+			if (message.getTable(ArrowFormat.MESSAGE_HEADER) == null) {
+				throw new IllegalArgumentException("Malformed Arrow message");
+			}
+			return message;
+		}
+
+		/**
+		 * Reads the given number of bytes into a new heap buffer.
+		 */
+		private ByteBuffer read(int length, boolean endAllowed) throws IOException {
+			ByteBuffer buffer = ByteBuffer.allocate(length).order(ByteOrder.LITTLE_ENDIAN);
+			while (buffer.hasRemaining()) {
+				int read = file != null ? file.read(buffer, position + buffer.position()) : channel.read(buffer);
+				if (read < 0) {
+					if (endAllowed && buffer.position() == 0) {
+						return null;
+					}
+					throw new IllegalArgumentException("Unexpected end of Arrow data");
+				}
+			}
+			position += length;
+			buffer.flip();
+			return buffer;
+		}
+
+		private void readSchema(TableView message) {
+			TableView schema = message.getTable(ArrowFormat.MESSAGE_HEADER);
+			if (schema.getShort(ArrowFormat.SCHEMA_ENDIANNESS, 0) != 0) {
+				throw new IllegalArgumentException("Big-endian Arrow data is not supported");
+			}
+			fields = new Field[schema.getVectorLength(ArrowFormat.SCHEMA_FIELDS)];
+			for (int i = 0; i < fields.length; i++) {
+				fields[i] = readField(schema.getTable(ArrowFormat.SCHEMA_FIELDS, i), i);
+			}
+		}
+
+		private static Field readField(TableView view, int index) {
+			String name = view.getString(ArrowFormat.FIELD_NAME);
+			Field field = new Field(name == null || name.isEmpty() ? "column" + (index + 1) : name);
+			if (view.getVectorLength(ArrowFormat.FIELD_CHILDREN) > 0) {
+				throw unsupported(field);
+			}
+			int typeId = view.getByte(ArrowFormat.FIELD_TYPE_TYPE, 0);
+			TableView type = view.getTable(ArrowFormat.FIELD_TYPE);
+			TableView dictionary = view.getTable(ArrowFormat.FIELD_DICTIONARY);
+			if (dictionary != null) {
+				if (typeId != ArrowFormat.TYPE_UTF8 && typeId != ArrowFormat.TYPE_LARGE_UTF8) {
+					throw unsupported(field);
+				}
+				field.kind = Kind.NOMINAL;
+				field.largeOffsets = typeId == ArrowFormat.TYPE_LARGE_UTF8;
+				field.dictionaryId = dictionary.getLong(ArrowFormat.DICTIONARY_ENCODING_ID, 0);
+				TableView indexType = dictionary.getTable(ArrowFormat.DICTIONARY_ENCODING_INDEX_TYPE);
+				field.bitWidth = indexType == null ? 32 : indexType.getInt(ArrowFormat.INT_BIT_WIDTH, 0);
+				field.signed = indexType == null || indexType.getBoolean(ArrowFormat.INT_IS_SIGNED, false);
+				requireIntegerWidth(field);
+				return field;
+			}
+			switch (typeId) {
+				case ArrowFormat.TYPE_INT:
+					field.kind = Kind.INTEGER;
+					field.bitWidth = type.getInt(ArrowFormat.INT_BIT_WIDTH, 0);
+					field.signed = type.getBoolean(ArrowFormat.INT_IS_SIGNED, false);
+					requireIntegerWidth(field);
+					break;
+				case ArrowFormat.TYPE_FLOATING_POINT:
+					int precision = type.getShort(ArrowFormat.FLOATING_POINT_PRECISION, 0);
+					if (precision != ArrowFormat.PRECISION_SINGLE && precision != ArrowFormat.PRECISION_DOUBLE) {
+						throw unsupported(field);
+					}
+					field.kind = Kind.REAL;
+					field.bitWidth = precision == ArrowFormat.PRECISION_SINGLE ? 32 : 64;
+					break;
+				case ArrowFormat.TYPE_TIME:
+					field.kind = Kind.TIME;
+					field.unit = type.getShort(ArrowFormat.TIME_UNIT, ArrowFormat.UNIT_MILLISECOND);
+					field.bitWidth = type.getInt(ArrowFormat.TIME_BIT_WIDTH, 32);
+					if (field.bitWidth != (field.unit <= ArrowFormat.UNIT_MILLISECOND ? 32 : 64)) {
+						throw unsupported(field);
+					}
+					break;
+				case ArrowFormat.TYPE_TIMESTAMP:
+					field.kind = Kind.TIMESTAMP;
+					field.unit = type.getShort(ArrowFormat.TIMESTAMP_UNIT, ArrowFormat.UNIT_SECOND);
+					field.bitWidth = 64;
+					break;
+				case ArrowFormat.TYPE_UTF8:
+				case ArrowFormat.TYPE_LARGE_UTF8:
+					field.kind = Kind.TEXT;
+					field.largeOffsets = typeId == ArrowFormat.TYPE_LARGE_UTF8;
+					break;
+				default:
+					throw unsupported(field);
+			}
+			if (field.unit < ArrowFormat.UNIT_SECOND || field.unit > ArrowFormat.UNIT_NANOSECOND) {
+				throw unsupported(field);
+			}
+			return field;
+		}
+
+		private static void requireIntegerWidth(Field field) {
+			if (field.bitWidth != 8 && field.bitWidth != 16 && field.bitWidth != 32 && field.bitWidth != 64) {
+				throw unsupported(field);
+			}
+		}
+
+		private static IllegalArgumentException unsupported(Field field) {
+			return new IllegalArgumentException("Unsupported Arrow type of field " + field.name);
+		}
+
+		/**
+		 * Reads the next dictionary or record batch, returns {@code false} at the end of the stream.
+		 */
+		private boolean readMessage() throws IOException {
+			TableView message = nextMessage(-1);
+			if (message == null) {
+				return false;
+			}
+			int type = message.getByte(ArrowFormat.MESSAGE_HEADER_TYPE, 0);
+			TableView header = message.getTable(ArrowFormat.MESSAGE_HEADER);
+			if (type == ArrowFormat.HEADER_DICTIONARY_BATCH) {
+				readDictionary(header);
+			} else if (type == ArrowFormat.HEADER_RECORD_BATCH) {
+				readBatch(header);
+			} else {
+				throw new IllegalArgumentException("Unexpected Arrow message of type " + type);
+			}
+			return true;
+		}
+
+		private void readDictionary(TableView header) {
+			long id = header.getLong(ArrowFormat.DICTIONARY_BATCH_ID, 0);
+			Field field = null;
+			for (Field candidate : fields) {
+				if (candidate.kind == Kind.NOMINAL && candidate.dictionaryId == id) {
+					field = candidate;
+				}
+			}
+			if (field == null) {
+				throw new IllegalArgumentException("Unknown Arrow dictionary id " + id);
+			}
+			TableView batch = header.getTable(ArrowFormat.DICTIONARY_BATCH_DATA);
+			int length = batchLength(batch);
+			FieldData data = fieldData(batch, 0, 3, 0);
+			requireLengths(data, length, 0, field.largeOffsets);
+			Object[] values = new Object[length];
+			decodeStrings(data, field.largeOffsets, length, values, 0);
+			List<String> dictionary = new ArrayList<>();
+			if (header.getBoolean(ArrowFormat.DICTIONARY_BATCH_IS_DELTA, false) && dictionaries.containsKey(id)) {
+				dictionary.addAll(dictionaries.get(id));
+			}
+			for (Object value : values) {
+				dictionary.add((String) value);
+			}
+			dictionaries.put(id, dictionary);
+		}
+
+		private void readBatch(TableView header) {
+			int rows = batchLength(header);
+			if (header.getVectorLength(ArrowFormat.RECORD_BATCH_NODES) != fields.length) {
+				throw new IllegalArgumentException("Arrow record batch does not match the schema");
+			}
+			FieldData[] data = new FieldData[fields.length];
+			int buffer = 0;
+			for (int i = 0; i < fields.length; i++) {
+				Field field = fields[i];
+				data[i] = fieldData(header, i, field.buffers(), buffer);
+				buffer += field.buffers();
+				if (header.getStructLong(ArrowFormat.RECORD_BATCH_NODES, i, ArrowFormat.TWO_LONG_STRUCT_SIZE, 0)
+						!= rows) {
+					throw new IllegalArgumentException("Arrow record batch does not match the schema");
+				}
+				requireLengths(data[i], rows, field.valueBytes(), field.largeOffsets);
+				if (field.kind == Kind.NOMINAL) {
+					data[i].dictionary = dictionaries.get(field.dictionaryId);
+					if (data[i].dictionary == null) {
+						throw new IllegalArgumentException("Missing Arrow dictionary " + field.dictionaryId);
+					}
+				}
+			}
+			batches.add(new Batch(rows, data));
+		}
+
+		private static int batchLength(TableView batch) {
+			if (batch.has(ArrowFormat.RECORD_BATCH_COMPRESSION)) {
+				throw new IllegalArgumentException("Compressed Arrow record batches are not supported");
+			}
+			long length = batch.getLong(ArrowFormat.RECORD_BATCH_LENGTH, 0);
+			if (length < 0 || length > Integer.MAX_VALUE) {
+				throw new IllegalArgumentException("Unsupported Arrow record batch length " + length);
+			}
+			return (int) length;
+		}
+
+		/**
+		 * Slices the buffers of the node with the given index out of the message body.
+		 */
+		private FieldData fieldData(TableView batch, int node, int bufferCount, int firstBuffer) {
+			if (batch.getVectorLength(ArrowFormat.RECORD_BATCH_BUFFERS) < firstBuffer + bufferCount) {
+				throw new IllegalArgumentException("Arrow record batch does not match the schema");
+			}
+			FieldData data = new FieldData();
+			data.nullCount = batch.getStructLong(ArrowFormat.RECORD_BATCH_NODES, node,
+					ArrowFormat.TWO_LONG_STRUCT_SIZE, Long.BYTES);
+			ByteBuffer[] buffers = new ByteBuffer[bufferCount];
+			for (int i = 0; i < bufferCount; i++) {
+				long offset = batch.getStructLong(ArrowFormat.RECORD_BATCH_BUFFERS, firstBuffer + i,
+						ArrowFormat.TWO_LONG_STRUCT_SIZE, 0);
+				long length = batch.getStructLong(ArrowFormat.RECORD_BATCH_BUFFERS, firstBuffer + i,
+						ArrowFormat.TWO_LONG_STRUCT_SIZE, Long.BYTES);
+				if (offset < 0 || length < 0 || offset + length > body.capacity()) {
+					throw new IllegalArgumentException("Arrow buffer exceeds the message body");
+				}
+				ByteBuffer slice = body.duplicate();
+				slice.position((int) offset).limit((int) (offset + length));
+				buffers[i] = slice.slice().order(ByteOrder.LITTLE_ENDIAN);
+			}
+			data.validity = data.nullCount == 0 ? null : buffers[0];
+			if (bufferCount == 3) {
+				data.offsets = buffers[1];
+				data.values = buffers[2];
+			} else {
+				data.values = buffers[1];
+			}
+			return data;
+		}
+
+		/**
+		 * Checks that the buffers are large enough for the given number of values.
+		 *
+		 * @param valueBytes
+		 * 		the number of bytes per value or {@code 0} if the values are strings addressed by the offsets
+		 * @throws IllegalArgumentException
+		 * 		if a buffer is too short
+		 */
+		private static void requireLengths(FieldData data, int length, int valueBytes, boolean largeOffsets) {
+			if (data.validity != null && data.validity.capacity() < (length + 7L) / Byte.SIZE) {
+				throw new IllegalArgumentException("Malformed Arrow data");
+			}
+			if (data.offsets != null && length > 0 &&
+					data.offsets.capacity() < (length + 1L) * (largeOffsets ? Long.BYTES : Integer.BYTES)) {
+				throw new IllegalArgumentException("Malformed Arrow data");
+			}
+			if (data.values.capacity() < (long) length * valueBytes) {
+				throw new IllegalArgumentException("Malformed Arrow data");
+			}
+		}
+
+		/**
+		 * Decodes all batches in parallel into the final columns.
+		 */
+		private Table decode() {
+			long height = 0;
+			for (Batch batch : batches) {
+				batch.rowOffset = (int) height;
+				height += batch.rows;
+				if (height > Integer.MAX_VALUE) {
+					throw new IllegalArgumentException("Arrow data contains more than " + Integer.MAX_VALUE +
+							" rows");
+				}
+			}
+			ColumnDecoder[] decoders = new ColumnDecoder[fields.length];
+			for (int i = 0; i < fields.length; i++) {
+				decoders[i] = ColumnDecoder.of(fields[i], (int) height);
+				if (decoders[i] instanceof NominalDecoder) {
+					((NominalDecoder) decoders[i]).prepare(batches, i);
+				}
+			}
+			int width = fields.length;
+			ExecutionUtils.parallel(0, batches.size() * width, task -> {
+				Batch batch = batches.get(task / width);
+				decoders[task % width].decode(batch.fields[task % width], batch.rowOffset, batch.rows);
+			}, context);
+			Column[] columns = new Column[width];
+			String[] labels = new String[width];
+			for (int i = 0; i < width; i++) {
+				columns[i] = decoders[i].toColumn();
+				labels[i] = fields[i].name;
+			}
+			return new Table(columns, labels);
+		}
+
+	}
+
+	/**
+	 * Decodes the strings of a UTF-8 vector into the given array starting at the given offset.
+	 */
+	private static void decodeStrings(FieldData data, boolean largeOffsets, int length, Object[] target,
+									  int offset) {
+		byte[] bytes = new byte[64];
+		ByteBuffer values = data.values.duplicate();
+		for (int i = 0; i < length; i++) {
+			if (!data.isValid(i)) {
+				continue;
+			}
+			long start = largeOffsets ? data.offsets.getLong(i * Long.BYTES) : data.offsets.getInt(i * Integer.BYTES);
+			long end = largeOffsets ? data.offsets.getLong((i + 1) * Long.BYTES) :
+					data.offsets.getInt((i + 1) * Integer.BYTES);
+			if (start < 0 || end < start || end > values.capacity()) {
+				throw new IllegalArgumentException("Malformed Arrow data");
+			}
+			int valueLength = (int) (end - start);
+			if (bytes.length < valueLength) {
+				bytes = new byte[Math.max(valueLength, 2 * bytes.length)];
+			}
+			values.position((int) start);
+			values.get(bytes, 0, valueLength);
+			target[offset + i] = new String(bytes, 0, valueLength, StandardCharsets.UTF_8);
+		}
+	}
+
+	/**
+	 * Decodes the batches of one field into the final column. Different batches can be decoded concurrently.
+	 */
+	private abstract static class ColumnDecoder {
+
+		static ColumnDecoder of(Field field, int height) {
+			switch (field.kind) {
+				case REAL:
+				case INTEGER:
+					return new NumericDecoder(field, height);
+				case TIME:
+					return new TimeDecoder(field, height);
+				case TIMESTAMP:
+					return new DateTimeDecoder(field, height);
+				case TEXT:
+					return new TextDecoder(field, height);
+				case NOMINAL:
+				default:
+					return new NominalDecoder(field, height);
+			}
+		}
+
+		abstract void decode(FieldData data, int offset, int length);
+
+		abstract Column toColumn();
+
+	}
+
+	private static final class NumericDecoder extends ColumnDecoder {
+
+		private final Field field;
+		private final double[] values;
+
+		private NumericDecoder(Field field, int height) {
+			this.field = field;
+			this.values = new double[height];
+		}
+
+		@Override
+		void decode(FieldData data, int offset, int length) {
+			ByteBuffer buffer = data.values;
+			if (field.kind == Kind.REAL && field.bitWidth == 64) {
+				buffer.duplicate().order(ByteOrder.LITTLE_ENDIAN).asDoubleBuffer().get(values, offset, length);
+			} else {
+				for (int i = 0; i < length; i++) {
+					values[offset + i] = read(buffer, i);
+				}
+			}
+			if (data.validity != null) {
+				for (int i = 0; i < length; i++) {
+					if (!data.isValid(i)) {
+						values[offset + i] = Double.NaN;
+					}
+				}
+			}
+		}
+
+		private double read(ByteBuffer buffer, int index) {
+			if (field.kind == Kind.REAL) {
+				return buffer.getFloat(index * Float.BYTES);
+			}
+			switch (field.bitWidth) {
+				case 8:
+					byte byteValue = buffer.get(index);
+					return field.signed ? byteValue : Byte.toUnsignedInt(byteValue);
+				case 16:
+					short shortValue = buffer.getShort(index * Short.BYTES);
+					return field.signed ? shortValue : Short.toUnsignedInt(shortValue);
+				case 32:
+					int intValue = buffer.getInt(index * Integer.BYTES);
+					return field.signed ? intValue : Integer.toUnsignedLong(intValue);
+				default:
+					long longValue = buffer.getLong(index * Long.BYTES);
+					return field.signed || longValue >= 0 ? longValue :
+							Double.parseDouble(Long.toUnsignedString(longValue));
+			}
+		}
+
+		@Override
+		Column toColumn() {
+			return ColumnAccessor.get().newNumericColumn(field.kind == Kind.REAL ? TypeId.REAL :
+					TypeId.INTEGER_53_BIT, values);
+		}
+
+	}
+
+	/**
+	 * Returns the number of the given time units per second.
+	 */
+	private static long unitsPerSecond(int unit) {
+		switch (unit) {
+			case ArrowFormat.UNIT_SECOND:
+				return 1;
+			case ArrowFormat.UNIT_MILLISECOND:
+				return 1_000;
+			case ArrowFormat.UNIT_MICROSECOND:
+				return 1_000_000;
+			default:
+				return 1_000_000_000;
+		}
+	}
+
+	private static final class TimeDecoder extends ColumnDecoder {
+
+		private final Field field;
+		private final long[] values;
+		private final long nanosPerUnit;
+
+		private TimeDecoder(Field field, int height) {
+			this.field = field;
+			this.values = new long[height];
+			this.nanosPerUnit = unitsPerSecond(ArrowFormat.UNIT_NANOSECOND) / unitsPerSecond(field.unit);
+		}
+
+		@Override
+		void decode(FieldData data, int offset, int length) {
+			ByteBuffer buffer = data.values;
+			if (field.bitWidth == 64 && nanosPerUnit == 1) {
+				buffer.duplicate().order(ByteOrder.LITTLE_ENDIAN).asLongBuffer().get(values, offset, length);
+			} else {
+				for (int i = 0; i < length; i++) {
+					long value = field.bitWidth == 32 ? buffer.getInt(i * Integer.BYTES) :
+							buffer.getLong(i * Long.BYTES);
+					values[offset + i] = value * nanosPerUnit;
+				}
+			}
+			if (data.validity != null) {
+				for (int i = 0; i < length; i++) {
+					if (!data.isValid(i)) {
+						values[offset + i] = TimeColumn.MISSING_VALUE;
+					}
+				}
+			}
+		}
+
+		@Override
+		Column toColumn() {
+			return ColumnAccessor.get().newTimeColumn(values);
+		}
+
+	}
+
+	private static final class DateTimeDecoder extends ColumnDecoder {
+
+		private final long[] seconds;
+		private final int[] nanos;
+		private final long unitsPerSecond;
+
+		private DateTimeDecoder(Field field, int height) {
+			this.seconds = new long[height];
+			this.unitsPerSecond = unitsPerSecond(field.unit);
+			this.nanos = unitsPerSecond == 1 ? null : new int[height];
+		}
+
+		@Override
+		void decode(FieldData data, int offset, int length) {
+			ByteBuffer buffer = data.values;
+			if (nanos == null) {
+				buffer.duplicate().order(ByteOrder.LITTLE_ENDIAN).asLongBuffer().get(seconds, offset, length);
+			} else {
+				long nanosPerUnit = 1_000_000_000 / unitsPerSecond;
+				for (int i = 0; i < length; i++) {
+					long value = buffer.getLong(i * Long.BYTES);
+					seconds[offset + i] = Math.floorDiv(value, unitsPerSecond);
+					nanos[offset + i] = (int) (Math.floorMod(value, unitsPerSecond) * nanosPerUnit);
+				}
+			}
+			if (data.validity != null) {
+				for (int i = 0; i < length; i++) {
+					if (!data.isValid(i)) {
+						seconds[offset + i] = DateTimeColumn.MISSING_VALUE;
+						if (nanos != null) {
+							nanos[offset + i] = 0;
+						}
+					}
+				}
+			}
+		}
+
+		@Override
+		Column toColumn() {
+			return ColumnAccessor.get().newDateTimeColumn(seconds, nanos);
+		}
+
+	}
+
+	private static final class TextDecoder extends ColumnDecoder {
+
+		private final Field field;
+		private final Object[] values;
+
+		private TextDecoder(Field field, int height) {
+			this.field = field;
+			this.values = new Object[height];
+		}
+
+		@Override
+		void decode(FieldData data, int offset, int length) {
+			decodeStrings(data, field.largeOffsets, length, values, offset);
+		}
+
+		@Override
+		Column toColumn() {
+			return ColumnAccessor.get().newObjectColumn(ColumnType.TEXT, values);
+		}
+
+	}
+
+	private static final class NominalDecoder extends ColumnDecoder {
+
+		private final Field field;
+		private final int[] indices;
+		private final Map<String, Integer> categories = new LinkedHashMap<>();
+
+		private NominalDecoder(Field field, int height) {
+			this.field = field;
+			this.indices = new int[height];
+		}
+
+		/**
+		 * Maps the Arrow dictionaries of all batches to category indices of a common dictionary.
+		 */
+		private void prepare(List<Batch> batches, int column) {
+			Map<List<String>, int[]> mappings = new IdentityHashMap<>();
+			for (Batch batch : batches) {
+				FieldData data = batch.fields[column];
+				data.categoryIndices = mappings.computeIfAbsent(data.dictionary, dictionary -> {
+					int[] mapping = new int[dictionary.size()];
+					for (int i = 0; i < mapping.length; i++) {
+						String value = dictionary.get(i);
+						mapping[i] = value == null ? 0 :
+								categories.computeIfAbsent(value, v -> categories.size() + 1);
+					}
+					return mapping;
+				});
+			}
+		}
+
+		@Override
+		void decode(FieldData data, int offset, int length) {
+			ByteBuffer buffer = data.values;
+			int[] mapping = data.categoryIndices;
+			for (int i = 0; i < length; i++) {
+				if (!data.isValid(i)) {
+					indices[offset + i] = 0;
+					continue;
+				}
+				long index;
+				switch (field.bitWidth) {
+					case 8:
+						byte byteValue = buffer.get(i);
+						index = field.signed ? byteValue : Byte.toUnsignedInt(byteValue);
+						break;
+					case 16:
+						short shortValue = buffer.getShort(i * Short.BYTES);
+						index = field.signed ? shortValue : Short.toUnsignedInt(shortValue);
+						break;
+					case 32:
+						int intValue = buffer.getInt(i * Integer.BYTES);
+						index = field.signed ? intValue : Integer.toUnsignedLong(intValue);
+						break;
+					default:
+						index = buffer.getLong(i * Long.BYTES);
+				}
+				if (index < 0 || index >= mapping.length) {
+					throw new IllegalArgumentException("Arrow dictionary index " + index + " of field " +
+							field.name + " is out of range");
+				}
+				indices[offset + i] = mapping[(int) index];
+			}
+		}
+
+		@Override
+		Column toColumn() {
+			List<String> dictionary = new ArrayList<>(categories.size() + 1);
+			dictionary.add(null);
+			dictionary.addAll(categories.keySet());
+			return ColumnAccessor.get().newCategoricalColumn(ColumnType.NOMINAL, indices, dictionary);
+		}
+
+	}
+
+}
@@ -0,0 +1,715 @@
+/**
+ * This file is part of the RapidMiner Belt project.
+ * Copyright (C) 2017-2021 RapidMiner GmbH
+ *
+ * This program is free software: you can redistribute it and/or modify it under the terms of the GNU Affero General
+ * Public License as published by the Free Software Foundation, either version 3 of the License, or (at your option) any
+ * later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied
+ * warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU Affero General Public License along with this program. If not, see
+ * https://www.gnu.org/licenses/.
+ */
+
+
+package com.rapidminer.belt.table;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+
+import com.rapidminer.belt.column.Column;
+import com.rapidminer.belt.column.Column.TypeId;
+import com.rapidminer.belt.column.ColumnIO;
+import com.rapidminer.belt.column.DateTimeColumn;
+import com.rapidminer.belt.column.Dictionary;
+import com.rapidminer.belt.column.TimeColumn;
+import com.rapidminer.belt.execution.Context;
+import com.rapidminer.belt.execution.ExecutionUtils;
+import com.rapidminer.belt.table.FlatBuffers.StructVectorNode;
+import com.rapidminer.belt.table.FlatBuffers.TableNode;
+import com.rapidminer.belt.table.FlatBuffers.VectorNode;
+
+
+/**
+ * Writes a {@link Table} in the <a href="https://arrow.apache.org/docs/format/Columnar.html">Arrow IPC</a> stream or
+ * file format, e.g., to exchange tables with Python processes via {@code pyarrow}.
+ *
+ * <p>The columns are mapped to Arrow types as follows:
+ * <ul>
+ *     <li>{@link TypeId#REAL}: 64 bit floating point,</li>
+ *     <li>{@link TypeId#INTEGER_53_BIT}: signed 64 bit integer,</li>
+ *     <li>{@link TypeId#TIME}: 64 bit time of day in nanoseconds,</li>
+ *     <li>{@link TypeId#DATE_TIME}: UTC timestamp in seconds, or in nanoseconds if the column has sub-second
+ *     precision,</li>
+ *     <li>categorical columns: dictionary-encoded UTF-8 strings with signed 32 bit indices,</li>
+ *     <li>{@link TypeId#TEXT}: UTF-8 strings.</li>
+ * </ul>
+ * Missing values are marked in the validity bitmaps. Other column types are not supported.
+ *
+ * <p>The rows are written in record batches of {@link #batchRows(int)} rows. The columns of every batch are encoded
+ * in parallel via the little-endian {@link ColumnIO} methods into buffers that are reused for all batches. The
+ * dictionaries of categorical columns are written once before the first batch.
+ *
+ * @author Michael Knopf
+ * @see ArrowReader
+ */
+public final class ArrowWriter {
+
+	/**
+	 * The default number of rows per record batch.
+	 */
+	public static final int DEFAULT_BATCH_ROWS = 1 << 16;
+
+	private static final byte[] PADDING = new byte[ArrowFormat.ALIGNMENT];
+
+	private int batchRows = DEFAULT_BATCH_ROWS;
+
+	/**
+	 * Sets the number of rows per record batch. Defaults to {@link #DEFAULT_BATCH_ROWS}.
+	 *
+	 * @param rows
+	 * 		the number of rows per batch
+	 * @return this writer
+	 * @throws IllegalArgumentException
+	 * 		if the number of rows is not positive
+	 */
+	public ArrowWriter batchRows(int rows) {
+		if (rows <= 0) {
+			throw new IllegalArgumentException("Number of batch rows must be positive");
+		}
+		this.batchRows = rows;
+		return this;
+	}
+
+	/**
+	 * Writes the table in the Arrow IPC stream format to the given channel. The channel is not closed.
+	 *
+	 * @param table
+	 * 		the table to write
+	 * @param channel
+	 * 		the target channel
+	 * @param context
+	 * 		the execution context to use
+	 * @throws NullPointerException
+	 * 		if any of the arguments is {@code null}
+	 * @throws IllegalArgumentException
+	 * 		if the table contains columns of unsupported types or date-times that cannot be represented as nanoseconds
+	 * 		since epoch
+	 * @throws UncheckedIOException
+	 * 		if writing to the channel fails
+	 */
+	public void writeStream(Table table, WritableByteChannel channel, Context context) {
+		Objects.requireNonNull(table, "Table must not be null");
+		Objects.requireNonNull(channel, "Channel must not be null");
+		Objects.requireNonNull(context, "Context must not be null");
+		try {
+			new Export(table, channel, context, batchRows).writeStream();
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	/**
+	 * Writes the table in the Arrow IPC file format to the given file. The file is created if it does not exist and
+	 * overwritten otherwise.
+	 *
+	 * @param table
+	 * 		the table to write
+	 * @param file
+	 * 		the target file
+	 * @param context
+	 * 		the execution context to use
+	 * @throws NullPointerException
+	 * 		if any of the arguments is {@code null}
+	 * @throws IllegalArgumentException
+	 * 		if the table contains columns of unsupported types or date-times that cannot be represented as nanoseconds
+	 * 		since epoch
+	 * @throws UncheckedIOException
+	 * 		if writing the file fails
+	 */
+	public void writeFile(Table table, Path file, Context context) {
+		Objects.requireNonNull(table, "Table must not be null");
+		Objects.requireNonNull(file, "File must not be null");
+		Objects.requireNonNull(context, "Context must not be null");
+		try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+				StandardOpenOption.TRUNCATE_EXISTING)) {
+			new Export(table, channel, context, batchRows).writeFile();
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	/**
+	 * A single write of a table.
+	 */
+	private static final class Export {
+
+		private final Table table;
+		private final WritableByteChannel channel;
+		private final Context context;
+		private final int batchRows;
+		private final ColumnEncoder[] encoders;
+		private final List<long[]> dictionaryBlocks = new ArrayList<>();
+		private final List<long[]> batchBlocks = new ArrayList<>();
+		private long position;
+
+		private Export(Table table, WritableByteChannel channel, Context context, int batchRows) {
+			this.table = table;
+			this.channel = channel;
+			this.context = context;
+			this.batchRows = batchRows;
+			this.encoders = new ColumnEncoder[table.width()];
+			int bufferRows = Math.min(batchRows, table.height());
+			for (int i = 0; i < encoders.length; i++) {
+				encoders[i] = ColumnEncoder.of(table.column(i), table.label(i), bufferRows);
+			}
+		}
+
+		private void writeFile() throws IOException {
+			ByteBuffer header = ByteBuffer.allocate(ArrowFormat.FILE_HEADER_SIZE);
+			header.put(ArrowFormat.MAGIC).clear();
+			write(header);
+			writeStream();
+			TableNode footer = new TableNode()
+					.addShort(ArrowFormat.FOOTER_VERSION, ArrowFormat.VERSION)
+					.addNode(ArrowFormat.FOOTER_SCHEMA, schema())
+					.addNode(ArrowFormat.FOOTER_DICTIONARIES, blocks(dictionaryBlocks))
+					.addNode(ArrowFormat.FOOTER_RECORD_BATCHES, blocks(batchBlocks));
+			byte[] bytes = FlatBuffers.serialize(footer);
+			ByteBuffer trailer = ByteBuffer.allocate(bytes.length + 4 + ArrowFormat.MAGIC.length)
+					.order(ByteOrder.LITTLE_ENDIAN);
+			trailer.put(bytes).putInt(bytes.length).put(ArrowFormat.MAGIC).flip();
+			write(trailer);
+		}
+
+		private void writeStream() throws IOException {
+			writeMessage(ArrowFormat.HEADER_SCHEMA, schema(), new Body());
+			for (int i = 0; i < encoders.length; i++) {
+				if (encoders[i] instanceof CategoricalEncoder) {
+					Body body = ((CategoricalEncoder) encoders[i]).dictionary();
+					TableNode batch = new TableNode()
+							.addLong(ArrowFormat.DICTIONARY_BATCH_ID, i)
+							.addNode(ArrowFormat.DICTIONARY_BATCH_DATA, body.recordBatch())
+							.addBoolean(ArrowFormat.DICTIONARY_BATCH_IS_DELTA, false);
+					dictionaryBlocks.add(writeMessage(ArrowFormat.HEADER_DICTIONARY_BATCH, batch, body));
+				}
+			}
+			int height = table.height();
+			for (int start = 0; start < height; start += batchRows) {
+				int batchStart = start;
+				int batchEnd = Math.min(height, start + batchRows);
+				ExecutionUtils.parallel(0, encoders.length, i -> encoders[i].encode(batchStart, batchEnd), context);
+				Body body = new Body();
+				body.length = batchEnd - batchStart;
+				for (ColumnEncoder encoder : encoders) {
+					encoder.addTo(body, batchEnd - batchStart);
+				}
+				batchBlocks.add(writeMessage(ArrowFormat.HEADER_RECORD_BATCH, body.recordBatch(), body));
+			}
+			ByteBuffer end = ByteBuffer.allocate(8).order(ByteOrder.LITTLE_ENDIAN);
+			end.putInt(ArrowFormat.CONTINUATION).putInt(0).flip();
+			write(end);
+		}
+
+		private TableNode schema() {
+			List<TableNode> fields = new ArrayList<>(encoders.length);
+			for (int i = 0; i < encoders.length; i++) {
+				ColumnEncoder encoder = encoders[i];
+				TableNode field = new TableNode()
+						.addString(ArrowFormat.FIELD_NAME, encoder.label)
+						.addBoolean(ArrowFormat.FIELD_NULLABLE, true)
+						.addByte(ArrowFormat.FIELD_TYPE_TYPE, encoder.typeId())
+						.addNode(ArrowFormat.FIELD_TYPE, encoder.type())
+						.addNode(ArrowFormat.FIELD_CHILDREN, new VectorNode(Collections.emptyList()));
+				if (encoder instanceof CategoricalEncoder) {
+					field.addNode(ArrowFormat.FIELD_DICTIONARY, new TableNode()
+							.addLong(ArrowFormat.DICTIONARY_ENCODING_ID, i)
+							.addNode(ArrowFormat.DICTIONARY_ENCODING_INDEX_TYPE, intType(32)));
+				}
+				fields.add(field);
+			}
+			return new TableNode()
+					.addShort(ArrowFormat.SCHEMA_ENDIANNESS, 0)
+					.addNode(ArrowFormat.SCHEMA_FIELDS, new VectorNode(fields));
+		}
+
+		private static StructVectorNode blocks(List<long[]> blocks) {
+			ByteBuffer structs = ByteBuffer.allocate(blocks.size() * ArrowFormat.BLOCK_SIZE)
+					.order(ByteOrder.LITTLE_ENDIAN);
+			for (long[] block : blocks) {
+				structs.putLong(block[0]).putInt((int) block[1]).putInt(0).putLong(block[2]);
+			}
+			structs.flip();
+			return new StructVectorNode(structs, blocks.size(), Long.BYTES);
+		}
+
+		/**
+		 * Writes an encapsulated message and returns its block, i.e., its offset, metadata length and body length.
+		 */
+		private long[] writeMessage(int headerType, TableNode header, Body body) throws IOException {
+			TableNode message = new TableNode()
+					.addShort(ArrowFormat.MESSAGE_VERSION, ArrowFormat.VERSION)
+					.addByte(ArrowFormat.MESSAGE_HEADER_TYPE, headerType)
+					.addNode(ArrowFormat.MESSAGE_HEADER, header)
+					.addLong(ArrowFormat.MESSAGE_BODY_LENGTH, body.bodyLength);
+			byte[] metadata = FlatBuffers.serialize(message);
+			int prefixLength = 2 * Integer.BYTES;
+			int metadataLength = (int) ArrowFormat.pad(prefixLength + metadata.length) - prefixLength;
+			ByteBuffer prefix = ByteBuffer.allocate(prefixLength + metadataLength).order(ByteOrder.LITTLE_ENDIAN);
+			prefix.putInt(ArrowFormat.CONTINUATION).putInt(metadataLength).put(metadata).clear();
+			long offset = position;
+			write(prefix);
+			for (ByteBuffer buffer : body.buffers) {
+				int length = buffer.remaining();
+				write(buffer);
+				write(ByteBuffer.wrap(PADDING, 0, (int) (ArrowFormat.pad(length) - length)));
+			}
+			return new long[]{offset, (long) prefixLength + metadataLength, body.bodyLength};
+		}
+
+		private void write(ByteBuffer buffer) throws IOException {
+			while (buffer.hasRemaining()) {
+				position += channel.write(buffer);
+			}
+		}
+
+	}
+
+	/**
+	 * The nodes and buffers of a record batch.
+	 */
+	private static final class Body {
+
+		private long length;
+		private final List<long[]> nodes = new ArrayList<>();
+		private final List<ByteBuffer> buffers = new ArrayList<>();
+		private final List<long[]> bufferStructs = new ArrayList<>();
+		private long bodyLength;
+
+		private void addNode(long length, long nullCount) {
+			nodes.add(new long[]{length, nullCount});
+		}
+
+		private void addBuffer(ByteBuffer buffer) {
+			int bufferLength = buffer.remaining();
+			bufferStructs.add(new long[]{bodyLength, bufferLength});
+			buffers.add(buffer);
+			bodyLength += ArrowFormat.pad(bufferLength);
+		}
+
+		private TableNode recordBatch() {
+			return new TableNode()
+					.addLong(ArrowFormat.RECORD_BATCH_LENGTH, length)
+					.addNode(ArrowFormat.RECORD_BATCH_NODES, structs(nodes))
+					.addNode(ArrowFormat.RECORD_BATCH_BUFFERS, structs(bufferStructs));
+		}
+
+		private static StructVectorNode structs(List<long[]> pairs) {
+			ByteBuffer structs = ByteBuffer.allocate(pairs.size() * ArrowFormat.TWO_LONG_STRUCT_SIZE)
+					.order(ByteOrder.LITTLE_ENDIAN);
+			for (long[] pair : pairs) {
+				structs.putLong(pair[0]).putLong(pair[1]);
+			}
+			structs.flip();
+			return new StructVectorNode(structs, pairs.size(), Long.BYTES);
+		}
+
+	}
+
+	private static TableNode intType(int bitWidth) {
+		return new TableNode().addInt(ArrowFormat.INT_BIT_WIDTH, bitWidth).addBoolean(ArrowFormat.INT_IS_SIGNED, true);
+	}
+
+	private static ByteBuffer allocate(long bytes) {
+		return ByteBuffer.allocate((int) bytes).order(ByteOrder.LITTLE_ENDIAN);
+	}
+
+	/**
+	 * Encodes the rows of one column batch by batch into reused buffers.
+	 */
+	private abstract static class ColumnEncoder {
+
+		final Column column;
+		final String label;
+		final byte[] validity;
+		final ByteBuffer data;
+		long nullCount;
+
+		/**
+		 * @param bytesPerValue
+		 * 		the number of bytes per value in the data buffer
+		 * @param rows
+		 * 		the maximal number of rows per batch
+		 */
+		private ColumnEncoder(Column column, String label, int bytesPerValue, int rows) {
+			this.column = column;
+			this.label = label;
+			this.validity = new byte[(rows + 7) / 8];
+			this.data = allocate((long) bytesPerValue * rows);
+		}
+
+		static ColumnEncoder of(Column column, String label, int rows) {
+			if (column.type().category() == Column.Category.CATEGORICAL) {
+				return new CategoricalEncoder(column, label, rows);
+			}
+			switch (column.type().id()) {
+				case REAL:
+				case INTEGER_53_BIT:
+					return new NumericEncoder(column, label, rows);
+				case TIME:
+					return new TimeEncoder(column, label, rows);
+				case DATE_TIME:
+					return new DateTimeEncoder(column, label, rows);
+				case TEXT:
+					return new TextEncoder(column, label, rows);
+				default:
+					throw new IllegalArgumentException("Unsupported column type " + column.type() + " of column " +
+							label);
+			}
+		}
+
+		/**
+		 * @return the id of the Arrow type
+		 */
+		abstract int typeId();
+
+		/**
+		 * @return the Arrow type
+		 */
+		abstract TableNode type();
+
+		/**
+		 * Encodes the rows in the range {@code [start, end)}.
+		 */
+		abstract void encode(int start, int end);
+
+		/**
+		 * Adds the node and buffers of the last encoded batch.
+		 */
+		void addTo(Body body, int length) {
+			body.addNode(length, nullCount);
+			body.addBuffer(validityBuffer(length));
+			ByteBuffer values = data.duplicate();
+			values.position(0);
+			body.addBuffer(values);
+		}
+
+		/**
+		 * Resets the validity bitmap and the null count for a batch of the given length.
+		 */
+		void startValidity(int length) {
+			Arrays.fill(validity, 0, (length + 7) / 8, (byte) 0);
+			nullCount = 0;
+		}
+
+		void setValid(int index) {
+			validity[index >>> 3] |= (byte) (1 << (index & 7));
+		}
+
+		/**
+		 * Returns the validity bitmap or an empty buffer if there are no missing values.
+		 */
+		ByteBuffer validityBuffer(int length) {
+			return ByteBuffer.wrap(validity, 0, nullCount == 0 ? 0 : (length + 7) / 8);
+		}
+
+	}
+
+	private static final class NumericEncoder extends ColumnEncoder {
+
+		private final boolean integer;
+
+		private NumericEncoder(Column column, String label, int rows) {
+			super(column, label, Double.BYTES, rows);
+			this.integer = column.type().id() == TypeId.INTEGER_53_BIT;
+		}
+
+		@Override
+		int typeId() {
+			return integer ? ArrowFormat.TYPE_INT : ArrowFormat.TYPE_FLOATING_POINT;
+		}
+
+		@Override
+		TableNode type() {
+			return integer ? intType(64) :
+					new TableNode().addShort(ArrowFormat.FLOATING_POINT_PRECISION, ArrowFormat.PRECISION_DOUBLE);
+		}
+
+		@Override
+		void encode(int start, int end) {
+			int length = end - start;
+			data.clear().limit(length * Double.BYTES);
+			ColumnIO.putNumericDoubles(column, start, data);
+			data.flip();
+			startValidity(length);
+			for (int i = 0; i < length; i++) {
+				double value = data.getDouble(i * Double.BYTES);
+				if (Double.isNaN(value)) {
+					nullCount++;
+					if (integer) {
+						data.putLong(i * Long.BYTES, 0);
+					}
+				} else {
+					setValid(i);
+					if (integer) {
+						data.putLong(i * Long.BYTES, (long) value);
+					}
+				}
+			}
+		}
+
+	}
+
+	private static final class TimeEncoder extends ColumnEncoder {
+
+		private TimeEncoder(Column column, String label, int rows) {
+			super(column, label, Long.BYTES, rows);
+		}
+
+		@Override
+		int typeId() {
+			return ArrowFormat.TYPE_TIME;
+		}
+
+		@Override
+		TableNode type() {
+			return new TableNode().addShort(ArrowFormat.TIME_UNIT, ArrowFormat.UNIT_NANOSECOND)
+					.addInt(ArrowFormat.TIME_BIT_WIDTH, 64);
+		}
+
+		@Override
+		void encode(int start, int end) {
+			int length = end - start;
+			data.clear().limit(length * Long.BYTES);
+			ColumnIO.putTimeLongs(column, start, data);
+			data.flip();
+			startValidity(length);
+			for (int i = 0; i < length; i++) {
+				if (data.getLong(i * Long.BYTES) == TimeColumn.MISSING_VALUE) {
+					nullCount++;
+					data.putLong(i * Long.BYTES, 0);
+				} else {
+					setValid(i);
+				}
+			}
+		}
+
+	}
+
+	private static final class DateTimeEncoder extends ColumnEncoder {
+
+		private static final long NANOS_PER_SECOND = 1_000_000_000L;
+
+		private final boolean nanoseconds;
+		private final ByteBuffer nanos;
+
+		private DateTimeEncoder(Column column, String label, int rows) {
+			super(column, label, Long.BYTES, rows);
+			this.nanoseconds = ((DateTimeColumn) column).hasSubSecondPrecision();
+			this.nanos = nanoseconds ? allocate((long) Integer.BYTES * rows) : null;
+		}
+
+		@Override
+		int typeId() {
+			return ArrowFormat.TYPE_TIMESTAMP;
+		}
+
+		@Override
+		TableNode type() {
+			return new TableNode()
+					.addShort(ArrowFormat.TIMESTAMP_UNIT, nanoseconds ? ArrowFormat.UNIT_NANOSECOND :
+							ArrowFormat.UNIT_SECOND)
+					.addString(ArrowFormat.TIMESTAMP_TIMEZONE, "UTC");
+		}
+
+		@Override
+		void encode(int start, int end) {
+			int length = end - start;
+			data.clear().limit(length * Long.BYTES);
+			ColumnIO.putDateTimeLongs(column, start, data);
+			data.flip();
+			if (nanoseconds) {
+				nanos.clear().limit(length * Integer.BYTES);
+				ColumnIO.putDateTimeNanoInts(column, start, nanos);
+			}
+			startValidity(length);
+			for (int i = 0; i < length; i++) {
+				long seconds = data.getLong(i * Long.BYTES);
+				if (seconds == DateTimeColumn.MISSING_VALUE) {
+					nullCount++;
+					data.putLong(i * Long.BYTES, 0);
+					continue;
+				}
+				setValid(i);
+				if (nanoseconds) {
+					try {
+						data.putLong(i * Long.BYTES, Math.addExact(Math.multiplyExact(seconds, NANOS_PER_SECOND),
+								nanos.getInt(i * Integer.BYTES)));
+					} catch (ArithmeticException e) {
+						throw new IllegalArgumentException("Date-time in row " + (start + i) + " of column " +
+								label + " cannot be represented as nanoseconds since epoch", e);
+					}
+				}
+			}
+		}
+
+	}
+
+	private static final class CategoricalEncoder extends ColumnEncoder {
+
+		private CategoricalEncoder(Column column, String label, int rows) {
+			super(column, label, Integer.BYTES, rows);
+		}
+
+		@Override
+		int typeId() {
+			return ArrowFormat.TYPE_UTF8;
+		}
+
+		@Override
+		TableNode type() {
+			return new TableNode();
+		}
+
+		@Override
+		void encode(int start, int end) {
+			int length = end - start;
+			data.clear().limit(length * Integer.BYTES);
+			ColumnIO.putCategoricalIntegers(column, start, data);
+			data.flip();
+			startValidity(length);
+			for (int i = 0; i < length; i++) {
+				int index = data.getInt(i * Integer.BYTES);
+				if (index == 0) {
+					nullCount++;
+				} else {
+					setValid(i);
+					// Arrow dictionaries do not contain the missing value
+					data.putInt(i * Integer.BYTES, index - 1);
+				}
+			}
+		}
+
+		/**
+		 * Encodes the dictionary values as record batch with a single UTF-8 column.
+		 */
+		private Body dictionary() {
+			Dictionary dictionary = column.getDictionary();
+			String[] values = new String[dictionary.maximalIndex()];
+			for (int i = 0; i < values.length; i++) {
+				values[i] = dictionary.get(i + 1);
+			}
+			Body body = new Body();
+			body.length = values.length;
+			Strings strings = new Strings(values.length);
+			strings.encode(values, values.length, label);
+			strings.addTo(body, values.length);
+			return body;
+		}
+
+	}
+
+	private static final class TextEncoder extends ColumnEncoder {
+
+		private final Object[] values;
+		private final Strings strings;
+
+		private TextEncoder(Column column, String label, int rows) {
+			super(column, label, 0, 0);
+			this.values = new Object[rows];
+			this.strings = new Strings(rows);
+		}
+
+		@Override
+		int typeId() {
+			return ArrowFormat.TYPE_UTF8;
+		}
+
+		@Override
+		TableNode type() {
+			return new TableNode();
+		}
+
+		@Override
+		void encode(int start, int end) {
+			column.fill(values, start);
+			strings.encode(values, end - start, label);
+		}
+
+		@Override
+		void addTo(Body body, int length) {
+			strings.addTo(body, length);
+		}
+
+	}
+
+	/**
+	 * Encodes strings as UTF-8 vector consisting of validity bitmap, offsets and data buffers.
+	 */
+	private static final class Strings {
+
+		private final byte[] validity;
+		private final ByteBuffer offsets;
+		private byte[] bytes = new byte[1024];
+		private int dataLength;
+		private long nullCount;
+
+		private Strings(int rows) {
+			this.validity = new byte[(rows + 7) / 8];
+			this.offsets = allocate((long) Integer.BYTES * (rows + 1));
+		}
+
+		private void encode(Object[] values, int length, String label) {
+			Arrays.fill(validity, 0, (length + 7) / 8, (byte) 0);
+			nullCount = 0;
+			offsets.clear();
+			long size = 0;
+			offsets.putInt(0);
+			for (int i = 0; i < length; i++) {
+				if (values[i] == null) {
+					nullCount++;
+				} else {
+					validity[i >>> 3] |= (byte) (1 << (i & 7));
+					byte[] encoded = values[i].toString().getBytes(StandardCharsets.UTF_8);
+					if (size + encoded.length > Integer.MAX_VALUE) {
+						throw new IllegalArgumentException("Values of column " + label +
+								" exceed the maximal size of a record batch, use smaller batches");
+					}
+					if (bytes.length < size + encoded.length) {
+						bytes = Arrays.copyOf(bytes, (int) Math.min(Integer.MAX_VALUE,
+								Math.max(size + encoded.length, 2L * bytes.length)));
+					}
+					System.arraycopy(encoded, 0, bytes, (int) size, encoded.length);
+					size += encoded.length;
+				}
+				offsets.putInt((int) size);
+			}
+			offsets.flip();
+			dataLength = (int) size;
+		}
+
+		private void addTo(Body body, int length) {
+			body.addNode(length, nullCount);
+			body.addBuffer(ByteBuffer.wrap(validity, 0, nullCount == 0 ? 0 : (length + 7) / 8));
+			body.addBuffer(offsets.duplicate());
+			body.addBuffer(ByteBuffer.wrap(bytes, 0, dataLength));
+		}
+
+	}
+
+}
@@ -0,0 +1,94 @@
+/**
+ * This file is part of the RapidMiner Belt project.
+ * Copyright (C) 2017-2021 RapidMiner GmbH
+ *
+ * This program is free software: you can redistribute it and/or modify it under the terms of the GNU Affero General
+ * Public License as published by the Free Software Foundation, either version 3 of the License, or (at your option) any
+ * later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied
+ * warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU Affero General Public License along with this program. If not, see
+ * https://www.gnu.org/licenses/.
+ */
+
+
+package com.rapidminer.belt.table;
+
+
+/**
+ * Constants of the framed binary table format written by {@link BinaryTableWriter} and read by {@link
+ * BinaryTableReader}. All numbers are little-endian.
+ *
+ * <p>The data starts with the {@link #MAGIC} bytes followed by a sequence of frames. Every frame consists of a
+ * compression byte ({@link #RAW} or {@link #DEFLATE}), the int length of the uncompressed payload, the int length of
+ * the stored payload and the stored payload itself. The first frame is the header: the height, the width and the
+ * chunk size of the table followed by the label, type, dictionary and meta data of every column. It is followed by
+ * one frame per chunk of rows and column, ordered by chunk first.
+ *
+ * <p>Strings are stored as int length of their UTF-8 encoding followed by the encoded bytes, {@code null} values as
+ * length {@code -1}.
+ *
+ * @author Michael Knopf
+ */
+final class BinaryTableFormat {
+
+	/**
+	 * The magic bytes at the beginning of the data, the last byte is the format version.
+	 */
+	static final byte[] MAGIC = {'B', 'E', 'L', 'T', 'B', 'I', 'N', 1};
+
+	/**
+	 * The size of the prefix of every frame: the compression byte and two int lengths.
+	 */
+	static final int FRAME_PREFIX_SIZE = 9;
+
+	// frame compression
+	static final byte RAW = 0;
+	static final byte DEFLATE = 1;
+
+	// column types
+	static final byte TYPE_REAL = 1;
+	static final byte TYPE_INTEGER_53_BIT = 2;
+	static final byte TYPE_TIME = 3;
+	static final byte TYPE_DATE_TIME = 4;
+	static final byte TYPE_NOMINAL = 5;
+	static final byte TYPE_TEXT = 6;
+	static final byte TYPE_TEXTSET = 7;
+	static final byte TYPE_TEXTLIST = 8;
+
+	// meta data
+	static final byte META_ROLE = 1;
+	static final byte META_ANNOTATION = 2;
+	static final byte META_REFERENCE = 3;
+
+	/**
+	 * The length marking a {@code null} string.
+	 */
+	static final int NULL_LENGTH = -1;
+
+	/**
+	 * The width of the category indices of nominal columns in bytes for the given maximal category index.
+	 *
+	 * @param maximalIndex
+	 * 		the maximal category index of the dictionary
+	 * @return the index width
+	 */
+	static int indexWidth(int maximalIndex) {
+		if (maximalIndex <= Byte.MAX_VALUE) {
+			return Byte.BYTES;
+		} else if (maximalIndex <= Short.MAX_VALUE) {
+			return Short.BYTES;
+		} else {
+			return Integer.BYTES;
+		}
+	}
+
+	private BinaryTableFormat() {
+		// Suppress default constructor to prevent instantiation
+		throw new AssertionError();
+	}
+
+}
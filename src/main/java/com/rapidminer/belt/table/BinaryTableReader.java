@@ -0,0 +1,556 @@
+/**
+ * This file is part of the RapidMiner Belt project.
+ * Copyright (C) 2017-2021 RapidMiner GmbH
+ *
+ * This program is free software: you can redistribute it and/or modify it under the terms of the GNU Affero General
+ * Public License as published by the Free Software Foundation, either version 3 of the License, or (at your option) any
+ * later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied
+ * warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU Affero General Public License along with this program. If not, see
+ * https://www.gnu.org/licenses/.
+ */
+
+
+package com.rapidminer.belt.table;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+
+import com.rapidminer.belt.column.Column;
+import com.rapidminer.belt.column.Column.TypeId;
+import com.rapidminer.belt.column.ColumnType;
+import com.rapidminer.belt.column.type.StringList;
+import com.rapidminer.belt.column.type.StringSet;
+import com.rapidminer.belt.execution.Context;
+import com.rapidminer.belt.execution.ExecutionUtils;
+import com.rapidminer.belt.util.ColumnAnnotation;
+import com.rapidminer.belt.util.ColumnMetaData;
+import com.rapidminer.belt.util.ColumnReference;
+import com.rapidminer.belt.util.ColumnRole;
+
+
+/**
+ * Reads a {@link Table} written by {@link BinaryTableWriter} from an {@link InputStream}.
+ *
+ * <p>The chunks are read from the stream in waves of one chunk per worker. While the frames are read sequentially,
+ * decompressing and decoding them into the final columns happens in parallel. Every worker reuses its buffers and its
+ * {@link Inflater} for all chunks it decodes. Thus, only the header and one wave of chunks are held in memory in
+ * addition to the resulting table.
+ *
+ * @author Michael Knopf
+ */
+public final class BinaryTableReader {
+
+	/**
+	 * Reads a table from the given stream. Exactly the bytes of the table are consumed, the stream is not closed.
+	 *
+	 * @param stream
+	 * 		the source stream
+	 * @param context
+	 * 		the execution context to use
+	 * @return the table
+	 * @throws NullPointerException
+	 * 		if any of the arguments is {@code null}
+	 * @throws IllegalArgumentException
+	 * 		if the data is not a table written by {@link BinaryTableWriter} or is malformed
+	 * @throws UncheckedIOException
+	 * 		if reading from the stream fails
+	 */
+	public Table read(InputStream stream, Context context) {
+		Objects.requireNonNull(stream, "Stream must not be null");
+		Objects.requireNonNull(context, "Context must not be null");
+		try {
+			return new Import(stream, context).read();
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	/**
+	 * Reads exactly the given number of bytes into the array.
+	 */
+	private static void readFully(InputStream stream, byte[] target, int length) throws IOException {
+		int read = 0;
+		while (read < length) {
+			int count = stream.read(target, read, length - read);
+			if (count < 0) {
+				throw new IllegalArgumentException("Unexpected end of binary table data");
+			}
+			read += count;
+		}
+	}
+
+	private static IllegalArgumentException malformed() {
+		return new IllegalArgumentException("Malformed binary table data");
+	}
+
+	private static String getString(ByteBuffer buffer) {
+		int length = buffer.getInt();
+		if (length == BinaryTableFormat.NULL_LENGTH) {
+			return null;
+		}
+		if (length < 0 || length > buffer.remaining()) {
+			throw malformed();
+		}
+		String value = new String(buffer.array(), buffer.arrayOffset() + buffer.position(), length,
+				StandardCharsets.UTF_8);
+		buffer.position(buffer.position() + length);
+		return value;
+	}
+
+	/**
+	 * A single read of a table.
+	 */
+	private static final class Import {
+
+		private final InputStream stream;
+		private final Context context;
+		private int height;
+		private int chunkRows;
+		private String[] labels;
+		private ColumnDecoder[] decoders;
+		private final Map<String, List<ColumnMetaData>> metaData = new HashMap<>();
+
+		private Import(InputStream stream, Context context) {
+			this.stream = stream;
+			this.context = context;
+		}
+
+		private Table read() throws IOException {
+			byte[] magic = new byte[BinaryTableFormat.MAGIC.length];
+			readFully(stream, magic, magic.length);
+			if (!Arrays.equals(magic, BinaryTableFormat.MAGIC)) {
+				throw new IllegalArgumentException("Data is not a binary table of a supported version");
+			}
+			FrameDecoder[] frames = null;
+			try {
+				FrameDecoder header = new FrameDecoder();
+				try {
+					header.read(stream);
+					readHeader(header.payload());
+				} finally {
+					header.end();
+				}
+
+				int width = decoders.length;
+				long chunks = ((long) height + chunkRows - 1) / chunkRows;
+				long tasks = chunks * width;
+				int slots = (int) Math.max(1, Math.min(context.getParallelism(), tasks));
+				frames = new FrameDecoder[slots];
+				for (int slot = 0; slot < slots; slot++) {
+					frames[slot] = new FrameDecoder();
+				}
+				FrameDecoder[] waveFrames = frames;
+				for (long wave = 0; wave < tasks; wave += slots) {
+					long waveStart = wave;
+					int waveSize = (int) Math.min(slots, tasks - wave);
+					for (int slot = 0; slot < waveSize; slot++) {
+						waveFrames[slot].read(stream);
+					}
+					ExecutionUtils.parallel(0, waveSize, slot -> {
+						long task = waveStart + slot;
+						int start = (int) (task / width) * chunkRows;
+						decoders[(int) (task % width)].decode(waveFrames[slot].payload(), start,
+								Math.min(height - start, chunkRows));
+					}, context);
+				}
+			} catch (IndexOutOfBoundsException | BufferUnderflowException e) {
+				throw new IllegalArgumentException("Malformed binary table data", e);
+			} finally {
+				if (frames != null) {
+					for (FrameDecoder frame : frames) {
+						frame.end();
+					}
+				}
+			}
+
+			if (decoders.length == 0) {
+				return new Table(height);
+			}
+			Column[] columns = new Column[decoders.length];
+			for (int i = 0; i < columns.length; i++) {
+				columns[i] = decoders[i].toColumn();
+			}
+			return new Table(columns, labels, metaData);
+		}
+
+		private void readHeader(ByteBuffer header) {
+			height = header.getInt();
+			int width = header.getInt();
+			chunkRows = header.getInt();
+			if (height < 0 || width < 0 || chunkRows <= 0 || chunkRows > BinaryTableWriter.MAX_CHUNK_ROWS) {
+				throw malformed();
+			}
+			labels = new String[width];
+			decoders = new ColumnDecoder[width];
+			for (int i = 0; i < width; i++) {
+				labels[i] = getString(header);
+				decoders[i] = readColumn(header, labels[i]);
+				int count = header.getInt();
+				if (count < 0) {
+					throw malformed();
+				}
+				if (count > 0) {
+					List<ColumnMetaData> columnMetaData = new ArrayList<>(Math.min(count, header.remaining()));
+					for (int j = 0; j < count; j++) {
+						columnMetaData.add(readMetaData(header));
+					}
+					metaData.put(labels[i], columnMetaData);
+				}
+			}
+			if (header.hasRemaining()) {
+				throw malformed();
+			}
+		}
+
+		private ColumnDecoder readColumn(ByteBuffer header, String label) {
+			byte type = header.get();
+			switch (type) {
+				case BinaryTableFormat.TYPE_REAL:
+					return new NumericDecoder(TypeId.REAL, height);
+				case BinaryTableFormat.TYPE_INTEGER_53_BIT:
+					return new NumericDecoder(TypeId.INTEGER_53_BIT, height);
+				case BinaryTableFormat.TYPE_TIME:
+					return new TimeDecoder(height);
+				case BinaryTableFormat.TYPE_DATE_TIME:
+					return new DateTimeDecoder(height, header.get() != 0);
+				case BinaryTableFormat.TYPE_NOMINAL:
+					int maximalIndex = header.getInt();
+					if (maximalIndex < 0 || maximalIndex > header.remaining()) {
+						throw malformed();
+					}
+					List<String> dictionary = new ArrayList<>(maximalIndex + 1);
+					dictionary.add(null);
+					for (int i = 1; i <= maximalIndex; i++) {
+						dictionary.add(getString(header));
+					}
+					boolean isBoolean = header.get() != 0;
+					int positiveIndex = isBoolean ? header.getInt() : 0;
+					return new NominalDecoder(height, dictionary, isBoolean, positiveIndex);
+				case BinaryTableFormat.TYPE_TEXT:
+				case BinaryTableFormat.TYPE_TEXTSET:
+				case BinaryTableFormat.TYPE_TEXTLIST:
+					return new ObjectDecoder(height, type);
+				default:
+					throw new IllegalArgumentException("Unsupported column type " + type + " for column " + label);
+			}
+		}
+
+		private static ColumnMetaData readMetaData(ByteBuffer header) {
+			byte type = header.get();
+			switch (type) {
+				case BinaryTableFormat.META_ROLE:
+					String role = getString(header);
+					try {
+						return ColumnRole.valueOf(role);
+					} catch (IllegalArgumentException | NullPointerException e) {
+						throw new IllegalArgumentException("Unknown column role " + role, e);
+					}
+				case BinaryTableFormat.META_ANNOTATION:
+					return new ColumnAnnotation(getString(header));
+				case BinaryTableFormat.META_REFERENCE:
+					String column = getString(header);
+					return new ColumnReference(column, getString(header));
+				default:
+					throw new IllegalArgumentException("Unsupported meta data type " + type);
+			}
+		}
+
+	}
+
+	/**
+	 * Reads frames into a reusable buffer and decompresses them with a reusable {@link Inflater}. Every decoder is
+	 * used by a single worker at a time.
+	 */
+	private static final class FrameDecoder {
+
+		private final byte[] prefix = new byte[BinaryTableFormat.FRAME_PREFIX_SIZE];
+		private byte[] stored = new byte[0];
+		private byte[] raw = new byte[0];
+		private Inflater inflater;
+		private boolean compressed;
+		private int rawLength;
+		private int storedLength;
+
+		/**
+		 * Reads the next frame from the stream without decompressing it.
+		 */
+		private void read(InputStream stream) throws IOException {
+			readFully(stream, prefix, prefix.length);
+			ByteBuffer buffer = ByteBuffer.wrap(prefix).order(ByteOrder.LITTLE_ENDIAN);
+			byte compression = buffer.get();
+			rawLength = buffer.getInt();
+			storedLength = buffer.getInt();
+			compressed = compression == BinaryTableFormat.DEFLATE;
+			if (compression != BinaryTableFormat.RAW && !compressed) {
+				throw new IllegalArgumentException("Unsupported compression " + compression);
+			}
+			if (rawLength < 0 || storedLength < 0 || (!compressed && rawLength != storedLength)) {
+				throw malformed();
+			}
+			if (stored.length < storedLength) {
+				stored = new byte[storedLength];
+			}
+			readFully(stream, stored, storedLength);
+		}
+
+		/**
+		 * Returns the decompressed payload of the last frame read.
+		 */
+		private ByteBuffer payload() {
+			if (!compressed) {
+				return ByteBuffer.wrap(stored, 0, rawLength).slice().order(ByteOrder.LITTLE_ENDIAN);
+			}
+			if (inflater == null) {
+				inflater = new Inflater();
+			}
+			if (raw.length < rawLength) {
+				raw = new byte[rawLength];
+			}
+			inflater.reset();
+			inflater.setInput(stored, 0, storedLength);
+			int length = 0;
+			try {
+				while (length < rawLength && !inflater.finished()) {
+					int count = inflater.inflate(raw, length, rawLength - length);
+					if (count == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+						break;
+					}
+					length += count;
+				}
+			} catch (DataFormatException e) {
+				throw new IllegalArgumentException("Malformed binary table data", e);
+			}
+			if (length != rawLength || !inflater.finished()) {
+				throw malformed();
+			}
+			return ByteBuffer.wrap(raw, 0, rawLength).slice().order(ByteOrder.LITTLE_ENDIAN);
+		}
+
+		private void end() {
+			if (inflater != null) {
+				inflater.end();
+			}
+		}
+
+	}
+
+	/**
+	 * Decodes the chunks of one column into the final column. Different chunks can be decoded concurrently.
+	 */
+	private abstract static class ColumnDecoder {
+
+		/**
+		 * Decodes the chunk starting at the given row from the payload.
+		 */
+		abstract void decode(ByteBuffer payload, int start, int length);
+
+		abstract Column toColumn();
+
+		static void requireLength(ByteBuffer payload, long length) {
+			if (payload.remaining() != length) {
+				throw malformed();
+			}
+		}
+
+	}
+
+	private static final class NumericDecoder extends ColumnDecoder {
+
+		private final TypeId type;
+		private final double[] values;
+
+		private NumericDecoder(TypeId type, int height) {
+			this.type = type;
+			this.values = new double[height];
+		}
+
+		@Override
+		void decode(ByteBuffer payload, int start, int length) {
+			requireLength(payload, (long) length * Double.BYTES);
+			payload.asDoubleBuffer().get(values, start, length);
+		}
+
+		@Override
+		Column toColumn() {
+			return ColumnAccessor.get().newNumericColumn(type, values);
+		}
+
+	}
+
+	private static final class TimeDecoder extends ColumnDecoder {
+
+		private final long[] values;
+
+		private TimeDecoder(int height) {
+			this.values = new long[height];
+		}
+
+		@Override
+		void decode(ByteBuffer payload, int start, int length) {
+			requireLength(payload, (long) length * Long.BYTES);
+			payload.asLongBuffer().get(values, start, length);
+		}
+
+		@Override
+		Column toColumn() {
+			return ColumnAccessor.get().newTimeColumn(values);
+		}
+
+	}
+
+	private static final class DateTimeDecoder extends ColumnDecoder {
+
+		private final long[] seconds;
+		private final int[] nanos;
+
+		private DateTimeDecoder(int height, boolean subSecondPrecision) {
+			this.seconds = new long[height];
+			this.nanos = subSecondPrecision ? new int[height] : null;
+		}
+
+		@Override
+		void decode(ByteBuffer payload, int start, int length) {
+			requireLength(payload, (long) length * (nanos == null ? Long.BYTES : Long.BYTES + Integer.BYTES));
+			payload.asLongBuffer().get(seconds, start, length);
+			if (nanos != null) {
+				payload.position(length * Long.BYTES);
+				payload.asIntBuffer().get(nanos, start, length);
+			}
+		}
+
+		@Override
+		Column toColumn() {
+			return ColumnAccessor.get().newDateTimeColumn(seconds, nanos);
+		}
+
+	}
+
+	private static final class NominalDecoder extends ColumnDecoder {
+
+		private final List<String> dictionary;
+		private final boolean isBoolean;
+		private final int positiveIndex;
+		private final int indexWidth;
+		private final short[] shortIndices;
+		private final int[] intIndices;
+
+		private NominalDecoder(int height, List<String> dictionary, boolean isBoolean, int positiveIndex) {
+			this.dictionary = dictionary;
+			this.isBoolean = isBoolean;
+			this.positiveIndex = positiveIndex;
+			this.indexWidth = BinaryTableFormat.indexWidth(dictionary.size() - 1);
+			this.shortIndices = indexWidth < Integer.BYTES ? new short[height] : null;
+			this.intIndices = indexWidth < Integer.BYTES ? null : new int[height];
+		}
+
+		@Override
+		void decode(ByteBuffer payload, int start, int length) {
+			requireLength(payload, (long) length * indexWidth);
+			int maximalIndex = dictionary.size() - 1;
+			if (indexWidth == Byte.BYTES) {
+				for (int i = 0; i < length; i++) {
+					shortIndices[start + i] = requireIndex(payload.get(i), maximalIndex);
+				}
+			} else if (indexWidth == Short.BYTES) {
+				payload.asShortBuffer().get(shortIndices, start, length);
+				for (int i = start; i < start + length; i++) {
+					requireIndex(shortIndices[i], maximalIndex);
+				}
+			} else {
+				payload.asIntBuffer().get(intIndices, start, length);
+				for (int i = start; i < start + length; i++) {
+					if (intIndices[i] < 0 || intIndices[i] > maximalIndex) {
+						throw malformed();
+					}
+				}
+			}
+		}
+
+		private static short requireIndex(int index, int maximalIndex) {
+			if (index < 0 || index > maximalIndex) {
+				throw malformed();
+			}
+			return (short) index;
+		}
+
+		@Override
+		Column toColumn() {
+			if (isBoolean) {
+				return intIndices == null ?
+						ColumnAccessor.get().newCategoricalColumn(ColumnType.NOMINAL, shortIndices, dictionary,
+								positiveIndex) :
+						ColumnAccessor.get().newCategoricalColumn(ColumnType.NOMINAL, intIndices, dictionary,
+								positiveIndex);
+			}
+			return intIndices == null ?
+					ColumnAccessor.get().newCategoricalColumn(ColumnType.NOMINAL, shortIndices, dictionary) :
+					ColumnAccessor.get().newCategoricalColumn(ColumnType.NOMINAL, intIndices, dictionary);
+		}
+
+	}
+
+	private static final class ObjectDecoder extends ColumnDecoder {
+
+		private final byte type;
+		private final Object[] values;
+
+		private ObjectDecoder(int height, byte type) {
+			this.type = type;
+			this.values = new Object[height];
+		}
+
+		@Override
+		void decode(ByteBuffer payload, int start, int length) {
+			for (int i = start; i < start + length; i++) {
+				if (type == BinaryTableFormat.TYPE_TEXT) {
+					values[i] = getString(payload);
+				} else {
+					values[i] = getCollection(payload);
+				}
+			}
+			requireLength(payload, 0);
+		}
+
+		private Object getCollection(ByteBuffer payload) {
+			int size = payload.getInt();
+			if (size == BinaryTableFormat.NULL_LENGTH) {
+				return null;
+			}
+			if (size < 0 || size > payload.remaining() / Integer.BYTES) {
+				throw malformed();
+			}
+			List<String> strings = new ArrayList<>(size);
+			for (int i = 0; i < size; i++) {
+				strings.add(getString(payload));
+			}
+			return type == BinaryTableFormat.TYPE_TEXTSET ? new StringSet(strings) : new StringList(strings);
+		}
+
+		@Override
+		Column toColumn() {
+			ColumnType<?> columnType = type == BinaryTableFormat.TYPE_TEXT ? ColumnType.TEXT :
+					type == BinaryTableFormat.TYPE_TEXTSET ? ColumnType.TEXTSET : ColumnType.TEXTLIST;
+			return ColumnAccessor.get().newObjectColumn(columnType, values);
+		}
+
+	}
+
+}
@@ -0,0 +1,475 @@
+/**
+ * This file is part of the RapidMiner Belt project.
+ * Copyright (C) 2017-2021 RapidMiner GmbH
+ *
+ * This program is free software: you can redistribute it and/or modify it under the terms of the GNU Affero General
+ * Public License as published by the Free Software Foundation, either version 3 of the License, or (at your option) any
+ * later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied
+ * warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU Affero General Public License along with this program. If not, see
+ * https://www.gnu.org/licenses/.
+ */
+
+
+package com.rapidminer.belt.table;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+import java.util.List;
+import java.util.Objects;
+import java.util.zip.Deflater;
+
+import com.rapidminer.belt.column.Column;
+import com.rapidminer.belt.column.ColumnIO;
+import com.rapidminer.belt.column.ColumnType;
+import com.rapidminer.belt.column.DateTimeColumn;
+import com.rapidminer.belt.column.Dictionary;
+import com.rapidminer.belt.execution.Context;
+import com.rapidminer.belt.execution.ExecutionUtils;
+import com.rapidminer.belt.util.ColumnAnnotation;
+import com.rapidminer.belt.util.ColumnMetaData;
+import com.rapidminer.belt.util.ColumnReference;
+import com.rapidminer.belt.util.ColumnRole;
+
+
+/**
+ * Writes a {@link Table} to an {@link OutputStream} in a framed binary format that can be read again via {@link
+ * BinaryTableReader}. The format is meant for exchanging tables between processes and for caches, it is not meant for
+ * long-term storage.
+ *
+ * <p>The data starts with a header containing the labels, types, dictionaries and meta data of the columns. It is
+ * followed by the column data split into chunks of {@link #chunkRows(int)} rows. Chunks are encoded in parallel, the
+ * workers reuse their buffers and, if {@link #compression(int)} is enabled, their {@link Deflater}s for all chunks
+ * they encode. The encoded chunks are written to the stream in order.
+ *
+ * <p>Columns of type {@link Column.TypeId#REAL}, {@link Column.TypeId#INTEGER_53_BIT}, {@link Column.TypeId#TIME},
+ * {@link Column.TypeId#DATE_TIME}, {@link Column.TypeId#NOMINAL}, {@link Column.TypeId#TEXT}, {@link
+ * Column.TypeId#TEXT_SET} and {@link Column.TypeId#TEXT_LIST} are supported. Meta data is written for the types
+ * {@link ColumnRole}, {@link ColumnAnnotation} and {@link ColumnReference}.
+ *
+ * @author Michael Knopf
+ */
+public final class BinaryTableWriter {
+
+	/**
+	 * The default number of rows per chunk.
+	 */
+	public static final int DEFAULT_CHUNK_ROWS = 1 << 15;
+
+	/**
+	 * The maximal number of rows per chunk, ensures that every chunk of fixed-width values fits into a byte array.
+	 */
+	public static final int MAX_CHUNK_ROWS = 1 << 26;
+
+	/**
+	 * The initial size of the buffers of the workers.
+	 */
+	private static final int INITIAL_BUFFER_SIZE = 1 << 12;
+
+	private int chunkRows = DEFAULT_CHUNK_ROWS;
+	private int compressionLevel = Deflater.NO_COMPRESSION;
+
+	/**
+	 * Sets the number of rows per chunk. Defaults to {@link #DEFAULT_CHUNK_ROWS}.
+	 *
+	 * @param rows
+	 * 		the number of rows per chunk
+	 * @return this writer
+	 * @throws IllegalArgumentException
+	 * 		if the number of rows is not positive or bigger than {@link #MAX_CHUNK_ROWS}
+	 */
+	public BinaryTableWriter chunkRows(int rows) {
+		if (rows <= 0 || rows > MAX_CHUNK_ROWS) {
+			throw new IllegalArgumentException("Number of chunk rows must be in [1, " + MAX_CHUNK_ROWS + "]");
+		}
+		this.chunkRows = rows;
+		return this;
+	}
+
+	/**
+	 * Sets the {@link Deflater} compression level used for every chunk. Defaults to {@link Deflater#NO_COMPRESSION}.
+	 * Chunks that do not get smaller by compression are stored uncompressed.
+	 *
+	 * @param level
+	 * 		the compression level in {@code [0, 9]} or {@link Deflater#DEFAULT_COMPRESSION}
+	 * @return this writer
+	 * @throws IllegalArgumentException
+	 * 		if the level is invalid
+	 */
+	public BinaryTableWriter compression(int level) {
+		if (level < Deflater.DEFAULT_COMPRESSION || level > Deflater.BEST_COMPRESSION) {
+			throw new IllegalArgumentException("Invalid compression level " + level);
+		}
+		this.compressionLevel = level;
+		return this;
+	}
+
+	/**
+	 * Writes the table to the given stream. The stream is neither buffered nor closed, further data can be written to
+	 * it after the table.
+	 *
+	 * @param table
+	 * 		the table to write
+	 * @param stream
+	 * 		the target stream
+	 * @param context
+	 * 		the execution context to use
+	 * @throws NullPointerException
+	 * 		if any of the arguments is {@code null}
+	 * @throws IllegalArgumentException
+	 * 		if the table contains a column of an unsupported type or unsupported meta data
+	 * @throws UncheckedIOException
+	 * 		if writing to the stream fails
+	 */
+	public void write(Table table, OutputStream stream, Context context) {
+		Objects.requireNonNull(table, "Table must not be null");
+		Objects.requireNonNull(stream, "Stream must not be null");
+		Objects.requireNonNull(context, "Context must not be null");
+		try {
+			new Export(this, table, stream, context).write();
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	/**
+	 * A single write of a table with fixed settings.
+	 */
+	private static final class Export {
+
+		private final Table table;
+		private final OutputStream stream;
+		private final Context context;
+		private final int chunkRows;
+		private final int compressionLevel;
+		private final byte[] types;
+
+		/**
+		 * The width of the category indices of nominal columns and of the nanoseconds of date-time columns with
+		 * subsecond precision, {@code 0} otherwise.
+		 */
+		private final int[] secondaryWidths;
+
+		private Export(BinaryTableWriter writer, Table table, OutputStream stream, Context context) {
+			this.table = table;
+			this.stream = stream;
+			this.context = context;
+			this.chunkRows = writer.chunkRows;
+			this.compressionLevel = writer.compressionLevel;
+			this.types = new byte[table.width()];
+			this.secondaryWidths = new int[table.width()];
+		}
+
+		private void write() throws IOException {
+			int width = table.width();
+			for (int i = 0; i < width; i++) {
+				Column column = table.column(i);
+				types[i] = type(column, table.label(i));
+				if (types[i] == BinaryTableFormat.TYPE_NOMINAL) {
+					secondaryWidths[i] = BinaryTableFormat.indexWidth(column.getDictionary().maximalIndex());
+				} else if (types[i] == BinaryTableFormat.TYPE_DATE_TIME &&
+						((DateTimeColumn) column).hasSubSecondPrecision()) {
+					secondaryWidths[i] = Integer.BYTES;
+				}
+			}
+			FrameEncoder header = new FrameEncoder(compressionLevel);
+			try {
+				writeHeader(header);
+				header.finish();
+				stream.write(BinaryTableFormat.MAGIC);
+				header.writeTo(stream);
+			} finally {
+				header.end();
+			}
+
+			int height = table.height();
+			long chunks = ((long) height + chunkRows - 1) / chunkRows;
+			long tasks = chunks * width;
+			int slots = (int) Math.max(1, Math.min(context.getParallelism(), tasks));
+			FrameEncoder[] encoders = new FrameEncoder[slots];
+			try {
+				for (long wave = 0; wave < tasks; wave += slots) {
+					long waveStart = wave;
+					int waveSize = (int) Math.min(slots, tasks - wave);
+					ExecutionUtils.parallel(0, waveSize, slot -> {
+						if (encoders[slot] == null) {
+							encoders[slot] = new FrameEncoder(compressionLevel);
+						}
+						long task = waveStart + slot;
+						encodeChunk(encoders[slot], (int) (task / width), (int) (task % width));
+					}, context);
+					for (int slot = 0; slot < waveSize; slot++) {
+						encoders[slot].writeTo(stream);
+					}
+				}
+			} finally {
+				for (FrameEncoder encoder : encoders) {
+					if (encoder != null) {
+						encoder.end();
+					}
+				}
+			}
+		}
+
+		private static byte type(Column column, String label) {
+			ColumnType<?> type = column.type();
+			if (type.equals(ColumnType.REAL)) {
+				return BinaryTableFormat.TYPE_REAL;
+			} else if (type.equals(ColumnType.INTEGER_53_BIT)) {
+				return BinaryTableFormat.TYPE_INTEGER_53_BIT;
+			} else if (type.equals(ColumnType.TIME)) {
+				return BinaryTableFormat.TYPE_TIME;
+			} else if (type.equals(ColumnType.DATETIME)) {
+				return BinaryTableFormat.TYPE_DATE_TIME;
+			} else if (type.equals(ColumnType.NOMINAL)) {
+				return BinaryTableFormat.TYPE_NOMINAL;
+			} else if (type.equals(ColumnType.TEXT)) {
+				return BinaryTableFormat.TYPE_TEXT;
+			} else if (type.equals(ColumnType.TEXTSET)) {
+				return BinaryTableFormat.TYPE_TEXTSET;
+			} else if (type.equals(ColumnType.TEXTLIST)) {
+				return BinaryTableFormat.TYPE_TEXTLIST;
+			} else {
+				throw new IllegalArgumentException("Unsupported column type " + type + " for column " + label);
+			}
+		}
+
+		private void writeHeader(FrameEncoder header) {
+			header.putInt(table.height());
+			header.putInt(table.width());
+			header.putInt(chunkRows);
+			for (int i = 0; i < table.width(); i++) {
+				String label = table.label(i);
+				header.putString(label);
+				header.putByte(types[i]);
+				if (types[i] == BinaryTableFormat.TYPE_DATE_TIME) {
+					header.putByte(secondaryWidths[i] > 0 ? 1 : 0);
+				} else if (types[i] == BinaryTableFormat.TYPE_NOMINAL) {
+					Dictionary dictionary = table.column(i).getDictionary();
+					header.putInt(dictionary.maximalIndex());
+					for (int index = 1; index <= dictionary.maximalIndex(); index++) {
+						header.putString(dictionary.get(index));
+					}
+					header.putByte(dictionary.isBoolean() ? 1 : 0);
+					if (dictionary.isBoolean()) {
+						header.putInt(dictionary.getPositiveIndex());
+					}
+				}
+				List<ColumnMetaData> metaData = table.getMetaData(label);
+				header.putInt(metaData.size());
+				for (ColumnMetaData data : metaData) {
+					if (data instanceof ColumnRole) {
+						header.putByte(BinaryTableFormat.META_ROLE);
+						header.putString(((ColumnRole) data).name());
+					} else if (data instanceof ColumnAnnotation) {
+						header.putByte(BinaryTableFormat.META_ANNOTATION);
+						header.putString(((ColumnAnnotation) data).annotation());
+					} else if (data instanceof ColumnReference) {
+						header.putByte(BinaryTableFormat.META_REFERENCE);
+						header.putString(((ColumnReference) data).getColumn());
+						header.putString(((ColumnReference) data).getValue());
+					} else {
+						throw new IllegalArgumentException("Unsupported meta data " + data + " for column " + label);
+					}
+				}
+			}
+		}
+
+		/**
+		 * Encodes the given chunk of the given column into the encoder.
+		 */
+		private void encodeChunk(FrameEncoder encoder, int chunk, int columnIndex) {
+			Column column = table.column(columnIndex);
+			int start = chunk * chunkRows;
+			int length = Math.min(table.height() - start, chunkRows);
+			encoder.clear();
+			switch (types[columnIndex]) {
+				case BinaryTableFormat.TYPE_REAL:
+				case BinaryTableFormat.TYPE_INTEGER_53_BIT:
+					encoder.putValues(column, start, length, Double.BYTES, ColumnIO::putNumericDoubles);
+					break;
+				case BinaryTableFormat.TYPE_TIME:
+					encoder.putValues(column, start, length, Long.BYTES, ColumnIO::putTimeLongs);
+					break;
+				case BinaryTableFormat.TYPE_DATE_TIME:
+					encoder.putValues(column, start, length, Long.BYTES, ColumnIO::putDateTimeLongs);
+					if (secondaryWidths[columnIndex] > 0) {
+						encoder.putValues(column, start, length, Integer.BYTES, ColumnIO::putDateTimeNanoInts);
+					}
+					break;
+				case BinaryTableFormat.TYPE_NOMINAL:
+					int indexWidth = secondaryWidths[columnIndex];
+					encoder.putValues(column, start, length, indexWidth, indexWidth == Byte.BYTES ?
+							ColumnIO::putCategoricalBytes : indexWidth == Short.BYTES ?
+							ColumnIO::putCategoricalShorts : ColumnIO::putCategoricalIntegers);
+					break;
+				case BinaryTableFormat.TYPE_TEXT:
+					encoder.putObjects(column, start, length, false);
+					break;
+				default:
+					encoder.putObjects(column, start, length, true);
+			}
+			encoder.finish();
+		}
+
+	}
+
+	/**
+	 * Puts values of the column starting at the given row into the buffer and returns the number of values written.
+	 */
+	@FunctionalInterface
+	private interface ValueWriter {
+
+		int put(Column column, int offset, ByteBuffer buffer);
+
+	}
+
+	/**
+	 * Encodes frames into a reusable buffer and compresses them with a reusable {@link Deflater}. Every encoder is
+	 * used by a single worker at a time.
+	 */
+	private static final class FrameEncoder {
+
+		private final Deflater deflater;
+		private ByteBuffer payload = ByteBuffer.allocate(INITIAL_BUFFER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+		private byte[] compressed = new byte[0];
+		private Object[] objects = new Object[0];
+		private int compressedLength;
+		private boolean useCompressed;
+
+		private FrameEncoder(int compressionLevel) {
+			this.deflater = compressionLevel == Deflater.NO_COMPRESSION ? null : new Deflater(compressionLevel);
+		}
+
+		private void clear() {
+			payload.clear();
+		}
+
+		/**
+		 * Ensures that the payload has room for the given number of bytes.
+		 */
+		private void reserve(int bytes) {
+			if (payload.remaining() < bytes) {
+				long required = (long) payload.position() + bytes;
+				if (required > Integer.MAX_VALUE - 8) {
+					throw new IllegalArgumentException("Chunk is too big, use fewer rows per chunk");
+				}
+				int capacity = (int) Math.min(Integer.MAX_VALUE - 8, Math.max(required, 2L * payload.capacity()));
+				ByteBuffer larger = ByteBuffer.allocate(capacity).order(ByteOrder.LITTLE_ENDIAN);
+				payload.flip();
+				larger.put(payload);
+				payload = larger;
+			}
+		}
+
+		private void putByte(int value) {
+			reserve(Byte.BYTES);
+			payload.put((byte) value);
+		}
+
+		private void putInt(int value) {
+			reserve(Integer.BYTES);
+			payload.putInt(value);
+		}
+
+		private void putString(String value) {
+			if (value == null) {
+				putInt(BinaryTableFormat.NULL_LENGTH);
+			} else {
+				byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+				reserve(Integer.BYTES + bytes.length);
+				payload.putInt(bytes.length);
+				payload.put(bytes);
+			}
+		}
+
+		/**
+		 * Puts the values of the rows {@code [start, start + length)} via the given writer.
+		 */
+		private void putValues(Column column, int start, int length, int bytesPerValue, ValueWriter writer) {
+			reserve(length * bytesPerValue);
+			payload.limit(payload.position() + length * bytesPerValue);
+			int written = 0;
+			while (written < length) {
+				written += writer.put(column, start + written, payload);
+			}
+			payload.limit(payload.capacity());
+		}
+
+		/**
+		 * Puts the strings or string collections of the rows {@code [start, start + length)}.
+		 */
+		private void putObjects(Column column, int start, int length, boolean collections) {
+			if (objects.length < length) {
+				objects = new Object[length];
+			}
+			column.fill(objects, start, 0, 1);
+			for (int i = 0; i < length; i++) {
+				Object value = objects[i];
+				if (!collections || value == null) {
+					putString((String) value);
+				} else {
+					Collection<?> strings = (Collection<?>) value;
+					putInt(strings.size());
+					for (Object string : strings) {
+						putString((String) string);
+					}
+				}
+				objects[i] = null;
+			}
+		}
+
+		/**
+		 * Compresses the payload if enabled and if that makes it smaller.
+		 */
+		private void finish() {
+			useCompressed = false;
+			if (deflater == null) {
+				return;
+			}
+			int length = payload.position();
+			deflater.reset();
+			deflater.setInput(payload.array(), 0, length);
+			deflater.finish();
+			if (compressed.length < length) {
+				compressed = new byte[length];
+			}
+			compressedLength = 0;
+			while (!deflater.finished() && compressedLength < length) {
+				compressedLength += deflater.deflate(compressed, compressedLength, length - compressedLength);
+			}
+			useCompressed = deflater.finished() && compressedLength < length;
+		}
+
+		private void writeTo(OutputStream stream) throws IOException {
+			int length = payload.position();
+			ByteBuffer prefix = ByteBuffer.allocate(BinaryTableFormat.FRAME_PREFIX_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+			prefix.put(useCompressed ? BinaryTableFormat.DEFLATE : BinaryTableFormat.RAW);
+			prefix.putInt(length);
+			prefix.putInt(useCompressed ? compressedLength : length);
+			stream.write(prefix.array());
+			if (useCompressed) {
+				stream.write(compressed, 0, compressedLength);
+			} else {
+				stream.write(payload.array(), 0, length);
+			}
+		}
+
+		private void end() {
+			if (deflater != null) {
+				deflater.end();
+			}
+		}
+
+	}
+
+}
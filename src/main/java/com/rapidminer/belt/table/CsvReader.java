@@ -0,0 +1,1100 @@
+/**
+ * This file is part of the RapidMiner Belt project.
+ * Copyright (C) 2017-2021 RapidMiner GmbH
+ *
+ * This program is free software: you can redistribute it and/or modify it under the terms of the GNU Affero General
+ * Public License as published by the Free Software Foundation, either version 3 of the License, or (at your option) any
+ * later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied
+ * warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU Affero General Public License along with this program. If not, see
+ * https://www.gnu.org/licenses/.
+ */
+
+
+package com.rapidminer.belt.table;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+import com.rapidminer.belt.buffer.Buffers;
+import com.rapidminer.belt.buffer.NominalBuffer;
+import com.rapidminer.belt.column.Column;
+import com.rapidminer.belt.column.Column.TypeId;
+import com.rapidminer.belt.column.ColumnType;
+import com.rapidminer.belt.column.DateTimeColumn;
+import com.rapidminer.belt.column.TimeColumn;
+import com.rapidminer.belt.execution.Context;
+import com.rapidminer.belt.execution.ExecutionUtils;
+
+
+/**
+ * Reads delimiter-separated text files, e.g., CSV or TSV files, into a {@link Table} in parallel.
+ *
+ * <p>The file is split into byte ranges of roughly {@link #chunkSize(int) chunk size} that are aligned to line
+ * boundaries. To find the boundaries, the ranges are scanned in parallel for quote characters and line breaks, so that
+ * line breaks inside quoted fields are handled correctly. The exact number of rows per range is known before parsing,
+ * so that every range is parsed in parallel directly into the data containers of the final columns without
+ * intermediate row objects. The ranges are read via memory-mapped buffers unless {@link #memoryMapped(boolean)} is
+ * disabled.
+ *
+ * <p>Column types are inferred from the first {@link #sampleRows(int)} rows and can be fixed per column via {@link
+ * #columnType(String, TypeId)}. Columns whose values are all integers are read as {@link TypeId#INTEGER_53_BIT},
+ * other numbers as {@link TypeId#REAL}, ISO-8601 times as {@link TypeId#TIME}, ISO-8601 instants or local date-times
+ * (interpreted as UTC) as {@link TypeId#DATE_TIME} and all other columns as {@link TypeId#NOMINAL}. If a value after
+ * the sample does not match the inferred type, an integer column becomes a real column and all other columns are
+ * read again as nominal columns. Empty fields are missing values unless they are quoted, {@code ""} is read as an
+ * empty string.
+ *
+ * <p>The file must be encoded in UTF-8 (or ASCII) and follow RFC 4180, i.e., quote characters may only be used to
+ * enclose fields and are escaped by doubling them. A leading byte order mark is skipped. Every line break outside of
+ * quotes ends a row, blank lines are read as rows of missing values. Empty header fields are replaced by generic
+ * labels.
+ *
+ * @author Michael Knopf
+ */
+public final class CsvReader {
+
+	/**
+	 * The default number of rows used to infer the column types.
+	 */
+	public static final int DEFAULT_SAMPLE_ROWS = 1000;
+
+	/**
+	 * The default size of the byte ranges that are parsed in parallel.
+	 */
+	public static final int DEFAULT_CHUNK_SIZE = 4 << 20;
+
+	/**
+	 * The minimal size of the range read for the header and the sample rows.
+	 */
+	private static final int MIN_SAMPLE_WINDOW = 1 << 16;
+
+	/**
+	 * The powers of ten that are exactly representable as double values.
+	 */
+	private static final double[] POWERS_OF_TEN = {1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11,
+			1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22};
+
+	/**
+	 * Mantissas below this bound are exactly representable as double values.
+	 */
+	private static final long MAX_EXACT_MANTISSA = 1L << 53;
+
+	/**
+	 * The largest integer that can be stored in a {@link TypeId#INTEGER_53_BIT} column without loss.
+	 */
+	private static final double MAX_INTEGER = (1L << 53) - 1;
+
+	private static final byte[] BYTE_ORDER_MARK = {(byte) 0xEF, (byte) 0xBB, (byte) 0xBF};
+
+	private char separator = ',';
+	private char quote = '"';
+	private boolean header = true;
+	private int sampleRows = DEFAULT_SAMPLE_ROWS;
+	private int chunkSize = DEFAULT_CHUNK_SIZE;
+	private boolean memoryMapped = true;
+	private final Map<String, TypeId> columnTypes = new HashMap<>();
+
+	/**
+	 * Sets the character separating the fields of a row. Defaults to {@code ','}, use {@code '\t'} for TSV files.
+	 *
+	 * @param separator
+	 * 		the separator character
+	 * @return this reader
+	 * @throws IllegalArgumentException
+	 * 		if the separator is not an ASCII character or a line break
+	 */
+	public CsvReader separator(char separator) {
+		checkSpecialCharacter(separator, "Separator");
+		this.separator = separator;
+		return this;
+	}
+
+	/**
+	 * Sets the character used to enclose fields. Defaults to {@code '"'}.
+	 *
+	 * @param quote
+	 * 		the quote character
+	 * @return this reader
+	 * @throws IllegalArgumentException
+	 * 		if the quote is not an ASCII character or a line break
+	 */
+	public CsvReader quote(char quote) {
+		checkSpecialCharacter(quote, "Quote");
+		this.quote = quote;
+		return this;
+	}
+
+	/**
+	 * Sets whether the first row contains the column labels. Defaults to {@code true}. Otherwise, the columns are
+	 * labeled {@code column1}, {@code column2} and so on.
+	 *
+	 * @param header
+	 * 		whether the file starts with a header row
+	 * @return this reader
+	 */
+	public CsvReader header(boolean header) {
+		this.header = header;
+		return this;
+	}
+
+	/**
+	 * Sets the number of rows used to infer the column types. Defaults to {@link #DEFAULT_SAMPLE_ROWS}.
+	 *
+	 * @param rows
+	 * 		the number of sample rows
+	 * @return this reader
+	 * @throws IllegalArgumentException
+	 * 		if the number of rows is not positive
+	 */
+	public CsvReader sampleRows(int rows) {
+		if (rows <= 0) {
+			throw new IllegalArgumentException("Number of sample rows must be positive");
+		}
+		this.sampleRows = rows;
+		return this;
+	}
+
+	/**
+	 * Sets the size in bytes of the ranges that are parsed in parallel. Defaults to {@link #DEFAULT_CHUNK_SIZE}.
+	 *
+	 * @param bytes
+	 * 		the chunk size in bytes
+	 * @return this reader
+	 * @throws IllegalArgumentException
+	 * 		if the size is not positive
+	 */
+	public CsvReader chunkSize(int bytes) {
+		if (bytes <= 0) {
+			throw new IllegalArgumentException("Chunk size must be positive");
+		}
+		this.chunkSize = bytes;
+		return this;
+	}
+
+	/**
+	 * Sets whether the file is read via memory-mapped buffers or copied into heap buffers range by range. Defaults to
+	 * {@code true}.
+	 *
+	 * @param memoryMapped
+	 * 		whether to map the file into memory
+	 * @return this reader
+	 */
+	public CsvReader memoryMapped(boolean memoryMapped) {
+		this.memoryMapped = memoryMapped;
+		return this;
+	}
+
+	/**
+	 * Fixes the type of the column with the given label instead of inferring it. Values that cannot be parsed as the
+	 * given type cause an {@link IllegalArgumentException} when reading. Supported types are {@link TypeId#REAL},
+	 * {@link TypeId#INTEGER_53_BIT}, {@link TypeId#TIME}, {@link TypeId#DATE_TIME}, {@link TypeId#NOMINAL} and
+	 * {@link TypeId#TEXT}.
+	 *
+	 * @param label
+	 * 		the column label
+	 * @param type
+	 * 		the column type
+	 * @return this reader
+	 * @throws NullPointerException
+	 * 		if any of the arguments is {@code null}
+	 * @throws IllegalArgumentException
+	 * 		if the type is not supported
+	 */
+	public CsvReader columnType(String label, TypeId type) {
+		Objects.requireNonNull(label, "Label must not be null");
+		Objects.requireNonNull(type, "Type must not be null");
+		switch (type) {
+			case REAL:
+			case INTEGER_53_BIT:
+			case TIME:
+			case DATE_TIME:
+			case NOMINAL:
+			case TEXT:
+				columnTypes.put(label, type);
+				return this;
+			default:
+				throw new IllegalArgumentException("Unsupported column type " + type);
+		}
+	}
+
+	/**
+	 * Reads the given file into a new table.
+	 *
+	 * @param file
+	 * 		the file to read
+	 * @param context
+	 * 		the execution context to use
+	 * @return the table
+	 * @throws NullPointerException
+	 * 		if any of the arguments is {@code null}
+	 * @throws IllegalArgumentException
+	 * 		if separator and quote are equal, the file is empty, a row contains more values than the header, a fixed
+	 * 		column type does not exist or does not match a value, quote characters are used inside of unquoted fields
+	 * 		or the file has more than {@link Integer#MAX_VALUE} rows
+	 * @throws UncheckedIOException
+	 * 		if reading the file fails
+	 */
+	public Table read(Path file, Context context) {
+		Objects.requireNonNull(file, "File must not be null");
+		Objects.requireNonNull(context, "Context must not be null");
+		if (separator == quote) {
+			throw new IllegalArgumentException("Separator and quote must differ");
+		}
+		try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+			return new Import(this, channel, context).read();
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	static void checkSpecialCharacter(char character, String name) {
+		if (character >= 128 || character == '\n' || character == '\r') {
+			throw new IllegalArgumentException(name + " must be an ASCII character other than a line break");
+		}
+	}
+
+	/**
+	 * A single read of a file with fixed settings.
+	 */
+	private static final class Import {
+
+		private final FileChannel channel;
+		private final long size;
+		private final Context context;
+		private final byte separator;
+		private final byte quote;
+		private final boolean header;
+		private final int sampleRows;
+		private final int chunkSize;
+		private final boolean memoryMapped;
+		private final Map<String, TypeId> columnTypes;
+
+		private String[] labels;
+		private long dataStart;
+		private List<List<String>> sample;
+
+		/**
+		 * Whether the sample contains all rows of the file.
+		 */
+		private boolean sampleComplete;
+
+		private Import(CsvReader reader, FileChannel channel, Context context) throws IOException {
+			this.channel = channel;
+			this.size = channel.size();
+			this.context = context;
+			this.separator = (byte) reader.separator;
+			this.quote = (byte) reader.quote;
+			this.header = reader.header;
+			this.sampleRows = reader.sampleRows;
+			this.chunkSize = reader.chunkSize;
+			this.memoryMapped = reader.memoryMapped;
+			this.columnTypes = new HashMap<>(reader.columnTypes);
+		}
+
+		private Table read() throws IOException {
+			if (size == 0) {
+				throw new IllegalArgumentException("File is empty");
+			}
+			readSample();
+			for (String label : columnTypes.keySet()) {
+				if (!Arrays.asList(labels).contains(label)) {
+					throw new IllegalArgumentException("Invalid column label: " + label);
+				}
+			}
+
+			int chunks = (int) ((size - dataStart + chunkSize - 1) / chunkSize);
+			long[] quotes = new long[chunks];
+			parallel(chunks, k -> quotes[k] = countQuotes(chunkStart(k), chunkEnd(k)));
+			boolean[] inQuotes = new boolean[chunks];
+			long quoteCount = 0;
+			for (int k = 0; k < chunks; k++) {
+				inQuotes[k] = (quoteCount & 1) == 1;
+				quoteCount += quotes[k];
+			}
+			long[] first = new long[chunks];
+			long[] last = new long[chunks];
+			long[] lineBreaks = new long[chunks];
+			parallel(chunks, k -> scanLineBreaks(k, inQuotes[k], first, last, lineBreaks));
+
+			// ranges start after the first line break of a chunk, chunks without line break are merged
+			int[] rangeChunks = new int[chunks];
+			int ranges = 0;
+			for (int k = 0; k < chunks; k++) {
+				if (k == 0 || first[k] >= 0) {
+					rangeChunks[ranges++] = k;
+				}
+			}
+			long[] rangeStarts = new long[ranges + 1];
+			long[] rowOffsets = new long[ranges + 1];
+			long lastLineEnd = dataStart;
+			for (int k = 0; k < chunks; k++) {
+				if (last[k] >= 0) {
+					lastLineEnd = last[k] + 1;
+				}
+			}
+			for (int r = 0; r < ranges; r++) {
+				int from = rangeChunks[r];
+				int to = r + 1 < ranges ? rangeChunks[r + 1] : chunks;
+				rangeStarts[r] = from == 0 ? dataStart : first[from] + 1;
+				long rows = 0;
+				for (int k = from; k < to; k++) {
+					rows += lineBreaks[k];
+				}
+				if (from > 0) {
+					// the first line break ends the last row of the previous range
+					rows--;
+				}
+				if (to < chunks) {
+					// the first line break of the next range ends the last row of this range
+					rows++;
+				} else if (lastLineEnd < size) {
+					// the last row is not terminated by a line break
+					rows++;
+				}
+				rowOffsets[r + 1] = rowOffsets[r] + rows;
+			}
+			rangeStarts[ranges] = size;
+			if (rowOffsets[ranges] > Integer.MAX_VALUE) {
+				throw new IllegalArgumentException("File contains more than " + Integer.MAX_VALUE + " rows");
+			}
+			int height = (int) rowOffsets[ranges];
+			if (sampleComplete && height != sample.size()) {
+				throw malformedQuoting(dataStart);
+			}
+
+			ColumnParser[] parsers = new ColumnParser[labels.length];
+			for (int i = 0; i < parsers.length; i++) {
+				TypeId fixed = columnTypes.get(labels[i]);
+				parsers[i] = fixed != null ? newParser(fixed, labels[i], false, height) :
+						inferParser(i, height);
+			}
+			int rangeCount = ranges;
+			parallel(rangeCount, r -> parseRange(rangeStarts[r], rangeStarts[r + 1], (int) rowOffsets[r],
+					(int) (rowOffsets[r + 1] - rowOffsets[r]), parsers));
+
+			// read columns that did not match their inferred type again as nominal columns
+			ColumnParser[] retry = new ColumnParser[labels.length];
+			boolean failed = false;
+			for (int i = 0; i < parsers.length; i++) {
+				if (parsers[i].failed) {
+					retry[i] = newParser(TypeId.NOMINAL, labels[i], true, height);
+					failed = true;
+				}
+			}
+			if (failed) {
+				parallel(rangeCount, r -> parseRange(rangeStarts[r], rangeStarts[r + 1], (int) rowOffsets[r],
+						(int) (rowOffsets[r + 1] - rowOffsets[r]), retry));
+			}
+
+			Column[] columns = new Column[labels.length];
+			for (int i = 0; i < columns.length; i++) {
+				columns[i] = retry[i] != null ? retry[i].toColumn() : parsers[i].toColumn();
+			}
+			return new Table(columns, labels);
+		}
+
+		private long chunkStart(int chunk) {
+			return dataStart + (long) chunk * chunkSize;
+		}
+
+		private long chunkEnd(int chunk) {
+			return Math.min(size, chunkStart(chunk) + chunkSize);
+		}
+
+		/**
+		 * Runs the task for every index in parallel and rethrows {@link IOException}s as unchecked exceptions.
+		 */
+		private void parallel(int count, IOConsumer task) {
+			if (count == 0) {
+				return;
+			}
+			ExecutionUtils.parallel(0, count, i -> {
+				try {
+					task.accept(i);
+				} catch (IOException e) {
+					throw new UncheckedIOException(e);
+				}
+			}, context);
+		}
+
+		/**
+		 * Returns the bytes in the given range either memory-mapped or copied into a heap buffer.
+		 */
+		private ByteBuffer window(long start, long end) throws IOException {
+			long length = end - start;
+			if (length > Integer.MAX_VALUE) {
+				throw new IllegalArgumentException("Row starting at byte " + start + " is too long");
+			}
+			if (memoryMapped) {
+				return channel.map(FileChannel.MapMode.READ_ONLY, start, length);
+			}
+			ByteBuffer buffer = ByteBuffer.allocate((int) length);
+			while (buffer.hasRemaining()) {
+				int read = channel.read(buffer, start + buffer.position());
+				if (read < 0) {
+					throw new IOException("Unexpected end of file");
+				}
+			}
+			buffer.flip();
+			return buffer;
+		}
+
+		/**
+		 * Reads the header and the sample rows. The window is doubled until it contains at least the first row.
+		 */
+		private void readSample() throws IOException {
+			long windowSize = Math.max(MIN_SAMPLE_WINDOW, chunkSize);
+			while (!readSample(window(0, Math.min(size, windowSize)), windowSize >= size)) {
+				windowSize *= 2;
+			}
+		}
+
+		private boolean readSample(ByteBuffer data, boolean complete) {
+			int start = 0;
+			if (data.limit() >= BYTE_ORDER_MARK.length && data.get(0) == BYTE_ORDER_MARK[0] &&
+					data.get(1) == BYTE_ORDER_MARK[1] && data.get(2) == BYTE_ORDER_MARK[2]) {
+				start = BYTE_ORDER_MARK.length;
+			}
+			Tokenizer tokenizer = new Tokenizer(data, start, data.limit(), separator, quote);
+			List<List<String>> rows = new ArrayList<>();
+			int maxRows = header ? sampleRows + 1 : sampleRows;
+			long firstRowEnd = -1;
+			while (rows.size() < maxRows && tokenizer.position < data.limit()) {
+				List<String> row = new ArrayList<>();
+				do {
+					tokenizer.next();
+					row.add(tokenizer.isEmpty() ? null : tokenizer.string());
+				} while (!tokenizer.lineEnd);
+				if (!tokenizer.lineBreak && !complete) {
+					break;
+				}
+				if (firstRowEnd < 0) {
+					firstRowEnd = tokenizer.position;
+				}
+				rows.add(row);
+			}
+			sampleComplete = complete && tokenizer.position >= data.limit();
+			if (rows.isEmpty()) {
+				if (!complete) {
+					return false;
+				}
+				throw new IllegalArgumentException("File is empty");
+			}
+			if (header) {
+				labels = rows.remove(0).toArray(new String[0]);
+				for (int i = 0; i < labels.length; i++) {
+					if (labels[i] == null || labels[i].isEmpty()) {
+						labels[i] = "column" + (i + 1);
+					}
+				}
+				dataStart = firstRowEnd;
+			} else {
+				labels = new String[rows.get(0).size()];
+				for (int i = 0; i < labels.length; i++) {
+					labels[i] = "column" + (i + 1);
+				}
+				dataStart = start;
+			}
+			sample = rows;
+			return true;
+		}
+
+		private long countQuotes(long start, long end) throws IOException {
+			ByteBuffer data = window(start, end);
+			long count = 0;
+			for (int i = 0; i < data.limit(); i++) {
+				if (data.get(i) == quote) {
+					count++;
+				}
+			}
+			return count;
+		}
+
+		/**
+		 * Counts the line breaks outside of quotes in the given chunk and finds the first and last one.
+		 */
+		private void scanLineBreaks(int chunk, boolean inQuotes, long[] first, long[] last, long[] lineBreaks)
+				throws IOException {
+			long start = chunkStart(chunk);
+			ByteBuffer data = window(start, chunkEnd(chunk));
+			boolean quoted = inQuotes;
+			int firstIndex = -1;
+			int lastIndex = -1;
+			long count = 0;
+			for (int i = 0; i < data.limit(); i++) {
+				byte b = data.get(i);
+				if (b == quote) {
+					quoted = !quoted;
+				} else if (b == '\n' && !quoted) {
+					if (firstIndex < 0) {
+						firstIndex = i;
+					}
+					lastIndex = i;
+					count++;
+				}
+			}
+			first[chunk] = firstIndex < 0 ? -1 : start + firstIndex;
+			last[chunk] = lastIndex < 0 ? -1 : start + lastIndex;
+			lineBreaks[chunk] = count;
+		}
+
+		/**
+		 * Parses the given number of rows from the given range into the columns with a non-null parser.
+		 */
+		private void parseRange(long start, long end, int rowOffset, int rows, ColumnParser[] parsers)
+				throws IOException {
+			ByteBuffer data = window(start, end);
+			Tokenizer tokenizer = new Tokenizer(data, 0, data.limit(), separator, quote);
+			int width = parsers.length;
+			for (int r = 0; r < rows; r++) {
+				int row = rowOffset + r;
+				if (tokenizer.position >= data.limit()) {
+					throw malformedQuoting(start);
+				}
+				int column = 0;
+				do {
+					tokenizer.next();
+					if (column < width) {
+						ColumnParser parser = parsers[column];
+						if (parser != null) {
+							if (tokenizer.isEmpty()) {
+								parser.missing(row);
+							} else {
+								parser.parse(row, tokenizer);
+							}
+						}
+					} else if (!tokenizer.isEmpty()) {
+						throw new IllegalArgumentException("Row " + row + " contains more than " + width +
+								" values");
+					}
+					column++;
+				} while (!tokenizer.lineEnd);
+				for (; column < width; column++) {
+					if (parsers[column] != null) {
+						parsers[column].missing(row);
+					}
+				}
+			}
+			if (tokenizer.position != data.limit()) {
+				throw malformedQuoting(start);
+			}
+		}
+
+		/**
+		 * Creates the exception for a range in which the quotes found by the line break scan do not match the quoted
+		 * fields of the tokenizer, e.g., because of a quote character inside of an unquoted field.
+		 */
+		private IllegalArgumentException malformedQuoting(long start) {
+			return new IllegalArgumentException("Malformed quoting in the rows starting at byte " + start +
+					", quote characters may only enclose fields");
+		}
+
+		/**
+		 * Creates the parser for the type inferred from the sample values of the given column.
+		 */
+		private ColumnParser inferParser(int column, int height) {
+			boolean integral = true;
+			boolean numeric = true;
+			boolean time = true;
+			boolean instant = true;
+			boolean localDateTime = true;
+			boolean any = false;
+			for (List<String> row : sample) {
+				String value = column < row.size() ? row.get(column) : null;
+				if (value == null) {
+					continue;
+				}
+				any = true;
+				if (numeric) {
+					try {
+						double number = parseDouble(value);
+						integral &= isInteger(number);
+					} catch (NumberFormatException e) {
+						numeric = false;
+						integral = false;
+					}
+				}
+				time = time && isParsable(() -> LocalTime.parse(value));
+				instant = instant && isParsable(() -> Instant.parse(value));
+				localDateTime = localDateTime && isParsable(() -> LocalDateTime.parse(value));
+			}
+			String label = labels[column];
+			if (!any) {
+				return newParser(TypeId.NOMINAL, label, true, height);
+			} else if (integral) {
+				return newParser(TypeId.INTEGER_53_BIT, label, true, height);
+			} else if (numeric) {
+				return newParser(TypeId.REAL, label, true, height);
+			} else if (time) {
+				return newParser(TypeId.TIME, label, true, height);
+			} else if (instant || localDateTime) {
+				return new DateTimeParser(label, true, height, instant ? Boolean.FALSE : Boolean.TRUE);
+			} else {
+				return newParser(TypeId.NOMINAL, label, true, height);
+			}
+		}
+
+	}
+
+	private static boolean isParsable(Runnable parse) {
+		try {
+			parse.run();
+			return true;
+		} catch (DateTimeParseException e) {
+			return false;
+		}
+	}
+
+	private static boolean isInteger(double value) {
+		return value == Math.rint(value) && Math.abs(value) <= MAX_INTEGER;
+	}
+
+	/**
+	 * Parses a number that consists of an optional sign, digits, an optional decimal point and an optional exponent,
+	 * or an infinity as written by {@link Double#toString(double)}.
+	 */
+	private static double parseDouble(String value) {
+		if ("Infinity".equals(value) || "-Infinity".equals(value) || "+Infinity".equals(value)) {
+			return Double.parseDouble(value);
+		}
+		for (int i = 0; i < value.length(); i++) {
+			char c = value.charAt(i);
+			if ((c < '0' || c > '9') && c != '.' && c != '-' && c != '+' && c != 'e' && c != 'E') {
+				throw new NumberFormatException("Not a number: " + value);
+			}
+		}
+		return Double.parseDouble(value);
+	}
+
+	private static Instant parseInstant(String value, Boolean local) {
+		if (local == null) {
+			try {
+				return Instant.parse(value);
+			} catch (DateTimeParseException e) {
+				return LocalDateTime.parse(value).toInstant(ZoneOffset.UTC);
+			}
+		}
+		return local ? LocalDateTime.parse(value).toInstant(ZoneOffset.UTC) : Instant.parse(value);
+	}
+
+	private static ColumnParser newParser(TypeId type, String label, boolean inferred, int height) {
+		switch (type) {
+			case REAL:
+			case INTEGER_53_BIT:
+				return new NumericParser(type, label, inferred, height);
+			case TIME:
+				return new TimeParser(label, inferred, height);
+			case DATE_TIME:
+				return new DateTimeParser(label, inferred, height, null);
+			case NOMINAL:
+				return new NominalParser(height);
+			case TEXT:
+				return new TextParser(height);
+			default:
+				throw new AssertionError();
+		}
+	}
+
+	/**
+	 * Task that may throw an {@link IOException}.
+	 */
+	@FunctionalInterface
+	private interface IOConsumer {
+
+		void accept(int index) throws IOException;
+
+	}
+
+	/**
+	 * Splits the bytes of a range into fields.
+	 */
+	private static final class Tokenizer {
+
+		private final ByteBuffer data;
+		private final int end;
+		private final byte separator;
+		private final byte quote;
+		private byte[] scratch = new byte[64];
+
+		private int position;
+		private int fieldStart;
+		private int fieldEnd;
+		private boolean escaped;
+		private boolean quoted;
+
+		/**
+		 * Whether the last field ended its row.
+		 */
+		private boolean lineEnd;
+
+		/**
+		 * Whether the last row was terminated by a line break and not by the end of the range.
+		 */
+		private boolean lineBreak;
+
+		private Tokenizer(ByteBuffer data, int start, int end, byte separator, byte quote) {
+			this.data = data;
+			this.position = start;
+			this.end = end;
+			this.separator = separator;
+			this.quote = quote;
+		}
+
+		/**
+		 * Moves to the next field.
+		 */
+		private void next() {
+			int p = position;
+			escaped = false;
+			quoted = p < end && data.get(p) == quote;
+			if (quoted) {
+				p++;
+				fieldStart = p;
+				while (p < end) {
+					if (data.get(p) == quote) {
+						if (p + 1 < end && data.get(p + 1) == quote) {
+							escaped = true;
+							p += 2;
+							continue;
+						}
+						break;
+					}
+					p++;
+				}
+				fieldEnd = p;
+				// skip the closing quote and anything up to the next separator or line break
+				while (p < end && data.get(p) != separator && data.get(p) != '\n') {
+					p++;
+				}
+			} else {
+				fieldStart = p;
+				while (p < end && data.get(p) != separator && data.get(p) != '\n') {
+					p++;
+				}
+				fieldEnd = p;
+				if (fieldEnd > fieldStart && data.get(fieldEnd - 1) == '\r' && (p == end || data.get(p) == '\n')) {
+					fieldEnd--;
+				}
+			}
+			if (p >= end) {
+				lineEnd = true;
+				lineBreak = false;
+				position = end;
+			} else {
+				lineEnd = data.get(p) == '\n';
+				lineBreak = lineEnd;
+				position = p + 1;
+			}
+		}
+
+		/**
+		 * Whether the current field is a missing value, i.e., empty and not quoted.
+		 */
+		private boolean isEmpty() {
+			return fieldEnd == fieldStart && !quoted;
+		}
+
+		/**
+		 * Decodes the current field, escaped quotes are replaced by single ones.
+		 */
+		private String string() {
+			int length = fieldEnd - fieldStart;
+			if (scratch.length < length) {
+				scratch = new byte[Math.max(length, 2 * scratch.length)];
+			}
+			int n = 0;
+			for (int i = fieldStart; i < fieldEnd; i++) {
+				byte b = data.get(i);
+				scratch[n++] = b;
+				if (escaped && b == quote) {
+					i++;
+				}
+			}
+			return new String(scratch, 0, n, StandardCharsets.UTF_8);
+		}
+
+		/**
+		 * Parses the current field as a number. Plain decimal numbers with at most 15 significant digits are parsed
+		 * directly from the bytes: the mantissa and the power of ten are exactly representable, so a single division
+		 * is correctly rounded. Everything else is delegated to {@link Double#parseDouble(String)}.
+		 */
+		private double parseDouble() {
+			if (fieldEnd == fieldStart) {
+				return CsvReader.parseDouble(string());
+			}
+			int p = fieldStart;
+			boolean negative = false;
+			byte b = data.get(p);
+			if (b == '-' || b == '+') {
+				negative = b == '-';
+				p++;
+			}
+			long mantissa = 0;
+			int scale = 0;
+			boolean digits = false;
+			boolean point = false;
+			for (; p < fieldEnd; p++) {
+				b = data.get(p);
+				if (b >= '0' && b <= '9') {
+					if (mantissa >= MAX_EXACT_MANTISSA / 10) {
+						return CsvReader.parseDouble(string());
+					}
+					mantissa = mantissa * 10 + (b - '0');
+					digits = true;
+					if (point) {
+						scale++;
+					}
+				} else if (b == '.' && !point) {
+					point = true;
+				} else {
+					return CsvReader.parseDouble(string());
+				}
+			}
+			if (!digits || scale >= POWERS_OF_TEN.length) {
+				return CsvReader.parseDouble(string());
+			}
+			double value = scale == 0 ? mantissa : mantissa / POWERS_OF_TEN[scale];
+			return negative ? -value : value;
+		}
+
+	}
+
+	/**
+	 * Parses the fields of one column into the data container of the final column. Different rows can be parsed
+	 * concurrently.
+	 */
+	private abstract static class ColumnParser {
+
+		/**
+		 * Set if a value did not match the inferred type.
+		 */
+		volatile boolean failed;
+
+		abstract void parse(int row, Tokenizer field);
+
+		abstract void missing(int row);
+
+		abstract Column toColumn();
+
+		/**
+		 * Marks the column as failed if its type was inferred, throws otherwise.
+		 */
+		void fail(boolean inferred, String label, TypeId type, Tokenizer field) {
+			if (!inferred) {
+				throw new IllegalArgumentException("Value \"" + field.string() + "\" in column " + label +
+						" is not of type " + type);
+			}
+			failed = true;
+		}
+
+	}
+
+	private static final class NumericParser extends ColumnParser {
+
+		private final TypeId type;
+		private final String label;
+		private final boolean inferred;
+		private final double[] data;
+		private volatile boolean fractional;
+
+		private NumericParser(TypeId type, String label, boolean inferred, int height) {
+			this.type = type;
+			this.label = label;
+			this.inferred = inferred;
+			this.data = new double[height];
+		}
+
+		@Override
+		void parse(int row, Tokenizer field) {
+			double value;
+			try {
+				value = field.parseDouble();
+			} catch (NumberFormatException e) {
+				fail(inferred, label, type, field);
+				data[row] = Double.NaN;
+				return;
+			}
+			data[row] = value;
+			if (type == TypeId.INTEGER_53_BIT && !fractional && !isInteger(value)) {
+				fractional = true;
+			}
+		}
+
+		@Override
+		void missing(int row) {
+			data[row] = Double.NaN;
+		}
+
+		@Override
+		Column toColumn() {
+			if (type == TypeId.INTEGER_53_BIT && fractional) {
+				if (inferred) {
+					return ColumnAccessor.get().newNumericColumn(TypeId.REAL, data);
+				}
+				for (int i = 0; i < data.length; i++) {
+					if (Double.isFinite(data[i])) {
+						data[i] = Math.round(data[i]);
+					}
+				}
+			}
+			return ColumnAccessor.get().newNumericColumn(type, data);
+		}
+
+	}
+
+	private static final class TimeParser extends ColumnParser {
+
+		private final String label;
+		private final boolean inferred;
+		private final long[] data;
+
+		private TimeParser(String label, boolean inferred, int height) {
+			this.label = label;
+			this.inferred = inferred;
+			this.data = new long[height];
+		}
+
+		@Override
+		void parse(int row, Tokenizer field) {
+			try {
+				data[row] = LocalTime.parse(field.string()).toNanoOfDay();
+			} catch (DateTimeParseException e) {
+				fail(inferred, label, TypeId.TIME, field);
+				data[row] = TimeColumn.MISSING_VALUE;
+			}
+		}
+
+		@Override
+		void missing(int row) {
+			data[row] = TimeColumn.MISSING_VALUE;
+		}
+
+		@Override
+		Column toColumn() {
+			return ColumnAccessor.get().newTimeColumn(data);
+		}
+
+	}
+
+	private static final class DateTimeParser extends ColumnParser {
+
+		private final String label;
+		private final boolean inferred;
+		private final Boolean local;
+		private final long[] seconds;
+		private final int[] nanos;
+		private volatile boolean subSecond;
+
+		/**
+		 * @param local
+		 * 		whether the values are local date-times, instants or, if {@code null}, either
+		 */
+		private DateTimeParser(String label, boolean inferred, int height, Boolean local) {
+			this.label = label;
+			this.inferred = inferred;
+			this.local = local;
+			this.seconds = new long[height];
+			this.nanos = new int[height];
+		}
+
+		@Override
+		void parse(int row, Tokenizer field) {
+			Instant instant;
+			try {
+				instant = parseInstant(field.string(), local);
+			} catch (DateTimeParseException e) {
+				fail(inferred, label, TypeId.DATE_TIME, field);
+				seconds[row] = DateTimeColumn.MISSING_VALUE;
+				return;
+			}
+			seconds[row] = instant.getEpochSecond();
+			nanos[row] = instant.getNano();
+			if (instant.getNano() != 0 && !subSecond) {
+				subSecond = true;
+			}
+		}
+
+		@Override
+		void missing(int row) {
+			seconds[row] = DateTimeColumn.MISSING_VALUE;
+		}
+
+		@Override
+		Column toColumn() {
+			return ColumnAccessor.get().newDateTimeColumn(seconds, subSecond ? nanos : null);
+		}
+
+	}
+
+	private static final class NominalParser extends ColumnParser {
+
+		private final NominalBuffer buffer;
+
+		private NominalParser(int height) {
+			this.buffer = Buffers.nominalBuffer(height);
+		}
+
+		@Override
+		void parse(int row, Tokenizer field) {
+			buffer.set(row, field.string());
+		}
+
+		@Override
+		void missing(int row) {
+			// buffers are initialized with missing values
+		}
+
+		@Override
+		Column toColumn() {
+			return buffer.toColumn();
+		}
+
+	}
+
+	private static final class TextParser extends ColumnParser {
+
+		private final Object[] data;
+
+		private TextParser(int height) {
+			this.data = new Object[height];
+		}
+
+		@Override
+		void parse(int row, Tokenizer field) {
+			data[row] = field.string();
+		}
+
+		@Override
+		void missing(int row) {
+			// arrays are initialized with missing values
+		}
+
+		@Override
+		Column toColumn() {
+			return ColumnAccessor.get().newObjectColumn(ColumnType.TEXT, data);
+		}
+
+	}
+
+}
@@ -0,0 +1,560 @@
+/**
+ * This file is part of the RapidMiner Belt project.
+ * Copyright (C) 2017-2021 RapidMiner GmbH
+ *
+ * This program is free software: you can redistribute it and/or modify it under the terms of the GNU Affero General
+ * Public License as published by the Free Software Foundation, either version 3 of the License, or (at your option) any
+ * later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied
+ * warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU Affero General Public License along with this program. If not, see
+ * https://www.gnu.org/licenses/.
+ */
+
+
+package com.rapidminer.belt.table;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.DoubleBuffer;
+import java.nio.IntBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Objects;
+
+import com.rapidminer.belt.column.Column;
+import com.rapidminer.belt.column.Column.TypeId;
+import com.rapidminer.belt.column.Dictionary;
+import com.rapidminer.belt.execution.Context;
+import com.rapidminer.belt.execution.ExecutionUtils;
+import com.rapidminer.belt.reader.Readers;
+
+
+/**
+ * Writes a {@link Table} as delimiter-separated text, e.g., as CSV or TSV file, in UTF-8 encoding.
+ *
+ * <p>The rows are split into blocks of {@link #blockRows(int)} rows. Blocks are formatted in parallel, every worker
+ * reads its rows via block readers and encodes them into a byte buffer of its own. The formatted blocks are written
+ * to the target channel in order. Numbers are formatted without intermediate strings wherever the shortest decimal
+ * representation is exactly representable, the values of categorical columns are encoded once per dictionary entry.
+ *
+ * <p>Missing values are written as empty fields. Fields containing the separator, the quote character or a line break
+ * are enclosed in quotes, quotes inside of them are doubled. Rows are terminated by {@code '\n'}. Integer values are
+ * written without decimal point, time and date-time values in ISO-8601 format (see {@link
+ * java.time.LocalTime#toString()} and {@link java.time.Instant#toString()}) and all other objects via their {@link
+ * Object#toString()} method. Thus, files written with default settings can be read again via {@link CsvReader}.
+ *
+ * @author Michael Knopf
+ */
+public final class CsvWriter {
+
+	/**
+	 * The default number of rows formatted per block.
+	 */
+	public static final int DEFAULT_BLOCK_ROWS = 1 << 14;
+
+	/**
+	 * The powers of ten that are exactly representable as double values.
+	 */
+	private static final double[] POWERS_OF_TEN = {1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11,
+			1e12, 1e13, 1e14, 1e15, 1e16, 1e17};
+
+	/**
+	 * Mantissas below this bound are exactly representable as double values.
+	 */
+	private static final double MAX_EXACT_MANTISSA = 1L << 53;
+
+	private static final byte[] EMPTY = new byte[0];
+
+	private char separator = ',';
+	private char quote = '"';
+	private boolean header = true;
+	private int blockRows = DEFAULT_BLOCK_ROWS;
+
+	/**
+	 * Sets the character separating the fields of a row. Defaults to {@code ','}, use {@code '\t'} for TSV files.
+	 *
+	 * @param separator
+	 * 		the separator character
+	 * @return this writer
+	 * @throws IllegalArgumentException
+	 * 		if the separator is not an ASCII character or a line break
+	 */
+	public CsvWriter separator(char separator) {
+		CsvReader.checkSpecialCharacter(separator, "Separator");
+		this.separator = separator;
+		return this;
+	}
+
+	/**
+	 * Sets the character used to enclose fields. Defaults to {@code '"'}.
+	 *
+	 * @param quote
+	 * 		the quote character
+	 * @return this writer
+	 * @throws IllegalArgumentException
+	 * 		if the quote is not an ASCII character or a line break
+	 */
+	public CsvWriter quote(char quote) {
+		CsvReader.checkSpecialCharacter(quote, "Quote");
+		this.quote = quote;
+		return this;
+	}
+
+	/**
+	 * Sets whether a header row containing the column labels is written. Defaults to {@code true}.
+	 *
+	 * @param header
+	 * 		whether to write a header row
+	 * @return this writer
+	 */
+	public CsvWriter header(boolean header) {
+		this.header = header;
+		return this;
+	}
+
+	/**
+	 * Sets the number of rows formatted per block. Defaults to {@link #DEFAULT_BLOCK_ROWS}.
+	 *
+	 * @param rows
+	 * 		the number of rows per block
+	 * @return this writer
+	 * @throws IllegalArgumentException
+	 * 		if the number of rows is not positive
+	 */
+	public CsvWriter blockRows(int rows) {
+		if (rows <= 0) {
+			throw new IllegalArgumentException("Number of block rows must be positive");
+		}
+		this.blockRows = rows;
+		return this;
+	}
+
+	/**
+	 * Writes the table to the given file. The file is created if it does not exist and overwritten otherwise.
+	 *
+	 * @param table
+	 * 		the table to write
+	 * @param file
+	 * 		the target file
+	 * @param context
+	 * 		the execution context to use
+	 * @throws NullPointerException
+	 * 		if any of the arguments is {@code null}
+	 * @throws IllegalArgumentException
+	 * 		if separator and quote are equal
+	 * @throws UncheckedIOException
+	 * 		if writing the file fails
+	 */
+	public void write(Table table, Path file, Context context) {
+		Objects.requireNonNull(file, "File must not be null");
+		try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+				StandardOpenOption.TRUNCATE_EXISTING)) {
+			write(table, channel, context);
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	/**
+	 * Writes the table to the given channel. The channel is not closed.
+	 *
+	 * @param table
+	 * 		the table to write
+	 * @param channel
+	 * 		the target channel
+	 * @param context
+	 * 		the execution context to use
+	 * @throws NullPointerException
+	 * 		if any of the arguments is {@code null}
+	 * @throws IllegalArgumentException
+	 * 		if separator and quote are equal
+	 * @throws UncheckedIOException
+	 * 		if writing to the channel fails
+	 */
+	public void write(Table table, WritableByteChannel channel, Context context) {
+		Objects.requireNonNull(table, "Table must not be null");
+		Objects.requireNonNull(channel, "Channel must not be null");
+		Objects.requireNonNull(context, "Context must not be null");
+		if (separator == quote) {
+			throw new IllegalArgumentException("Separator and quote must differ");
+		}
+		try {
+			new Export(this, table, channel, context).write();
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	/**
+	 * A single write of a table with fixed settings.
+	 */
+	private static final class Export {
+
+		private final Table table;
+		private final WritableByteChannel channel;
+		private final Context context;
+		private final byte separator;
+		private final byte quote;
+		private final boolean header;
+		private final int blockRows;
+
+		/**
+		 * The encoded dictionary values of the categorical columns, {@code null} for all other columns.
+		 */
+		private final byte[][][] dictionaries;
+
+		private Export(CsvWriter writer, Table table, WritableByteChannel channel, Context context) {
+			this.table = table;
+			this.channel = channel;
+			this.context = context;
+			this.separator = (byte) writer.separator;
+			this.quote = (byte) writer.quote;
+			this.header = writer.header;
+			this.blockRows = writer.blockRows;
+			this.dictionaries = new byte[table.width()][][];
+		}
+
+		private void write() throws IOException {
+			int width = table.width();
+			for (int i = 0; i < width; i++) {
+				Column column = table.column(i);
+				if (column.type().category() == Column.Category.CATEGORICAL) {
+					dictionaries[i] = encode(column.getDictionary());
+				}
+			}
+			if (header) {
+				ByteSink labels = new ByteSink(width);
+				for (int i = 0; i < width; i++) {
+					if (i > 0) {
+						labels.put(separator);
+					}
+					labels.put(encode(table.label(i)));
+				}
+				labels.put((byte) '\n');
+				labels.writeTo(channel);
+			}
+
+			int height = table.height();
+			int blocks = (int) (((long) height + blockRows - 1) / blockRows);
+			int slots = Math.max(1, Math.min(context.getParallelism(), blocks));
+			BlockFormatter[] formatters = new BlockFormatter[slots];
+			for (int wave = 0; wave < blocks; wave += slots) {
+				int waveStart = wave;
+				int waveSize = Math.min(slots, blocks - wave);
+				ExecutionUtils.parallel(0, waveSize, slot -> {
+					if (formatters[slot] == null) {
+						formatters[slot] = new BlockFormatter(this, new ByteSink(blockRows));
+					}
+					int start = (waveStart + slot) * blockRows;
+					formatters[slot].format(start, Math.min(height, start + blockRows));
+				}, context);
+				for (int slot = 0; slot < waveSize; slot++) {
+					formatters[slot].sink.writeTo(channel);
+				}
+			}
+		}
+
+		/**
+		 * Encodes the dictionary values including quotes if required, missing values are encoded as empty fields.
+		 */
+		private byte[][] encode(Dictionary dictionary) {
+			byte[][] encoded = new byte[dictionary.maximalIndex() + 1][];
+			Arrays.fill(encoded, EMPTY);
+			for (int i = 1; i < encoded.length; i++) {
+				String value = dictionary.get(i);
+				if (value != null) {
+					encoded[i] = encode(value);
+				}
+			}
+			return encoded;
+		}
+
+		/**
+		 * Encodes the value in UTF-8 and encloses it in quotes if required.
+		 */
+		private byte[] encode(String value) {
+			return escape(value).getBytes(StandardCharsets.UTF_8);
+		}
+
+		private String escape(String value) {
+			boolean quoted = value.isEmpty();
+			for (int i = 0; i < value.length() && !quoted; i++) {
+				char c = value.charAt(i);
+				quoted = c == separator || c == quote || c == '\n' || c == '\r';
+			}
+			if (!quoted) {
+				return value;
+			}
+			String quoteString = String.valueOf((char) quote);
+			return quoteString + value.replace(quoteString, quoteString + quoteString) + quoteString;
+		}
+
+	}
+
+	/**
+	 * Formats blocks of rows into a byte buffer. Every formatter is used by a single worker at a time.
+	 */
+	private static final class BlockFormatter {
+
+		private final Export export;
+		private final ByteSink sink;
+		private final FieldWriter[] fields;
+
+		private BlockFormatter(Export export, ByteSink sink) {
+			this.export = export;
+			this.sink = sink;
+			this.fields = new FieldWriter[export.table.width()];
+			for (int i = 0; i < fields.length; i++) {
+				Column column = export.table.column(i);
+				TypeId id = column.type().id();
+				if (export.dictionaries[i] != null) {
+					fields[i] = new CategoricalFieldWriter(column, export.dictionaries[i]);
+				} else if (id == TypeId.REAL || id == TypeId.INTEGER_53_BIT) {
+					fields[i] = new NumericFieldWriter(column, id == TypeId.INTEGER_53_BIT);
+				} else {
+					fields[i] = new ObjectFieldWriter(column, export, export.blockRows);
+				}
+			}
+		}
+
+		/**
+		 * Replaces the content of the sink with the rows in the range {@code [start, end)}.
+		 */
+		private void format(int start, int end) {
+			sink.clear();
+			for (FieldWriter field : fields) {
+				field.load(start, end);
+			}
+			for (int row = 0; row < end - start; row++) {
+				for (int i = 0; i < fields.length; i++) {
+					if (i > 0) {
+						sink.put(export.separator);
+					}
+					fields[i].write(row, sink);
+				}
+				sink.put((byte) '\n');
+			}
+		}
+
+	}
+
+	/**
+	 * Writes the fields of one column.
+	 */
+	private abstract static class FieldWriter {
+
+		/**
+		 * Loads the values of the rows in the range {@code [start, end)}.
+		 */
+		abstract void load(int start, int end);
+
+		/**
+		 * Writes the value with the given index in the loaded range.
+		 */
+		abstract void write(int index, ByteSink sink);
+
+	}
+
+	private static final class NumericFieldWriter extends FieldWriter {
+
+		private final Column column;
+		private final boolean integer;
+		private DoubleBuffer block;
+
+		private NumericFieldWriter(Column column, boolean integer) {
+			this.column = column;
+			this.integer = integer;
+		}
+
+		@Override
+		void load(int start, int end) {
+			block = Readers.numericBlockReader(column, end - start, start, end).next();
+		}
+
+		@Override
+		void write(int index, ByteSink sink) {
+			double value = block.get(index);
+			if (Double.isNaN(value)) {
+				return;
+			}
+			if (integer && !Double.isInfinite(value)) {
+				sink.putLong((long) value);
+			} else {
+				putDouble(value, sink);
+			}
+		}
+
+	}
+
+	private static final class CategoricalFieldWriter extends FieldWriter {
+
+		private final Column column;
+		private final byte[][] dictionary;
+		private IntBuffer block;
+
+		private CategoricalFieldWriter(Column column, byte[][] dictionary) {
+			this.column = column;
+			this.dictionary = dictionary;
+		}
+
+		@Override
+		void load(int start, int end) {
+			block = Readers.categoricalBlockReader(column, end - start, start, end).next();
+		}
+
+		@Override
+		void write(int index, ByteSink sink) {
+			sink.put(dictionary[block.get(index)]);
+		}
+
+	}
+
+	private static final class ObjectFieldWriter extends FieldWriter {
+
+		private final Column column;
+		private final Export export;
+		private final Object[] block;
+
+		private ObjectFieldWriter(Column column, Export export, int blockRows) {
+			this.column = column;
+			this.export = export;
+			this.block = new Object[Math.min(blockRows, column.size())];
+		}
+
+		@Override
+		void load(int start, int end) {
+			column.fill(block, start);
+		}
+
+		@Override
+		void write(int index, ByteSink sink) {
+			Object value = block[index];
+			if (value != null) {
+				sink.put(export.encode(value.toString()));
+			}
+		}
+
+	}
+
+	/**
+	 * Writes the shortest decimal representation with at most 17 fractional digits whose digits form an integer below
+	 * 2^53. Since both the integer and the power of ten are exactly representable, a correctly rounded division
+	 * recovers the value, so the representation is parsed back to the same value. All other values are formatted via
+	 * {@link Double#toString(double)}.
+	 */
+	private static void putDouble(double value, ByteSink sink) {
+		double abs = Math.abs(value);
+		if (!Double.isInfinite(value)) {
+			for (int scale = 0; scale < POWERS_OF_TEN.length; scale++) {
+				double scaled = abs * POWERS_OF_TEN[scale];
+				if (scaled >= MAX_EXACT_MANTISSA) {
+					break;
+				}
+				long mantissa = Math.round(scaled);
+				if (mantissa / POWERS_OF_TEN[scale] == abs) {
+					if (Double.doubleToRawLongBits(value) < 0) {
+						sink.put((byte) '-');
+					}
+					sink.putDecimal(mantissa, scale);
+					return;
+				}
+			}
+		}
+		sink.putAscii(Double.toString(value));
+	}
+
+	/**
+	 * Growable byte buffer.
+	 */
+	private static final class ByteSink {
+
+		private byte[] data;
+		private int size;
+		private final byte[] digits = new byte[20];
+
+		/**
+		 * Creates a sink with room for the given number of values of typical length.
+		 */
+		private ByteSink(int values) {
+			this.data = new byte[Math.max(64, Math.min(values, 1 << 16) * 16)];
+		}
+
+		private void clear() {
+			size = 0;
+		}
+
+		private void ensure(int additional) {
+			if (data.length - size < additional) {
+				data = Arrays.copyOf(data, Math.max(size + additional, 2 * data.length));
+			}
+		}
+
+		private void put(byte value) {
+			ensure(1);
+			data[size++] = value;
+		}
+
+		private void put(byte[] bytes) {
+			ensure(bytes.length);
+			System.arraycopy(bytes, 0, data, size, bytes.length);
+			size += bytes.length;
+		}
+
+		/**
+		 * Writes a string consisting only of ASCII characters.
+		 */
+		private void putAscii(String value) {
+			ensure(value.length());
+			for (int i = 0; i < value.length(); i++) {
+				data[size++] = (byte) value.charAt(i);
+			}
+		}
+
+		private void putLong(long value) {
+			if (value < 0) {
+				put((byte) '-');
+				putDecimal(-value, 0);
+			} else {
+				putDecimal(value, 0);
+			}
+		}
+
+		/**
+		 * Writes the non-negative mantissa times ten to the power of minus scale.
+		 */
+		private void putDecimal(long mantissa, int scale) {
+			int length = 0;
+			long remaining = mantissa;
+			do {
+				digits[length++] = (byte) ('0' + remaining % 10);
+				remaining /= 10;
+			} while (remaining > 0 || length <= scale);
+			ensure(length + 1);
+			for (int i = length - 1; i >= 0; i--) {
+				data[size++] = digits[i];
+				if (i == scale && scale > 0) {
+					data[size++] = '.';
+				}
+			}
+		}
+
+		private void writeTo(WritableByteChannel channel) throws IOException {
+			ByteBuffer buffer = ByteBuffer.wrap(data, 0, size);
+			while (buffer.hasRemaining()) {
+				channel.write(buffer);
+			}
+			size = 0;
+		}
+
+	}
+
+}
@@ -0,0 +1,192 @@
+/**
+ * This file is part of the RapidMiner Belt project.
+ * Copyright (C) 2017-2021 RapidMiner GmbH
+ *
+ * This program is free software: you can redistribute it and/or modify it under the terms of the GNU Affero General
+ * Public License as published by the Free Software Foundation, either version 3 of the License, or (at your option) any
+ * later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied
+ * warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU Affero General Public License along with this program. If not, see
+ * https://www.gnu.org/licenses/.
+ */
+
+
+package com.rapidminer.belt.table;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+
+import com.rapidminer.belt.column.Column;
+import com.rapidminer.belt.execution.Context;
+import com.rapidminer.belt.execution.ExecutionUtils;
+import com.rapidminer.belt.util.IntegerArrayBuilder;
+
+
+/**
+ * Finds the first row of every distinct combination of key values. The key values of every row are encoded as tuple
+ * of long values by a {@link KeyTupleReader} and deduplicated via a {@link LongTupleHashTable}, so no row objects are
+ * created and no values are boxed. In contrast to joins and filters, missing values are regular key values, i.e.,
+ * rows with missing values in the same key columns and equal other key values are duplicates.
+ *
+ * <p>Large tables are processed in two parallel phases: First, every task finds the first occurrences within its
+ * range of rows. Then, these candidates are split into partitions by their hash and every partition is deduplicated
+ * independently, visiting the candidates in row order. Thus, the result is the same as for the sequential
+ * computation.
+ *
+ * @author Michael Knopf
+ */
+final class DistinctRows {
+
+	private static final int BATCH_SIZE = 1 << 10;
+
+	/**
+	 * The minimal number of rows processed by a single task.
+	 */
+	private static final int MIN_ROWS_PER_TASK = 1 << 16;
+
+	/**
+	 * The maximal number of hash partitions, the partitions are selected by the highest bits of the hash.
+	 */
+	private static final int MAX_PARTITIONS = 1 << 8;
+
+	// Suppress default constructor for noninstantiability
+	private DistinctRows() {
+		throw new AssertionError();
+	}
+
+	/**
+	 * The distinct key tuples of a range of rows together with the row of their first occurrence.
+	 */
+	private static final class Candidates {
+
+		private final LongTupleHashTable table;
+		private final int[] rows;
+		private byte[] partitions;
+
+		private Candidates(LongTupleHashTable table, int[] rows) {
+			this.table = table;
+			this.rows = rows;
+		}
+
+	}
+
+	/**
+	 * Returns the first row of every distinct combination of key values.
+	 *
+	 * @param keys
+	 * 		the key columns, must be supported by {@link KeyTupleReader}
+	 * @param height
+	 * 		the number of rows
+	 * @param context
+	 * 		the execution context
+	 * @return the rows in ascending order
+	 */
+	static int[] firstRows(Column[] keys, int height, Context context) {
+		int numberOfTasks = Math.max(1, Math.min(context.getParallelism(), height / MIN_ROWS_PER_TASK));
+		if (numberOfTasks == 1) {
+			return candidates(keys, 0, height, context).rows;
+		}
+
+		// first phase: the first occurrences per range of rows
+		int width = KeyTupleReader.width(keys);
+		int rowsPerTask = height / numberOfTasks + (height % numberOfTasks == 0 ? 0 : 1);
+		int numberOfPartitions = Math.min(MAX_PARTITIONS, Integer.highestOneBit(context.getParallelism() * 2 - 1));
+		int shift = Integer.SIZE - Integer.numberOfTrailingZeros(numberOfPartitions);
+		List<Callable<Candidates>> tasks = new ArrayList<>(numberOfTasks);
+		for (int t = 0; t < numberOfTasks; t++) {
+			int from = t * rowsPerTask;
+			int to = Math.min(height, from + rowsPerTask);
+			tasks.add(() -> {
+				Candidates candidates = candidates(keys, from, to, context);
+				candidates.partitions = partitions(candidates.table, width, shift);
+				return candidates;
+			});
+		}
+		List<Candidates> ranges = ExecutionUtils.run(tasks, context);
+
+		// second phase: deduplicate the candidates of every partition in row order
+		int numberOfCandidates = 0;
+		for (Candidates candidates : ranges) {
+			numberOfCandidates += candidates.rows.length;
+		}
+		int expectedPartitionSize = numberOfCandidates / numberOfPartitions;
+		boolean[] first = new boolean[height];
+		List<Callable<Void>> partitionTasks = new ArrayList<>(numberOfPartitions);
+		for (int p = 0; p < numberOfPartitions; p++) {
+			byte partition = (byte) p;
+			partitionTasks.add(() -> {
+				LongTupleHashTable table = new LongTupleHashTable(width, expectedPartitionSize);
+				for (Candidates candidates : ranges) {
+					long[] tuples = candidates.table.tuples();
+					for (int id = 0; id < candidates.rows.length; id++) {
+						if (candidates.partitions[id] == partition) {
+							int size = table.size();
+							if (table.getOrInsert(tuples, id * width) == size) {
+								first[candidates.rows[id]] = true;
+							}
+						}
+					}
+					context.requireActive();
+				}
+				return null;
+			});
+		}
+		ExecutionUtils.run(partitionTasks, context);
+
+		int count = 0;
+		for (boolean isFirst : first) {
+			if (isFirst) {
+				count++;
+			}
+		}
+		int[] rows = new int[count];
+		int index = 0;
+		for (int row = 0; row < height; row++) {
+			if (first[row]) {
+				rows[index++] = row;
+			}
+		}
+		return rows;
+	}
+
+	/**
+	 * Finds the distinct key tuples of the rows in the given range.
+	 */
+	private static Candidates candidates(Column[] keys, int from, int to, Context context) {
+		KeyTupleReader reader = new KeyTupleReader(keys, BATCH_SIZE);
+		int width = reader.width();
+		long[] tuples = new long[BATCH_SIZE * width];
+		LongTupleHashTable table = new LongTupleHashTable(width, Math.min(1 << 16, (to - from) / 4));
+		IntegerArrayBuilder rows = new IntegerArrayBuilder();
+		for (int start = from; start < to; start += BATCH_SIZE) {
+			int length = Math.min(BATCH_SIZE, to - start);
+			reader.read(start, length, tuples, null);
+			for (int i = 0; i < length; i++) {
+				int size = table.size();
+				if (table.getOrInsert(tuples, i * width) == size) {
+					rows.setNext(start + i);
+				}
+			}
+			context.requireActive();
+		}
+		return new Candidates(table, rows.getData());
+	}
+
+	/**
+	 * Assigns every tuple of the table to a partition via the highest bits of its hash.
+	 */
+	private static byte[] partitions(LongTupleHashTable table, int width, int shift) {
+		long[] tuples = table.tuples();
+		byte[] partitions = new byte[table.size()];
+		for (int id = 0; id < partitions.length; id++) {
+			partitions[id] = (byte) (table.hash(tuples, id * width) >>> shift);
+		}
+		return partitions;
+	}
+
+}
@@ -0,0 +1,734 @@
+/**
+ * This file is part of the RapidMiner Belt project.
+ * Copyright (C) 2017-2021 RapidMiner GmbH
+ *
+ * This program is free software: you can redistribute it and/or modify it under the terms of the GNU Affero General
+ * Public License as published by the Free Software Foundation, either version 3 of the License, or (at your option) any
+ * later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied
+ * warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU Affero General Public License along with this program. If not, see
+ * https://www.gnu.org/licenses/.
+ */
+
+package com.rapidminer.belt.table;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.PriorityQueue;
+
+import com.rapidminer.belt.column.Column;
+import com.rapidminer.belt.column.ColumnIO;
+import com.rapidminer.belt.column.ColumnType;
+import com.rapidminer.belt.execution.Context;
+import com.rapidminer.belt.execution.ExecutionUtils;
+import com.rapidminer.belt.util.ColumnMetaData;
+import com.rapidminer.belt.util.Order;
+
+
+/**
+ * Sorts tables that do not fit into memory as a whole. Tables are {@link #add(Table, Context) added} chunk by chunk.
+ * As soon as the buffered chunks exceed the {@link #memoryBudget(long) memory budget}, they are sorted in memory and
+ * spilled to a temporary run file using the {@link ColumnIO} encodings. {@link #merge(int, Context)} then performs a
+ * k-way merge of all runs and returns the sorted result as a sequence of tables of bounded height.
+ *
+ * <p>The result is the same as appending all chunks and calling {@link Table#sort(List, List, Context)} on the
+ * result, i.e., the sort is stable and missing values are sorted last for {@link Order#ASCENDING} and first for
+ * {@link Order#DESCENDING}.
+ *
+ * <p>Only columns of type {@link Column.TypeId#REAL}, {@link Column.TypeId#INTEGER_53_BIT}, {@link
+ * Column.TypeId#TIME}, {@link Column.TypeId#DATE_TIME} and {@link Column.TypeId#NOMINAL} are supported. The temporary
+ * files are deleted on {@link #close()}.
+ *
+ * <p>This class is not thread-safe.
+ *
+ * @author Michael Knopf
+ */
+public final class ExternalSorter implements AutoCloseable {
+
+	/**
+	 * The default memory budget for buffered chunks and merge blocks in bytes.
+	 */
+	public static final long DEFAULT_MEMORY_BUDGET = 64L << 20;
+
+	/**
+	 * The minimal number of rows read from a run at once during the merge.
+	 */
+	private static final int MIN_BLOCK_ROWS = 256;
+
+	private static final String MESSAGE_CONTEXT_NULL = "Context must not be null";
+
+	private final List<String> sortLabels;
+	private final List<Order> orders;
+
+	private long memoryBudget = DEFAULT_MEMORY_BUDGET;
+	private Path directory;
+
+	private String[] labels;
+	private Column.TypeId[] types;
+	private int[] keyIndices;
+	private Map<String, List<ColumnMetaData>> metaData;
+	private long rowBytes;
+
+	private final List<Table> pending = new ArrayList<>();
+	private long pendingBytes;
+
+	private final List<SpillFile> runs = new ArrayList<>();
+	private boolean merged;
+	private MergeIterator merger;
+
+	/**
+	 * Creates a new external sorter that sorts by the given columns using the given sorting orders.
+	 *
+	 * @param columns
+	 * 		the labels of the columns to sort by
+	 * @param orders
+	 * 		the sorting order for every column
+	 * @throws NullPointerException
+	 * 		if any of the arguments is or contains {@code null}
+	 * @throws IllegalArgumentException
+	 * 		if the column list is empty or the column and order lists differ in size
+	 */
+	public ExternalSorter(List<String> columns, List<Order> orders) {
+		Objects.requireNonNull(columns, "Column list must not be null");
+		Objects.requireNonNull(orders, "Order list must not be null");
+		if (columns.isEmpty()) {
+			throw new IllegalArgumentException("Column list must not be empty");
+		}
+		if (columns.size() != orders.size()) {
+			throw new IllegalArgumentException("Order list and column list must be of same length");
+		}
+		for (String column : columns) {
+			Objects.requireNonNull(column, "Column list must not contain null items");
+		}
+		for (Order order : orders) {
+			Objects.requireNonNull(order, "Order list must not contain null items");
+		}
+		this.sortLabels = new ArrayList<>(columns);
+		this.orders = new ArrayList<>(orders);
+	}
+
+	/**
+	 * Creates a new external sorter that sorts by the given columns using the same sorting order for all columns.
+	 *
+	 * @param columns
+	 * 		the labels of the columns to sort by
+	 * @param order
+	 * 		the sorting order
+	 * @throws NullPointerException
+	 * 		if any of the arguments is or contains {@code null}
+	 * @throws IllegalArgumentException
+	 * 		if the column list is empty
+	 */
+	public ExternalSorter(List<String> columns, Order order) {
+		this(columns, Collections.nCopies(Objects.requireNonNull(columns, "Column list must not be null").size(),
+				Objects.requireNonNull(order, "Order must not be null")));
+	}
+
+	/**
+	 * Sets the number of bytes that buffered chunks may occupy before they are sorted and spilled to disk. The same
+	 * budget bounds the blocks read from the runs during the merge. Defaults to {@link #DEFAULT_MEMORY_BUDGET}.
+	 *
+	 * @param bytes
+	 * 		the memory budget in bytes
+	 * @return this sorter
+	 * @throws IllegalArgumentException
+	 * 		if the budget is not positive
+	 */
+	public ExternalSorter memoryBudget(long bytes) {
+		if (bytes <= 0) {
+			throw new IllegalArgumentException("Memory budget must be positive");
+		}
+		this.memoryBudget = bytes;
+		return this;
+	}
+
+	/**
+	 * Sets the directory for the temporary run files. Defaults to the system's default temporary-file directory.
+	 *
+	 * @param directory
+	 * 		the directory for temporary files
+	 * @return this sorter
+	 * @throws NullPointerException
+	 * 		if the directory is {@code null}
+	 */
+	public ExternalSorter directory(Path directory) {
+		this.directory = Objects.requireNonNull(directory, "Directory must not be null");
+		return this;
+	}
+
+	/**
+	 * Adds the given chunk to the sorter. The first chunk defines the schema, all further chunks must contain the same
+	 * column labels with the same types. If the buffered chunks exceed the memory budget, they are sorted and spilled
+	 * to disk.
+	 *
+	 * @param chunk
+	 * 		the chunk to add
+	 * @param context
+	 * 		the execution context to use for sorting
+	 * @throws NullPointerException
+	 * 		if any of the arguments is {@code null}
+	 * @throws IllegalArgumentException
+	 * 		if the chunk does not match the schema, does not contain the sort columns or contains unsupported column
+	 * 		types
+	 * @throws IllegalStateException
+	 * 		if {@link #merge(int, Context)} was already called
+	 * @throws UncheckedIOException
+	 * 		if writing a run file fails
+	 */
+	public void add(Table chunk, Context context) {
+		Objects.requireNonNull(chunk, "Table must not be null");
+		Objects.requireNonNull(context, MESSAGE_CONTEXT_NULL);
+		if (merged) {
+			throw new IllegalStateException("Sorter already merged");
+		}
+		Table conforming = labels == null ? initializeSchema(chunk) : conform(chunk);
+		pending.add(conforming);
+		pendingBytes += conforming.height() * rowBytes;
+		if (pendingBytes >= memoryBudget) {
+			spill(context);
+		}
+	}
+
+	/**
+	 * Merges all added chunks and returns the sorted result as a sequence of tables with at most the given number of
+	 * rows each. If no chunk was spilled to disk, the chunks are sorted in memory. After calling this method, no
+	 * further chunks can be added.
+	 *
+	 * @param chunkRows
+	 * 		the maximal height of the returned tables
+	 * @param context
+	 * 		the execution context to use
+	 * @return an iterator over the sorted result
+	 * @throws NullPointerException
+	 * 		if the context is {@code null}
+	 * @throws IllegalArgumentException
+	 * 		if the number of rows is not positive
+	 * @throws IllegalStateException
+	 * 		if this method was already called
+	 * @throws UncheckedIOException
+	 * 		if reading or writing a run file fails
+	 */
+	public Iterator<Table> merge(int chunkRows, Context context) {
+		Objects.requireNonNull(context, MESSAGE_CONTEXT_NULL);
+		if (chunkRows <= 0) {
+			throw new IllegalArgumentException("Number of rows must be positive");
+		}
+		if (merged) {
+			throw new IllegalStateException("Sorter already merged");
+		}
+		merged = true;
+		if (labels == null) {
+			return Collections.emptyIterator();
+		}
+		if (runs.isEmpty()) {
+			Table sorted = sortPending(context);
+			pending.clear();
+			return new SliceIterator(sorted, chunkRows, context);
+		}
+		if (!pending.isEmpty()) {
+			spill(context);
+		}
+		merger = new MergeIterator(chunkRows, context);
+		return merger;
+	}
+
+	/**
+	 * @return the number of runs spilled to disk so far
+	 */
+	public int numberOfRuns() {
+		return runs.size();
+	}
+
+	/**
+	 * Closes the run files still open by the merge iterator and deletes all temporary run files.
+	 *
+	 * @throws UncheckedIOException
+	 * 		if deleting a file fails
+	 */
+	@Override
+	public void close() {
+		IOException failure = merger == null ? null : merger.closeCursors();
+		for (SpillFile run : runs) {
+			try {
+				Files.deleteIfExists(run.file);
+			} catch (IOException e) {
+				failure = e;
+			}
+		}
+		runs.clear();
+		pending.clear();
+		if (failure != null) {
+			throw new UncheckedIOException(failure);
+		}
+	}
+
+	/**
+	 * Fixes the schema to the one of the first chunk.
+	 */
+	private Table initializeSchema(Table chunk) {
+		keyIndices = new int[sortLabels.size()];
+		for (int i = 0; i < keyIndices.length; i++) {
+			String label = sortLabels.get(i);
+			if (!chunk.contains(label)) {
+				throw new IllegalArgumentException("Invalid column label: " + label);
+			}
+			keyIndices[i] = chunk.index(label);
+		}
+		types = new Column.TypeId[chunk.width()];
+		for (int i = 0; i < types.length; i++) {
+			types[i] = chunk.column(i).type().id();
+			rowBytes += SpillFile.bytesPerRow(types[i], chunk.label(i));
+		}
+		labels = chunk.labelArray();
+		metaData = chunk.getMetaData();
+		return chunk;
+	}
+
+	/**
+	 * Reorders the columns of the chunk to match the schema and checks the column types.
+	 */
+	private Table conform(Table chunk) {
+		if (chunk.width() != labels.length) {
+			throw new IllegalArgumentException("Table width " + chunk.width() + " does not match " + labels.length);
+		}
+		Table reordered = chunk.columns(Arrays.asList(labels));
+		for (int i = 0; i < types.length; i++) {
+			if (reordered.column(i).type().id() != types[i]) {
+				throw new IllegalArgumentException("Column " + labels[i] + " must be of type " + types[i]);
+			}
+		}
+		return reordered;
+	}
+
+	/**
+	 * Appends and sorts all pending chunks.
+	 */
+	private Table sortPending(Context context) {
+		Table all = pending.size() == 1 ? pending.get(0) : Appender.append(pending, null, context);
+		return all.sort(keyIndices, orders, context);
+	}
+
+	/**
+	 * Sorts the pending chunks and writes them to a new run file.
+	 */
+	private void spill(Context context) {
+		Table sorted = sortPending(context);
+		pending.clear();
+		pendingBytes = 0;
+		if (sorted.height() > 0) {
+			try {
+				runs.add(SpillFile.write(sorted, types, directory, "belt-sort-", ".run"));
+			} catch (IOException e) {
+				throw new UncheckedIOException(e);
+			}
+		}
+	}
+
+	/**
+	 * A block of consecutive rows of a run decoded into primitive arrays. Nominal columns use global category indices.
+	 */
+	private static final class Block {
+
+		private final double[][] doubles;
+		private final long[][] longs;
+		private final int[][] ints;
+
+		private Block(int width) {
+			doubles = new double[width][];
+			longs = new long[width][];
+			ints = new int[width][];
+		}
+
+	}
+
+	/**
+	 * Reads the blocks of a single run. The run file stays open for reading until the last block is loaded or the
+	 * cursor is closed.
+	 */
+	private final class Cursor {
+
+		private final SpillFile run;
+		private final int runIndex;
+		private final int[][] remapping;
+		private final int blockRows;
+		private final ByteBuffer buffer;
+		private Block block;
+		private int blockLength;
+		private int row;
+		private int nextStart;
+		private FileChannel channel;
+
+		private Cursor(SpillFile run, int runIndex, int[][] remapping, int blockRows) {
+			this.run = run;
+			this.runIndex = runIndex;
+			this.remapping = remapping;
+			this.blockRows = blockRows;
+			this.buffer = ByteBuffer.allocate(blockRows * SpillFile.BYTES_PER_LONG).order(ByteOrder.LITTLE_ENDIAN);
+		}
+
+		/**
+		 * Moves to the next row and returns whether there is one.
+		 */
+		private boolean advance() throws IOException {
+			row++;
+			if (row < blockLength) {
+				return true;
+			}
+			if (nextStart >= run.height) {
+				return false;
+			}
+			load();
+			return true;
+		}
+
+		private void load() throws IOException {
+			int length = Math.min(blockRows, run.height - nextStart);
+			Block next = new Block(types.length);
+			if (channel == null) {
+				channel = FileChannel.open(run.file, StandardOpenOption.READ);
+			}
+			for (int i = 0; i < types.length; i++) {
+				switch (types[i]) {
+					case REAL:
+					case INTEGER_53_BIT:
+						read(channel, run.offsets[i], SpillFile.BYTES_PER_LONG, length);
+						next.doubles[i] = new double[length];
+						buffer.asDoubleBuffer().get(next.doubles[i]);
+						break;
+					case TIME:
+						read(channel, run.offsets[i], SpillFile.BYTES_PER_LONG, length);
+						next.longs[i] = new long[length];
+						buffer.asLongBuffer().get(next.longs[i]);
+						break;
+					case DATE_TIME:
+						read(channel, run.offsets[i], SpillFile.BYTES_PER_LONG, length);
+						next.longs[i] = new long[length];
+						buffer.asLongBuffer().get(next.longs[i]);
+						if (run.nanoOffsets[i] >= 0) {
+							read(channel, run.nanoOffsets[i], SpillFile.BYTES_PER_INT, length);
+							next.ints[i] = new int[length];
+							buffer.asIntBuffer().get(next.ints[i]);
+						}
+						break;
+					case NOMINAL:
+						read(channel, run.offsets[i], SpillFile.BYTES_PER_INT, length);
+						int[] indices = new int[length];
+						buffer.asIntBuffer().get(indices);
+						int[] remap = remapping[i];
+						for (int j = 0; j < length; j++) {
+							indices[j] = remap[indices[j]];
+						}
+						next.ints[i] = indices;
+						break;
+					default:
+						throw new AssertionError();
+				}
+			}
+			block = next;
+			blockLength = length;
+			row = 0;
+			nextStart += length;
+			if (nextStart >= run.height) {
+				close();
+			}
+		}
+
+		/**
+		 * Closes the run file if it is still open.
+		 */
+		private void close() throws IOException {
+			if (channel != null) {
+				FileChannel open = channel;
+				channel = null;
+				open.close();
+			}
+		}
+
+		private void read(FileChannel channel, long sectionStart, int bytesPerValue, int length) throws IOException {
+			run.read(channel, sectionStart, bytesPerValue, nextStart, length, buffer);
+		}
+
+	}
+
+	/**
+	 * Returns consecutive slices of an in-memory sorted table.
+	 */
+	private static final class SliceIterator implements Iterator<Table> {
+
+		private final Table table;
+		private final int chunkRows;
+		private final Context context;
+		private int start;
+
+		private SliceIterator(Table table, int chunkRows, Context context) {
+			this.table = table;
+			this.chunkRows = chunkRows;
+			this.context = context;
+		}
+
+		@Override
+		public boolean hasNext() {
+			return start < table.height();
+		}
+
+		@Override
+		public Table next() {
+			if (!hasNext()) {
+				throw new NoSuchElementException();
+			}
+			int end = (int) Math.min(table.height(), (long) start + chunkRows);
+			Table slice = table.rows(start, end, context);
+			start = end;
+			return slice;
+		}
+
+	}
+
+	/**
+	 * Merges the runs using a priority queue over one cursor per run.
+	 */
+	private final class MergeIterator implements Iterator<Table> {
+
+		private final int chunkRows;
+		private final Context context;
+		private final List<String>[] dictionaries;
+		private final int[][] ranks;
+		private final PriorityQueue<Cursor> queue;
+		private final List<Cursor> cursors;
+
+		@SuppressWarnings("unchecked")
+		private MergeIterator(int chunkRows, Context context) {
+			this.chunkRows = chunkRows;
+			this.context = context;
+			int width = types.length;
+			dictionaries = (List<String>[]) new List<?>[width];
+			ranks = new int[width][];
+			int[][][] remappings = new int[runs.size()][width][];
+			for (int i = 0; i < width; i++) {
+				if (types[i] == Column.TypeId.NOMINAL) {
+					mergeDictionaries(i, remappings);
+				}
+			}
+			long blockBytes = memoryBudget / ((runs.size() + 1L) * Math.max(rowBytes, 1));
+			int blockRows = (int) Math.max(MIN_BLOCK_ROWS,
+					Math.min(blockBytes, Integer.MAX_VALUE / SpillFile.BYTES_PER_LONG));
+			queue = new PriorityQueue<>(runs.size(), this::compare);
+			cursors = new ArrayList<>(runs.size());
+			try {
+				for (int r = 0; r < runs.size(); r++) {
+					Cursor cursor = new Cursor(runs.get(r), r, remappings[r], blockRows);
+					cursors.add(cursor);
+					cursor.load();
+					queue.add(cursor);
+				}
+			} catch (IOException e) {
+				throw fail(e);
+			}
+		}
+
+		/**
+		 * Closes the run files of all cursors and wraps the failure.
+		 */
+		private UncheckedIOException fail(IOException failure) {
+			IOException closing = closeCursors();
+			if (closing != null) {
+				failure.addSuppressed(closing);
+			}
+			return new UncheckedIOException(failure);
+		}
+
+		/**
+		 * Closes the run files of all cursors and returns the first failure, if any, with further failures suppressed.
+		 */
+		private IOException closeCursors() {
+			IOException failure = null;
+			for (Cursor cursor : cursors) {
+				try {
+					cursor.close();
+				} catch (IOException e) {
+					if (failure == null) {
+						failure = e;
+					} else {
+						failure.addSuppressed(e);
+					}
+				}
+			}
+			return failure;
+		}
+
+		/**
+		 * Builds the union of the run dictionaries of the given column, the remapping of every run to it and the
+		 * sorting rank of every category index so that categories can be compared as integers.
+		 */
+		private void mergeDictionaries(int column, int[][][] remappings) {
+			LinkedHashSet<String> union = new LinkedHashSet<>();
+			union.add(null);
+			for (SpillFile run : runs) {
+				union.addAll(run.dictionaries[column]);
+			}
+			List<String> values = new ArrayList<>(union);
+			Map<String, Integer> indices = new HashMap<>();
+			for (int i = 1; i < values.size(); i++) {
+				indices.put(values.get(i), i);
+			}
+			for (int r = 0; r < runs.size(); r++) {
+				List<String> runDictionary = runs.get(r).dictionaries[column];
+				int[] remap = new int[runDictionary.size()];
+				for (int i = 1; i < remap.length; i++) {
+					String value = runDictionary.get(i);
+					remap[i] = value == null ? 0 : indices.get(value);
+				}
+				remappings[r][column] = remap;
+			}
+			Comparator<String> comparator = Comparator.nullsLast(ColumnType.NOMINAL.comparator());
+			Integer[] byValue = new Integer[values.size()];
+			for (int i = 0; i < byValue.length; i++) {
+				byValue[i] = i;
+			}
+			Arrays.sort(byValue, (a, b) -> comparator.compare(values.get(a), values.get(b)));
+			int[] rank = new int[values.size()];
+			for (int i = 0; i < byValue.length; i++) {
+				rank[byValue[i]] = i;
+			}
+			dictionaries[column] = values;
+			ranks[column] = rank;
+		}
+
+		private int compare(Cursor a, Cursor b) {
+			for (int k = 0; k < keyIndices.length; k++) {
+				int column = keyIndices[k];
+				int result = compare(column, a.block, a.row, b.block, b.row);
+				if (result != 0) {
+					return orders.get(k) == Order.DESCENDING ? -result : result;
+				}
+			}
+			return Integer.compare(a.runIndex, b.runIndex);
+		}
+
+		private int compare(int column, Block a, int rowA, Block b, int rowB) {
+			switch (types[column]) {
+				case REAL:
+				case INTEGER_53_BIT:
+					return Double.compare(a.doubles[column][rowA], b.doubles[column][rowB]);
+				case TIME:
+					return Long.compare(a.longs[column][rowA], b.longs[column][rowB]);
+				case DATE_TIME:
+					int result = Long.compare(a.longs[column][rowA], b.longs[column][rowB]);
+					if (result != 0) {
+						return result;
+					}
+					return Integer.compare(nanos(a, column, rowA), nanos(b, column, rowB));
+				case NOMINAL:
+					int[] rank = ranks[column];
+					return Integer.compare(rank[a.ints[column][rowA]], rank[b.ints[column][rowB]]);
+				default:
+					throw new AssertionError();
+			}
+		}
+
+		@Override
+		public boolean hasNext() {
+			return !queue.isEmpty();
+		}
+
+		@Override
+		public Table next() {
+			if (!hasNext()) {
+				throw new NoSuchElementException();
+			}
+			Block[] blocks = new Block[chunkRows];
+			int[] rows = new int[chunkRows];
+			int height = 0;
+			try {
+				while (height < chunkRows && !queue.isEmpty()) {
+					Cursor cursor = queue.poll();
+					blocks[height] = cursor.block;
+					rows[height] = cursor.row;
+					height++;
+					if (cursor.advance()) {
+						queue.add(cursor);
+					}
+				}
+			} catch (IOException e) {
+				throw fail(e);
+			}
+			context.requireActive();
+			Column[] columns = new Column[types.length];
+			int length = height;
+			ExecutionUtils.parallel(0, columns.length, i -> columns[i] = gather(i, blocks, rows, length), context);
+			return new Table(columns, labels, metaData);
+		}
+
+		/**
+		 * Creates the output column from the picked rows.
+		 */
+		private Column gather(int column, Block[] blocks, int[] rows, int length) {
+			switch (types[column]) {
+				case REAL:
+				case INTEGER_53_BIT:
+					double[] doubles = new double[length];
+					for (int i = 0; i < length; i++) {
+						doubles[i] = blocks[i].doubles[column][rows[i]];
+					}
+					return ColumnAccessor.get().newNumericColumn(types[column], doubles);
+				case TIME:
+					long[] nanosOfDay = new long[length];
+					for (int i = 0; i < length; i++) {
+						nanosOfDay[i] = blocks[i].longs[column][rows[i]];
+					}
+					return ColumnAccessor.get().newTimeColumn(nanosOfDay);
+				case DATE_TIME:
+					long[] seconds = new long[length];
+					int[] nanos = null;
+					for (int i = 0; i < length; i++) {
+						seconds[i] = blocks[i].longs[column][rows[i]];
+						int value = nanos(blocks[i], column, rows[i]);
+						if (value != 0 && nanos == null) {
+							nanos = new int[length];
+						}
+						if (nanos != null) {
+							nanos[i] = value;
+						}
+					}
+					return ColumnAccessor.get().newDateTimeColumn(seconds, nanos);
+				case NOMINAL:
+					int[] indices = new int[length];
+					for (int i = 0; i < length; i++) {
+						indices[i] = blocks[i].ints[column][rows[i]];
+					}
+					return ColumnAccessor.get().newCategoricalColumn(ColumnType.NOMINAL, indices,
+							dictionaries[column]);
+				default:
+					throw new AssertionError();
+			}
+		}
+
+		private int nanos(Block block, int column, int row) {
+			int[] nanos = block.ints[column];
+			return nanos == null ? 0 : nanos[row];
+		}
+
+	}
+
+}
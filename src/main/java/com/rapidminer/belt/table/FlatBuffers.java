@@ -0,0 +1,490 @@
+/**
+ * This file is part of the RapidMiner Belt project.
+ * Copyright (C) 2017-2021 RapidMiner GmbH
+ *
+ * This program is free software: you can redistribute it and/or modify it under the terms of the GNU Affero General
+ * Public License as published by the Free Software Foundation, either version 3 of the License, or (at your option) any
+ * later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied
+ * warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU Affero General Public License along with this program. If not, see
+ * https://www.gnu.org/licenses/.
+ */
+
+
+package com.rapidminer.belt.table;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.List;
+
+
+/**
+ * Minimal encoder and decoder for the <a href="https://google.github.io/flatbuffers/">FlatBuffers</a> binary format,
+ * as far as required for the metadata of the Arrow IPC format (see {@link ArrowWriter} and {@link ArrowReader}).
+ *
+ * <p>Objects are described by a tree of {@link Node}s and serialized front to back: every object is written before
+ * the objects it references, so that all offsets point forward as required by the format. Scalars are aligned to their
+ * size and vectors of structs to the struct alignment. Fields of tables are always written, even if they have their
+ * default value.
+ *
+ * @author Michael Knopf
+ */
+final class FlatBuffers {
+
+	private static final int OFFSET_SIZE = 4;
+	private static final int VTABLE_ENTRY_SIZE = 2;
+
+	/**
+	 * A serializable object.
+	 */
+	abstract static class Node {
+
+		/**
+		 * Writes this object to the given sink and returns its position. References to other objects are written as
+		 * placeholders that are registered with the sink.
+		 */
+		abstract int write(Sink sink);
+
+	}
+
+	/**
+	 * A table with scalar fields and fields referencing other objects.
+	 */
+	static final class TableNode extends Node {
+
+		private final List<Field> fields = new ArrayList<>();
+
+		TableNode addBoolean(int id, boolean value) {
+			return addScalar(id, 1, value ? 1 : 0);
+		}
+
+		TableNode addByte(int id, int value) {
+			return addScalar(id, 1, value);
+		}
+
+		TableNode addShort(int id, int value) {
+			return addScalar(id, 2, value);
+		}
+
+		TableNode addInt(int id, int value) {
+			return addScalar(id, 4, value);
+		}
+
+		TableNode addLong(int id, long value) {
+			return addScalar(id, 8, value);
+		}
+
+		TableNode addNode(int id, Node node) {
+			fields.add(new Field(id, OFFSET_SIZE, 0, node));
+			return this;
+		}
+
+		TableNode addString(int id, String value) {
+			return addNode(id, new StringNode(value));
+		}
+
+		private TableNode addScalar(int id, int size, long value) {
+			fields.add(new Field(id, size, value, null));
+			return this;
+		}
+
+		@Override
+		int write(Sink sink) {
+			// place the largest fields first to minimize padding
+			List<Field> sorted = new ArrayList<>(fields);
+			sorted.sort(Comparator.comparingInt((Field field) -> field.size).reversed());
+			int alignment = OFFSET_SIZE;
+			int[] offsets = new int[sorted.size()];
+			int end = OFFSET_SIZE;
+			for (int i = 0; i < sorted.size(); i++) {
+				int size = sorted.get(i).size;
+				alignment = Math.max(alignment, size);
+				end = align(end, size);
+				offsets[i] = end;
+				end += size;
+			}
+			int entries = 0;
+			for (Field field : fields) {
+				entries = Math.max(entries, field.id + 1);
+			}
+
+			sink.alignTo(VTABLE_ENTRY_SIZE);
+			int vtable = sink.size();
+			int vtableSize = 2 * VTABLE_ENTRY_SIZE + entries * VTABLE_ENTRY_SIZE;
+			sink.ensure(vtableSize);
+			sink.putShort(vtableSize);
+			sink.putShort(end);
+			short[] entryOffsets = new short[entries];
+			for (int i = 0; i < sorted.size(); i++) {
+				entryOffsets[sorted.get(i).id] = (short) offsets[i];
+			}
+			for (short entryOffset : entryOffsets) {
+				sink.putShort(entryOffset);
+			}
+
+			sink.alignTo(alignment);
+			int table = sink.size();
+			sink.putInt(table - vtable);
+			for (int i = 0; i < sorted.size(); i++) {
+				Field field = sorted.get(i);
+				sink.pad(table + offsets[i] - sink.size());
+				if (field.node != null) {
+					sink.putReference(field.node);
+				} else {
+					sink.putScalar(field.size, field.value);
+				}
+			}
+			sink.pad(table + end - sink.size());
+			return table;
+		}
+
+	}
+
+	/**
+	 * A UTF-8 string.
+	 */
+	static final class StringNode extends Node {
+
+		private final byte[] bytes;
+
+		StringNode(String value) {
+			this.bytes = value.getBytes(StandardCharsets.UTF_8);
+		}
+
+		@Override
+		int write(Sink sink) {
+			sink.alignTo(OFFSET_SIZE);
+			int position = sink.size();
+			sink.putInt(bytes.length);
+			sink.putBytes(bytes);
+			sink.putScalar(1, 0);
+			return position;
+		}
+
+	}
+
+	/**
+	 * A vector of references to other objects, e.g., tables.
+	 */
+	static final class VectorNode extends Node {
+
+		private final List<? extends Node> elements;
+
+		VectorNode(List<? extends Node> elements) {
+			this.elements = elements;
+		}
+
+		@Override
+		int write(Sink sink) {
+			sink.alignTo(OFFSET_SIZE);
+			int position = sink.size();
+			sink.putInt(elements.size());
+			for (Node element : elements) {
+				sink.putReference(element);
+			}
+			return position;
+		}
+
+	}
+
+	/**
+	 * A vector of structs given as little-endian encoded bytes.
+	 */
+	static final class StructVectorNode extends Node {
+
+		private final ByteBuffer structs;
+		private final int count;
+		private final int alignment;
+
+		/**
+		 * @param structs
+		 * 		the encoded structs between position and limit
+		 * @param count
+		 * 		the number of structs
+		 * @param alignment
+		 * 		the alignment of the structs
+		 */
+		StructVectorNode(ByteBuffer structs, int count, int alignment) {
+			this.structs = structs;
+			this.count = count;
+			this.alignment = alignment;
+		}
+
+		@Override
+		int write(Sink sink) {
+			// the elements following the length must be aligned
+			sink.pad((alignment - (sink.size() + OFFSET_SIZE) % alignment) % alignment);
+			int position = sink.size();
+			sink.putInt(count);
+			ByteBuffer duplicate = structs.duplicate();
+			byte[] bytes = new byte[duplicate.remaining()];
+			duplicate.get(bytes);
+			sink.putBytes(bytes);
+			return position;
+		}
+
+	}
+
+	/**
+	 * Serializes the given root table.
+	 *
+	 * @param root
+	 * 		the root table
+	 * @return the serialized buffer
+	 */
+	static byte[] serialize(TableNode root) {
+		Sink sink = new Sink();
+		sink.putReference(root);
+		while (!sink.pending.isEmpty()) {
+			Reference reference = sink.pending.poll();
+			int position = reference.node.write(sink);
+			sink.patch(reference.position, position - reference.position);
+		}
+		return Arrays.copyOf(sink.data, sink.size);
+	}
+
+	/**
+	 * Read-only view of a serialized table.
+	 */
+	static final class TableView {
+
+		private final ByteBuffer buffer;
+		private final int position;
+
+		private TableView(ByteBuffer buffer, int position) {
+			this.buffer = buffer;
+			this.position = position;
+		}
+
+		/**
+		 * Returns the root table of the given buffer. The buffer is read from index {@code 0} in little-endian byte
+		 * order.
+		 *
+		 * @param buffer
+		 * 		the serialized buffer
+		 * @return the root table
+		 */
+		static TableView root(ByteBuffer buffer) {
+			ByteBuffer ordered = buffer.duplicate().order(ByteOrder.LITTLE_ENDIAN);
+			return new TableView(ordered, ordered.getInt(0));
+		}
+
+		private int fieldPosition(int id) {
+			int vtable = position - buffer.getInt(position);
+			int vtableSize = Short.toUnsignedInt(buffer.getShort(vtable));
+			int entry = 2 * VTABLE_ENTRY_SIZE + id * VTABLE_ENTRY_SIZE;
+			if (entry + VTABLE_ENTRY_SIZE > vtableSize) {
+				return -1;
+			}
+			int offset = Short.toUnsignedInt(buffer.getShort(vtable + entry));
+			return offset == 0 ? -1 : position + offset;
+		}
+
+		private int target(int fieldPosition) {
+			return fieldPosition + buffer.getInt(fieldPosition);
+		}
+
+		boolean has(int id) {
+			return fieldPosition(id) >= 0;
+		}
+
+		boolean getBoolean(int id, boolean defaultValue) {
+			int field = fieldPosition(id);
+			return field < 0 ? defaultValue : buffer.get(field) != 0;
+		}
+
+		int getByte(int id, int defaultValue) {
+			int field = fieldPosition(id);
+			return field < 0 ? defaultValue : Byte.toUnsignedInt(buffer.get(field));
+		}
+
+		int getShort(int id, int defaultValue) {
+			int field = fieldPosition(id);
+			return field < 0 ? defaultValue : buffer.getShort(field);
+		}
+
+		int getInt(int id, int defaultValue) {
+			int field = fieldPosition(id);
+			return field < 0 ? defaultValue : buffer.getInt(field);
+		}
+
+		long getLong(int id, long defaultValue) {
+			int field = fieldPosition(id);
+			return field < 0 ? defaultValue : buffer.getLong(field);
+		}
+
+		/**
+		 * @return the referenced table or {@code null} if the field is not set
+		 */
+		TableView getTable(int id) {
+			int field = fieldPosition(id);
+			return field < 0 ? null : new TableView(buffer, target(field));
+		}
+
+		/**
+		 * @return the referenced string or {@code null} if the field is not set
+		 */
+		String getString(int id) {
+			int field = fieldPosition(id);
+			if (field < 0) {
+				return null;
+			}
+			int string = target(field);
+			byte[] bytes = new byte[buffer.getInt(string)];
+			ByteBuffer duplicate = buffer.duplicate();
+			duplicate.position(string + OFFSET_SIZE);
+			duplicate.get(bytes);
+			return new String(bytes, StandardCharsets.UTF_8);
+		}
+
+		/**
+		 * @return the length of the referenced vector or {@code 0} if the field is not set
+		 */
+		int getVectorLength(int id) {
+			int field = fieldPosition(id);
+			return field < 0 ? 0 : buffer.getInt(target(field));
+		}
+
+		/**
+		 * Returns the table at the given index of a vector of tables.
+		 */
+		TableView getTable(int id, int index) {
+			int element = target(fieldPosition(id)) + OFFSET_SIZE + index * OFFSET_SIZE;
+			return new TableView(buffer, target(element));
+		}
+
+		/**
+		 * Returns a long value of the struct at the given index of a vector of structs.
+		 *
+		 * @param id
+		 * 		the field id of the vector
+		 * @param index
+		 * 		the index of the struct
+		 * @param structSize
+		 * 		the size of the struct in bytes
+		 * @param offset
+		 * 		the offset of the value in the struct
+		 * @return the value
+		 */
+		long getStructLong(int id, int index, int structSize, int offset) {
+			return buffer.getLong(target(fieldPosition(id)) + OFFSET_SIZE + index * structSize + offset);
+		}
+
+	}
+
+	/**
+	 * A serialized object referenced from the given position.
+	 */
+	private static final class Reference {
+
+		private final int position;
+		private final Node node;
+
+		private Reference(int position, Node node) {
+			this.position = position;
+			this.node = node;
+		}
+
+	}
+
+	/**
+	 * A scalar field or a reference field of a table.
+	 */
+	private static final class Field {
+
+		private final int id;
+		private final int size;
+		private final long value;
+		private final Node node;
+
+		private Field(int id, int size, long value, Node node) {
+			this.id = id;
+			this.size = size;
+			this.value = value;
+			this.node = node;
+		}
+
+	}
+
+	/**
+	 * Growable little-endian byte buffer that keeps track of the references still to be written.
+	 */
+	private static final class Sink {
+
+		private byte[] data = new byte[256];
+		private int size;
+		private final Deque<Reference> pending = new ArrayDeque<>();
+
+		private int size() {
+			return size;
+		}
+
+		private void ensure(int additional) {
+			if (data.length - size < additional) {
+				data = Arrays.copyOf(data, Math.max(size + additional, 2 * data.length));
+			}
+		}
+
+		private void pad(int bytes) {
+			ensure(bytes);
+			size += bytes;
+		}
+
+		private void alignTo(int alignment) {
+			pad(align(size, alignment) - size);
+		}
+
+		private void putScalar(int bytes, long value) {
+			ensure(bytes);
+			for (int i = 0; i < bytes; i++) {
+				data[size++] = (byte) (value >>> (8 * i));
+			}
+		}
+
+		private void putShort(int value) {
+			putScalar(2, value);
+		}
+
+		private void putInt(int value) {
+			putScalar(4, value);
+		}
+
+		private void putBytes(byte[] bytes) {
+			ensure(bytes.length);
+			System.arraycopy(bytes, 0, data, size, bytes.length);
+			size += bytes.length;
+		}
+
+		private void putReference(Node node) {
+			pending.add(new Reference(size, node));
+			putInt(0);
+		}
+
+		private void patch(int position, int value) {
+			for (int i = 0; i < OFFSET_SIZE; i++) {
+				data[position + i] = (byte) (value >>> (8 * i));
+			}
+		}
+
+	}
+
+	private static int align(int position, int alignment) {
+		return (position + alignment - 1) / alignment * alignment;
+	}
+
+	private FlatBuffers() {
+		// Suppress default constructor to prevent instantiation
+		throw new AssertionError();
+	}
+
+}
@@ -0,0 +1,401 @@
+/**
+ * This file is part of the RapidMiner Belt project.
+ * Copyright (C) 2017-2021 RapidMiner GmbH
+ *
+ * This program is free software: you can redistribute it and/or modify it under the terms of the GNU Affero General
+ * Public License as published by the Free Software Foundation, either version 3 of the License, or (at your option) any
+ * later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied
+ * warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU Affero General Public License along with this program. If not, see
+ * https://www.gnu.org/licenses/.
+ */
+
+package com.rapidminer.belt.table;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.Callable;
+
+import com.rapidminer.belt.column.Column;
+import com.rapidminer.belt.execution.Context;
+import com.rapidminer.belt.execution.ExecutionUtils;
+import com.rapidminer.belt.util.ColumnMetaData;
+
+
+/**
+ * Groups the rows of a {@link Table} by the values of one or more key columns and computes {@link Aggregation}s per
+ * group. Created via {@link Table#groupBy(String...)} or {@link Table#groupBy(List)}.
+ *
+ * <p>The rows are split into consecutive ranges that are aggregated in parallel. Every thread builds its own partial
+ * result consisting of primitive arrays indexed by group id. If all key columns are categorical and the product of
+ * their dictionary sizes is small, the group id is computed directly from the category indices and the partial
+ * results are dense arrays. Otherwise, the key values of a row are encoded as a tuple of long values and mapped to a
+ * group id by a primitive open-addressing hash table. In the end, the partial results are merged.
+ *
+ * <p>Missing key values form a group of their own. The result table contains one row per group in the order of the
+ * first occurrence of the group in the input table. The key columns are copied from these first rows and keep their
+ * types and meta data, they are followed by one column per aggregation.
+ *
+ * @author Michael Knopf
+ */
+public final class GroupBy {
+
+	/**
+	 * The number of rows processed at once by a single task.
+	 */
+	private static final int BATCH_SIZE = 1 << 10;
+
+	/**
+	 * The minimum number of rows processed by a single task.
+	 */
+	private static final int MIN_ROWS_PER_TASK = 1 << 14;
+
+	/**
+	 * The maximum number of groups for which categorical keys are aggregated into dense arrays.
+	 */
+	private static final int MAX_DENSE_GROUPS = 1 << 16;
+
+	/**
+	 * The initial number of groups of partial results using a hash table.
+	 */
+	private static final int INITIAL_GROUPS = 64;
+
+	private final Table table;
+	private final int[] keys;
+
+	/**
+	 * Creates a new group-by for the given (checked) key columns.
+	 *
+	 * @param table
+	 * 		the table to group
+	 * @param keys
+	 * 		the indices of the key columns
+	 * @throws IllegalArgumentException
+	 * 		if a key column is neither categorical, numeric-readable nor date-time
+	 */
+	GroupBy(Table table, int[] keys) {
+		this.table = table;
+		this.keys = keys;
+		for (int key : keys) {
+			Column column = table.column(key);
+			if (!KeyTupleReader.isSupported(column)) {
+				throw new IllegalArgumentException("Unsupported key column type: " + column.type());
+			}
+		}
+	}
+
+	/**
+	 * Computes the given aggregations per group.
+	 *
+	 * @param aggregations
+	 * 		the aggregations to compute, all aggregated columns must be numeric
+	 * @param ctx
+	 * 		the execution context
+	 * @return a table containing the key columns and one column per aggregation with one row per group
+	 * @throws NullPointerException
+	 * 		if any of the arguments is or contains {@code null}
+	 * @throws IllegalArgumentException
+	 * 		if an aggregated column does not exist or is not numeric, or if a result label is used more than once
+	 */
+	public Table aggregate(List<Aggregation> aggregations, Context ctx) {
+		Objects.requireNonNull(aggregations, "Aggregation list must not be null");
+		Objects.requireNonNull(ctx, "Context must not be null");
+		int[] inputs = new int[aggregations.size()];
+		List<Column> inputColumns = new ArrayList<>();
+		Map<String, Integer> inputIndices = new HashMap<>();
+		Set<String> resultLabels = new HashSet<>();
+		for (int key : keys) {
+			resultLabels.add(table.label(key));
+		}
+		for (int i = 0; i < inputs.length; i++) {
+			Aggregation aggregation = Objects.requireNonNull(aggregations.get(i), "Aggregations must not be null");
+			if (!resultLabels.add(aggregation.getLabel())) {
+				throw new IllegalArgumentException("Duplicate result label: " + aggregation.getLabel());
+			}
+			String label = aggregation.getColumn();
+			if (label == null) {
+				inputs[i] = -1;
+				continue;
+			}
+			if (!table.contains(label)) {
+				throw new IllegalArgumentException("Unknown column label: " + label);
+			}
+			Column column = table.column(label);
+			if (column.type().category() != Column.Category.NUMERIC) {
+				throw new IllegalArgumentException("Aggregated column is not numeric: " + label);
+			}
+			inputs[i] = inputIndices.computeIfAbsent(label, l -> {
+				inputColumns.add(column);
+				return inputColumns.size() - 1;
+			});
+		}
+		return compute(aggregations, inputs, inputColumns, ctx);
+	}
+
+	private Table compute(List<Aggregation> aggregations, int[] inputs, List<Column> inputColumns, Context ctx) {
+		Column[] keyColumns = new Column[keys.length];
+		for (int k = 0; k < keys.length; k++) {
+			keyColumns[k] = table.column(keys[k]);
+		}
+		int[] strides = denseStrides(keyColumns);
+		int denseGroups = strides == null ? -1 : denseGroups(keyColumns);
+		int width = KeyTupleReader.width(keyColumns);
+		Column.TypeId[] types = new Column.TypeId[inputs.length];
+		for (int i = 0; i < inputs.length; i++) {
+			types[i] = inputs[i] < 0 ? null : inputColumns.get(inputs[i]).type().id();
+		}
+
+		int size = table.height();
+		int numberOfTasks = Math.max(1, Math.min(ctx.getParallelism(), size / MIN_ROWS_PER_TASK));
+		int rowsPerTask = size / numberOfTasks + (size % numberOfTasks == 0 ? 0 : 1);
+		List<Callable<Partial>> tasks = new ArrayList<>(numberOfTasks);
+		for (int t = 0; t < numberOfTasks; t++) {
+			int from = t * rowsPerTask;
+			int to = Math.min(size, from + rowsPerTask);
+			tasks.add(() -> {
+				Partial partial = new Partial(aggregations, types, denseGroups, width);
+				KeyReader reader = new KeyReader(keyColumns, strides);
+				double[][] values = new double[inputColumns.size()][BATCH_SIZE];
+				int[] groups = new int[BATCH_SIZE];
+				for (int start = from; start < to; start += BATCH_SIZE) {
+					int length = Math.min(BATCH_SIZE, to - start);
+					reader.groups(partial, start, length, groups);
+					for (int c = 0; c < values.length; c++) {
+						inputColumns.get(c).fill(values[c], start);
+					}
+					for (int a = 0; a < inputs.length; a++) {
+						partial.states[a].add(groups, inputs[a] < 0 ? null : values[inputs[a]], length);
+					}
+					ctx.requireActive();
+				}
+				return partial;
+			});
+		}
+		List<Partial> partials = ExecutionUtils.run(tasks, ctx);
+		Partial result = partials.get(0);
+		for (int p = 1; p < partials.size(); p++) {
+			result.merge(partials.get(p));
+			ctx.requireActive();
+		}
+		return toTable(result, aggregations, ctx);
+	}
+
+	/**
+	 * Returns the strides for computing dense group ids from category indices or {@code null} if the keys are not all
+	 * categorical or the number of possible groups is too large.
+	 */
+	private static int[] denseStrides(Column[] keyColumns) {
+		int[] strides = new int[keyColumns.length];
+		long groups = 1;
+		for (int k = keyColumns.length - 1; k >= 0; k--) {
+			Column column = keyColumns[k];
+			if (column.type().category() != Column.Category.CATEGORICAL) {
+				return null;
+			}
+			strides[k] = (int) groups;
+			groups *= column.getDictionary().maximalIndex() + 1L;
+			if (groups > MAX_DENSE_GROUPS) {
+				return null;
+			}
+		}
+		return strides;
+	}
+
+	/**
+	 * Returns the number of dense groups, i.e., the product of the dictionary sizes of the categorical key columns.
+	 */
+	private static int denseGroups(Column[] keyColumns) {
+		int groups = 1;
+		for (Column column : keyColumns) {
+			groups *= column.getDictionary().maximalIndex() + 1;
+		}
+		return groups;
+	}
+
+	/**
+	 * Orders the groups by their first row and creates the result table.
+	 */
+	private Table toTable(Partial result, List<Aggregation> aggregations, Context ctx) {
+		int count = 0;
+		long[] order = new long[result.numberOfGroups];
+		for (int group = 0; group < result.numberOfGroups; group++) {
+			int firstRow = result.firstRows[group];
+			if (firstRow >= 0) {
+				order[count++] = ((long) firstRow << Integer.SIZE) | group;
+			}
+		}
+		Arrays.sort(order, 0, count);
+		int[] groups = new int[count];
+		int[] firstRows = new int[count];
+		for (int i = 0; i < count; i++) {
+			groups[i] = (int) order[i];
+			firstRows[i] = (int) (order[i] >>> Integer.SIZE);
+		}
+
+		Table keyTable = table.columns(keys).rows(firstRows, false, ctx);
+		int keyWidth = keyTable.width();
+		Column[] columns = Arrays.copyOf(keyTable.getColumns(), keyWidth + aggregations.size());
+		String[] labels = Arrays.copyOf(keyTable.labelArray(), keyWidth + aggregations.size());
+		for (int a = 0; a < aggregations.size(); a++) {
+			columns[keyWidth + a] = result.states[a].result(groups);
+			labels[keyWidth + a] = aggregations.get(a).getLabel();
+		}
+		Map<String, List<ColumnMetaData>> metaData = keyTable.getMetaData();
+		return new Table(columns, labels, metaData.isEmpty() ? null : new HashMap<>(metaData));
+	}
+
+	/**
+	 * The partial result of a single thread: the aggregation states, the first row per group and, if the group ids
+	 * are not dense, the hash table mapping key tuples to group ids.
+	 */
+	private static final class Partial {
+
+		private final AggregationState[] states;
+		private final LongTupleHashTable index;
+		private final int width;
+		private int[] firstRows;
+		private int numberOfGroups;
+
+		/**
+		 * Creates an empty partial result for the given fixed number of dense groups or, if the number is negative,
+		 * for a hash table with tuples of the given width.
+		 */
+		private Partial(List<Aggregation> aggregations, Column.TypeId[] types, int denseGroups, int width) {
+			this.width = width;
+			int capacity;
+			if (denseGroups < 0) {
+				index = new LongTupleHashTable(width, INITIAL_GROUPS);
+				capacity = INITIAL_GROUPS;
+			} else {
+				index = null;
+				numberOfGroups = denseGroups;
+				capacity = denseGroups;
+			}
+			firstRows = new int[capacity];
+			Arrays.fill(firstRows, -1);
+			states = new AggregationState[aggregations.size()];
+			for (int a = 0; a < states.length; a++) {
+				states[a] = AggregationState.of(aggregations.get(a), types[a], capacity);
+			}
+		}
+
+		/**
+		 * Makes sure that the partial result can hold the given number of groups.
+		 */
+		private void ensureCapacity(int groups) {
+			numberOfGroups = Math.max(numberOfGroups, groups);
+			if (firstRows.length < groups) {
+				int oldLength = firstRows.length;
+				firstRows = Arrays.copyOf(firstRows, Math.max(groups, 2 * oldLength));
+				Arrays.fill(firstRows, oldLength, firstRows.length, -1);
+				for (AggregationState state : states) {
+					state.ensureCapacity(firstRows.length);
+				}
+			}
+		}
+
+		private void merge(Partial other) {
+			if (index == null) {
+				for (int group = 0; group < other.numberOfGroups; group++) {
+					mergeGroup(group, other, group);
+				}
+			} else {
+				long[] tuples = other.index.tuples();
+				for (int group = 0; group < other.numberOfGroups; group++) {
+					int target = index.getOrInsert(tuples, group * width);
+					ensureCapacity(index.size());
+					mergeGroup(target, other, group);
+				}
+			}
+		}
+
+		private void mergeGroup(int group, Partial other, int otherGroup) {
+			int otherFirst = other.firstRows[otherGroup];
+			if (otherFirst < 0) {
+				return;
+			}
+			if (firstRows[group] < 0 || otherFirst < firstRows[group]) {
+				firstRows[group] = otherFirst;
+			}
+			for (int a = 0; a < states.length; a++) {
+				states[a].merge(group, other.states[a], otherGroup);
+			}
+		}
+	}
+
+	/**
+	 * Reads the key columns batch-wise and computes the group ids of the rows.
+	 */
+	private static final class KeyReader {
+
+		private final Column[] columns;
+		private final int[] strides;
+		private final int[] categories;
+		private final KeyTupleReader tupleReader;
+		private final long[] tuples;
+
+		private KeyReader(Column[] columns, int[] strides) {
+			this.columns = columns;
+			this.strides = strides;
+			if (strides == null) {
+				categories = null;
+				tupleReader = new KeyTupleReader(columns, BATCH_SIZE);
+				tuples = new long[BATCH_SIZE * tupleReader.width()];
+			} else {
+				categories = new int[BATCH_SIZE];
+				tupleReader = null;
+				tuples = null;
+			}
+		}
+
+		/**
+		 * Computes the group ids of the given rows and registers new groups with the partial result.
+		 */
+		private void groups(Partial partial, int start, int length, int[] groups) {
+			if (strides != null) {
+				denseGroups(start, length, groups);
+			} else {
+				hashGroups(partial, start, length, groups);
+			}
+			int[] firstRows = partial.firstRows;
+			for (int i = 0; i < length; i++) {
+				int group = groups[i];
+				if (firstRows[group] < 0) {
+					firstRows[group] = start + i;
+				}
+			}
+		}
+
+		private void denseGroups(int start, int length, int[] groups) {
+			Arrays.fill(groups, 0, length, 0);
+			for (int k = 0; k < columns.length; k++) {
+				columns[k].fill(categories, start);
+				int stride = strides[k];
+				for (int i = 0; i < length; i++) {
+					groups[i] += categories[i] * stride;
+				}
+			}
+		}
+
+		private void hashGroups(Partial partial, int start, int length, int[] groups) {
+			tupleReader.read(start, length, tuples, null);
+			int width = tupleReader.width();
+			LongTupleHashTable index = partial.index;
+			for (int i = 0; i < length; i++) {
+				groups[i] = index.getOrInsert(tuples, i * width);
+			}
+			partial.ensureCapacity(index.size());
+		}
+	}
+
+}
@@ -0,0 +1,918 @@
+/**
+ * This file is part of the RapidMiner Belt project.
+ * Copyright (C) 2017-2021 RapidMiner GmbH
+ *
+ * This program is free software: you can redistribute it and/or modify it under the terms of the GNU Affero General
+ * Public License as published by the Free Software Foundation, either version 3 of the License, or (at your option) any
+ * later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied
+ * warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU Affero General Public License along with this program. If not, see
+ * https://www.gnu.org/licenses/.
+ */
+
+package com.rapidminer.belt.table;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.Callable;
+
+import com.rapidminer.belt.column.Column;
+import com.rapidminer.belt.column.Columns;
+import com.rapidminer.belt.execution.Context;
+import com.rapidminer.belt.execution.ExecutionUtils;
+import com.rapidminer.belt.util.ColumnMetaData;
+import com.rapidminer.belt.util.IntegerArrayBuilder;
+import com.rapidminer.belt.util.Order;
+
+
+/**
+ * Methods to join two {@link Table}s on one or more key columns.
+ *
+ * <p>Rows with a missing value in any of their key columns never match. Numeric key columns are matched by value,
+ * integer and real key columns can be mixed. Categorical key columns are matched by their values, but the values are
+ * only compared once per dictionary entry and all rows are matched by category index instead of by string
+ * comparisons.
+ *
+ * <p>Two join algorithms are available: {@link #hashJoin} works on arbitrary tables, {@link #mergeJoin} requires
+ * tables sorted by the key columns but only reads them sequentially and does not need any memory apart from the
+ * result. In addition, {@link #asOfJoin} matches sorted tables by the nearest preceding key, e.g., for time series.
+ *
+ * <p>The result tables are built from row index mappings, i.e., the columns of the result are views on the columns
+ * of the input tables (see {@link Table#rows(int[], boolean, Context)}) and no payload data is copied.
+ *
+ * @author Michael Knopf
+ */
+public final class Joins {
+
+	/**
+	 * The supported join types.
+	 */
+	public enum Type {
+
+		/**
+		 * One result row per pair of matching left and right rows.
+		 */
+		INNER,
+
+		/**
+		 * Like {@link #INNER} but additionally one row with missing right values for each left row without a match.
+		 */
+		LEFT,
+
+		/**
+		 * The left rows with at least one match, each left row at most once. Contains only the left columns.
+		 */
+		SEMI,
+
+		/**
+		 * The left rows without a match. Contains only the left columns.
+		 */
+		ANTI
+	}
+
+	/**
+	 * The number of rows processed at once by a single task.
+	 */
+	private static final int BATCH_SIZE = 1 << 10;
+
+	/**
+	 * The minimum number of rows processed by a single task.
+	 */
+	private static final int MIN_ROWS_PER_TASK = 1 << 14;
+
+	/**
+	 * Joins the two tables on the key columns with the same labels in both tables, see
+	 * {@link #hashJoin(Table, Table, List, List, Type, Context)}.
+	 *
+	 * @param left
+	 * 		the left table
+	 * @param right
+	 * 		the right table
+	 * @param keys
+	 * 		the labels of the key columns in both tables
+	 * @param type
+	 * 		the join type
+	 * @param context
+	 * 		the execution context
+	 * @return the joined table
+	 * @throws NullPointerException
+	 * 		if any of the arguments is or contains {@code null}
+	 * @throws IllegalArgumentException
+	 * 		if the key list is empty, a key label is invalid, the key columns are incompatible, or the result labels
+	 * 		are not unique
+	 */
+	public static Table hashJoin(Table left, Table right, List<String> keys, Type type, Context context) {
+		return hashJoin(left, right, keys, keys, type, context);
+	}
+
+	/**
+	 * Joins the two tables on the given key columns by building a hash table on the key values of the right table and
+	 * probing it with the key values of the left table in parallel. The result contains the left rows in their
+	 * original order. Multiple matches of one left row are in the order of the right table.
+	 *
+	 * <p>For {@link Type#INNER} and {@link Type#LEFT} joins, the result consists of all left columns followed by all
+	 * non-key columns of the right table. For {@link Type#SEMI} and {@link Type#ANTI} joins, the result consists of the
+	 * left columns only.
+	 *
+	 * @param left
+	 * 		the left table
+	 * @param right
+	 * 		the right table, ideally the smaller one
+	 * @param leftKeys
+	 * 		the labels of the key columns of the left table
+	 * @param rightKeys
+	 * 		the labels of the corresponding key columns of the right table
+	 * @param type
+	 * 		the join type
+	 * @param context
+	 * 		the execution context
+	 * @return the joined table
+	 * @throws NullPointerException
+	 * 		if any of the arguments is or contains {@code null}
+	 * @throws IllegalArgumentException
+	 * 		if the key lists are empty or of different size, a key label is invalid, the key columns are incompatible,
+	 * 		or the result labels are not unique
+	 */
+	public static Table hashJoin(Table left, Table right, List<String> leftKeys, List<String> rightKeys, Type type,
+								 Context context) {
+		Objects.requireNonNull(type, "Join type must not be null");
+		JoinInput input = new JoinInput(left, right, leftKeys, rightKeys, type, context);
+
+		// build phase: group the right rows by key tuple
+		KeyTupleReader buildReader = new KeyTupleReader(input.translatedRightKeyColumns(), BATCH_SIZE);
+		int width = buildReader.width();
+		long[] tuples = new long[BATCH_SIZE * width];
+		boolean[] missing = new boolean[BATCH_SIZE];
+		int rightHeight = right.height();
+		LongTupleHashTable index = new LongTupleHashTable(width, Math.max(16, rightHeight / 4));
+		int[] keyIds = new int[rightHeight];
+		for (int start = 0; start < rightHeight; start += BATCH_SIZE) {
+			int length = Math.min(BATCH_SIZE, rightHeight - start);
+			buildReader.read(start, length, tuples, missing);
+			for (int i = 0; i < length; i++) {
+				keyIds[start + i] = missing[i] ? -1 : index.getOrInsert(tuples, i * width);
+			}
+			context.requireActive();
+		}
+		// store the right rows per key consecutively in ascending order
+		int[] starts = new int[index.size() + 1];
+		for (int id : keyIds) {
+			if (id >= 0) {
+				starts[id + 1]++;
+			}
+		}
+		for (int id = 0; id < index.size(); id++) {
+			starts[id + 1] += starts[id];
+		}
+		int[] positions = Arrays.copyOf(starts, index.size());
+		int[] rightRows = new int[starts[index.size()]];
+		for (int row = 0; row < rightHeight; row++) {
+			int id = keyIds[row];
+			if (id >= 0) {
+				rightRows[positions[id]++] = row;
+			}
+		}
+
+		// probe phase: look up the left rows in parallel
+		int leftHeight = left.height();
+		int numberOfTasks = Math.max(1, Math.min(context.getParallelism(), leftHeight / MIN_ROWS_PER_TASK));
+		int rowsPerTask = leftHeight / numberOfTasks + (leftHeight % numberOfTasks == 0 ? 0 : 1);
+		Column[] leftKeyColumns = input.leftKeyColumns;
+		List<Callable<int[][]>> tasks = new ArrayList<>(numberOfTasks);
+		for (int t = 0; t < numberOfTasks; t++) {
+			int from = t * rowsPerTask;
+			int to = Math.min(leftHeight, from + rowsPerTask);
+			tasks.add(() -> probe(leftKeyColumns, index, starts, rightRows, type, from, to, context));
+		}
+		return input.result(ExecutionUtils.run(tasks, context), context);
+	}
+
+	/**
+	 * Joins the two tables on the key columns with the same labels in both tables, see
+	 * {@link #mergeJoin(Table, Table, List, List, Type, Context)}.
+	 *
+	 * @param left
+	 * 		the left table, sorted by the key columns
+	 * @param right
+	 * 		the right table, sorted by the key columns
+	 * @param keys
+	 * 		the labels of the key columns in both tables
+	 * @param type
+	 * 		the join type
+	 * @param context
+	 * 		the execution context
+	 * @return the joined table
+	 * @throws NullPointerException
+	 * 		if any of the arguments is or contains {@code null}
+	 * @throws IllegalArgumentException
+	 * 		if the key list is empty, a key label is invalid, the key columns are incompatible or not sortable, the
+	 * 		result labels are not unique, or a table is detected to be not sorted
+	 */
+	public static Table mergeJoin(Table left, Table right, List<String> keys, Type type, Context context) {
+		return mergeJoin(left, right, keys, keys, type, context);
+	}
+
+	/**
+	 * Joins the two tables on the given key columns by merging them. Both tables must be sorted in ascending order by
+	 * their key columns, i.e., as done by {@link Table#sort(int[], Order, Context)} with {@link Order#ASCENDING}.
+	 * Unsorted tables can be sorted that way before joining. Besides the result, the merge only requires constant
+	 * memory per task. The left table is split into ranges which are merged in parallel with the corresponding
+	 * ranges of the right table, found via binary search.
+	 *
+	 * <p>The result is the same as for {@link #hashJoin(Table, Table, List, List, Type, Context)}: the left rows are in
+	 * their original order, multiple matches of one left row are in the order of the right table. The order of the
+	 * tables is checked while merging, i.e., the join fails if an unsorted row is encountered. Rows that are not
+	 * required for the result, such as right rows with keys greater than all left keys, might not be checked.
+	 *
+	 * @param left
+	 * 		the left table, sorted by the left key columns
+	 * @param right
+	 * 		the right table, sorted by the right key columns
+	 * @param leftKeys
+	 * 		the labels of the key columns of the left table
+	 * @param rightKeys
+	 * 		the labels of the corresponding key columns of the right table
+	 * @param type
+	 * 		the join type
+	 * @param context
+	 * 		the execution context
+	 * @return the joined table
+	 * @throws NullPointerException
+	 * 		if any of the arguments is or contains {@code null}
+	 * @throws IllegalArgumentException
+	 * 		if the key lists are empty or of different size, a key label is invalid, the key columns are incompatible or
+	 * 		not sortable, the result labels are not unique, or a table is detected to be not sorted
+	 */
+	public static Table mergeJoin(Table left, Table right, List<String> leftKeys, List<String> rightKeys, Type type,
+								  Context context) {
+		Objects.requireNonNull(type, "Join type must not be null");
+		JoinInput input = new JoinInput(left, right, leftKeys, rightKeys, type, context);
+		int[][][] ranks = input.categoryRanks();
+		Column[] leftKeyColumns = input.leftKeyColumns;
+		Column[] rightKeyColumns = input.rightKeyColumns;
+
+		// split the left table into ranges without splitting runs of equal keys and find the matching right ranges
+		int leftHeight = left.height();
+		int rightHeight = right.height();
+		int numberOfTasks = Math.max(1, Math.min(context.getParallelism(), leftHeight / MIN_ROWS_PER_TASK));
+		int rowsPerTask = leftHeight / numberOfTasks + (leftHeight % numberOfTasks == 0 ? 0 : 1);
+		int[] leftBounds = new int[numberOfTasks + 1];
+		int[] rightBounds = new int[numberOfTasks + 1];
+		leftBounds[numberOfTasks] = leftHeight;
+		rightBounds[numberOfTasks] = rightHeight;
+		if (numberOfTasks > 1) {
+			KeyTupleReader leftReader = new KeyTupleReader(leftKeyColumns, ranks[0], BATCH_SIZE);
+			KeyTupleReader rightReader = new KeyTupleReader(rightKeyColumns, ranks[1], BATCH_SIZE);
+			long[] key = new long[BATCH_SIZE * leftReader.width()];
+			long[] buffer = new long[BATCH_SIZE * leftReader.width()];
+			for (int t = 1; t < numberOfTasks; t++) {
+				leftReader.read(t * rowsPerTask, 1, key, null);
+				leftBounds[t] = lowerBound(leftReader, leftBounds[t - 1], t * rowsPerTask, key, buffer);
+				rightBounds[t] = lowerBound(rightReader, rightBounds[t - 1], rightHeight, key, buffer);
+			}
+		}
+
+		List<Callable<int[][]>> tasks = new ArrayList<>(numberOfTasks);
+		for (int t = 0; t < numberOfTasks; t++) {
+			int leftFrom = leftBounds[t];
+			int leftTo = leftBounds[t + 1];
+			int rightFrom = rightBounds[t];
+			int rightTo = rightBounds[t + 1];
+			tasks.add(() -> merge(new KeyCursor(leftKeyColumns, ranks[0], leftFrom, leftTo),
+					new KeyCursor(rightKeyColumns, ranks[1], rightFrom, rightTo), type, context));
+		}
+		return input.result(ExecutionUtils.run(tasks, context), context);
+	}
+
+	/**
+	 * Finds the first row in the given range whose key tuple is not less than the given key via binary search.
+	 */
+	private static int lowerBound(KeyTupleReader reader, int from, int to, long[] key, long[] buffer) {
+		int low = from;
+		int high = to;
+		while (low < high) {
+			int middle = (low + high) >>> 1;
+			reader.read(middle, 1, buffer, null);
+			if (compare(buffer, 0, key, 0, reader.width()) < 0) {
+				low = middle + 1;
+			} else {
+				high = middle;
+			}
+		}
+		return low;
+	}
+
+	/**
+	 * Compares two key tuples lexicographically.
+	 */
+	private static int compare(long[] a, int aOffset, long[] b, int bOffset, int width) {
+		for (int i = 0; i < width; i++) {
+			int comparison = Long.compare(a[aOffset + i], b[bOffset + i]);
+			if (comparison != 0) {
+				return comparison;
+			}
+		}
+		return 0;
+	}
+
+	/**
+	 * Merges the rows of the given left and right cursors.
+	 *
+	 * @return the left row mapping and, for inner and left joins, the right row mapping
+	 */
+	private static int[][] merge(KeyCursor left, KeyCursor right, Type type, Context context) {
+		MappingBuilder builder = new MappingBuilder(type);
+		long[] key = new long[left.width];
+		int processed = 0;
+		while (left.hasRow()) {
+			left.copyKey(key);
+			boolean missing = left.isMissing();
+			while (right.hasRow() && right.compareTo(key) < 0) {
+				right.advance();
+			}
+			int runStart = right.row();
+			while (right.hasRow() && right.compareTo(key) == 0) {
+				right.advance();
+			}
+			int runEnd = right.row();
+			boolean matched = !missing && runStart < runEnd;
+			do {
+				int row = left.row();
+				if (matched && builder.pairs()) {
+					for (int rightRow = runStart; rightRow < runEnd; rightRow++) {
+						builder.pair(row, rightRow);
+					}
+				}
+				builder.row(row, matched);
+				left.advance();
+			} while (left.hasRow() && left.compareTo(key) == 0);
+			if (++processed % BATCH_SIZE == 0) {
+				context.requireActive();
+			}
+		}
+		return builder.build();
+	}
+
+	/**
+	 * Joins every row of the left table with the latest row of the right table whose key is less than or equal to the
+	 * left key, see {@link #asOfJoin(Table, Table, String, String, List, List, double, Context)}. Uses the same key
+	 * and by column labels for both tables and no tolerance.
+	 *
+	 * @param left
+	 * 		the left table, sorted by the by columns and the key column
+	 * @param right
+	 * 		the right table, sorted by the by columns and the key column
+	 * @param key
+	 * 		the label of the numeric, time or date-time key column in both tables
+	 * @param by
+	 * 		the labels of the columns in both tables that must match exactly, can be empty
+	 * @param context
+	 * 		the execution context
+	 * @return the joined table
+	 * @throws NullPointerException
+	 * 		if any of the arguments is or contains {@code null}
+	 * @throws IllegalArgumentException
+	 * 		if a label is invalid, the key or by columns are incompatible or not sortable, the result labels are not
+	 * 		unique, or a table is detected to be not sorted
+	 */
+	public static Table asOfJoin(Table left, Table right, String key, List<String> by, Context context) {
+		return asOfJoin(left, right, key, key, by, by, Double.POSITIVE_INFINITY, context);
+	}
+
+	/**
+	 * Joins every row of the left table with the latest row of the right table whose key is less than or equal to the
+	 * left key, see {@link #asOfJoin(Table, Table, String, String, List, List, double, Context)}. Uses the same key
+	 * and by column labels for both tables.
+	 *
+	 * @param left
+	 * 		the left table, sorted by the by columns and the key column
+	 * @param right
+	 * 		the right table, sorted by the by columns and the key column
+	 * @param key
+	 * 		the label of the numeric, time or date-time key column in both tables
+	 * @param by
+	 * 		the labels of the columns in both tables that must match exactly, can be empty
+	 * @param tolerance
+	 * 		the maximum distance between the left and the right key, in seconds for date-time keys, in nanoseconds for
+	 * 		time keys
+	 * @param context
+	 * 		the execution context
+	 * @return the joined table
+	 * @throws NullPointerException
+	 * 		if any of the arguments is or contains {@code null}
+	 * @throws IllegalArgumentException
+	 * 		if a label is invalid, the key or by columns are incompatible or not sortable, the tolerance is negative or
+	 * 		{@code NaN}, the result labels are not unique, or a table is detected to be not sorted
+	 */
+	public static Table asOfJoin(Table left, Table right, String key, List<String> by, double tolerance,
+								 Context context) {
+		return asOfJoin(left, right, key, key, by, by, tolerance, context);
+	}
+
+	/**
+	 * Joins every row of the left table with the latest row of the right table that has the same values in the by
+	 * columns and whose key is less than or equal to the left key, e.g., to align measurements with the latest
+	 * preceding state. If there are multiple such right rows with the same key, the last one is used. If there is no
+	 * such row or the keys are further apart than the given tolerance, the right values are missing. Rows with missing
+	 * key or by values never match.
+	 *
+	 * <p>Both tables must be sorted in ascending order by their by columns (if any) and then by their key column, i.e.,
+	 * as done by {@link Table#sort(int[], Order, Context)} with {@link Order#ASCENDING} and the by column indices
+	 * followed by the key column index. The left table is split into ranges that are merged with the right table in
+	 * parallel, the start of the corresponding right ranges is found via binary search. Like for
+	 * {@link #mergeJoin(Table, Table, List, List, Type, Context)}, the order is checked while merging.
+	 *
+	 * <p>The result contains every left row exactly once and in its original order, i.e., it has the same height as
+	 * the left table. It consists of all left columns followed by all right columns that are neither the key column
+	 * nor a by column. The columns are views on the columns of the input tables.
+	 *
+	 * @param left
+	 * 		the left table, sorted by the left by columns and the left key column
+	 * @param right
+	 * 		the right table, sorted by the right by columns and the right key column
+	 * @param leftKey
+	 * 		the label of the numeric, time or date-time key column of the left table
+	 * @param rightKey
+	 * 		the label of the corresponding key column of the right table
+	 * @param leftBy
+	 * 		the labels of the columns of the left table that must match exactly, can be empty
+	 * @param rightBy
+	 * 		the labels of the corresponding columns of the right table
+	 * @param tolerance
+	 * 		the maximum distance between the left and the right key, in seconds for date-time keys, in nanoseconds for
+	 * 		time keys. Use {@link Double#POSITIVE_INFINITY} for no limit.
+	 * @param context
+	 * 		the execution context
+	 * @return the joined table
+	 * @throws NullPointerException
+	 * 		if any of the arguments is or contains {@code null}
+	 * @throws IllegalArgumentException
+	 * 		if a label is invalid, the by lists are of different size, the key or by columns are incompatible or not
+	 * 		sortable, the tolerance is negative or {@code NaN}, the result labels are not unique, or a table is detected
+	 * 		to be not sorted
+	 */
+	public static Table asOfJoin(Table left, Table right, String leftKey, String rightKey, List<String> leftBy,
+								 List<String> rightBy, double tolerance, Context context) {
+		Objects.requireNonNull(leftKey, "Left key label must not be null");
+		Objects.requireNonNull(rightKey, "Right key label must not be null");
+		Objects.requireNonNull(leftBy, "Left by list must not be null");
+		Objects.requireNonNull(rightBy, "Right by list must not be null");
+		if (Double.isNaN(tolerance) || tolerance < 0) {
+			throw new IllegalArgumentException("Tolerance must not be negative or NaN");
+		}
+		List<String> leftKeys = new ArrayList<>(leftBy);
+		leftKeys.add(leftKey);
+		List<String> rightKeys = new ArrayList<>(rightBy);
+		rightKeys.add(rightKey);
+		JoinInput input = new JoinInput(left, right, leftKeys, rightKeys, Type.LEFT, context);
+		Column[] leftKeyColumns = input.leftKeyColumns;
+		Column[] rightKeyColumns = input.rightKeyColumns;
+		Column keyColumn = leftKeyColumns[leftKeyColumns.length - 1];
+		if (keyColumn.type().category() == Column.Category.CATEGORICAL) {
+			throw new IllegalArgumentException("Key column must be numeric, time or date-time");
+		}
+		int[][][] ranks = input.categoryRanks();
+		boolean dateTime = keyColumn.type().id() == Column.TypeId.DATE_TIME;
+
+		// split the left table into ranges and find the first right row that can match the first row of each range
+		int leftHeight = left.height();
+		int numberOfTasks = Math.max(1, Math.min(context.getParallelism(), leftHeight / MIN_ROWS_PER_TASK));
+		int rowsPerTask = leftHeight / numberOfTasks + (leftHeight % numberOfTasks == 0 ? 0 : 1);
+		int[] rightStarts = new int[numberOfTasks];
+		if (numberOfTasks > 1) {
+			KeyTupleReader leftReader = new KeyTupleReader(leftKeyColumns, ranks[0], BATCH_SIZE);
+			KeyTupleReader rightReader = new KeyTupleReader(rightKeyColumns, ranks[1], BATCH_SIZE);
+			long[] key = new long[BATCH_SIZE * leftReader.width()];
+			long[] buffer = new long[BATCH_SIZE * leftReader.width()];
+			for (int t = 1; t < numberOfTasks; t++) {
+				leftReader.read(t * rowsPerTask, 1, key, null);
+				// the last right row less than the key might be the latest preceding row
+				int start = lowerBound(rightReader, rightStarts[t - 1], right.height(), key, buffer) - 1;
+				rightStarts[t] = Math.max(rightStarts[t - 1], start);
+			}
+		}
+
+		List<Callable<int[][]>> tasks = new ArrayList<>(numberOfTasks);
+		for (int t = 0; t < numberOfTasks; t++) {
+			int leftFrom = t * rowsPerTask;
+			int leftTo = Math.min(leftHeight, leftFrom + rowsPerTask);
+			int rightFrom = rightStarts[t];
+			tasks.add(() -> mergeAsOf(new KeyCursor(leftKeyColumns, ranks[0], leftFrom, leftTo),
+					new KeyCursor(rightKeyColumns, ranks[1], rightFrom, right.height()), dateTime, tolerance,
+					context));
+		}
+		return input.result(ExecutionUtils.run(tasks, context), context);
+	}
+
+	/**
+	 * Finds the latest preceding right row for every row of the left cursor.
+	 *
+	 * @return the left row mapping and the right row mapping
+	 */
+	private static int[][] mergeAsOf(KeyCursor left, KeyCursor right, boolean dateTime, double tolerance,
+									 Context context) {
+		MappingBuilder builder = new MappingBuilder(Type.LEFT);
+		int width = left.width;
+		// the key column is the last component of the tuples, the by columns form the prefix
+		int keyOffset = width - (dateTime ? 2 : 1);
+		long[] key = new long[width];
+		long[] candidate = new long[width];
+		int candidateRow = -1;
+		int processed = 0;
+		while (left.hasRow()) {
+			left.copyKey(key);
+			while (right.hasRow() && right.compareTo(key) <= 0) {
+				right.copyKey(candidate);
+				candidateRow = right.row();
+				right.advance();
+			}
+			boolean matched = candidateRow >= 0 && !left.isMissing() &&
+					compare(candidate, 0, key, 0, keyOffset) == 0 &&
+					(compare(candidate, 0, key, 0, width) == 0 ||
+							distance(key, candidate, keyOffset, dateTime) <= tolerance);
+			builder.pair(left.row(), matched ? candidateRow : -1);
+			left.advance();
+			if (++processed % BATCH_SIZE == 0) {
+				context.requireActive();
+			}
+		}
+		return builder.build();
+	}
+
+	/**
+	 * Computes the distance between the order-preserving encoded keys at the given offset, see
+	 * {@link KeyTupleReader}.
+	 */
+	private static double distance(long[] later, long[] earlier, int offset, boolean dateTime) {
+		if (dateTime) {
+			return (later[offset] - earlier[offset]) + (later[offset + 1] - earlier[offset + 1]) / 1e9;
+		}
+		// the encoding only flips the non-sign bits of negative values, flipping them again restores the bits
+		long laterBits = later[offset] ^ ((later[offset] >> 63) & Long.MAX_VALUE);
+		long earlierBits = earlier[offset] ^ ((earlier[offset] >> 63) & Long.MAX_VALUE);
+		return Double.longBitsToDouble(laterBits) - Double.longBitsToDouble(earlierBits);
+	}
+
+	/**
+	 * Probes the hash table with the left rows in the given range.
+	 *
+	 * @return the left row mapping and, for inner and left joins, the right row mapping
+	 */
+	private static int[][] probe(Column[] keyColumns, LongTupleHashTable index, int[] starts, int[] rightRows,
+								 Type type, int from, int to, Context context) {
+		KeyTupleReader reader = new KeyTupleReader(keyColumns, BATCH_SIZE);
+		int width = reader.width();
+		long[] tuples = new long[BATCH_SIZE * width];
+		boolean[] missing = new boolean[BATCH_SIZE];
+		MappingBuilder builder = new MappingBuilder(type);
+		for (int start = from; start < to; start += BATCH_SIZE) {
+			int length = Math.min(BATCH_SIZE, to - start);
+			reader.read(start, length, tuples, missing);
+			for (int i = 0; i < length; i++) {
+				int id = missing[i] ? -1 : index.get(tuples, i * width);
+				int row = start + i;
+				if (id >= 0 && builder.pairs()) {
+					for (int j = starts[id]; j < starts[id + 1]; j++) {
+						builder.pair(row, rightRows[j]);
+					}
+				}
+				builder.row(row, id >= 0);
+			}
+			context.requireActive();
+		}
+		return builder.build();
+	}
+
+	/**
+	 * Concatenates the mappings with the given index of all tasks.
+	 */
+	private static int[] concat(List<int[][]> mappings, int index) {
+		int length = 0;
+		for (int[][] mapping : mappings) {
+			length += mapping[index].length;
+		}
+		int[] result = new int[length];
+		int position = 0;
+		for (int[][] mapping : mappings) {
+			int[] part = mapping[index];
+			System.arraycopy(part, 0, result, position, part.length);
+			position += part.length;
+		}
+		return result;
+	}
+
+	/**
+	 * Collects the row mappings of a join type for a range of left rows.
+	 */
+	private static final class MappingBuilder {
+
+		private final Type type;
+		private final IntegerArrayBuilder leftRows = new IntegerArrayBuilder();
+		private final IntegerArrayBuilder rightRows;
+
+		private MappingBuilder(Type type) {
+			this.type = type;
+			this.rightRows = pairs() ? new IntegerArrayBuilder() : null;
+		}
+
+		/**
+		 * @return whether the join type requires the matching pairs of left and right rows
+		 */
+		private boolean pairs() {
+			return type == Type.INNER || type == Type.LEFT;
+		}
+
+		/**
+		 * Adds a matching pair of rows, must only be called if {@link #pairs()}.
+		 */
+		private void pair(int leftRow, int rightRow) {
+			leftRows.setNext(leftRow);
+			rightRows.setNext(rightRow);
+		}
+
+		/**
+		 * Completes a left row after all its matching pairs have been added.
+		 */
+		private void row(int leftRow, boolean matched) {
+			if (type == Type.LEFT && !matched) {
+				pair(leftRow, -1);
+			} else if ((type == Type.SEMI && matched) || (type == Type.ANTI && !matched)) {
+				leftRows.setNext(leftRow);
+			}
+		}
+
+		/**
+		 * @return the left row mapping and, for inner and left joins, the right row mapping
+		 */
+		private int[][] build() {
+			return new int[][]{leftRows.getData(), rightRows == null ? null : rightRows.getData()};
+		}
+	}
+
+	/**
+	 * Iterates over the order-preserving key tuples of a range of sorted rows and checks that the rows are indeed
+	 * sorted.
+	 */
+	private static final class KeyCursor {
+
+		private final KeyTupleReader reader;
+		private final int width;
+		private final int end;
+		private final long[] tuples;
+		private final boolean[] missing;
+		private final long[] previous;
+		private int batchStart;
+		private int position;
+		private int batchLength;
+
+		private KeyCursor(Column[] columns, int[][] ranks, int from, int to) {
+			reader = new KeyTupleReader(columns, ranks, BATCH_SIZE);
+			width = reader.width();
+			end = to;
+			tuples = new long[BATCH_SIZE * width];
+			missing = new boolean[BATCH_SIZE];
+			previous = new long[width];
+			batchStart = from;
+			load();
+		}
+
+		private boolean hasRow() {
+			return position < batchLength;
+		}
+
+		private int row() {
+			return batchStart + position;
+		}
+
+		private boolean isMissing() {
+			return missing[position];
+		}
+
+		private int compareTo(long[] key) {
+			return compare(tuples, position * width, key, 0, width);
+		}
+
+		private void copyKey(long[] target) {
+			System.arraycopy(tuples, position * width, target, 0, width);
+		}
+
+		private void advance() {
+			copyKey(previous);
+			position++;
+			if (position == batchLength && batchStart + batchLength < end) {
+				batchStart += batchLength;
+				load();
+			}
+			if (hasRow() && compareTo(previous) < 0) {
+				throw new IllegalArgumentException("Table is not sorted by the key columns");
+			}
+		}
+
+		private void load() {
+			position = 0;
+			batchLength = Math.min(BATCH_SIZE, end - batchStart);
+			if (batchLength > 0) {
+				reader.read(batchStart, batchLength, tuples, missing);
+			}
+		}
+	}
+
+	/**
+	 * The checked input of a join: the key columns of both tables and the right columns to keep.
+	 */
+	private static final class JoinInput {
+
+		private final Table left;
+		private final Table right;
+		private final Column[] leftKeyColumns;
+		private final Column[] rightKeyColumns;
+		private final List<String> rightLabels;
+
+		JoinInput(Table left, Table right, List<String> leftKeys, List<String> rightKeys, Type type,
+				  Context context) {
+			Objects.requireNonNull(left, "Left table must not be null");
+			Objects.requireNonNull(right, "Right table must not be null");
+			Objects.requireNonNull(leftKeys, "Left key list must not be null");
+			Objects.requireNonNull(rightKeys, "Right key list must not be null");
+			Objects.requireNonNull(context, "Context must not be null");
+			if (leftKeys.isEmpty()) {
+				throw new IllegalArgumentException("Key list must not be empty");
+			}
+			if (leftKeys.size() != rightKeys.size()) {
+				throw new IllegalArgumentException("Key lists must be of the same size");
+			}
+			this.left = left;
+			this.right = right;
+			leftKeyColumns = new Column[leftKeys.size()];
+			rightKeyColumns = new Column[rightKeys.size()];
+			for (int k = 0; k < leftKeys.size(); k++) {
+				Column leftColumn = requireColumn(left, leftKeys.get(k));
+				Column rightColumn = requireColumn(right, rightKeys.get(k));
+				if (!KeyTupleReader.isSupported(leftColumn) || !compatible(leftColumn, rightColumn)) {
+					throw new IllegalArgumentException("Incompatible key columns: " + leftKeys.get(k) + " (" +
+							leftColumn.type() + ") and " + rightKeys.get(k) + " (" + rightColumn.type() + ")");
+				}
+				leftKeyColumns[k] = leftColumn;
+				rightKeyColumns[k] = rightColumn;
+			}
+
+			rightLabels = new ArrayList<>();
+			if (type == Type.INNER || type == Type.LEFT) {
+				Set<String> keySet = new HashSet<>(rightKeys);
+				for (String label : right.labels()) {
+					if (!keySet.contains(label)) {
+						if (left.contains(label)) {
+							throw new IllegalArgumentException("Duplicate result label: " + label);
+						}
+						rightLabels.add(label);
+					}
+				}
+			}
+		}
+
+		/**
+		 * Returns the right key columns with the categorical columns translated to the dictionaries of the
+		 * corresponding left key columns. Thus, matching categorical values have the same category index.
+		 *
+		 * @return the translated right key columns
+		 */
+		private Column[] translatedRightKeyColumns() {
+			Column[] translated = new Column[rightKeyColumns.length];
+			for (int k = 0; k < rightKeyColumns.length; k++) {
+				translated[k] = leftKeyColumns[k].type().category() == Column.Category.CATEGORICAL ?
+						Columns.changeDictionary(rightKeyColumns[k], leftKeyColumns[k]) : rightKeyColumns[k];
+			}
+			return translated;
+		}
+
+		/**
+		 * Ranks the categories of the categorical key columns of both tables in their common ascending order with
+		 * the missing category last. Equal values get the same rank in both tables.
+		 *
+		 * @return the ranks of the left key columns and the ranks of the right key columns, see
+		 * {@link KeyTupleReader#KeyTupleReader(Column[], int[][], int)}
+		 * @throws IllegalArgumentException
+		 * 		if a categorical key column is not sortable
+		 */
+		private int[][][] categoryRanks() {
+			int[][] leftRanks = new int[leftKeyColumns.length][];
+			int[][] rightRanks = new int[rightKeyColumns.length][];
+			for (int k = 0; k < leftKeyColumns.length; k++) {
+				Column leftColumn = leftKeyColumns[k];
+				if (leftColumn.type().category() == Column.Category.CATEGORICAL) {
+					Column rightColumn = rightKeyColumns[k];
+					if (!leftColumn.type().hasCapability(Column.Capability.SORTABLE) ||
+							!rightColumn.type().hasCapability(Column.Capability.SORTABLE)) {
+						throw new IllegalArgumentException("Key columns must be sortable");
+					}
+					@SuppressWarnings("unchecked")
+					Comparator<String> comparator = (Comparator<String>) leftColumn.type().comparator();
+					Map<String, Integer> ranks = new TreeMap<>(comparator);
+					List<String> leftValues = ColumnAccessor.get().getDictionaryList(leftColumn.getDictionary());
+					List<String> rightValues = ColumnAccessor.get().getDictionaryList(rightColumn.getDictionary());
+					for (String value : leftValues) {
+						if (value != null) {
+							ranks.put(value, 0);
+						}
+					}
+					for (String value : rightValues) {
+						if (value != null) {
+							ranks.put(value, 0);
+						}
+					}
+					int rank = 0;
+					for (Map.Entry<String, Integer> entry : ranks.entrySet()) {
+						entry.setValue(rank++);
+					}
+					leftRanks[k] = rank(leftValues, ranks);
+					rightRanks[k] = rank(rightValues, ranks);
+				}
+			}
+			return new int[][][]{leftRanks, rightRanks};
+		}
+
+		private static int[] rank(List<String> values, Map<String, Integer> ranks) {
+			int[] result = new int[values.size()];
+			for (int i = 0; i < result.length; i++) {
+				String value = values.get(i);
+				result[i] = value == null ? Integer.MAX_VALUE : ranks.get(value);
+			}
+			return result;
+		}
+
+		/**
+		 * Creates the result table from the row mappings of all tasks.
+		 *
+		 * @param mappings
+		 * 		the left row mapping and the right row mapping (with {@code -1} for missing rows, {@code null} for semi
+		 * 		and anti joins) of every task, in order of the left rows
+		 * @param context
+		 * 		the execution context
+		 * @return the result table
+		 */
+		private Table result(List<int[][]> mappings, Context context) {
+			Table leftPart = left.rows(concat(mappings, 0), true, context);
+			if (rightLabels.isEmpty()) {
+				return leftPart;
+			}
+			Table rightPart = right.columns(rightLabels).rows(concat(mappings, 1), true, context);
+			int width = leftPart.width() + rightPart.width();
+			Column[] columns = Arrays.copyOf(leftPart.getColumns(), width);
+			System.arraycopy(rightPart.getColumns(), 0, columns, leftPart.width(), rightPart.width());
+			String[] labels = Arrays.copyOf(leftPart.labelArray(), width);
+			System.arraycopy(rightPart.labelArray(), 0, labels, leftPart.width(), rightPart.width());
+			Map<String, List<ColumnMetaData>> metaData = new HashMap<>(leftPart.getMetaData());
+			metaData.putAll(rightPart.getMetaData());
+			return new Table(columns, labels, metaData.isEmpty() ? null : metaData);
+		}
+
+		private static Column requireColumn(Table table, String label) {
+			Objects.requireNonNull(label, "Key labels must not be null");
+			if (!table.contains(label)) {
+				throw new IllegalArgumentException("Unknown column label: " + label);
+			}
+			return table.column(label);
+		}
+	}
+
+	/**
+	 * Checks whether the values of the two key columns can be compared, i.e., whether both are categorical with the
+	 * same element type, both are numeric, or both are of the same other type.
+	 *
+	 * @param leftColumn
+	 * 		the first key column
+	 * @param rightColumn
+	 * 		the second key column
+	 * @return {@code true} iff the values can be matched
+	 */
+	static boolean compatible(Column leftColumn, Column rightColumn) {
+		Column.Category leftCategory = leftColumn.type().category();
+		Column.Category rightCategory = rightColumn.type().category();
+		if (leftCategory == Column.Category.CATEGORICAL || rightCategory == Column.Category.CATEGORICAL) {
+			return leftCategory == rightCategory &&
+					leftColumn.type().elementType().equals(rightColumn.type().elementType());
+		}
+		if (leftCategory == Column.Category.NUMERIC) {
+			return rightCategory == Column.Category.NUMERIC;
+		}
+		return leftColumn.type().id() == rightColumn.type().id();
+	}
+
+	private Joins() {
+		// Suppress default constructor to prevent instantiation
+		throw new AssertionError();
+	}
+
+}
@@ -0,0 +1,184 @@
+/**
+ * This file is part of the RapidMiner Belt project.
+ * Copyright (C) 2017-2021 RapidMiner GmbH
+ *
+ * This program is free software: you can redistribute it and/or modify it under the terms of the GNU Affero General
+ * Public License as published by the Free Software Foundation, either version 3 of the License, or (at your option) any
+ * later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied
+ * warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU Affero General Public License along with this program. If not, see
+ * https://www.gnu.org/licenses/.
+ */
+
+package com.rapidminer.belt.table;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+import com.rapidminer.belt.column.Column;
+import com.rapidminer.belt.column.ColumnIO;
+import com.rapidminer.belt.column.DateTimeColumn;
+
+
+/**
+ * Reads the values of one or more key columns batch-wise and encodes the values of every row as a tuple of long
+ * values. Categorical values are encoded by their category index, numeric-readable values by their bits (with
+ * positive and negative zero as well as all {@code NaN}s mapped to a single value each), and date-time values by
+ * their seconds and nanoseconds. Thus, two rows have the same key values iff their tuples are equal, as long as the
+ * categorical key columns share the same dictionary.
+ *
+ * <p>If category ranks are specified, the encoding additionally preserves the ascending sort order of the key values
+ * with missing values last, i.e., the tuples of rows sorted by the key columns are in ascending lexicographic order
+ * with respect to signed long comparison.
+ *
+ * <p>Instances are not thread-safe, every thread should use its own reader.
+ *
+ * @author Michael Knopf
+ */
+final class KeyTupleReader {
+
+	private final Column[] columns;
+	private final int width;
+	private final int[][] ranks;
+	private final int[] categories;
+	private final double[] numbers;
+	private final ByteBuffer seconds;
+	private final ByteBuffer nanos;
+
+	/**
+	 * Creates a new reader for the given key columns.
+	 *
+	 * @param columns
+	 * 		the key columns, must be categorical, numeric-readable or date-time
+	 * @param batchSize
+	 * 		the maximum number of rows read at once
+	 */
+	KeyTupleReader(Column[] columns, int batchSize) {
+		this(columns, null, batchSize);
+	}
+
+	/**
+	 * Creates a new reader for the given key columns that encodes the key values order-preserving.
+	 *
+	 * @param columns
+	 * 		the key columns, must be categorical, numeric-readable or date-time
+	 * @param ranks
+	 * 		for every categorical key column the rank of every category index in ascending order, the rank of the
+	 * 		missing index {@code 0} should be greater than all others. Entries for other columns are ignored. If
+	 * 		{@code null}, the encoding is not order-preserving.
+	 * @param batchSize
+	 * 		the maximum number of rows read at once
+	 */
+	KeyTupleReader(Column[] columns, int[][] ranks, int batchSize) {
+		this.columns = columns;
+		this.ranks = ranks;
+		this.width = width(columns);
+		this.categories = new int[batchSize];
+		this.numbers = new double[batchSize];
+		this.seconds = ByteBuffer.allocate(batchSize * Long.BYTES);
+		this.nanos = ByteBuffer.allocate(batchSize * Integer.BYTES);
+	}
+
+	/**
+	 * Returns the number of long values per tuple for the given key columns.
+	 *
+	 * @param columns
+	 * 		the key columns
+	 * @return the tuple width
+	 */
+	static int width(Column[] columns) {
+		int width = 0;
+		for (Column column : columns) {
+			width += column.type().id() == Column.TypeId.DATE_TIME ? 2 : 1;
+		}
+		return width;
+	}
+
+	/**
+	 * Checks whether the given column can be read by a key tuple reader.
+	 *
+	 * @param column
+	 * 		the column to check
+	 * @return {@code true} iff the column is categorical, numeric-readable or date-time
+	 */
+	static boolean isSupported(Column column) {
+		return column.type().category() == Column.Category.CATEGORICAL ||
+				column.type().hasCapability(Column.Capability.NUMERIC_READABLE) ||
+				column.type().id() == Column.TypeId.DATE_TIME;
+	}
+
+	/**
+	 * @return the number of long values per tuple
+	 */
+	int width() {
+		return width;
+	}
+
+	/**
+	 * Encodes the key values of the given rows. The tuple of the {@code i}-th row starts at position
+	 * {@code i * width()} of the tuple array.
+	 *
+	 * @param start
+	 * 		the first row to read
+	 * @param length
+	 * 		the number of rows to read, at most the batch size
+	 * @param tuples
+	 * 		the array to write the tuples into
+	 * @param missing
+	 * 		if not {@code null}, set to {@code true} for every row with at least one missing key value
+	 */
+	void read(int start, int length, long[] tuples, boolean[] missing) {
+		if (missing != null) {
+			Arrays.fill(missing, 0, length, false);
+		}
+		int offset = 0;
+		for (int k = 0; k < columns.length; k++) {
+			Column column = columns[k];
+			if (column.type().category() == Column.Category.CATEGORICAL) {
+				column.fill(categories, start);
+				int[] rank = ranks == null ? null : ranks[k];
+				for (int i = 0; i < length; i++) {
+					int category = categories[i];
+					tuples[i * width + offset] = rank == null ? category : rank[category];
+					if (missing != null && category == 0) {
+						missing[i] = true;
+					}
+				}
+				offset++;
+			} else if (column.type().id() == Column.TypeId.DATE_TIME) {
+				seconds.clear().limit(length * Long.BYTES);
+				nanos.clear().limit(length * Integer.BYTES);
+				ColumnIO.putDateTimeLongs(column, start, seconds);
+				ColumnIO.putDateTimeNanoInts(column, start, nanos);
+				for (int i = 0; i < length; i++) {
+					long second = seconds.getLong(i * Long.BYTES);
+					boolean isMissing = second == DateTimeColumn.MISSING_VALUE;
+					tuples[i * width + offset] = second;
+					tuples[i * width + offset + 1] = isMissing ? 0 : nanos.getInt(i * Integer.BYTES);
+					if (missing != null && isMissing) {
+						missing[i] = true;
+					}
+				}
+				offset += 2;
+			} else {
+				column.fill(numbers, start);
+				for (int i = 0; i < length; i++) {
+					double value = numbers[i];
+					long bits = Double.doubleToLongBits(value == 0 ? 0.0 : value);
+					// flipping the non-sign bits of negative values makes the signed comparison match the order of
+					// the values, with NaN last
+					tuples[i * width + offset] = ranks == null ? bits : bits ^ ((bits >> 63) & Long.MAX_VALUE);
+					if (missing != null && Double.isNaN(value)) {
+						missing[i] = true;
+					}
+				}
+				offset++;
+			}
+		}
+	}
+
+}
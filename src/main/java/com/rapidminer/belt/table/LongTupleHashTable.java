@@ -0,0 +1,216 @@
+/**
+ * This file is part of the RapidMiner Belt project.
+ * Copyright (C) 2017-2021 RapidMiner GmbH
+ *
+ * This program is free software: you can redistribute it and/or modify it under the terms of the GNU Affero General
+ * Public License as published by the Free Software Foundation, either version 3 of the License, or (at your option) any
+ * later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied
+ * warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU Affero General Public License along with this program. If not, see
+ * https://www.gnu.org/licenses/.
+ */
+
+package com.rapidminer.belt.table;
+
+import java.util.Arrays;
+
+
+/**
+ * Open-addressing hash table that assigns consecutive ids to tuples of long values of fixed width. The tuples are
+ * stored in insertion order in a single primitive array, the table itself only stores the ids and hashes. Collisions
+ * are resolved via linear probing.
+ *
+ * @author Michael Knopf
+ */
+final class LongTupleHashTable {
+
+	private static final int MIN_CAPACITY = 16;
+
+	/**
+	 * Golden ratio constant used for combining hashes.
+	 */
+	private static final long GOLDEN_GAMMA = 0x9E3779B97F4A7C15L;
+
+	private final int width;
+
+	/**
+	 * The tuples in order of their ids, the tuple with id {@code i} starts at position {@code i * width}.
+	 */
+	private long[] tuples;
+
+	/**
+	 * The id plus one of the tuple in each slot, {@code 0} marks an empty slot.
+	 */
+	private int[] slots;
+
+	/**
+	 * The hash of the tuple in each slot.
+	 */
+	private int[] hashes;
+
+	private int mask;
+	private int size;
+
+	/**
+	 * Creates a new empty table.
+	 *
+	 * @param width
+	 * 		the number of long values per tuple
+	 * @param expectedSize
+	 * 		the expected number of distinct tuples
+	 */
+	LongTupleHashTable(int width, int expectedSize) {
+		this.width = width;
+		int capacity = Integer.highestOneBit(Math.max(MIN_CAPACITY, expectedSize) * 2 - 1) << 1;
+		this.slots = new int[capacity];
+		this.hashes = new int[capacity];
+		this.mask = capacity - 1;
+		this.tuples = new long[Math.max(1, expectedSize) * width];
+	}
+
+	/**
+	 * Returns the id of the tuple starting at the given offset in the given array. If the tuple is not yet contained
+	 * in the table, it is added with the next free id.
+	 *
+	 * @param source
+	 * 		the array containing the tuple
+	 * @param offset
+	 * 		the start of the tuple
+	 * @return the id of the tuple
+	 */
+	int getOrInsert(long[] source, int offset) {
+		int hash = hash(source, offset);
+		int slot = hash & mask;
+		while (true) {
+			int entry = slots[slot];
+			if (entry == 0) {
+				return insert(source, offset, hash, slot);
+			}
+			if (hashes[slot] == hash && equal(entry - 1, source, offset)) {
+				return entry - 1;
+			}
+			slot = (slot + 1) & mask;
+		}
+	}
+
+	/**
+	 * Returns the id of the tuple starting at the given offset in the given array without modifying the table. Thus,
+	 * this method can be called concurrently as long as no tuples are inserted.
+	 *
+	 * @param source
+	 * 		the array containing the tuple
+	 * @param offset
+	 * 		the start of the tuple
+	 * @return the id of the tuple or {@code -1} if the tuple is not contained in the table
+	 */
+	int get(long[] source, int offset) {
+		int hash = hash(source, offset);
+		int slot = hash & mask;
+		while (true) {
+			int entry = slots[slot];
+			if (entry == 0) {
+				return -1;
+			}
+			if (hashes[slot] == hash && equal(entry - 1, source, offset)) {
+				return entry - 1;
+			}
+			slot = (slot + 1) & mask;
+		}
+	}
+
+	/**
+	 * @return the number of distinct tuples
+	 */
+	int size() {
+		return size;
+	}
+
+	/**
+	 * Returns the array of tuples in order of their ids. The tuple with id {@code i} starts at position
+	 * {@code i * width}. The array is not copied and might be longer than required.
+	 *
+	 * @return the tuples
+	 */
+	long[] tuples() {
+		return tuples;
+	}
+
+	private int insert(long[] source, int offset, int hash, int slot) {
+		int id = size++;
+		if (tuples.length < size * width) {
+			tuples = Arrays.copyOf(tuples, Math.max(size * width, 2 * tuples.length));
+		}
+		System.arraycopy(source, offset, tuples, id * width, width);
+		slots[slot] = id + 1;
+		hashes[slot] = hash;
+		if (2 * size > slots.length) {
+			rehash();
+		}
+		return id;
+	}
+
+	private boolean equal(int id, long[] source, int offset) {
+		int start = id * width;
+		for (int i = 0; i < width; i++) {
+			if (tuples[start + i] != source[offset + i]) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	private void rehash() {
+		int capacity = slots.length * 2;
+		int[] newSlots = new int[capacity];
+		int[] newHashes = new int[capacity];
+		int newMask = capacity - 1;
+		for (int slot = 0; slot < slots.length; slot++) {
+			int entry = slots[slot];
+			if (entry != 0) {
+				int hash = hashes[slot];
+				int newSlot = hash & newMask;
+				while (newSlots[newSlot] != 0) {
+					newSlot = (newSlot + 1) & newMask;
+				}
+				newSlots[newSlot] = entry;
+				newHashes[newSlot] = hash;
+			}
+		}
+		slots = newSlots;
+		hashes = newHashes;
+		mask = newMask;
+	}
+
+	/**
+	 * Returns the hash of the tuple starting at the given offset in the given array as used by this table. The
+	 * lowest bits are used to find a slot, so callers that split tuples into partitions should use the highest bits.
+	 *
+	 * @param source
+	 * 		the array containing the tuple
+	 * @param offset
+	 * 		the start of the tuple
+	 * @return the hash of the tuple
+	 */
+	int hash(long[] source, int offset) {
+		long hash = width;
+		for (int i = 0; i < width; i++) {
+			hash = mix(hash + source[offset + i]);
+		}
+		return (int) (hash ^ (hash >>> 32));
+	}
+
+	/**
+	 * The finalizer of the SplitMix64 generator, spreads the bits of the input over the whole hash.
+	 */
+	private static long mix(long value) {
+		long z = value + GOLDEN_GAMMA;
+		z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+		z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+		return z ^ (z >>> 31);
+	}
+
+}
@@ -0,0 +1,197 @@
+/**
+ * This file is part of the RapidMiner Belt project.
+ * Copyright (C) 2017-2021 RapidMiner GmbH
+ *
+ * This program is free software: you can redistribute it and/or modify it under the terms of the GNU Affero General
+ * Public License as published by the Free Software Foundation, either version 3 of the License, or (at your option) any
+ * later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied
+ * warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU Affero General Public License along with this program. If not, see
+ * https://www.gnu.org/licenses/.
+ */
+
+
+package com.rapidminer.belt.table;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Callable;
+
+import com.rapidminer.belt.column.Column;
+import com.rapidminer.belt.column.Dictionary;
+import com.rapidminer.belt.execution.Context;
+import com.rapidminer.belt.execution.ExecutionUtils;
+import com.rapidminer.belt.execution.Workload;
+import com.rapidminer.belt.reader.ObjectReader;
+import com.rapidminer.belt.reader.Readers;
+import com.rapidminer.belt.transform.Filterer;
+import com.rapidminer.belt.util.IntegerArrayBuilder;
+
+
+/**
+ * Finds the rows of a column whose values are contained in another column without boxing any primitive values.
+ * Depending on the column types, the values are looked up in
+ * <ul>
+ *     <li>a lookup table over the category indices for categorical columns, built by comparing the dictionaries,</li>
+ *     <li>a primitive hash table of encoded values for numeric, time and date-time columns
+ *     (see {@link KeyTupleReader}), or</li>
+ *     <li>a hash set of the objects for all other object columns.</li>
+ * </ul>
+ * Missing values are never contained.
+ *
+ * @author Michael Knopf
+ */
+final class MembershipFilter {
+
+	private static final int BATCH_SIZE = 1 << 10;
+
+	/**
+	 * The minimal number of rows probed by a single task.
+	 */
+	private static final int MIN_ROWS_PER_TASK = 1 << 14;
+
+	// Suppress default constructor for noninstantiability
+	private MembershipFilter() {
+		throw new AssertionError();
+	}
+
+	/**
+	 * Returns the rows of the column whose values are contained in the values column.
+	 *
+	 * @param column
+	 * 		the column to filter
+	 * @param values
+	 * 		the column containing the accepted values
+	 * @param context
+	 * 		the execution context
+	 * @return the accepted rows in ascending order
+	 * @throws IllegalArgumentException
+	 * 		if the values of the columns cannot be compared
+	 */
+	static int[] filter(Column column, Column values, Context context) {
+		if (!Joins.compatible(column, values)) {
+			throw new IllegalArgumentException("Incompatible column types: " + column.type() + " and " +
+					values.type());
+		}
+		if (column.type().category() == Column.Category.CATEGORICAL) {
+			boolean[] accepted = acceptedCategories(column.getDictionary(), values);
+			return new Filterer(column).workload(Workload.SMALL).filterCategorical(i -> accepted[i], context);
+		} else if (KeyTupleReader.isSupported(column)) {
+			return filterKeys(column, values, context);
+		} else {
+			Set<Object> set = new HashSet<>();
+			ObjectReader<Object> reader = Readers.objectReader(values, Object.class);
+			while (reader.hasRemaining()) {
+				Object value = reader.read();
+				if (value != null) {
+					set.add(value);
+				}
+			}
+			return new Filterer(column).workload(Workload.SMALL).filterObject(Object.class,
+					v -> v != null && set.contains(v), context);
+		}
+	}
+
+	/**
+	 * Computes which categories of the given dictionary appear in the categorical values column. Only the category
+	 * indices that are actually used by the values column are taken into account, its dictionary might contain more.
+	 */
+	private static boolean[] acceptedCategories(Dictionary dictionary, Column values) {
+		Dictionary valueDictionary = values.getDictionary();
+		boolean[] used = new boolean[valueDictionary.maximalIndex() + 1];
+		int[] categories = new int[BATCH_SIZE];
+		for (int start = 0; start < values.size(); start += BATCH_SIZE) {
+			values.fill(categories, start);
+			int length = Math.min(BATCH_SIZE, values.size() - start);
+			for (int i = 0; i < length; i++) {
+				used[categories[i]] = true;
+			}
+		}
+		Set<String> set = new HashSet<>();
+		for (int i = 1; i < used.length; i++) {
+			if (used[i]) {
+				set.add(valueDictionary.get(i));
+			}
+		}
+		boolean[] accepted = new boolean[dictionary.maximalIndex() + 1];
+		for (int i = 1; i < accepted.length; i++) {
+			String value = dictionary.get(i);
+			accepted[i] = value != null && set.contains(value);
+		}
+		return accepted;
+	}
+
+	/**
+	 * Filters via a hash table of the encoded values, the probing is done in parallel.
+	 */
+	private static int[] filterKeys(Column column, Column values, Context context) {
+		Column[] valueColumns = {values};
+		KeyTupleReader buildReader = new KeyTupleReader(valueColumns, BATCH_SIZE);
+		int width = buildReader.width();
+		long[] tuples = new long[BATCH_SIZE * width];
+		boolean[] missing = new boolean[BATCH_SIZE];
+		LongTupleHashTable index = new LongTupleHashTable(width, Math.max(16, values.size() / 4));
+		for (int start = 0; start < values.size(); start += BATCH_SIZE) {
+			int length = Math.min(BATCH_SIZE, values.size() - start);
+			buildReader.read(start, length, tuples, missing);
+			for (int i = 0; i < length; i++) {
+				if (!missing[i]) {
+					index.getOrInsert(tuples, i * width);
+				}
+			}
+			context.requireActive();
+		}
+
+		int height = column.size();
+		int numberOfTasks = Math.max(1, Math.min(context.getParallelism(), height / MIN_ROWS_PER_TASK));
+		int rowsPerTask = height / numberOfTasks + (height % numberOfTasks == 0 ? 0 : 1);
+		Column[] columns = {column};
+		List<Callable<int[]>> tasks = new ArrayList<>(numberOfTasks);
+		for (int t = 0; t < numberOfTasks; t++) {
+			int from = t * rowsPerTask;
+			int to = Math.min(height, from + rowsPerTask);
+			tasks.add(() -> probe(columns, index, from, to, context));
+		}
+		List<int[]> parts = ExecutionUtils.run(tasks, context);
+		int length = 0;
+		for (int[] part : parts) {
+			length += part.length;
+		}
+		int[] rows = new int[length];
+		int position = 0;
+		for (int[] part : parts) {
+			System.arraycopy(part, 0, rows, position, part.length);
+			position += part.length;
+		}
+		return rows;
+	}
+
+	/**
+	 * Probes the hash table with the rows in the given range.
+	 */
+	private static int[] probe(Column[] columns, LongTupleHashTable index, int from, int to, Context context) {
+		KeyTupleReader reader = new KeyTupleReader(columns, BATCH_SIZE);
+		int width = reader.width();
+		long[] tuples = new long[BATCH_SIZE * width];
+		boolean[] missing = new boolean[BATCH_SIZE];
+		IntegerArrayBuilder rows = new IntegerArrayBuilder();
+		for (int start = from; start < to; start += BATCH_SIZE) {
+			int length = Math.min(BATCH_SIZE, to - start);
+			reader.read(start, length, tuples, missing);
+			for (int i = 0; i < length; i++) {
+				if (!missing[i] && index.get(tuples, i * width) >= 0) {
+					rows.setNext(start + i);
+				}
+			}
+			context.requireActive();
+		}
+		return rows.getData();
+	}
+
+}
@@ -199,6 +199,87 @@ public final class MixedRowWriter {
 		objectBuffer[bufferRowIndex + index] = classes[index].cast(value);
 	}
 
+	/**
+	 * Appends a block of rows given column-wise after the current row. For every column, the values of the rows are
+	 * read from the range {@code [from, from + length)} of the corresponding array. The array for a numeric column
+	 * must be a {@code double[]} and is copied in bulk, the array for any other column must be an {@code Object[]},
+	 * e.g., a {@code String[]} for a nominal column. Afterwards, the last appended row is the current row, i.e., its
+	 * values can still be changed via the set methods and the writer can be continued via {@link #move()}.
+	 *
+	 * @param values
+	 * 		one array of values per column
+	 * @param from
+	 * 		the position of the first row in the arrays
+	 * @param length
+	 * 		the number of rows to append
+	 * @throws NullPointerException
+	 * 		if the array of columns or one of its arrays is {@code null}
+	 * @throws IllegalArgumentException
+	 * 		if the number of arrays does not match the {@link #width()} or an array does not match its column
+	 * @throws IndexOutOfBoundsException
+	 * 		if the range is not contained in one of the arrays
+	 * @throws ClassCastException
+	 * 		if a value does not match the element type of its column
+	 */
+	public void append(Object[] values, int from, int length) {
+		Objects.requireNonNull(values, "Values must not be null");
+		if (values.length != columns.length) {
+			throw new IllegalArgumentException("Expected " + columns.length + " arrays of values but got " +
+					values.length);
+		}
+		for (int i = 0; i < values.length; i++) {
+			Object columnValues = Objects.requireNonNull(values[i], "Arrays of values must not be null");
+			if (columns[i] != null) {
+				if (!(columnValues instanceof double[])) {
+					throw new IllegalArgumentException("Values of numeric column " + columnLabels[i] +
+							" must be given as double[]");
+				}
+				NumericRowWriter.checkRange(((double[]) columnValues).length, from, length);
+			} else {
+				if (!(columnValues instanceof Object[])) {
+					throw new IllegalArgumentException("Values of column " + columnLabels[i] +
+							" must be given as Object[]");
+				}
+				Object[] objects = (Object[]) columnValues;
+				NumericRowWriter.checkRange(objects.length, from, length);
+				if (!classes[i].isAssignableFrom(objects.getClass().getComponentType())) {
+					for (int j = from; j < from + length; j++) {
+						classes[i].cast(objects[j]);
+					}
+				}
+			}
+		}
+		if (length == 0) {
+			return;
+		}
+		writeBuffer();
+		int start = rowIndex + 1;
+		// all but the last row are copied in bulk, the last row is kept in the row buffer so that it can be changed
+		for (int i = 0; i < columns.length; i++) {
+			if (columns[i] != null) {
+				columns[i].fill((double[]) values[i], start, from, 1, start + length - 1);
+			} else if (objectColumns[i] != null) {
+				objectColumns[i].fill((Object[]) values[i], start, from, 1, start + length - 1);
+			}
+		}
+		rowIndex += length;
+		restartBuffer();
+		int last = from + length - 1;
+		for (int i = 0; i < columns.length; i++) {
+			if (columns[i] != null) {
+				buffer[i] = ((double[]) values[i])[last];
+			} else {
+				objectBuffer[i] = ((Object[]) values[i])[last];
+			}
+		}
+		if (rowIndex >= checkForSparsityRow) {
+			checkForSparsity();
+			while (checkForSparsityRow <= rowIndex) {
+				checkForSparsityRow *= 2;
+			}
+		}
+	}
+
 	/**
 	 * Creates a {@link Table} from the data inside the row writer. The row writer cannot be changed afterwards.
 	 *
@@ -276,6 +357,23 @@ public final class MixedRowWriter {
 		}
 	}
 
+	/**
+	 * Starts a new row buffer with the current row as its first row. Used after bulk appends which write all rows
+	 * before the current one directly to the column buffers.
+	 */
+	private void restartBuffer() {
+		if (buffer == PLACEHOLDER_BUFFER) {
+			buffer = new double[bufferWidth * BUFFER_HEIGHT];
+			objectBuffer = new Object[bufferWidth * BUFFER_HEIGHT];
+		}
+		if (initialize) {
+			Arrays.fill(buffer, Double.NaN);
+			Arrays.fill(objectBuffer, null);
+		}
+		bufferOffset = rowIndex;
+		bufferRowIndex = 0;
+	}
+
 	private ComplexWriter getObjectBufferForType(ColumnType<?> columnType) {
 		if (ColumnType.DATETIME.equals(columnType)) {
 			return new NanosecondsDateTimeWriter();
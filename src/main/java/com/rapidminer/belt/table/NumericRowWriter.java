@@ -236,6 +236,58 @@ public final class NumericRowWriter {
 		buffer[bufferRowIndex + index] = value;
 	}
 
+	/**
+	 * Appends a block of rows given column-wise after the current row. For every column, the values of the rows are
+	 * read from the range {@code [from, from + length)} of the corresponding array and copied in bulk. Afterwards, the
+	 * last appended row is the current row, i.e., its values can still be changed via {@link #set(int, double)} and
+	 * the writer can be continued via {@link #move()}.
+	 *
+	 * @param values
+	 * 		one array of values per column
+	 * @param from
+	 * 		the position of the first row in the arrays
+	 * @param length
+	 * 		the number of rows to append
+	 * @throws NullPointerException
+	 * 		if the array of columns or one of its arrays is {@code null}
+	 * @throws IllegalArgumentException
+	 * 		if the number of arrays does not match the {@link #width()}
+	 * @throws IndexOutOfBoundsException
+	 * 		if the range is not contained in one of the arrays
+	 */
+	public void append(double[][] values, int from, int length) {
+		Objects.requireNonNull(values, "Values must not be null");
+		if (values.length != columns.length) {
+			throw new IllegalArgumentException("Expected " + columns.length + " arrays of values but got " +
+					values.length);
+		}
+		for (double[] columnValues : values) {
+			Objects.requireNonNull(columnValues, "Arrays of values must not be null");
+			checkRange(columnValues.length, from, length);
+		}
+		if (length == 0) {
+			return;
+		}
+		writeBuffer();
+		int start = rowIndex + 1;
+		// all but the last row are copied in bulk, the last row is kept in the row buffer so that it can be changed
+		for (int i = 0; i < columns.length; i++) {
+			columns[i].fill(values[i], start, from, 1, start + length - 1);
+		}
+		rowIndex += length;
+		restartBuffer();
+		int last = from + length - 1;
+		for (int i = 0; i < columns.length; i++) {
+			buffer[i] = values[i][last];
+		}
+		if (rowIndex >= checkForSparsityRow) {
+			checkForSparsity(columns, bufferOffset);
+			while (checkForSparsityRow <= rowIndex) {
+				checkForSparsityRow *= 2;
+			}
+		}
+	}
+
 	/**
 	 * Creates a {@link Table} from the data inside the row writer. The row writer cannot be changed afterwards.
 	 *
@@ -288,6 +340,34 @@ public final class NumericRowWriter {
 		}
 	}
 
+	/**
+	 * Starts a new row buffer with the current row as its first row. Used after bulk appends which write all rows
+	 * before the current one directly to the column buffers.
+	 */
+	private void restartBuffer() {
+		if (buffer == PLACEHOLDER_BUFFER) {
+			buffer = new double[bufferWidth * BUFFER_HEIGHT];
+		}
+		if (initialize) {
+			Arrays.fill(buffer, Double.NaN);
+		}
+		bufferOffset = rowIndex;
+		bufferRowIndex = 0;
+	}
+
+	/**
+	 * Checks that the range {@code [from, from + length)} is contained in an array of the given length.
+	 *
+	 * @throws IndexOutOfBoundsException
+	 * 		if the range is invalid
+	 */
+	static void checkRange(int arrayLength, int from, int length) {
+		if (from < 0 || length < 0 || from > arrayLength - length) {
+			throw new IndexOutOfBoundsException("Range of length " + length + " from " + from +
+					" out of bounds for array of length " + arrayLength);
+		}
+	}
+
 	/**
 	 * Returns an integer or real growing column buffer without set length.
 	 */
@@ -0,0 +1,174 @@
+/**
+ * This file is part of the RapidMiner Belt project.
+ * Copyright (C) 2017-2021 RapidMiner GmbH
+ *
+ * This program is free software: you can redistribute it and/or modify it under the terms of the GNU Affero General
+ * Public License as published by the Free Software Foundation, either version 3 of the License, or (at your option) any
+ * later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied
+ * warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU Affero General Public License along with this program. If not, see
+ * https://www.gnu.org/licenses/.
+ */
+
+
+package com.rapidminer.belt.table;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+
+import com.rapidminer.belt.column.Column.TypeId;
+import com.rapidminer.belt.execution.Context;
+import com.rapidminer.belt.execution.ExecutionUtils;
+
+
+/**
+ * Writer to create a {@link Table} from row-wise data written concurrently. The rows are split into a fixed number of
+ * ordered partitions, e.g., one per worker thread or one per shard of the source. Every partition is written by its
+ * own {@link MixedRowWriter} into data containers of its own, so that the partitions can be written in parallel
+ * without synchronization. The partition writers are not thread-safe themselves, i.e., every partition must be
+ * written by a single thread at a time.
+ *
+ * <p>On {@link #create(Context)}, the partitions are stitched together in the order of their indices, i.e., the rows
+ * of partition {@code i} precede the rows of partition {@code i + 1}. The dictionaries of nominal columns are merged in
+ * the same order. Partitions that were never requested are treated as empty.
+ *
+ * @author Michael Knopf
+ * @see Writers#partitionedRowWriter(List, List, int, boolean)
+ */
+public final class PartitionedRowWriter {
+
+	private final List<String> columnLabels;
+	private final List<TypeId> types;
+	private final MixedRowWriter[] partitions;
+	private final int expectedRows;
+	private final boolean initialize;
+	private boolean created;
+
+	/**
+	 * Creates a new partitioned writer.
+	 *
+	 * @param columnLabels
+	 * 		the names for the columns to construct
+	 * @param types
+	 * 		the types of the columns to construct
+	 * @param numberOfPartitions
+	 * 		the number of partitions
+	 * @param expectedRows
+	 * 		the expected number of rows per partition or {@code -1} if unknown
+	 * @param initialize
+	 * 		if this is {@code true} every value that is not explicitly set is missing, if this is {@code false} values
+	 * 		for	indices that are not explicitly set are undetermined
+	 */
+	PartitionedRowWriter(List<String> columnLabels, List<TypeId> types, int numberOfPartitions, int expectedRows,
+						 boolean initialize) {
+		this.columnLabels = new ArrayList<>(columnLabels);
+		this.types = new ArrayList<>(types);
+		for (TypeId type : this.types) {
+			Objects.requireNonNull(type, "column type must not be null");
+		}
+		this.partitions = new MixedRowWriter[numberOfPartitions];
+		this.expectedRows = expectedRows;
+		this.initialize = initialize;
+	}
+
+	/**
+	 * Returns the writer for the partition with the given index. Repeated calls with the same index return the same
+	 * writer. This method can be called concurrently.
+	 *
+	 * @param index
+	 * 		the index of the partition
+	 * @return the writer for the partition
+	 * @throws IndexOutOfBoundsException
+	 * 		if the index is negative or not smaller than the number of partitions
+	 * @throws IllegalStateException
+	 * 		if the table was already created
+	 */
+	public synchronized MixedRowWriter partition(int index) {
+		if (index < 0 || index >= partitions.length) {
+			throw new IndexOutOfBoundsException("Partition index " + index + " out of bounds for " +
+					partitions.length + " partitions");
+		}
+		if (created) {
+			throw new IllegalStateException("Table was already created");
+		}
+		MixedRowWriter partition = partitions[index];
+		if (partition == null) {
+			partition = expectedRows < 0 ? new MixedRowWriter(columnLabels, types, initialize) :
+					new MixedRowWriter(columnLabels, types, expectedRows, initialize);
+			partitions[index] = partition;
+		}
+		return partition;
+	}
+
+	/**
+	 * @return the number of partitions
+	 */
+	public int numberOfPartitions() {
+		return partitions.length;
+	}
+
+	/**
+	 * @return the number of values per row
+	 */
+	public int width() {
+		return columnLabels.size();
+	}
+
+	/**
+	 * Creates a {@link Table} from the data written to the partitions. Must only be called after all partitions are
+	 * written completely. The writer and its partitions cannot be changed afterwards.
+	 *
+	 * @param context
+	 * 		the context to use for stitching the partitions together
+	 * @return a new table
+	 * @throws NullPointerException
+	 * 		if the context is {@code null}
+	 * @throws IllegalArgumentException
+	 * 		if the stored column labels are not valid to create a table
+	 * @throws IllegalStateException
+	 * 		if the table was already created
+	 * @throws Appender.TableTooLongException
+	 * 		if the partitions together have more rows than allowed
+	 */
+	public Table create(Context context) {
+		Objects.requireNonNull(context, "Context must not be null");
+		MixedRowWriter[] written;
+		synchronized (this) {
+			if (created) {
+				throw new IllegalStateException("Table was already created");
+			}
+			created = true;
+			written = partitions.clone();
+		}
+		Table[] partitionTables = new Table[written.length];
+		ExecutionUtils.parallel(0, written.length, index -> {
+			if (written[index] != null) {
+				partitionTables[index] = written[index].create();
+			}
+		}, context);
+		List<Table> tables = new ArrayList<>(written.length);
+		for (Table table : partitionTables) {
+			if (table != null && table.height() > 0) {
+				tables.add(table);
+			}
+		}
+		if (tables.isEmpty()) {
+			return new MixedRowWriter(columnLabels, types, 0, initialize).create();
+		}
+		if (tables.size() == 1) {
+			return tables.get(0);
+		}
+		return Appender.append(tables, null, context);
+	}
+
+	@Override
+	public String toString() {
+		return "Partitioned row writer (" + partitions.length + " partitions x " + columnLabels.size() + ")";
+	}
+
+}
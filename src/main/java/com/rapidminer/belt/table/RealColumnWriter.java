@@ -79,6 +79,13 @@ final class RealColumnWriter implements NumericColumnWriter {
 		resize(height);
 		int remainder = buffer.length % bufferStepSize > bufferOffset ? 1 : 0;
 		int max = Math.min(startIndex + buffer.length / bufferStepSize + remainder, height);
+		if (bufferStepSize == 1) {
+			// column-wise data, e.g., from bulk appends
+			if (max > startIndex) {
+				System.arraycopy(buffer, bufferOffset, data, startIndex, max - startIndex);
+			}
+			return;
+		}
 		int copyIndex = startIndex;
 		int bufferIndex = bufferOffset;
 		while (copyIndex < max) {
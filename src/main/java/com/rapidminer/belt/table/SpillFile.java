@@ -0,0 +1,244 @@
+/**
+ * This file is part of the RapidMiner Belt project.
+ * Copyright (C) 2017-2021 RapidMiner GmbH
+ *
+ * This program is free software: you can redistribute it and/or modify it under the terms of the GNU Affero General
+ * Public License as published by the Free Software Foundation, either version 3 of the License, or (at your option) any
+ * later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied
+ * warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU Affero General Public License along with this program. If not, see
+ * https://www.gnu.org/licenses/.
+ */
+
+
+package com.rapidminer.belt.table;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+import com.rapidminer.belt.column.Column;
+import com.rapidminer.belt.column.ColumnIO;
+import com.rapidminer.belt.column.DateTimeColumn;
+import com.rapidminer.belt.column.Dictionary;
+
+
+/**
+ * A table written column by column to a temporary file using the {@link ColumnIO} encodings. Every column is stored as
+ * one contiguous little-endian section, date-time columns with subsecond precision use a second section for the
+ * nanoseconds. Dictionaries of nominal columns are kept in memory.
+ *
+ * <p>Only columns of type {@link Column.TypeId#REAL}, {@link Column.TypeId#INTEGER_53_BIT}, {@link
+ * Column.TypeId#TIME}, {@link Column.TypeId#DATE_TIME} and {@link Column.TypeId#NOMINAL} are supported.
+ *
+ * @author Michael Knopf
+ */
+final class SpillFile {
+
+	static final int BYTES_PER_LONG = 8;
+	static final int BYTES_PER_INT = 4;
+
+	/**
+	 * The size of the buffer used when writing files.
+	 */
+	private static final int WRITE_BUFFER_SIZE = 1 << 16;
+
+	final Path file;
+	final int height;
+
+	/**
+	 * The start of the section of every column.
+	 */
+	final long[] offsets;
+
+	/**
+	 * The start of the nanosecond section of date-time columns or {@code -1} if there is none.
+	 */
+	final long[] nanoOffsets;
+
+	/**
+	 * The dictionary values of nominal columns including the {@code null} value at index {@code 0}.
+	 */
+	final List<String>[] dictionaries;
+
+	@SuppressWarnings("unchecked")
+	private SpillFile(Path file, int height, int width) {
+		this.file = file;
+		this.height = height;
+		this.offsets = new long[width];
+		this.nanoOffsets = new long[width];
+		this.dictionaries = (List<String>[]) new List<?>[width];
+	}
+
+	/**
+	 * Writes the table column by column to a new temporary file. If writing fails, the file is deleted again.
+	 *
+	 * @param table
+	 * 		the table to write
+	 * @param types
+	 * 		the type ids of the table columns
+	 * @param directory
+	 * 		the directory for the file or {@code null} for the system's default temporary-file directory
+	 * @param prefix
+	 * 		the prefix of the file name
+	 * @param suffix
+	 * 		the suffix of the file name
+	 * @return the written file
+	 * @throws IOException
+	 * 		if creating or writing the file fails
+	 */
+	static SpillFile write(Table table, Column.TypeId[] types, Path directory, String prefix, String suffix)
+			throws IOException {
+		Path file = directory == null ? Files.createTempFile(prefix, suffix) :
+				Files.createTempFile(directory, prefix, suffix);
+		SpillFile spill = new SpillFile(file, table.height(), types.length);
+		ByteBuffer buffer = ByteBuffer.allocate(WRITE_BUFFER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+		long position = 0;
+		try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+			for (int i = 0; i < types.length; i++) {
+				Column column = table.column(i);
+				spill.offsets[i] = position;
+				spill.nanoOffsets[i] = -1;
+				switch (types[i]) {
+					case REAL:
+					case INTEGER_53_BIT:
+						writeSection(channel, buffer, column, ColumnIO::putNumericDoubles);
+						break;
+					case TIME:
+						writeSection(channel, buffer, column, ColumnIO::putTimeLongs);
+						break;
+					case DATE_TIME:
+						writeSection(channel, buffer, column, ColumnIO::putDateTimeLongs);
+						if (((DateTimeColumn) column).hasSubSecondPrecision()) {
+							spill.nanoOffsets[i] = channel.position();
+							writeSection(channel, buffer, column, ColumnIO::putDateTimeNanoInts);
+						}
+						break;
+					case NOMINAL:
+						writeSection(channel, buffer, column, ColumnIO::putCategoricalIntegers);
+						spill.dictionaries[i] = dictionaryValues(column.getDictionary());
+						break;
+					default:
+						throw new AssertionError();
+				}
+				position = channel.position();
+			}
+		} catch (IOException e) {
+			try {
+				Files.deleteIfExists(file);
+			} catch (IOException suppressed) {
+				e.addSuppressed(suppressed);
+			}
+			throw e;
+		}
+		return spill;
+	}
+
+	/**
+	 * Returns the number of bytes a single row of a column of the given type occupies in a spill file.
+	 *
+	 * @param type
+	 * 		the column type
+	 * @param label
+	 * 		the column label used in the error message
+	 * @return the number of bytes per row
+	 * @throws IllegalArgumentException
+	 * 		if the type is not supported
+	 */
+	static int bytesPerRow(Column.TypeId type, String label) {
+		switch (type) {
+			case REAL:
+			case INTEGER_53_BIT:
+			case TIME:
+				return BYTES_PER_LONG;
+			case DATE_TIME:
+				return BYTES_PER_LONG + BYTES_PER_INT;
+			case NOMINAL:
+				return BYTES_PER_INT;
+			default:
+				throw new IllegalArgumentException("Unsupported column type " + type + " for column " + label);
+		}
+	}
+
+	/**
+	 * Reads the given rows of a section into the buffer. The buffer is flipped afterwards, i.e., it is ready to be
+	 * read from position {@code 0} to {@code length * bytesPerValue}.
+	 *
+	 * @param channel
+	 * 		a channel opened on the file for reading
+	 * @param sectionStart
+	 * 		the start of the section
+	 * @param bytesPerValue
+	 * 		the number of bytes per value in the section
+	 * @param startRow
+	 * 		the first row to read
+	 * @param length
+	 * 		the number of rows to read
+	 * @param buffer
+	 * 		the buffer to read into, must have a capacity of at least {@code length * bytesPerValue}
+	 * @throws IOException
+	 * 		if reading fails or the file ends before the rows
+	 */
+	void read(FileChannel channel, long sectionStart, int bytesPerValue, int startRow, int length, ByteBuffer buffer)
+			throws IOException {
+		buffer.clear();
+		buffer.limit(length * bytesPerValue);
+		long position = sectionStart + (long) startRow * bytesPerValue;
+		while (buffer.hasRemaining()) {
+			int read = channel.read(buffer, position);
+			if (read < 0) {
+				throw new IOException("Unexpected end of spill file " + file);
+			}
+			position += read;
+		}
+		buffer.flip();
+	}
+
+	/**
+	 * Writes the whole column into the channel using the given encoding.
+	 */
+	private static void writeSection(FileChannel channel, ByteBuffer buffer, Column column, SectionWriter writer)
+			throws IOException {
+		int offset = 0;
+		while (offset < column.size()) {
+			buffer.clear();
+			offset += writer.put(column, offset, buffer);
+			buffer.flip();
+			while (buffer.hasRemaining()) {
+				channel.write(buffer);
+			}
+		}
+	}
+
+	/**
+	 * Returns the dictionary values including the {@code null} value at index {@code 0}.
+	 */
+	static List<String> dictionaryValues(Dictionary dictionary) {
+		List<String> values = new ArrayList<>(dictionary.maximalIndex() + 1);
+		for (int i = 0; i <= dictionary.maximalIndex(); i++) {
+			values.add(dictionary.get(i));
+		}
+		return values;
+	}
+
+	/**
+	 * One of the {@link ColumnIO} put methods.
+	 */
+	@FunctionalInterface
+	interface SectionWriter {
+
+		int put(Column column, int offset, ByteBuffer buffer);
+
+	}
+
+}
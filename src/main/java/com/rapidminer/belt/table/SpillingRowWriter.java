@@ -0,0 +1,475 @@
+/**
+ * This file is part of the RapidMiner Belt project.
+ * Copyright (C) 2017-2021 RapidMiner GmbH
+ *
+ * This program is free software: you can redistribute it and/or modify it under the terms of the GNU Affero General
+ * Public License as published by the Free Software Foundation, either version 3 of the License, or (at your option) any
+ * later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied
+ * warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU Affero General Public License along with this program. If not, see
+ * https://www.gnu.org/licenses/.
+ */
+
+
+package com.rapidminer.belt.table;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Consumer;
+
+import com.rapidminer.belt.column.Column;
+import com.rapidminer.belt.column.Column.TypeId;
+import com.rapidminer.belt.column.ColumnIO;
+import com.rapidminer.belt.column.DateTimeColumn;
+import com.rapidminer.belt.column.io.DateTimeColumnBuilder;
+import com.rapidminer.belt.column.io.NominalColumnBuilder;
+import com.rapidminer.belt.column.io.NumericColumnBuilder;
+import com.rapidminer.belt.column.io.TimeColumnBuilder;
+import com.rapidminer.belt.execution.Context;
+import com.rapidminer.belt.execution.ExecutionUtils;
+
+
+/**
+ * Writer to create a {@link Table} from row-wise data with a bounded amount of intermediate memory. The rows are
+ * written into chunks of a {@link MixedRowWriter}. As soon as a chunk exceeds the {@link #memoryBudget(long) memory
+ * budget}, it is spilled to a temporary file using the {@link ColumnIO} encodings. On {@link #create(Context)}, the
+ * columns of the final table are allocated with their exact height and filled directly from the spilled chunks and the
+ * last chunk, which stays in memory. Thus, unlike a plain row writer, the writer never holds more than one chunk and
+ * never grows its data containers beyond the final size.
+ *
+ * <p>Only columns of type {@link TypeId#REAL}, {@link TypeId#INTEGER_53_BIT}, {@link TypeId#TIME}, {@link
+ * TypeId#DATE_TIME} and {@link TypeId#NOMINAL} are supported. The temporary files are deleted on {@link
+ * #create(Context)} and on {@link #close()}.
+ *
+ * <p>This class is not thread-safe.
+ *
+ * @author Michael Knopf
+ * @see Writers#spillingRowWriter(List, List, boolean)
+ */
+public final class SpillingRowWriter implements AutoCloseable {
+
+	/**
+	 * The default memory budget for a single chunk in bytes.
+	 */
+	public static final long DEFAULT_MEMORY_BUDGET = 64L << 20;
+
+	/**
+	 * The minimal number of rows per chunk.
+	 */
+	private static final int MIN_CHUNK_ROWS = 1024;
+
+	/**
+	 * The size of the buffer used when reading the spilled chunks.
+	 */
+	private static final int READ_BUFFER_SIZE = 1 << 16;
+
+	private final List<String> columnLabels;
+	private final List<TypeId> types;
+	private final TypeId[] typeArray;
+	private final boolean initialize;
+	private final long rowBytes;
+
+	private long memoryBudget = DEFAULT_MEMORY_BUDGET;
+	private Path directory;
+
+	private MixedRowWriter chunk;
+	private int chunkRows;
+	private int chunkHeight;
+
+	private final List<SpillFile> spills = new ArrayList<>();
+	private boolean created;
+
+	/**
+	 * Creates a new spilling writer.
+	 *
+	 * @param columnLabels
+	 * 		the names for the columns to construct
+	 * @param types
+	 * 		the types of the columns to construct
+	 * @param initialize
+	 * 		if this is {@code true} every value that is not explicitly set is missing, if this is {@code false} values
+	 * 		for	indices that are not explicitly set are undetermined
+	 * @throws IllegalArgumentException
+	 * 		if a column type is not supported
+	 */
+	SpillingRowWriter(List<String> columnLabels, List<TypeId> types, boolean initialize) {
+		this.columnLabels = new ArrayList<>(columnLabels);
+		this.types = new ArrayList<>(types);
+		this.typeArray = new TypeId[types.size()];
+		long bytes = 0;
+		for (int i = 0; i < typeArray.length; i++) {
+			typeArray[i] = Objects.requireNonNull(types.get(i), "column type must not be null");
+			bytes += SpillFile.bytesPerRow(typeArray[i], columnLabels.get(i));
+		}
+		this.rowBytes = bytes;
+		this.initialize = initialize;
+	}
+
+	/**
+	 * Sets the number of bytes a chunk may occupy before it is spilled to disk. Defaults to {@link
+	 * #DEFAULT_MEMORY_BUDGET}. Chunks contain at least {@value #MIN_CHUNK_ROWS} rows, independent of the budget.
+	 *
+	 * @param bytes
+	 * 		the memory budget in bytes
+	 * @return this writer
+	 * @throws IllegalArgumentException
+	 * 		if the budget is not positive
+	 * @throws IllegalStateException
+	 * 		if rows were already written
+	 */
+	public SpillingRowWriter memoryBudget(long bytes) {
+		if (bytes <= 0) {
+			throw new IllegalArgumentException("Memory budget must be positive");
+		}
+		if (chunk != null) {
+			throw new IllegalStateException("Rows already written");
+		}
+		this.memoryBudget = bytes;
+		return this;
+	}
+
+	/**
+	 * Sets the directory for the temporary chunk files. Defaults to the system's default temporary-file directory.
+	 *
+	 * @param directory
+	 * 		the directory for temporary files
+	 * @return this writer
+	 * @throws NullPointerException
+	 * 		if the directory is {@code null}
+	 */
+	public SpillingRowWriter directory(Path directory) {
+		this.directory = Objects.requireNonNull(directory, "Directory must not be null");
+		return this;
+	}
+
+	/**
+	 * Moves the writer to the next row. If the current chunk is full, it is spilled to disk.
+	 *
+	 * @throws IllegalStateException
+	 * 		if {@link #create(Context)} was already called
+	 * @throws UncheckedIOException
+	 * 		if writing a chunk file fails
+	 */
+	public void move() {
+		if (created) {
+			throw new IllegalStateException("Table already created");
+		}
+		if (chunk == null) {
+			chunkRows = (int) Math.max(MIN_CHUNK_ROWS, Math.min(memoryBudget / Math.max(rowBytes, 1),
+					Integer.MAX_VALUE));
+			startChunk();
+		} else if (chunkHeight == chunkRows) {
+			writeChunk();
+			startChunk();
+		}
+		chunk.move();
+		chunkHeight++;
+	}
+
+	/**
+	 * Sets the value at the given column index of the current row. This method is only supported for numeric-readable
+	 * columns, see {@link MixedRowWriter#set(int, double)}.
+	 *
+	 * @param index
+	 * 		the column index
+	 * @param value
+	 * 		the value to set
+	 */
+	public void set(int index, double value) {
+		chunk.set(index, value);
+	}
+
+	/**
+	 * Sets the value at the given column index of the current row. This method is only supported for object-readable
+	 * columns, see {@link MixedRowWriter#set(int, Object)}.
+	 *
+	 * @param index
+	 * 		the column index
+	 * @param value
+	 * 		the value to set
+	 */
+	public void set(int index, Object value) {
+		chunk.set(index, value);
+	}
+
+	/**
+	 * Creates a {@link Table} from the written rows and deletes the temporary files. The writer cannot be changed
+	 * afterwards.
+	 *
+	 * @param context
+	 * 		the execution context to use for assembling the columns
+	 * @return a new table
+	 * @throws NullPointerException
+	 * 		if the context is {@code null}
+	 * @throws IllegalStateException
+	 * 		if this method was already called
+	 * @throws UncheckedIOException
+	 * 		if reading or writing a chunk file fails
+	 */
+	public Table create(Context context) {
+		Objects.requireNonNull(context, "Context must not be null");
+		if (created) {
+			throw new IllegalStateException("Table already created");
+		}
+		created = true;
+		if (chunk == null) {
+			return new MixedRowWriter(columnLabels, types, 0, initialize).create();
+		}
+		if (spills.isEmpty()) {
+			Table table = chunk.create();
+			chunk = null;
+			return table;
+		}
+		try {
+			Table tail = chunk.create();
+			chunk = null;
+			long height = tail.height();
+			for (SpillFile spill : spills) {
+				height += spill.height;
+			}
+			if (height > Integer.MAX_VALUE) {
+				throw new IllegalStateException("Too many rows for a single table: " + height);
+			}
+			int length = (int) height;
+			Column[] columns = new Column[typeArray.length];
+			ExecutionUtils.parallel(0, columns.length, i -> columns[i] = assemble(i, length, tail), context);
+			return new Table(columns, columnLabels.toArray(new String[0]));
+		} finally {
+			close();
+		}
+	}
+
+	/**
+	 * @return the number of values per row
+	 */
+	public int width() {
+		return typeArray.length;
+	}
+
+	/**
+	 * @return the number of chunks spilled to disk so far
+	 */
+	public int numberOfSpills() {
+		return spills.size();
+	}
+
+	/**
+	 * Deletes all temporary chunk files.
+	 *
+	 * @throws UncheckedIOException
+	 * 		if deleting a file fails
+	 */
+	@Override
+	public void close() {
+		IOException failure = null;
+		for (SpillFile spill : spills) {
+			try {
+				Files.deleteIfExists(spill.file);
+			} catch (IOException e) {
+				failure = e;
+			}
+		}
+		spills.clear();
+		if (failure != null) {
+			throw new UncheckedIOException(failure);
+		}
+	}
+
+	@Override
+	public String toString() {
+		return "Spilling row writer (" + width() + " columns, " + spills.size() + " spills)";
+	}
+
+	/**
+	 * Writes the current chunk to a new file.
+	 */
+	private void writeChunk() {
+		Table table = chunk.create();
+		try {
+			spills.add(SpillFile.write(table, typeArray, directory, "belt-rows-", ".chunk"));
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	/**
+	 * Starts a new empty chunk.
+	 */
+	private void startChunk() {
+		chunk = new MixedRowWriter(columnLabels, types, chunkRows, initialize);
+		chunkHeight = 0;
+	}
+
+	/**
+	 * Creates the final column with the given index by reading its sections of all spilled chunks followed by the
+	 * rows of the last chunk, which is never written to disk.
+	 */
+	private Column assemble(int column, int height, Table tail) {
+		ByteBuffer buffer = ByteBuffer.allocate(READ_BUFFER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+		try {
+			switch (typeArray[column]) {
+				case REAL:
+				case INTEGER_53_BIT:
+					NumericColumnBuilder numeric = typeArray[column] == TypeId.REAL ? ColumnIO.readReal(height) :
+							ColumnIO.readInteger53Bit(height);
+					for (SpillFile spill : spills) {
+						transfer(spill, spill.offsets[column], SpillFile.BYTES_PER_LONG, buffer, numeric::put);
+					}
+					transfer(tail.column(column), ColumnIO::putNumericDoubles, buffer, numeric::put);
+					return numeric.toColumn();
+				case TIME:
+					TimeColumnBuilder time = ColumnIO.readTime(height);
+					for (SpillFile spill : spills) {
+						transfer(spill, spill.offsets[column], SpillFile.BYTES_PER_LONG, buffer, time::put);
+					}
+					transfer(tail.column(column), ColumnIO::putTimeLongs, buffer, time::put);
+					return time.toColumn();
+				case DATE_TIME:
+					return assembleDateTime(column, height, tail, buffer);
+				case NOMINAL:
+					return assembleNominal(column, height, tail, buffer);
+				default:
+					throw new AssertionError();
+			}
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	/**
+	 * Reads the second and, if any chunk has subsecond precision, the nanosecond sections. Chunks without nanosecond
+	 * section contribute zeros so that both sections stay aligned.
+	 */
+	private Column assembleDateTime(int column, int height, Table tail, ByteBuffer buffer) throws IOException {
+		DateTimeColumnBuilder builder = ColumnIO.readDateTime(height);
+		DateTimeColumn tailColumn = (DateTimeColumn) tail.column(column);
+		boolean nanos = tailColumn.hasSubSecondPrecision();
+		for (SpillFile spill : spills) {
+			transfer(spill, spill.offsets[column], SpillFile.BYTES_PER_LONG, buffer, builder::putSeconds);
+			nanos |= spill.nanoOffsets[column] >= 0;
+		}
+		transfer(tailColumn, ColumnIO::putDateTimeLongs, buffer, builder::putSeconds);
+		if (nanos) {
+			for (SpillFile spill : spills) {
+				if (spill.nanoOffsets[column] >= 0) {
+					transfer(spill, spill.nanoOffsets[column], SpillFile.BYTES_PER_INT, buffer, builder::putNanos);
+				} else {
+					putZeros(spill.height, buffer, builder::putNanos);
+				}
+			}
+			if (tailColumn.hasSubSecondPrecision()) {
+				transfer(tailColumn, ColumnIO::putDateTimeNanoInts, buffer, builder::putNanos);
+			} else {
+				putZeros(tail.height(), buffer, builder::putNanos);
+			}
+		}
+		return builder.toColumn();
+	}
+
+	/**
+	 * Builds the union of the chunk dictionaries and reads the category indices remapped to it.
+	 */
+	private Column assembleNominal(int column, int height, Table tail, ByteBuffer buffer) throws IOException {
+		Column tailColumn = tail.column(column);
+		List<String> tailDictionary = SpillFile.dictionaryValues(tailColumn.getDictionary());
+		LinkedHashSet<String> union = new LinkedHashSet<>();
+		union.add(null);
+		for (SpillFile spill : spills) {
+			union.addAll(spill.dictionaries[column]);
+		}
+		union.addAll(tailDictionary);
+		List<String> values = new ArrayList<>(union);
+		Map<String, Integer> indices = new HashMap<>();
+		for (int i = 1; i < values.size(); i++) {
+			indices.put(values.get(i), i);
+		}
+		NominalColumnBuilder builder = ColumnIO.readNominal(union, height);
+		for (SpillFile spill : spills) {
+			transfer(spill, spill.offsets[column], SpillFile.BYTES_PER_INT, buffer,
+					remapped(spill.dictionaries[column], indices, builder));
+		}
+		transfer(tailColumn, ColumnIO::putCategoricalIntegers, buffer, remapped(tailDictionary, indices, builder));
+		return builder.toColumn();
+	}
+
+	/**
+	 * Returns a consumer that remaps the category indices of a chunk to the union dictionary before passing them to
+	 * the builder.
+	 */
+	private static Consumer<ByteBuffer> remapped(List<String> dictionary, Map<String, Integer> indices,
+												 NominalColumnBuilder builder) {
+		int[] remap = new int[dictionary.size()];
+		for (int i = 1; i < remap.length; i++) {
+			String value = dictionary.get(i);
+			remap[i] = value == null ? 0 : indices.get(value);
+		}
+		return b -> {
+			for (int i = b.position(); i < b.limit(); i += SpillFile.BYTES_PER_INT) {
+				b.putInt(i, remap[b.getInt(i)]);
+			}
+			builder.putIntegers(b);
+		};
+	}
+
+	/**
+	 * Reads the section of the given chunk buffer by buffer and passes the buffers to the consumer.
+	 */
+	private static void transfer(SpillFile spill, long sectionStart, int bytesPerValue, ByteBuffer buffer,
+								 Consumer<ByteBuffer> consumer) throws IOException {
+		int rowsPerRead = buffer.capacity() / bytesPerValue;
+		try (FileChannel channel = FileChannel.open(spill.file, StandardOpenOption.READ)) {
+			for (int start = 0; start < spill.height; start += rowsPerRead) {
+				int length = Math.min(rowsPerRead, spill.height - start);
+				spill.read(channel, sectionStart, bytesPerValue, start, length, buffer);
+				consumer.accept(buffer);
+			}
+		}
+	}
+
+	/**
+	 * Encodes the in-memory column buffer by buffer and passes the buffers to the consumer.
+	 */
+	private static void transfer(Column column, SpillFile.SectionWriter writer, ByteBuffer buffer,
+								 Consumer<ByteBuffer> consumer) {
+		int offset = 0;
+		while (offset < column.size()) {
+			buffer.clear();
+			offset += writer.put(column, offset, buffer);
+			buffer.flip();
+			consumer.accept(buffer);
+		}
+	}
+
+	/**
+	 * Passes the given number of zero int values to the consumer.
+	 */
+	private static void putZeros(int count, ByteBuffer buffer, Consumer<ByteBuffer> consumer) {
+		int rowsPerPut = buffer.capacity() / SpillFile.BYTES_PER_INT;
+		for (int start = 0; start < count; start += rowsPerPut) {
+			int length = Math.min(rowsPerPut, count - start);
+			buffer.clear();
+			for (int i = 0; i < length; i++) {
+				buffer.putInt(0);
+			}
+			buffer.flip();
+			consumer.accept(buffer);
+		}
+	}
+
+}
@@ -46,6 +46,7 @@ import com.rapidminer.belt.reader.Readers;
 import com.rapidminer.belt.transform.Filterer;
 import com.rapidminer.belt.transform.RowFilterer;
 import com.rapidminer.belt.transform.RowTransformer;
+import com.rapidminer.belt.transform.Selection;
 import com.rapidminer.belt.transform.Transformer;
 import com.rapidminer.belt.util.ColumnMetaData;
 import com.rapidminer.belt.util.ColumnReference;
@@ -406,6 +407,32 @@ public final class Table {
 		}, ctx);
 	}
 
+	/**
+	 * Creates a new table with the rows of the given selection, e.g., the combined result of multiple
+	 * {@link Filterer#selectNumeric} calls. The selection is converted into a row mapping only once.
+	 *
+	 * @param selection
+	 * 		the selected rows, must have the height of this table
+	 * @param view
+	 * 		if this is {@code true} the data will not be copied, only a view will be attached. Otherwise a heuristic is
+	 * 		applied that might decide to copy the rows into a new table.
+	 * @param ctx
+	 * 		the execution context to use
+	 * @return the new table
+	 * @throws NullPointerException
+	 * 		if the context or the selection is {@code null}
+	 * @throws IllegalArgumentException
+	 * 		if the size of the selection does not match the height of this table
+	 */
+	public Table rows(Selection selection, boolean view, Context ctx) {
+		Objects.requireNonNull(ctx, MESSAGE_CONTEXT_NULL);
+		Objects.requireNonNull(selection, "Selection must not be null");
+		if (selection.size() != height()) {
+			throw new IllegalArgumentException("Selection size does not match the table height");
+		}
+		return ExecutionUtils.run(() -> map(selection.rows(), view, ctx), ctx);
+	}
+
 
 
 	/**
@@ -975,6 +1002,37 @@ public final class Table {
 		return filterCategorical(labelMap.get(column), predicate, workload, context);
 	}
 
+	/**
+	 * Filters the table by the given predicate on the category values of a categorical column. The predicate is
+	 * evaluated only once per dictionary value instead of once per row, rows with missing values are never accepted.
+	 * Depending on the input size and the specified workload per data-point, the computation might be performed in
+	 * parallel.
+	 *
+	 * @param column
+	 * 		the label of the column on which to evaluate the predicate, must be {@link Column.Category#CATEGORICAL}
+	 * @param predicate
+	 * 		the predicate to apply to the category values
+	 * @param workload
+	 * 		the expected workload per data point
+	 * @param context
+	 * 		the execution context
+	 * @return a table with only those rows where the predicate returns {@code true}
+	 * @throws NullPointerException
+	 * 		if any of the arguments is {@code null}
+	 * @throws IllegalArgumentException
+	 * 		if the column label is invalid
+	 * @throws UnsupportedOperationException
+	 * 		if the column is not categorical
+	 */
+	public Table filterCategoricalValues(String column, Predicate<String> predicate, Workload workload,
+										 Context context) {
+		requireExistingLabel(column);
+		Objects.requireNonNull(context, MESSAGE_CONTEXT_NULL);
+		int[] mapping = new Filterer(columns[labelMap.get(column)]).workload(workload)
+				.filterCategoricalValues(predicate, context);
+		return map(mapping, false, context);
+	}
+
 	/**
 	 * Filters the table by the given filter predicate. Depending on the input size and the specified workload per
 	 * data-point, the computation might be performed in parallel.
@@ -1224,6 +1282,33 @@ public final class Table {
 		return filterMixed(indices, filter, workload, context);
 	}
 
+	/**
+	 * Filters the table to the rows whose value in the given column is contained in the given values column, i.e.,
+	 * performs a semi-join with a single key column. The values are collected in a primitive hash table or, for
+	 * categorical columns, in a lookup table over the category indices, so that no values are boxed. Rows with missing
+	 * values are never accepted. Depending on the input size, the lookups might be performed in parallel.
+	 *
+	 * @param column
+	 * 		the label of the column to filter by
+	 * @param values
+	 * 		the column containing the accepted values, must be compatible with the filter column: both categorical with
+	 * 		the same element type, both numeric, or both of the same other type
+	 * @param context
+	 * 		the execution context
+	 * @return a table with only those rows whose value is contained in the values column
+	 * @throws NullPointerException
+	 * 		if any of the arguments is {@code null}
+	 * @throws IllegalArgumentException
+	 * 		if the column label is invalid or the column types are incompatible
+	 */
+	public Table filterIn(String column, Column values, Context context) {
+		requireExistingLabel(column);
+		Objects.requireNonNull(values, "Values column must not be null");
+		Objects.requireNonNull(context, MESSAGE_CONTEXT_NULL);
+		int[] mapping = MembershipFilter.filter(columns[labelMap.get(column)], values, context);
+		return map(mapping, false, context);
+	}
+
 	/**
 	 * Returns the meta data attached to the column with the given label (if any).
 	 *
@@ -1280,6 +1365,77 @@ public final class Table {
 		return Table.getFirstMetaData(label, type, metaDataMap);
 	}
 
+	/**
+	 * Creates a {@link GroupBy} for the given key columns as a starting point for computing per-group aggregations.
+	 *
+	 * @param keys
+	 * 		the labels of the key columns, must be categorical, numeric-readable or date-time columns
+	 * @return a group-by for this table
+	 * @throws NullPointerException
+	 * 		if the key labels are or contain {@code null}
+	 * @throws IllegalArgumentException
+	 * 		if there are no key labels, a key label is invalid or a key column is of an unsupported type
+	 * @see GroupBy
+	 */
+	public GroupBy groupBy(String... keys) {
+		Objects.requireNonNull(keys, "Key labels must not be null");
+		return groupBy(Arrays.asList(keys));
+	}
+
+	/**
+	 * Creates a {@link GroupBy} for the given key columns as a starting point for computing per-group aggregations.
+	 *
+	 * @param keys
+	 * 		the labels of the key columns, must be categorical, numeric-readable or date-time columns
+	 * @return a group-by for this table
+	 * @throws NullPointerException
+	 * 		if the key label list is or contains {@code null}
+	 * @throws IllegalArgumentException
+	 * 		if the key label list is empty, a key label is invalid or a key column is of an unsupported type
+	 * @see GroupBy
+	 */
+	public GroupBy groupBy(List<String> keys) {
+		requireExistingLabels(keys);
+		int[] indices = lookupLabels(keys);
+		if (Arrays.stream(indices).distinct().count() != indices.length) {
+			throw new IllegalArgumentException("Key labels must not contain duplicates");
+		}
+		return new GroupBy(this, indices);
+	}
+
+	/**
+	 * Returns a view of this table that keeps only the first row of every distinct combination of values in the given
+	 * columns, in the original row order. Rows are compared without boxing the values: categorical values by category
+	 * index, numeric values by value (with {@code 0.0} equal to {@code -0.0}) and date-time values by their seconds and
+	 * nanoseconds. Missing values are equal to each other. Large tables are deduplicated in parallel.
+	 *
+	 * @param columns
+	 * 		the labels of the columns to compare, must be categorical, numeric-readable or date-time columns
+	 * @param context
+	 * 		the execution context
+	 * @return a view containing the first occurrence of every distinct combination of values
+	 * @throws NullPointerException
+	 * 		if the label list is or contains {@code null} or the context is {@code null}
+	 * @throws IllegalArgumentException
+	 * 		if the label list is empty or contains duplicates, a label is invalid or a column is of an unsupported type
+	 */
+	public Table distinct(List<String> columns, Context context) {
+		requireExistingLabels(columns);
+		Objects.requireNonNull(context, MESSAGE_CONTEXT_NULL);
+		int[] indices = lookupLabels(columns);
+		if (Arrays.stream(indices).distinct().count() != indices.length) {
+			throw new IllegalArgumentException("Labels must not contain duplicates");
+		}
+		Column[] keys = new Column[indices.length];
+		for (int k = 0; k < indices.length; k++) {
+			keys[k] = this.columns[indices[k]];
+			if (!KeyTupleReader.isSupported(keys[k])) {
+				throw new IllegalArgumentException("Unsupported column type: " + keys[k].type());
+			}
+		}
+		return map(DistinctRows.firstRows(keys, height, context), true, context);
+	}
+
 	/**
 	 * Creates a {@link ColumnSelector} for this table as a starting point for different column selection methods.
 	 *
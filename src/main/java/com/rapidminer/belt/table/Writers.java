@@ -253,6 +253,124 @@ public final class Writers {
 		return new MixedRowWriter(columnLabels, types, expectedRows, initialize);
 	}
 
+	/**
+	 * Writer for a new {@link Table} with the given column labels whose rows are written concurrently into the given
+	 * number of ordered partitions, see {@link PartitionedRowWriter}. If unset values should be missing, choose {@code
+	 * true} for initialize, if there are no unset values choose {@code false} for performance reasons.
+	 *
+	 * @param columnLabels
+	 * 		the labels of the columns
+	 * @param types
+	 * 		the types of the columns
+	 * @param numberOfPartitions
+	 * 		the number of partitions, e.g., the number of worker threads or of row ranges
+	 * @param initialize
+	 * 		if this is {@code true} every value that is not explicitly set is missing, if this is {@code false} values
+	 * 		for	indices that are not explicitly set are undetermined
+	 * @return a writer to write a new table partition-wise
+	 * @throws NullPointerException
+	 * 		if column label or type list is {@code null} or contains {@code null}
+	 * @throws IllegalArgumentException
+	 * 		if column label list is empty or not the same size as types list or the number of partitions is not
+	 * 		positive
+	 */
+	public static PartitionedRowWriter partitionedRowWriter(List<String> columnLabels, List<TypeId> types,
+															int numberOfPartitions, boolean initialize) {
+		checkPartitionedArguments(columnLabels, types, numberOfPartitions);
+		return new PartitionedRowWriter(columnLabels, types, numberOfPartitions, -1, initialize);
+	}
+
+	/**
+	 * Writer for a new {@link Table} with the given column labels whose rows are written concurrently into the given
+	 * number of ordered partitions, see {@link PartitionedRowWriter}. If unset values should be missing, choose {@code
+	 * true} for initialize, if there are no unset values choose {@code false} for performance reasons.
+	 *
+	 * @param columnLabels
+	 * 		the labels of the columns
+	 * @param types
+	 * 		the types of the columns
+	 * @param numberOfPartitions
+	 * 		the number of partitions, e.g., the number of worker threads or of row ranges
+	 * @param expectedRowsPerPartition
+	 * 		an estimate for the number of rows per partition. A good estimation prevents unnecessary resizing of the
+	 * 		data containers.
+	 * @param initialize
+	 * 		if this is {@code true} every value that is not explicitly set is missing, if this is {@code false} values
+	 * 		for	indices that are not explicitly set are undetermined
+	 * @return a writer to write a new table partition-wise
+	 * @throws NullPointerException
+	 * 		if column label or type list is {@code null} or contains {@code null}
+	 * @throws IllegalArgumentException
+	 * 		if column label list is empty or not the same size as types list, the number of partitions is not
+	 * 		positive or the expected rows are negative
+	 */
+	public static PartitionedRowWriter partitionedRowWriter(List<String> columnLabels, List<TypeId> types,
+															int numberOfPartitions, int expectedRowsPerPartition,
+															boolean initialize) {
+		checkPartitionedArguments(columnLabels, types, numberOfPartitions);
+		if (expectedRowsPerPartition < 0) {
+			throw new IllegalArgumentException(MSG_EXPECTED_ROWS_NEGATIVE);
+		}
+		return new PartitionedRowWriter(columnLabels, types, numberOfPartitions, expectedRowsPerPartition,
+				initialize);
+	}
+
+	/**
+	 * Writer for a new {@link Table} with the given column labels whose rows are buffered in chunks of bounded size and
+	 * spilled to temporary files, see {@link SpillingRowWriter}. Use this writer instead of {@link
+	 * #mixedRowWriter(List, List, boolean)} if the number of rows is unknown and the intermediate data containers
+	 * should not grow beyond a memory budget. If unset values should be missing, choose {@code true} for initialize,
+	 * if there are no unset values choose {@code false} for performance reasons.
+	 *
+	 * @param columnLabels
+	 * 		the labels of the columns
+	 * @param types
+	 * 		the types of the columns
+	 * @param initialize
+	 * 		if this is {@code true} every value that is not explicitly set is missing, if this is {@code false} values
+	 * 		for	indices that are not explicitly set are undetermined
+	 * @return a writer to write a new table row by row
+	 * @throws NullPointerException
+	 * 		if column label or type list is {@code null} or contains {@code null}
+	 * @throws IllegalArgumentException
+	 * 		if column label list is empty or not the same size as types list or contains unsupported types
+	 */
+	public static SpillingRowWriter spillingRowWriter(List<String> columnLabels, List<TypeId> types,
+													  boolean initialize) {
+		if (columnLabels == null) {
+			throw new NullPointerException(MSG_NULL_COLUMN_LABELS);
+		}
+		if (types == null) {
+			throw new NullPointerException(MSG_COLUMN_TYPES_NULL);
+		}
+		if (columnLabels.isEmpty()) {
+			throw new IllegalArgumentException(MSG_COLUMN_LABELS_EMPTY);
+		}
+		if (columnLabels.size() != types.size()) {
+			throw new IllegalArgumentException(MSG_COLUMN_LABELS_AND_TYPES_LENGTH);
+		}
+		return new SpillingRowWriter(columnLabels, types, initialize);
+	}
+
+	private static void checkPartitionedArguments(List<String> columnLabels, List<TypeId> types,
+												  int numberOfPartitions) {
+		if (columnLabels == null) {
+			throw new NullPointerException(MSG_NULL_COLUMN_LABELS);
+		}
+		if (types == null) {
+			throw new NullPointerException(MSG_COLUMN_TYPES_NULL);
+		}
+		if (columnLabels.isEmpty()) {
+			throw new IllegalArgumentException(MSG_COLUMN_LABELS_EMPTY);
+		}
+		if (columnLabels.size() != types.size()) {
+			throw new IllegalArgumentException(MSG_COLUMN_LABELS_AND_TYPES_LENGTH);
+		}
+		if (numberOfPartitions < 1) {
+			throw new IllegalArgumentException("Number of partitions must be positive");
+		}
+	}
+
 	private Writers() {
 		// Suppress default constructor to prevent instantiation
 		throw new AssertionError();
@@ -23,6 +23,7 @@ import java.util.function.IntPredicate;
 import java.util.function.Predicate;
 
 import com.rapidminer.belt.column.Column;
+import com.rapidminer.belt.column.Dictionary;
 import com.rapidminer.belt.execution.Context;
 import com.rapidminer.belt.execution.Workload;
 
@@ -152,4 +153,141 @@ public final class Filterer {
 				NOOP_CALLBACK).execute(context);
 	}
 
+	/**
+	 * Selects the rows of the numeric-readable filter column accepted by the predicate. Unlike
+	 * {@link #filterNumeric(DoublePredicate, Context)}, the result is a {@link Selection} that can be combined with
+	 * other selections before it is turned into a row mapping. Depending on the input size and the specified workload
+	 * per data-point, the computation might be performed in parallel.
+	 *
+	 * @param predicate
+	 * 		the predicate to apply
+	 * @param context
+	 * 		the execution context to use
+	 * @return the selection of the accepted rows
+	 * @throws NullPointerException
+	 * 		if any of the parameters is {@code null}
+	 * @throws UnsupportedOperationException
+	 * 		if the filter column is not {@link Column.Capability#NUMERIC_READABLE}
+	 */
+	public Selection selectNumeric(DoublePredicate predicate, Context context) {
+		Objects.requireNonNull(predicate, MESSAGE_FILTER_FUNCTION_NULL);
+		Objects.requireNonNull(context, MESSAGE_CONTEXT_NULL);
+		return new ParallelExecutor<>(SelectionCalculator.numeric(filterColumn, predicate), workload, NOOP_CALLBACK)
+				.execute(context);
+	}
+
+	/**
+	 * Selects the rows of the categorical filter column accepted by the predicate. Unlike
+	 * {@link #filterCategorical(IntPredicate, Context)}, the result is a {@link Selection} that can be combined with
+	 * other selections before it is turned into a row mapping. Depending on the input size and the specified workload
+	 * per data-point, the computation might be performed in parallel.
+	 *
+	 * @param predicate
+	 * 		the predicate to apply
+	 * @param context
+	 * 		the execution context to use
+	 * @return the selection of the accepted rows
+	 * @throws NullPointerException
+	 * 		if any of the parameters is {@code null}
+	 * @throws UnsupportedOperationException
+	 * 		if the filter column is not {@link Column.Category#CATEGORICAL}
+	 */
+	public Selection selectCategorical(IntPredicate predicate, Context context) {
+		Objects.requireNonNull(predicate, MESSAGE_FILTER_FUNCTION_NULL);
+		Objects.requireNonNull(context, MESSAGE_CONTEXT_NULL);
+		return new ParallelExecutor<>(SelectionCalculator.categorical(filterColumn, predicate), workload,
+				NOOP_CALLBACK).execute(context);
+	}
+
+	/**
+	 * Selects the rows of the object-readable filter column accepted by the predicate. Unlike
+	 * {@link #filterObject(Class, Predicate, Context)}, the result is a {@link Selection} that can be combined with
+	 * other selections before it is turned into a row mapping. Depending on the input size and the specified workload
+	 * per data-point, the computation might be performed in parallel.
+	 *
+	 * @param type
+	 * 		the type as which the columns should be read
+	 * @param predicate
+	 * 		the predicate to apply
+	 * @param context
+	 * 		the execution context to use
+	 * @return the selection of the accepted rows
+	 * @throws NullPointerException
+	 * 		if any of the parameters is {@code null}
+	 * @throws UnsupportedOperationException
+	 * 		if the filter column is not {@link Column.Capability#OBJECT_READABLE}
+	 * @throws IllegalArgumentException
+	 * 		if the type is not compatible with the filter column
+	 */
+	public <T> Selection selectObject(Class<T> type, Predicate<T> predicate, Context context) {
+		Objects.requireNonNull(type, "Type must not be null");
+		Objects.requireNonNull(predicate, MESSAGE_FILTER_FUNCTION_NULL);
+		Objects.requireNonNull(context, MESSAGE_CONTEXT_NULL);
+		return new ParallelExecutor<>(SelectionCalculator.object(filterColumn, type, predicate), workload,
+				NOOP_CALLBACK).execute(context);
+	}
+
+	/**
+	 * Filters the categorical filter column with respect to a predicate on the category values returning as result
+	 * the accepted rows indices. Unlike {@link #filterCategorical(IntPredicate, Context)}, the predicate is evaluated
+	 * only once per dictionary value, the rows are then filtered via a lookup table. Rows with missing values are never
+	 * accepted, the predicate is not evaluated for them. Depending on the input size and the specified workload per
+	 * data-point, the computation might be performed in parallel.
+	 *
+	 * @param predicate
+	 * 		the predicate to apply to the dictionary values
+	 * @param context
+	 * 		the execution context to use
+	 * @return an array containing the accepted rows
+	 * @throws NullPointerException
+	 * 		if any of the parameters is {@code null}
+	 * @throws UnsupportedOperationException
+	 * 		if the filter column is not {@link Column.Category#CATEGORICAL}
+	 */
+	public int[] filterCategoricalValues(Predicate<String> predicate, Context context) {
+		Objects.requireNonNull(predicate, MESSAGE_FILTER_FUNCTION_NULL);
+		Objects.requireNonNull(context, MESSAGE_CONTEXT_NULL);
+		boolean[] accepted = acceptedCategories(filterColumn, predicate);
+		return new ParallelExecutor<>(new CategoricalColumnFilterer(filterColumn, i -> accepted[i]), workload,
+				NOOP_CALLBACK).execute(context);
+	}
+
+	/**
+	 * Selects the rows of the categorical filter column whose category values are accepted by the predicate, see
+	 * {@link #filterCategoricalValues(Predicate, Context)} and {@link #selectCategorical(IntPredicate, Context)}.
+	 *
+	 * @param predicate
+	 * 		the predicate to apply to the dictionary values
+	 * @param context
+	 * 		the execution context to use
+	 * @return the selection of the accepted rows
+	 * @throws NullPointerException
+	 * 		if any of the parameters is {@code null}
+	 * @throws UnsupportedOperationException
+	 * 		if the filter column is not {@link Column.Category#CATEGORICAL}
+	 */
+	public Selection selectCategoricalValues(Predicate<String> predicate, Context context) {
+		Objects.requireNonNull(predicate, MESSAGE_FILTER_FUNCTION_NULL);
+		Objects.requireNonNull(context, MESSAGE_CONTEXT_NULL);
+		boolean[] accepted = acceptedCategories(filterColumn, predicate);
+		return new ParallelExecutor<>(SelectionCalculator.categorical(filterColumn, i -> accepted[i]), workload,
+				NOOP_CALLBACK).execute(context);
+	}
+
+	/**
+	 * Evaluates the predicate once for every value of the dictionary of the given categorical column.
+	 *
+	 * @return a lookup table from category index to whether the predicate accepts the value, {@code false} for the
+	 * missing index
+	 */
+	static boolean[] acceptedCategories(Column column, Predicate<String> predicate) {
+		Dictionary dictionary = column.getDictionary();
+		boolean[] accepted = new boolean[dictionary.maximalIndex() + 1];
+		for (int i = 1; i < accepted.length; i++) {
+			String value = dictionary.get(i);
+			accepted[i] = value != null && predicate.test(value);
+		}
+		return accepted;
+	}
+
 }
\ No newline at end of file
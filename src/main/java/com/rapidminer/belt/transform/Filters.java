@@ -0,0 +1,237 @@
+/**
+ * This file is part of the RapidMiner Belt project.
+ * Copyright (C) 2017-2021 RapidMiner GmbH
+ *
+ * This program is free software: you can redistribute it and/or modify it under the terms of the GNU Affero General
+ * Public License as published by the Free Software Foundation, either version 3 of the License, or (at your option) any
+ * later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied
+ * warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU Affero General Public License along with this program. If not, see
+ * https://www.gnu.org/licenses/.
+ */
+
+
+package com.rapidminer.belt.transform;
+
+import java.time.LocalTime;
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.function.DoubleConsumer;
+
+import com.rapidminer.belt.column.Column;
+import com.rapidminer.belt.column.ZoneMap;
+import com.rapidminer.belt.execution.Context;
+import com.rapidminer.belt.execution.Workload;
+
+
+/**
+ * Built-in filters for {@link Column.Capability#NUMERIC_READABLE} columns. Unlike the filters of {@link Filterer}
+ * that call a user-defined predicate for every row, these filters copy the column values block-wise into primitive
+ * arrays and compare them in tight loops that the JIT compiler can optimize independently of any other filters in
+ * use. Thus, they should be preferred for simple comparisons, in particular range filters.
+ *
+ * <p>Integer columns are compared by their values and time columns by their nanoseconds of the day. Missing values
+ * are only selected by {@link #isMissing(Column, Context)}.
+ *
+ * <p>If a {@link ZoneMap} is cached for the column, blocks whose summary shows that either none or all of their rows
+ * match are not read at all. Thus, it pays off to compute the zone map via {@link ZoneMap#of(Column, Context)} for
+ * columns that are filtered repeatedly.
+ *
+ * @author Michael Knopf
+ */
+public final class Filters {
+
+	/**
+	 * Default progress callback which does nothing at all.
+	 */
+	private static final DoubleConsumer NOOP_CALLBACK = i -> {};
+
+	private static final String MESSAGE_COLUMN_NULL = "Column must not be null";
+
+	private static final String MESSAGE_CONTEXT_NULL = "Context must not be null";
+
+	// Suppress default constructor for noninstantiability
+	private Filters() {
+		throw new AssertionError();
+	}
+
+	/**
+	 * Selects the rows of the given column with values between the given bounds (inclusive).
+	 *
+	 * @param column
+	 * 		the column to filter
+	 * @param lower
+	 * 		the smallest accepted value
+	 * @param upper
+	 * 		the largest accepted value
+	 * @param context
+	 * 		the execution context to use
+	 * @return the selection of the accepted rows
+	 * @throws NullPointerException
+	 * 		if the column or context is {@code null}
+	 * @throws UnsupportedOperationException
+	 * 		if the column is not {@link Column.Capability#NUMERIC_READABLE}
+	 * @throws IllegalArgumentException
+	 * 		if one of the bounds is {@code NaN}
+	 */
+	public static Selection between(Column column, double lower, double upper, Context context) {
+		requireNumericReadable(column);
+		Objects.requireNonNull(context, MESSAGE_CONTEXT_NULL);
+		if (Double.isNaN(lower) || Double.isNaN(upper)) {
+			throw new IllegalArgumentException("Bounds must not be NaN");
+		}
+		return range(column, lower, upper, context);
+	}
+
+	/**
+	 * Selects the rows of the given time column with values between the given bounds (inclusive).
+	 *
+	 * @param column
+	 * 		the time column to filter
+	 * @param lower
+	 * 		the earliest accepted time
+	 * @param upper
+	 * 		the latest accepted time
+	 * @param context
+	 * 		the execution context to use
+	 * @return the selection of the accepted rows
+	 * @throws NullPointerException
+	 * 		if any of the parameters is {@code null}
+	 * @throws IllegalArgumentException
+	 * 		if the column is not a {@link Column.TypeId#TIME} column
+	 */
+	public static Selection between(Column column, LocalTime lower, LocalTime upper, Context context) {
+		Objects.requireNonNull(column, MESSAGE_COLUMN_NULL);
+		Objects.requireNonNull(lower, "Lower bound must not be null");
+		Objects.requireNonNull(upper, "Upper bound must not be null");
+		Objects.requireNonNull(context, MESSAGE_CONTEXT_NULL);
+		if (column.type().id() != Column.TypeId.TIME) {
+			throw new IllegalArgumentException("Column must be a time column");
+		}
+		return range(column, lower.toNanoOfDay(), upper.toNanoOfDay(), context);
+	}
+
+	/**
+	 * Selects the rows of the given column with values less than the given value.
+	 *
+	 * @param column
+	 * 		the column to filter
+	 * @param value
+	 * 		the exclusive upper bound
+	 * @param context
+	 * 		the execution context to use
+	 * @return the selection of the accepted rows
+	 * @throws NullPointerException
+	 * 		if the column or context is {@code null}
+	 * @throws UnsupportedOperationException
+	 * 		if the column is not {@link Column.Capability#NUMERIC_READABLE}
+	 * @throws IllegalArgumentException
+	 * 		if the value is {@code NaN}
+	 */
+	public static Selection lessThan(Column column, double value, Context context) {
+		requireNumericReadable(column);
+		Objects.requireNonNull(context, MESSAGE_CONTEXT_NULL);
+		if (Double.isNaN(value)) {
+			throw new IllegalArgumentException("Bound must not be NaN");
+		}
+		if (value == Double.NEGATIVE_INFINITY) {
+			return Selection.none(column.size());
+		}
+		// the next smaller double turns the exclusive bound into an inclusive one
+		return range(column, Double.NEGATIVE_INFINITY, Math.nextDown(value), context);
+	}
+
+	/**
+	 * Selects the rows of the given column with values greater than the given value.
+	 *
+	 * @param column
+	 * 		the column to filter
+	 * @param value
+	 * 		the exclusive lower bound
+	 * @param context
+	 * 		the execution context to use
+	 * @return the selection of the accepted rows
+	 * @throws NullPointerException
+	 * 		if the column or context is {@code null}
+	 * @throws UnsupportedOperationException
+	 * 		if the column is not {@link Column.Capability#NUMERIC_READABLE}
+	 * @throws IllegalArgumentException
+	 * 		if the value is {@code NaN}
+	 */
+	public static Selection greaterThan(Column column, double value, Context context) {
+		requireNumericReadable(column);
+		Objects.requireNonNull(context, MESSAGE_CONTEXT_NULL);
+		if (Double.isNaN(value)) {
+			throw new IllegalArgumentException("Bound must not be NaN");
+		}
+		if (value == Double.POSITIVE_INFINITY) {
+			return Selection.none(column.size());
+		}
+		return range(column, Math.nextUp(value), Double.POSITIVE_INFINITY, context);
+	}
+
+	/**
+	 * Selects the rows of the given column with missing values.
+	 *
+	 * @param column
+	 * 		the column to filter
+	 * @param context
+	 * 		the execution context to use
+	 * @return the selection of the rows with missing values
+	 * @throws NullPointerException
+	 * 		if any of the parameters is {@code null}
+	 * @throws UnsupportedOperationException
+	 * 		if the column is not {@link Column.Capability#NUMERIC_READABLE}
+	 */
+	public static Selection isMissing(Column column, Context context) {
+		requireNumericReadable(column);
+		Objects.requireNonNull(context, MESSAGE_CONTEXT_NULL);
+		return execute(SelectionCalculator.missing(column, ZoneMap.cached(column)), context);
+	}
+
+	/**
+	 * Selects the rows of the given column with values equal to one of the given values. {@code NaN}s in the given
+	 * values are ignored, i.e., missing values are never selected, and {@code -0.0} and {@code 0.0} are considered
+	 * equal.
+	 *
+	 * @param column
+	 * 		the column to filter
+	 * @param values
+	 * 		the accepted values
+	 * @param context
+	 * 		the execution context to use
+	 * @return the selection of the accepted rows
+	 * @throws NullPointerException
+	 * 		if any of the parameters is {@code null}
+	 * @throws UnsupportedOperationException
+	 * 		if the column is not {@link Column.Capability#NUMERIC_READABLE}
+	 */
+	public static Selection in(Column column, double[] values, Context context) {
+		requireNumericReadable(column);
+		Objects.requireNonNull(values, "Values must not be null");
+		Objects.requireNonNull(context, MESSAGE_CONTEXT_NULL);
+		double[] sorted = Arrays.stream(values).filter(v -> !Double.isNaN(v)).map(v -> v + 0.0).sorted().distinct()
+				.toArray();
+		return execute(SelectionCalculator.contained(column, ZoneMap.cached(column), sorted), context);
+	}
+
+	private static void requireNumericReadable(Column column) {
+		Objects.requireNonNull(column, MESSAGE_COLUMN_NULL);
+		if (!column.type().hasCapability(Column.Capability.NUMERIC_READABLE)) {
+			throw new UnsupportedOperationException("Column is not numeric-readable");
+		}
+	}
+
+	private static Selection range(Column column, double lower, double upper, Context context) {
+		return execute(SelectionCalculator.range(column, ZoneMap.cached(column), lower, upper), context);
+	}
+
+	private static Selection execute(SelectionCalculator calculator, Context context) {
+		return new ParallelExecutor<>(calculator, Workload.SMALL, NOOP_CALLBACK).execute(context);
+	}
+
+}
@@ -210,4 +210,100 @@ public final class RowFilterer {
 		return new ParallelExecutor<>(new MixedColumnsFilterer(filterColumns, predicate), workload,
 				NOOP_CALLBACK).execute(context);
 	}
+
+	/**
+	 * Selects the rows of the numeric-readable filter columns accepted by the predicate. Unlike
+	 * {@link #filterNumeric(Predicate, Context)}, the result is a {@link Selection} that can be combined with other
+	 * selections before it is turned into a row mapping. Depending on the input size and the specified workload per
+	 * data-point, the computation might be performed in parallel.
+	 *
+	 * @param predicate
+	 * 		the predicate to apply
+	 * @param context
+	 * 		the execution context to use
+	 * @return the selection of the accepted rows
+	 * @throws NullPointerException
+	 * 		if any of the parameters is {@code null}
+	 * @throws UnsupportedOperationException
+	 * 		if the filter columns are not all {@link Column.Capability#NUMERIC_READABLE}
+	 */
+	public Selection selectNumeric(Predicate<NumericRow> predicate, Context context) {
+		Objects.requireNonNull(predicate, MESSAGE_FILTER_FUNCTION_NULL);
+		Objects.requireNonNull(context, MESSAGE_CONTEXT_NULL);
+		return new ParallelExecutor<>(SelectionCalculator.numericRows(filterColumns, predicate), workload,
+				NOOP_CALLBACK).execute(context);
+	}
+
+	/**
+	 * Selects the rows of the categorical filter columns accepted by the predicate. Unlike
+	 * {@link #filterCategorical(Predicate, Context)}, the result is a {@link Selection} that can be combined with
+	 * other selections before it is turned into a row mapping. Depending on the input size and the specified workload
+	 * per data-point, the computation might be performed in parallel.
+	 *
+	 * @param predicate
+	 * 		the predicate to apply
+	 * @param context
+	 * 		the execution context to use
+	 * @return the selection of the accepted rows
+	 * @throws NullPointerException
+	 * 		if any of the parameters is {@code null}
+	 * @throws UnsupportedOperationException
+	 * 		if the filter columns are not all {@link Column.Category#CATEGORICAL}
+	 */
+	public Selection selectCategorical(Predicate<CategoricalRow> predicate, Context context) {
+		Objects.requireNonNull(predicate, MESSAGE_FILTER_FUNCTION_NULL);
+		Objects.requireNonNull(context, MESSAGE_CONTEXT_NULL);
+		return new ParallelExecutor<>(SelectionCalculator.categoricalRows(filterColumns, predicate), workload,
+				NOOP_CALLBACK).execute(context);
+	}
+
+	/**
+	 * Selects the rows of the object-readable filter columns accepted by the predicate. Unlike
+	 * {@link #filterObjects(Class, Predicate, Context)}, the result is a {@link Selection} that can be combined with
+	 * other selections before it is turned into a row mapping. Depending on the input size and the specified workload
+	 * per data-point, the computation might be performed in parallel.
+	 *
+	 * @param type
+	 * 		the type as which the columns should be read
+	 * @param predicate
+	 * 		the predicate to apply
+	 * @param context
+	 * 		the execution context to use
+	 * @return the selection of the accepted rows
+	 * @throws NullPointerException
+	 * 		if any of the parameters is {@code null}
+	 * @throws UnsupportedOperationException
+	 * 		if the filter columns are not all {@link Column.Capability#OBJECT_READABLE}
+	 * @throws IllegalArgumentException
+	 * 		if the type is not compatible with the filter columns
+	 */
+	public <T> Selection selectObjects(Class<T> type, Predicate<ObjectRow<T>> predicate, Context context) {
+		Objects.requireNonNull(type, "Type must not be null");
+		Objects.requireNonNull(predicate, MESSAGE_FILTER_FUNCTION_NULL);
+		Objects.requireNonNull(context, MESSAGE_CONTEXT_NULL);
+		return new ParallelExecutor<>(SelectionCalculator.objectRows(filterColumns, type, predicate), workload,
+				NOOP_CALLBACK).execute(context);
+	}
+
+	/**
+	 * Selects the rows of the filter columns accepted by the predicate. Unlike
+	 * {@link #filterMixed(Predicate, Context)}, the result is a {@link Selection} that can be combined with other
+	 * selections before it is turned into a row mapping. Depending on the input size and the specified workload per
+	 * data-point, the computation might be performed in parallel.
+	 *
+	 * @param predicate
+	 * 		the predicate to apply
+	 * @param context
+	 * 		the execution context to use
+	 * @return the selection of the accepted rows
+	 * @throws NullPointerException
+	 * 		if any of the parameters is {@code null}
+	 */
+	public Selection selectMixed(Predicate<MixedRow> predicate, Context context) {
+		Objects.requireNonNull(predicate, MESSAGE_FILTER_FUNCTION_NULL);
+		Objects.requireNonNull(context, MESSAGE_CONTEXT_NULL);
+		return new ParallelExecutor<>(SelectionCalculator.mixedRows(filterColumns, predicate), workload,
+				NOOP_CALLBACK).execute(context);
+	}
+
 }
\ No newline at end of file
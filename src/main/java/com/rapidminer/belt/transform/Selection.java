@@ -0,0 +1,323 @@
+/**
+ * This file is part of the RapidMiner Belt project.
+ * Copyright (C) 2017-2021 RapidMiner GmbH
+ *
+ * This program is free software: you can redistribute it and/or modify it under the terms of the GNU Affero General
+ * Public License as published by the Free Software Foundation, either version 3 of the License, or (at your option) any
+ * later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied
+ * warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU Affero General Public License along with this program. If not, see
+ * https://www.gnu.org/licenses/.
+ */
+
+
+package com.rapidminer.belt.transform;
+
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.function.DoubleConsumer;
+import java.util.function.LongBinaryOperator;
+
+import com.rapidminer.belt.execution.Context;
+import com.rapidminer.belt.execution.Workload;
+
+
+/**
+ * An immutable selection of rows of a column or table of a fixed size, stored as a bitmap with one bit per row.
+ * Selections are the result of the {@code select} methods of {@link Filterer} and {@link RowFilterer}. Unlike the
+ * row index arrays returned by the {@code filter} methods, they can be combined cheaply via {@link #and},
+ * {@link #or}, {@link #andNot} and {@link #not}. Thus, multiple predicates can be evaluated independently and only
+ * the final combination needs to be converted into a row mapping, e.g., via
+ * {@link com.rapidminer.belt.table.Table#rows(Selection, boolean, Context)}.
+ *
+ * @author Michael Knopf
+ */
+public final class Selection {
+
+	/**
+	 * Default progress callback which does nothing at all.
+	 */
+	private static final DoubleConsumer NOOP_CALLBACK = i -> {};
+
+	private static final String MESSAGE_CONTEXT_NULL = "Context must not be null";
+
+	/**
+	 * The selection bits, row {@code i} is selected iff bit {@code i % 64} of word {@code i / 64} is set. Bits beyond
+	 * the size are always cleared.
+	 */
+	private final long[] words;
+	private final int size;
+
+	/**
+	 * Creates a new selection backed by the given words. The words are not copied.
+	 *
+	 * @param words
+	 * 		the selection bits, must have length {@link #numberOfWords(int)} and no bits set beyond the size
+	 * @param size
+	 * 		the number of rows
+	 */
+	Selection(long[] words, int size) {
+		this.words = words;
+		this.size = size;
+	}
+
+	/**
+	 * Creates a selection of the given size with all rows selected.
+	 *
+	 * @param size
+	 * 		the number of rows
+	 * @return the selection
+	 * @throws IllegalArgumentException
+	 * 		if the size is negative
+	 */
+	public static Selection all(int size) {
+		requireValidSize(size);
+		long[] words = new long[numberOfWords(size)];
+		Arrays.fill(words, -1L);
+		clearTrailingBits(words, size);
+		return new Selection(words, size);
+	}
+
+	/**
+	 * Creates a selection of the given size with no rows selected.
+	 *
+	 * @param size
+	 * 		the number of rows
+	 * @return the selection
+	 * @throws IllegalArgumentException
+	 * 		if the size is negative
+	 */
+	public static Selection none(int size) {
+		requireValidSize(size);
+		return new Selection(new long[numberOfWords(size)], size);
+	}
+
+	/**
+	 * Returns the number of rows, selected or not.
+	 *
+	 * @return the size of the selection
+	 */
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * Returns the number of selected rows.
+	 *
+	 * @return the number of selected rows
+	 */
+	public int count() {
+		int count = 0;
+		for (long word : words) {
+			count += Long.bitCount(word);
+		}
+		return count;
+	}
+
+	/**
+	 * Returns whether the given row is selected.
+	 *
+	 * @param row
+	 * 		the row index
+	 * @return {@code true} iff the row is selected
+	 * @throws IndexOutOfBoundsException
+	 * 		if the row index is negative or not smaller than the size
+	 */
+	public boolean isSelected(int row) {
+		if (row < 0 || row >= size) {
+			throw new IndexOutOfBoundsException("Row index " + row + " out of bounds for size " + size);
+		}
+		return (words[row >>> 6] & (1L << row)) != 0;
+	}
+
+	/**
+	 * Returns the indices of the selected rows in ascending order.
+	 *
+	 * @return the selected rows
+	 */
+	public int[] rows() {
+		int[] rows = new int[count()];
+		int index = 0;
+		for (int w = 0; w < words.length; w++) {
+			long word = words[w];
+			while (word != 0) {
+				rows[index++] = (w << 6) + Long.numberOfTrailingZeros(word);
+				word &= word - 1;
+			}
+		}
+		return rows;
+	}
+
+	/**
+	 * Returns a selection of the rows selected by both this and the other selection. Depending on the size, the
+	 * computation might be performed in parallel.
+	 *
+	 * @param other
+	 * 		the other selection
+	 * @param context
+	 * 		the execution context to use
+	 * @return the intersection of both selections
+	 * @throws NullPointerException
+	 * 		if any of the arguments is {@code null}
+	 * @throws IllegalArgumentException
+	 * 		if the selections have different sizes
+	 */
+	public Selection and(Selection other, Context context) {
+		return combine(other, (a, b) -> a & b, context);
+	}
+
+	/**
+	 * Returns a selection of the rows selected by this or the other selection. Depending on the size, the
+	 * computation might be performed in parallel.
+	 *
+	 * @param other
+	 * 		the other selection
+	 * @param context
+	 * 		the execution context to use
+	 * @return the union of both selections
+	 * @throws NullPointerException
+	 * 		if any of the arguments is {@code null}
+	 * @throws IllegalArgumentException
+	 * 		if the selections have different sizes
+	 */
+	public Selection or(Selection other, Context context) {
+		return combine(other, (a, b) -> a | b, context);
+	}
+
+	/**
+	 * Returns a selection of the rows selected by this but not by the other selection. Depending on the size, the
+	 * computation might be performed in parallel.
+	 *
+	 * @param other
+	 * 		the other selection
+	 * @param context
+	 * 		the execution context to use
+	 * @return the difference of both selections
+	 * @throws NullPointerException
+	 * 		if any of the arguments is {@code null}
+	 * @throws IllegalArgumentException
+	 * 		if the selections have different sizes
+	 */
+	public Selection andNot(Selection other, Context context) {
+		return combine(other, (a, b) -> a & ~b, context);
+	}
+
+	/**
+	 * Returns a selection of the rows not selected by this selection. Depending on the size, the computation might be
+	 * performed in parallel.
+	 *
+	 * @param context
+	 * 		the execution context to use
+	 * @return the complement of this selection
+	 * @throws NullPointerException
+	 * 		if the context is {@code null}
+	 */
+	public Selection not(Context context) {
+		Objects.requireNonNull(context, MESSAGE_CONTEXT_NULL);
+		return new ParallelExecutor<>(new Combiner(this, this, (a, b) -> ~a), Workload.SMALL, NOOP_CALLBACK)
+				.execute(context);
+	}
+
+	private Selection combine(Selection other, LongBinaryOperator operator, Context context) {
+		Objects.requireNonNull(other, "Other selection must not be null");
+		Objects.requireNonNull(context, MESSAGE_CONTEXT_NULL);
+		if (other.size != size) {
+			throw new IllegalArgumentException("Selections must be of the same size");
+		}
+		return new ParallelExecutor<>(new Combiner(this, other, operator), Workload.SMALL, NOOP_CALLBACK)
+				.execute(context);
+	}
+
+	@Override
+	public boolean equals(Object o) {
+		if (this == o) {
+			return true;
+		}
+		if (o == null || getClass() != o.getClass()) {
+			return false;
+		}
+		Selection selection = (Selection) o;
+		return size == selection.size && Arrays.equals(words, selection.words);
+	}
+
+	@Override
+	public int hashCode() {
+		return 31 * size + Arrays.hashCode(words);
+	}
+
+	@Override
+	public String toString() {
+		return "Selection of " + count() + " out of " + size + " rows";
+	}
+
+	/**
+	 * Returns the number of words required for a selection of the given size.
+	 *
+	 * @param size
+	 * 		the number of rows
+	 * @return the number of words
+	 */
+	static int numberOfWords(int size) {
+		return (size + 63) >>> 6;
+	}
+
+	/**
+	 * Clears the bits beyond the given size in the last word.
+	 */
+	private static void clearTrailingBits(long[] words, int size) {
+		if (size % 64 != 0) {
+			words[words.length - 1] &= -1L >>> (64 - size % 64);
+		}
+	}
+
+	private static void requireValidSize(int size) {
+		if (size < 0) {
+			throw new IllegalArgumentException("Size must not be negative");
+		}
+	}
+
+	/**
+	 * Combines the words of two selections of the same size word by word.
+	 */
+	private static final class Combiner implements Calculator<Selection> {
+
+		private final Selection first;
+		private final Selection second;
+		private final LongBinaryOperator operator;
+		private long[] target;
+
+		private Combiner(Selection first, Selection second, LongBinaryOperator operator) {
+			this.first = first;
+			this.second = second;
+			this.operator = operator;
+		}
+
+		@Override
+		public void init(int numberOfBatches) {
+			target = new long[first.words.length];
+		}
+
+		@Override
+		public int getNumberOfOperations() {
+			return first.words.length;
+		}
+
+		@Override
+		public void doPart(int from, int to, int batchIndex) {
+			for (int i = from; i < to; i++) {
+				target[i] = operator.applyAsLong(first.words[i], second.words[i]);
+			}
+		}
+
+		@Override
+		public Selection getResult() {
+			clearTrailingBits(target, first.size);
+			return new Selection(target, first.size);
+		}
+	}
+
+}
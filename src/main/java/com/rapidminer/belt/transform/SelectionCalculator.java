@@ -0,0 +1,381 @@
+/**
+ * This file is part of the RapidMiner Belt project.
+ * Copyright (C) 2017-2021 RapidMiner GmbH
+ *
+ * This program is free software: you can redistribute it and/or modify it under the terms of the GNU Affero General
+ * Public License as published by the Free Software Foundation, either version 3 of the License, or (at your option) any
+ * later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied
+ * warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU Affero General Public License along with this program. If not, see
+ * https://www.gnu.org/licenses/.
+ */
+
+
+package com.rapidminer.belt.transform;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.DoublePredicate;
+import java.util.function.IntFunction;
+import java.util.function.IntPredicate;
+import java.util.function.Predicate;
+
+import com.rapidminer.belt.column.Column;
+import com.rapidminer.belt.column.ZoneMap;
+import com.rapidminer.belt.reader.CategoricalReader;
+import com.rapidminer.belt.reader.CategoricalRow;
+import com.rapidminer.belt.reader.CategoricalRowReader;
+import com.rapidminer.belt.reader.MixedRow;
+import com.rapidminer.belt.reader.MixedRowReader;
+import com.rapidminer.belt.reader.NumericReader;
+import com.rapidminer.belt.reader.NumericRow;
+import com.rapidminer.belt.reader.NumericRowReader;
+import com.rapidminer.belt.reader.ObjectReader;
+import com.rapidminer.belt.reader.ObjectRow;
+import com.rapidminer.belt.reader.ObjectRowReader;
+import com.rapidminer.belt.reader.Readers;
+
+
+/**
+ * Evaluates a filter on one or more columns and writes the result directly into the bits of a {@link Selection}.
+ * The operations are the rows, but the bounds of every part are aligned to the words of the selection, i.e., blocks of
+ * 64 rows, so that parallel parts never write to the same word.
+ *
+ * @author Michael Knopf
+ */
+final class SelectionCalculator implements Calculator<Selection> {
+
+	/**
+	 * Evaluates a filter for a range of rows.
+	 */
+	@FunctionalInterface
+	interface PartSelector {
+
+		/**
+		 * Sets the bits of the accepted rows between from (inclusive) and to (exclusive).
+		 *
+		 * @param from
+		 * 		the first row, a multiple of 64
+		 * @param to
+		 * 		the end row
+		 * @param words
+		 * 		the selection bits
+		 */
+		void select(int from, int to, long[] words);
+
+	}
+
+	/**
+	 * The number of rows copied at once by the block-wise calculators, a multiple of 64.
+	 */
+	private static final int BLOCK_SIZE = 1 << 10;
+
+	private final int size;
+	private final PartSelector selector;
+	private long[] words;
+
+	private SelectionCalculator(int size, PartSelector selector) {
+		this.size = size;
+		this.selector = selector;
+	}
+
+	/**
+	 * Creates a calculator that selects the rows of a {@link Column.Capability#NUMERIC_READABLE} column accepted by
+	 * the predicate.
+	 */
+	static SelectionCalculator numeric(Column source, DoublePredicate predicate) {
+		return new SelectionCalculator(source.size(), (from, to, words) -> {
+			NumericReader reader = Readers.numericReader(source, to);
+			reader.setPosition(from - 1);
+			for (int i = from; i < to; i++) {
+				if (predicate.test(reader.read())) {
+					words[i >>> 6] |= 1L << i;
+				}
+			}
+		});
+	}
+
+	/**
+	 * Creates a calculator that selects the rows of a {@link Column.Category#CATEGORICAL} column accepted by the
+	 * predicate.
+	 */
+	static SelectionCalculator categorical(Column source, IntPredicate predicate) {
+		return new SelectionCalculator(source.size(), (from, to, words) -> {
+			CategoricalReader reader = Readers.categoricalReader(source, to);
+			reader.setPosition(from - 1);
+			for (int i = from; i < to; i++) {
+				if (predicate.test(reader.read())) {
+					words[i >>> 6] |= 1L << i;
+				}
+			}
+		});
+	}
+
+	/**
+	 * Creates a calculator that selects the rows of a {@link Column.Capability#OBJECT_READABLE} column accepted by
+	 * the predicate.
+	 */
+	static <T> SelectionCalculator object(Column source, Class<T> type, Predicate<T> predicate) {
+		return new SelectionCalculator(source.size(), (from, to, words) -> {
+			ObjectReader<T> reader = Readers.objectReader(source, type, to);
+			reader.setPosition(from - 1);
+			for (int i = from; i < to; i++) {
+				if (predicate.test(reader.read())) {
+					words[i >>> 6] |= 1L << i;
+				}
+			}
+		});
+	}
+
+	/**
+	 * Creates a calculator that selects the rows of {@link Column.Capability#NUMERIC_READABLE} columns accepted by the
+	 * predicate.
+	 */
+	static SelectionCalculator numericRows(List<Column> sources, Predicate<NumericRow> predicate) {
+		return new SelectionCalculator(sources.get(0).size(), (from, to, words) -> {
+			NumericRowReader reader = Readers.numericRowReader(sources);
+			reader.setPosition(from - 1);
+			for (int i = from; i < to; i++) {
+				reader.move();
+				if (predicate.test(reader)) {
+					words[i >>> 6] |= 1L << i;
+				}
+			}
+		});
+	}
+
+	/**
+	 * Creates a calculator that selects the rows of {@link Column.Category#CATEGORICAL} columns accepted by the
+	 * predicate.
+	 */
+	static SelectionCalculator categoricalRows(List<Column> sources, Predicate<CategoricalRow> predicate) {
+		return new SelectionCalculator(sources.get(0).size(), (from, to, words) -> {
+			CategoricalRowReader reader = Readers.categoricalRowReader(sources);
+			reader.setPosition(from - 1);
+			for (int i = from; i < to; i++) {
+				reader.move();
+				if (predicate.test(reader)) {
+					words[i >>> 6] |= 1L << i;
+				}
+			}
+		});
+	}
+
+	/**
+	 * Creates a calculator that selects the rows of {@link Column.Capability#OBJECT_READABLE} columns accepted by the
+	 * predicate.
+	 */
+	static <T> SelectionCalculator objectRows(List<Column> sources, Class<T> type, Predicate<ObjectRow<T>> predicate) {
+		return new SelectionCalculator(sources.get(0).size(), (from, to, words) -> {
+			ObjectRowReader<T> reader = Readers.objectRowReader(sources, type);
+			reader.setPosition(from - 1);
+			for (int i = from; i < to; i++) {
+				reader.move();
+				if (predicate.test(reader)) {
+					words[i >>> 6] |= 1L << i;
+				}
+			}
+		});
+	}
+
+	/**
+	 * Creates a calculator that selects the rows of arbitrary columns accepted by the predicate.
+	 */
+	static SelectionCalculator mixedRows(List<Column> sources, Predicate<MixedRow> predicate) {
+		return new SelectionCalculator(sources.get(0).size(), (from, to, words) -> {
+			MixedRowReader reader = Readers.mixedRowReader(sources);
+			reader.setPosition(from - 1);
+			for (int i = from; i < to; i++) {
+				reader.move();
+				if (predicate.test(reader)) {
+					words[i >>> 6] |= 1L << i;
+				}
+			}
+		});
+	}
+
+	/**
+	 * Creates a calculator that selects the rows of a {@link Column.Capability#NUMERIC_READABLE} column with values
+	 * between the given bounds (inclusive). The values are copied block-wise via {@link Column#fill(double[], int)}
+	 * and compared in a branch-free loop without any function calls per row. Missing values are never selected. If a
+	 * zone map is given, blocks that lie completely outside or inside of the bounds are not read.
+	 */
+	static SelectionCalculator range(Column source, ZoneMap zoneMap, double lower, double upper) {
+		return blockwise(source, zoneMap, block -> {
+			double min = zoneMap.min(block);
+			double max = zoneMap.max(block);
+			if (Double.isNaN(min) || max < lower || min > upper) {
+				return BlockDecision.NONE;
+			}
+			return zoneMap.missingCount(block) == 0 && min >= lower && max <= upper ? BlockDecision.ALL :
+					BlockDecision.SCAN;
+		}, (buffer, from, to) -> {
+			long word = 0;
+			for (int i = from; i < to; i++) {
+				double value = buffer[i];
+				word |= (value >= lower & value <= upper ? 1L : 0L) << i;
+			}
+			return word;
+		});
+	}
+
+	/**
+	 * Creates a calculator that selects the rows of a {@link Column.Capability#NUMERIC_READABLE} column with missing
+	 * values, see {@link #range(Column, ZoneMap, double, double)}.
+	 */
+	static SelectionCalculator missing(Column source, ZoneMap zoneMap) {
+		return blockwise(source, zoneMap, block -> {
+			int missing = zoneMap.missingCount(block);
+			if (missing == 0) {
+				return BlockDecision.NONE;
+			}
+			return missing == zoneMap.blockLength(block) ? BlockDecision.ALL : BlockDecision.SCAN;
+		}, (buffer, from, to) -> {
+			long word = 0;
+			for (int i = from; i < to; i++) {
+				double value = buffer[i];
+				word |= (value != value ? 1L : 0L) << i;
+			}
+			return word;
+		});
+	}
+
+	/**
+	 * Creates a calculator that selects the rows of a {@link Column.Capability#NUMERIC_READABLE} column whose values
+	 * are contained in the given sorted array, see {@link #range(Column, ZoneMap, double, double)}. Rows with values
+	 * outside of the range of the array are rejected without searching it.
+	 *
+	 * @param values
+	 * 		the accepted values in ascending order, without {@code NaN} and with {@code -0.0} replaced by {@code 0.0}
+	 */
+	static SelectionCalculator contained(Column source, ZoneMap zoneMap, double[] values) {
+		if (values.length == 0) {
+			return new SelectionCalculator(source.size(), (from, to, words) -> {});
+		}
+		double lower = values[0];
+		double upper = values[values.length - 1];
+		return blockwise(source, zoneMap, block -> {
+			double min = zoneMap.min(block);
+			double max = zoneMap.max(block);
+			return Double.isNaN(min) || max < lower || min > upper ? BlockDecision.NONE : BlockDecision.SCAN;
+		}, (buffer, from, to) -> {
+			long word = 0;
+			for (int i = from; i < to; i++) {
+				double value = buffer[i] + 0.0;
+				if (value >= lower && value <= upper && Arrays.binarySearch(values, value) >= 0) {
+					word |= 1L << i;
+				}
+			}
+			return word;
+		});
+	}
+
+	/**
+	 * Decision for a block of a {@link ZoneMap}.
+	 */
+	private enum BlockDecision {
+		/**
+		 * No row of the block is selected.
+		 */
+		NONE,
+		/**
+		 * All rows of the block are selected.
+		 */
+		ALL,
+		/**
+		 * The rows of the block must be checked individually.
+		 */
+		SCAN
+	}
+
+	/**
+	 * Computes the selection bits of up to 64 values of a buffer.
+	 */
+	@FunctionalInterface
+	private interface WordSelector {
+
+		/**
+		 * Returns the selection bits for the values between from (inclusive) and to (exclusive). The value at index
+		 * {@code i} corresponds to the bit {@code i % 64}.
+		 */
+		long select(double[] buffer, int from, int to);
+
+	}
+
+	/**
+	 * Creates a calculator that copies the values of the source column block-wise into a buffer and computes the
+	 * selection bits word by word. If a zone map is given, the rows of every zone map block are only read if the
+	 * decision function returns {@link BlockDecision#SCAN} for the block.
+	 */
+	private static SelectionCalculator blockwise(Column source, ZoneMap zoneMap, IntFunction<BlockDecision> decision,
+												 WordSelector selector) {
+		return new SelectionCalculator(source.size(), (from, to, words) -> {
+			double[] buffer = new double[Math.min(BLOCK_SIZE, to - from)];
+			int start = from;
+			while (start < to) {
+				int end = to;
+				BlockDecision blockDecision = BlockDecision.SCAN;
+				if (zoneMap != null) {
+					int block = start / ZoneMap.BLOCK_SIZE;
+					end = Math.min(to, (block + 1) * ZoneMap.BLOCK_SIZE);
+					blockDecision = decision.apply(block);
+				}
+				if (blockDecision == BlockDecision.ALL) {
+					for (int i = start; i < end; i += Long.SIZE) {
+						words[i >>> 6] = end - i >= Long.SIZE ? -1L : (1L << (end - i)) - 1;
+					}
+				} else if (blockDecision == BlockDecision.SCAN) {
+					scan(source, start, end, buffer, words, selector);
+				}
+				start = end;
+			}
+		});
+	}
+
+	private static void scan(Column source, int from, int to, double[] buffer, long[] words, WordSelector selector) {
+		for (int start = from; start < to; start += buffer.length) {
+			source.fill(buffer, start);
+			int length = Math.min(buffer.length, to - start);
+			for (int offset = 0; offset < length; offset += Long.SIZE) {
+				words[(start + offset) >>> 6] = selector.select(buffer, offset, Math.min(length, offset + Long.SIZE));
+			}
+		}
+	}
+
+	@Override
+	public void init(int numberOfBatches) {
+		words = new long[Selection.numberOfWords(size)];
+	}
+
+	@Override
+	public int getNumberOfOperations() {
+		return size;
+	}
+
+	@Override
+	public void doPart(int from, int to, int batchIndex) {
+		int start = alignToWord(from);
+		int end = alignToWord(to);
+		if (start < end) {
+			selector.select(start, end, words);
+		}
+	}
+
+	/**
+	 * Rounds the row down to the start of its word unless it is the end of the selection. Adjacent parts share their
+	 * bounds, so the aligned parts still cover all rows exactly once.
+	 */
+	private int alignToWord(int row) {
+		return row >= size ? size : row & -Long.SIZE;
+	}
+
+	@Override
+	public Selection getResult() {
+		return new Selection(words, size);
+	}
+
+}
@@ -38,6 +38,7 @@ import java.util.function.ToDoubleFunction;
 import com.rapidminer.belt.buffer.Int32NominalBuffer;
 import com.rapidminer.belt.buffer.NominalBuffer;
 import com.rapidminer.belt.column.ColumnType;
+import com.rapidminer.belt.column.Dictionary;
 import com.rapidminer.belt.column.type.StringList;
 import com.rapidminer.belt.column.type.StringSet;
 import com.rapidminer.belt.execution.Context;
@@ -207,6 +208,71 @@ public final class Transformer {
 				.execute(context);
 	}
 
+	/**
+	 * Applies the given function to the category values of the categorical transformation column returning the result
+	 * in a new real {@link NumericBuffer}. Unlike {@link #applyCategoricalToReal(IntToDoubleFunction, Context)}, the
+	 * function is evaluated only once per dictionary value, the rows are then mapped via a lookup table. Missing
+	 * values are mapped to {@link Double#NaN}, the function is not evaluated for them. Depending on the input size
+	 * and the specified workload per data-point, the computation might be performed in parallel.
+	 *
+	 * @param function
+	 * 		the function to apply to each dictionary value
+	 * @param context
+	 * 		the execution context to use
+	 * @return a buffer containing the result of the operation
+	 * @throws NullPointerException
+	 * 		if any of the parameters is {@code null}
+	 * @throws UnsupportedOperationException
+	 * 		if the transformation column is not {@link Column.Category#CATEGORICAL}
+	 * @see com.rapidminer.belt.column.Columns#mapDictionary(Column, Function)
+	 */
+	public NumericBuffer applyCategoricalValuesToReal(ToDoubleFunction<String> function, Context context) {
+		Objects.requireNonNull(context, MESSAGE_CONTEXT_NULL);
+		Objects.requireNonNull(function, MESSAGE_MAPPING_OPERATOR_NULL);
+		double[] lookup = categoryLookup(transformationColumn, function);
+		return new ParallelExecutor<>(
+				new ApplierCategoricalToNumeric(transformationColumn, i -> lookup[i], false), workload, callback)
+				.execute(context);
+	}
+
+	/**
+	 * Applies the given function to the category values of the categorical transformation column returning the result
+	 * in a new integer {@link NumericBuffer} of type {@link Column.TypeId#INTEGER_53_BIT}, see
+	 * {@link #applyCategoricalValuesToReal(ToDoubleFunction, Context)}.
+	 *
+	 * @param function
+	 * 		the function to apply to each dictionary value
+	 * @param context
+	 * 		the execution context to use
+	 * @return a buffer containing the result of the operation
+	 * @throws NullPointerException
+	 * 		if any of the parameters is {@code null}
+	 * @throws UnsupportedOperationException
+	 * 		if the transformation column is not {@link Column.Category#CATEGORICAL}
+	 */
+	public NumericBuffer applyCategoricalValuesToInteger53Bit(ToDoubleFunction<String> function, Context context) {
+		Objects.requireNonNull(context, MESSAGE_CONTEXT_NULL);
+		Objects.requireNonNull(function, MESSAGE_MAPPING_OPERATOR_NULL);
+		double[] lookup = categoryLookup(transformationColumn, function);
+		return new ParallelExecutor<>(
+				new ApplierCategoricalToNumeric(transformationColumn, i -> lookup[i], true), workload, callback)
+				.execute(context);
+	}
+
+	/**
+	 * Evaluates the function once for every value of the dictionary of the given categorical column.
+	 */
+	private static double[] categoryLookup(Column column, ToDoubleFunction<String> function) {
+		Dictionary dictionary = column.getDictionary();
+		double[] lookup = new double[dictionary.maximalIndex() + 1];
+		lookup[0] = Double.NaN;
+		for (int i = 1; i < lookup.length; i++) {
+			String value = dictionary.get(i);
+			lookup[i] = value == null ? Double.NaN : function.applyAsDouble(value);
+		}
+		return lookup;
+	}
+
 	/**
 	 * Applies the given operator to the categorical transformation column returning the result in a new integer {@link
 	 * NumericBuffer} of type {@link Column.TypeId#INTEGER_53_BIT}. Depending on the input size and the specified
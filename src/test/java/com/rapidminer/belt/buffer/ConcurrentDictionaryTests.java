@@ -0,0 +1,131 @@
+/**
+ * This file is part of the RapidMiner Belt project.
+ * Copyright (C) 2017-2021 RapidMiner GmbH
+ *
+ * This program is free software: you can redistribute it and/or modify it under the terms of the GNU Affero General
+ * Public License as published by the Free Software Foundation, either version 3 of the License, or (at your option) any
+ * later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied
+ * warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU Affero General Public License along with this program. If not, see
+ * https://www.gnu.org/licenses/.
+ */
+
+
+package com.rapidminer.belt.buffer;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.Test;
+
+import com.rapidminer.belt.column.ColumnTestUtils;
+import com.rapidminer.belt.column.ColumnType;
+import com.rapidminer.belt.column.Dictionary;
+
+
+/**
+ * Tests {@link ConcurrentDictionary}.
+ *
+ * @author Michael Knopf
+ */
+public class ConcurrentDictionaryTests {
+
+	@Test
+	public void testSequentialIndices() {
+		ConcurrentDictionary dictionary = new ConcurrentDictionary(Integer.MAX_VALUE - 1);
+		assertEquals(1, dictionary.index("a"));
+		assertEquals(2, dictionary.index("b"));
+		assertEquals(1, dictionary.index("a"));
+		assertEquals(3, dictionary.size());
+		assertNull(dictionary.value(0));
+		assertEquals("b", dictionary.value(2));
+		assertEquals(Integer.valueOf(2), dictionary.get("b"));
+		assertNull(dictionary.get("c"));
+		assertEquals(Arrays.asList(null, "a", "b"), dictionary.values());
+	}
+
+	@Test
+	public void testManySegments() {
+		int n = 100_000;
+		ConcurrentDictionary dictionary = new ConcurrentDictionary(Integer.MAX_VALUE - 1);
+		for (int i = 0; i < n; i++) {
+			assertEquals(i + 1, dictionary.index("value" + i));
+		}
+		for (int i = 0; i < n; i++) {
+			assertEquals("value" + i, dictionary.value(i + 1));
+		}
+		assertEquals(n + 1, dictionary.values().size());
+	}
+
+	@Test
+	public void testFull() {
+		ConcurrentDictionary dictionary = new ConcurrentDictionary(2);
+		assertEquals(1, dictionary.index("a"));
+		assertEquals(2, dictionary.index("b"));
+		assertEquals(ConcurrentDictionary.FULL, dictionary.index("c"));
+		assertEquals(2, dictionary.index("b"));
+		assertEquals(3, dictionary.size());
+		assertNull(dictionary.get("c"));
+	}
+
+	@Test
+	public void testFromDictionary() {
+		Dictionary source = ColumnTestUtils.getSimpleCategoricalColumn(ColumnType.NOMINAL, new int[]{1, 2, 3},
+				Arrays.asList(null, "x", "y", "z")).getDictionary();
+		ConcurrentDictionary dictionary = new ConcurrentDictionary(source, 255);
+		assertEquals(Arrays.asList(null, "x", "y", "z"), dictionary.values());
+		assertEquals(2, dictionary.index("y"));
+		assertEquals(4, dictionary.index("w"));
+	}
+
+	@Test
+	public void testParallelInsertion() throws Exception {
+		int threads = 8;
+		int valuesPerThread = 20_000;
+		ConcurrentDictionary dictionary = new ConcurrentDictionary(Integer.MAX_VALUE - 1);
+		ExecutorService pool = Executors.newFixedThreadPool(threads);
+		try {
+			List<Future<int[]>> futures = new ArrayList<>();
+			for (int t = 0; t < threads; t++) {
+				int offset = t;
+				futures.add(pool.submit(() -> {
+					// overlapping ranges so that threads race for the same values
+					int[] indices = new int[valuesPerThread];
+					for (int i = 0; i < valuesPerThread; i++) {
+						indices[i] = dictionary.index("value" + (offset * valuesPerThread / 2 + i));
+					}
+					return indices;
+				}));
+			}
+			int distinct = (threads + 1) * valuesPerThread / 2;
+			for (int t = 0; t < threads; t++) {
+				int[] indices = futures.get(t).get();
+				for (int i = 0; i < valuesPerThread; i++) {
+					assertEquals("value" + (t * valuesPerThread / 2 + i), dictionary.value(indices[i]));
+				}
+			}
+			assertEquals(distinct + 1, dictionary.size());
+			List<String> values = dictionary.values();
+			Set<String> unique = new HashSet<>(values);
+			assertEquals(values.size(), unique.size());
+			assertTrue(unique.contains(null));
+		} finally {
+			pool.shutdown();
+		}
+	}
+
+}
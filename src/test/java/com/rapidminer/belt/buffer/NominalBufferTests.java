@@ -467,6 +467,80 @@ public class NominalBufferTests {
 		}
 	}
 
+	@RunWith(Parameterized.class)
+	public static class BulkSet {
+
+		@Parameter
+		public IntegerFormats.Format format;
+
+		@Parameters(name = "{0}")
+		public static Iterable<Object> formats() {
+			return Arrays.asList(Format.UNSIGNED_INT2, Format.UNSIGNED_INT4, Format.UNSIGNED_INT8,
+					Format.UNSIGNED_INT16, Format.SIGNED_INT32);
+		}
+
+		private static Dictionary dictionary(String... values) {
+			List<String> mapping = new ArrayList<>(Arrays.asList(values));
+			mapping.add(0, null);
+			return ColumnTestUtils.getSimpleCategoricalColumn(ColumnType.NOMINAL, new int[0], mapping)
+					.getDictionary();
+		}
+
+		@Test
+		public void testBulkSet() {
+			Dictionary dictionary = dictionary("c", "b", "a");
+			int[] indices = {3, 1, 0, 1, 2, 3, 3, 7, -1};
+			NominalBuffer buffer = buffer(12, format);
+			buffer.set(0, "b");
+			buffer.set(2, indices, 0, indices.length, dictionary);
+			Object[] values = new Object[12];
+			buffer.toColumn().fill(values, 0);
+			assertArrayEquals(new Object[]{"b", null, "a", "c", null, "c", "b", "a", "a", null, null, null},
+					values);
+			assertEquals(3, buffer.differentValues());
+		}
+
+		@Test
+		public void testPartialRange() {
+			Dictionary dictionary = dictionary("x", "y");
+			NominalBuffer buffer = buffer(3, format);
+			buffer.set(1, new int[]{1, 1, 2, 1}, 2, 2, dictionary);
+			Object[] values = new Object[3];
+			buffer.toColumn().fill(values, 0);
+			assertArrayEquals(new Object[]{null, "y", "x"}, values);
+			// only the used value is added
+			assertEquals(2, buffer.differentValues());
+		}
+
+		@Test(expected = IndexOutOfBoundsException.class)
+		public void testTargetOutOfBounds() {
+			buffer(3, format).set(2, new int[2], 0, 2, dictionary("x"));
+		}
+
+		@Test(expected = IndexOutOfBoundsException.class)
+		public void testSourceOutOfBounds() {
+			buffer(3, format).set(0, new int[2], 1, 2, dictionary("x"));
+		}
+
+		@Test(expected = NullPointerException.class)
+		public void testNullDictionary() {
+			buffer(3, format).set(0, new int[2], 0, 2, null);
+		}
+
+		@Test(expected = NullPointerException.class)
+		public void testNullIndices() {
+			buffer(3, format).set(0, null, 0, 0, dictionary("x"));
+		}
+
+		@Test(expected = IllegalStateException.class)
+		public void testFrozen() {
+			NominalBuffer buffer = buffer(3, format);
+			buffer.toColumn();
+			buffer.set(0, new int[]{1}, 0, 1, dictionary("x"));
+		}
+
+	}
+
 	@RunWith(Parameterized.class)
 	public static class Bounds {
 
@@ -388,6 +388,74 @@ public class NumericBufferTests {
 
 	}
 
+	@RunWith(Parameterized.class)
+	public static class BulkSet {
+
+		@Parameter
+		public String bufferImplementation;
+
+		@Parameters(name = "{0}")
+		public static Iterable<String> bufferImplementations() {
+			return Arrays.asList(IMPL_FIXED_BUFFER, IMPL_FIXED_INT_BUFFER);
+		}
+
+		@Test
+		public void testBulkSet() {
+			double[] values = random(100);
+			for (int i = 0; i < values.length; i++) {
+				values[i] *= 1000;
+			}
+			values[3] = Double.NaN;
+			values[4] = Double.POSITIVE_INFINITY;
+			NumericBuffer bulk = getBuffer(bufferImplementation, 80, true);
+			NumericBuffer single = getBuffer(bufferImplementation, 80, true);
+			bulk.set(5, values, 2, 70);
+			for (int i = 0; i < 70; i++) {
+				single.set(5 + i, values[2 + i]);
+			}
+			double[] expected = new double[80];
+			double[] actual = new double[80];
+			single.toColumn().fill(expected, 0);
+			bulk.toColumn().fill(actual, 0);
+			assertArrayEquals(expected, actual, 0);
+		}
+
+		@Test
+		public void testEmptyRange() {
+			NumericBuffer buffer = getBuffer(bufferImplementation, 10, true);
+			buffer.set(10, new double[3], 3, 0);
+			assertEquals(Double.NaN, buffer.get(9), 0);
+		}
+
+		@Test(expected = IndexOutOfBoundsException.class)
+		public void testSourceOutOfBounds() {
+			getBuffer(bufferImplementation, 10).set(0, new double[5], 2, 4);
+		}
+
+		@Test(expected = IndexOutOfBoundsException.class)
+		public void testTargetOutOfBounds() {
+			getBuffer(bufferImplementation, 10).set(8, new double[5], 0, 3);
+		}
+
+		@Test(expected = IndexOutOfBoundsException.class)
+		public void testNegativeLength() {
+			getBuffer(bufferImplementation, 10).set(0, new double[5], 0, -1);
+		}
+
+		@Test(expected = NullPointerException.class)
+		public void testNullValues() {
+			getBuffer(bufferImplementation, 10).set(0, null, 0, 0);
+		}
+
+		@Test(expected = IllegalStateException.class)
+		public void testFrozen() {
+			NumericBuffer buffer = getBuffer(bufferImplementation, 10);
+			buffer.toColumn();
+			buffer.set(0, new double[5], 0, 5);
+		}
+
+	}
+
 	public static class InputValidation{
 
 		@Test(expected = NullPointerException.class)
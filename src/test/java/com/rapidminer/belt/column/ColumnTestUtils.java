@@ -16,10 +16,12 @@
 
 package com.rapidminer.belt.column;
 
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Comparator;
 import java.util.List;
 import java.util.Objects;
+import java.util.Random;
 import java.util.SplittableRandom;
 
 import com.rapidminer.belt.util.IntegerFormats;
@@ -574,5 +576,40 @@ public class ColumnTestUtils {
 		return data;
 	}
 
+	/**
+	 * Returns {@code n} Gaussian values scaled by {@code 100} with about 5% missing values.
+	 */
+	public static double[] randomWithMissings(int n, long seed) {
+		Random random = new Random(seed);
+		double[] data = new double[n];
+		Arrays.setAll(data, i -> random.nextInt(20) == 0 ? Double.NaN : random.nextGaussian() * 100);
+		return data;
+	}
+
+
+	/**
+	 * Returns {@code n} random category indices between {@code 0} (inclusive) and {@code bound} (exclusive).
+	 */
+	public static int[] randomIndices(int n, int bound, long seed) {
+		Random random = new Random(seed);
+		int[] data = new int[n];
+		for (int i = 0; i < n; i++) {
+			data[i] = random.nextInt(bound);
+		}
+		return data;
+	}
+
+	/**
+	 * Returns a dictionary of the given size with the {@code null} value at index {@code 0}.
+	 */
+	public static List<String> dictionary(int size) {
+		List<String> dictionary = new ArrayList<>(size);
+		dictionary.add(null);
+		for (int i = 1; i < size; i++) {
+			dictionary.add("value" + i);
+		}
+		return dictionary;
+	}
+
 
 }
@@ -854,4 +854,60 @@ public class ColumnsTests {
 		}
 		return result;
 	}
+
+	public static class MapDictionary {
+
+		@Test
+		public void testMap() {
+			Column column = new SimpleCategoricalColumn(ColumnType.NOMINAL, new int[]{1, 2, 0, 3, 2},
+					new Dictionary(Arrays.asList(null, "blue", "green", "red")));
+			List<String> calls = new ArrayList<>();
+			Column mapped = Columns.mapDictionary(column, v -> {
+				calls.add(v);
+				return v.toUpperCase();
+			});
+			assertEquals(Arrays.asList("blue", "green", "red"), calls);
+			assertEquals(Arrays.asList(null, "BLUE", "GREEN", "RED"), mapped.getDictionary().getValueList());
+			assertEquals(Arrays.asList("BLUE", "GREEN", null, "RED", "GREEN"), readAll(mapped));
+		}
+
+		@Test
+		public void testMapToSameAndNull() {
+			Column column = new SimpleCategoricalColumn(ColumnType.NOMINAL, new int[]{1, 2, 0, 3, 2, 4},
+					new Dictionary(Arrays.asList(null, "blue", "green", "red", "black")));
+			Column mapped = Columns.mapDictionary(column, v -> v.startsWith("b") ? "b" : v.equals("red") ? null : v);
+			assertEquals(Arrays.asList(null, "b", "green"), mapped.getDictionary().getValueList());
+			assertEquals(Arrays.asList("b", "green", null, null, "green", "b"), readAll(mapped));
+		}
+
+		@Test
+		public void testMapWithGaps() {
+			Column column = new SimpleCategoricalColumn(ColumnType.NOMINAL, new int[]{1, 3},
+					new Dictionary(Arrays.asList(null, "blue", null, "red"), 1));
+			Column mapped = Columns.mapDictionary(column, v -> v + "!");
+			assertEquals(Arrays.asList("blue!", "red!"), readAll(mapped));
+		}
+
+		@Test(expected = IllegalArgumentException.class)
+		public void testNotCategorical() {
+			Columns.mapDictionary(new SimpleObjectColumn<>(ColumnType.TEXT, new Object[2]), v -> v);
+		}
+
+		@Test(expected = NullPointerException.class)
+		public void testNullFunction() {
+			Column column = new SimpleCategoricalColumn(ColumnType.NOMINAL, new int[0],
+					new Dictionary(Arrays.asList(null, "blue")));
+			Columns.mapDictionary(column, null);
+		}
+
+		private static List<String> readAll(Column column) {
+			List<String> values = new ArrayList<>();
+			ObjectReader<String> reader = Readers.objectReader(column, String.class);
+			while (reader.hasRemaining()) {
+				values.add(reader.read());
+			}
+			return values;
+		}
+	}
+
 }
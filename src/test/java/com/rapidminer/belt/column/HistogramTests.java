@@ -0,0 +1,237 @@
+/**
+ * This file is part of the RapidMiner Belt project.
+ * Copyright (C) 2017-2021 RapidMiner GmbH
+ *
+ * This program is free software: you can redistribute it and/or modify it under the terms of the GNU Affero General
+ * Public License as published by the Free Software Foundation, either version 3 of the License, or (at your option) any
+ * later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied
+ * warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU Affero General Public License along with this program. If not, see
+ * https://www.gnu.org/licenses/.
+ */
+
+package com.rapidminer.belt.column;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import org.junit.Test;
+
+import com.rapidminer.belt.execution.Context;
+import com.rapidminer.belt.util.Belt;
+
+
+/**
+ * Tests {@link Histogram} and {@link Statistics#histogram(Column, int, Context)}.
+ *
+ * @author Michael Knopf
+ */
+public class HistogramTests {
+
+	private static final Context CTX = Belt.defaultContext();
+
+	private static final int N = 150_000;
+
+	/**
+	 * Counts the values naively, the returned array contains the bin counts followed by underflow, overflow and
+	 * missing counts.
+	 */
+	private static int[] expected(double[] data, double[] edges) {
+		int bins = edges.length - 1;
+		int[] counts = new int[bins + 3];
+		for (double value : data) {
+			if (Double.isNaN(value)) {
+				counts[bins + 2]++;
+			} else if (value < edges[0]) {
+				counts[bins]++;
+			} else if (value > edges[bins]) {
+				counts[bins + 1]++;
+			} else {
+				int bin = 0;
+				while (bin < bins - 1 && value >= edges[bin + 1]) {
+					bin++;
+				}
+				counts[bin]++;
+			}
+		}
+		return counts;
+	}
+
+	private static void assertHistogram(int[] expected, Histogram histogram) {
+		int bins = histogram.numberOfBins();
+		assertArrayEquals(Arrays.copyOf(expected, bins), histogram.getCounts());
+		assertEquals(expected[bins], histogram.getUnderflowCount());
+		assertEquals(expected[bins + 1], histogram.getOverflowCount());
+		assertEquals(expected[bins + 2], histogram.getMissingCount());
+	}
+
+	@Test
+	public void testEqualWidth() {
+		double[] data = ColumnTestUtils.randomWithMissings(N, 2351L);
+		Histogram histogram = Statistics.histogram(new DoubleArrayColumn(data), 17, CTX);
+		double[] edges = histogram.getEdges();
+		assertEquals(18, edges.length);
+		double[] sorted = Arrays.stream(data).filter(v -> !Double.isNaN(v)).sorted().toArray();
+		assertEquals(sorted[0], edges[0], 0);
+		assertEquals(sorted[sorted.length - 1], edges[17], 0);
+		assertEquals(sorted.length, histogram.getTotalCount());
+		assertHistogram(expected(data, edges), histogram);
+	}
+
+	@Test
+	public void testCustomEdges() {
+		double[] data = ColumnTestUtils.randomWithMissings(N, 9125L);
+		double[] edges = {-150, -20, -0.0, 0.5, 10, 99};
+		Histogram histogram = Statistics.histogram(new DoubleArrayColumn(data), edges, CTX);
+		assertHistogram(expected(data, edges), histogram);
+		assertEquals(-20, histogram.getLowerEdge(1), 0);
+		assertEquals(0, histogram.getUpperEdge(1), 0);
+	}
+
+	@Test
+	public void testEdgeValues() {
+		double[] data = {0, 1, 2, 3, 4, -0.0, -1, 5, Double.NaN};
+		Histogram histogram = Statistics.histogram(new DoubleArrayColumn(data), new double[]{0, 2, 4}, CTX);
+		assertArrayEquals(new int[]{3, 3}, histogram.getCounts());
+		assertEquals(1, histogram.getUnderflowCount());
+		assertEquals(1, histogram.getOverflowCount());
+		assertEquals(1, histogram.getMissingCount());
+	}
+
+	@Test
+	public void testConstant() {
+		double[] data = new double[100];
+		Arrays.fill(data, 3);
+		Histogram histogram = Statistics.histogram(new DoubleArrayColumn(data), 4, CTX);
+		assertArrayEquals(new double[]{2.5, 2.75, 3, 3.25, 3.5}, histogram.getEdges(), 0);
+		assertArrayEquals(new int[]{0, 0, 100, 0}, histogram.getCounts());
+	}
+
+	@Test
+	public void testOnlyMissing() {
+		double[] data = {Double.NaN, Double.NaN};
+		Histogram histogram = Statistics.histogram(new DoubleArrayColumn(data), 2, CTX);
+		assertArrayEquals(new double[]{0, 0.5, 1}, histogram.getEdges(), 0);
+		assertEquals(0, histogram.getTotalCount());
+		assertEquals(2, histogram.getMissingCount());
+	}
+
+	@Test
+	public void testSparse() {
+		double[] data = new double[N];
+		Random random = new Random(61L);
+		Arrays.setAll(data, i -> random.nextInt(10) == 0 ? random.nextInt(100) : 7);
+		double[] edges = {0, 5, 10, 50};
+		Histogram sparse = Statistics.histogram(new DoubleSparseColumn(Column.TypeId.REAL, 7, data), edges, CTX);
+		Histogram dense = Statistics.histogram(new DoubleArrayColumn(data), edges, CTX);
+		assertEquals(dense, sparse);
+		assertHistogram(expected(data, edges), sparse);
+		assertEquals(Statistics.histogram(new DoubleArrayColumn(data), 13, CTX),
+				Statistics.histogram(new DoubleSparseColumn(Column.TypeId.REAL, 7, data), 13, CTX));
+	}
+
+	@Test
+	public void testSparseMissingDefault() {
+		double[] data = new double[1000];
+		Arrays.fill(data, Double.NaN);
+		data[10] = 1;
+		data[500] = 2;
+		Histogram histogram = Statistics.histogram(new DoubleSparseColumn(Column.TypeId.REAL, Double.NaN, data),
+				new double[]{0, 1.5, 3}, CTX);
+		assertArrayEquals(new int[]{1, 1}, histogram.getCounts());
+		assertEquals(998, histogram.getMissingCount());
+	}
+
+	@Test
+	public void testTime() {
+		long[] nanos = new long[N];
+		double[] values = new double[N];
+		Random random = new Random(7L);
+		for (int i = 0; i < N; i++) {
+			nanos[i] = random.nextInt(10) == 0 ? TimeColumn.MISSING_VALUE : random.nextInt(24) * 3_600_000_000_000L;
+			values[i] = nanos[i] == TimeColumn.MISSING_VALUE ? Double.NaN : nanos[i];
+		}
+		Histogram histogram = Statistics.histogram(new SimpleTimeColumn(nanos), 6, CTX);
+		assertHistogram(expected(values, histogram.getEdges()), histogram);
+		assertEquals(histogram, Statistics.histogram(new TimeSparseColumn(0, nanos), 6, CTX));
+	}
+
+	@Test
+	public void testDateTime() {
+		long[] seconds = new long[N];
+		int[] nanos = new int[N];
+		double[] values = new double[N];
+		Random random = new Random(8L);
+		for (int i = 0; i < N; i++) {
+			seconds[i] = random.nextInt(10) == 0 ? DateTimeColumn.MISSING_VALUE : 1_600_000_000L + random.nextInt(50);
+			nanos[i] = random.nextInt(2) * 500_000_000;
+			values[i] = seconds[i] == DateTimeColumn.MISSING_VALUE ? Double.NaN : seconds[i] + nanos[i] / 1e9;
+		}
+		double[] edges = {1_600_000_010L, 1_600_000_010.5, 1_600_000_020L, 1_600_000_045L};
+		Histogram histogram = Statistics.histogram(new SimpleDateTimeColumn(seconds, nanos), edges, CTX);
+		assertHistogram(expected(values, edges), histogram);
+
+		Histogram equalWidth = Statistics.histogram(new SimpleDateTimeColumn(seconds, nanos), 10, CTX);
+		assertHistogram(expected(values, equalWidth.getEdges()), equalWidth);
+	}
+
+	@Test
+	public void testDateTimeSparse() {
+		long[] seconds = new long[N];
+		Random random = new Random(9L);
+		Arrays.setAll(seconds, i -> random.nextInt(10) == 0 ? random.nextInt(1000) : 100);
+		double[] edges = {0, 50, 100, 101, 500};
+		assertEquals(Statistics.histogram(new SimpleDateTimeColumn(seconds), edges, CTX),
+				Statistics.histogram(new DateTimeLowPrecisionSparseColumn(100, seconds), edges, CTX));
+	}
+
+	@Test
+	public void testEmpty() {
+		Histogram histogram = Statistics.histogram(new DoubleArrayColumn(new double[0]), 3, CTX);
+		assertEquals(3, histogram.numberOfBins());
+		assertEquals(0, histogram.getTotalCount());
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testNotIncreasing() {
+		Statistics.histogram(new DoubleArrayColumn(new double[]{1}), new double[]{0, 1, 1}, CTX);
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testSingleEdge() {
+		Statistics.histogram(new DoubleArrayColumn(new double[]{1}), new double[]{0}, CTX);
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testInfiniteEdge() {
+		Statistics.histogram(new DoubleArrayColumn(new double[]{1}), new double[]{0, Double.POSITIVE_INFINITY}, CTX);
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testNoBins() {
+		Statistics.histogram(new DoubleArrayColumn(new double[]{1}), 0, CTX);
+	}
+
+	@Test(expected = IndexOutOfBoundsException.class)
+	public void testBinOutOfBounds() {
+		Statistics.histogram(new DoubleArrayColumn(new double[]{1}), 2, CTX).getCount(2);
+	}
+
+	@Test(expected = UnsupportedOperationException.class)
+	public void testUnsupportedType() {
+		Statistics.histogram(new SimpleObjectColumn<>(ColumnType.TEXT, new Object[]{"a"}), 2, CTX);
+	}
+
+	@Test(expected = NullPointerException.class)
+	public void testNullEdges() {
+		Statistics.histogram(new DoubleArrayColumn(new double[]{1}), null, CTX);
+	}
+
+}
@@ -0,0 +1,100 @@
+/**
+ * This file is part of the RapidMiner Belt project.
+ * Copyright (C) 2017-2021 RapidMiner GmbH
+ *
+ * This program is free software: you can redistribute it and/or modify it under the terms of the GNU Affero General
+ * Public License as published by the Free Software Foundation, either version 3 of the License, or (at your option) any
+ * later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied
+ * warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU Affero General Public License along with this program. If not, see
+ * https://www.gnu.org/licenses/.
+ */
+
+package com.rapidminer.belt.column;
+
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Test;
+
+
+/**
+ * Tests {@link HyperLogLog}.
+ *
+ * @author Michael Knopf
+ */
+public class HyperLogLogTests {
+
+	private static final double ERROR = 0.03;
+
+	@Test
+	public void testEmpty() {
+		assertEquals(0, new HyperLogLog().estimate());
+	}
+
+	@Test
+	public void testSmall() {
+		HyperLogLog sketch = new HyperLogLog();
+		for (int i = 0; i < 100; i++) {
+			sketch.addLong(i);
+			sketch.addLong(i);
+		}
+		assertEquals(100, sketch.estimate(), 1);
+	}
+
+	@Test
+	public void testLarge() {
+		int n = 1_000_000;
+		HyperLogLog sketch = new HyperLogLog();
+		for (int i = 0; i < n; i++) {
+			sketch.addDouble(i * 0.5);
+		}
+		assertEquals(n, sketch.estimate(), n * ERROR);
+	}
+
+	@Test
+	public void testStrings() {
+		int n = 200_000;
+		HyperLogLog sketch = new HyperLogLog();
+		for (int i = 0; i < n; i++) {
+			sketch.addString("value" + i);
+			sketch.addObject("value" + (i / 2));
+		}
+		assertEquals(n, sketch.estimate(), n * ERROR);
+	}
+
+	@Test
+	public void testLongInt() {
+		int n = 100_000;
+		HyperLogLog sketch = new HyperLogLog();
+		for (int i = 0; i < n; i++) {
+			sketch.addLongInt(i / 10, i % 10);
+		}
+		assertEquals(n, sketch.estimate(), n * ERROR);
+	}
+
+	@Test
+	public void testZeros() {
+		HyperLogLog sketch = new HyperLogLog();
+		sketch.addDouble(0.0);
+		sketch.addDouble(-0.0);
+		assertEquals(1, sketch.estimate());
+	}
+
+	@Test
+	public void testMerge() {
+		int n = 300_000;
+		HyperLogLog first = new HyperLogLog();
+		HyperLogLog second = new HyperLogLog();
+		for (int i = 0; i < n; i++) {
+			first.addLong(i);
+			second.addLong(i + n / 2);
+		}
+		first.merge(second);
+		assertEquals(n * 1.5, first.estimate(), n * 1.5 * ERROR);
+	}
+
+}
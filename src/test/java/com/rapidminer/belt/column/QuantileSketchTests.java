@@ -0,0 +1,234 @@
+/**
+ * This file is part of the RapidMiner Belt project.
+ * Copyright (C) 2017-2021 RapidMiner GmbH
+ *
+ * This program is free software: you can redistribute it and/or modify it under the terms of the GNU Affero General
+ * Public License as published by the Free Software Foundation, either version 3 of the License, or (at your option) any
+ * later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied
+ * warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU Affero General Public License along with this program. If not, see
+ * https://www.gnu.org/licenses/.
+ */
+
+package com.rapidminer.belt.column;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import org.junit.Test;
+
+import com.rapidminer.belt.execution.Context;
+import com.rapidminer.belt.util.Belt;
+
+
+/**
+ * Tests {@link QuantileSketch}.
+ *
+ * @author Michael Knopf
+ */
+public class QuantileSketchTests {
+
+	private static final Context CTX = Belt.defaultContext();
+
+	private static final int N = 200_000;
+
+	private static final double[] RANKS = {0.01, 0.05, 0.1, 0.25, 0.5, 0.75, 0.9, 0.95, 0.99};
+
+	private static double[] random(int n, long seed) {
+		Random random = new Random(seed);
+		double[] data = new double[n];
+		Arrays.setAll(data, i -> random.nextGaussian() * 1000);
+		return data;
+	}
+
+	/**
+	 * Checks that the normalized rank of every approximate quantile is within the given error of the requested rank.
+	 */
+	private static void assertRankError(double[] data, QuantileSketch sketch, double error) {
+		double[] sorted = Arrays.stream(data).filter(v -> !Double.isNaN(v)).sorted().toArray();
+		double[] quantiles = sketch.quantiles(RANKS);
+		for (int i = 0; i < RANKS.length; i++) {
+			int lower = lowerBound(sorted, quantiles[i]);
+			int upper = upperBound(sorted, quantiles[i]);
+			double target = RANKS[i] * sorted.length;
+			double distance = target < lower ? lower - target : target > upper ? target - upper : 0;
+			assertTrue("rank " + RANKS[i] + ": " + distance / sorted.length,
+					distance / sorted.length <= error);
+		}
+	}
+
+	private static int lowerBound(double[] sorted, double value) {
+		int index = 0;
+		while (index < sorted.length && sorted[index] < value) {
+			index++;
+		}
+		return index;
+	}
+
+	private static int upperBound(double[] sorted, double value) {
+		int index = lowerBound(sorted, value);
+		while (index < sorted.length && sorted[index] == value) {
+			index++;
+		}
+		return index;
+	}
+
+	private static QuantileSketch sketch(double[] data, int k) {
+		return QuantileSketch.of(new DoubleArrayColumn(data), k, CTX);
+	}
+
+	@Test
+	public void testAccuracy() {
+		double[] data = random(N, 8273641L);
+		QuantileSketch sketch = sketch(data, QuantileSketch.DEFAULT_K);
+		assertEquals(N, sketch.count());
+		assertTrue(sketch.getRetainedValues() < 4 * QuantileSketch.DEFAULT_K);
+		assertRankError(data, sketch, 2 * sketch.getNormalizedRankError());
+	}
+
+	@Test
+	public void testSequentialUpdates() {
+		double[] data = new double[N];
+		Arrays.setAll(data, i -> i);
+		QuantileSketch sketch = new QuantileSketch(100);
+		for (double value : data) {
+			sketch.update(value);
+		}
+		assertRankError(data, sketch, 2 * sketch.getNormalizedRankError());
+	}
+
+	@Test
+	public void testMinMax() {
+		double[] data = random(N, 1726L);
+		QuantileSketch sketch = sketch(data, 50);
+		assertEquals(Arrays.stream(data).min().getAsDouble(), sketch.min(), 0);
+		assertEquals(Arrays.stream(data).max().getAsDouble(), sketch.max(), 0);
+		assertEquals(sketch.min(), sketch.quantile(0), 0);
+		assertEquals(sketch.max(), sketch.quantile(1), 0);
+	}
+
+	@Test
+	public void testMissingValues() {
+		double[] data = random(N, 6152L);
+		for (int i = 0; i < data.length; i += 3) {
+			data[i] = Double.NaN;
+		}
+		QuantileSketch sketch = sketch(data, QuantileSketch.DEFAULT_K);
+		assertEquals(N - (N + 2) / 3, sketch.count());
+		assertRankError(data, sketch, 2 * sketch.getNormalizedRankError());
+	}
+
+	@Test
+	public void testMerge() {
+		double[] data = random(N, 9182L);
+		QuantileSketch merged = sketch(Arrays.copyOfRange(data, 0, N / 3), QuantileSketch.DEFAULT_K);
+		merged = merged.merge(sketch(Arrays.copyOfRange(data, N / 3, N / 2), QuantileSketch.DEFAULT_K));
+		merged = merged.merge(sketch(Arrays.copyOfRange(data, N / 2, N), QuantileSketch.DEFAULT_K));
+		assertEquals(N, merged.count());
+		assertEquals(Arrays.stream(data).min().getAsDouble(), merged.min(), 0);
+		assertEquals(Arrays.stream(data).max().getAsDouble(), merged.max(), 0);
+		assertRankError(data, merged, 2 * merged.getNormalizedRankError());
+	}
+
+	@Test
+	public void testMergeDoesNotModify() {
+		QuantileSketch first = sketch(random(1000, 1L), 20);
+		QuantileSketch second = sketch(random(1000, 2L), 20);
+		double[] before = first.quantiles(RANKS);
+		QuantileSketch merged = first.merge(second);
+		assertNotSame(first, merged);
+		assertEquals(1000, first.count());
+		assertEquals(2000, merged.count());
+		assertEquals(Arrays.toString(before), Arrays.toString(first.quantiles(RANKS)));
+	}
+
+	@Test
+	public void testDuplicates() {
+		double[] data = new double[N];
+		Arrays.setAll(data, i -> i % 4);
+		QuantileSketch sketch = sketch(data, QuantileSketch.DEFAULT_K);
+		assertEquals(0, sketch.quantile(0.1), 0);
+		assertEquals(1, sketch.quantile(0.4), 0);
+		assertEquals(3, sketch.quantile(0.9), 0);
+		assertEquals(0.5, sketch.rank(1), 0.02);
+	}
+
+	@Test
+	public void testEmpty() {
+		QuantileSketch sketch = sketch(new double[]{Double.NaN, Double.NaN}, QuantileSketch.DEFAULT_K);
+		assertEquals(0, sketch.count());
+		assertTrue(Double.isNaN(sketch.quantile(0.5)));
+		assertTrue(Double.isNaN(sketch.rank(0)));
+		assertTrue(Double.isNaN(sketch.min()));
+		QuantileSketch merged = sketch.merge(sketch(new double[]{1, 2, 3}, QuantileSketch.DEFAULT_K));
+		assertEquals(2, merged.quantile(0.5), 0);
+		assertEquals(1, merged.min(), 0);
+	}
+
+	@Test
+	public void testSmallExact() {
+		QuantileSketch sketch = sketch(new double[]{5, 1, 4, 2, 3}, QuantileSketch.DEFAULT_K);
+		assertEquals(1, sketch.quantile(0.2), 0);
+		assertEquals(3, sketch.quantile(0.5), 0);
+		assertEquals(0.6, sketch.rank(3), 0);
+	}
+
+	@Test
+	public void testKForError() {
+		for (double error : new double[]{0.1, 0.05, 0.01, 0.001}) {
+			int k = QuantileSketch.kForError(error);
+			assertTrue(QuantileSketch.normalizedRankError(k) <= error);
+			assertTrue(QuantileSketch.normalizedRankError(k - 1) > error || k == QuantileSketch.MIN_K);
+		}
+	}
+
+	@Test
+	public void testStatistic() {
+		Column column = new DoubleArrayColumn(random(N, 7L));
+		Statistics.Result result = Statistics.compute(column, Statistics.Statistic.QUANTILE_SKETCH, CTX);
+		QuantileSketch sketch = result.getObject(QuantileSketch.class);
+		assertEquals(QuantileSketch.DEFAULT_K, sketch.getK());
+		assertEquals(N, sketch.count());
+		assertSame(result, column.getStat(Statistics.Statistic.QUANTILE_SKETCH));
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testDifferentK() {
+		sketch(new double[]{1}, 10).merge(sketch(new double[]{1}, 20));
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testInvalidK() {
+		sketch(new double[]{1}, QuantileSketch.MIN_K - 1);
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testInvalidRank() {
+		sketch(new double[]{1}, 10).quantile(1.5);
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testInvalidError() {
+		QuantileSketch.kForError(0);
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testNotNumeric() {
+		QuantileSketch.of(new SimpleObjectColumn<>(ColumnType.TEXT, new Object[]{"a"}), 10, CTX);
+	}
+
+	@Test(expected = NullPointerException.class)
+	public void testNullColumn() {
+		QuantileSketch.of(null, 10, CTX);
+	}
+
+}
@@ -0,0 +1,178 @@
+/**
+ * This file is part of the RapidMiner Belt project.
+ * Copyright (C) 2017-2021 RapidMiner GmbH
+ *
+ * This program is free software: you can redistribute it and/or modify it under the terms of the GNU Affero General
+ * Public License as published by the Free Software Foundation, either version 3 of the License, or (at your option) any
+ * later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied
+ * warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU Affero General Public License along with this program. If not, see
+ * https://www.gnu.org/licenses/.
+ */
+
+
+package com.rapidminer.belt.column;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+import java.time.LocalTime;
+import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.Random;
+import java.util.Set;
+
+import org.junit.Test;
+
+import com.rapidminer.belt.execution.Context;
+import com.rapidminer.belt.util.Belt;
+
+
+/**
+ * Tests {@link ZoneMap}.
+ *
+ * @author Michael Knopf
+ */
+public class ZoneMapTests {
+
+	private static final Context CTX = Belt.defaultContext();
+
+	private static final int N = 5 * ZoneMap.BLOCK_SIZE + 123;
+
+	private static void assertZoneMap(double[] data, ZoneMap zoneMap) {
+		int blocks = (data.length + ZoneMap.BLOCK_SIZE - 1) / ZoneMap.BLOCK_SIZE;
+		assertEquals(data.length, zoneMap.size());
+		assertEquals(blocks, zoneMap.numberOfBlocks());
+		for (int block = 0; block < blocks; block++) {
+			int from = block * ZoneMap.BLOCK_SIZE;
+			int to = Math.min(data.length, from + ZoneMap.BLOCK_SIZE);
+			double[] values = Arrays.stream(data, from, to).filter(v -> !Double.isNaN(v)).toArray();
+			assertEquals(to - from, zoneMap.blockLength(block));
+			assertEquals(to - from - values.length, zoneMap.missingCount(block));
+			assertEquals(Arrays.stream(values).min().orElse(Double.NaN), zoneMap.min(block), 0);
+			assertEquals(Arrays.stream(values).max().orElse(Double.NaN), zoneMap.max(block), 0);
+		}
+		double[] values = Arrays.stream(data).filter(v -> !Double.isNaN(v)).toArray();
+		assertEquals(data.length - values.length, zoneMap.missingCount());
+		assertEquals(Arrays.stream(values).min().orElse(Double.NaN), zoneMap.min(), 0);
+		assertEquals(Arrays.stream(values).max().orElse(Double.NaN), zoneMap.max(), 0);
+	}
+
+	@Test
+	public void testReal() {
+		double[] data = ColumnTestUtils.randomWithMissings(N, 11L);
+		assertZoneMap(data, ZoneMap.of(new DoubleArrayColumn(data), CTX));
+	}
+
+	@Test
+	public void testMissingBlocks() {
+		double[] data = ColumnTestUtils.randomWithMissings(N, 12L);
+		Arrays.fill(data, 0, 2 * ZoneMap.BLOCK_SIZE, Double.NaN);
+		Arrays.fill(data, 4 * ZoneMap.BLOCK_SIZE, N, Double.NaN);
+		ZoneMap zoneMap = ZoneMap.of(new DoubleArrayColumn(data), CTX);
+		assertZoneMap(data, zoneMap);
+		assertEquals(Double.NaN, zoneMap.min(0), 0);
+		assertEquals(ZoneMap.BLOCK_SIZE, zoneMap.missingCount(1));
+	}
+
+	@Test
+	public void testAllMissing() {
+		double[] data = new double[1000];
+		Arrays.fill(data, Double.NaN);
+		ZoneMap zoneMap = ZoneMap.of(new DoubleArrayColumn(data), CTX);
+		assertZoneMap(data, zoneMap);
+		assertEquals(Double.NaN, zoneMap.max(), 0);
+	}
+
+	@Test
+	public void testEmpty() {
+		ZoneMap zoneMap = ZoneMap.of(new DoubleArrayColumn(new double[0]), CTX);
+		assertEquals(0, zoneMap.numberOfBlocks());
+		assertEquals(0, zoneMap.missingCount());
+		assertEquals(Double.NaN, zoneMap.min(), 0);
+	}
+
+	@Test
+	public void testMapped() {
+		double[] data = ColumnTestUtils.randomWithMissings(N, 13L);
+		int[] mapping = new int[N / 2];
+		Arrays.setAll(mapping, i -> N - 1 - 2 * i);
+		double[] mapped = new double[mapping.length];
+		Arrays.setAll(mapped, i -> data[mapping[i]]);
+		Column column = new DoubleArrayColumn(data).rows(mapping, true);
+		assertZoneMap(mapped, ZoneMap.of(column, CTX));
+	}
+
+	@Test
+	public void testTime() {
+		long[] nanos = new long[N];
+		Random random = new Random(14L);
+		Arrays.setAll(nanos, i -> random.nextInt(10) == 0 ? TimeColumn.MISSING_VALUE :
+				random.nextInt(24 * 60 * 60) * 1_000_000_000L);
+		double[] data = new double[N];
+		Arrays.setAll(data, i -> nanos[i] == TimeColumn.MISSING_VALUE ? Double.NaN : nanos[i]);
+		assertZoneMap(data, ZoneMap.of(new SimpleTimeColumn(nanos), CTX));
+	}
+
+	@Test
+	public void testCaching() {
+		Column column = new DoubleArrayColumn(ColumnTestUtils.randomWithMissings(1000, 15L));
+		assertNull(ZoneMap.cached(column));
+		ZoneMap zoneMap = ZoneMap.of(column, CTX);
+		assertSame(zoneMap, ZoneMap.cached(column));
+		assertSame(zoneMap, ZoneMap.of(column, CTX));
+		assertNotSame(zoneMap, ZoneMap.of(new DoubleArrayColumn(ColumnTestUtils.randomWithMissings(1000, 15L)), CTX));
+	}
+
+	@Test
+	public void testStatistics() {
+		double[] data = ColumnTestUtils.randomWithMissings(N, 16L);
+		Column column = new DoubleArrayColumn(data);
+		ZoneMap.of(column, CTX);
+		Column reference = new DoubleArrayColumn(data);
+		for (Statistics.Statistic statistic : Arrays.asList(Statistics.Statistic.MIN, Statistics.Statistic.MAX,
+				Statistics.Statistic.COUNT, Statistics.Statistic.MEAN)) {
+			assertEquals(Statistics.compute(reference, statistic, CTX),
+					Statistics.compute(column, statistic, CTX));
+		}
+		for (Set<Statistics.Statistic> statistics : Arrays.asList(
+				EnumSet.of(Statistics.Statistic.MIN, Statistics.Statistic.MAX, Statistics.Statistic.COUNT),
+				EnumSet.of(Statistics.Statistic.MIN, Statistics.Statistic.MEAN, Statistics.Statistic.SD))) {
+			assertEquals(Statistics.compute(reference, statistics, CTX), Statistics.compute(column, statistics, CTX));
+		}
+	}
+
+	@Test
+	public void testTimeStatistics() {
+		long[] nanos = new long[1000];
+		Arrays.setAll(nanos, i -> i % 7 == 0 ? TimeColumn.MISSING_VALUE : 1_000_000L * i);
+		Column column = new SimpleTimeColumn(nanos);
+		ZoneMap.of(column, CTX);
+		assertEquals(LocalTime.ofNanoOfDay(1_000_000L),
+				Statistics.compute(column, Statistics.Statistic.MIN, CTX).getObject(LocalTime.class));
+		assertEquals(Statistics.compute(new SimpleTimeColumn(nanos), Statistics.Statistic.MAX, CTX),
+				Statistics.compute(column, Statistics.Statistic.MAX, CTX));
+	}
+
+	@Test(expected = UnsupportedOperationException.class)
+	public void testUnsupportedColumn() {
+		ZoneMap.of(new SimpleObjectColumn<>(ColumnType.TEXT, new Object[10]), CTX);
+	}
+
+	@Test(expected = NullPointerException.class)
+	public void testNullContext() {
+		ZoneMap.of(new DoubleArrayColumn(new double[1]), null);
+	}
+
+	@Test(expected = IndexOutOfBoundsException.class)
+	public void testBlockOutOfBounds() {
+		ZoneMap.of(new DoubleArrayColumn(new double[1]), CTX).blockLength(1);
+	}
+
+}
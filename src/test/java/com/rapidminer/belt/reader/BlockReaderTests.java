@@ -0,0 +1,339 @@
+/**
+ * This file is part of the RapidMiner Belt project.
+ * Copyright (C) 2017-2021 RapidMiner GmbH
+ *
+ * This program is free software: you can redistribute it and/or modify it under the terms of the GNU Affero General
+ * Public License as published by the Free Software Foundation, either version 3 of the License, or (at your option) any
+ * later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied
+ * warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU Affero General Public License along with this program. If not, see
+ * https://www.gnu.org/licenses/.
+ */
+
+
+package com.rapidminer.belt.reader;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.nio.DoubleBuffer;
+import java.nio.IntBuffer;
+import java.nio.LongBuffer;
+import java.nio.ReadOnlyBufferException;
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+import java.util.Random;
+
+import org.junit.Test;
+import org.junit.experimental.runners.Enclosed;
+import org.junit.runner.RunWith;
+
+import com.rapidminer.belt.column.Column;
+import com.rapidminer.belt.column.ColumnIO;
+import com.rapidminer.belt.column.ColumnTestUtils;
+import com.rapidminer.belt.column.ColumnType;
+
+
+/**
+ * Tests {@link NumericBlockReader}, {@link CategoricalBlockReader} and the views of {@link ColumnIO}.
+ *
+ * @author Michael Knopf
+ */
+@RunWith(Enclosed.class)
+public class BlockReaderTests {
+
+	private static double[] random(int n, long seed) {
+		Random random = new Random(seed);
+		double[] data = new double[n];
+		for (int i = 0; i < n; i++) {
+			data[i] = random.nextInt(10) == 0 ? Double.NaN : random.nextGaussian();
+		}
+		return data;
+	}
+
+	private static double[] readAll(NumericBlockReader reader, int size) {
+		double[] values = new double[size];
+		int position = 0;
+		while (reader.hasRemaining()) {
+			DoubleBuffer block = reader.next();
+			int length = block.remaining();
+			block.get(values, position, length);
+			position += length;
+			assertEquals(position, reader.position());
+		}
+		assertEquals(size, position);
+		return values;
+	}
+
+	private static int[] readAll(CategoricalBlockReader reader, int size) {
+		int[] values = new int[size];
+		int position = 0;
+		while (reader.hasRemaining()) {
+			IntBuffer block = reader.next();
+			int length = block.remaining();
+			block.get(values, position, length);
+			position += length;
+		}
+		assertEquals(size, position);
+		return values;
+	}
+
+	public static class Numeric {
+
+		@Test
+		public void testDenseIsView() {
+			double[] data = random(1000, 1L);
+			Column column = ColumnTestUtils.getNumericColumn(Column.TypeId.REAL, data);
+			NumericBlockReader reader = Readers.numericBlockReader(column, 128);
+			assertTrue(reader.isView());
+			assertArrayEquals(data, readAll(reader, data.length), 0);
+		}
+
+		@Test
+		public void testBlockBoundaries() {
+			double[] data = random(1000, 2L);
+			Column column = ColumnTestUtils.getNumericColumn(Column.TypeId.REAL, data);
+			NumericBlockReader reader = Readers.numericBlockReader(column, 300);
+			assertEquals(300, reader.next().remaining());
+			assertEquals(300, reader.next().remaining());
+			assertEquals(300, reader.next().remaining());
+			DoubleBuffer last = reader.next();
+			assertEquals(100, last.remaining());
+			assertEquals(data[900], last.get(0), 0);
+			assertFalse(reader.hasRemaining());
+			assertEquals(0, reader.remaining());
+		}
+
+		@Test
+		public void testMappedCopies() {
+			double[] data = random(1000, 3L);
+			int[] mapping = ColumnTestUtils.randomIndices(777, data.length, 4L);
+			Column column = ColumnTestUtils.getMappedNumericColumn(Column.TypeId.REAL, data, mapping);
+			NumericBlockReader reader = Readers.numericBlockReader(column, 100);
+			assertFalse(reader.isView());
+			double[] expected = new double[mapping.length];
+			for (int i = 0; i < mapping.length; i++) {
+				expected[i] = data[mapping[i]];
+			}
+			assertArrayEquals(expected, readAll(reader, mapping.length), 0);
+		}
+
+		@Test
+		public void testSparseCopies() {
+			double[] data = new double[1000];
+			data[17] = 3;
+			data[999] = -1;
+			Column column = ColumnTestUtils.getSparseDoubleColumn(Column.TypeId.REAL, 0, data);
+			NumericBlockReader reader = Readers.numericBlockReader(column, 64);
+			assertFalse(reader.isView());
+			assertArrayEquals(data, readAll(reader, data.length), 0);
+		}
+
+		@Test
+		public void testDefaultBlockSize() {
+			double[] data = random(NumericBlockReader.DEFAULT_BLOCK_SIZE + 1, 5L);
+			Column column = ColumnTestUtils.getNumericColumn(Column.TypeId.REAL, data);
+			NumericBlockReader reader = Readers.numericBlockReader(column);
+			assertEquals(NumericBlockReader.DEFAULT_BLOCK_SIZE, reader.next().remaining());
+			assertEquals(1, reader.next().remaining());
+		}
+
+		@Test
+		public void testRange() {
+			double[] data = random(1000, 9L);
+			for (Column column : Arrays.asList(ColumnTestUtils.getNumericColumn(Column.TypeId.REAL, data),
+					ColumnTestUtils.getSparseDoubleColumn(Column.TypeId.REAL, 0, data))) {
+				NumericBlockReader reader = Readers.numericBlockReader(column, 64, 100, 350);
+				assertEquals(100, reader.position());
+				assertEquals(250, reader.remaining());
+				double[] values = new double[250];
+				int position = 0;
+				while (reader.hasRemaining()) {
+					DoubleBuffer block = reader.next();
+					int length = block.remaining();
+					block.get(values, position, length);
+					position += length;
+				}
+				assertArrayEquals(Arrays.copyOfRange(data, 100, 350), values, 0);
+			}
+		}
+
+		@Test(expected = IndexOutOfBoundsException.class)
+		public void testRangeOutOfBounds() {
+			Readers.numericBlockReader(ColumnTestUtils.getNumericColumn(Column.TypeId.REAL, new double[10]), 4, 5,
+					11);
+		}
+
+		@Test(expected = ReadOnlyBufferException.class)
+		public void testViewReadOnly() {
+			Column column = ColumnTestUtils.getNumericColumn(Column.TypeId.REAL, random(10, 6L));
+			Readers.numericBlockReader(column).next().put(0, 1);
+		}
+
+		@Test(expected = ReadOnlyBufferException.class)
+		public void testCopyReadOnly() {
+			Column column = ColumnTestUtils.getMappedNumericColumn(Column.TypeId.REAL, random(10, 7L),
+					new int[]{1, 2, 3});
+			Readers.numericBlockReader(column).next().put(0, 1);
+		}
+
+		@Test(expected = NoSuchElementException.class)
+		public void testExhausted() {
+			Column column = ColumnTestUtils.getNumericColumn(Column.TypeId.REAL, random(10, 8L));
+			NumericBlockReader reader = Readers.numericBlockReader(column);
+			reader.next();
+			reader.next();
+		}
+
+		@Test(expected = IllegalArgumentException.class)
+		public void testZeroBlockSize() {
+			Readers.numericBlockReader(ColumnTestUtils.getNumericColumn(Column.TypeId.REAL, new double[1]), 0);
+		}
+
+		@Test(expected = UnsupportedOperationException.class)
+		public void testNotNumericReadable() {
+			Readers.numericBlockReader(ColumnTestUtils.getDenseLowPrecDateTimeColumn(new long[]{1, 2}));
+		}
+
+		@Test(expected = NullPointerException.class)
+		public void testNullColumn() {
+			Readers.numericBlockReader(null);
+		}
+
+	}
+
+	public static class Categorical {
+
+		@Test
+		public void testIntIsView() {
+			int[] data = ColumnTestUtils.randomIndices(1000, 5, 11L);
+			Column column = ColumnTestUtils.getSimpleCategoricalColumn(ColumnType.NOMINAL, data, ColumnTestUtils.dictionary(5));
+			CategoricalBlockReader reader = Readers.categoricalBlockReader(column, 128);
+			assertTrue(reader.isView());
+			assertArrayEquals(data, readAll(reader, data.length));
+		}
+
+		@Test
+		public void testShortCopies() {
+			int[] data = ColumnTestUtils.randomIndices(1000, 5, 12L);
+			short[] shorts = new short[data.length];
+			for (int i = 0; i < data.length; i++) {
+				shorts[i] = (short) data[i];
+			}
+			Column column = ColumnTestUtils.getSimpleCategoricalColumn(ColumnType.NOMINAL, shorts,
+					ColumnTestUtils.dictionary(5));
+			CategoricalBlockReader reader = Readers.categoricalBlockReader(column, 100);
+			assertFalse(reader.isView());
+			assertArrayEquals(data, readAll(reader, data.length));
+		}
+
+		@Test
+		public void testMappedCopies() {
+			int[] data = ColumnTestUtils.randomIndices(1000, 5, 13L);
+			int[] mapping = ColumnTestUtils.randomIndices(500, data.length, 14L);
+			Column column = ColumnTestUtils.getMappedCategoricalColumn(ColumnType.NOMINAL, data,
+					ColumnTestUtils.dictionary(5), mapping);
+			CategoricalBlockReader reader = Readers.categoricalBlockReader(column, 99);
+			assertFalse(reader.isView());
+			int[] expected = Arrays.stream(mapping).map(i -> data[i]).toArray();
+			assertArrayEquals(expected, readAll(reader, mapping.length));
+		}
+
+		@Test
+		public void testRange() {
+			int[] data = ColumnTestUtils.randomIndices(1000, 5, 15L);
+			Column column = ColumnTestUtils.getSimpleCategoricalColumn(ColumnType.NOMINAL, data, ColumnTestUtils.dictionary(5));
+			CategoricalBlockReader reader = Readers.categoricalBlockReader(column, 100, 999, 1000);
+			assertArrayEquals(new int[]{data[999]}, readAll(reader, 1));
+			assertFalse(Readers.categoricalBlockReader(column, 100, 1000, 1000).hasRemaining());
+		}
+
+		@Test(expected = IndexOutOfBoundsException.class)
+		public void testRangeReversed() {
+			Column column = ColumnTestUtils.getSimpleCategoricalColumn(ColumnType.NOMINAL, new int[]{1, 2},
+					ColumnTestUtils.dictionary(3));
+			Readers.categoricalBlockReader(column, 1, 2, 1);
+		}
+
+		@Test(expected = ReadOnlyBufferException.class)
+		public void testViewReadOnly() {
+			Column column = ColumnTestUtils.getSimpleCategoricalColumn(ColumnType.NOMINAL, new int[]{1, 2},
+					ColumnTestUtils.dictionary(3));
+			Readers.categoricalBlockReader(column).next().put(0, 1);
+		}
+
+		@Test(expected = IllegalArgumentException.class)
+		public void testNegativeBlockSize() {
+			Column column = ColumnTestUtils.getSimpleCategoricalColumn(ColumnType.NOMINAL, new int[]{1},
+					ColumnTestUtils.dictionary(2));
+			Readers.categoricalBlockReader(column, -1);
+		}
+
+		@Test(expected = UnsupportedOperationException.class)
+		public void testNotCategorical() {
+			Readers.categoricalBlockReader(ColumnTestUtils.getNumericColumn(Column.TypeId.REAL, new double[1]));
+		}
+
+	}
+
+	public static class Views {
+
+		@Test
+		public void testNumericRange() {
+			double[] data = random(100, 21L);
+			Column column = ColumnTestUtils.getNumericColumn(Column.TypeId.REAL, data);
+			DoubleBuffer view = ColumnIO.viewNumericDoubles(column, 10, 20);
+			assertTrue(view.isReadOnly());
+			assertEquals(0, view.position());
+			assertEquals(20, view.remaining());
+			assertEquals(data[10], view.get(0), 0);
+			assertEquals(data[29], view.get(19), 0);
+		}
+
+		@Test
+		public void testTime() {
+			long[] data = {1, 2, 3, 4, 5};
+			LongBuffer view = ColumnIO.viewTimeLongs(ColumnTestUtils.getDenseTimeColumn(data), 1, 3);
+			assertTrue(view.isReadOnly());
+			assertEquals(3, view.remaining());
+			assertEquals(2, view.get(0));
+			assertEquals(4, view.get(2));
+		}
+
+		@Test
+		public void testMappedTime() {
+			assertNull(ColumnIO.viewTimeLongs(ColumnTestUtils.getMappedTimeColumn(new long[]{1, 2},
+					new int[]{1, 0}), 0, 2));
+		}
+
+		@Test
+		public void testWrongType() {
+			assertNull(ColumnIO.viewCategoricalInts(ColumnTestUtils.getNumericColumn(Column.TypeId.REAL,
+					new double[3]), 0, 3));
+		}
+
+		@Test(expected = IndexOutOfBoundsException.class)
+		public void testOutOfRange() {
+			ColumnIO.viewNumericDoubles(ColumnTestUtils.getNumericColumn(Column.TypeId.REAL, new double[10]), 5, 6);
+		}
+
+		@Test(expected = IndexOutOfBoundsException.class)
+		public void testNegativeOffset() {
+			ColumnIO.viewNumericDoubles(ColumnTestUtils.getNumericColumn(Column.TypeId.REAL, new double[10]), -1, 2);
+		}
+
+		@Test(expected = NullPointerException.class)
+		public void testNullColumn() {
+			ColumnIO.viewNumericDoubles(null, 0, 0);
+		}
+
+	}
+
+}
@@ -0,0 +1,214 @@
+/**
+ * This file is part of the RapidMiner Belt project.
+ * Copyright (C) 2017-2021 RapidMiner GmbH
+ *
+ * This program is free software: you can redistribute it and/or modify it under the terms of the GNU Affero General
+ * Public License as published by the Free Software Foundation, either version 3 of the License, or (at your option) any
+ * later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied
+ * warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU Affero General Public License along with this program. If not, see
+ * https://www.gnu.org/licenses/.
+ */
+
+
+package com.rapidminer.belt.reader;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.Spliterator;
+import java.util.stream.Collectors;
+
+import org.junit.Test;
+
+import com.rapidminer.belt.column.Column;
+import com.rapidminer.belt.column.ColumnTestUtils;
+import com.rapidminer.belt.column.ColumnType;
+import com.rapidminer.belt.table.Builders;
+import com.rapidminer.belt.table.Table;
+import com.rapidminer.belt.util.Belt;
+
+
+/**
+ * Tests {@link Streams} and the stream methods of {@link Column}.
+ *
+ * @author Michael Knopf
+ */
+public class StreamsTests {
+
+	private static final int N = 100_000;
+
+	private static double[] random(int n, long seed) {
+		Random random = new Random(seed);
+		double[] data = new double[n];
+		for (int i = 0; i < n; i++) {
+			data[i] = random.nextInt(10) == 0 ? Double.NaN : random.nextInt(1000);
+		}
+		return data;
+	}
+
+	@Test
+	public void testDoubleStream() {
+		double[] data = random(N, 1L);
+		Column column = ColumnTestUtils.getNumericColumn(Column.TypeId.REAL, data);
+		assertArrayEquals(data, column.doubleStream().toArray(), 0);
+		assertArrayEquals(data, column.doubleStream().parallel().toArray(), 0);
+	}
+
+	@Test
+	public void testDoubleStreamMapped() {
+		double[] data = random(N, 2L);
+		int[] mapping = ColumnTestUtils.randomIndices(N / 2, N, 3L);
+		Column column = ColumnTestUtils.getMappedNumericColumn(Column.TypeId.REAL, data, mapping);
+		double[] expected = Arrays.stream(mapping).mapToDouble(i -> data[i]).toArray();
+		assertArrayEquals(expected, column.doubleStream().parallel().toArray(), 0);
+		assertEquals(Arrays.stream(expected).filter(v -> !Double.isNaN(v)).sum(),
+				column.doubleStream().parallel().filter(v -> !Double.isNaN(v)).sum(), 0);
+	}
+
+	@Test
+	public void testDoubleStreamShortCircuit() {
+		double[] data = random(N, 4L);
+		Column column = ColumnTestUtils.getNumericColumn(Column.TypeId.REAL, data);
+		assertArrayEquals(Arrays.copyOf(data, 10), column.doubleStream().limit(10).toArray(), 0);
+		assertArrayEquals(Arrays.copyOfRange(data, 5, 20), column.doubleStream().skip(5).limit(15).toArray(), 0);
+	}
+
+	@Test
+	public void testIntStream() {
+		int[] data = ColumnTestUtils.randomIndices(N, 7, 5L);
+		Column column = ColumnTestUtils.getSimpleCategoricalColumn(ColumnType.NOMINAL, data,
+				ColumnTestUtils.dictionary(7));
+		assertArrayEquals(data, column.intStream().toArray());
+		assertArrayEquals(data, column.intStream().parallel().toArray());
+	}
+
+	@Test
+	public void testObjectStream() {
+		int[] data = ColumnTestUtils.randomIndices(N, 7, 6L);
+		List<String> dictionary = ColumnTestUtils.dictionary(7);
+		Column column = ColumnTestUtils.getSimpleCategoricalColumn(ColumnType.NOMINAL, data, dictionary);
+		List<String> expected = Arrays.stream(data).mapToObj(dictionary::get).collect(Collectors.toList());
+		assertEquals(expected, column.objectStream(String.class).collect(Collectors.toList()));
+		assertEquals(expected, column.objectStream(Object.class).parallel().collect(Collectors.toList()));
+	}
+
+	@Test
+	public void testNumericRows() {
+		double[] first = random(N, 7L);
+		double[] second = random(N, 8L);
+		Table table = Builders.newTableBuilder(N)
+				.addReal("first", i -> first[i])
+				.addReal("second", i -> second[i])
+				.build(Belt.defaultContext());
+		double[] expected = new double[N];
+		Arrays.setAll(expected, i -> first[i] + second[i]);
+		assertArrayEquals(expected, Streams.numericRows(table).mapToDouble(row -> row.get(0) + row.get(1))
+				.toArray(), 0);
+		assertArrayEquals(expected, Streams.numericRows(table).parallel().mapToDouble(row -> row.get(0) + row.get(1))
+				.toArray(), 0);
+		int[] positions = Streams.numericRows(table).parallel().mapToInt(NumericRow::position).toArray();
+		for (int i = 0; i < N; i++) {
+			assertEquals(i, positions[i]);
+		}
+	}
+
+	@Test
+	public void testMixedRows() {
+		double[] numbers = random(N, 9L);
+		Table table = Builders.newTableBuilder(N)
+				.addReal("number", i -> numbers[i])
+				.addNominal("nominal", i -> "value" + (i % 5))
+				.build(Belt.defaultContext());
+		List<String> expected = new ArrayList<>(N);
+		for (int i = 0; i < N; i++) {
+			expected.add(numbers[i] + "value" + (i % 5));
+		}
+		assertEquals(expected, Streams.mixedRows(table).parallel()
+				.map(row -> row.getNumeric(0) + "" + row.getObject(1)).collect(Collectors.toList()));
+	}
+
+	@Test
+	public void testEmpty() {
+		Column column = ColumnTestUtils.getNumericColumn(Column.TypeId.REAL, new double[0]);
+		assertEquals(0, column.doubleStream().parallel().count());
+		assertEquals(0, Streams.numericRows(Collections.emptyList()).count());
+		assertEquals(0, Streams.mixedRows(Collections.singletonList(column)).parallel().count());
+	}
+
+	@Test
+	public void testSpliterator() {
+		Column column = ColumnTestUtils.getNumericColumn(Column.TypeId.REAL, random(N, 10L));
+		Spliterator.OfDouble spliterator = column.doubleStream().spliterator();
+		assertTrue(spliterator.hasCharacteristics(Spliterator.SIZED | Spliterator.SUBSIZED | Spliterator.IMMUTABLE |
+				Spliterator.ORDERED));
+		assertEquals(N, spliterator.getExactSizeIfKnown());
+		Spliterator.OfDouble prefix = spliterator.trySplit();
+		assertNotNull(prefix);
+		assertEquals(N, prefix.getExactSizeIfKnown() + spliterator.getExactSizeIfKnown());
+		assertTrue(prefix.tryAdvance((double v) -> {}));
+		// no splits after the traversal started
+		assertNull(prefix.trySplit());
+	}
+
+	@Test
+	public void testSmallNotSplit() {
+		Column column = ColumnTestUtils.getNumericColumn(Column.TypeId.REAL, random(100, 11L));
+		assertNull(column.doubleStream().spliterator().trySplit());
+	}
+
+	@Test(expected = UnsupportedOperationException.class)
+	public void testDoubleStreamNotNumericReadable() {
+		ColumnTestUtils.getDenseLowPrecDateTimeColumn(new long[]{1, 2}).doubleStream();
+	}
+
+	@Test(expected = UnsupportedOperationException.class)
+	public void testIntStreamNotCategorical() {
+		ColumnTestUtils.getNumericColumn(Column.TypeId.REAL, new double[1]).intStream();
+	}
+
+	@Test(expected = UnsupportedOperationException.class)
+	public void testObjectStreamNotObjectReadable() {
+		ColumnTestUtils.getNumericColumn(Column.TypeId.REAL, new double[1]).objectStream(Object.class);
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testObjectStreamWrongType() {
+		ColumnTestUtils.getSimpleCategoricalColumn(ColumnType.NOMINAL, new int[1], ColumnTestUtils.dictionary(2))
+				.objectStream(Integer.class);
+	}
+
+	@Test(expected = NullPointerException.class)
+	public void testNullColumn() {
+		Streams.doubleStream(null);
+	}
+
+	@Test(expected = NullPointerException.class)
+	public void testNullType() {
+		ColumnTestUtils.getSimpleCategoricalColumn(ColumnType.NOMINAL, new int[1], ColumnTestUtils.dictionary(2))
+				.objectStream(null);
+	}
+
+	@Test(expected = NullPointerException.class)
+	public void testNullTable() {
+		Streams.numericRows((Table) null);
+	}
+
+	@Test(expected = NullPointerException.class)
+	public void testNullListElement() {
+		Streams.mixedRows(Arrays.asList(ColumnTestUtils.getNumericColumn(Column.TypeId.REAL, new double[1]), null));
+	}
+
+}
@@ -0,0 +1,497 @@
+/**
+ * This file is part of the RapidMiner Belt project.
+ * Copyright (C) 2017-2021 RapidMiner GmbH
+ *
+ * This program is free software: you can redistribute it and/or modify it under the terms of the GNU Affero General
+ * Public License as published by the Free Software Foundation, either version 3 of the License, or (at your option) any
+ * later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied
+ * warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU Affero General Public License along with this program. If not, see
+ * https://www.gnu.org/licenses/.
+ */
+
+
+package com.rapidminer.belt.table;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import com.rapidminer.belt.column.Column;
+import com.rapidminer.belt.column.ColumnType;
+import com.rapidminer.belt.column.Dictionary;
+import com.rapidminer.belt.execution.Context;
+import com.rapidminer.belt.reader.NumericReader;
+import com.rapidminer.belt.reader.ObjectReader;
+import com.rapidminer.belt.reader.Readers;
+import com.rapidminer.belt.table.FlatBuffers.StructVectorNode;
+import com.rapidminer.belt.table.FlatBuffers.TableNode;
+import com.rapidminer.belt.table.FlatBuffers.VectorNode;
+import com.rapidminer.belt.util.Belt;
+
+
+/**
+ * Tests {@link ArrowReader} with hand-built Arrow streams using types and encodings the {@link ArrowWriter} does not
+ * produce.
+ *
+ * @author Michael Knopf
+ */
+public class ArrowReaderTests {
+
+	private static final Context CTX = Belt.defaultContext();
+
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	/**
+	 * Builds an Arrow stream message by message.
+	 */
+	private static final class Stream {
+
+		private final ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+		private Stream message(int headerType, TableNode header, Body body) {
+			byte[] bodyBytes = body == null ? new byte[0] : body.bytes.toByteArray();
+			byte[] metadata = FlatBuffers.serialize(new TableNode()
+					.addShort(ArrowFormat.MESSAGE_VERSION, ArrowFormat.VERSION)
+					.addByte(ArrowFormat.MESSAGE_HEADER_TYPE, headerType)
+					.addNode(ArrowFormat.MESSAGE_HEADER, header)
+					.addLong(ArrowFormat.MESSAGE_BODY_LENGTH, bodyBytes.length));
+			int metadataLength = (int) ArrowFormat.pad(8 + metadata.length) - 8;
+			ByteBuffer prefix = ByteBuffer.allocate(8 + metadataLength).order(ByteOrder.LITTLE_ENDIAN);
+			prefix.putInt(ArrowFormat.CONTINUATION).putInt(metadataLength).put(metadata);
+			out.write(prefix.array(), 0, prefix.capacity());
+			out.write(bodyBytes, 0, bodyBytes.length);
+			return this;
+		}
+
+		private Stream schema(TableNode... fields) {
+			return message(ArrowFormat.HEADER_SCHEMA, new TableNode()
+					.addNode(ArrowFormat.SCHEMA_FIELDS, new VectorNode(Arrays.asList(fields))), null);
+		}
+
+		private Stream batch(Body body) {
+			return message(ArrowFormat.HEADER_RECORD_BATCH, body.recordBatch(), body);
+		}
+
+		private Stream dictionary(long id, boolean delta, Body body) {
+			return message(ArrowFormat.HEADER_DICTIONARY_BATCH, new TableNode()
+					.addLong(ArrowFormat.DICTIONARY_BATCH_ID, id)
+					.addNode(ArrowFormat.DICTIONARY_BATCH_DATA, body.recordBatch())
+					.addBoolean(ArrowFormat.DICTIONARY_BATCH_IS_DELTA, delta), body);
+		}
+
+		private byte[] end() {
+			out.write(new byte[]{-1, -1, -1, -1, 0, 0, 0, 0}, 0, 8);
+			return out.toByteArray();
+		}
+
+	}
+
+	/**
+	 * Builds the body and the record batch header of a message.
+	 */
+	private static final class Body {
+
+		private final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		private final List<long[]> nodes = new ArrayList<>();
+		private final List<long[]> buffers = new ArrayList<>();
+		private final long length;
+		private TableNode extra;
+
+		private Body(long length) {
+			this.length = length;
+		}
+
+		private Body node(long nodeLength, long nullCount) {
+			nodes.add(new long[]{nodeLength, nullCount});
+			return this;
+		}
+
+		private Body buffer(ByteBuffer data) {
+			byte[] array = Arrays.copyOf(data.array(), data.position());
+			buffers.add(new long[]{bytes.size(), array.length});
+			bytes.write(array, 0, array.length);
+			int padding = (int) ArrowFormat.pad(array.length) - array.length;
+			bytes.write(new byte[padding], 0, padding);
+			return this;
+		}
+
+		private Body strings(String... values) {
+			ByteBuffer offsets = ArrowReaderTests.buffer(4 * values.length + 4);
+			ByteArrayOutputStream data = new ByteArrayOutputStream();
+			offsets.putInt(0);
+			for (String value : values) {
+				if (value != null) {
+					byte[] encoded = value.getBytes(StandardCharsets.UTF_8);
+					data.write(encoded, 0, encoded.length);
+				}
+				offsets.putInt(data.size());
+			}
+			buffer(offsets);
+			return buffer((ByteBuffer) ByteBuffer.wrap(data.toByteArray()).position(data.size()));
+		}
+
+		private TableNode recordBatch() {
+			TableNode batch = new TableNode()
+					.addLong(ArrowFormat.RECORD_BATCH_LENGTH, length)
+					.addNode(ArrowFormat.RECORD_BATCH_NODES, structs(nodes))
+					.addNode(ArrowFormat.RECORD_BATCH_BUFFERS, structs(buffers));
+			if (extra != null) {
+				batch.addNode(ArrowFormat.RECORD_BATCH_COMPRESSION, extra);
+			}
+			return batch;
+		}
+
+		private static StructVectorNode structs(List<long[]> values) {
+			ByteBuffer structs = ByteBuffer.allocate(16 * values.size()).order(ByteOrder.LITTLE_ENDIAN);
+			for (long[] value : values) {
+				structs.putLong(value[0]).putLong(value[1]);
+			}
+			structs.flip();
+			return new StructVectorNode(structs, values.size(), 8);
+		}
+
+	}
+
+	private static ByteBuffer buffer(int size) {
+		return ByteBuffer.allocate(size).order(ByteOrder.LITTLE_ENDIAN);
+	}
+
+	/**
+	 * Returns a validity bitmap with the given rows set to missing.
+	 */
+	private static ByteBuffer validity(int length, int... missing) {
+		byte[] bitmap = new byte[(length + 7) / 8];
+		Arrays.fill(bitmap, (byte) -1);
+		for (int row : missing) {
+			bitmap[row >>> 3] &= ~(1 << (row & 7));
+		}
+		return (ByteBuffer) ByteBuffer.wrap(bitmap).position(bitmap.length);
+	}
+
+	private static TableNode field(String name, int typeId, TableNode type) {
+		return new TableNode()
+				.addString(ArrowFormat.FIELD_NAME, name)
+				.addBoolean(ArrowFormat.FIELD_NULLABLE, true)
+				.addByte(ArrowFormat.FIELD_TYPE_TYPE, typeId)
+				.addNode(ArrowFormat.FIELD_TYPE, type)
+				.addNode(ArrowFormat.FIELD_CHILDREN, new VectorNode(Collections.emptyList()));
+	}
+
+	private static TableNode intType(int bitWidth, boolean signed) {
+		return new TableNode()
+				.addInt(ArrowFormat.INT_BIT_WIDTH, bitWidth)
+				.addBoolean(ArrowFormat.INT_IS_SIGNED, signed);
+	}
+
+	private static TableNode dictionaryField(String name, long id, int indexWidth) {
+		return field(name, ArrowFormat.TYPE_UTF8, new TableNode())
+				.addNode(ArrowFormat.FIELD_DICTIONARY, new TableNode()
+						.addLong(ArrowFormat.DICTIONARY_ENCODING_ID, id)
+						.addNode(ArrowFormat.DICTIONARY_ENCODING_INDEX_TYPE, intType(indexWidth, true)));
+	}
+
+	private static Table read(byte[] stream) {
+		return new ArrowReader().readStream(Channels.newChannel(new ByteArrayInputStream(stream)), CTX);
+	}
+
+	private static double[] numbers(Column column) {
+		double[] values = new double[column.size()];
+		NumericReader reader = Readers.numericReader(column);
+		for (int i = 0; i < values.length; i++) {
+			values[i] = reader.read();
+		}
+		return values;
+	}
+
+	private static Object[] objects(Column column) {
+		Object[] values = new Object[column.size()];
+		ObjectReader<Object> reader = Readers.objectReader(column, Object.class);
+		for (int i = 0; i < values.length; i++) {
+			values[i] = reader.read();
+		}
+		return values;
+	}
+
+	@Test
+	public void testIntegers() {
+		byte[] stream = new Stream()
+				.schema(field("int8", ArrowFormat.TYPE_INT, intType(8, true)),
+						field("uint16", ArrowFormat.TYPE_INT, intType(16, false)),
+						field("uint32", ArrowFormat.TYPE_INT, intType(32, false)),
+						field("uint64", ArrowFormat.TYPE_INT, intType(64, false)))
+				.batch(new Body(3)
+						.node(3, 1).node(3, 0).node(3, 0).node(3, 0)
+						.buffer(validity(3, 1)).buffer(buffer(3).put((byte) -5).put((byte) 0).put((byte) 7))
+						.buffer(buffer(0)).buffer(buffer(6).putShort((short) -1).putShort((short) 2).putShort((short) 3))
+						.buffer(buffer(0)).buffer(buffer(12).putInt(-1).putInt(0).putInt(Integer.MAX_VALUE))
+						.buffer(buffer(0)).buffer(buffer(24).putLong(-1).putLong(1).putLong(Long.MAX_VALUE)))
+				.end();
+		Table table = read(stream);
+		assertEquals(Arrays.asList("int8", "uint16", "uint32", "uint64"), table.labels());
+		for (int i = 0; i < 4; i++) {
+			assertEquals(ColumnType.INTEGER_53_BIT, table.column(i).type());
+		}
+		assertArrayEquals(new double[]{-5, Double.NaN, 7}, numbers(table.column(0)), 0);
+		assertArrayEquals(new double[]{65535, 2, 3}, numbers(table.column(1)), 0);
+		assertArrayEquals(new double[]{4294967295.0, 0, Integer.MAX_VALUE}, numbers(table.column(2)), 0);
+		assertArrayEquals(new double[]{18446744073709551615.0, 1, Long.MAX_VALUE}, numbers(table.column(3)), 0);
+	}
+
+	@Test
+	public void testFloats() {
+		byte[] stream = new Stream()
+				.schema(field("float", ArrowFormat.TYPE_FLOATING_POINT,
+						new TableNode().addShort(ArrowFormat.FLOATING_POINT_PRECISION, ArrowFormat.PRECISION_SINGLE)))
+				.batch(new Body(2).node(2, 0).buffer(buffer(0)).buffer(buffer(8).putFloat(1.5f).putFloat(-0.25f)))
+				.batch(new Body(1).node(1, 1).buffer(validity(1, 0)).buffer(buffer(4).putFloat(3f)))
+				.end();
+		Table table = read(stream);
+		assertEquals(ColumnType.REAL, table.column(0).type());
+		assertArrayEquals(new double[]{1.5, -0.25, Double.NaN}, numbers(table.column(0)), 0);
+	}
+
+	@Test
+	public void testTimes() {
+		byte[] stream = new Stream()
+				.schema(field("ms", ArrowFormat.TYPE_TIME, new TableNode()
+								.addShort(ArrowFormat.TIME_UNIT, ArrowFormat.UNIT_MILLISECOND)
+								.addInt(ArrowFormat.TIME_BIT_WIDTH, 32)),
+						field("us", ArrowFormat.TYPE_TIME, new TableNode()
+								.addShort(ArrowFormat.TIME_UNIT, ArrowFormat.UNIT_MICROSECOND)
+								.addInt(ArrowFormat.TIME_BIT_WIDTH, 64)))
+				.batch(new Body(2).node(2, 1).node(2, 0)
+						.buffer(validity(2, 1)).buffer(buffer(8).putInt(1500).putInt(0))
+						.buffer(buffer(0)).buffer(buffer(16).putLong(86_399_999_999L).putLong(1)))
+				.end();
+		Table table = read(stream);
+		assertArrayEquals(new Object[]{LocalTime.ofNanoOfDay(1_500_000_000L), null}, objects(table.column(0)));
+		assertArrayEquals(new Object[]{LocalTime.ofNanoOfDay(86_399_999_999_000L), LocalTime.ofNanoOfDay(1000)},
+				objects(table.column(1)));
+	}
+
+	@Test
+	public void testTimestamps() {
+		byte[] stream = new Stream()
+				.schema(field("ms", ArrowFormat.TYPE_TIMESTAMP, new TableNode()
+								.addShort(ArrowFormat.TIMESTAMP_UNIT, ArrowFormat.UNIT_MILLISECOND)),
+						field("us", ArrowFormat.TYPE_TIMESTAMP, new TableNode()
+								.addShort(ArrowFormat.TIMESTAMP_UNIT, ArrowFormat.UNIT_MICROSECOND)
+								.addString(ArrowFormat.TIMESTAMP_TIMEZONE, "Europe/Berlin")))
+				.batch(new Body(2).node(2, 0).node(2, 1)
+						.buffer(buffer(0)).buffer(buffer(16).putLong(-1).putLong(1_000_001))
+						.buffer(validity(2, 0)).buffer(buffer(16).putLong(0).putLong(-1_500_000)))
+				.end();
+		Table table = read(stream);
+		assertEquals(ColumnType.DATETIME, table.column(0).type());
+		assertArrayEquals(new Object[]{Instant.ofEpochSecond(-1, 999_000_000), Instant.ofEpochSecond(1000, 1_000_000)},
+				objects(table.column(0)));
+		assertArrayEquals(new Object[]{null, Instant.ofEpochSecond(-2, 500_000_000)}, objects(table.column(1)));
+	}
+
+	@Test
+	public void testLargeUtf8() {
+		ByteBuffer offsets = buffer(32).putLong(0).putLong(2).putLong(2).putLong(5);
+		byte[] stream = new Stream()
+				.schema(field("text", ArrowFormat.TYPE_LARGE_UTF8, new TableNode()))
+				.batch(new Body(3).node(3, 1).buffer(validity(3, 1)).buffer(offsets)
+						.buffer(buffer(5).put("ab€".getBytes(StandardCharsets.UTF_8))))
+				.end();
+		Table table = read(stream);
+		assertEquals(ColumnType.TEXT, table.column(0).type());
+		assertArrayEquals(new Object[]{"ab", null, "€"}, objects(table.column(0)));
+	}
+
+	@Test
+	public void testDictionaries() {
+		byte[] stream = new Stream()
+				.schema(dictionaryField("nominal", 7, 8))
+				.dictionary(7, false, new Body(2).node(2, 0).buffer(buffer(0)).strings("a", "b"))
+				.batch(new Body(3).node(3, 1).buffer(validity(3, 2))
+						.buffer(buffer(3).put((byte) 1).put((byte) 0).put((byte) 5)))
+				// delta extends the current dictionary
+				.dictionary(7, true, new Body(1).node(1, 0).buffer(buffer(0)).strings("c"))
+				.batch(new Body(2).node(2, 0).buffer(buffer(0)).buffer(buffer(2).put((byte) 2).put((byte) 0)))
+				// replacement with a different order and a null entry
+				.dictionary(7, false, new Body(3).node(3, 1).buffer(validity(3, 1)).strings("c", null, "d"))
+				.batch(new Body(3).node(3, 0).buffer(buffer(0))
+						.buffer(buffer(3).put((byte) 2).put((byte) 1).put((byte) 0)))
+				.end();
+		Table table = read(stream);
+		Column column = table.column(0);
+		assertEquals(ColumnType.NOMINAL, column.type());
+		assertArrayEquals(new Object[]{"b", "a", null, "c", "a", "d", null, "c"}, objects(column));
+		Dictionary dictionary = column.getDictionary();
+		assertEquals(4, dictionary.size());
+		assertEquals(Arrays.asList("a", "b", "c", "d"), Arrays.asList(dictionary.get(1), dictionary.get(2),
+				dictionary.get(3), dictionary.get(4)));
+	}
+
+	@Test
+	public void testStreamAsFile() throws Exception {
+		byte[] stream = new Stream()
+				.schema(field("int", ArrowFormat.TYPE_INT, intType(32, true)))
+				.batch(new Body(2).node(2, 0).buffer(buffer(0)).buffer(buffer(8).putInt(4).putInt(2)))
+				.end();
+		Path file = folder.newFile().toPath();
+		Files.write(file, stream);
+		assertArrayEquals(new double[]{4, 2}, numbers(new ArrowReader().readFile(file, CTX).column(0)), 0);
+	}
+
+	@Test
+	public void testWithoutEndMarker() {
+		byte[] stream = new Stream()
+				.schema(field("int", ArrowFormat.TYPE_INT, intType(16, true)))
+				.batch(new Body(1).node(1, 0).buffer(buffer(0)).buffer(buffer(2).putShort((short) 3)))
+				.end();
+		Table table = read(Arrays.copyOf(stream, stream.length - 8));
+		assertArrayEquals(new double[]{3}, numbers(table.column(0)), 0);
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testDictionaryIndexOutOfRange() {
+		read(new Stream()
+				.schema(dictionaryField("nominal", 0, 32))
+				.dictionary(0, false, new Body(1).node(1, 0).buffer(buffer(0)).strings("a"))
+				.batch(new Body(1).node(1, 0).buffer(buffer(0)).buffer(buffer(4).putInt(1)))
+				.end());
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testMissingDictionary() {
+		read(new Stream()
+				.schema(dictionaryField("nominal", 0, 32))
+				.batch(new Body(1).node(1, 0).buffer(buffer(0)).buffer(buffer(4).putInt(0)))
+				.end());
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testCompressed() {
+		Body body = new Body(1).node(1, 0).buffer(buffer(0)).buffer(buffer(4).putInt(1));
+		body.extra = new TableNode().addByte(0, 0);
+		read(new Stream().schema(field("int", ArrowFormat.TYPE_INT, intType(32, true))).batch(body).end());
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testUnsupportedType() {
+		// type id 6 is boolean
+		read(new Stream().schema(field("bool", 6, new TableNode())).end());
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testUnsupportedBitWidth() {
+		read(new Stream().schema(field("int", ArrowFormat.TYPE_INT, intType(24, true))).end());
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testBufferOutsideBody() {
+		Body body = new Body(4).node(4, 0).buffer(buffer(0)).buffer(buffer(8).putInt(1).putInt(2));
+		read(new Stream().schema(field("int", ArrowFormat.TYPE_INT, intType(32, true))).batch(body).end());
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testValuesTooShort() {
+		Body body = new Body(3).node(3, 0).buffer(buffer(0)).buffer(buffer(16).putDouble(1).putDouble(2));
+		read(new Stream().schema(field("real", ArrowFormat.TYPE_FLOATING_POINT,
+				new TableNode().addShort(ArrowFormat.FLOATING_POINT_PRECISION, ArrowFormat.PRECISION_DOUBLE)))
+				.batch(body).end());
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testValidityTooShort() {
+		Body body = new Body(9).node(9, 1).buffer(validity(8, 0)).buffer(buffer(9).put(new byte[9]));
+		read(new Stream().schema(field("int", ArrowFormat.TYPE_INT, intType(8, true))).batch(body).end());
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testMissingValidity() {
+		Body body = new Body(2).node(2, 1).buffer(buffer(0)).buffer(buffer(2).put((byte) 1).put((byte) 2));
+		read(new Stream().schema(field("int", ArrowFormat.TYPE_INT, intType(8, true))).batch(body).end());
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testOffsetsTooShort() {
+		Body body = new Body(3).node(3, 0).buffer(buffer(0)).buffer(buffer(12).putInt(0).putInt(1).putInt(2))
+				.buffer(buffer(3).put(new byte[]{'a', 'b', 'c'}));
+		read(new Stream().schema(field("text", ArrowFormat.TYPE_UTF8, new TableNode())).batch(body).end());
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testDictionaryOffsetsTooShort() {
+		read(new Stream()
+				.schema(dictionaryField("nominal", 0, 32))
+				.dictionary(0, false, new Body(3).node(3, 0).buffer(buffer(0)).strings("a", "b"))
+				.batch(new Body(1).node(1, 0).buffer(buffer(0)).buffer(buffer(4).putInt(0)))
+				.end());
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testBatchDoesNotMatchSchema() {
+		Body body = new Body(1).node(1, 0).node(1, 0).buffer(buffer(0)).buffer(buffer(4).putInt(1));
+		read(new Stream().schema(field("int", ArrowFormat.TYPE_INT, intType(32, true))).batch(body).end());
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testTruncated() {
+		byte[] stream = new Stream()
+				.schema(field("int", ArrowFormat.TYPE_INT, intType(32, true)))
+				.batch(new Body(2).node(2, 0).buffer(buffer(0)).buffer(buffer(8).putInt(4).putInt(2)))
+				.end();
+		read(Arrays.copyOf(stream, stream.length - 12));
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testEmpty() {
+		read(new byte[0]);
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testBatchBeforeSchema() {
+		read(new Stream()
+				.batch(new Body(1).node(1, 0).buffer(buffer(0)).buffer(buffer(4).putInt(1)))
+				.end());
+	}
+
+	@Test(expected = UncheckedIOException.class)
+	public void testMissingFile() throws Exception {
+		File file = folder.newFile();
+		Files.delete(file.toPath());
+		new ArrowReader().readFile(file.toPath(), CTX);
+	}
+
+	@Test(expected = NullPointerException.class)
+	public void testNullChannel() {
+		new ArrowReader().readStream(null, CTX);
+	}
+
+	@Test(expected = NullPointerException.class)
+	public void testNullContext() {
+		new ArrowReader().readStream(Channels.newChannel(new ByteArrayInputStream(new byte[0])), null);
+	}
+
+}
@@ -0,0 +1,250 @@
+/**
+ * This file is part of the RapidMiner Belt project.
+ * Copyright (C) 2017-2021 RapidMiner GmbH
+ *
+ * This program is free software: you can redistribute it and/or modify it under the terms of the GNU Affero General
+ * Public License as published by the Free Software Foundation, either version 3 of the License, or (at your option) any
+ * later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied
+ * warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU Affero General Public License along with this program. If not, see
+ * https://www.gnu.org/licenses/.
+ */
+
+
+package com.rapidminer.belt.table;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.Channels;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.Random;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import com.rapidminer.belt.column.Column.TypeId;
+import com.rapidminer.belt.execution.Context;
+import com.rapidminer.belt.table.FlatBuffers.TableView;
+import com.rapidminer.belt.util.Belt;
+
+
+/**
+ * Tests {@link ArrowWriter} and round trips via {@link ArrowReader}.
+ *
+ * @author Michael Knopf
+ */
+public class ArrowWriterTests {
+
+	private static final Context CTX = Belt.defaultContext();
+
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	private static byte[] toBytes(ArrowWriter writer, Table table) {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		writer.writeStream(table, Channels.newChannel(out), CTX);
+		return out.toByteArray();
+	}
+
+	private static Table fromBytes(byte[] bytes) {
+		return new ArrowReader().readStream(Channels.newChannel(new ByteArrayInputStream(bytes)), CTX);
+	}
+
+	@Test
+	public void testStreamRoundTrip() {
+		Table table = TableTestUtils.randomTable(1000, true);
+		TableTestUtils.assertTablesEqual(table, fromBytes(toBytes(new ArrowWriter(), table)));
+	}
+
+	@Test
+	public void testBatches() {
+		Table table = TableTestUtils.randomTable(1000, true);
+		for (int batchRows : new int[]{1, 7, 999, 1000}) {
+			TableTestUtils.assertTablesEqual(table, fromBytes(toBytes(new ArrowWriter().batchRows(batchRows), table)));
+		}
+	}
+
+	@Test
+	public void testFileRoundTrip() throws IOException {
+		Table table = TableTestUtils.randomTable(3000, true);
+		Path file = folder.newFile().toPath();
+		new ArrowWriter().batchRows(512).writeFile(table, file, CTX);
+		TableTestUtils.assertTablesEqual(table, new ArrowReader().readFile(file, CTX));
+	}
+
+	@Test
+	public void testStreamFile() throws IOException {
+		Table table = TableTestUtils.randomTable(100, true);
+		Path file = folder.newFile().toPath();
+		Files.write(file, toBytes(new ArrowWriter(), table));
+		TableTestUtils.assertTablesEqual(table, new ArrowReader().readFile(file, CTX));
+	}
+
+	@Test
+	public void testMappedAndSparseColumns() {
+		Table table = TableTestUtils.randomTable(1000, true);
+		int[] rows = new Random(3).ints(700, 0, 1000).toArray();
+		Table mapped = table.rows(rows, true, CTX);
+		Table sparse = Builders.newTableBuilder(1000)
+				.add("sparse", ColumnAccessor.get().newSparseNumericColumn(TypeId.REAL, 0, new int[]{3, 500},
+						new double[]{1.5, Double.NaN}, 1000))
+				.build(CTX);
+		TableTestUtils.assertTablesEqual(mapped, fromBytes(toBytes(new ArrowWriter().batchRows(100), mapped)));
+		TableTestUtils.assertTablesEqual(sparse, fromBytes(toBytes(new ArrowWriter().batchRows(300), sparse)));
+	}
+
+	@Test
+	public void testEmpty() {
+		Table table = TableTestUtils.randomTable(0, true);
+		TableTestUtils.assertTablesEqual(table, fromBytes(toBytes(new ArrowWriter(), table)));
+	}
+
+	@Test
+	public void testStreamLayout() {
+		Table table = Builders.newTableBuilder(3)
+				.addReal("a", i -> i == 1 ? Double.NaN : i)
+				.addNominal("b", i -> i == 2 ? null : "x" + i)
+				.build(CTX);
+		ByteBuffer bytes = ByteBuffer.wrap(toBytes(new ArrowWriter(), table)).order(ByteOrder.LITTLE_ENDIAN);
+		int position = 0;
+		int[] expectedTypes = {ArrowFormat.HEADER_SCHEMA, ArrowFormat.HEADER_DICTIONARY_BATCH,
+				ArrowFormat.HEADER_RECORD_BATCH};
+		for (int expectedType : expectedTypes) {
+			assertEquals(0, position % 8);
+			assertEquals(ArrowFormat.CONTINUATION, bytes.getInt(position));
+			int metadataLength = bytes.getInt(position + 4);
+			assertEquals(0, metadataLength % 8);
+			ByteBuffer metadata = ((ByteBuffer) bytes.duplicate().position(position + 8)).slice();
+			TableView message = TableView.root(metadata);
+			assertEquals(ArrowFormat.VERSION, message.getShort(ArrowFormat.MESSAGE_VERSION, 0));
+			assertEquals(expectedType, message.getByte(ArrowFormat.MESSAGE_HEADER_TYPE, 0));
+			long bodyLength = message.getLong(ArrowFormat.MESSAGE_BODY_LENGTH, -1);
+			assertEquals(0, bodyLength % 8);
+			if (expectedType == ArrowFormat.HEADER_RECORD_BATCH) {
+				TableView batch = message.getTable(ArrowFormat.MESSAGE_HEADER);
+				assertEquals(3, batch.getLong(ArrowFormat.RECORD_BATCH_LENGTH, 0));
+				assertEquals(2, batch.getVectorLength(ArrowFormat.RECORD_BATCH_NODES));
+				assertEquals(1, batch.getStructLong(ArrowFormat.RECORD_BATCH_NODES, 0, 16, 8));
+				assertEquals(4, batch.getVectorLength(ArrowFormat.RECORD_BATCH_BUFFERS));
+				int body = position + 8 + metadataLength;
+				// validity bitmap of the first column: rows 0 and 2 are valid
+				assertEquals(0, batch.getStructLong(ArrowFormat.RECORD_BATCH_BUFFERS, 0, 16, 0));
+				assertEquals(1, batch.getStructLong(ArrowFormat.RECORD_BATCH_BUFFERS, 0, 16, 8));
+				assertEquals(0b101, bytes.get(body));
+				long data = batch.getStructLong(ArrowFormat.RECORD_BATCH_BUFFERS, 1, 16, 0);
+				assertEquals(2.0, bytes.getDouble((int) (body + data + 16)), 0);
+				// indices of the second column refer to the dictionary without missing value
+				long indices = batch.getStructLong(ArrowFormat.RECORD_BATCH_BUFFERS, 3, 16, 0);
+				assertEquals(0, bytes.getInt((int) (body + indices)));
+				assertEquals(1, bytes.getInt((int) (body + indices + 4)));
+			}
+			position += 8 + metadataLength + (int) bodyLength;
+		}
+		assertEquals(ArrowFormat.CONTINUATION, bytes.getInt(position));
+		assertEquals(0, bytes.getInt(position + 4));
+		assertEquals(position + 8, bytes.limit());
+	}
+
+	@Test
+	public void testFileLayout() throws IOException {
+		Path file = folder.newFile().toPath();
+		new ArrowWriter().batchRows(400).writeFile(TableTestUtils.randomTable(1000, true), file, CTX);
+		ByteBuffer bytes = ByteBuffer.wrap(Files.readAllBytes(file)).order(ByteOrder.LITTLE_ENDIAN);
+		byte[] magic = new byte[6];
+		bytes.get(magic);
+		assertArrayEquals(ArrowFormat.MAGIC, magic);
+		bytes.position(bytes.limit() - 6);
+		bytes.get(magic);
+		assertArrayEquals(ArrowFormat.MAGIC, magic);
+		int footerLength = bytes.getInt(bytes.limit() - 10);
+		int footerStart = bytes.limit() - 10 - footerLength;
+		assertEquals(0, footerStart % 8);
+		TableView footer = TableView.root(((ByteBuffer) bytes.duplicate().position(footerStart)).slice());
+		assertEquals(7, footer.getTable(ArrowFormat.FOOTER_SCHEMA).getVectorLength(ArrowFormat.SCHEMA_FIELDS));
+		assertEquals(1, footer.getVectorLength(ArrowFormat.FOOTER_DICTIONARIES));
+		assertEquals(3, footer.getVectorLength(ArrowFormat.FOOTER_RECORD_BATCHES));
+		for (int i = 0; i < 3; i++) {
+			long offset = footer.getStructLong(ArrowFormat.FOOTER_RECORD_BATCHES, i, ArrowFormat.BLOCK_SIZE, 0);
+			long metadataLength = footer.getStructLong(ArrowFormat.FOOTER_RECORD_BATCHES, i,
+					ArrowFormat.BLOCK_SIZE, 8) & 0xFFFFFFFFL;
+			long bodyLength = footer.getStructLong(ArrowFormat.FOOTER_RECORD_BATCHES, i, ArrowFormat.BLOCK_SIZE,
+					16);
+			assertEquals(0, offset % 8);
+			assertEquals(ArrowFormat.CONTINUATION, bytes.getInt((int) offset));
+			assertEquals(metadataLength - 8, bytes.getInt((int) offset + 4));
+			TableView message = TableView.root(((ByteBuffer) bytes.duplicate().position((int) offset + 8)).slice());
+			assertEquals(ArrowFormat.HEADER_RECORD_BATCH, message.getByte(ArrowFormat.MESSAGE_HEADER_TYPE, 0));
+			assertEquals(bodyLength, message.getLong(ArrowFormat.MESSAGE_BODY_LENGTH, -1));
+		}
+	}
+
+	@Test
+	public void testSchema() {
+		Table table = TableTestUtils.randomTable(10, true);
+		ByteBuffer bytes = ByteBuffer.wrap(toBytes(new ArrowWriter(), table)).order(ByteOrder.LITTLE_ENDIAN);
+		TableView schema = TableView.root(((ByteBuffer) bytes.position(8)).slice())
+				.getTable(ArrowFormat.MESSAGE_HEADER);
+		int[] typeIds = {ArrowFormat.TYPE_FLOATING_POINT, ArrowFormat.TYPE_INT, ArrowFormat.TYPE_TIME,
+				ArrowFormat.TYPE_TIMESTAMP, ArrowFormat.TYPE_TIMESTAMP, ArrowFormat.TYPE_UTF8, ArrowFormat.TYPE_UTF8};
+		for (int i = 0; i < typeIds.length; i++) {
+			TableView field = schema.getTable(ArrowFormat.SCHEMA_FIELDS, i);
+			assertEquals(table.label(i), field.getString(ArrowFormat.FIELD_NAME));
+			assertEquals(typeIds[i], field.getByte(ArrowFormat.FIELD_TYPE_TYPE, 0));
+			assertEquals(i == 5, field.has(ArrowFormat.FIELD_DICTIONARY));
+		}
+		TableView seconds = schema.getTable(ArrowFormat.SCHEMA_FIELDS, 3).getTable(ArrowFormat.FIELD_TYPE);
+		assertEquals(ArrowFormat.UNIT_SECOND, seconds.getShort(ArrowFormat.TIMESTAMP_UNIT, -1));
+		assertEquals("UTC", seconds.getString(ArrowFormat.TIMESTAMP_TIMEZONE));
+		TableView nanos = schema.getTable(ArrowFormat.SCHEMA_FIELDS, 4).getTable(ArrowFormat.FIELD_TYPE);
+		assertEquals(ArrowFormat.UNIT_NANOSECOND, nanos.getShort(ArrowFormat.TIMESTAMP_UNIT, -1));
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testUnsupportedType() {
+		Table table = Builders.newTableBuilder(1).addTextset("set", i -> null).build(CTX);
+		toBytes(new ArrowWriter(), table);
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testNanosecondOverflow() {
+		Table table = Builders.newTableBuilder(1)
+				.addDateTime("a", i -> Instant.ofEpochSecond(Long.MAX_VALUE / 1_000_000_000L + 1, 1))
+				.build(CTX);
+		toBytes(new ArrowWriter(), table);
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testNonPositiveBatchRows() {
+		new ArrowWriter().batchRows(0);
+	}
+
+	@Test(expected = NullPointerException.class)
+	public void testNullTable() {
+		new ArrowWriter().writeStream(null, Channels.newChannel(new ByteArrayOutputStream()), CTX);
+	}
+
+	@Test(expected = NullPointerException.class)
+	public void testNullFile() {
+		new ArrowWriter().writeFile(TableTestUtils.randomTable(1, true), null, CTX);
+	}
+
+	@Test(expected = NullPointerException.class)
+	public void testNullContext() {
+		new ArrowWriter().writeStream(TableTestUtils.randomTable(1, true), Channels.newChannel(new ByteArrayOutputStream()),
+				null);
+	}
+
+}
@@ -0,0 +1,238 @@
+/**
+ * This file is part of the RapidMiner Belt project.
+ * Copyright (C) 2017-2021 RapidMiner GmbH
+ *
+ * This program is free software: you can redistribute it and/or modify it under the terms of the GNU Affero General
+ * Public License as published by the Free Software Foundation, either version 3 of the License, or (at your option) any
+ * later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied
+ * warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU Affero General Public License along with this program. If not, see
+ * https://www.gnu.org/licenses/.
+ */
+
+
+package com.rapidminer.belt.table;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.zip.Deflater;
+
+import org.junit.Test;
+
+import com.rapidminer.belt.execution.Context;
+import com.rapidminer.belt.reader.NumericReader;
+import com.rapidminer.belt.reader.Readers;
+import com.rapidminer.belt.util.Belt;
+
+
+/**
+ * Tests {@link BinaryTableReader} with malformed data.
+ *
+ * @author Michael Knopf
+ */
+public class BinaryTableReaderTests {
+
+	private static final Context CTX = Belt.defaultContext();
+
+	private static Table read(byte[] bytes) {
+		return new BinaryTableReader().read(new ByteArrayInputStream(bytes), CTX);
+	}
+
+	private static byte[] write(Table table, BinaryTableWriter writer) {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		writer.write(table, out, CTX);
+		return out.toByteArray();
+	}
+
+	private static Table realTable() {
+		return Builders.newTableBuilder(100).addReal("a", i -> i % 3).build(CTX);
+	}
+
+	/**
+	 * Builds binary table data by hand.
+	 */
+	private static final class Data {
+
+		private final ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+		private Data() {
+			out.write(BinaryTableFormat.MAGIC, 0, BinaryTableFormat.MAGIC.length);
+		}
+
+		private Data frame(byte compression, int rawLength, ByteBuffer payload) {
+			ByteBuffer prefix = buffer(BinaryTableFormat.FRAME_PREFIX_SIZE);
+			prefix.put(compression).putInt(rawLength).putInt(payload.position());
+			out.write(prefix.array(), 0, prefix.capacity());
+			out.write(payload.array(), 0, payload.position());
+			return this;
+		}
+
+		private Data frame(ByteBuffer payload) {
+			return frame(BinaryTableFormat.RAW, payload.position(), payload);
+		}
+
+		private byte[] bytes() {
+			return out.toByteArray();
+		}
+
+	}
+
+	private static ByteBuffer buffer(int size) {
+		return ByteBuffer.allocate(size).order(ByteOrder.LITTLE_ENDIAN);
+	}
+
+	private static ByteBuffer putString(ByteBuffer buffer, String value) {
+		byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+		return buffer.putInt(bytes.length).put(bytes);
+	}
+
+	/**
+	 * Returns a header of a table with a single column of the given type and the given chunk size.
+	 */
+	private static ByteBuffer header(int height, int chunkRows, byte type) {
+		return putString(buffer(64).putInt(height).putInt(1).putInt(chunkRows), "a").put(type);
+	}
+
+	@Test
+	public void testHandBuilt() {
+		byte[] bytes = new Data()
+				.frame(header(3, 2, BinaryTableFormat.TYPE_INTEGER_53_BIT).putInt(0))
+				.frame(buffer(16).putDouble(1).putDouble(2))
+				.frame(buffer(8).putDouble(3))
+				.bytes();
+		Table table = read(bytes);
+		assertEquals(Arrays.asList("a"), table.labels());
+		NumericReader reader = Readers.numericReader(table.column(0));
+		assertArrayEquals(new double[]{1, 2, 3}, new double[]{reader.read(), reader.read(), reader.read()}, 0);
+	}
+
+	@Test
+	public void testTruncated() {
+		byte[] bytes = write(realTable(), new BinaryTableWriter().chunkRows(30));
+		for (int length = 0; length < bytes.length; length++) {
+			try {
+				read(Arrays.copyOf(bytes, length));
+				fail("Truncated data of length " + length + " was accepted");
+			} catch (IllegalArgumentException e) {
+				// expected
+			}
+		}
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testNotBinaryTable() {
+		read("ARROW1\0\0 and more".getBytes(StandardCharsets.US_ASCII));
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testUnsupportedVersion() {
+		byte[] bytes = write(realTable(), new BinaryTableWriter());
+		bytes[BinaryTableFormat.MAGIC.length - 1]++;
+		read(bytes);
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testUnknownCompression() {
+		byte[] bytes = write(realTable(), new BinaryTableWriter());
+		bytes[BinaryTableFormat.MAGIC.length] = 7;
+		read(bytes);
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testCorruptCompressedData() {
+		byte[] bytes = write(realTable(), new BinaryTableWriter().compression(Deflater.BEST_SPEED));
+		ByteBuffer buffer = ByteBuffer.wrap(bytes).order(ByteOrder.LITTLE_ENDIAN);
+		int frame = BinaryTableFormat.MAGIC.length;
+		int lastFrame = frame;
+		while (frame < bytes.length) {
+			lastFrame = frame;
+			frame += BinaryTableFormat.FRAME_PREFIX_SIZE + buffer.getInt(frame + 5);
+		}
+		// the last frame is compressed since the values repeat
+		assertEquals(BinaryTableFormat.DEFLATE, bytes[lastFrame]);
+		int payload = lastFrame + BinaryTableFormat.FRAME_PREFIX_SIZE;
+		Arrays.fill(bytes, payload, bytes.length, (byte) -1);
+		read(bytes);
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testRawLengthMismatch() {
+		read(new Data()
+				.frame(header(1, 1, BinaryTableFormat.TYPE_REAL).putInt(0))
+				.frame(BinaryTableFormat.RAW, 16, buffer(8).putDouble(1))
+				.bytes());
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testWrongPayloadLength() {
+		read(new Data()
+				.frame(header(2, 2, BinaryTableFormat.TYPE_REAL).putInt(0))
+				.frame(buffer(8).putDouble(1))
+				.bytes());
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testIndexOutOfRange() {
+		ByteBuffer header = putString(header(1, 1, BinaryTableFormat.TYPE_NOMINAL).putInt(1), "x").put((byte) 0)
+				.putInt(0);
+		read(new Data().frame(header).frame(buffer(1).put((byte) 2)).bytes());
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testUnknownType() {
+		read(new Data().frame(header(1, 1, (byte) 99).putInt(0)).bytes());
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testUnknownRole() {
+		ByteBuffer header = putString(header(0, 1, BinaryTableFormat.TYPE_REAL).putInt(1)
+				.put(BinaryTableFormat.META_ROLE), "NO_ROLE");
+		read(new Data().frame(header).bytes());
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testTrailingHeaderBytes() {
+		read(new Data().frame(header(0, 1, BinaryTableFormat.TYPE_REAL).putInt(0).put((byte) 0)).bytes());
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testNegativeHeight() {
+		read(new Data().frame(header(-1, 1, BinaryTableFormat.TYPE_REAL).putInt(0)).bytes());
+	}
+
+	@Test(expected = UncheckedIOException.class)
+	public void testFailingStream() {
+		new BinaryTableReader().read(new InputStream() {
+			@Override
+			public int read() throws IOException {
+				throw new IOException("broken");
+			}
+		}, CTX);
+	}
+
+	@Test(expected = NullPointerException.class)
+	public void testNullStream() {
+		new BinaryTableReader().read(null, CTX);
+	}
+
+	@Test(expected = NullPointerException.class)
+	public void testNullContext() {
+		new BinaryTableReader().read(new ByteArrayInputStream(new byte[0]), null);
+	}
+
+}
@@ -0,0 +1,281 @@
+/**
+ * This file is part of the RapidMiner Belt project.
+ * Copyright (C) 2017-2021 RapidMiner GmbH
+ *
+ * This program is free software: you can redistribute it and/or modify it under the terms of the GNU Affero General
+ * Public License as published by the Free Software Foundation, either version 3 of the License, or (at your option) any
+ * later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied
+ * warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU Affero General Public License along with this program. If not, see
+ * https://www.gnu.org/licenses/.
+ */
+
+
+package com.rapidminer.belt.table;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.zip.Deflater;
+
+import org.junit.Test;
+
+import com.rapidminer.belt.column.Column;
+import com.rapidminer.belt.column.Column.TypeId;
+import com.rapidminer.belt.column.ColumnTestUtils;
+import com.rapidminer.belt.column.Columns;
+import com.rapidminer.belt.column.Dictionary;
+import com.rapidminer.belt.column.type.StringList;
+import com.rapidminer.belt.column.type.StringSet;
+import com.rapidminer.belt.execution.Context;
+import com.rapidminer.belt.util.Belt;
+import com.rapidminer.belt.util.ColumnAnnotation;
+import com.rapidminer.belt.util.ColumnMetaData;
+import com.rapidminer.belt.util.ColumnReference;
+import com.rapidminer.belt.util.ColumnRole;
+
+
+/**
+ * Tests {@link BinaryTableWriter} and round trips via {@link BinaryTableReader}.
+ *
+ * @author Michael Knopf
+ */
+public class BinaryTableWriterTests {
+
+	private static final Context CTX = Belt.defaultContext();
+
+	private static byte[] toBytes(BinaryTableWriter writer, Table table) {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		writer.write(table, out, CTX);
+		return out.toByteArray();
+	}
+
+	private static Table fromBytes(byte[] bytes) {
+		return new BinaryTableReader().read(new ByteArrayInputStream(bytes), CTX);
+	}
+
+	/**
+	 * Like {@link TableTestUtils#assertTablesEqual(Table, Table)}, but also compares the meta data and dictionaries.
+	 */
+	private static void assertTablesEqual(Table expected, Table actual) {
+		TableTestUtils.assertTablesEqual(expected, actual);
+		for (int i = 0; i < expected.width(); i++) {
+			String label = expected.label(i);
+			assertEquals(label, expected.getMetaData(label), actual.getMetaData(label));
+			if (expected.column(i).type().id() == TypeId.NOMINAL) {
+				assertEquals(label, expected.column(i).getDictionary(), actual.column(i).getDictionary());
+			}
+		}
+	}
+
+	/**
+	 * Extends {@link TableTestUtils#randomTable(int, boolean)} by a text-set and a text-list column and meta data.
+	 */
+	private static Table randomTable(int rows) {
+		Random random = new Random(rows);
+		StringSet[] sets = new StringSet[rows];
+		StringList[] lists = new StringList[rows];
+		for (int i = 0; i < rows; i++) {
+			sets[i] = random.nextInt(10) == 0 ? null :
+					new StringSet(Arrays.asList("a" + random.nextInt(3), "b" + random.nextInt(3)));
+			lists[i] = random.nextInt(10) == 0 ? null : new StringList(Arrays.asList("x", "y" + random.nextInt(5)));
+		}
+		return Builders.newTableBuilder(TableTestUtils.randomTable(rows, true))
+				.addTextset("set", i -> sets[i])
+				.addTextlist("list", i -> lists[i])
+				.addMetaData("int", ColumnRole.ID)
+				.addMetaData("nominal", Arrays.asList(ColumnRole.LABEL, new ColumnAnnotation("ä note"),
+						new ColumnReference("int", "value")))
+				.addMetaData("set", new ColumnReference(null))
+				.build(CTX);
+	}
+
+	@Test
+	public void testRoundTrip() {
+		Table table = randomTable(1000);
+		assertTablesEqual(table, fromBytes(toBytes(new BinaryTableWriter(), table)));
+	}
+
+	@Test
+	public void testChunks() {
+		Table table = randomTable(1000);
+		for (int chunkRows : new int[]{1, 7, 999, 1000, 1001}) {
+			assertTablesEqual(table, fromBytes(toBytes(new BinaryTableWriter().chunkRows(chunkRows), table)));
+		}
+	}
+
+	@Test
+	public void testCompression() {
+		Table table = randomTable(2000);
+		byte[] raw = toBytes(new BinaryTableWriter().chunkRows(500), table);
+		for (int level : new int[]{Deflater.DEFAULT_COMPRESSION, Deflater.BEST_SPEED, Deflater.BEST_COMPRESSION}) {
+			byte[] compressed = toBytes(new BinaryTableWriter().chunkRows(500).compression(level), table);
+			assertTrue(compressed.length < raw.length);
+			assertTablesEqual(table, fromBytes(compressed));
+		}
+	}
+
+	@Test
+	public void testIncompressibleChunkStoredRaw() {
+		Random random = new Random(5);
+		Table table = Builders.newTableBuilder(100).addReal("a", i -> random.nextDouble()).build(CTX);
+		byte[] bytes = toBytes(new BinaryTableWriter().compression(Deflater.BEST_COMPRESSION), table);
+		// magic, compressed header frame, raw data frame
+		int dataFrame = bytes.length - BinaryTableFormat.FRAME_PREFIX_SIZE - 100 * Double.BYTES;
+		assertEquals(BinaryTableFormat.RAW, bytes[dataFrame]);
+		assertTablesEqual(table, fromBytes(bytes));
+	}
+
+	@Test
+	public void testLayout() {
+		Table table = Builders.newTableBuilder(3).addReal("a", i -> i).build(CTX);
+		byte[] bytes = toBytes(new BinaryTableWriter().chunkRows(2), table);
+		assertArrayEquals(BinaryTableFormat.MAGIC, Arrays.copyOf(bytes, BinaryTableFormat.MAGIC.length));
+		// header: height, width, chunk rows, label, type and meta data count
+		int headerLength = 3 * Integer.BYTES + Integer.BYTES + 1 + 1 + Integer.BYTES;
+		int expectedLength = BinaryTableFormat.MAGIC.length + BinaryTableFormat.FRAME_PREFIX_SIZE + headerLength +
+				2 * BinaryTableFormat.FRAME_PREFIX_SIZE + 3 * Double.BYTES;
+		assertEquals(expectedLength, bytes.length);
+	}
+
+	@Test
+	public void testMappedAndSparseColumns() {
+		Table table = randomTable(1000);
+		int[] rows = new Random(3).ints(700, 0, 1000).toArray();
+		Table mapped = table.rows(rows, true, CTX);
+		Table sparse = Builders.newTableBuilder(1000)
+				.add("sparse", ColumnAccessor.get().newSparseNumericColumn(TypeId.REAL, 0, new int[]{3, 500},
+						new double[]{1.5, Double.NaN}, 1000))
+				.build(CTX);
+		assertTablesEqual(mapped, fromBytes(toBytes(new BinaryTableWriter().chunkRows(100), mapped)));
+		assertTablesEqual(sparse, fromBytes(toBytes(new BinaryTableWriter().chunkRows(300), sparse)));
+	}
+
+	@Test
+	public void testIndexWidths() {
+		for (int categories : new int[]{1, 127, 128, 32767, 32768, 40000}) {
+			Table table = Builders.newTableBuilder(50_000)
+					.addNominal("nominal", i -> i % 11 == 0 ? null : "v" + (i % categories))
+					.build(CTX);
+			assertTablesEqual(table, fromBytes(toBytes(new BinaryTableWriter().chunkRows(10_000), table)));
+		}
+	}
+
+	@Test
+	public void testBooleanAndGappedDictionaries() {
+		Table table = Builders.newTableBuilder(10)
+				.addBoolean("positive", i -> i % 3 == 0 ? null : i % 2 == 0 ? "yes" : "no", "yes")
+				.addBoolean("negative", i -> i % 2 == 0 ? "no" : null, null)
+				.addNominal("gapped", i -> "v" + i)
+				.build(CTX);
+		table = table.rows(new int[]{1, 2, 7}, true, CTX);
+		Column gapped = Columns.removeUnusedDictionaryValues(table.column(2), Columns.CleanupOption.REMOVE, CTX);
+		table = Builders.newTableBuilder(3)
+				.add("positive", table.column(0))
+				.add("negative", table.column(1))
+				.add("gapped", gapped)
+				.build(CTX);
+		Table read = fromBytes(toBytes(new BinaryTableWriter(), table));
+		assertTablesEqual(table, read);
+		Dictionary positive = read.column(0).getDictionary();
+		assertTrue(positive.isBoolean());
+		assertEquals("yes", positive.get(positive.getPositiveIndex()));
+		Dictionary negative = read.column(1).getDictionary();
+		assertTrue(negative.isBoolean());
+		assertTrue(!negative.hasPositive());
+		assertEquals(null, read.column(2).getDictionary().get(1));
+	}
+
+	@Test
+	public void testEmpty() {
+		Table table = randomTable(0);
+		assertTablesEqual(table, fromBytes(toBytes(new BinaryTableWriter(), table)));
+		Table noColumns = new Table(5);
+		Table read = fromBytes(toBytes(new BinaryTableWriter(), noColumns));
+		assertEquals(5, read.height());
+		assertEquals(0, read.width());
+	}
+
+	@Test
+	public void testConsecutiveTables() throws IOException {
+		Table first = randomTable(300);
+		Table second = randomTable(200);
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		new BinaryTableWriter().chunkRows(64).write(first, out, CTX);
+		new BinaryTableWriter().compression(Deflater.BEST_SPEED).write(second, out, CTX);
+		out.write(42);
+		InputStream in = new ByteArrayInputStream(out.toByteArray());
+		assertTablesEqual(first, new BinaryTableReader().read(in, CTX));
+		assertTablesEqual(second, new BinaryTableReader().read(in, CTX));
+		assertEquals(42, in.read());
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testUnsupportedType() {
+		Table table = Builders.newTableBuilder(1)
+				.add("object", ColumnAccessor.get().newObjectColumn(ColumnTestUtils.OBJECT_DUMMY_TYPE, new Object[1]))
+				.build(CTX);
+		toBytes(new BinaryTableWriter(), table);
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testUnsupportedMetaData() {
+		Table table = Builders.newTableBuilder(1)
+				.addReal("a", i -> i)
+				.addMetaData("a", new ColumnMetaData() {
+					@Override
+					public String type() {
+						return "custom";
+					}
+
+					@Override
+					public Uniqueness uniqueness() {
+						return Uniqueness.NONE;
+					}
+				})
+				.build(CTX);
+		toBytes(new BinaryTableWriter(), table);
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testNonPositiveChunkRows() {
+		new BinaryTableWriter().chunkRows(0);
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testTooManyChunkRows() {
+		new BinaryTableWriter().chunkRows(BinaryTableWriter.MAX_CHUNK_ROWS + 1);
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testInvalidCompression() {
+		new BinaryTableWriter().compression(10);
+	}
+
+	@Test(expected = NullPointerException.class)
+	public void testNullTable() {
+		new BinaryTableWriter().write(null, new ByteArrayOutputStream(), CTX);
+	}
+
+	@Test(expected = NullPointerException.class)
+	public void testNullStream() {
+		new BinaryTableWriter().write(randomTable(1), null, CTX);
+	}
+
+	@Test(expected = NullPointerException.class)
+	public void testNullContext() {
+		new BinaryTableWriter().write(randomTable(1), new ByteArrayOutputStream(), null);
+	}
+
+}
@@ -0,0 +1,326 @@
+/**
+ * This file is part of the RapidMiner Belt project.
+ * Copyright (C) 2017-2021 RapidMiner GmbH
+ *
+ * This program is free software: you can redistribute it and/or modify it under the terms of the GNU Affero General
+ * Public License as published by the Free Software Foundation, either version 3 of the License, or (at your option) any
+ * later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied
+ * warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU Affero General Public License along with this program. If not, see
+ * https://www.gnu.org/licenses/.
+ */
+
+
+package com.rapidminer.belt.table;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.time.LocalTime;
+import java.util.Arrays;
+import java.util.Random;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import com.rapidminer.belt.column.Column.TypeId;
+import com.rapidminer.belt.execution.Context;
+import com.rapidminer.belt.util.Belt;
+
+
+/**
+ * Tests {@link CsvReader}.
+ *
+ * @author Michael Knopf
+ */
+public class CsvReaderTests {
+
+	private static final Context CTX = Belt.defaultContext();
+
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	private Path write(String content) throws IOException {
+		Path file = folder.newFile().toPath();
+		Files.write(file, content.getBytes(StandardCharsets.UTF_8));
+		return file;
+	}
+
+	/**
+	 * Creates random rows containing all inferable types, quoted fields, escaped quotes, embedded line breaks and
+	 * missing values.
+	 */
+	private static String randomCsv(int rows, char separator) {
+		Random random = new Random(rows);
+		StringBuilder builder = new StringBuilder();
+		builder.append(String.join(String.valueOf(separator), "real", "int", "time", "datetime", "nominal"))
+				.append('\n');
+		for (int i = 0; i < rows; i++) {
+			if (random.nextInt(10) > 0) {
+				builder.append(random.nextInt(100_000) / 100.0);
+			}
+			builder.append(separator);
+			if (random.nextInt(10) > 0) {
+				builder.append(random.nextInt(2000) - 1000);
+			}
+			builder.append(separator);
+			if (random.nextInt(10) > 0) {
+				builder.append(LocalTime.ofNanoOfDay(random.nextInt(1_000_000_000) * 86_400L));
+			}
+			builder.append(separator);
+			if (random.nextInt(10) > 0) {
+				builder.append(Instant.ofEpochSecond(random.nextInt(1_000_000_000), random.nextInt(3) * 1000));
+			}
+			builder.append(separator);
+			switch (random.nextInt(5)) {
+				case 0:
+					break;
+				case 1:
+					builder.append("\"line\nbreak").append(random.nextInt(3)).append('"');
+					break;
+				case 2:
+					builder.append("\"with ,\t and \"\"quotes\"\"\"");
+					break;
+				default:
+					builder.append("value").append(random.nextInt(50));
+			}
+			builder.append(random.nextBoolean() ? "\n" : "\r\n");
+		}
+		return builder.toString();
+	}
+
+	@Test
+	public void testInference() throws IOException {
+		Path file = write("a,b,c,d,e,f,g\n1,1.5,10:15:30,2020-01-01T10:00:00Z,2020-01-01T10:00:00,x,\n" +
+				"-2,3e2,23:59:59.5,2020-01-02T10:00:00.25Z,2020-01-02T10:00:00,y,\n");
+		Table table = new CsvReader().read(file, CTX);
+		assertEquals(Arrays.asList("a", "b", "c", "d", "e", "f", "g"), table.labels());
+		assertEquals(2, table.height());
+		assertEquals(TypeId.INTEGER_53_BIT, table.column("a").type().id());
+		assertEquals(TypeId.REAL, table.column("b").type().id());
+		assertEquals(TypeId.TIME, table.column("c").type().id());
+		assertEquals(TypeId.DATE_TIME, table.column("d").type().id());
+		assertEquals(TypeId.DATE_TIME, table.column("e").type().id());
+		assertEquals(TypeId.NOMINAL, table.column("f").type().id());
+		assertEquals(TypeId.NOMINAL, table.column("g").type().id());
+		assertEquals(Arrays.asList(1.0, -2.0), TableTestUtils.readColumn(table, 0));
+		assertEquals(Arrays.asList(1.5, 300.0), TableTestUtils.readColumn(table, 1));
+		assertEquals(Arrays.asList(LocalTime.of(10, 15, 30), LocalTime.of(23, 59, 59, 500_000_000)),
+				TableTestUtils.readColumn(table, 2));
+		assertEquals(Arrays.asList(Instant.parse("2020-01-01T10:00:00Z"), Instant.parse("2020-01-02T10:00:00.25Z")),
+				TableTestUtils.readColumn(table, 3));
+		assertEquals(Arrays.asList(Instant.parse("2020-01-01T10:00:00Z"), Instant.parse("2020-01-02T10:00:00Z")),
+				TableTestUtils.readColumn(table, 4));
+		assertEquals(Arrays.asList("x", "y"), TableTestUtils.readColumn(table, 5));
+		assertEquals(Arrays.asList(null, null), TableTestUtils.readColumn(table, 6));
+	}
+
+	@Test
+	public void testQuotes() throws IOException {
+		Path file = write("\"first, label\",second\n\"a\nb\",\"say \"\"hi\"\"\"\r\n,\"\"\nlast,\"x,y\"");
+		Table table = new CsvReader().read(file, CTX);
+		assertEquals(Arrays.asList("first, label", "second"), table.labels());
+		assertEquals(Arrays.asList("a\nb", null, "last"), TableTestUtils.readColumn(table, 0));
+		assertEquals(Arrays.asList("say \"hi\"", "", "x,y"), TableTestUtils.readColumn(table, 1));
+	}
+
+	@Test
+	public void testQuotedEmptyFields() throws IOException {
+		Path file = write("a,\"\"\n\"\",x\n,\"\"\n");
+		Table table = new CsvReader().read(file, CTX);
+		assertEquals(Arrays.asList("a", "column2"), table.labels());
+		assertEquals(TypeId.NOMINAL, table.column("a").type().id());
+		assertEquals(Arrays.asList("", null), TableTestUtils.readColumn(table, 0));
+		assertEquals(Arrays.asList("x", ""), TableTestUtils.readColumn(table, 1));
+	}
+
+	@Test
+	public void testInfinity() throws IOException {
+		StringBuilder builder = new StringBuilder("real\n1\n");
+		for (int i = 0; i < 100; i++) {
+			builder.append(i % 3 == 0 ? "Infinity" : i % 3 == 1 ? "-Infinity" : "+Infinity").append('\n');
+		}
+		Table sampled = new CsvReader().read(write("real\nInfinity\n1.5\n-Infinity\n"), CTX);
+		assertEquals(TypeId.REAL, sampled.column("real").type().id());
+		assertEquals(Arrays.asList(Double.POSITIVE_INFINITY, 1.5, Double.NEGATIVE_INFINITY),
+				TableTestUtils.readColumn(sampled, 0));
+		Table fallback = new CsvReader().sampleRows(1).chunkSize(64).read(write(builder.toString()), CTX);
+		assertEquals(TypeId.REAL, fallback.column("real").type().id());
+		assertEquals(Double.NEGATIVE_INFINITY, TableTestUtils.readColumn(fallback, 0).get(2));
+	}
+
+	@Test
+	public void testChunks() throws IOException {
+		Path file = write(randomCsv(5000, ','));
+		Table expected = new CsvReader().read(file, CTX);
+		assertEquals(5000, expected.height());
+		assertEquals(TypeId.REAL, expected.column("real").type().id());
+		assertEquals(TypeId.INTEGER_53_BIT, expected.column("int").type().id());
+		assertEquals(TypeId.TIME, expected.column("time").type().id());
+		assertEquals(TypeId.DATE_TIME, expected.column("datetime").type().id());
+		assertEquals(TypeId.NOMINAL, expected.column("nominal").type().id());
+		for (int chunkSize : new int[]{13, 100, 4096}) {
+			TableTestUtils.assertTablesEqual(expected, new CsvReader().chunkSize(chunkSize).read(file, CTX));
+			TableTestUtils.assertTablesEqual(expected,
+					new CsvReader().chunkSize(chunkSize).memoryMapped(false).read(file, CTX));
+		}
+	}
+
+	@Test
+	public void testTabSeparated() throws IOException {
+		Path csv = write(randomCsv(500, ','));
+		Path tsv = write(randomCsv(500, '\t'));
+		TableTestUtils.assertTablesEqual(new CsvReader().read(csv, CTX),
+				new CsvReader().separator('\t').chunkSize(64).read(tsv, CTX));
+	}
+
+	@Test
+	public void testNoHeader() throws IOException {
+		Path file = write("1,a\n2,b\n");
+		Table table = new CsvReader().header(false).read(file, CTX);
+		assertEquals(Arrays.asList("column1", "column2"), table.labels());
+		assertEquals(Arrays.asList(1.0, 2.0), TableTestUtils.readColumn(table, 0));
+		assertEquals(Arrays.asList("a", "b"), TableTestUtils.readColumn(table, 1));
+	}
+
+	@Test
+	public void testByteOrderMark() throws IOException {
+		Path file = write("﻿a;b\n1;2\n");
+		Table table = new CsvReader().separator(';').read(file, CTX);
+		assertEquals(Arrays.asList("a", "b"), table.labels());
+		assertEquals(Arrays.asList(2.0), TableTestUtils.readColumn(table, 1));
+	}
+
+	@Test
+	public void testBlankAndShortLines() throws IOException {
+		Path file = write("a,b\n1,2\n\n3\n");
+		Table table = new CsvReader().read(file, CTX);
+		assertEquals(3, table.height());
+		assertEquals(Arrays.asList(1.0, Double.NaN, 3.0), TableTestUtils.readColumn(table, 0));
+		assertEquals(Arrays.asList(2.0, Double.NaN, Double.NaN), TableTestUtils.readColumn(table, 1));
+	}
+
+	@Test
+	public void testHeaderOnly() throws IOException {
+		Table table = new CsvReader().read(write("a,b"), CTX);
+		assertEquals(Arrays.asList("a", "b"), table.labels());
+		assertEquals(0, table.height());
+	}
+
+	@Test
+	public void testFallbackAfterSample() throws IOException {
+		StringBuilder builder = new StringBuilder("int,time,number\n");
+		for (int i = 0; i < 100; i++) {
+			builder.append(i).append(",10:00,").append(i).append('\n');
+		}
+		builder.append("1.5,noon,many\n");
+		Path file = write(builder.toString());
+		Table table = new CsvReader().sampleRows(10).chunkSize(100).read(file, CTX);
+		assertEquals(TypeId.REAL, table.column("int").type().id());
+		assertEquals(1.5, (double) TableTestUtils.readColumn(table, 0).get(100), 0);
+		assertEquals(TypeId.NOMINAL, table.column("time").type().id());
+		assertEquals("noon", TableTestUtils.readColumn(table, 1).get(100));
+		assertEquals(TypeId.NOMINAL, table.column("number").type().id());
+		assertEquals("99", TableTestUtils.readColumn(table, 2).get(99));
+		assertEquals("many", TableTestUtils.readColumn(table, 2).get(100));
+	}
+
+	@Test
+	public void testColumnTypes() throws IOException {
+		Path file = write("a,b,c\n1,2.6,x\n3,4,y\n");
+		Table table = new CsvReader().columnType("a", TypeId.NOMINAL).columnType("b", TypeId.INTEGER_53_BIT)
+				.columnType("c", TypeId.TEXT).read(file, CTX);
+		assertEquals(TypeId.NOMINAL, table.column("a").type().id());
+		assertEquals(Arrays.asList("1", "3"), TableTestUtils.readColumn(table, 0));
+		assertEquals(TypeId.INTEGER_53_BIT, table.column("b").type().id());
+		assertEquals(Arrays.asList(3.0, 4.0), TableTestUtils.readColumn(table, 1));
+		assertEquals(TypeId.TEXT, table.column("c").type().id());
+		assertArrayEquals(new Object[]{"x", "y"}, TableTestUtils.readColumn(table, 2).toArray());
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testColumnTypeMismatch() throws IOException {
+		new CsvReader().columnType("a", TypeId.REAL).read(write("a\n1\nx\n"), CTX);
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testUnknownColumnType() throws IOException {
+		new CsvReader().columnType("b", TypeId.REAL).read(write("a\n1\n"), CTX);
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testUnsupportedColumnType() {
+		new CsvReader().columnType("a", TypeId.TEXT_SET);
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testTooManyValues() throws IOException {
+		new CsvReader().read(write("a,b\n1,2\n3,4,5\n"), CTX);
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testStrayQuote() throws IOException {
+		new CsvReader().read(write("id,height\n1,5'11\"\n2,6'0\"\n3,5'9\n"), CTX);
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testStrayQuoteAfterSample() throws IOException {
+		StringBuilder builder = new StringBuilder("id,height\n");
+		for (int i = 0; i < 100; i++) {
+			builder.append(i).append(i % 10 == 0 ? ",5'11\"\n" : ",5.9\n");
+		}
+		new CsvReader().sampleRows(5).chunkSize(64).read(write(builder.toString()), CTX);
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testEmptyFile() throws IOException {
+		new CsvReader().read(write(""), CTX);
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testEqualSeparatorAndQuote() throws IOException {
+		new CsvReader().separator('\'').quote('\'').read(write("a\n1\n"), CTX);
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testLineBreakSeparator() {
+		new CsvReader().separator('\n');
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testNonPositiveChunkSize() {
+		new CsvReader().chunkSize(0);
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testNonPositiveSampleRows() {
+		new CsvReader().sampleRows(0);
+	}
+
+	@Test(expected = UncheckedIOException.class)
+	public void testMissingFile() {
+		new CsvReader().read(folder.getRoot().toPath().resolve("missing.csv"), CTX);
+	}
+
+	@Test(expected = NullPointerException.class)
+	public void testNullFile() {
+		new CsvReader().read(null, CTX);
+	}
+
+	@Test(expected = NullPointerException.class)
+	public void testNullContext() throws IOException {
+		new CsvReader().read(write("a\n1\n"), null);
+	}
+
+}
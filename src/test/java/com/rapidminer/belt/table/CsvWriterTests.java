@@ -0,0 +1,192 @@
+/**
+ * This file is part of the RapidMiner Belt project.
+ * Copyright (C) 2017-2021 RapidMiner GmbH
+ *
+ * This program is free software: you can redistribute it and/or modify it under the terms of the GNU Affero General
+ * Public License as published by the Free Software Foundation, either version 3 of the License, or (at your option) any
+ * later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied
+ * warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU Affero General Public License along with this program. If not, see
+ * https://www.gnu.org/licenses/.
+ */
+
+
+package com.rapidminer.belt.table;
+
+import static org.junit.Assert.assertEquals;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.channels.Channels;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.time.LocalTime;
+import java.util.Random;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import com.rapidminer.belt.execution.Context;
+import com.rapidminer.belt.util.Belt;
+
+
+/**
+ * Tests {@link CsvWriter}.
+ *
+ * @author Michael Knopf
+ */
+public class CsvWriterTests {
+
+	private static final Context CTX = Belt.defaultContext();
+
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	private static String toString(CsvWriter writer, Table table) {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		writer.write(table, Channels.newChannel(out), CTX);
+		return new String(out.toByteArray(), StandardCharsets.UTF_8);
+	}
+
+	@Test
+	public void testFormat() {
+		Table table = Builders.newTableBuilder(4)
+				.addReal("a", i -> new double[]{1.5, -0.001, Double.NaN, 1e300}[i])
+				.addInt53Bit("b", i -> new double[]{1, -20, Double.NaN, 0}[i])
+				.addNominal("c \"d\"", i -> new String[]{"x", "y,z", null, ""}[i])
+				.addTime("e", i -> i == 0 ? LocalTime.of(10, 15) : null)
+				.addDateTime("f", i -> i == 1 ? Instant.ofEpochSecond(0, 500) : null)
+				.addText("g", i -> i == 3 ? "two\nlines" : null)
+				.build(CTX);
+		String expected = "a,b,\"c \"\"d\"\"\",e,f,g\n" +
+				"1.5,1,x,10:15,,\n" +
+				"-0.001,-20,\"y,z\",,1970-01-01T00:00:00.000000500Z,\n" +
+				",,,,,\n" +
+				"1.0E300,0,\"\",,,\"two\nlines\"\n";
+		assertEquals(expected, toString(new CsvWriter(), table));
+	}
+
+	@Test
+	public void testNumbers() {
+		double[] values = {0, -0.0, 1, -1, 0.1, 0.3, 1e-5, 123456.789, 4503599627370495.5, 9007199254740993.0,
+				1e-300, Double.MAX_VALUE, Double.MIN_VALUE, Double.POSITIVE_INFINITY, Double.NEGATIVE_INFINITY};
+		Table table = Builders.newTableBuilder(values.length).addReal("a", i -> values[i]).build(CTX);
+		String[] lines = toString(new CsvWriter().header(false), table).split("\n");
+		assertEquals("0", lines[0]);
+		assertEquals("-0", lines[1]);
+		assertEquals("0.1", lines[4]);
+		assertEquals("0.3", lines[5]);
+		assertEquals("0.00001", lines[6]);
+		assertEquals("123456.789", lines[7]);
+		assertEquals("-Infinity", lines[14]);
+		for (int i = 0; i < values.length; i++) {
+			assertEquals(lines[i], Double.doubleToLongBits(values[i]),
+					Double.doubleToLongBits(Double.parseDouble(lines[i])));
+		}
+	}
+
+	@Test
+	public void testRandomNumbersRoundTrip() {
+		Random random = new Random(42);
+		double[] values = new double[10_000];
+		for (int i = 0; i < values.length; i++) {
+			values[i] = Double.longBitsToDouble(random.nextLong());
+			if (i % 2 == 0 || Double.isNaN(values[i])) {
+				values[i] = random.nextInt(1_000_000) / Math.pow(10, random.nextInt(10));
+			}
+		}
+		Table table = Builders.newTableBuilder(values.length).addReal("a", i -> values[i]).build(CTX);
+		String[] lines = toString(new CsvWriter().header(false).blockRows(777), table).split("\n");
+		for (int i = 0; i < values.length; i++) {
+			assertEquals(lines[i], values[i], Double.parseDouble(lines[i]), 0);
+		}
+	}
+
+	@Test
+	public void testRoundTrip() throws IOException {
+		Table table = TableTestUtils.randomTable(5000, false);
+		Path file = folder.newFile().toPath();
+		new CsvWriter().write(table, file, CTX);
+		TableTestUtils.assertTablesEqual(table, new CsvReader().read(file, CTX));
+	}
+
+	@Test
+	public void testBlocks() {
+		Table table = TableTestUtils.randomTable(1000, false);
+		String expected = toString(new CsvWriter().blockRows(1000), table);
+		for (int blockRows : new int[]{1, 7, 999, 5000}) {
+			assertEquals(expected, toString(new CsvWriter().blockRows(blockRows), table));
+		}
+	}
+
+	@Test
+	public void testMappedColumns() {
+		Table table = TableTestUtils.randomTable(1000, false);
+		int[] rows = new Random(7).ints(500, 0, 1000).toArray();
+		Table mapped = table.rows(rows, true, CTX);
+		Table copied = table.rows(rows, false, CTX);
+		assertEquals(toString(new CsvWriter(), copied), toString(new CsvWriter().blockRows(33), mapped));
+	}
+
+	@Test
+	public void testTabSeparated() throws IOException {
+		Table table = TableTestUtils.randomTable(500, false);
+		Path file = folder.newFile().toPath();
+		new CsvWriter().separator('\t').quote('\'').write(table, file, CTX);
+		TableTestUtils.assertTablesEqual(table, new CsvReader().separator('\t').quote('\'').read(file, CTX));
+	}
+
+	@Test
+	public void testEmpty() {
+		Table table = Builders.newTableBuilder(0).addReal("a", i -> 0).addNominal("b", i -> null).build(CTX);
+		assertEquals("a,b\n", toString(new CsvWriter(), table));
+		assertEquals("", toString(new CsvWriter().header(false), table));
+	}
+
+	@Test(expected = UncheckedIOException.class)
+	public void testClosedChannel() throws IOException {
+		WritableByteChannel channel = Channels.newChannel(new ByteArrayOutputStream());
+		channel.close();
+		new CsvWriter().write(TableTestUtils.randomTable(10, false), channel, CTX);
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testEqualSeparatorAndQuote() {
+		toString(new CsvWriter().separator(';').quote(';'), TableTestUtils.randomTable(10, false));
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testNonAsciiSeparator() {
+		new CsvWriter().separator('ä');
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testNonPositiveBlockRows() {
+		new CsvWriter().blockRows(0);
+	}
+
+	@Test(expected = NullPointerException.class)
+	public void testNullTable() {
+		new CsvWriter().write(null, Channels.newChannel(new ByteArrayOutputStream()), CTX);
+	}
+
+	@Test(expected = NullPointerException.class)
+	public void testNullChannel() {
+		new CsvWriter().write(TableTestUtils.randomTable(10, false), (WritableByteChannel) null, CTX);
+	}
+
+	@Test(expected = NullPointerException.class)
+	public void testNullContext() {
+		new CsvWriter().write(TableTestUtils.randomTable(10, false), Channels.newChannel(new ByteArrayOutputStream()),
+				null);
+	}
+
+}
@@ -0,0 +1,172 @@
+/**
+ * This file is part of the RapidMiner Belt project.
+ * Copyright (C) 2017-2021 RapidMiner GmbH
+ *
+ * This program is free software: you can redistribute it and/or modify it under the terms of the GNU Affero General
+ * Public License as published by the Free Software Foundation, either version 3 of the License, or (at your option) any
+ * later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied
+ * warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU Affero General Public License along with this program. If not, see
+ * https://www.gnu.org/licenses/.
+ */
+
+
+package com.rapidminer.belt.table;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import org.junit.Test;
+
+import com.rapidminer.belt.column.Column;
+import com.rapidminer.belt.execution.Context;
+import com.rapidminer.belt.util.Belt;
+
+
+/**
+ * Tests {@link Table#distinct(List, Context)} and {@link DistinctRows}.
+ *
+ * @author Michael Knopf
+ */
+public class DistinctRowsTests {
+
+	private static final Context CTX = Belt.defaultContext();
+
+	private static Table table(int n, int values, long seed) {
+		Random random = new Random(seed);
+		String[] nominals = new String[n];
+		double[] reals = new double[n];
+		double[] ints = new double[n];
+		Instant[] instants = new Instant[n];
+		for (int i = 0; i < n; i++) {
+			nominals[i] = random.nextInt(20) == 0 ? null : "value" + random.nextInt(values);
+			int r = random.nextInt(values);
+			reals[i] = r == 0 ? Double.NaN : r == 1 ? -0.0 : r == 2 ? 0.0 : r / 4.0;
+			ints[i] = random.nextInt(values);
+			instants[i] = random.nextInt(10) == 0 ? null : Instant.ofEpochSecond(random.nextInt(5),
+					random.nextInt(2));
+		}
+		return Builders.newTableBuilder(n)
+				.addNominal("nominal", i -> nominals[i])
+				.addReal("real", i -> reals[i])
+				.addInt53Bit("int", i -> ints[i])
+				.addDateTime("datetime", i -> instants[i])
+				.addText("text", i -> "a")
+				.build(CTX);
+	}
+
+	/**
+	 * Deduplicates naively via a set of boxed row values.
+	 */
+	private static int[] expected(Table table, List<String> labels) {
+		List<List<Object>> columns = new ArrayList<>();
+		for (String label : labels) {
+			columns.add(TableTestUtils.readAll(table.column(label)));
+		}
+		Set<List<Object>> seen = new HashSet<>();
+		List<Integer> rows = new ArrayList<>();
+		for (int row = 0; row < table.height(); row++) {
+			List<Object> key = new ArrayList<>();
+			for (List<Object> column : columns) {
+				key.add(column.get(row));
+			}
+			if (seen.add(key)) {
+				rows.add(row);
+			}
+		}
+		return rows.stream().mapToInt(Integer::intValue).toArray();
+	}
+
+	private static void assertDistinct(Table table, String... labels) {
+		List<String> list = Arrays.asList(labels);
+		int[] expected = expected(table, list);
+		Column[] keys = list.stream().map(table::column).toArray(Column[]::new);
+		assertArrayEquals(expected, DistinctRows.firstRows(keys, table.height(), CTX));
+		Table distinct = table.distinct(list, CTX);
+		assertEquals(table.labels(), distinct.labels());
+		for (String label : table.labels()) {
+			assertEquals(TableTestUtils.readAll(table.rows(expected, false, CTX).column(label)), TableTestUtils.readAll(distinct.column(label)));
+		}
+	}
+
+	@Test
+	public void testNominal() {
+		assertDistinct(table(10_000, 100, 1L), "nominal");
+	}
+
+	@Test
+	public void testReal() {
+		assertDistinct(table(10_000, 100, 2L), "real");
+	}
+
+	@Test
+	public void testDateTime() {
+		assertDistinct(table(10_000, 100, 3L), "datetime");
+	}
+
+	@Test
+	public void testMixed() {
+		assertDistinct(table(10_000, 10, 4L), "nominal", "real", "int", "datetime");
+	}
+
+	@Test
+	public void testParallelFewDistinct() {
+		assertDistinct(table(300_000, 20, 5L), "nominal", "int");
+	}
+
+	@Test
+	public void testParallelManyDistinct() {
+		assertDistinct(table(300_000, 100_000, 6L), "real", "int");
+	}
+
+	@Test
+	public void testAllDistinct() {
+		Table table = Builders.newTableBuilder(200_000).addReal("id", i -> i).build(CTX);
+		assertEquals(200_000, table.distinct(Collections.singletonList("id"), CTX).height());
+	}
+
+	@Test
+	public void testEmpty() {
+		Table table = table(0, 10, 7L);
+		assertEquals(0, table.distinct(Arrays.asList("nominal", "real"), CTX).height());
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testText() {
+		table(10, 10, 8L).distinct(Collections.singletonList("text"), CTX);
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testDuplicateLabel() {
+		table(10, 10, 8L).distinct(Arrays.asList("int", "int"), CTX);
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testUnknownLabel() {
+		table(10, 10, 8L).distinct(Collections.singletonList("unknown"), CTX);
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testEmptyLabels() {
+		table(10, 10, 8L).distinct(Collections.emptyList(), CTX);
+	}
+
+	@Test(expected = NullPointerException.class)
+	public void testNullContext() {
+		table(10, 10, 8L).distinct(Collections.singletonList("int"), null);
+	}
+
+}
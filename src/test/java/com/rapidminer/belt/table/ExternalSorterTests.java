@@ -0,0 +1,263 @@
+/**
+ * This file is part of the RapidMiner Belt project.
+ * Copyright (C) 2017-2021 RapidMiner GmbH
+ *
+ * This program is free software: you can redistribute it and/or modify it under the terms of the GNU Affero General
+ * Public License as published by the Free Software Foundation, either version 3 of the License, or (at your option) any
+ * later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied
+ * warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU Affero General Public License along with this program. If not, see
+ * https://www.gnu.org/licenses/.
+ */
+
+package com.rapidminer.belt.table;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.time.Instant;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import com.rapidminer.belt.execution.Context;
+import com.rapidminer.belt.util.Belt;
+import com.rapidminer.belt.util.Order;
+
+
+/**
+ * Tests {@link ExternalSorter}.
+ *
+ * @author Michael Knopf
+ */
+public class ExternalSorterTests {
+
+	private static final Context CTX = Belt.defaultContext();
+
+	private static final int CHUNK_SIZE = 1_000;
+
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	private static Table chunk(int n, long seed) {
+		Random random = new Random(seed);
+		double[] reals = new double[n];
+		int[] ints = new int[n];
+		long[] times = new long[n];
+		long[] seconds = new long[n];
+		int[] nanos = new int[n];
+		String[] nominals = new String[n];
+		for (int i = 0; i < n; i++) {
+			reals[i] = random.nextInt(10) == 0 ? Double.NaN : random.nextInt(100) / 4.0;
+			ints[i] = random.nextInt(20);
+			times[i] = random.nextInt(10) * 1_000_000_000L;
+			seconds[i] = random.nextInt(10);
+			nanos[i] = random.nextInt(3);
+			nominals[i] = random.nextInt(10) == 0 ? null : "value" + random.nextInt(seed % 2 == 0 ? 15 : 30);
+		}
+		return Builders.newTableBuilder(n)
+				.addReal("real", i -> reals[i])
+				.addInt53Bit("int", i -> ints[i])
+				.addTime("time", i -> LocalTime.ofNanoOfDay(times[i]))
+				.addDateTime("datetime", i -> seconds[i] == 9 ? null : Instant.ofEpochSecond(seconds[i], nanos[i]))
+				.addNominal("nominal", i -> nominals[i])
+				.addReal("index", i -> seed * n + i)
+				.build(CTX);
+	}
+
+	private static void assertTablesEqual(Table expected, List<Table> chunks) {
+		for (int i = 0; i < expected.width(); i++) {
+			List<Object> actual = new ArrayList<>();
+			for (Table chunk : chunks) {
+				assertEquals(expected.labels(), chunk.labels());
+				assertEquals(expected.column(i).type(), chunk.column(i).type());
+				actual.addAll(TableTestUtils.readColumn(chunk, i));
+			}
+			assertEquals(expected.label(i), TableTestUtils.readColumn(expected, i), actual);
+		}
+	}
+
+	private static List<Table> collect(Iterator<Table> iterator) {
+		List<Table> chunks = new ArrayList<>();
+		iterator.forEachRemaining(chunks::add);
+		return chunks;
+	}
+
+	private List<Table> sortExternally(List<Table> inputs, List<String> columns, List<Order> orders, long budget,
+									   int chunkRows) throws Exception {
+		try (ExternalSorter sorter = new ExternalSorter(columns, orders)) {
+			sorter.memoryBudget(budget).directory(folder.getRoot().toPath());
+			for (Table input : inputs) {
+				sorter.add(input, CTX);
+			}
+			if (budget < Long.MAX_VALUE) {
+				assertTrue(sorter.numberOfRuns() > 1);
+			}
+			List<Table> result = collect(sorter.merge(chunkRows, CTX));
+			for (Table chunk : result) {
+				assertTrue(chunk.height() <= chunkRows);
+			}
+			return result;
+		}
+	}
+
+	private static List<Table> inputs(int count) {
+		List<Table> inputs = new ArrayList<>();
+		for (int i = 0; i < count; i++) {
+			inputs.add(chunk(CHUNK_SIZE, i));
+		}
+		return inputs;
+	}
+
+	private void testSort(List<String> columns, List<Order> orders) throws Exception {
+		List<Table> inputs = inputs(7);
+		Table expected = Appender.append(inputs, null, CTX).sort(columns, orders, CTX);
+		assertTablesEqual(expected, sortExternally(inputs, columns, orders, 3 * CHUNK_SIZE * 40, 777));
+	}
+
+	@Test
+	public void testReal() throws Exception {
+		testSort(Collections.singletonList("real"), Collections.singletonList(Order.ASCENDING));
+	}
+
+	@Test
+	public void testRealDescending() throws Exception {
+		testSort(Collections.singletonList("real"), Collections.singletonList(Order.DESCENDING));
+	}
+
+	@Test
+	public void testTimeAndInteger() throws Exception {
+		testSort(Arrays.asList("time", "int"), Arrays.asList(Order.ASCENDING, Order.DESCENDING));
+	}
+
+	@Test
+	public void testDateTime() throws Exception {
+		testSort(Collections.singletonList("datetime"), Collections.singletonList(Order.DESCENDING));
+	}
+
+	@Test
+	public void testNominal() throws Exception {
+		testSort(Arrays.asList("nominal", "real"), Arrays.asList(Order.ASCENDING, Order.ASCENDING));
+	}
+
+	@Test
+	public void testNominalDescending() throws Exception {
+		testSort(Collections.singletonList("nominal"), Collections.singletonList(Order.DESCENDING));
+	}
+
+	@Test
+	public void testInMemory() throws Exception {
+		List<Table> inputs = inputs(3);
+		List<String> columns = Arrays.asList("int", "datetime");
+		List<Order> orders = Arrays.asList(Order.DESCENDING, Order.ASCENDING);
+		Table expected = Appender.append(inputs, null, CTX).sort(columns, orders, CTX);
+		List<Table> result = sortExternally(inputs, columns, orders, Long.MAX_VALUE, 1000);
+		assertEquals(3, result.size());
+		assertTablesEqual(expected, result);
+	}
+
+	@Test
+	public void testReorderedColumns() throws Exception {
+		List<Table> inputs = inputs(4);
+		List<String> labels = new ArrayList<>(inputs.get(1).labels());
+		Collections.reverse(labels);
+		List<Table> reordered = new ArrayList<>(inputs);
+		reordered.set(1, inputs.get(1).columns(labels));
+		List<String> columns = Collections.singletonList("int");
+		List<Order> orders = Collections.singletonList(Order.ASCENDING);
+		Table expected = Appender.append(inputs, null, CTX).sort(columns, orders, CTX);
+		assertTablesEqual(expected, sortExternally(reordered, columns, orders, CHUNK_SIZE * 40, 1 << 20));
+	}
+
+	@Test
+	public void testFilesDeleted() throws Exception {
+		try (ExternalSorter sorter = new ExternalSorter(Collections.singletonList("real"), Order.ASCENDING)) {
+			sorter.memoryBudget(1).directory(folder.getRoot().toPath());
+			for (Table input : inputs(3)) {
+				sorter.add(input, CTX);
+			}
+			assertEquals(3, sorter.numberOfRuns());
+			File[] files = folder.getRoot().listFiles();
+			assertEquals(3, files == null ? 0 : files.length);
+		}
+		File[] files = folder.getRoot().listFiles();
+		assertArrayEquals(new File[0], files);
+	}
+
+	@Test
+	public void testFilesDeletedDuringMerge() throws Exception {
+		try (ExternalSorter sorter = new ExternalSorter(Collections.singletonList("real"), Order.ASCENDING)) {
+			sorter.memoryBudget(1).directory(folder.getRoot().toPath());
+			for (Table input : inputs(3)) {
+				sorter.add(input, CTX);
+			}
+			Iterator<Table> iterator = sorter.merge(10, CTX);
+			assertEquals(10, iterator.next().height());
+			assertTrue(iterator.hasNext());
+		}
+		File[] files = folder.getRoot().listFiles();
+		assertArrayEquals(new File[0], files);
+	}
+
+	@Test
+	public void testEmpty() {
+		try (ExternalSorter sorter = new ExternalSorter(Collections.singletonList("real"), Order.ASCENDING)) {
+			assertFalse(sorter.merge(10, CTX).hasNext());
+		}
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testUnknownColumn() {
+		try (ExternalSorter sorter = new ExternalSorter(Collections.singletonList("unknown"), Order.ASCENDING)) {
+			sorter.add(chunk(10, 0), CTX);
+		}
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testUnsupportedType() {
+		Table table = Builders.newTableBuilder(10).addText("text", i -> "a").build(CTX);
+		try (ExternalSorter sorter = new ExternalSorter(Collections.singletonList("text"), Order.ASCENDING)) {
+			sorter.add(table, CTX);
+		}
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testIncompatibleType() {
+		Table table = chunk(10, 0);
+		Table other = Builders.newTableBuilder(table).replaceNominal("int", i -> "a").build(CTX);
+		try (ExternalSorter sorter = new ExternalSorter(Collections.singletonList("real"), Order.ASCENDING)) {
+			sorter.add(table, CTX);
+			sorter.add(other, CTX);
+		}
+	}
+
+	@Test(expected = IllegalStateException.class)
+	public void testAddAfterMerge() {
+		try (ExternalSorter sorter = new ExternalSorter(Collections.singletonList("real"), Order.ASCENDING)) {
+			sorter.add(chunk(10, 0), CTX);
+			sorter.merge(10, CTX);
+			sorter.add(chunk(10, 1), CTX);
+		}
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testDifferentLengths() {
+		new ExternalSorter(Arrays.asList("real", "int"), Collections.singletonList(Order.ASCENDING));
+	}
+
+}
@@ -0,0 +1,120 @@
+/**
+ * This file is part of the RapidMiner Belt project.
+ * Copyright (C) 2017-2021 RapidMiner GmbH
+ *
+ * This program is free software: you can redistribute it and/or modify it under the terms of the GNU Affero General
+ * Public License as published by the Free Software Foundation, either version 3 of the License, or (at your option) any
+ * later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied
+ * warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU Affero General Public License along with this program. If not, see
+ * https://www.gnu.org/licenses/.
+ */
+
+
+package com.rapidminer.belt.table;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Arrays;
+import java.util.Collections;
+
+import org.junit.Test;
+
+import com.rapidminer.belt.table.FlatBuffers.StructVectorNode;
+import com.rapidminer.belt.table.FlatBuffers.TableNode;
+import com.rapidminer.belt.table.FlatBuffers.TableView;
+import com.rapidminer.belt.table.FlatBuffers.VectorNode;
+
+
+/**
+ * Tests {@link FlatBuffers}.
+ *
+ * @author Michael Knopf
+ */
+public class FlatBuffersTests {
+
+	/**
+	 * Returns the position of the given field of the table at the given position.
+	 */
+	private static int fieldPosition(ByteBuffer buffer, int table, int id) {
+		int vtable = table - buffer.getInt(table);
+		return table + buffer.getShort(vtable + 4 + 2 * id);
+	}
+
+	@Test
+	public void testScalars() {
+		TableNode root = new TableNode().addBoolean(0, true).addByte(1, 200).addShort(2, -3).addInt(3, 1 << 20)
+				.addLong(5, Long.MIN_VALUE);
+		TableView view = TableView.root(ByteBuffer.wrap(FlatBuffers.serialize(root)));
+		assertTrue(view.getBoolean(0, false));
+		assertEquals(200, view.getByte(1, 0));
+		assertEquals(-3, view.getShort(2, 0));
+		assertEquals(1 << 20, view.getInt(3, 0));
+		assertFalse(view.has(4));
+		assertEquals(7, view.getInt(4, 7));
+		assertEquals(Long.MIN_VALUE, view.getLong(5, 0));
+		assertFalse(view.has(6));
+		assertEquals(-1, view.getLong(6, -1));
+	}
+
+	@Test
+	public void testAlignment() {
+		TableNode child = new TableNode().addByte(0, 1).addLong(1, 2).addShort(2, 3);
+		TableNode root = new TableNode().addByte(0, 1).addNode(1, child).addLong(2, 4).addString(3, "abc");
+		ByteBuffer buffer = ByteBuffer.wrap(FlatBuffers.serialize(root)).order(ByteOrder.LITTLE_ENDIAN);
+		int table = buffer.getInt(0);
+		assertEquals(0, fieldPosition(buffer, table, 2) % 8);
+		int childField = fieldPosition(buffer, table, 1);
+		int childTable = childField + buffer.getInt(childField);
+		assertTrue(childTable > childField);
+		assertEquals(0, childTable % 4);
+		assertEquals(0, fieldPosition(buffer, childTable, 1) % 8);
+		assertEquals(0, fieldPosition(buffer, childTable, 2) % 2);
+		int stringField = fieldPosition(buffer, table, 3);
+		int string = stringField + buffer.getInt(stringField);
+		assertEquals(0, string % 4);
+		assertEquals(0, buffer.get(string + 4 + 3));
+	}
+
+	@Test
+	public void testNested() {
+		TableNode first = new TableNode().addString(0, "first");
+		TableNode second = new TableNode().addString(0, "zweites ü");
+		TableNode root = new TableNode().addNode(0, new VectorNode(Arrays.asList(first, second)))
+				.addNode(1, new VectorNode(Collections.emptyList())).addNode(2, new TableNode().addInt(0, 5));
+		TableView view = TableView.root(ByteBuffer.wrap(FlatBuffers.serialize(root)));
+		assertEquals(2, view.getVectorLength(0));
+		assertEquals("first", view.getTable(0, 0).getString(0));
+		assertEquals("zweites ü", view.getTable(0, 1).getString(0));
+		assertEquals(0, view.getVectorLength(1));
+		assertEquals(0, view.getVectorLength(3));
+		assertEquals(5, view.getTable(2).getInt(0, 0));
+		assertNull(view.getTable(3));
+		assertNull(view.getString(3));
+	}
+
+	@Test
+	public void testStructs() {
+		ByteBuffer structs = ByteBuffer.allocate(48).order(ByteOrder.LITTLE_ENDIAN);
+		structs.putLong(1).putLong(2).putLong(3).putLong(4).putLong(5).putLong(6).flip();
+		TableNode root = new TableNode().addByte(0, 1).addNode(1, new StructVectorNode(structs, 3, 8));
+		ByteBuffer buffer = ByteBuffer.wrap(FlatBuffers.serialize(root)).order(ByteOrder.LITTLE_ENDIAN);
+		TableView view = TableView.root(buffer);
+		assertEquals(3, view.getVectorLength(1));
+		assertEquals(1, view.getStructLong(1, 0, 16, 0));
+		assertEquals(4, view.getStructLong(1, 1, 16, 8));
+		assertEquals(5, view.getStructLong(1, 2, 16, 0));
+		int field = fieldPosition(buffer, buffer.getInt(0), 1);
+		assertEquals(0, (field + buffer.getInt(field) + 4) % 8);
+	}
+
+}
@@ -0,0 +1,285 @@
+/**
+ * This file is part of the RapidMiner Belt project.
+ * Copyright (C) 2017-2021 RapidMiner GmbH
+ *
+ * This program is free software: you can redistribute it and/or modify it under the terms of the GNU Affero General
+ * Public License as published by the Free Software Foundation, either version 3 of the License, or (at your option) any
+ * later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied
+ * warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU Affero General Public License along with this program. If not, see
+ * https://www.gnu.org/licenses/.
+ */
+
+package com.rapidminer.belt.table;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import org.junit.Test;
+
+import com.rapidminer.belt.column.Column;
+import com.rapidminer.belt.column.ColumnType;
+import com.rapidminer.belt.execution.Context;
+import com.rapidminer.belt.util.Belt;
+import com.rapidminer.belt.util.ColumnRole;
+
+
+/**
+ * Tests {@link GroupBy} and {@link Aggregation}.
+ *
+ * @author Michael Knopf
+ */
+public class GroupByTests {
+
+	private static final Context CTX = Belt.defaultContext();
+
+	private static final int N = 100_000;
+
+	private static final double EPSILON = 1e-9;
+
+	private static final List<Aggregation> AGGREGATIONS = Arrays.asList(
+			Aggregation.count("rows"),
+			Aggregation.count("value", "count"),
+			Aggregation.sum("value", "sum"),
+			Aggregation.min("value", "min"),
+			Aggregation.max("int", "max"),
+			Aggregation.mean("value", "mean"),
+			Aggregation.variance("value", "variance"),
+			Aggregation.median("value", "median"));
+
+	private static Table table(int n, long seed) {
+		Random random = new Random(seed);
+		String[] nominals = new String[n];
+		String[] others = new String[n];
+		double[] reals = new double[n];
+		double[] ints = new double[n];
+		double[] values = new double[n];
+		Instant[] instants = new Instant[n];
+		for (int i = 0; i < n; i++) {
+			nominals[i] = random.nextInt(20) == 0 ? null : "value" + random.nextInt(30);
+			others[i] = "other" + random.nextInt(3);
+			int r = random.nextInt(50);
+			reals[i] = r == 0 ? Double.NaN : r == 1 ? -0.0 : r == 2 ? 0.0 : r / 4.0;
+			ints[i] = random.nextInt(1000);
+			values[i] = random.nextInt(10) == 0 ? Double.NaN : random.nextGaussian() * 100;
+			instants[i] = random.nextInt(10) == 0 ? null : Instant.ofEpochSecond(random.nextInt(5), random.nextInt(2));
+		}
+		return Builders.newTableBuilder(n)
+				.addNominal("nominal", i -> nominals[i])
+				.addNominal("other", i -> others[i])
+				.addReal("real", i -> reals[i])
+				.addInt53Bit("int", i -> ints[i])
+				.addDateTime("datetime", i -> instants[i])
+				.addReal("value", i -> values[i])
+				.addText("text", i -> "a")
+				.build(CTX);
+	}
+
+	private static double[] readNumbers(Column column) {
+		double[] values = new double[column.size()];
+		column.fill(values, 0);
+		return values;
+	}
+
+	/**
+	 * Groups the rows naively via a boxed map and checks all aggregations of {@link #AGGREGATIONS}.
+	 */
+	private static void assertGroupBy(Table table, List<String> keys, Table result) {
+		List<List<Object>> keyValues = new ArrayList<>();
+		for (String label : keys) {
+			keyValues.add(TableTestUtils.readAll(table.column(label)));
+		}
+		Map<List<Object>, List<Integer>> groups = new LinkedHashMap<>();
+		for (int row = 0; row < table.height(); row++) {
+			List<Object> key = new ArrayList<>();
+			for (List<Object> column : keyValues) {
+				key.add(column.get(row));
+			}
+			groups.computeIfAbsent(key, k -> new ArrayList<>()).add(row);
+		}
+		assertEquals(groups.size(), result.height());
+		List<String> labels = new ArrayList<>(keys);
+		for (Aggregation aggregation : AGGREGATIONS) {
+			labels.add(aggregation.getLabel());
+		}
+		assertEquals(labels, result.labels());
+
+		double[] values = readNumbers(table.column("value"));
+		double[] ints = readNumbers(table.column("int"));
+		List<List<Object>> resultKeys = new ArrayList<>();
+		for (int k = 0; k < keys.size(); k++) {
+			resultKeys.add(TableTestUtils.readAll(result.column(k)));
+		}
+		Map<String, double[]> results = new LinkedHashMap<>();
+		for (Aggregation aggregation : AGGREGATIONS) {
+			results.put(aggregation.getLabel(), readNumbers(result.column(aggregation.getLabel())));
+		}
+		int group = 0;
+		for (Map.Entry<List<Object>, List<Integer>> entry : groups.entrySet()) {
+			for (int k = 0; k < keys.size(); k++) {
+				assertEquals(entry.getKey().get(k), resultKeys.get(k).get(group));
+			}
+			List<Integer> rows = entry.getValue();
+			double[] groupValues = rows.stream().mapToDouble(r -> values[r]).filter(v -> !Double.isNaN(v))
+					.sorted().toArray();
+			int n = groupValues.length;
+			double mean = Arrays.stream(groupValues).average().orElse(Double.NaN);
+			double squares = Arrays.stream(groupValues).map(v -> (v - mean) * (v - mean)).sum();
+			assertEquals(rows.size(), results.get("rows")[group], 0);
+			assertEquals(n, results.get("count")[group], 0);
+			assertEquals(Arrays.stream(groupValues).sum(), results.get("sum")[group], EPSILON);
+			assertEquals(n == 0 ? Double.NaN : groupValues[0], results.get("min")[group], 0);
+			assertEquals(rows.stream().mapToDouble(r -> ints[r]).max().getAsDouble(),
+					results.get("max")[group], 0);
+			assertEquals(mean, results.get("mean")[group], EPSILON);
+			assertEquals(n > 1 ? squares / (n - 1) : Double.NaN, results.get("variance")[group],
+					EPSILON);
+			double median = results.get("median")[group];
+			if (n == 0) {
+				assertTrue(Double.isNaN(median));
+			} else {
+				// the approximate median must be one of the values close to the middle
+				int index = Arrays.binarySearch(groupValues, median);
+				assertTrue(index >= 0);
+				assertEquals(0.5, (double) index / n, 0.05 + 1.0 / n);
+			}
+			group++;
+		}
+	}
+
+	private static void testGroupBy(String... keys) {
+		Table table = table(N, Arrays.hashCode(keys));
+		Table result = table.groupBy(keys).aggregate(AGGREGATIONS, CTX);
+		assertGroupBy(table, Arrays.asList(keys), result);
+	}
+
+	@Test
+	public void testNominal() {
+		testGroupBy("nominal");
+	}
+
+	@Test
+	public void testTwoNominals() {
+		testGroupBy("other", "nominal");
+	}
+
+	@Test
+	public void testReal() {
+		testGroupBy("real");
+	}
+
+	@Test
+	public void testInteger() {
+		testGroupBy("int");
+	}
+
+	@Test
+	public void testDateTime() {
+		testGroupBy("datetime");
+	}
+
+	@Test
+	public void testMixed() {
+		testGroupBy("nominal", "real", "datetime");
+	}
+
+	@Test
+	public void testSmall() {
+		Table table = table(100, 5L);
+		assertGroupBy(table, Collections.singletonList("nominal"),
+				table.groupBy("nominal").aggregate(AGGREGATIONS, CTX));
+	}
+
+	@Test
+	public void testLargeDictionary() {
+		Table table = Builders.newTableBuilder(N)
+				.addNominal("a", i -> "a" + (i % 1000))
+				.addNominal("b", i -> "b" + (i % 997))
+				.addReal("value", i -> i)
+				.build(CTX);
+		Table result = table.groupBy("a", "b").aggregate(Collections.singletonList(Aggregation.sum("value", "sum")),
+				CTX);
+		assertEquals(N, result.height());
+		assertEquals(N * (N - 1.0) / 2, Arrays.stream(readNumbers(result.column("sum"))).sum(), 0);
+	}
+
+	@Test
+	public void testEmpty() {
+		Table table = table(0, 3L);
+		Table result = table.groupBy("nominal", "real").aggregate(AGGREGATIONS, CTX);
+		assertEquals(0, result.height());
+		assertEquals(2 + AGGREGATIONS.size(), result.width());
+	}
+
+	@Test
+	public void testResultTypes() {
+		Table result = table(1000, 4L).groupBy("nominal").aggregate(AGGREGATIONS, CTX);
+		assertEquals(ColumnType.NOMINAL, result.column("nominal").type());
+		assertEquals(ColumnType.INTEGER_53_BIT, result.column("rows").type());
+		assertEquals(ColumnType.INTEGER_53_BIT, result.column("count").type());
+		assertEquals(ColumnType.REAL, result.column("min").type());
+		assertEquals(ColumnType.INTEGER_53_BIT, result.column("max").type());
+		assertEquals(ColumnType.REAL, result.column("variance").type());
+	}
+
+	@Test
+	public void testKeyMetaData() {
+		Table table = Builders.newTableBuilder(table(1000, 6L)).addMetaData("nominal", ColumnRole.LABEL).build(CTX);
+		Table result = table.groupBy("nominal").aggregate(AGGREGATIONS, CTX);
+		assertEquals(ColumnRole.LABEL, result.getFirstMetaData("nominal", ColumnRole.class));
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testTextKey() {
+		table(10, 1L).groupBy("text");
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testUnknownKey() {
+		table(10, 1L).groupBy("unknown");
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testDuplicateKey() {
+		table(10, 1L).groupBy("int", "int");
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testNominalAggregation() {
+		table(10, 1L).groupBy("int").aggregate(Collections.singletonList(Aggregation.sum("nominal", "sum")), CTX);
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testUnknownAggregationColumn() {
+		table(10, 1L).groupBy("int").aggregate(Collections.singletonList(Aggregation.sum("unknown", "sum")), CTX);
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testDuplicateLabel() {
+		table(10, 1L).groupBy("int").aggregate(Collections.singletonList(Aggregation.sum("value", "int")), CTX);
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testInvalidProbability() {
+		Aggregation.quantile("value", 1.5, "q");
+	}
+
+	@Test(expected = NullPointerException.class)
+	public void testNullContext() {
+		table(10, 1L).groupBy("int").aggregate(AGGREGATIONS, null);
+	}
+
+}
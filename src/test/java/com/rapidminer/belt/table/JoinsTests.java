@@ -0,0 +1,426 @@
+/**
+ * This file is part of the RapidMiner Belt project.
+ * Copyright (C) 2017-2021 RapidMiner GmbH
+ *
+ * This program is free software: you can redistribute it and/or modify it under the terms of the GNU Affero General
+ * Public License as published by the Free Software Foundation, either version 3 of the License, or (at your option) any
+ * later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied
+ * warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU Affero General Public License along with this program. If not, see
+ * https://www.gnu.org/licenses/.
+ */
+
+package com.rapidminer.belt.table;
+
+import static org.junit.Assert.assertEquals;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Test;
+
+import com.rapidminer.belt.column.ColumnType;
+import com.rapidminer.belt.execution.Context;
+import com.rapidminer.belt.util.Belt;
+import com.rapidminer.belt.util.ColumnRole;
+import com.rapidminer.belt.util.Order;
+
+
+/**
+ * Tests {@link Joins}.
+ *
+ * @author Michael Knopf
+ */
+public class JoinsTests {
+
+	private static final Context CTX = Belt.defaultContext();
+
+	private static Table left(int n, long seed) {
+		Random random = new Random(seed);
+		String[] nominals = new String[n];
+		double[] ints = new double[n];
+		Instant[] instants = new Instant[n];
+		for (int i = 0; i < n; i++) {
+			nominals[i] = random.nextInt(20) == 0 ? null : "value" + random.nextInt(40);
+			ints[i] = random.nextInt(20) == 0 ? Double.NaN : random.nextInt(10);
+			instants[i] = random.nextInt(20) == 0 ? null : Instant.ofEpochSecond(random.nextInt(5), random.nextInt(2));
+		}
+		return Builders.newTableBuilder(n)
+				.addNominal("nominal", i -> nominals[i])
+				.addInt53Bit("int", i -> ints[i])
+				.addDateTime("datetime", i -> instants[i])
+				.addReal("left", i -> i)
+				.addText("text", i -> "a")
+				.build(CTX);
+	}
+
+	private static Table right(int n, long seed) {
+		Random random = new Random(seed);
+		String[] nominals = new String[n];
+		double[] reals = new double[n];
+		Instant[] instants = new Instant[n];
+		for (int i = 0; i < n; i++) {
+			// different value range than the left table to ensure different dictionaries
+			nominals[i] = random.nextInt(20) == 0 ? null : "value" + (20 + random.nextInt(40));
+			reals[i] = random.nextInt(20) == 0 ? Double.NaN : random.nextInt(10);
+			instants[i] = random.nextInt(20) == 0 ? null : Instant.ofEpochSecond(random.nextInt(5), random.nextInt(2));
+		}
+		return Builders.newTableBuilder(n)
+				.addNominal("nominal", i -> nominals[i])
+				.addReal("int", i -> reals[i])
+				.addDateTime("datetime", i -> instants[i])
+				.addReal("right", i -> i)
+				.build(CTX);
+	}
+
+	private static List<List<Object>> keys(Table table, List<String> labels) {
+		List<List<Object>> columns = new ArrayList<>();
+		for (String label : labels) {
+			columns.add(TableTestUtils.readAllWithNulls(table.column(label)));
+		}
+		List<List<Object>> keys = new ArrayList<>();
+		for (int row = 0; row < table.height(); row++) {
+			List<Object> key = new ArrayList<>();
+			for (List<Object> column : columns) {
+				key.add(column.get(row));
+			}
+			keys.add(key.contains(null) ? null : key);
+		}
+		return keys;
+	}
+
+	/**
+	 * Joins the tables naively via a nested loop and compares the row indices stored in the columns {@code left} and
+	 * {@code right} as well as the key columns.
+	 */
+	private static void assertJoin(Table left, Table right, List<String> keys, Joins.Type type, Table result) {
+		List<List<Object>> leftKeys = keys(left, keys);
+		List<List<Object>> rightKeys = keys(right, keys);
+		List<Object> leftIds = TableTestUtils.readAllWithNulls(left.column("left"));
+		List<Object> rightIds = TableTestUtils.readAllWithNulls(right.column("right"));
+		List<Integer> expectedLeftRows = new ArrayList<>();
+		List<Object> expectedLeft = new ArrayList<>();
+		List<Object> expectedRight = new ArrayList<>();
+		for (int i = 0; i < left.height(); i++) {
+			boolean matched = false;
+			for (int j = 0; j < right.height(); j++) {
+				if (leftKeys.get(i) != null && leftKeys.get(i).equals(rightKeys.get(j))) {
+					if (!matched && type == Joins.Type.SEMI) {
+						expectedLeftRows.add(i);
+					} else if (type == Joins.Type.INNER || type == Joins.Type.LEFT) {
+						expectedLeftRows.add(i);
+						expectedRight.add(rightIds.get(j));
+					}
+					matched = true;
+				}
+			}
+			if (!matched && (type == Joins.Type.LEFT || type == Joins.Type.ANTI)) {
+				expectedLeftRows.add(i);
+				expectedRight.add(null);
+			}
+		}
+		for (int row : expectedLeftRows) {
+			expectedLeft.add(leftIds.get(row));
+		}
+		assertEquals(expectedLeft, TableTestUtils.readAllWithNulls(result.column("left")));
+		if (type == Joins.Type.INNER || type == Joins.Type.LEFT) {
+			assertEquals(expectedRight, TableTestUtils.readAllWithNulls(result.column("right")));
+			List<String> labels = new ArrayList<>(left.labels());
+			labels.add("right");
+			assertEquals(labels, result.labels());
+		} else {
+			assertEquals(left.labels(), result.labels());
+		}
+		assertEquals(expectedLeft.size(), result.height());
+		for (String key : keys) {
+			List<Object> values = TableTestUtils.readAllWithNulls(left.column(key));
+			List<Object> resultValues = TableTestUtils.readAllWithNulls(result.column(key));
+			for (int i = 0; i < expectedLeftRows.size(); i++) {
+				assertEquals(values.get(expectedLeftRows.get(i)), resultValues.get(i));
+			}
+		}
+	}
+
+	private static void testAllTypes(int leftHeight, int rightHeight, String... keys) {
+		Table left = left(leftHeight, Arrays.hashCode(keys));
+		List<String> rightLabels = new ArrayList<>(Arrays.asList(keys));
+		rightLabels.add("right");
+		Table right = right(rightHeight, 31L * Arrays.hashCode(keys)).columns(rightLabels);
+		List<String> keyList = Arrays.asList(keys);
+		for (Joins.Type type : Joins.Type.values()) {
+			assertJoin(left, right, keyList, type, Joins.hashJoin(left, right, keyList, type, CTX));
+		}
+
+		Table sortedLeft = sort(left, keyList);
+		Table sortedRight = sort(right, keyList);
+		for (Joins.Type type : Joins.Type.values()) {
+			assertJoin(sortedLeft, sortedRight, keyList, type,
+					Joins.mergeJoin(sortedLeft, sortedRight, keyList, type, CTX));
+		}
+	}
+
+	private static Table sort(Table table, List<String> keys) {
+		return table.sort(keys.stream().mapToInt(table::index).toArray(), Order.ASCENDING, CTX);
+	}
+
+	@Test
+	public void testNominal() {
+		testAllTypes(2000, 300, "nominal");
+	}
+
+	@Test
+	public void testIntegerAndReal() {
+		testAllTypes(2000, 100, "int");
+	}
+
+	@Test
+	public void testDateTime() {
+		testAllTypes(2000, 100, "datetime");
+	}
+
+	@Test
+	public void testMultipleKeys() {
+		testAllTypes(2000, 500, "nominal", "int", "datetime");
+	}
+
+	@Test
+	public void testLargeLeft() {
+		testAllTypes(100_000, 20, "nominal", "int");
+	}
+
+	@Test
+	public void testEmpty() {
+		testAllTypes(0, 100, "nominal");
+		testAllTypes(100, 0, "nominal");
+	}
+
+	@Test
+	public void testDifferentKeyLabels() {
+		Table left = Builders.newTableBuilder(4)
+				.addNominal("a", i -> "v" + i)
+				.build(CTX);
+		Table right = Builders.newTableBuilder(3)
+				.addNominal("b", i -> "v" + (3 - i))
+				.addReal("value", i -> i)
+				.build(CTX);
+		Table result = Joins.hashJoin(left, right, Collections.singletonList("a"), Collections.singletonList("b"),
+				Joins.Type.LEFT, CTX);
+		assertEquals(Arrays.asList("a", "value"), result.labels());
+		assertEquals(Arrays.asList("v0", "v1", "v2", "v3"), TableTestUtils.readAllWithNulls(result.column("a")));
+		assertEquals(Arrays.asList(null, 2.0, 1.0, 0.0), TableTestUtils.readAllWithNulls(result.column("value")));
+	}
+
+	@Test
+	public void testMergeDifferentDictionaryOrder() {
+		// the category indices are in a different order than the values
+		Table left = sort(Builders.newTableBuilder(6)
+				.addNominal("key", i -> i == 5 ? null : "v" + (5 - i))
+				.addReal("left", i -> i)
+				.build(CTX), Collections.singletonList("key"));
+		Table right = sort(Builders.newTableBuilder(4)
+				.addNominal("key", i -> "v" + (2 * i))
+				.addReal("right", i -> i)
+				.build(CTX), Collections.singletonList("key"));
+		for (Joins.Type type : Joins.Type.values()) {
+			List<String> keys = Collections.singletonList("key");
+			assertJoin(left, right, keys, type, Joins.mergeJoin(left, right, keys, type, CTX));
+		}
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testMergeUnsortedLeft() {
+		Table left = left(1000, 3L);
+		Table right = sort(right(100, 4L).columns(Arrays.asList("int", "right")), Collections.singletonList("int"));
+		Joins.mergeJoin(left, right, Collections.singletonList("int"), Joins.Type.LEFT, CTX);
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testMergeUnsortedRight() {
+		Table left = sort(left(1000, 3L), Collections.singletonList("int"));
+		Table right = right(1000, 4L).columns(Arrays.asList("int", "right"));
+		Joins.mergeJoin(left, right, Collections.singletonList("int"), Joins.Type.INNER, CTX);
+	}
+
+	/**
+	 * Finds the latest preceding right row naively for every left row and compares the row indices stored in the
+	 * columns {@code left} and {@code right}.
+	 */
+	private static void assertAsOf(Table left, Table right, String key, List<String> by, double tolerance) {
+		Table result = Joins.asOfJoin(left, right, key, by, tolerance, CTX);
+		List<List<Object>> leftBy = keys(left, by);
+		List<List<Object>> rightBy = keys(right, by);
+		List<Object> leftKeys = TableTestUtils.readAllWithNulls(left.column(key));
+		List<Object> rightKeys = TableTestUtils.readAllWithNulls(right.column(key));
+		List<Object> rightIds = TableTestUtils.readAllWithNulls(right.column("right"));
+		List<Object> expected = new ArrayList<>();
+		for (int i = 0; i < left.height(); i++) {
+			Object match = null;
+			double leftKey = toDouble(leftKeys.get(i));
+			if (leftBy.get(i) != null && leftKeys.get(i) != null) {
+				double best = Double.NEGATIVE_INFINITY;
+				for (int j = 0; j < right.height(); j++) {
+					if (leftBy.get(i).equals(rightBy.get(j)) && rightKeys.get(j) != null) {
+						double rightKey = toDouble(rightKeys.get(j));
+						if (rightKey <= leftKey && rightKey >= best && leftKey - rightKey <= tolerance) {
+							best = rightKey;
+							match = rightIds.get(j);
+						}
+					}
+				}
+			}
+			expected.add(match);
+		}
+		assertEquals(left.height(), result.height());
+		assertEquals(TableTestUtils.readAllWithNulls(left.column("left")),
+				TableTestUtils.readAllWithNulls(result.column("left")));
+		assertEquals(expected, TableTestUtils.readAllWithNulls(result.column("right")));
+	}
+
+	private static double toDouble(Object value) {
+		if (value instanceof Instant) {
+			return ((Instant) value).getEpochSecond() + ((Instant) value).getNano() / 1e9;
+		}
+		return value == null ? Double.NaN : (Double) value;
+	}
+
+	private static void testAsOf(int leftHeight, int rightHeight, String key, double tolerance, String... by) {
+		List<String> byList = Arrays.asList(by);
+		List<String> sortLabels = new ArrayList<>(byList);
+		sortLabels.add(key);
+		List<String> rightLabels = new ArrayList<>(sortLabels);
+		rightLabels.add("right");
+		Table left = sort(left(leftHeight, 7L * leftHeight).columns(Arrays.asList("nominal", "int", "datetime",
+				"left")), sortLabels);
+		Table right = sort(right(rightHeight, 11L * rightHeight).columns(rightLabels), sortLabels);
+		assertAsOf(left, right, key, byList, tolerance);
+	}
+
+	@Test
+	public void testAsOfNumeric() {
+		testAsOf(2000, 50, "int", Double.POSITIVE_INFINITY);
+	}
+
+	@Test
+	public void testAsOfNumericTolerance() {
+		testAsOf(2000, 50, "int", 0);
+	}
+
+	@Test
+	public void testAsOfDateTimeBy() {
+		testAsOf(2000, 500, "datetime", Double.POSITIVE_INFINITY, "nominal");
+	}
+
+	@Test
+	public void testAsOfDateTimeTolerance() {
+		testAsOf(2000, 500, "datetime", 1.5, "nominal");
+	}
+
+	@Test
+	public void testAsOfLarge() {
+		testAsOf(100_000, 100, "datetime", 2, "nominal");
+	}
+
+	@Test
+	public void testAsOfDifferentLabels() {
+		Table left = Builders.newTableBuilder(5)
+				.addDateTime("time", i -> Instant.ofEpochSecond(10L * i))
+				.build(CTX);
+		Table right = Builders.newTableBuilder(3)
+				.addDateTime("timestamp", i -> Instant.ofEpochSecond(15L * i + 1))
+				.addReal("quote", i -> i)
+				.build(CTX);
+		Table result = Joins.asOfJoin(left, right, "time", "timestamp", Collections.emptyList(),
+				Collections.emptyList(), 9, CTX);
+		assertEquals(Arrays.asList("time", "quote"), result.labels());
+		assertEquals(Arrays.asList(null, 0.0, 1.0, null, 2.0), TableTestUtils.readAllWithNulls(result.column("quote")));
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testAsOfNominalKey() {
+		Joins.asOfJoin(left(10, 1L), right(10, 1L).columns(Arrays.asList("nominal", "right")), "nominal",
+				Collections.emptyList(), CTX);
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testAsOfNegativeTolerance() {
+		Joins.asOfJoin(left(10, 1L), right(10, 1L).columns(Arrays.asList("int", "right")), "int",
+				Collections.emptyList(), -1, CTX);
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testAsOfUnsorted() {
+		Joins.asOfJoin(sort(left(100, 1L), Collections.singletonList("int")),
+				right(100, 1L).columns(Arrays.asList("int", "right")), "int", Collections.emptyList(), CTX);
+	}
+
+	@Test
+	public void testMetaData() {
+		Table left = Builders.newTableBuilder(left(100, 1L)).addMetaData("left", ColumnRole.ID).build(CTX);
+		Table right = Builders.newTableBuilder(right(100, 2L).columns(Arrays.asList("nominal", "right")))
+				.addMetaData("right", ColumnRole.LABEL).build(CTX);
+		Table result = Joins.hashJoin(left, right, Collections.singletonList("nominal"), Joins.Type.INNER, CTX);
+		assertEquals(ColumnRole.ID, result.getFirstMetaData("left", ColumnRole.class));
+		assertEquals(ColumnRole.LABEL, result.getFirstMetaData("right", ColumnRole.class));
+		assertEquals(ColumnType.NOMINAL, result.column("nominal").type());
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testIncompatibleKeys() {
+		Joins.hashJoin(left(10, 1L), right(10, 1L), Collections.singletonList("nominal"),
+				Collections.singletonList("int"), Joins.Type.INNER, CTX);
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testTextKeys() {
+		Table left = left(10, 1L);
+		Joins.hashJoin(left, left.columns(Collections.singletonList("text")), Collections.singletonList("text"),
+				Joins.Type.INNER, CTX);
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testUnknownKey() {
+		Joins.hashJoin(left(10, 1L), right(10, 1L), Collections.singletonList("left"), Joins.Type.INNER, CTX);
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testEmptyKeys() {
+		Joins.hashJoin(left(10, 1L), right(10, 1L), Collections.emptyList(), Joins.Type.INNER, CTX);
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testDifferentNumberOfKeys() {
+		Joins.hashJoin(left(10, 1L), right(10, 1L), Arrays.asList("nominal", "int"),
+				Collections.singletonList("nominal"), Joins.Type.INNER, CTX);
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testDuplicateResultLabel() {
+		Joins.hashJoin(left(10, 1L), left(10, 1L), Collections.singletonList("nominal"), Joins.Type.INNER, CTX);
+	}
+
+	@Test
+	public void testDuplicateLabelSemi() {
+		Table left = left(10, 1L);
+		Table result = Joins.hashJoin(left, left, Collections.singletonList("nominal"), Joins.Type.SEMI, CTX);
+		assertEquals(left.labels(), result.labels());
+	}
+
+	@Test(expected = NullPointerException.class)
+	public void testNullType() {
+		Joins.hashJoin(left(10, 1L), right(10, 1L), Collections.singletonList("nominal"), null, CTX);
+	}
+
+	@Test(expected = NullPointerException.class)
+	public void testNullRight() {
+		Joins.hashJoin(left(10, 1L), null, Collections.singletonList("nominal"), Joins.Type.INNER, CTX);
+	}
+
+}
@@ -0,0 +1,197 @@
+/**
+ * This file is part of the RapidMiner Belt project.
+ * Copyright (C) 2017-2021 RapidMiner GmbH
+ *
+ * This program is free software: you can redistribute it and/or modify it under the terms of the GNU Affero General
+ * Public License as published by the Free Software Foundation, either version 3 of the License, or (at your option) any
+ * later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied
+ * warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU Affero General Public License along with this program. If not, see
+ * https://www.gnu.org/licenses/.
+ */
+
+
+package com.rapidminer.belt.table;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+import java.time.Instant;
+import java.time.LocalTime;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.Random;
+import java.util.Set;
+import java.util.stream.IntStream;
+
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import com.rapidminer.belt.column.Column;
+import com.rapidminer.belt.execution.Context;
+import com.rapidminer.belt.util.Belt;
+
+
+/**
+ * Tests {@link Table#filterIn(String, Column, Context)} and {@link MembershipFilter}.
+ *
+ * @author Michael Knopf
+ */
+public class MembershipFilterTests {
+
+	private static final Context CTX = Belt.defaultContext();
+
+	private static final int N = 100_000;
+
+	private static Table table;
+
+	private static Table values;
+
+	@BeforeClass
+	public static void createTables() {
+		// not created in a static initializer since the builder calls the lambdas in parallel
+		table = table(N, 7L);
+		values = table(500, 8L);
+	}
+
+	private static Table table(int n, long seed) {
+		Random random = new Random(seed);
+		String[] nominals = new String[n];
+		double[] reals = new double[n];
+		double[] ints = new double[n];
+		LocalTime[] times = new LocalTime[n];
+		Instant[] instants = new Instant[n];
+		String[] texts = new String[n];
+		for (int i = 0; i < n; i++) {
+			boolean missing = random.nextInt(20) == 0;
+			nominals[i] = missing ? null : "value" + random.nextInt(3000);
+			int r = random.nextInt(2000);
+			reals[i] = missing ? Double.NaN : r == 0 ? -0.0 : r / 4.0;
+			ints[i] = missing ? Double.NaN : random.nextInt(3000);
+			times[i] = missing ? null : LocalTime.ofSecondOfDay(random.nextInt(3000));
+			instants[i] = missing ? null : Instant.ofEpochSecond(random.nextInt(100), random.nextInt(30));
+			texts[i] = missing ? null : "text" + random.nextInt(3000);
+		}
+		return Builders.newTableBuilder(n)
+				.addNominal("nominal", i -> nominals[i])
+				.addReal("real", i -> reals[i])
+				.addInt53Bit("int", i -> ints[i])
+				.addTime("time", i -> times[i])
+				.addDateTime("datetime", i -> instants[i])
+				.addText("text", i -> texts[i])
+				.build(CTX);
+	}
+
+	/**
+	 * Filters naively via a boxed set.
+	 */
+	private static int[] expected(Column column, Column valueColumn) {
+		Set<Object> set = new HashSet<>(TableTestUtils.readAllWithNulls(valueColumn));
+		set.remove(null);
+		List<Object> list = TableTestUtils.readAllWithNulls(column);
+		return IntStream.range(0, list.size())
+				.filter(i -> list.get(i) != null && set.contains(list.get(i))).toArray();
+	}
+
+	private static void assertFilterIn(String label, Column valueColumn) {
+		Column column = table.column(label);
+		int[] expected = expected(column, valueColumn);
+		assertArrayEquals(expected, MembershipFilter.filter(column, valueColumn, CTX));
+		Table filtered = table.filterIn(label, valueColumn, CTX);
+		assertEquals(expected.length, filtered.height());
+		assertEquals(TableTestUtils.readAllWithNulls(table.rows(expected, false, CTX).column("text")),
+				TableTestUtils.readAllWithNulls(filtered.column("text")));
+	}
+
+	@Test
+	public void testNominal() {
+		assertFilterIn("nominal", values.column("nominal"));
+	}
+
+	@Test
+	public void testNominalUnusedDictionaryEntries() {
+		// the view keeps the full dictionary but only uses some of its entries
+		Column valueColumn = values.column("nominal").rows(new int[]{1, 2, 3, 5, 8, 13}, true);
+		assertEquals(values.column("nominal").getDictionary(), valueColumn.getDictionary());
+		assertFilterIn("nominal", valueColumn);
+	}
+
+	@Test
+	public void testReal() {
+		assertFilterIn("real", values.column("real"));
+	}
+
+	@Test
+	public void testRealAndInteger() {
+		assertFilterIn("real", values.column("int"));
+		assertFilterIn("int", values.column("real"));
+	}
+
+	@Test
+	public void testZeros() {
+		Table zeros = Builders.newTableBuilder(2).addReal("zero", i -> i == 0 ? 0.0 : -0.0).build(CTX);
+		int[] rows = MembershipFilter.filter(table.column("real"), zeros.column("zero").rows(new int[]{0}, true),
+				CTX);
+		assertArrayEquals(expected(table.column("real"), zeros.column("zero")), rows);
+	}
+
+	@Test
+	public void testTime() {
+		assertFilterIn("time", values.column("time"));
+	}
+
+	@Test
+	public void testDateTime() {
+		assertFilterIn("datetime", values.column("datetime"));
+	}
+
+	@Test
+	public void testText() {
+		assertFilterIn("text", values.column("text"));
+	}
+
+	@Test
+	public void testSelf() {
+		Column column = table.column("int");
+		int[] rows = MembershipFilter.filter(column, column, CTX);
+		assertEquals(TableTestUtils.readAllWithNulls(column).stream().filter(Objects::nonNull).count(), rows.length);
+	}
+
+	@Test
+	public void testEmptyValues() {
+		assertEquals(0, table.filterIn("nominal", values.column("nominal").stripData(), CTX).height());
+		assertEquals(0, table.filterIn("real", values.column("real").stripData(), CTX).height());
+		assertEquals(0, table.filterIn("text", values.column("text").stripData(), CTX).height());
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testIncompatible() {
+		table.filterIn("nominal", values.column("text"), CTX);
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testTimeAndReal() {
+		table.filterIn("time", values.column("real"), CTX);
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testUnknownLabel() {
+		table.filterIn("unknown", values.column("real"), CTX);
+	}
+
+	@Test(expected = NullPointerException.class)
+	public void testNullValues() {
+		table.filterIn("real", null, CTX);
+	}
+
+	@Test(expected = NullPointerException.class)
+	public void testNullContext() {
+		table.filterIn("real", values.column("real"), null);
+	}
+
+}
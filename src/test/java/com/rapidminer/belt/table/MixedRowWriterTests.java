@@ -606,6 +606,98 @@ public class MixedRowWriterTests {
 	}
 
 
+	public static class BulkAppend {
+
+		@Test
+		public void testMixedWithMove() {
+			int n = 3000;
+			double[] reals = random(n);
+			String[] nominals = new String[n];
+			Instant[] instants = new Instant[n];
+			Object[] times = new Object[n];
+			for (int i = 0; i < n; i++) {
+				nominals[i] = i % 7 == 0 ? null : "value" + (i % 13);
+				instants[i] = Instant.ofEpochSecond(i, i % 5);
+				times[i] = LocalTime.ofNanoOfDay(i);
+			}
+			MixedRowWriter writer = Writers.mixedRowWriter(Arrays.asList("real", "nominal", "datetime", "time"),
+					Arrays.asList(TypeId.REAL, TypeId.NOMINAL, TypeId.DATE_TIME, TypeId.TIME), false);
+			Object[] values = {reals, nominals, instants, times};
+			int row = 0;
+			for (int block : new int[]{7, 1000, 300, 300, 0, 1393}) {
+				if (block % 2 == 0) {
+					writer.append(values, row, block);
+				} else {
+					for (int i = row; i < row + block; i++) {
+						writer.move();
+						writer.set(0, reals[i]);
+						writer.set(1, nominals[i]);
+						writer.set(2, instants[i]);
+						writer.set(3, times[i]);
+					}
+				}
+				row += block;
+			}
+			Object[][] result = readTableToArray(writer.create());
+			assertArrayEquals(Arrays.stream(reals).boxed().toArray(), result[0]);
+			assertArrayEquals(nominals, result[1]);
+			assertArrayEquals(instants, result[2]);
+			assertArrayEquals(times, result[3]);
+		}
+
+		@Test
+		public void testInitializeAfterAppend() {
+			MixedRowWriter writer = Writers.mixedRowWriter(Arrays.asList("real", "text"),
+					Arrays.asList(TypeId.REAL, TypeId.TEXT), true);
+			writer.append(new Object[]{new double[]{1, 2}, new String[]{"a", "b"}}, 0, 2);
+			writer.move();
+			Object[][] result = readTableToArray(writer.create());
+			assertArrayEquals(new Object[]{1.0, 2.0, Double.NaN}, result[0]);
+			assertArrayEquals(new Object[]{"a", "b", null}, result[1]);
+		}
+
+		@Test
+		public void testSetAfterAppend() {
+			MixedRowWriter writer = Writers.mixedRowWriter(Arrays.asList("real", "text"),
+					Arrays.asList(TypeId.REAL, TypeId.TEXT), true);
+			writer.append(new Object[]{new double[]{1, 2}, new String[]{"a", "b"}}, 0, 2);
+			writer.set(0, 3);
+			writer.set(1, "c");
+			writer.move();
+			writer.set(1, "d");
+			writer.append(new Object[]{new double[]{4}, new String[]{"e"}}, 0, 1);
+			writer.set(1, "f");
+			Object[][] result = readTableToArray(writer.create());
+			assertArrayEquals(new Object[]{1.0, 3.0, Double.NaN, 4.0}, result[0]);
+			assertArrayEquals(new Object[]{"a", "c", "d", "f"}, result[1]);
+		}
+
+		@Test(expected = IllegalArgumentException.class)
+		public void testNumericNotDouble() {
+			Writers.mixedRowWriter(Arrays.asList("real", "text"), Arrays.asList(TypeId.REAL, TypeId.TEXT), false)
+					.append(new Object[]{new String[1], new String[1]}, 0, 1);
+		}
+
+		@Test(expected = IllegalArgumentException.class)
+		public void testObjectNotArray() {
+			Writers.mixedRowWriter(Arrays.asList("real", "text"), Arrays.asList(TypeId.REAL, TypeId.TEXT), false)
+					.append(new Object[]{new double[1], new double[1]}, 0, 1);
+		}
+
+		@Test(expected = ClassCastException.class)
+		public void testWrongElementType() {
+			Writers.mixedRowWriter(Arrays.asList("real", "text"), Arrays.asList(TypeId.REAL, TypeId.TEXT), false)
+					.append(new Object[]{new double[1], new Object[]{1}}, 0, 1);
+		}
+
+		@Test(expected = IndexOutOfBoundsException.class)
+		public void testOutOfBounds() {
+			Writers.mixedRowWriter(Arrays.asList("real", "text"), Arrays.asList(TypeId.REAL, TypeId.TEXT), false)
+					.append(new Object[]{new double[2], new String[1]}, 0, 2);
+		}
+
+	}
+
 	public static class Freezing {
 
 		@Test(expected = IllegalStateException.class)
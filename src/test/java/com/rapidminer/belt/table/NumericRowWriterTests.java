@@ -698,6 +698,121 @@ public class NumericRowWriterTests {
 		}
 	}
 
+	public static class BulkAppend {
+
+		private static double[][] interleave(NumericRowWriter writer, double[][] data, int[] blocks) {
+			int row = 0;
+			boolean bulk = false;
+			for (int block : blocks) {
+				if (bulk) {
+					writer.append(data, row, block);
+				} else {
+					for (int i = row; i < row + block; i++) {
+						writer.move();
+						for (int j = 0; j < data.length; j++) {
+							writer.set(j, data[j][i]);
+						}
+					}
+				}
+				row += block;
+				bulk = !bulk;
+			}
+			double[][] expected = new double[data.length][];
+			Arrays.setAll(expected, j -> Arrays.copyOf(data[j], Arrays.stream(blocks).sum()));
+			return expected;
+		}
+
+		@Test
+		public void testMixedWithMove() {
+			double[][] data = {random(5000), random(5000)};
+			NumericRowWriter writer = Writers.realRowWriter(Arrays.asList("a", "b"), false);
+			int[] blocks = {10, 1000, 5, 0, 300, 256, 3000, 1};
+			double[][] expected = interleave(writer, data, blocks);
+			assertArrayEquals(expected, readTableToArray(writer.create()));
+		}
+
+		@Test
+		public void testOnlyAppend() {
+			double[][] data = {random(1000)};
+			NumericRowWriter writer = Writers.realRowWriter(Collections.singletonList("a"), 10, true);
+			writer.append(data, 0, 400);
+			writer.append(data, 400, 600);
+			assertArrayEquals(data, readTableToArray(writer.create()));
+		}
+
+		@Test
+		public void testInitializeAfterAppend() {
+			NumericRowWriter writer = Writers.realRowWriter(Collections.singletonList("a"), true);
+			writer.append(new double[][]{{1, 2, 3}}, 1, 2);
+			writer.move();
+			writer.move();
+			writer.set(0, 4);
+			assertArrayEquals(new double[][]{{2, 3, Double.NaN, 4}}, readTableToArray(writer.create()));
+		}
+
+		@Test
+		public void testSetAfterAppend() {
+			NumericRowWriter writer = Writers.realRowWriter(Arrays.asList("a", "b"), true);
+			writer.append(new double[][]{{1, 2, 3}, {4, 5, 6}}, 0, 3);
+			writer.set(1, 7);
+			writer.move();
+			writer.set(0, 8);
+			writer.append(new double[][]{{9}, {10}}, 0, 1);
+			writer.set(0, 11);
+			assertArrayEquals(new double[][]{{1, 2, 3, 8, 11}, {4, 5, 7, Double.NaN, 10}},
+					readTableToArray(writer.create()));
+		}
+
+		@Test
+		public void testSetAfterLargeAppend() {
+			double[][] data = {random(5000)};
+			NumericRowWriter writer = Writers.realRowWriter(Collections.singletonList("a"), false);
+			writer.append(data, 0, 5000);
+			writer.set(0, -1);
+			double[][] expected = {data[0].clone()};
+			expected[0][4999] = -1;
+			assertArrayEquals(expected, readTableToArray(writer.create()));
+		}
+
+		@Test
+		public void testIntegerRounding() {
+			NumericRowWriter writer = Writers.numericRowWriter(Arrays.asList("a", "b"),
+					Arrays.asList(TypeId.INTEGER_53_BIT, TypeId.REAL), false);
+			writer.append(new double[][]{{1.4, 2.5, Double.NaN}, {1.4, 2.5, Double.NaN}}, 0, 3);
+			assertArrayEquals(new double[][]{{1, 3, Double.NaN}, {1.4, 2.5, Double.NaN}},
+					readTableToArray(writer.create()));
+		}
+
+		@Test
+		public void testSparse() {
+			int n = 300_000;
+			double[][] data = {sparseRandom(n, true), sparseRandom(n, 7)};
+			NumericRowWriter writer = Writers.realRowWriter(Arrays.asList("a", "b"), false);
+			int[] blocks = {100, 150_000, 1000, n - 151_100};
+			double[][] expected = interleave(writer, data, blocks);
+			assertTrue(writer.getColumns()[0] instanceof RealColumnWriterSparse);
+			assertTrue(writer.getColumns()[1] instanceof RealColumnWriterSparse);
+			assertArrayEquals(expected, readTableToArray(writer.create()));
+		}
+
+		@Test(expected = IllegalArgumentException.class)
+		public void testWrongWidth() {
+			Writers.realRowWriter(Arrays.asList("a", "b"), false).append(new double[1][1], 0, 1);
+		}
+
+		@Test(expected = IndexOutOfBoundsException.class)
+		public void testOutOfBounds() {
+			Writers.realRowWriter(Arrays.asList("a", "b"), false).append(new double[][]{new double[3], new double[2]},
+					0, 3);
+		}
+
+		@Test(expected = NullPointerException.class)
+		public void testNullArray() {
+			Writers.realRowWriter(Arrays.asList("a", "b"), false).append(new double[][]{new double[3], null}, 0, 3);
+		}
+
+	}
+
 	public static class ToString {
 
 		@Test
@@ -0,0 +1,207 @@
+/**
+ * This file is part of the RapidMiner Belt project.
+ * Copyright (C) 2017-2021 RapidMiner GmbH
+ *
+ * This program is free software: you can redistribute it and/or modify it under the terms of the GNU Affero General
+ * Public License as published by the Free Software Foundation, either version 3 of the License, or (at your option) any
+ * later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied
+ * warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU Affero General Public License along with this program. If not, see
+ * https://www.gnu.org/licenses/.
+ */
+
+
+package com.rapidminer.belt.table;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import org.junit.Test;
+
+import com.rapidminer.belt.column.Column;
+import com.rapidminer.belt.column.Column.TypeId;
+import com.rapidminer.belt.column.ColumnType;
+import com.rapidminer.belt.execution.Context;
+import com.rapidminer.belt.reader.MixedRowReader;
+import com.rapidminer.belt.reader.Readers;
+import com.rapidminer.belt.util.Belt;
+
+
+/**
+ * Tests {@link PartitionedRowWriter}.
+ *
+ * @author Michael Knopf
+ */
+public class PartitionedRowWriterTests {
+
+	private static final Context CTX = Belt.defaultContext();
+
+	private static final List<String> LABELS = Arrays.asList("real", "int", "nominal", "datetime", "text");
+
+	private static final List<TypeId> TYPES = Arrays.asList(TypeId.REAL, TypeId.INTEGER_53_BIT, TypeId.NOMINAL,
+			TypeId.DATE_TIME, TypeId.TEXT);
+
+	private static void writeRow(MixedRowWriter writer, int row) {
+		writer.move();
+		writer.set(0, row % 11 == 0 ? Double.NaN : row * 0.5);
+		writer.set(1, row);
+		// the partitions see the categories in different orders
+		writer.set(2, row % 13 == 0 ? null : "value" + ((row * 7) % 23));
+		writer.set(3, Instant.ofEpochSecond(row, row % 3));
+		writer.set(4, "text" + row);
+	}
+
+	private static void assertTableEquals(Table expected, Table actual) {
+		assertEquals(expected.labels(), actual.labels());
+		assertEquals(expected.height(), actual.height());
+		for (int i = 0; i < expected.width(); i++) {
+			assertEquals(expected.column(i).type(), actual.column(i).type());
+		}
+		MixedRowReader expectedReader = Readers.mixedRowReader(expected);
+		MixedRowReader actualReader = Readers.mixedRowReader(actual);
+		while (expectedReader.hasRemaining()) {
+			expectedReader.move();
+			actualReader.move();
+			for (int i = 0; i < expected.width(); i++) {
+				Column column = expected.column(i);
+				if (column.type().category() == Column.Category.NUMERIC) {
+					assertEquals(expectedReader.getNumeric(i), actualReader.getNumeric(i), 0);
+				} else {
+					assertEquals(expectedReader.getObject(i), actualReader.getObject(i));
+				}
+			}
+		}
+	}
+
+	private static Table sequential(int height) {
+		MixedRowWriter writer = Writers.mixedRowWriter(LABELS, TYPES, false);
+		for (int row = 0; row < height; row++) {
+			writeRow(writer, row);
+		}
+		return writer.create();
+	}
+
+	@Test
+	public void testParallelRanges() {
+		int height = 50_000;
+		int partitions = 7;
+		int rowsPerPartition = (height + partitions - 1) / partitions;
+		PartitionedRowWriter writer = Writers.partitionedRowWriter(LABELS, TYPES, partitions, rowsPerPartition,
+				false);
+		IntStream.range(0, partitions).parallel().forEach(p -> {
+			MixedRowWriter partition = writer.partition(p);
+			for (int row = p * rowsPerPartition; row < Math.min(height, (p + 1) * rowsPerPartition); row++) {
+				writeRow(partition, row);
+			}
+		});
+		assertTableEquals(sequential(height), writer.create(CTX));
+	}
+
+	@Test
+	public void testUnknownSizes() {
+		int[] sizes = {0, 1000, 1, 0, 4321};
+		PartitionedRowWriter writer = Writers.partitionedRowWriter(LABELS, TYPES, sizes.length + 1, true);
+		IntStream.range(0, sizes.length).parallel().forEach(p -> {
+			MixedRowWriter partition = writer.partition(p);
+			int start = Arrays.stream(sizes, 0, p).sum();
+			for (int row = start; row < start + sizes[p]; row++) {
+				writeRow(partition, row);
+			}
+		});
+		Table table = writer.create(CTX);
+		assertTableEquals(sequential(Arrays.stream(sizes).sum()), table);
+		assertEquals(ColumnType.NOMINAL, table.column("nominal").type());
+	}
+
+	@Test
+	public void testInitialize() {
+		PartitionedRowWriter writer = Writers.partitionedRowWriter(LABELS, TYPES, 2, 5, true);
+		writer.partition(1).move();
+		writer.partition(0).move();
+		writer.partition(0).set(0, 1.5);
+		Table table = writer.create(CTX);
+		assertEquals(2, table.height());
+		double[] reals = new double[2];
+		table.column("real").fill(reals, 0);
+		assertEquals(1.5, reals[0], 0);
+		assertEquals(Double.NaN, reals[1], 0);
+		Object[] nominals = new Object[2];
+		table.column("nominal").fill(nominals, 0);
+		assertArrayEquals(new Object[2], nominals);
+	}
+
+	@Test
+	public void testSinglePartition() {
+		PartitionedRowWriter writer = Writers.partitionedRowWriter(LABELS, TYPES, 3, false);
+		for (int row = 0; row < 100; row++) {
+			writeRow(writer.partition(1), row);
+		}
+		assertTableEquals(sequential(100), writer.create(CTX));
+	}
+
+	@Test
+	public void testEmpty() {
+		Table table = Writers.partitionedRowWriter(LABELS, TYPES, 4, false).create(CTX);
+		assertEquals(0, table.height());
+		assertEquals(LABELS, table.labels());
+		assertEquals(ColumnType.DATETIME, table.column("datetime").type());
+	}
+
+	@Test
+	public void testSamePartition() {
+		PartitionedRowWriter writer = Writers.partitionedRowWriter(LABELS, TYPES, 2, false);
+		assertSame(writer.partition(1), writer.partition(1));
+		assertEquals(2, writer.numberOfPartitions());
+		assertEquals(LABELS.size(), writer.width());
+	}
+
+	@Test(expected = IllegalStateException.class)
+	public void testCreateTwice() {
+		PartitionedRowWriter writer = Writers.partitionedRowWriter(LABELS, TYPES, 2, false);
+		writer.create(CTX);
+		writer.create(CTX);
+	}
+
+	@Test(expected = IllegalStateException.class)
+	public void testPartitionAfterCreate() {
+		PartitionedRowWriter writer = Writers.partitionedRowWriter(LABELS, TYPES, 2, false);
+		writer.create(CTX);
+		writer.partition(0);
+	}
+
+	@Test(expected = IndexOutOfBoundsException.class)
+	public void testPartitionOutOfBounds() {
+		Writers.partitionedRowWriter(LABELS, TYPES, 2, false).partition(2);
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testNoPartitions() {
+		Writers.partitionedRowWriter(LABELS, TYPES, 0, false);
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testNegativeExpectedRows() {
+		Writers.partitionedRowWriter(LABELS, TYPES, 2, -1, false);
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testLengthMismatch() {
+		Writers.partitionedRowWriter(LABELS, TYPES.subList(0, 2), 2, false);
+	}
+
+	@Test(expected = NullPointerException.class)
+	public void testNullContext() {
+		Writers.partitionedRowWriter(LABELS, TYPES, 2, false).create(null);
+	}
+
+}
@@ -0,0 +1,239 @@
+/**
+ * This file is part of the RapidMiner Belt project.
+ * Copyright (C) 2017-2021 RapidMiner GmbH
+ *
+ * This program is free software: you can redistribute it and/or modify it under the terms of the GNU Affero General
+ * Public License as published by the Free Software Foundation, either version 3 of the License, or (at your option) any
+ * later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied
+ * warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU Affero General Public License along with this program. If not, see
+ * https://www.gnu.org/licenses/.
+ */
+
+
+package com.rapidminer.belt.table;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.time.Instant;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import com.rapidminer.belt.column.Column.TypeId;
+import com.rapidminer.belt.column.Dictionary;
+import com.rapidminer.belt.execution.Context;
+import com.rapidminer.belt.util.Belt;
+
+
+/**
+ * Tests {@link SpillingRowWriter}.
+ *
+ * @author Michael Knopf
+ */
+public class SpillingRowWriterTests {
+
+	private static final Context CTX = Belt.defaultContext();
+
+	private static final List<String> LABELS = Arrays.asList("real", "int", "time", "datetime", "nominal");
+
+	private static final List<TypeId> TYPES = Arrays.asList(TypeId.REAL, TypeId.INTEGER_53_BIT, TypeId.TIME,
+			TypeId.DATE_TIME, TypeId.NOMINAL);
+
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	/**
+	 * Writes the same random rows to both writers. Date-times have subsecond precision only in the second half and
+	 * the nominal values change with the row index so that the chunk dictionaries differ.
+	 */
+	private static void write(int rows, SpillingRowWriter spilling, MixedRowWriter mixed) {
+		Random random = new Random(rows);
+		for (int i = 0; i < rows; i++) {
+			spilling.move();
+			mixed.move();
+			double real = random.nextInt(10) == 0 ? Double.NaN : random.nextDouble();
+			double integer = random.nextInt(1000);
+			LocalTime time = random.nextInt(10) == 0 ? null : LocalTime.ofNanoOfDay(random.nextInt(1_000_000));
+			Instant dateTime = random.nextInt(10) == 0 ? null :
+					Instant.ofEpochSecond(random.nextInt(100_000), i < rows / 2 ? 0 : random.nextInt(1000));
+			String nominal = random.nextInt(10) == 0 ? null : "value" + (i / 500) + "-" + random.nextInt(5);
+			spilling.set(0, real);
+			mixed.set(0, real);
+			spilling.set(1, integer);
+			mixed.set(1, integer);
+			spilling.set(2, time);
+			mixed.set(2, time);
+			spilling.set(3, dateTime);
+			mixed.set(3, dateTime);
+			if (i % 7 != 0) {
+				spilling.set(4, nominal);
+				mixed.set(4, nominal);
+			}
+		}
+	}
+
+	@Test
+	public void testInMemory() {
+		SpillingRowWriter writer = Writers.spillingRowWriter(LABELS, TYPES, true);
+		MixedRowWriter expected = Writers.mixedRowWriter(LABELS, TYPES, true);
+		write(1000, writer, expected);
+		Table table = writer.create(CTX);
+		assertEquals(0, writer.numberOfSpills());
+		TableTestUtils.assertTablesEqual(expected.create(), table);
+	}
+
+	@Test
+	public void testSpilled() throws Exception {
+		File directory = folder.newFolder();
+		try (SpillingRowWriter writer = Writers.spillingRowWriter(LABELS, TYPES, true).memoryBudget(1)
+				.directory(directory.toPath())) {
+			MixedRowWriter expected = Writers.mixedRowWriter(LABELS, TYPES, true);
+			write(5000, writer, expected);
+			assertEquals(4, writer.numberOfSpills());
+			assertEquals(4, directory.list().length);
+			Table table = writer.create(CTX);
+			TableTestUtils.assertTablesEqual(expected.create(), table);
+			assertEquals(0, writer.numberOfSpills());
+			assertEquals(0, directory.list().length);
+		}
+	}
+
+	@Test
+	public void testSpilledExactChunks() throws Exception {
+		File directory = folder.newFolder();
+		try (SpillingRowWriter writer = Writers.spillingRowWriter(LABELS, TYPES, true).memoryBudget(1)
+				.directory(directory.toPath())) {
+			MixedRowWriter expected = Writers.mixedRowWriter(LABELS, TYPES, true);
+			write(2048, writer, expected);
+			assertEquals(1, writer.numberOfSpills());
+			TableTestUtils.assertTablesEqual(expected.create(), writer.create(CTX));
+		}
+	}
+
+	@Test
+	public void testDictionaryMerged() throws Exception {
+		File directory = folder.newFolder();
+		List<String> labels = Collections.singletonList("nominal");
+		List<TypeId> types = Collections.singletonList(TypeId.NOMINAL);
+		try (SpillingRowWriter writer = Writers.spillingRowWriter(labels, types, true).memoryBudget(1)
+				.directory(directory.toPath())) {
+			String[] values = new String[3000];
+			for (int i = 0; i < values.length; i++) {
+				values[i] = i < 1500 ? "a" + (i % 3) : "b" + (i % 2);
+				writer.move();
+				writer.set(0, values[i]);
+			}
+			Table table = writer.create(CTX);
+			Dictionary dictionary = table.column(0).getDictionary();
+			List<String> dictionaryValues = new ArrayList<>();
+			for (int i = 1; i <= dictionary.maximalIndex(); i++) {
+				dictionaryValues.add(dictionary.get(i));
+			}
+			assertEquals(Arrays.asList("a0", "a1", "a2", "b0", "b1"), dictionaryValues);
+			assertArrayEquals(values, TableTestUtils.readColumn(table, 0).toArray());
+		}
+	}
+
+	@Test
+	public void testSubsecondOnlyInLastChunk() throws Exception {
+		List<String> labels = Collections.singletonList("datetime");
+		List<TypeId> types = Collections.singletonList(TypeId.DATE_TIME);
+		try (SpillingRowWriter writer = Writers.spillingRowWriter(labels, types, true).memoryBudget(1)
+				.directory(folder.newFolder().toPath())) {
+			Instant[] values = new Instant[1500];
+			for (int i = 0; i < values.length; i++) {
+				values[i] = Instant.ofEpochSecond(i, i < 1024 ? 0 : i);
+				writer.move();
+				writer.set(0, values[i]);
+			}
+			assertEquals(1, writer.numberOfSpills());
+			assertArrayEquals(values, TableTestUtils.readColumn(writer.create(CTX), 0).toArray());
+		}
+	}
+
+	@Test
+	public void testEmpty() {
+		SpillingRowWriter writer = Writers.spillingRowWriter(LABELS, TYPES, true);
+		Table table = writer.create(CTX);
+		assertEquals(0, table.height());
+		assertEquals(LABELS, table.labels());
+	}
+
+	@Test
+	public void testCloseDeletesFiles() throws Exception {
+		File directory = folder.newFolder();
+		SpillingRowWriter writer = Writers.spillingRowWriter(LABELS, TYPES, true).memoryBudget(1)
+				.directory(directory.toPath());
+		write(3000, writer, Writers.mixedRowWriter(LABELS, TYPES, true));
+		assertTrue(directory.list().length > 0);
+		writer.close();
+		assertEquals(0, directory.list().length);
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testUnsupportedType() {
+		Writers.spillingRowWriter(Collections.singletonList("text"), Collections.singletonList(TypeId.TEXT), true);
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testNegativeBudget() {
+		Writers.spillingRowWriter(LABELS, TYPES, true).memoryBudget(-1);
+	}
+
+	@Test(expected = IllegalStateException.class)
+	public void testBudgetAfterWrite() {
+		SpillingRowWriter writer = Writers.spillingRowWriter(LABELS, TYPES, true);
+		writer.move();
+		writer.memoryBudget(1);
+	}
+
+	@Test(expected = IllegalStateException.class)
+	public void testMoveAfterCreate() {
+		SpillingRowWriter writer = Writers.spillingRowWriter(LABELS, TYPES, true);
+		writer.create(CTX);
+		writer.move();
+	}
+
+	@Test(expected = IllegalStateException.class)
+	public void testCreateTwice() {
+		SpillingRowWriter writer = Writers.spillingRowWriter(LABELS, TYPES, true);
+		writer.create(CTX);
+		writer.create(CTX);
+	}
+
+	@Test(expected = NullPointerException.class)
+	public void testNullContext() {
+		Writers.spillingRowWriter(LABELS, TYPES, true).create(null);
+	}
+
+	@Test(expected = NullPointerException.class)
+	public void testNullDirectory() {
+		Writers.spillingRowWriter(LABELS, TYPES, true).directory(null);
+	}
+
+	@Test(expected = NullPointerException.class)
+	public void testNullLabels() {
+		Writers.spillingRowWriter(null, TYPES, true);
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testDifferentLengths() {
+		Writers.spillingRowWriter(LABELS, TYPES.subList(0, 2), true);
+	}
+
+}
@@ -1195,6 +1195,235 @@ public class StatisticsTests {
 
 	}
 
+	public static class DistinctCount {
+
+		private static final double ERROR = 0.03;
+
+		private static double distinct(Column column) {
+			return Statistics.compute(column, Statistic.DISTINCT_COUNT, CTX).getNumeric();
+		}
+
+		@Test
+		public void testReal() {
+			Table table = Builders.newTableBuilder(N)
+					.addReal("real", i -> i % 10 == 0 ? Double.NaN : (i % 20_000) * 0.25)
+					.build(CTX);
+			assertEquals(18_000, distinct(table.column("real")), 18_000 * ERROR);
+		}
+
+		@Test
+		public void testIntegerSmall() {
+			Table table = Builders.newTableBuilder(N)
+					.addInt53Bit("integer", i -> i % 37)
+					.build(CTX);
+			assertEquals(37, distinct(table.column("integer")), 1);
+		}
+
+		@Test
+		public void testTime() {
+			Table table = Builders.newTableBuilder(N)
+					.addTime("time", i -> i % 3 == 0 ? null : LocalTime.ofSecondOfDay(i % 50_000))
+					.build(CTX);
+			assertEquals(50_000, distinct(table.column("time")), 50_000 * ERROR);
+		}
+
+		@Test
+		public void testDateTime() {
+			Table table = Builders.newTableBuilder(N)
+					.addDateTime("datetime", i -> i % 7 == 0 ? null : Instant.ofEpochSecond(i / 4, i % 4))
+					.build(CTX);
+			double expected = N - N / 7.0;
+			assertEquals(expected, distinct(table.column("datetime")), expected * ERROR);
+			Table seconds = Builders.newTableBuilder(N)
+					.addDateTime("datetime", i -> Instant.ofEpochSecond(i / 4))
+					.build(CTX);
+			assertEquals(N / 4.0, distinct(seconds.column("datetime")), N / 4.0 * ERROR);
+		}
+
+		@Test
+		public void testText() {
+			Table table = Builders.newTableBuilder(N)
+					.addText("text", i -> i % 5 == 0 ? null : "text" + (i % 30_000))
+					.build(CTX);
+			assertEquals(24_000, distinct(table.column("text")), 24_000 * ERROR);
+		}
+
+		@Test
+		public void testNominalExact() {
+			Table table = Builders.newTableBuilder(N)
+					.addNominal("nominal", i -> i % 11 == 0 ? null : "value" + (i % 1_000))
+					.build(CTX);
+			// only use part of the dictionary
+			Table rows = table.rows(0, 500, CTX);
+			assertEquals(1000, distinct(table.column("nominal")), 0);
+			assertEquals(500 - 46, distinct(rows.column("nominal")), 0);
+		}
+
+		@Test
+		public void testWithOtherStatistics() {
+			Table table = Builders.newTableBuilder(N)
+					.addReal("real", i -> i % 100)
+					.build(CTX);
+			Map<Statistic, Result> results = Statistics.compute(table.column("real"),
+					EnumSet.of(Statistic.MAX, Statistic.DISTINCT_COUNT), CTX);
+			assertEquals(99, results.get(Statistic.MAX).getNumeric(), EPSILON);
+			assertEquals(100, results.get(Statistic.DISTINCT_COUNT).getNumeric(), 100 * ERROR);
+		}
+
+		@Test
+		public void testAllColumns() {
+			Table table = Builders.newTableBuilder(N)
+					.addReal("real", i -> i % 100)
+					.addNominal("nominal", i -> "value" + (i % 10))
+					.build(CTX);
+			List<Map<Statistic, Result>> results = Statistics.computeAll(table.columnList(),
+					EnumSet.of(Statistic.DISTINCT_COUNT, Statistic.MODE), CTX);
+			assertEquals(100, results.get(0).get(Statistic.DISTINCT_COUNT).getNumeric(), 100 * ERROR);
+			assertEquals(10, results.get(1).get(Statistic.DISTINCT_COUNT).getNumeric(), 0);
+			assertEquals(10, Statistics.compute(table.column("nominal"), Statistic.DISTINCT_COUNT, CTX)
+					.getNumeric(), 0);
+		}
+
+	}
+
+	public static class AllColumns {
+
+		private static Table table(long seed) {
+			Random random = new Random(seed);
+			double[] reals = new double[N];
+			Arrays.setAll(reals, i -> random.nextInt(20) == 0 ? Double.NaN : random.nextGaussian() * 100);
+			return Builders.newTableBuilder(N)
+					.addReal("real", i -> reals[i])
+					.addInt53Bit("integer", i -> i % 7 == 0 ? Double.NaN : i % 1000)
+					.addReal("constant", i -> 42)
+					.addReal("missing", i -> Double.NaN)
+					.addTime("time", i -> i % 5 == 0 ? null : LocalTime.ofNanoOfDay(i * 1_000_000L))
+					.addNominal("nominal", i -> i % 11 == 0 ? null : "value" + (i * 31 % 97))
+					.addBoolean("boolean", i -> i % 3 == 0 ? "yes" : "no", "yes")
+					.addDateTime("datetime", i -> i % 13 == 0 ? null : Instant.ofEpochSecond(i * 1000L))
+					.addText("text", i -> i % 17 == 0 ? null : "text" + i)
+					.build(CTX);
+		}
+
+		private static void assertResultEquals(String message, Result expected, Result actual) {
+			assertNotNull(message, actual);
+			double expectedValue = expected.getNumeric();
+			double tolerance = Double.isFinite(expectedValue) ? Math.max(1, Math.abs(expectedValue)) * EPSILON : 0;
+			assertEquals(message, expectedValue, actual.getNumeric(), tolerance);
+			assertEquals(message, expected.getCategorical(), actual.getCategorical());
+			assertEquals(message, expected.getObject(), actual.getObject());
+		}
+
+		private static void testAgainstSingleColumns(Set<Statistic> statistics) {
+			Table table = table(8262617181L);
+			Table reference = table(8262617181L);
+			List<Map<Statistic, Result>> results = Statistics.computeAll(table.columnList(), statistics, CTX);
+			assertEquals(table.width(), results.size());
+			for (int i = 0; i < table.width(); i++) {
+				Column column = reference.column(i);
+				Set<Statistic> supported = EnumSet.noneOf(Statistic.class);
+				for (Statistic statistic : statistics) {
+					if (Statistics.supported(column, statistic)) {
+						supported.add(statistic);
+					}
+				}
+				Map<Statistic, Result> expected = Statistics.compute(column, supported, CTX);
+				Map<Statistic, Result> actual = results.get(i);
+				assertEquals(table.label(i), expected.keySet(), actual.keySet());
+				for (Statistic statistic : supported) {
+					assertResultEquals(table.label(i) + " " + statistic, expected.get(statistic),
+							actual.get(statistic));
+				}
+				// a second computation uses the cached values
+				Map<Statistic, Result> cached = Statistics.compute(table.column(i), supported, CTX);
+				for (Statistic statistic : supported) {
+					assertResultEquals(table.label(i) + " " + statistic, expected.get(statistic),
+							cached.get(statistic));
+				}
+			}
+		}
+
+		@Test
+		public void testAllStatistics() {
+			testAgainstSingleColumns(EnumSet.allOf(Statistic.class));
+		}
+
+		@Test
+		public void testCountsAndDeviations() {
+			testAgainstSingleColumns(EnumSet.of(Statistic.COUNT, Statistic.MIN, Statistic.MAX, Statistic.MEAN,
+					Statistic.VAR, Statistic.SD));
+		}
+
+		@Test
+		public void testCategoricalCounts() {
+			testAgainstSingleColumns(EnumSet.of(Statistic.COUNT, Statistic.LEAST, Statistic.MODE,
+					Statistic.INDEX_COUNTS));
+		}
+
+		@Test
+		public void testCountOnly() {
+			testAgainstSingleColumns(EnumSet.of(Statistic.COUNT));
+		}
+
+		@Test
+		public void testPartiallyCached() {
+			Table table = table(1625163L);
+			Statistics.compute(table.column("real"), EnumSet.of(Statistic.MEAN), CTX);
+			Statistics.compute(table.column("nominal"), EnumSet.of(Statistic.MODE), CTX);
+			List<Map<Statistic, Result>> results = Statistics.computeAll(table.columnList(),
+					EnumSet.of(Statistic.MEAN, Statistic.SD, Statistic.MODE), CTX);
+			Table reference = table(1625163L);
+			assertResultEquals("mean", Statistics.compute(reference.column("real"), Statistic.MEAN, CTX),
+					results.get(0).get(Statistic.MEAN));
+			assertResultEquals("sd", Statistics.compute(reference.column("real"), Statistic.SD, CTX),
+					results.get(0).get(Statistic.SD));
+			assertResultEquals("mode", Statistics.compute(reference.column("nominal"), Statistic.MODE, CTX),
+					results.get(5).get(Statistic.MODE));
+		}
+
+		@Test
+		public void testEmpty() {
+			Table table = Builders.newTableBuilder(0).addReal("real", i -> i)
+					.addNominal("nominal", i -> "a").build(CTX);
+			List<Map<Statistic, Result>> results = Statistics.computeAll(table.columnList(),
+					EnumSet.of(Statistic.COUNT, Statistic.MEAN, Statistic.MODE), CTX);
+			assertEquals(0, results.get(0).get(Statistic.COUNT).getNumeric(), EPSILON);
+			assertTrue(Double.isNaN(results.get(0).get(Statistic.MEAN).getNumeric()));
+			assertNull(results.get(1).get(Statistic.MODE).getObject());
+		}
+
+		@Test
+		public void testNoStatistics() {
+			Table table = table(1L);
+			List<Map<Statistic, Result>> results = Statistics.computeAll(table.columnList(),
+					Collections.emptySet(), CTX);
+			for (Map<Statistic, Result> result : results) {
+				assertTrue(result.isEmpty());
+			}
+		}
+
+		@Test(expected = NullPointerException.class)
+		public void testNullColumns() {
+			Statistics.computeAll(null, EnumSet.of(Statistic.COUNT), CTX);
+		}
+
+		@Test(expected = NullPointerException.class)
+		public void testNullColumn() {
+			Statistics.computeAll(Collections.singletonList(null), EnumSet.of(Statistic.COUNT), CTX);
+		}
+
+		@Test(expected = NullPointerException.class)
+		public void testNullStatistics() {
+			Statistics.computeAll(Collections.emptyList(), null, CTX);
+		}
+
+		@Test(expected = NullPointerException.class)
+		public void testNullContext() {
+			Statistics.computeAll(Collections.emptyList(), EnumSet.of(Statistic.COUNT), null);
+		}
+
+	}
+
 	@RunWith(Parameterized.class)
 	public static class Supported {
 
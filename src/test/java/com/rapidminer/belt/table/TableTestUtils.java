@@ -16,7 +16,20 @@
 
 package com.rapidminer.belt.table;
 
+import static org.junit.Assert.assertEquals;
+
+import java.time.Instant;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
 import com.rapidminer.belt.column.Column;
+import com.rapidminer.belt.column.DateTimeColumn;
+import com.rapidminer.belt.reader.NumericReader;
+import com.rapidminer.belt.reader.ObjectReader;
+import com.rapidminer.belt.reader.Readers;
+import com.rapidminer.belt.util.Belt;
 import com.rapidminer.belt.table.Table;
 
 
@@ -28,4 +41,155 @@ public class TableTestUtils {
 	public static Table newTable(Column[] columns, String[] labels) {
 		return new Table(columns, labels);
 	}
+
+	/**
+	 * Reads the column with the given index, numeric columns as doubles and all others as objects.
+	 */
+	static List<Object> readColumn(Table table, int column) {
+		List<Object> values = new ArrayList<>(table.height());
+		Column col = table.column(column);
+		if (col.type().category() == Column.Category.NUMERIC) {
+			NumericReader reader = Readers.numericReader(col);
+			while (reader.hasRemaining()) {
+				values.add(reader.read());
+			}
+		} else {
+			ObjectReader<Object> reader = Readers.objectReader(col, Object.class);
+			while (reader.hasRemaining()) {
+				values.add(reader.read());
+			}
+		}
+		return values;
+	}
+
+	/**
+	 * Asserts that both tables have the same labels, column types and values.
+	 */
+	static void assertTablesEqual(Table expected, Table actual) {
+		assertEquals(expected.height(), actual.height());
+		assertEquals(expected.labels(), actual.labels());
+		for (int i = 0; i < expected.width(); i++) {
+			assertEquals(expected.column(i).type(), actual.column(i).type());
+			assertEquals(expected.label(i), readColumn(expected, i), readColumn(actual, i));
+		}
+	}
+
+	/**
+	 * Reads all values of the column like {@link #readColumn(Table, int)}, but with {@code -0.0} replaced by
+	 * {@code 0.0} so that numeric values can be compared as group keys.
+	 */
+	static List<Object> readAll(Column column) {
+		List<Object> values = new ArrayList<>(column.size());
+		if (column.type().category() == Column.Category.NUMERIC) {
+			NumericReader reader = Readers.numericReader(column);
+			while (reader.hasRemaining()) {
+				double value = reader.read();
+				values.add(value == 0 ? 0.0 : value);
+			}
+		} else {
+			ObjectReader<Object> reader = Readers.objectReader(column, Object.class);
+			while (reader.hasRemaining()) {
+				values.add(reader.read());
+			}
+		}
+		return values;
+	}
+
+	/**
+	 * Reads all values of the column like {@link #readAll(Column)}, but with numeric missing values as {@code null}
+	 * so that they compare like missing objects.
+	 */
+	static List<Object> readAllWithNulls(Column column) {
+		List<Object> values = new ArrayList<>(column.size());
+		if (column.type().category() == Column.Category.NUMERIC) {
+			NumericReader reader = Readers.numericReader(column);
+			while (reader.hasRemaining()) {
+				double value = reader.read();
+				values.add(Double.isNaN(value) ? null : value == 0 ? 0.0 : value);
+			}
+		} else {
+			ObjectReader<Object> reader = Readers.objectReader(column, Object.class);
+			while (reader.hasRemaining()) {
+				values.add(reader.read());
+			}
+		}
+		return values;
+	}
+
+	/**
+	 * Creates a table with random values and about 10% missing values per column: a real column including infinities
+	 * and values of very different magnitudes, an integer, a time, a date-time column with second and one with
+	 * nanosecond precision, and a nominal column whose values include empty strings, separators, quotes, line breaks
+	 * and non-ASCII characters. The same number of rows always gives the same table.
+	 *
+	 * @param rows
+	 * 		the number of rows
+	 * @param text
+	 * 		whether to add a text column
+	 * @return the random table
+	 */
+	static Table randomTable(int rows, boolean text) {
+		Random random = new Random(rows);
+		double[] reals = new double[rows];
+		double[] integers = new double[rows];
+		LocalTime[] times = new LocalTime[rows];
+		long[] seconds = new long[rows];
+		Instant[] nanos = new Instant[rows];
+		String[] nominals = new String[rows];
+		String[] texts = new String[rows];
+		for (int i = 0; i < rows; i++) {
+			switch (random.nextInt(10)) {
+				case 0:
+					reals[i] = Double.NaN;
+					break;
+				case 1:
+					reals[i] = random.nextBoolean() ? Double.POSITIVE_INFINITY : Double.NEGATIVE_INFINITY;
+					break;
+				case 2:
+				case 3:
+					reals[i] = random.nextInt(100_000) / 100.0;
+					break;
+				case 4:
+				case 5:
+					reals[i] = random.nextGaussian() * Math.pow(10, random.nextInt(40) - 20);
+					break;
+				default:
+					reals[i] = random.nextGaussian();
+			}
+			integers[i] = random.nextInt(10) == 0 ? Double.NaN : random.nextInt() * 1000L;
+			times[i] = random.nextInt(10) == 0 ? null :
+					LocalTime.ofNanoOfDay((long) (random.nextDouble() * 86_400_000_000_000L));
+			seconds[i] = random.nextInt(10) == 0 ? DateTimeColumn.MISSING_VALUE : random.nextInt() * 100L;
+			nanos[i] = random.nextInt(10) == 0 ? null :
+					Instant.ofEpochSecond(random.nextInt() - (1L << 31), random.nextInt(1_000_000_000));
+			switch (random.nextInt(10)) {
+				case 0:
+					nominals[i] = null;
+					break;
+				case 1:
+					nominals[i] = "";
+					break;
+				case 2:
+					nominals[i] = "line\nbreak" + random.nextInt(3);
+					break;
+				case 3:
+					nominals[i] = "with , and \"quotes\" " + random.nextInt(3);
+					break;
+				default:
+					nominals[i] = "välue" + random.nextInt(50);
+			}
+			texts[i] = random.nextInt(10) == 0 ? null : random.nextInt(10) == 0 ? "" : "text " + random.nextInt();
+		}
+		TableBuilder builder = Builders.newTableBuilder(rows)
+				.addReal("real", i -> reals[i])
+				.addInt53Bit("int", i -> integers[i])
+				.addTime("time", i -> times[i])
+				.add("seconds", ColumnAccessor.get().newDateTimeColumn(seconds, null))
+				.addDateTime("nanos", i -> nanos[i])
+				.addNominal("nominal", i -> nominals[i]);
+		if (text) {
+			builder.addText("text", i -> texts[i]);
+		}
+		return builder.build(Belt.defaultContext());
+	}
 }
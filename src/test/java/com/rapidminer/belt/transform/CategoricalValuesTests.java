@@ -0,0 +1,145 @@
+/**
+ * This file is part of the RapidMiner Belt project.
+ * Copyright (C) 2017-2021 RapidMiner GmbH
+ *
+ * This program is free software: you can redistribute it and/or modify it under the terms of the GNU Affero General
+ * Public License as published by the Free Software Foundation, either version 3 of the License, or (at your option) any
+ * later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied
+ * warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU Affero General Public License along with this program. If not, see
+ * https://www.gnu.org/licenses/.
+ */
+
+
+package com.rapidminer.belt.transform;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Pattern;
+
+import org.junit.Test;
+
+import com.rapidminer.belt.buffer.NumericBuffer;
+import com.rapidminer.belt.column.Column;
+import com.rapidminer.belt.column.Columns;
+import com.rapidminer.belt.execution.Context;
+import com.rapidminer.belt.execution.Workload;
+import com.rapidminer.belt.reader.ObjectReader;
+import com.rapidminer.belt.reader.Readers;
+import com.rapidminer.belt.table.Builders;
+import com.rapidminer.belt.table.Table;
+import com.rapidminer.belt.util.Belt;
+
+
+/**
+ * Tests the dictionary value based methods of {@link Filterer}, {@link Transformer} and
+ * {@link com.rapidminer.belt.table.Table}.
+ *
+ * @author Michael Knopf
+ */
+public class CategoricalValuesTests {
+
+	private static final Context CTX = Belt.defaultContext();
+
+	private static final int N = 100_000;
+
+	private static Table table() {
+		return Builders.newTableBuilder(N)
+				.addNominal("nominal", i -> i % 13 == 0 ? null : "value" + (i % 50))
+				.build(CTX);
+	}
+
+	private static String[] values(Column column) {
+		String[] values = new String[column.size()];
+		ObjectReader<String> reader = Readers.objectReader(column, String.class);
+		for (int i = 0; i < values.length; i++) {
+			values[i] = reader.read();
+		}
+		return values;
+	}
+
+	@Test
+	public void testFilterOncePerValue() {
+		Column column = table().column("nominal");
+		AtomicInteger calls = new AtomicInteger();
+		Pattern pattern = Pattern.compile("value[1-3].*");
+		int[] rows = new Filterer(column).filterCategoricalValues(v -> {
+			calls.incrementAndGet();
+			return pattern.matcher(v).matches();
+		}, CTX);
+		assertEquals(50, calls.get());
+		assertArrayEquals(new Filterer(column).filterObject(String.class,
+				v -> v != null && pattern.matcher(v).matches(), CTX), rows);
+	}
+
+	@Test
+	public void testSelect() {
+		Column column = table().column("nominal");
+		assertArrayEquals(new Filterer(column).filterObject(String.class, v -> v != null && v.endsWith("7"), CTX),
+				new Filterer(column).selectCategoricalValues(v -> v.endsWith("7"), CTX).rows());
+	}
+
+	@Test
+	public void testMissingNeverAccepted() {
+		Column column = table().column("nominal");
+		assertEquals(N - N / 13 - 1, new Filterer(column).filterCategoricalValues(v -> true, CTX).length);
+	}
+
+	@Test
+	public void testTableFilter() {
+		Table table = table();
+		Table filtered = table.filterCategoricalValues("nominal", v -> v.startsWith("value4"), Workload.DEFAULT, CTX);
+		Table expected = table.rows(new Filterer(table.column("nominal")).filterObject(String.class,
+				v -> v != null && v.startsWith("value4"), CTX), false, CTX);
+		assertArrayEquals(values(expected.column("nominal")), values(filtered.column("nominal")));
+	}
+
+	@Test
+	public void testApplyToReal() {
+		Column column = table().column("nominal");
+		AtomicInteger calls = new AtomicInteger();
+		NumericBuffer buffer = new Transformer(column).applyCategoricalValuesToReal(v -> {
+			calls.incrementAndGet();
+			return v.length();
+		}, CTX);
+		assertEquals(50, calls.get());
+		String[] values = values(column);
+		for (int i = 0; i < N; i++) {
+			assertEquals(values[i] == null ? Double.NaN : values[i].length(), buffer.get(i), 0);
+		}
+	}
+
+	@Test
+	public void testApplyToInteger() {
+		Column column = table().column("nominal");
+		NumericBuffer buffer = new Transformer(column).applyCategoricalValuesToInteger53Bit(
+				v -> Double.parseDouble(v.substring(5)) / 2, CTX);
+		assertEquals(Column.TypeId.INTEGER_53_BIT, buffer.type());
+		assertEquals(4, buffer.get(7), 0);
+	}
+
+	@Test
+	public void testMapDictionary() {
+		Column column = table().column("nominal");
+		Column mapped = Columns.mapDictionary(column, v -> v.substring(0, 6));
+		String[] values = values(column);
+		String[] mappedValues = values(mapped);
+		for (int i = 0; i < N; i++) {
+			assertEquals(values[i] == null ? null : values[i].substring(0, 6), mappedValues[i]);
+		}
+		assertEquals(10, mapped.getDictionary().size());
+	}
+
+	@Test(expected = UnsupportedOperationException.class)
+	public void testNotCategorical() {
+		Column column = Builders.newTableBuilder(10).addReal("a", i -> i).build(CTX).column("a");
+		new Filterer(column).filterCategoricalValues(v -> true, CTX);
+	}
+
+}
@@ -0,0 +1,221 @@
+/**
+ * This file is part of the RapidMiner Belt project.
+ * Copyright (C) 2017-2021 RapidMiner GmbH
+ *
+ * This program is free software: you can redistribute it and/or modify it under the terms of the GNU Affero General
+ * Public License as published by the Free Software Foundation, either version 3 of the License, or (at your option) any
+ * later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied
+ * warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU Affero General Public License along with this program. If not, see
+ * https://www.gnu.org/licenses/.
+ */
+
+
+package com.rapidminer.belt.transform;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+import java.time.LocalTime;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.function.DoublePredicate;
+
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import com.rapidminer.belt.buffer.Buffers;
+import com.rapidminer.belt.buffer.NumericBuffer;
+import com.rapidminer.belt.buffer.RealBufferSparse;
+import com.rapidminer.belt.column.Column;
+import com.rapidminer.belt.column.ZoneMap;
+import com.rapidminer.belt.execution.Context;
+import com.rapidminer.belt.table.Builders;
+import com.rapidminer.belt.table.Table;
+import com.rapidminer.belt.util.Belt;
+
+
+/**
+ * Tests {@link Filters}.
+ *
+ * @author Michael Knopf
+ */
+public class FiltersTests {
+
+	private static final Context CTX = Belt.defaultContext();
+
+	private static final int N = 100_003;
+
+	private static Table table() {
+		Random random = new Random(37);
+		double[] reals = new double[N];
+		double[] ints = new double[N];
+		LocalTime[] times = new LocalTime[N];
+		for (int i = 0; i < N; i++) {
+			int r = random.nextInt(100);
+			reals[i] = r == 0 ? Double.NaN : r == 1 ? -0.0 : r == 2 ? Double.NEGATIVE_INFINITY : random.nextGaussian();
+			ints[i] = r == 0 ? Double.NaN : random.nextInt(20) - 10;
+			times[i] = r == 0 ? null : LocalTime.ofSecondOfDay(random.nextInt(24 * 60 * 60));
+		}
+		RealBufferSparse sparse = Buffers.sparseRealBuffer(0, N);
+		for (int i = 0; i < N; i += 1 + random.nextInt(100)) {
+			sparse.setNext(i, i % 7 == 0 ? Double.NaN : random.nextInt(5) - 2);
+		}
+		Column sparseColumn = sparse.toColumn();
+		return Builders.newTableBuilder(N)
+				.addReal("real", i -> reals[i])
+				.addInt53Bit("int", i -> ints[i])
+				.addTime("time", i -> times[i])
+				.add("sparse", sparseColumn)
+				.addText("text", i -> "a")
+				.build(CTX);
+	}
+
+	private static Table testTable;
+
+	@BeforeClass
+	public static void createTable() {
+		// not created in a static initializer since the builder calls the lambdas in parallel
+		testTable = table();
+	}
+
+	private static void assertSelection(Column column, DoublePredicate predicate, Selection selection) {
+		assertEquals(column.size(), selection.size());
+		assertArrayEquals(new Filterer(column).filterNumeric(predicate, CTX), selection.rows());
+	}
+
+	@Test
+	public void testBetween() {
+		for (String label : new String[]{"real", "int", "sparse"}) {
+			Column column = testTable.column(label);
+			assertSelection(column, v -> v >= -0.5 && v <= 1, Filters.between(column, -0.5, 1, CTX));
+			assertSelection(column, v -> v == 0, Filters.between(column, 0, -0.0, CTX));
+			assertSelection(column, v -> !Double.isNaN(v),
+					Filters.between(column, Double.NEGATIVE_INFINITY, Double.POSITIVE_INFINITY, CTX));
+			assertSelection(column, v -> false, Filters.between(column, 1, -1, CTX));
+		}
+	}
+
+	@Test
+	public void testBetweenTimes() {
+		Column column = testTable.column("time");
+		LocalTime lower = LocalTime.of(8, 15);
+		LocalTime upper = LocalTime.of(17, 30, 5);
+		assertArrayEquals(new Filterer(column).filterObject(LocalTime.class,
+				t -> t != null && !t.isBefore(lower) && !t.isAfter(upper), CTX),
+				Filters.between(column, lower, upper, CTX).rows());
+		assertSelection(column, v -> v >= 1e12 && v <= 2e12, Filters.between(column, 1e12, 2e12, CTX));
+	}
+
+	@Test
+	public void testLessAndGreater() {
+		for (String label : new String[]{"real", "int", "sparse", "time"}) {
+			Column column = testTable.column(label);
+			for (double value : new double[]{-3, -0.0, 0.0, 0.25, 5, 5e10}) {
+				assertSelection(column, v -> v < value, Filters.lessThan(column, value, CTX));
+				assertSelection(column, v -> v > value, Filters.greaterThan(column, value, CTX));
+			}
+			assertSelection(column, v -> false, Filters.lessThan(column, Double.NEGATIVE_INFINITY, CTX));
+			assertSelection(column, v -> false, Filters.greaterThan(column, Double.POSITIVE_INFINITY, CTX));
+			assertSelection(column, v -> v > Double.NEGATIVE_INFINITY,
+					Filters.greaterThan(column, Double.NEGATIVE_INFINITY, CTX));
+		}
+	}
+
+	@Test
+	public void testIsMissing() {
+		for (String label : new String[]{"real", "int", "sparse", "time"}) {
+			Column column = testTable.column(label);
+			assertSelection(column, Double::isNaN, Filters.isMissing(column, CTX));
+		}
+	}
+
+	@Test
+	public void testIn() {
+		for (String label : new String[]{"real", "int", "sparse"}) {
+			Column column = testTable.column(label);
+			assertSelection(column, v -> v == 0 || v == 2 || v == -7,
+					Filters.in(column, new double[]{2, -0.0, Double.NaN, -7, 2}, CTX));
+			assertSelection(column, v -> false, Filters.in(column, new double[0], CTX));
+			assertSelection(column, v -> false, Filters.in(column, new double[]{Double.NaN}, CTX));
+		}
+	}
+
+	@Test
+	public void testSmallAndEmpty() {
+		NumericBuffer buffer = Buffers.realBuffer(3);
+		buffer.set(0, 1);
+		buffer.set(1, 2);
+		buffer.set(2, Double.NaN);
+		Column column = buffer.toColumn();
+		assertArrayEquals(new int[]{1}, Filters.between(column, 1.5, 3, CTX).rows());
+		assertArrayEquals(new int[]{2}, Filters.isMissing(column, CTX).rows());
+		Column empty = Buffers.realBuffer(0).toColumn();
+		assertEquals(0, Filters.lessThan(empty, 1, CTX).size());
+	}
+
+	@Test
+	public void testCombination() {
+		Column real = testTable.column("real");
+		Column integer = testTable.column("int");
+		Selection selection = Filters.between(real, 0, 1, CTX).and(Filters.in(integer, new double[]{3, 4}, CTX), CTX);
+		assertArrayEquals(new RowFilterer(Arrays.asList(real, integer)).filterNumeric(
+				row -> row.get(0) >= 0 && row.get(0) <= 1 && (row.get(1) == 3 || row.get(1) == 4), CTX),
+				selection.rows());
+	}
+
+	@Test
+	public void testZoneMapPruning() {
+		int n = 3 * ZoneMap.BLOCK_SIZE + 17;
+		Random random = new Random(41);
+		double[] values = new double[n];
+		// clustered by blocks: ascending with noise and a block of missing values
+		Arrays.setAll(values, i -> i / ZoneMap.BLOCK_SIZE == 1 ? Double.NaN : i + random.nextInt(1000));
+		values[3] = Double.NaN;
+		NumericBuffer buffer = Buffers.realBuffer(n);
+		for (int i = 0; i < n; i++) {
+			buffer.set(i, values[i]);
+		}
+		Column column = buffer.toColumn();
+		Column reference = buffer.toColumn();
+		ZoneMap.of(column, CTX);
+		double[] bounds = {-1, 0, 5_000, ZoneMap.BLOCK_SIZE + 1000, 2.5 * ZoneMap.BLOCK_SIZE, n - 5, n + 2000};
+		for (double lower : bounds) {
+			for (double upper : bounds) {
+				assertEquals(Filters.between(reference, lower, upper, CTX),
+						Filters.between(column, lower, upper, CTX));
+			}
+			assertEquals(Filters.lessThan(reference, lower, CTX), Filters.lessThan(column, lower, CTX));
+			assertEquals(Filters.greaterThan(reference, lower, CTX), Filters.greaterThan(column, lower, CTX));
+		}
+		assertEquals(Filters.isMissing(reference, CTX), Filters.isMissing(column, CTX));
+		assertEquals(Filters.in(reference, new double[]{5, 500, n - 1.0}, CTX),
+				Filters.in(column, new double[]{5, 500, n - 1.0}, CTX));
+		assertSelection(reference, v -> v >= 1000, Filters.between(column, 1000, Double.POSITIVE_INFINITY, CTX));
+	}
+
+	@Test(expected = UnsupportedOperationException.class)
+	public void testNotNumericReadable() {
+		Filters.between(testTable.column("text"), 0, 1, CTX);
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testNaNBound() {
+		Filters.between(testTable.column("real"), Double.NaN, 1, CTX);
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testTimeBoundsOnReal() {
+		Filters.between(testTable.column("real"), LocalTime.MIN, LocalTime.MAX, CTX);
+	}
+
+	@Test(expected = NullPointerException.class)
+	public void testNullContext() {
+		Filters.isMissing(testTable.column("real"), null);
+	}
+
+}
@@ -0,0 +1,209 @@
+/**
+ * This file is part of the RapidMiner Belt project.
+ * Copyright (C) 2017-2021 RapidMiner GmbH
+ *
+ * This program is free software: you can redistribute it and/or modify it under the terms of the GNU Affero General
+ * Public License as published by the Free Software Foundation, either version 3 of the License, or (at your option) any
+ * later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied
+ * warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU Affero General Public License along with this program. If not, see
+ * https://www.gnu.org/licenses/.
+ */
+
+
+package com.rapidminer.belt.transform;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.Random;
+import java.util.stream.IntStream;
+
+import org.junit.Test;
+
+import com.rapidminer.belt.column.Column;
+import com.rapidminer.belt.execution.Context;
+import com.rapidminer.belt.execution.Workload;
+import com.rapidminer.belt.reader.NumericReader;
+import com.rapidminer.belt.reader.Readers;
+import com.rapidminer.belt.table.Builders;
+import com.rapidminer.belt.table.Table;
+import com.rapidminer.belt.util.Belt;
+
+
+/**
+ * Tests {@link Selection} and {@link SelectionCalculator}.
+ *
+ * @author Michael Knopf
+ */
+public class SelectionTests {
+
+	private static final Context CTX = Belt.defaultContext();
+
+	private static Table table(int n, long seed) {
+		Random random = new Random(seed);
+		double[] values = random.doubles(n).toArray();
+		String[] nominals = new String[n];
+		for (int i = 0; i < n; i++) {
+			nominals[i] = random.nextInt(10) == 0 ? null : "value" + random.nextInt(5);
+		}
+		return Builders.newTableBuilder(n)
+				.addReal("a", i -> values[i])
+				.addReal("b", i -> i)
+				.addNominal("c", i -> nominals[i])
+				.build(CTX);
+	}
+
+	private static Selection random(int n, long seed) {
+		Table table = table(n, seed);
+		return new Filterer(table.column("a")).selectNumeric(v -> v < 0.5, CTX);
+	}
+
+	private static boolean[] bits(Selection selection) {
+		boolean[] bits = new boolean[selection.size()];
+		for (int i = 0; i < bits.length; i++) {
+			bits[i] = selection.isSelected(i);
+		}
+		return bits;
+	}
+
+	@Test
+	public void testSelectMatchesFilter() {
+		for (int n : new int[]{0, 1, 63, 64, 65, 1000, 100_001}) {
+			Table table = table(n, n);
+			Column a = table.column("a");
+			Column c = table.column("c");
+			for (Workload workload : Workload.values()) {
+				assertArrayEquals(new Filterer(a).workload(workload).filterNumeric(v -> v > 0.3, CTX),
+						new Filterer(a).workload(workload).selectNumeric(v -> v > 0.3, CTX).rows());
+				assertArrayEquals(new Filterer(c).workload(workload).filterCategorical(v -> v % 2 == 0, CTX),
+						new Filterer(c).workload(workload).selectCategorical(v -> v % 2 == 0, CTX).rows());
+				assertArrayEquals(new Filterer(c).workload(workload).filterObject(String.class,
+						v -> v != null && v.endsWith("1"), CTX),
+						new Filterer(c).workload(workload).selectObject(String.class,
+								v -> v != null && v.endsWith("1"), CTX).rows());
+			}
+		}
+	}
+
+	@Test
+	public void testSelectRowsMatchesFilter() {
+		Table table = table(100_001, 3L);
+		RowFilterer filterer = new RowFilterer(Arrays.asList(table.column("a"), table.column("b")));
+		assertArrayEquals(filterer.filterNumeric(row -> row.get(0) * row.get(1) > 100, CTX),
+				filterer.selectNumeric(row -> row.get(0) * row.get(1) > 100, CTX).rows());
+		assertArrayEquals(filterer.filterMixed(row -> row.getNumeric(0) < 0.1, CTX),
+				filterer.selectMixed(row -> row.getNumeric(0) < 0.1, CTX).rows());
+		RowFilterer categorical = new RowFilterer(Arrays.asList(table.column("c"), table.column("c")));
+		assertArrayEquals(categorical.filterCategorical(row -> row.get(0) == 1, CTX),
+				categorical.selectCategorical(row -> row.get(0) == 1, CTX).rows());
+		assertArrayEquals(categorical.filterObjects(String.class, row -> row.get(1) == null, CTX),
+				categorical.selectObjects(String.class, row -> row.get(1) == null, CTX).rows());
+	}
+
+	@Test
+	public void testCalculatorUnalignedBatches() {
+		int n = 1000;
+		Column a = table(n, 5L).column("a");
+		int[] expected = new Filterer(a).filterNumeric(v -> v < 0.5, CTX);
+		SelectionCalculator calculator = SelectionCalculator.numeric(a, v -> v < 0.5);
+		assertEquals(n, calculator.getNumberOfOperations());
+		int[] bounds = {0, 10, 70, 128, 129, 500, 511, 999, n};
+		calculator.init(bounds.length - 1);
+		for (int i = bounds.length - 2; i >= 0; i--) {
+			calculator.doPart(bounds[i], bounds[i + 1], i);
+		}
+		assertArrayEquals(expected, calculator.getResult().rows());
+	}
+
+	@Test
+	public void testCombinations() {
+		for (int n : new int[]{0, 1, 63, 64, 65, 1000, 1_000_001}) {
+			Selection first = random(n, 1L + n);
+			Selection second = random(n, 2L + n);
+			boolean[] a = bits(first);
+			boolean[] b = bits(second);
+			boolean[] and = bits(first.and(second, CTX));
+			boolean[] or = bits(first.or(second, CTX));
+			boolean[] andNot = bits(first.andNot(second, CTX));
+			boolean[] not = bits(first.not(CTX));
+			for (int i = 0; i < n; i++) {
+				assertEquals(a[i] && b[i], and[i]);
+				assertEquals(a[i] || b[i], or[i]);
+				assertEquals(a[i] && !b[i], andNot[i]);
+				assertEquals(!a[i], not[i]);
+			}
+			assertEquals(n - first.count(), first.not(CTX).count());
+			assertEquals(first, first.not(CTX).not(CTX));
+		}
+	}
+
+	@Test
+	public void testAllAndNone() {
+		for (int n : new int[]{0, 1, 63, 64, 65, 1000}) {
+			assertEquals(n, Selection.all(n).count());
+			assertEquals(0, Selection.none(n).count());
+			assertArrayEquals(IntStream.range(0, n).toArray(), Selection.all(n).rows());
+			assertEquals(Selection.all(n), Selection.none(n).not(CTX));
+		}
+	}
+
+	@Test
+	public void testIsSelected() {
+		Selection selection = Selection.none(100).or(Selection.all(100).andNot(Selection.none(100), CTX), CTX);
+		assertTrue(selection.isSelected(0));
+		assertTrue(selection.isSelected(99));
+		assertFalse(Selection.none(100).isSelected(64));
+	}
+
+	@Test
+	public void testTableRows() {
+		Table table = table(10_000, 5L);
+		Selection selection = new Filterer(table.column("a")).selectNumeric(v -> v > 0.2, CTX)
+				.and(new Filterer(table.column("c")).selectCategorical(v -> v > 0, CTX), CTX);
+		for (boolean view : new boolean[]{true, false}) {
+			Table result = table.rows(selection, view, CTX);
+			Table expected = table.filterNumeric("a", v -> v > 0.2, Workload.DEFAULT, CTX)
+					.filterCategorical("c", v -> v > 0, Workload.DEFAULT, CTX);
+			assertEquals(expected.height(), result.height());
+			NumericReader reader = Readers.numericReader(result.column("b"));
+			NumericReader expectedReader = Readers.numericReader(expected.column("b"));
+			while (reader.hasRemaining()) {
+				assertEquals(expectedReader.read(), reader.read(), 0);
+			}
+		}
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testTableRowsWrongSize() {
+		table(10, 1L).rows(Selection.all(11), true, CTX);
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testDifferentSizes() {
+		Selection.all(10).and(Selection.all(11), CTX);
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testNegativeSize() {
+		Selection.all(-1);
+	}
+
+	@Test(expected = IndexOutOfBoundsException.class)
+	public void testOutOfBounds() {
+		Selection.all(10).isSelected(10);
+	}
+
+	@Test(expected = NullPointerException.class)
+	public void testNullContext() {
+		Selection.all(10).not(null);
+	}
+
+}